@@ -59,10 +59,9 @@ public final class ExchangeApiConfigBuilder {
         exchangeApiNetworkConfig.setNonFatalErrorCodes(nonFatalErrorCodes);
       } else {
         LOG.info(
-            () ->
-                "No (optional) NetworkConfiguration NonFatalErrorCodes have been set for "
-                    + "Exchange Adapter: "
-                    + exchangeConfig.getAdapter());
+            "No (optional) NetworkConfiguration NonFatalErrorCodes have been set for "
+                + "Exchange Adapter: {}",
+            exchangeConfig.getAdapter());
       }
 
       final List<String> nonFatalErrorMessages = networkConfig.getNonFatalErrorMessages();
@@ -70,20 +69,18 @@ public final class ExchangeApiConfigBuilder {
         exchangeApiNetworkConfig.setNonFatalErrorMessages(nonFatalErrorMessages);
       } else {
         LOG.info(
-            () ->
-                "No (optional) NetworkConfiguration NonFatalErrorMessages have been set for "
-                    + "Exchange Adapter: "
-                    + exchangeConfig.getAdapter());
+            "No (optional) NetworkConfiguration NonFatalErrorMessages have been set for "
+                + "Exchange Adapter: {}",
+            exchangeConfig.getAdapter());
       }
 
       exchangeApiConfig.setNetworkConfig(exchangeApiNetworkConfig);
-      LOG.info(() -> "NetworkConfiguration has been set: " + exchangeApiNetworkConfig);
+      LOG.info("NetworkConfiguration has been set: {}", exchangeApiNetworkConfig);
 
     } else {
       LOG.info(
-          () ->
-              "No (optional) NetworkConfiguration has been set for Exchange Adapter: "
-                  + exchangeConfig.getAdapter());
+          "No (optional) NetworkConfiguration has been set for Exchange Adapter: {}",
+          exchangeConfig.getAdapter());
     }
 
     final Map<String, String> authenticationConfig = exchangeConfig.getAuthenticationConfig();
@@ -94,13 +91,12 @@ public final class ExchangeApiConfigBuilder {
       exchangeApiConfig.setAuthenticationConfig(exchangeApiAuthenticationConfig);
 
       // We don't log the creds!
-      LOG.info(() -> "AuthenticationConfiguration has been set successfully.");
+      LOG.info("AuthenticationConfiguration has been set successfully.");
 
     } else {
       LOG.info(
-          () ->
-              "No (optional) AuthenticationConfiguration has been set for Exchange Adapter: "
-                  + exchangeConfig.getAdapter());
+          "No (optional) AuthenticationConfiguration has been set for Exchange Adapter: {}",
+          exchangeConfig.getAdapter());
     }
 
     final Map<String, String> otherConfig = exchangeConfig.getOtherConfig();
@@ -108,11 +104,11 @@ public final class ExchangeApiConfigBuilder {
       final OtherConfigImpl exchangeApiOtherConfig = new OtherConfigImpl();
       exchangeApiOtherConfig.setItems(otherConfig);
       exchangeApiConfig.setOtherConfig(exchangeApiOtherConfig);
-      LOG.info(() -> "Other Exchange Adapter config has been set: " + exchangeApiOtherConfig);
+      LOG.info("Other Exchange Adapter config has been set: {}", exchangeApiOtherConfig);
     } else {
       LOG.info(
-          () ->
-              "No Other config has been set for Exchange Adapter: " + exchangeConfig.getAdapter());
+          "No Other config has been set for Exchange Adapter: {}",
+          exchangeConfig.getAdapter());
     }
 
     return exchangeApiConfig;
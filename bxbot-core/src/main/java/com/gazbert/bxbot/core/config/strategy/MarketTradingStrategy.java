@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.config.strategy;
+
+import com.gazbert.bxbot.strategy.api.TradingStrategy;
+
+/**
+ * A Trading Strategy built for a Market, along with the ids of the strategy and the Market it
+ * runs on.
+ *
+ * @author gazbert
+ */
+public final class MarketTradingStrategy {
+
+  private final String strategyId;
+  private final String marketId;
+  private final TradingStrategy tradingStrategy;
+
+  MarketTradingStrategy(String strategyId, String marketId, TradingStrategy tradingStrategy) {
+    this.strategyId = strategyId;
+    this.marketId = marketId;
+    this.tradingStrategy = tradingStrategy;
+  }
+
+  public String getStrategyId() {
+    return strategyId;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public TradingStrategy getTradingStrategy() {
+    return tradingStrategy;
+  }
+}
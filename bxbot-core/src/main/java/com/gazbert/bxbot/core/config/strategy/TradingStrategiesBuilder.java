@@ -24,6 +24,7 @@
 package com.gazbert.bxbot.core.config.strategy;
 
 import com.gazbert.bxbot.core.config.market.MarketImpl;
+import com.gazbert.bxbot.core.state.StrategyStateStores;
 import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
@@ -43,6 +44,9 @@ import org.springframework.stereotype.Component;
 /**
  * Util class that loads and initialises the Trading Strategies to execute.
  *
+ * <p>A Market can have more than one Trading Strategy - its tradingStrategyIds config lists the
+ * strategy ids. Each strategy gets its own instance per Market.
+ *
  * @author gazbert
  */
 @Component
@@ -61,14 +65,57 @@ public class TradingStrategiesBuilder {
       List<StrategyConfig> strategies,
       List<MarketConfig> markets,
       ExchangeAdapter exchangeAdapter) {
+    return buildStrategies(strategies, markets, exchangeAdapter, null);
+  }
+
+  /**
+   * Builds the Trading Strategy execution list, giving each strategy a durable state store.
+   *
+   * @param strategies the Trading Strategy config.
+   * @param markets the Market config.
+   * @param exchangeAdapter the Exchange Adapter to pass to the strategies.
+   * @param stateStores the state stores to open a store for each strategy from, or null if the
+   *     strategies should not be given a state store.
+   * @return the Trading Strategies to execute.
+   */
+  public List<TradingStrategy> buildStrategies(
+      List<StrategyConfig> strategies,
+      List<MarketConfig> markets,
+      ExchangeAdapter exchangeAdapter,
+      StrategyStateStores stateStores) {
 
-    final List<TradingStrategy> tradingStrategiesToExecute = new ArrayList<>();
+    final List<TradingStrategy> tradingStrategies = new ArrayList<>();
+    for (final MarketTradingStrategy marketStrategy :
+        buildMarketStrategies(strategies, markets, exchangeAdapter, stateStores)) {
+      tradingStrategies.add(marketStrategy.getTradingStrategy());
+    }
+    return tradingStrategies;
+  }
+
+  /**
+   * Builds the Trading Strategy execution list, pairing each strategy with the Market it was built
+   * for. The list is ordered by market, then by the order of the strategy ids on the market.
+   *
+   * @param strategies the Trading Strategy config.
+   * @param markets the Market config.
+   * @param exchangeAdapter the Exchange Adapter to pass to the strategies.
+   * @param stateStores the state stores to open a store for each strategy from, or null if the
+   *     strategies should not be given a state store.
+   * @return the Trading Strategies to execute, with the Market each one runs on.
+   */
+  public List<MarketTradingStrategy> buildMarketStrategies(
+      List<StrategyConfig> strategies,
+      List<MarketConfig> markets,
+      ExchangeAdapter exchangeAdapter,
+      StrategyStateStores stateStores) {
+
+    final List<MarketTradingStrategy> tradingStrategiesToExecute = new ArrayList<>();
 
     // Register the strategies
     final Map<String, StrategyConfig> tradingStrategyConfigs = new HashMap<>();
     for (final StrategyConfig strategy : strategies) {
       tradingStrategyConfigs.put(strategy.getId(), strategy);
-      LOG.info(() -> "Registered Trading Strategy with Trading Engine: Id=" + strategy.getId());
+      LOG.info("Registered Trading Strategy with Trading Engine: Id={}", strategy.getId());
     }
 
     // Set logic only as crude mechanism for checking for duplicate Markets.
@@ -78,8 +125,7 @@ public class TradingStrategiesBuilder {
     for (final MarketConfig market : markets) {
       final String marketName = market.getName();
       if (!market.isEnabled()) {
-        LOG.info(
-            () -> marketName + " market is NOT enabled for trading - skipping to next market...");
+        LOG.info("{} market is NOT enabled for trading - skipping to next market...", marketName);
         continue;
       }
 
@@ -89,67 +135,142 @@ public class TradingStrategiesBuilder {
       final boolean wasAdded = loadedMarkets.add(tradingMarket);
       if (!wasAdded) {
         final String errorMsg = "Found duplicate Market! Market details: " + market;
-        LOG.fatal(() -> errorMsg);
+        LOG.fatal(errorMsg);
         throw new IllegalArgumentException(errorMsg);
       } else {
         LOG.info(
-            () ->
-                "Registered Market with Trading Engine: Id="
-                    + market.getId()
-                    + ", Name="
-                    + marketName);
+            "Registered Market with Trading Engine: Id={}, Name={}",
+            market.getId(),
+            marketName);
       }
 
-      // Get the strategy to use for this Market
-      final String strategyToUse = market.getTradingStrategyId();
-      LOG.info(() -> "Market Trading Strategy Id to use: " + strategyToUse);
-
-      if (tradingStrategyConfigs.containsKey(strategyToUse)) {
-        final StrategyConfig tradingStrategy = tradingStrategyConfigs.get(strategyToUse);
-        final StrategyConfigItems tradingStrategyConfig = new StrategyConfigItems();
-        final Map<String, String> configItems = tradingStrategy.getConfigItems();
-        if (configItems != null && !configItems.isEmpty()) {
-          tradingStrategyConfig.setItems(configItems);
-        } else {
-          LOG.info(
-              () ->
-                  "No (optional) configuration has been set for Trading Strategy: "
-                      + strategyToUse);
-        }
-        LOG.info(() -> "StrategyConfigImpl (optional): " + tradingStrategyConfig);
-
-        /*
-         * Load the Trading Strategy impl, instantiate it, set its config, and store in the
-         * Trading Strategy execution list.
-         */
-        final TradingStrategy strategyImpl =
-            tradingStrategyFactory.createTradingStrategy(tradingStrategy);
-        strategyImpl.init(exchangeAdapter, tradingMarket, tradingStrategyConfig);
-
-        LOG.info(
-            () ->
-                "Initialized trading strategy successfully. Name: ["
-                    + tradingStrategy.getName()
-                    + "] Class: "
-                    + tradingStrategy.getClassName());
+      // Get the strategies to use for this Market - there can be more than one.
+      final List<String> strategiesToUse = getTradingStrategyIds(market);
+      LOG.info("Market Trading Strategy Ids to use: {}", strategiesToUse);
 
-        tradingStrategiesToExecute.add(strategyImpl);
-      } else {
+      if (strategiesToUse.isEmpty()) {
+        final String errorMsg = "No Strategy has been set for Market! Market details: " + market;
+        LOG.error(errorMsg);
+        throw new IllegalArgumentException(errorMsg);
+      }
 
-        // Game over. Config integrity blown - we can't find strat.
-        final String errorMsg =
-            "Failed to find matching Strategy for Market "
-                + market
-                + " - The Strategy "
-                + "["
-                + strategyToUse
-                + "] cannot be found in the "
-                + " Strategy Descriptions map: "
-                + tradingStrategyConfigs;
-        LOG.error(() -> errorMsg);
+      if (new HashSet<>(strategiesToUse).size() != strategiesToUse.size()) {
+        final String errorMsg = "Found duplicate Strategy for Market! Market details: " + market;
+        LOG.fatal(errorMsg);
         throw new IllegalArgumentException(errorMsg);
       }
+
+      for (final String strategyToUse : strategiesToUse) {
+        tradingStrategiesToExecute.add(
+            new MarketTradingStrategy(
+                strategyToUse,
+                market.getId(),
+                loadStrategy(
+                    strategyToUse,
+                    market,
+                    tradingMarket,
+                    tradingStrategyConfigs,
+                    exchangeAdapter,
+                    stateStores)));
+      }
     }
     return tradingStrategiesToExecute;
   }
+
+  /**
+   * Returns the ids of the Trading Strategies to run on a Market. These are its tradingStrategyIds
+   * config if set, otherwise its older tradingStrategyId config.
+   *
+   * @param market the Market config.
+   * @return the strategy ids, in the order they are configured.
+   */
+  public static List<String> getTradingStrategyIds(MarketConfig market) {
+    final List<String> tradingStrategyIds = market.getTradingStrategyIds();
+    if (tradingStrategyIds == null || tradingStrategyIds.isEmpty()) {
+      return parseTradingStrategyIds(market.getTradingStrategyId());
+    }
+    final List<String> strategyIds = new ArrayList<>();
+    for (final String strategyId : tradingStrategyIds) {
+      if (strategyId != null && !strategyId.trim().isEmpty()) {
+        strategyIds.add(strategyId.trim());
+      }
+    }
+    return strategyIds;
+  }
+
+  /**
+   * Splits a Market's older tradingStrategyId config into the ids of the strategies to run on it.
+   * The ids are comma separated.
+   *
+   * @param tradingStrategyIds the tradingStrategyId config value.
+   * @return the strategy ids.
+   */
+  public static List<String> parseTradingStrategyIds(String tradingStrategyIds) {
+    final List<String> strategyIds = new ArrayList<>();
+    if (tradingStrategyIds != null) {
+      for (final String strategyId : tradingStrategyIds.split(",")) {
+        if (!strategyId.trim().isEmpty()) {
+          strategyIds.add(strategyId.trim());
+        }
+      }
+    }
+    return strategyIds;
+  }
+
+  private TradingStrategy loadStrategy(
+      String strategyToUse,
+      MarketConfig market,
+      Market tradingMarket,
+      Map<String, StrategyConfig> tradingStrategyConfigs,
+      ExchangeAdapter exchangeAdapter,
+      StrategyStateStores stateStores) {
+
+    if (!tradingStrategyConfigs.containsKey(strategyToUse)) {
+      // Game over. Config integrity blown - we can't find strat.
+      final String errorMsg =
+          "Failed to find matching Strategy for Market "
+              + market
+              + " - The Strategy "
+              + "["
+              + strategyToUse
+              + "] cannot be found in the "
+              + " Strategy Descriptions map: "
+              + tradingStrategyConfigs;
+      LOG.error(errorMsg);
+      throw new IllegalArgumentException(errorMsg);
+    }
+
+    final StrategyConfig tradingStrategy = tradingStrategyConfigs.get(strategyToUse);
+    final StrategyConfigItems tradingStrategyConfig = new StrategyConfigItems();
+    final Map<String, String> configItems = tradingStrategy.getConfigItems();
+    if (configItems != null && !configItems.isEmpty()) {
+      tradingStrategyConfig.setItems(configItems);
+    } else {
+      LOG.info("No (optional) configuration has been set for Trading Strategy: {}", strategyToUse);
+    }
+    LOG.info("StrategyConfigImpl (optional): {}", tradingStrategyConfig);
+
+    /*
+     * Load the Trading Strategy impl, instantiate it, set its config, and store in the
+     * Trading Strategy execution list.
+     */
+    final TradingStrategy strategyImpl =
+        tradingStrategyFactory.createTradingStrategy(tradingStrategy);
+    if (stateStores == null) {
+      strategyImpl.init(exchangeAdapter, tradingMarket, tradingStrategyConfig);
+    } else {
+      strategyImpl.init(
+          exchangeAdapter,
+          tradingMarket,
+          tradingStrategyConfig,
+          stateStores.open(strategyToUse, market.getId()));
+    }
+
+    LOG.info(
+        "Initialized trading strategy successfully. Name: [{}] Class: {} Market: {}",
+        tradingStrategy.getName(),
+        tradingStrategy.getClassName(),
+        market.getId());
+    return strategyImpl;
+  }
 }
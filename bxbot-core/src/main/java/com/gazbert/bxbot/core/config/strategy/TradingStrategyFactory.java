@@ -62,7 +62,7 @@ public class TradingStrategyFactory {
       } catch (NullPointerException e) {
         final String errorMsg =
             "Failed to obtain bean [" + tradingStrategyBeanName + "] from spring context";
-        LOG.error(() -> errorMsg);
+        LOG.error(errorMsg);
         throw new IllegalArgumentException(errorMsg);
       }
     }
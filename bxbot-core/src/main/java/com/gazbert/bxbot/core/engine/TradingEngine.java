@@ -25,9 +25,34 @@ package com.gazbert.bxbot.core.engine;
 
 import com.gazbert.bxbot.core.config.exchange.ExchangeApiConfigBuilder;
 import com.gazbert.bxbot.core.config.exchange.ExchangeConfigImpl;
+import com.gazbert.bxbot.core.config.strategy.MarketTradingStrategy;
 import com.gazbert.bxbot.core.config.strategy.TradingStrategiesBuilder;
+import com.gazbert.bxbot.core.events.BotEventPublisher;
+import com.gazbert.bxbot.core.events.EventPublishingExchangeAdapter;
+import com.gazbert.bxbot.core.jfr.StrategyExecutionEvent;
+import com.gazbert.bxbot.core.jfr.TradeCycleEvent;
+import com.gazbert.bxbot.core.journal.JournalingExchangeAdapter;
+import com.gazbert.bxbot.core.journal.OrderFillJournaler;
+import com.gazbert.bxbot.core.journal.TradeJournal;
 import com.gazbert.bxbot.core.mail.EmailAlertMessageBuilder;
 import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.mail.OrderRejectionAlerter;
+import com.gazbert.bxbot.core.marketdata.CandleAggregator;
+import com.gazbert.bxbot.core.marketdata.MarketDataBus;
+import com.gazbert.bxbot.core.marketdata.MarketDataEventProcessor;
+import com.gazbert.bxbot.core.marketdata.MarketDataExchangeAdapter;
+import com.gazbert.bxbot.core.marketdata.OrderFillPublisher;
+import com.gazbert.bxbot.core.metrics.EngineMetrics;
+import com.gazbert.bxbot.core.metrics.MarketDataEventMetrics;
+import com.gazbert.bxbot.core.metrics.MeteredExchangeAdapter;
+import com.gazbert.bxbot.core.order.OrderManagedExchangeAdapter;
+import com.gazbert.bxbot.core.order.OrderManager;
+import com.gazbert.bxbot.core.pnl.PnlAccountant;
+import com.gazbert.bxbot.core.pnl.PnlExchangeAdapter;
+import com.gazbert.bxbot.core.risk.RiskEngine;
+import com.gazbert.bxbot.core.risk.RiskLimits;
+import com.gazbert.bxbot.core.risk.RiskManagedExchangeAdapter;
+import com.gazbert.bxbot.core.state.StrategyStateStores;
 import com.gazbert.bxbot.core.util.ConfigurableComponentFactory;
 import com.gazbert.bxbot.core.util.EmergencyStopChecker;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
@@ -43,8 +68,14 @@ import com.gazbert.bxbot.strategy.api.StrategyException;
 import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,7 +98,8 @@ import org.springframework.stereotype.Component;
  *   <li>The engine is single threaded.
  *   <li>The engine only supports trading on 1 exchange per instance of the bot, i.e. 1 Exchange
  *       Adapter per process.
- *   <li>The engine only supports 1 Trading Strategy per Market.
+ *   <li>A Market can have more than 1 Trading Strategy; its market data is fetched once per trade
+ *       cycle and shared by those strategies.
  * </ul>
  *
  * @author gazbert
@@ -88,9 +120,16 @@ public class TradingEngine {
   private boolean isRunning = false;
 
   private final EmailAlerter emailAlerter;
-  private List<TradingStrategy> tradingStrategies;
+  private List<StrategyRun> strategyRuns;
+  private EngineMetrics engineMetrics;
   private EngineConfig engineConfig;
   private ExchangeAdapter exchangeAdapter;
+  private OrderManager orderManager;
+  private RiskEngine riskEngine;
+  private MarketDataExchangeAdapter marketDataExchangeAdapter;
+  private MarketDataEventProcessor marketDataEventMetricsProcessor;
+  private MarketDataEventProcessor botEventProcessor;
+  private StrategyStateStores strategyStateStores;
 
   private final ExchangeConfigService exchangeConfigService;
   private final EngineConfigService engineConfigService;
@@ -98,6 +137,10 @@ public class TradingEngine {
   private final MarketConfigService marketConfigService;
 
   private final TradingStrategiesBuilder tradingStrategiesBuilder;
+  private final RiskLimits riskLimits;
+  private final TradeJournal tradeJournal;
+  private final PnlAccountant pnlAccountant;
+  private final BotEventPublisher botEventPublisher;
 
   /** Creates the Trading Engine. */
   @Autowired
@@ -107,7 +150,11 @@ public class TradingEngine {
       StrategyConfigService strategyConfigService,
       MarketConfigService marketConfigService,
       EmailAlerter emailAlerter,
-      TradingStrategiesBuilder tradingStrategiesBuilder) {
+      TradingStrategiesBuilder tradingStrategiesBuilder,
+      RiskLimits riskLimits,
+      TradeJournal tradeJournal,
+      PnlAccountant pnlAccountant,
+      BotEventPublisher botEventPublisher) {
 
     this.exchangeConfigService = exchangeConfigService;
     this.engineConfigService = engineConfigService;
@@ -115,6 +162,10 @@ public class TradingEngine {
     this.marketConfigService = marketConfigService;
     this.emailAlerter = emailAlerter;
     this.tradingStrategiesBuilder = tradingStrategiesBuilder;
+    this.riskLimits = riskLimits;
+    this.tradeJournal = tradeJournal;
+    this.pnlAccountant = pnlAccountant;
+    this.botEventPublisher = botEventPublisher;
   }
 
   /** Starts the bot. */
@@ -122,7 +173,7 @@ public class TradingEngine {
     synchronized (IS_RUNNING_MONITOR) {
       if (isRunning) {
         final String errorMsg = "Cannot start Trading Engine because it is already running!";
-        LOG.error(() -> errorMsg);
+        LOG.error(errorMsg);
         throw new IllegalStateException(errorMsg);
       }
       isRunning = true;
@@ -136,11 +187,12 @@ public class TradingEngine {
   }
 
   private void init() {
-    LOG.info(() -> "Initialising Trading Engine...");
+    LOG.info("Initialising Trading Engine...");
     // the sequence order of these methods is significant - don't change it.
     exchangeAdapter = loadExchangeAdapter();
     engineConfig = loadEngineConfig();
-    tradingStrategies = loadTradingStrategies();
+    engineMetrics = new EngineMetrics(Metrics.globalRegistry, engineConfig, emailAlerter);
+    strategyRuns = loadTradingStrategies();
   }
 
   /*
@@ -149,41 +201,73 @@ public class TradingEngine {
    * The code fails hard and fast if an unexpected occurs. Network exceptions *should* recover.
    */
   private void runMainControlLoop() {
-    LOG.info(() -> "Starting Trading Engine for " + engineConfig.getBotId() + " ...");
+    LOG.info("Starting Trading Engine for {} ...", engineConfig.getBotId());
+    long tradeCycle = 0;
     while (keepAlive) {
+      tradeCycle++;
+      final long tradeCycleStartTime = System.currentTimeMillis();
+      final TradeCycleEvent tradeCycleEvent = new TradeCycleEvent();
+      tradeCycleEvent.begin();
       try {
-        LOG.info(() -> "*** Starting next trade cycle... ***");
+        LOG.info("*** Starting next trade cycle... ***");
 
         // Emergency Stop Check MUST run at start of every trade cycle.
         if (isEmergencyStopLimitBreached()) {
           break;
         }
+        if (isRiskKillSwitchTripped()) {
+          break;
+        }
+
+        orderManager.startTradeCycle();
+        marketDataExchangeAdapter.startTradeCycle();
 
-        for (final TradingStrategy tradingStrategy : tradingStrategies) {
+        for (final StrategyRun strategyRun : strategyRuns) {
           LOG.info(
-              () ->
-                  "Executing Trading Strategy ---> " + tradingStrategy.getClass().getSimpleName());
-          tradingStrategy.execute();
+              "Executing Trading Strategy ---> {}",
+              strategyRun.tradingStrategy.getClass().getSimpleName());
+          executeTradingStrategy(strategyRun);
         }
 
+        // One fsync per strategy per cycle, however often the strategies updated their state.
+        strategyStateStores.flushAll();
+        // Likewise the cycle's journal records are synced to disk in one go.
+        tradeJournal.cycleCompleted(tradeCycle, System.currentTimeMillis() - tradeCycleStartTime);
+        // PnL is checkpointed so the next start need not replay the whole journal.
+        pnlAccountant.checkpoint(tradeJournal);
+        tradeJournal.flush();
+        botEventPublisher.cycleCompleted(
+            tradeCycle, System.currentTimeMillis() - tradeCycleStartTime, "COMPLETED");
+        engineMetrics.cycleCompleted(System.currentTimeMillis() - tradeCycleStartTime, "COMPLETED");
+        tradeCycleEvent.complete(engineConfig.getBotId(), tradeCycle, "COMPLETED");
+
         sleepUntilNextTradingCycle();
 
       } catch (ExchangeNetworkException e) {
+        recordFailedCycle(tradeCycleEvent, tradeCycle, tradeCycleStartTime, "NETWORK_ERROR", e);
         handleExchangeNetworkException(e);
 
       } catch (TradingApiException e) {
+        recordFailedCycle(tradeCycleEvent, tradeCycle, tradeCycleStartTime, "TRADING_API_ERROR", e);
         handleTradingApiException(e);
 
       } catch (StrategyException e) {
+        recordFailedCycle(tradeCycleEvent, tradeCycle, tradeCycleStartTime, "STRATEGY_ERROR", e);
         handleStrategyException(e);
 
       } catch (Exception e) {
+        recordFailedCycle(tradeCycleEvent, tradeCycle, tradeCycleStartTime, "UNEXPECTED_ERROR", e);
         handleUnexpectedException(e);
       }
     }
 
     // We've broken out of the control loop due to error or admin shutdown request
-    LOG.fatal(() -> "BX-bot " + engineConfig.getBotId() + " is shutting down NOW!");
+    LOG.fatal("BX-bot {} is shutting down NOW!", engineConfig.getBotId());
+    engineMetrics.close();
+    strategyStateStores.closeAll();
+    tradeJournal.flush();
+    marketDataEventMetricsProcessor.halt();
+    botEventProcessor.halt();
     synchronized (IS_RUNNING_MONITOR) {
       isRunning = false;
     }
@@ -195,27 +279,55 @@ public class TradingEngine {
    * Currently not used, but will eventually be called from BX-bot UI.
    */
   void shutdown() {
-    LOG.info(() -> "Shutdown request received!");
-    LOG.info(() -> "Engine originally started in thread: " + engineThread);
+    LOG.info("Shutdown request received!");
+    LOG.info("Engine originally started in thread: {}", engineThread);
     keepAlive = false;
     engineThread.interrupt(); // poke it in case bot is sleeping
   }
 
   synchronized boolean isRunning() {
-    LOG.info(() -> "isRunning: " + isRunning);
+    LOG.info("isRunning: {}", isRunning);
     return isRunning;
   }
 
+  private void executeTradingStrategy(StrategyRun strategyRun) throws StrategyException {
+    final TradingStrategy tradingStrategy = strategyRun.tradingStrategy;
+    final StrategyExecutionEvent strategyExecutionEvent = new StrategyExecutionEvent();
+    strategyExecutionEvent.begin();
+    final long strategyStartTime = System.nanoTime();
+    boolean succeeded = false;
+    try {
+      tradingStrategy.execute();
+      succeeded = true;
+    } finally {
+      strategyRun.executeTimer.record(System.nanoTime() - strategyStartTime, TimeUnit.NANOSECONDS);
+      strategyExecutionEvent.complete(
+          strategyRun.strategyId,
+          strategyRun.marketId,
+          tradingStrategy.getClass().getName(),
+          succeeded);
+    }
+  }
+
+  private void recordFailedCycle(
+      TradeCycleEvent tradeCycleEvent,
+      long tradeCycle,
+      long tradeCycleStartTime,
+      String outcome,
+      Exception e) {
+    final long durationMillis = System.currentTimeMillis() - tradeCycleStartTime;
+    botEventPublisher.cycleCompleted(tradeCycle, durationMillis, outcome);
+    engineMetrics.cycleCompleted(durationMillis, outcome);
+    engineMetrics.exceptionThrown(e);
+    tradeCycleEvent.complete(engineConfig.getBotId(), tradeCycle, outcome);
+  }
+
   private void sleepUntilNextTradingCycle() {
-    LOG.info(
-        () ->
-            "*** Sleeping "
-                + engineConfig.getTradeCycleInterval()
-                + "s til next trade cycle... ***");
+    LOG.info("*** Sleeping {}s til next trade cycle... ***", engineConfig.getTradeCycleInterval());
     try {
       Thread.sleep(engineConfig.getTradeCycleInterval() * 1000L);
     } catch (InterruptedException e) {
-      LOG.warn(() -> "Control Loop thread interrupted when sleeping before next trade cycle");
+      LOG.warn("Control Loop thread interrupted when sleeping before next trade cycle");
       Thread.currentThread().interrupt();
     }
   }
@@ -230,12 +342,12 @@ public class TradingEngine {
             + "BX-bot will try again in "
             + engineConfig.getTradeCycleInterval()
             + "s...";
-    LOG.error(() -> errorMessage, e);
+    LOG.error(errorMessage, e);
 
     try {
       Thread.sleep(engineConfig.getTradeCycleInterval() * 1000L);
     } catch (InterruptedException e1) {
-      LOG.warn(() -> "Control Loop thread interrupted when sleeping before next trade cycle");
+      LOG.warn("Control Loop thread interrupted when sleeping before next trade cycle");
       Thread.currentThread().interrupt();
     }
   }
@@ -246,7 +358,7 @@ public class TradingEngine {
    */
   private void handleTradingApiException(TradingApiException e) {
     final String fatalErrorMessage = "A FATAL error has occurred in Exchange Adapter!";
-    LOG.fatal(() -> fatalErrorMessage, e);
+    LOG.fatal(fatalErrorMessage, e);
     emailAlerter.sendMessage(
         CRITICAL_EMAIL_ALERT_SUBJECT,
         EmailAlertMessageBuilder.buildCriticalMsgContent(
@@ -268,7 +380,7 @@ public class TradingEngine {
    */
   private void handleStrategyException(StrategyException e) {
     final String fatalErrorMsg = "A FATAL error has occurred in Trading Strategy!";
-    LOG.fatal(() -> fatalErrorMsg, e);
+    LOG.fatal(fatalErrorMsg, e);
     emailAlerter.sendMessage(
         CRITICAL_EMAIL_ALERT_SUBJECT,
         EmailAlertMessageBuilder.buildCriticalMsgContent(
@@ -291,7 +403,7 @@ public class TradingEngine {
   private void handleUnexpectedException(Exception e) {
     final String fatalErrorMsg =
         "An unexpected FATAL error has occurred in Exchange Adapter or " + "Trading Strategy!";
-    LOG.fatal(() -> fatalErrorMsg, e);
+    LOG.fatal(fatalErrorMsg, e);
     emailAlerter.sendMessage(
         CRITICAL_EMAIL_ALERT_SUBJECT,
         EmailAlertMessageBuilder.buildCriticalMsgContent(
@@ -309,20 +421,43 @@ public class TradingEngine {
 
   private boolean isEmergencyStopLimitBreached()
       throws TradingApiException, ExchangeNetworkException {
+    // Checked first as it makes no exchange calls.
+    if (EmergencyStopChecker.isEmergencyStopLossBreached(
+        pnlAccountant, exchangeAdapter, engineConfig, emailAlerter)) {
+      return true;
+    }
     if (engineConfig.getEmergencyStopBalance().compareTo(BigDecimal.ZERO) == 0) {
       return false; // by-pass the emergency stop check
     }
     return EmergencyStopChecker.isEmergencyStopLimitBreached(
-        exchangeAdapter, engineConfig, emailAlerter);
+        exchangeAdapter, engineConfig, emailAlerter, engineMetrics);
+  }
+
+  private boolean isRiskKillSwitchTripped() {
+    final String killSwitchReason = riskEngine.getKillSwitchReason();
+    if (killSwitchReason == null) {
+      return false;
+    }
+    final String fatalErrorMsg = "Risk kill switch has been tripped!";
+    LOG.fatal("{} {}", fatalErrorMsg, killSwitchReason);
+    emailAlerter.sendMessage(
+        CRITICAL_EMAIL_ALERT_SUBJECT,
+        EmailAlertMessageBuilder.buildCriticalMsgContent(
+            fatalErrorMsg + DETAILS_ERROR_MSG_LABEL + killSwitchReason,
+            null,
+            engineConfig.getBotId(),
+            engineConfig.getBotName(),
+            exchangeAdapter.getClass().getName()));
+    return true;
   }
 
   private ExchangeAdapter loadExchangeAdapter() {
     final ExchangeConfig exchangeConfig = exchangeConfigService.getExchangeConfig();
-    LOG.info(() -> "Fetched Exchange config from repository: " + exchangeConfig);
+    LOG.info("Fetched Exchange config from repository: {}", exchangeConfig);
 
     final ExchangeAdapter adapter =
         ConfigurableComponentFactory.createComponent(exchangeConfig.getAdapter());
-    LOG.info(() -> "Trading Engine will use Exchange Adapter for: " + adapter.getImplName());
+    LOG.info("Trading Engine will use Exchange Adapter for: {}", adapter.getImplName());
 
     final ExchangeConfigImpl exchangeApiConfig =
         ExchangeApiConfigBuilder.buildConfig(exchangeConfig);
@@ -332,15 +467,141 @@ public class TradingEngine {
 
   private EngineConfig loadEngineConfig() {
     final EngineConfig loadedEngineConfig = engineConfigService.getEngineConfig();
-    LOG.info(() -> "Fetched Engine config from repository: " + loadedEngineConfig);
+    LOG.info("Fetched Engine config from repository: {}", loadedEngineConfig);
     return loadedEngineConfig;
   }
 
-  private List<TradingStrategy> loadTradingStrategies() {
+  private List<StrategyRun> loadTradingStrategies() {
     final List<StrategyConfig> strategies = strategyConfigService.getAllStrategyConfig();
-    LOG.info(() -> "Fetched Strategy config from repository: " + strategies);
+    LOG.info("Fetched Strategy config from repository: {}", strategies);
     final List<MarketConfig> markets = marketConfigService.getAllMarketConfig();
-    LOG.info(() -> "Fetched Markets config from repository: " + markets);
-    return tradingStrategiesBuilder.buildStrategies(strategies, markets, exchangeAdapter);
+    LOG.info("Fetched Markets config from repository: {}", markets);
+    // Exchange Adapters round and validate orders using the cached trading rules, so load them now.
+    loadMarketMetadata(markets);
+    // Strategies get a metered adapter so we can track Trading API latency and error rates.
+    final MeteredExchangeAdapter meteredExchangeAdapter =
+        new MeteredExchangeAdapter(exchangeAdapter, Metrics.globalRegistry);
+    // Market data is shared by all strategies, so candles are built once per market.
+    marketDataExchangeAdapter =
+        new MarketDataExchangeAdapter(meteredExchangeAdapter, new CandleAggregator());
+    marketDataExchangeAdapter.setSharedMarkets(findSharedMarkets(markets));
+    // Market data and fills are also published to the bus for anything that wants to stream them.
+    final MarketDataBus marketDataBus = new MarketDataBus(MarketDataBus.DEFAULT_BUFFER_SIZE);
+    marketDataExchangeAdapter.setMarketDataBus(marketDataBus);
+    marketDataEventMetricsProcessor =
+        marketDataBus.subscribe(new MarketDataEventMetrics(Metrics.globalRegistry));
+    final Thread marketDataEventMetricsThread =
+        new Thread(marketDataEventMetricsProcessor, "bxbot-market-data-metrics");
+    marketDataEventMetricsThread.setDaemon(true);
+    marketDataEventMetricsThread.start();
+    // Top of book changes are streamed to REST API clients off the engine thread.
+    botEventProcessor = marketDataBus.subscribe(botEventPublisher);
+    final Thread botEventThread = new Thread(botEventProcessor, "bxbot-market-data-events");
+    botEventThread.setDaemon(true);
+    botEventThread.start();
+    // Order calls go through the Order Manager so open orders are tracked once for all strategies.
+    orderManager = new OrderManager(meteredExchangeAdapter);
+    // Orders are risk checked in-process before they go anywhere near the exchange.
+    riskEngine = new RiskEngine(riskLimits, marketDataExchangeAdapter::getLastKnownPrice);
+    // Profit and loss carries on from the fills in the journal, then from fills as they happen.
+    pnlAccountant.start(meteredExchangeAdapter, marketDataExchangeAdapter::getLastKnownPrice);
+    for (final MarketConfig market : markets) {
+      riskEngine.addMarket(market.getId(), market.getBaseCurrency(), market.getCounterCurrency());
+      pnlAccountant.addMarket(market.getId(), market.getCounterCurrency());
+    }
+    pnlAccountant.recover(tradeJournal);
+    // Fills are taken from the exchange's trade history, carrying on from the last one booked.
+    for (final MarketConfig market : markets) {
+      if (market.isEnabled()) {
+        final String marketId = market.getId();
+        orderManager.startTradeHistory(marketId, pnlAccountant.getTradeCursor(marketId));
+      }
+    }
+    orderManager.addOrderListener(riskEngine);
+    orderManager.addOrderListener(pnlAccountant);
+    orderManager.addOrderListener(new OrderFillPublisher(marketDataBus));
+    orderManager.addOrderListener(new OrderFillJournaler(tradeJournal));
+    orderManager.addOrderListener(botEventPublisher);
+    orderManager.addOrderListener(engineMetrics);
+    // Rejected orders don't stop the bot, but someone should know about them.
+    orderManager.addOrderListener(
+        new OrderRejectionAlerter(
+            emailAlerter, engineConfig, exchangeAdapter.getClass().getName()));
+    final OrderManagedExchangeAdapter orderManagedExchangeAdapter =
+        new OrderManagedExchangeAdapter(
+            new RiskManagedExchangeAdapter(marketDataExchangeAdapter, riskEngine), orderManager);
+    // Everything the strategies ask for is journaled, including orders the risk checks reject.
+    final JournalingExchangeAdapter journalingExchangeAdapter =
+        new JournalingExchangeAdapter(orderManagedExchangeAdapter, tradeJournal);
+    // The balances the strategies fetch are streamed to REST API clients.
+    final EventPublishingExchangeAdapter eventPublishingExchangeAdapter =
+        new EventPublishingExchangeAdapter(journalingExchangeAdapter, botEventPublisher);
+    // Strategies can see their position and PnL without an exchange call.
+    final PnlExchangeAdapter pnlExchangeAdapter =
+        new PnlExchangeAdapter(eventPublishingExchangeAdapter, pnlAccountant);
+    strategyStateStores = new StrategyStateStores(StrategyStateStores.DEFAULT_STATE_DIRECTORY);
+    return createStrategyRuns(
+        tradingStrategiesBuilder.buildMarketStrategies(
+            strategies, markets, pnlExchangeAdapter, strategyStateStores));
+  }
+
+  private void loadMarketMetadata(List<MarketConfig> markets) {
+    for (final MarketConfig market : markets) {
+      if (market.isEnabled()) {
+        try {
+          exchangeAdapter.getMarketMetadata(market.getId());
+        } catch (TradingApiException | ExchangeNetworkException e) {
+          LOG.warn(
+              "Failed to load market metadata for market {} - its orders will not be validated "
+                  + "before they are sent to the exchange",
+              market.getId(),
+              e);
+        }
+      }
+    }
+  }
+
+  /** Creates a run for each Trading Strategy, on the Market the strategy was built for. */
+  private List<StrategyRun> createStrategyRuns(List<MarketTradingStrategy> marketStrategies) {
+    final List<StrategyRun> runs = new ArrayList<>();
+    for (final MarketTradingStrategy marketStrategy : marketStrategies) {
+      final String strategyId = marketStrategy.getStrategyId();
+      final String marketId = marketStrategy.getMarketId();
+      runs.add(
+          new StrategyRun(
+              strategyId,
+              marketId,
+              marketStrategy.getTradingStrategy(),
+              engineMetrics.strategyExecuteTimer(strategyId, marketId)));
+    }
+    return runs;
+  }
+
+  /** Returns the ids of the enabled markets that have more than one Trading Strategy attached. */
+  private static Set<String> findSharedMarkets(List<MarketConfig> markets) {
+    final Set<String> sharedMarkets = new HashSet<>();
+    for (final MarketConfig market : markets) {
+      if (market.isEnabled() && TradingStrategiesBuilder.getTradingStrategyIds(market).size() > 1) {
+        sharedMarkets.add(market.getId());
+      }
+    }
+    return sharedMarkets;
+  }
+
+  /** A Trading Strategy, its strategy id and market, and the timer its runs are recorded in. */
+  private static final class StrategyRun {
+
+    private final String strategyId;
+    private final String marketId;
+    private final TradingStrategy tradingStrategy;
+    private final Timer executeTimer;
+
+    StrategyRun(
+        String strategyId, String marketId, TradingStrategy tradingStrategy, Timer executeTimer) {
+      this.strategyId = strategyId;
+      this.marketId = marketId;
+      this.tradingStrategy = tradingStrategy;
+      this.executeTimer = executeTimer;
+    }
   }
 }
@@ -0,0 +1,235 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.events;
+
+import com.gazbert.bxbot.core.marketdata.MarketDataEvent;
+import com.gazbert.bxbot.core.marketdata.MarketDataEventHandler;
+import com.gazbert.bxbot.core.order.OrderListener;
+import com.gazbert.bxbot.core.order.TrackedOrder;
+import com.gazbert.bxbot.domain.bot.BotEvent;
+import com.gazbert.bxbot.services.runtime.BotEventService;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the Bot's events to the subscribers of the {@link BotEventService}.
+ *
+ * <p>Events come from the Trading Engine (trade cycles), the Order Manager (orders opening and
+ * closing), the {@link EventPublishingExchangeAdapter} (balances) and the market data bus (top of
+ * book). Publishing never blocks: an event is added to each subscriber's bounded buffer, dropping
+ * the oldest event if the buffer is full, and the buffers are drained by a pool of streaming
+ * threads, one subscriber at a time per thread.
+ *
+ * <p>The latest balances and top of book for each market are kept, so new subscribers can be sent
+ * the current state straight away.
+ *
+ * @author gazbert
+ */
+@Component
+public class BotEventPublisher implements BotEventService, OrderListener, MarketDataEventHandler {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final int clientBufferSize;
+  private final ExecutorService streamingExecutor;
+
+  private final Object lock = new Object();
+  private final List<EventStreamSubscriber> subscribers = new CopyOnWriteArrayList<>();
+  private final Map<String, BotEvent> topOfBooks = new LinkedHashMap<>();
+  private BotEvent balances;
+  private long sequence;
+
+  /**
+   * Creates the Bot Event Publisher.
+   *
+   * @param clientBufferSize the maximum number of events buffered for each subscriber.
+   */
+  @Autowired
+  public BotEventPublisher(@Value("${bxbot.events.clientBufferSize:1024}") int clientBufferSize) {
+    if (clientBufferSize < 1) {
+      throw new IllegalArgumentException("Client buffer size must be positive: " + clientBufferSize);
+    }
+    this.clientBufferSize = clientBufferSize;
+    final AtomicInteger threadCount = new AtomicInteger();
+    streamingExecutor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "bxbot-event-stream-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @Override
+  public Subscription subscribe(Set<BotEvent.Type> eventTypes, Sink sink) {
+    final Set<BotEvent.Type> wantedTypes =
+        eventTypes == null || eventTypes.isEmpty()
+            ? EnumSet.allOf(BotEvent.Type.class)
+            : EnumSet.copyOf(eventTypes);
+    synchronized (lock) {
+      final EventStreamSubscriber subscriber =
+          new EventStreamSubscriber(
+              wantedTypes, sink, clientBufferSize, streamingExecutor, this::unsubscribe);
+      if (balances != null) {
+        subscriber.offer(balances);
+      }
+      for (final BotEvent topOfBook : topOfBooks.values()) {
+        subscriber.offer(topOfBook);
+      }
+      subscribers.add(subscriber);
+      LOG.info("Bot event subscriber added for {}", wantedTypes);
+      return subscriber;
+    }
+  }
+
+  /**
+   * Publishes the result of a trade cycle.
+   *
+   * @param cycle the trade cycle number, starting at 1.
+   * @param durationMillis how long the cycle took.
+   * @param status how the cycle ended, e.g. COMPLETED.
+   */
+  public void cycleCompleted(long cycle, long durationMillis, String status) {
+    final Map<String, Object> data = new LinkedHashMap<>();
+    data.put("cycle", cycle);
+    data.put("durationMillis", durationMillis);
+    data.put("status", status);
+    publish(BotEvent.Type.CYCLE, System.currentTimeMillis(), null, data);
+  }
+
+  /**
+   * Publishes the balances fetched from the exchange.
+   *
+   * @param balancesAvailable the available balances, by currency.
+   * @param balancesOnHold the balances on hold, by currency.
+   */
+  public void balancesUpdated(
+      Map<String, BigDecimal> balancesAvailable, Map<String, BigDecimal> balancesOnHold) {
+    final Map<String, Object> data = new LinkedHashMap<>();
+    data.put("available", copyOf(balancesAvailable));
+    data.put("onHold", copyOf(balancesOnHold));
+    publish(BotEvent.Type.BALANCE, System.currentTimeMillis(), null, data);
+  }
+
+  @Override
+  public void orderOpened(TrackedOrder order) {
+    publishOrder(order, "OPEN");
+  }
+
+  @Override
+  public void orderClosed(TrackedOrder order) {
+    publishOrder(order, order.getStatus().name());
+  }
+
+  /** Publishes the top of book from the market data bus, when it changes. */
+  @Override
+  public void onEvent(MarketDataEvent event, long sequence, boolean endOfBatch) {
+    if (event.getType() == MarketDataEvent.Type.FILL
+        || event.getBestBid() == null && event.getBestAsk() == null) {
+      return;
+    }
+    synchronized (lock) {
+      final BotEvent current = topOfBooks.get(event.getMarketId());
+      if (current != null
+          && Objects.equals(current.getData().get("bestBid"), event.getBestBid())
+          && Objects.equals(current.getData().get("bestAsk"), event.getBestAsk())) {
+        return;
+      }
+      final Map<String, Object> data = new LinkedHashMap<>();
+      data.put("bestBid", event.getBestBid());
+      data.put("bestAsk", event.getBestAsk());
+      publish(BotEvent.Type.TOP_OF_BOOK, event.getTimestamp(), event.getMarketId(), data);
+    }
+  }
+
+  /** Stops streaming to all subscribers. */
+  @PreDestroy
+  public void close() {
+    subscribers.forEach(EventStreamSubscriber::close);
+    streamingExecutor.shutdownNow();
+  }
+
+  int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void publishOrder(TrackedOrder order, String status) {
+    final Map<String, Object> data = new LinkedHashMap<>();
+    data.put("orderId", order.getId());
+    data.put("orderType", order.getType());
+    data.put("price", order.getPrice());
+    data.put("quantity", order.getQuantity());
+    data.put("originalQuantity", order.getOriginalQuantity());
+    data.put("status", status);
+    publish(BotEvent.Type.ORDER, System.currentTimeMillis(), order.getMarketId(), data);
+  }
+
+  private void publish(
+      BotEvent.Type type, long timestamp, String marketId, Map<String, Object> data) {
+    synchronized (lock) {
+      final BotEvent event = new BotEvent(++sequence, type, timestamp, marketId, data);
+      if (type == BotEvent.Type.BALANCE) {
+        balances = event;
+      } else if (type == BotEvent.Type.TOP_OF_BOOK) {
+        topOfBooks.put(marketId, event);
+      }
+      for (final EventStreamSubscriber subscriber : subscribers) {
+        subscriber.offer(event);
+      }
+    }
+  }
+
+  private void unsubscribe(EventStreamSubscriber subscriber) {
+    subscribers.remove(subscriber);
+    LOG.info("Bot event subscriber removed - events dropped: {}", subscriber.getDroppedCount());
+  }
+
+  private static Map<String, BigDecimal> copyOf(Map<String, BigDecimal> balances) {
+    return balances == null
+        ? Collections.emptyMap()
+        : Collections.unmodifiableMap(new HashMap<>(balances));
+  }
+}
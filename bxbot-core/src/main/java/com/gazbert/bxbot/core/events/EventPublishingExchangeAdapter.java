@@ -0,0 +1,63 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.events;
+
+import com.gazbert.bxbot.core.util.ForwardingExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+
+/**
+ * Decorates an Exchange Adapter and publishes the balances fetched by the Trading Strategies to the
+ * {@link BotEventPublisher}, so they can be streamed to REST API clients.
+ *
+ * @author gazbert
+ */
+public class EventPublishingExchangeAdapter extends ForwardingExchangeAdapter {
+
+  private final BotEventPublisher botEventPublisher;
+
+  /**
+   * Creates the Event Publishing Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   * @param botEventPublisher the publisher to publish the balances to.
+   */
+  public EventPublishingExchangeAdapter(
+      ExchangeAdapter delegate, BotEventPublisher botEventPublisher) {
+    super(delegate);
+    this.botEventPublisher = botEventPublisher;
+  }
+
+  @Override
+  public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+    final BalanceInfo balanceInfo = delegate.getBalanceInfo();
+    if (balanceInfo != null) {
+      botEventPublisher.balancesUpdated(
+          balanceInfo.getBalancesAvailable(), balanceInfo.getBalancesOnHold());
+    }
+    return balanceInfo;
+  }
+}
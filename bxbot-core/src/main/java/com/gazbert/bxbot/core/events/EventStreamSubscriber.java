@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.events;
+
+import com.gazbert.bxbot.domain.bot.BotEvent;
+import com.gazbert.bxbot.services.runtime.BotEventService;
+import com.gazbert.bxbot.services.runtime.BoundedSubscriber;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A subscriber to the {@link BotEventPublisher}, with its own bounded buffer of events.
+ *
+ * <p>If the subscriber cannot keep up, the oldest events are dropped; it is then sent a {@link
+ * BotEvent.Type#DROPPED} event, with the sequence of the last event dropped, before the events
+ * that follow.
+ *
+ * @author gazbert
+ */
+final class EventStreamSubscriber extends BoundedSubscriber<BotEvent>
+    implements BotEventService.Subscription {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Set<BotEvent.Type> eventTypes;
+  private final BotEventService.Sink sink;
+  private final Consumer<EventStreamSubscriber> onClose;
+
+  EventStreamSubscriber(
+      Set<BotEvent.Type> eventTypes,
+      BotEventService.Sink sink,
+      int bufferSize,
+      Executor streamingExecutor,
+      Consumer<EventStreamSubscriber> onClose) {
+    super(bufferSize, streamingExecutor);
+    this.eventTypes = eventTypes;
+    this.sink = sink;
+    this.onClose = onClose;
+  }
+
+  /**
+   * Adds an event to the buffer, if the subscriber wants it, and makes sure a drain task is
+   * running.
+   *
+   * @param event the event.
+   */
+  void offer(BotEvent event) {
+    if (eventTypes.contains(event.getType())) {
+      offerItem(event);
+    }
+  }
+
+  @Override
+  protected void send(BotEvent event) throws Exception {
+    sink.send(event);
+  }
+
+  @Override
+  protected BotEvent createDroppedNotice(long count, BotEvent lastDropped) {
+    return new BotEvent(
+        lastDropped.getSequence(),
+        BotEvent.Type.DROPPED,
+        System.currentTimeMillis(),
+        null,
+        Collections.singletonMap("count", count));
+  }
+
+  @Override
+  protected void sendFailed(Exception e) {
+    LOG.info("Failed to send Bot event - closing subscriber: {}", e.getMessage());
+  }
+
+  @Override
+  protected void streamingStopped() {
+    LOG.warn("Bot event streaming has stopped - closing subscriber");
+  }
+
+  @Override
+  protected void closed() {
+    onClose.accept(this);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a Trading Strategy execute call.
+ *
+ * <p>Call {@link #begin()} before the strategy is executed and {@link #complete(String, String,
+ * String, boolean)} afterwards. When the event is not enabled in the recording, this costs next to
+ * nothing.
+ *
+ * @author gazbert
+ */
+@Name("com.gazbert.bxbot.StrategyExecution")
+@Label("Strategy Execution")
+@Category({"BX-bot", "Trading Engine"})
+@Description("A Trading Strategy execute call, including the Exchange Adapter calls it made")
+@StackTrace(false)
+public class StrategyExecutionEvent extends Event {
+
+  @Label("Strategy")
+  @Description("The Trading Strategy id")
+  String strategy;
+
+  @Label("Market")
+  @Description("The id of the market the strategy is trading on")
+  String market;
+
+  @Label("Strategy Class")
+  String strategyClass;
+
+  @Label("Succeeded")
+  @Description("False if the strategy threw an exception")
+  boolean succeeded;
+
+  /**
+   * Ends the event and commits it to the recording, if it is enabled and lasted longer than its
+   * threshold.
+   *
+   * @param strategy the Trading Strategy id.
+   * @param market the market id.
+   * @param strategyClass the Trading Strategy class name.
+   * @param succeeded false if the strategy threw an exception.
+   */
+  public void complete(String strategy, String market, String strategyClass, boolean succeeded) {
+    end();
+    if (shouldCommit()) {
+      this.strategy = strategy;
+      this.market = market;
+      this.strategyClass = strategyClass;
+      this.succeeded = succeeded;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a Trading Engine trade cycle: from the Emergency Stop check to
+ * the end of the last Trading Strategy run. The sleep until the next cycle is not included.
+ *
+ * <p>Call {@link #begin()} at the start of the cycle and {@link #complete(String, long, String)}
+ * at the end. When the event is not enabled in the recording, this costs next to nothing.
+ *
+ * @author gazbert
+ */
+@Name("com.gazbert.bxbot.TradeCycle")
+@Label("Trade Cycle")
+@Category({"BX-bot", "Trading Engine"})
+@Description("A Trading Engine trade cycle, excluding the sleep until the next one")
+@StackTrace(false)
+public class TradeCycleEvent extends Event {
+
+  @Label("Bot Id")
+  String botId;
+
+  @Label("Trade Cycle")
+  @Description("The trade cycle number, starting at 1 when the engine starts")
+  long tradeCycle;
+
+  @Label("Outcome")
+  @Description("COMPLETED, or the type of error that ended the cycle")
+  String outcome;
+
+  /**
+   * Ends the event and commits it to the recording, if it is enabled and lasted longer than its
+   * threshold.
+   *
+   * @param botId the bot id.
+   * @param tradeCycle the trade cycle number.
+   * @param outcome how the cycle ended.
+   */
+  public void complete(String botId, long tradeCycle, String outcome) {
+    end();
+    if (shouldCommit()) {
+      this.botId = botId;
+      this.tradeCycle = tradeCycle;
+      this.outcome = outcome;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.journal;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A record read back from the {@link TradeJournal}.
+ *
+ * <p>Records are immutable. Which fields are set depends on the record type:
+ *
+ * <ul>
+ *   <li>{@link Type#ORDER_REQUEST} - market, order type, quantity and price.
+ *   <li>{@link Type#ORDER_ACK} - as the request, plus the order id returned by the exchange.
+ *   <li>{@link Type#ORDER_FAILED} - as the request, plus the reason in the detail.
+ *   <li>{@link Type#CANCEL_REQUEST} and {@link Type#CANCEL_ACK} - market and order id.
+ *   <li>{@link Type#CANCEL_FAILED} - market and order id, plus the reason in the detail.
+ *   <li>{@link Type#FILL} - market, order id, order type, price and the quantity filled, plus the
+ *       fee if the exchange gave one, and the trade history cursor in the detail if the fill came
+ *       from the exchange's trade history and was the last of its batch.
+ *   <li>{@link Type#BALANCE_SNAPSHOT} - the available and on hold balances.
+ *   <li>{@link Type#CYCLE_SUMMARY} - the trade cycle number and how long it took.
+ *   <li>{@link Type#CHECKPOINT} - the checkpointed state, encoded by its owner.
+ * </ul>
+ *
+ * @author gazbert
+ */
+public final class JournalRecord {
+
+  /**
+   * The types of journal record.
+   *
+   * <p>The codes are written to disk - never change or reuse them.
+   */
+  public enum Type {
+    /** An order was sent to the exchange. */
+    ORDER_REQUEST(1),
+    /** The exchange accepted an order. */
+    ORDER_ACK(2),
+    /** An order failed - rejected by the risk checks or the exchange, or a network error. */
+    ORDER_FAILED(3),
+    /** A cancel was sent to the exchange. */
+    CANCEL_REQUEST(4),
+    /** The exchange cancelled an order. */
+    CANCEL_ACK(5),
+    /** A cancel failed, or the exchange did not cancel the order. */
+    CANCEL_FAILED(6),
+    /** One of the bot's orders filled. */
+    FILL(7),
+    /** The balances on the exchange. */
+    BALANCE_SNAPSHOT(8),
+    /** The end of a trade cycle. */
+    CYCLE_SUMMARY(9),
+    /** A snapshot of the PnL Accountant's state, built from the records before it. */
+    CHECKPOINT(10);
+
+    private final byte code;
+
+    Type(int code) {
+      this.code = (byte) code;
+    }
+
+    byte getCode() {
+      return code;
+    }
+
+    static Type fromCode(byte code) {
+      for (final Type type : values()) {
+        if (type.code == code) {
+          return type;
+        }
+      }
+      throw new IllegalArgumentException("Unknown journal record type: " + code);
+    }
+  }
+
+  private final Type type;
+  private final long sequence;
+  private final long timestamp;
+  private final String marketId;
+  private final String orderId;
+  private final OrderType orderType;
+  private final BigDecimal price;
+  private final BigDecimal quantity;
+  private final String detail;
+  private final BigDecimal fee;
+  private final Map<String, BigDecimal> balancesAvailable;
+  private final Map<String, BigDecimal> balancesOnHold;
+  private final long cycle;
+  private final long durationMillis;
+  private final byte[] checkpointState;
+
+  JournalRecord(
+      Type type,
+      long sequence,
+      long timestamp,
+      String marketId,
+      String orderId,
+      OrderType orderType,
+      BigDecimal price,
+      BigDecimal quantity,
+      String detail,
+      BigDecimal fee,
+      Map<String, BigDecimal> balancesAvailable,
+      Map<String, BigDecimal> balancesOnHold,
+      long cycle,
+      long durationMillis,
+      byte[] checkpointState) {
+
+    this.type = type;
+    this.sequence = sequence;
+    this.timestamp = timestamp;
+    this.marketId = marketId;
+    this.orderId = orderId;
+    this.orderType = orderType;
+    this.price = price;
+    this.quantity = quantity;
+    this.detail = detail;
+    this.fee = fee;
+    this.balancesAvailable = Collections.unmodifiableMap(balancesAvailable);
+    this.balancesOnHold = Collections.unmodifiableMap(balancesOnHold);
+    this.cycle = cycle;
+    this.durationMillis = durationMillis;
+    this.checkpointState = checkpointState;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public String getOrderId() {
+    return orderId;
+  }
+
+  public OrderType getOrderType() {
+    return orderType;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  public String getDetail() {
+    return detail;
+  }
+
+  public BigDecimal getFee() {
+    return fee;
+  }
+
+  public Map<String, BigDecimal> getBalancesAvailable() {
+    return balancesAvailable;
+  }
+
+  public Map<String, BigDecimal> getBalancesOnHold() {
+    return balancesOnHold;
+  }
+
+  public long getCycle() {
+    return cycle;
+  }
+
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+
+  /**
+   * Returns a copy of the checkpointed state.
+   *
+   * @return the state, or null if this is not a checkpoint.
+   */
+  public byte[] getCheckpointState() {
+    return checkpointState == null ? null : checkpointState.clone();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("type", type)
+        .add("sequence", sequence)
+        .add("timestamp", timestamp)
+        .add("marketId", marketId)
+        .add("orderId", orderId)
+        .add("orderType", orderType)
+        .add("price", price)
+        .add("quantity", quantity)
+        .add("detail", detail)
+        .add("fee", fee)
+        .add("balancesAvailable", balancesAvailable)
+        .add("balancesOnHold", balancesOnHold)
+        .add("cycle", cycle)
+        .add("durationMillis", durationMillis)
+        .toString();
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.journal;
+
+import com.gazbert.bxbot.core.util.ForwardingExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+
+/**
+ * Decorates an Exchange Adapter and records the Trading Strategies' orders, cancels and balance
+ * lookups in the {@link TradeJournal}.
+ *
+ * <p>Requests are journaled before they are passed on, so an order that fails - whether it is
+ * rejected by the risk checks, rejected by the exchange, or lost to a network error - still shows
+ * up, followed by the reason it failed.
+ *
+ * @author gazbert
+ */
+public class JournalingExchangeAdapter extends ForwardingExchangeAdapter {
+
+  private static final String NOT_CANCELLED_REASON = "Exchange did not cancel the order";
+
+  private final TradeJournal tradeJournal;
+
+  /**
+   * Creates the journaling Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   * @param tradeJournal the journal to record the orders in.
+   */
+  public JournalingExchangeAdapter(ExchangeAdapter delegate, TradeJournal tradeJournal) {
+    super(delegate);
+    this.tradeJournal = tradeJournal;
+  }
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws ExchangeNetworkException, TradingApiException {
+    tradeJournal.orderRequested(marketId, orderType, quantity, price);
+    final String orderId;
+    try {
+      orderId = delegate.createOrder(marketId, orderType, quantity, price);
+    } catch (ExchangeNetworkException | TradingApiException | RuntimeException e) {
+      tradeJournal.orderFailed(marketId, orderType, quantity, price, e.getMessage());
+      throw e;
+    }
+    tradeJournal.orderAcknowledged(orderId, marketId, orderType, quantity, price);
+    return orderId;
+  }
+
+  @Override
+  public boolean cancelOrder(String orderId, String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    tradeJournal.cancelRequested(orderId, marketId);
+    final boolean cancelled;
+    try {
+      cancelled = delegate.cancelOrder(orderId, marketId);
+    } catch (ExchangeNetworkException | TradingApiException | RuntimeException e) {
+      tradeJournal.cancelFailed(orderId, marketId, e.getMessage());
+      throw e;
+    }
+    if (cancelled) {
+      tradeJournal.cancelAcknowledged(orderId, marketId);
+    } else {
+      tradeJournal.cancelFailed(orderId, marketId, NOT_CANCELLED_REASON);
+    }
+    return cancelled;
+  }
+
+  @Override
+  public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+    final BalanceInfo balanceInfo = delegate.getBalanceInfo();
+    if (balanceInfo != null) {
+      tradeJournal.balanceSnapshot(
+          balanceInfo.getBalancesAvailable(), balanceInfo.getBalancesOnHold());
+    }
+    return balanceInfo;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.journal;
+
+import com.gazbert.bxbot.core.order.OrderFill;
+import com.gazbert.bxbot.core.order.OrderListener;
+import com.gazbert.bxbot.core.order.TrackedOrder;
+
+/**
+ * Records a {@link JournalRecord.Type#FILL} in the {@link TradeJournal} when the Order Manager sees
+ * one of the bot's orders fill on the exchange.
+ *
+ * <p>The fill quantity is what was filled since the order was last seen, so a partially filled
+ * order has a record for each fill. Orders that go from the exchange are not journaled as fills.
+ * The fee and trade history cursor are journaled with the fill, so the {@link
+ * com.gazbert.bxbot.core.pnl.PnlAccountant} can carry on from them when the bot restarts.
+ *
+ * @author gazbert
+ */
+public class OrderFillJournaler implements OrderListener {
+
+  private final TradeJournal tradeJournal;
+
+  /**
+   * Creates the journaler.
+   *
+   * @param tradeJournal the journal to record fills in.
+   */
+  public OrderFillJournaler(TradeJournal tradeJournal) {
+    this.tradeJournal = tradeJournal;
+  }
+
+  @Override
+  public void orderOpened(TrackedOrder order) {
+    // The ack is journaled when the order is placed.
+  }
+
+  @Override
+  public void orderFilled(TrackedOrder order, OrderFill fill) {
+    tradeJournal.orderFilled(
+        fill.getOrderId(),
+        fill.getMarketId(),
+        fill.getOrderType(),
+        fill.getQuantity(),
+        fill.getPrice(),
+        fill.getFee(),
+        fill.getTradeCursor());
+  }
+
+  @Override
+  public void orderClosed(TrackedOrder order) {
+    // Closing is not a fill - the fills have already been journaled.
+  }
+}
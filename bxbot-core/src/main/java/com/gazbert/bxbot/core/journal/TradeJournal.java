@@ -0,0 +1,911 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.journal;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import javax.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * An append-only journal of what the bot did: every order request, exchange ack, cancel, fill,
+ * balance snapshot and trade cycle summary.
+ *
+ * <p>Records are written to memory-mapped segment files. Each record is length, CRC32, and
+ * payload; the payload starts with the record type, a sequence number that increases by 1 for
+ * every record, and a timestamp. Appending a record encodes it into a reusable buffer and copies
+ * it into the mapped segment - there is no system call on the hot path. The Trading Engine calls
+ * {@link #flush()} at the end of each trade cycle to sync the cycle's records to disk in one go.
+ *
+ * <p>Segments are named after the sequence number of their first record and a new one is started
+ * when the current one is full, and every time the journal is opened. Reading stops at the first
+ * record in a segment with a bad length or CRC - a record torn by a crash - and carries on with the
+ * next segment, so nothing needs repairing on startup.
+ *
+ * <p>The PnL Accountant writes a checkpoint of its state into the journal, so it can be recovered
+ * from the last checkpoint and the records after it rather than from the first record. Once there
+ * are more segments than the configured max, the oldest are deleted when a new segment starts -
+ * but never the segment holding the last checkpoint, or any after it.
+ *
+ * <p>A journal that cannot be written must not stop the bot trading, so write errors are logged
+ * and the record dropped.
+ *
+ * <p>Properties are loaded from the config/application.properties file.
+ *
+ * @author gazbert
+ */
+@Component
+public class TradeJournal {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** Default location of the journal. */
+  public static final String DEFAULT_JOURNAL_DIRECTORY = "./data/trade-journal";
+
+  static final String SEGMENT_SUFFIX = ".journal";
+  static final int SEGMENT_HEADER_BYTES = 16;
+  static final int MAX_RECORD_BYTES = 64 * 1024;
+
+  private static final int SEGMENT_MAGIC = 0x42584a4e; // BXJN
+  private static final int SEGMENT_VERSION = 1;
+  private static final int RECORD_HEADER_BYTES = 8;
+  private static final int SEQUENCE_OFFSET = 1;
+  private static final int NULL_LENGTH = -1;
+  private static final byte NO_ORDER_TYPE = 0;
+  private static final byte BUY_ORDER_TYPE = 1;
+  private static final byte SELL_ORDER_TYPE = 2;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final ByteBuffer recordBuffer = ByteBuffer.allocate(MAX_RECORD_BYTES);
+  private final CRC32 crc = new CRC32();
+
+  private FileChannel segmentChannel;
+  private MappedByteBuffer segment;
+  private Path segmentFile;
+  private long nextSequence;
+  private boolean isDirty;
+  private long lastCheckpointSequence;
+  private boolean segmentHasCheckpoint;
+
+  /**
+   * Creates a journal that keeps all of its segments.
+   *
+   * @param directory the directory holding the segment files. It is created on the first write if
+   *     it does not exist.
+   * @param segmentSize the size of each segment file in bytes.
+   * @throws UncheckedIOException if the existing journal could not be read.
+   */
+  public TradeJournal(String directory, int segmentSize) {
+    this(directory, segmentSize, 0);
+  }
+
+  /**
+   * Creates the journal and finds where the last run left off.
+   *
+   * @param directory the directory holding the segment files. It is created on the first write if
+   *     it does not exist.
+   * @param segmentSize the size of each segment file in bytes.
+   * @param maxSegments the max number of segment files to keep. Zero keeps them all.
+   * @throws UncheckedIOException if the existing journal could not be read.
+   */
+  @Autowired
+  public TradeJournal(
+      @Value("${bxbot.journal.dir:" + DEFAULT_JOURNAL_DIRECTORY + "}") String directory,
+      @Value("${bxbot.journal.segmentSize:16777216}") int segmentSize,
+      @Value("${bxbot.journal.maxSegments:64}") int maxSegments) {
+
+    if (segmentSize <= SEGMENT_HEADER_BYTES + RECORD_HEADER_BYTES) {
+      throw new IllegalArgumentException("Trade journal segment size too small: " + segmentSize);
+    }
+    if (maxSegments < 0) {
+      throw new IllegalArgumentException("Trade journal max segments is negative: " + maxSegments);
+    }
+    this.directory = Paths.get(directory);
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+    try {
+      final List<Path> segments = listSegments();
+      long lastSequence = 0;
+      if (!segments.isEmpty()) {
+        lastSequence = readSegment(segments.get(segments.size() - 1), Long.MAX_VALUE, 0, null);
+      }
+      nextSequence = lastSequence + 1;
+      final JournalRecord lastCheckpoint = findLastCheckpoint(segments, null, 0);
+      lastCheckpointSequence = lastCheckpoint == null ? 0 : lastCheckpoint.getSequence();
+    } catch (IOException e) {
+      final String errorMsg = "Failed to read trade journal in: " + directory;
+      LOG.error(errorMsg, e);
+      throw new UncheckedIOException(errorMsg, e);
+    }
+    LOG.info("Trade journal in {} will start at record: {}", directory, nextSequence);
+  }
+
+  // ------------------------------------------------------------------------
+  // Writing
+  // ------------------------------------------------------------------------
+
+  /**
+   * Records an order about to be sent to the exchange.
+   *
+   * @param marketId the id of the market.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the price per unit.
+   */
+  public synchronized void orderRequested(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+    appendOrderRecord(
+        JournalRecord.Type.ORDER_REQUEST, marketId, null, orderType, quantity, price, null);
+  }
+
+  /**
+   * Records an order accepted by the exchange.
+   *
+   * @param orderId the id of the order returned by the exchange.
+   * @param marketId the id of the market.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the price per unit.
+   */
+  public synchronized void orderAcknowledged(
+      String orderId, String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+    appendOrderRecord(
+        JournalRecord.Type.ORDER_ACK, marketId, orderId, orderType, quantity, price, null);
+  }
+
+  /**
+   * Records an order that failed.
+   *
+   * @param marketId the id of the market.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the price per unit.
+   * @param reason why the order failed.
+   */
+  public synchronized void orderFailed(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price, String reason) {
+    appendOrderRecord(
+        JournalRecord.Type.ORDER_FAILED, marketId, null, orderType, quantity, price, reason);
+  }
+
+  /**
+   * Records a cancel about to be sent to the exchange.
+   *
+   * @param orderId the id of the order.
+   * @param marketId the id of the market.
+   */
+  public synchronized void cancelRequested(String orderId, String marketId) {
+    appendOrderRecord(
+        JournalRecord.Type.CANCEL_REQUEST, marketId, orderId, null, null, null, null);
+  }
+
+  /**
+   * Records an order cancelled by the exchange.
+   *
+   * @param orderId the id of the order.
+   * @param marketId the id of the market.
+   */
+  public synchronized void cancelAcknowledged(String orderId, String marketId) {
+    appendOrderRecord(JournalRecord.Type.CANCEL_ACK, marketId, orderId, null, null, null, null);
+  }
+
+  /**
+   * Records a cancel that failed.
+   *
+   * @param orderId the id of the order.
+   * @param marketId the id of the market.
+   * @param reason why the cancel failed.
+   */
+  public synchronized void cancelFailed(String orderId, String marketId, String reason) {
+    appendOrderRecord(
+        JournalRecord.Type.CANCEL_FAILED, marketId, orderId, null, null, null, reason);
+  }
+
+  /**
+   * Records one of the bot's orders filling.
+   *
+   * @param orderId the id of the order.
+   * @param marketId the id of the market.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency filled.
+   * @param price the price per unit.
+   * @param fee the fee charged by the exchange, or null if it is not known.
+   * @param tradeCursor the trade history cursor to fetch the fills after this one from, or null.
+   */
+  public synchronized void orderFilled(
+      String orderId,
+      String marketId,
+      OrderType orderType,
+      BigDecimal quantity,
+      BigDecimal price,
+      BigDecimal fee,
+      String tradeCursor) {
+    try {
+      startRecord(JournalRecord.Type.FILL);
+      putOrderFields(marketId, orderId, orderType, quantity, price, tradeCursor);
+      // Added after the order fields, so fills journaled before fees were recorded still read.
+      putDecimal(fee);
+      appendRecord();
+    } catch (RuntimeException e) {
+      dropRecord(JournalRecord.Type.FILL, e);
+    }
+  }
+
+  /**
+   * Records the balances on the exchange.
+   *
+   * @param balancesAvailable the available balances, keyed by currency. May be null.
+   * @param balancesOnHold the balances on hold, keyed by currency. May be null.
+   */
+  public synchronized void balanceSnapshot(
+      Map<String, BigDecimal> balancesAvailable, Map<String, BigDecimal> balancesOnHold) {
+    try {
+      startRecord(JournalRecord.Type.BALANCE_SNAPSHOT);
+      putBalances(balancesAvailable);
+      putBalances(balancesOnHold);
+      appendRecord();
+    } catch (RuntimeException e) {
+      dropRecord(JournalRecord.Type.BALANCE_SNAPSHOT, e);
+    }
+  }
+
+  /**
+   * Records the end of a trade cycle.
+   *
+   * @param cycle the trade cycle number, counted from 1 when the engine starts.
+   * @param durationMillis how long the cycle took, not counting the sleep after it.
+   */
+  public synchronized void cycleCompleted(long cycle, long durationMillis) {
+    try {
+      startRecord(JournalRecord.Type.CYCLE_SUMMARY);
+      recordBuffer.putLong(cycle);
+      recordBuffer.putLong(durationMillis);
+      appendRecord();
+    } catch (RuntimeException e) {
+      dropRecord(JournalRecord.Type.CYCLE_SUMMARY, e);
+    }
+  }
+
+  /**
+   * Records a checkpoint: a snapshot of state built from the records before it, so the state can
+   * be recovered from here rather than from the first record.
+   *
+   * @param state the state, encoded by its owner.
+   */
+  public synchronized void checkpoint(byte[] state) {
+    try {
+      startRecord(JournalRecord.Type.CHECKPOINT);
+      recordBuffer.putInt(state.length);
+      recordBuffer.put(state);
+      appendRecord();
+      lastCheckpointSequence = nextSequence - 1;
+      segmentHasCheckpoint = true;
+    } catch (RuntimeException e) {
+      dropRecord(JournalRecord.Type.CHECKPOINT, e);
+    }
+  }
+
+  /**
+   * Returns true if the segment being written has no checkpoint in it yet. Checkpointing once per
+   * segment lets old segments be deleted, even if the state has not changed for a while.
+   *
+   * @return true if a checkpoint should be written.
+   */
+  public synchronized boolean isCheckpointDue() {
+    return !segmentHasCheckpoint;
+  }
+
+  /**
+   * Syncs the records written since the last flush to disk. If the sync fails, the error is logged
+   * and the records are synced again on the next flush.
+   */
+  public synchronized void flush() {
+    if (isDirty) {
+      try {
+        segment.force();
+        isDirty = false;
+      } catch (RuntimeException e) {
+        LOG.error("Failed to sync trade journal segment to disk: {}", segmentFile, e);
+      }
+    }
+  }
+
+  /** Flushes and closes the current segment. The next write starts a new one. */
+  @PreDestroy
+  public synchronized void close() {
+    if (segment != null) {
+      closeSegment();
+    }
+  }
+
+  /**
+   * Returns the sequence number of the last record written.
+   *
+   * @return the sequence number of the last record, or 0 if the journal is empty.
+   */
+  public synchronized long getLastSequence() {
+    return nextSequence - 1;
+  }
+
+  // ------------------------------------------------------------------------
+  // Reading
+  // ------------------------------------------------------------------------
+
+  /**
+   * Passes every record from a sequence number onwards to a consumer, in order.
+   *
+   * <p>Records are read from disk without holding up writers; records written after the replay
+   * starts are not included.
+   *
+   * @param fromSequence the sequence number of the first record wanted.
+   * @param consumer the consumer.
+   * @throws UncheckedIOException if the journal could not be read.
+   */
+  public void replay(long fromSequence, Consumer<JournalRecord> consumer) {
+    read(
+        fromSequence,
+        record -> {
+          consumer.accept(record);
+          return true;
+        });
+  }
+
+  /**
+   * Returns the last checkpoint in the journal. Segments are read newest first, so this normally
+   * only reads the segment being written.
+   *
+   * @return the last checkpoint, or null if there is none.
+   * @throws UncheckedIOException if the journal could not be read.
+   */
+  public JournalRecord findLastCheckpoint() {
+    final List<Path> segments;
+    final Path activeSegmentFile;
+    final long activeSegmentLength;
+    synchronized (this) {
+      try {
+        segments = listSegments();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to list trade journal in: " + directory, e);
+      }
+      activeSegmentFile = segmentFile;
+      activeSegmentLength = segment == null ? 0 : segment.position();
+    }
+    try {
+      return findLastCheckpoint(segments, activeSegmentFile, activeSegmentLength);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read trade journal in: " + directory, e);
+    }
+  }
+
+  /**
+   * Returns the records from a sequence number onwards that match a filter, in order.
+   *
+   * @param fromSequence the sequence number of the first record wanted.
+   * @param filter the filter.
+   * @param maxRecords the max number of records to return.
+   * @return the matching records.
+   * @throws UncheckedIOException if the journal could not be read.
+   */
+  public List<JournalRecord> query(
+      long fromSequence, Predicate<JournalRecord> filter, int maxRecords) {
+    final List<JournalRecord> records = new ArrayList<>();
+    if (maxRecords > 0) {
+      read(
+          fromSequence,
+          record -> {
+            if (filter.test(record)) {
+              records.add(record);
+            }
+            return records.size() < maxRecords;
+          });
+    }
+    return records;
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void appendOrderRecord(
+      JournalRecord.Type type,
+      String marketId,
+      String orderId,
+      OrderType orderType,
+      BigDecimal quantity,
+      BigDecimal price,
+      String detail) {
+    try {
+      startRecord(type);
+      putOrderFields(marketId, orderId, orderType, quantity, price, detail);
+      appendRecord();
+    } catch (RuntimeException e) {
+      dropRecord(type, e);
+    }
+  }
+
+  private void putOrderFields(
+      String marketId,
+      String orderId,
+      OrderType orderType,
+      BigDecimal quantity,
+      BigDecimal price,
+      String detail) {
+    putString(marketId);
+    putString(orderId);
+    recordBuffer.put(toCode(orderType));
+    putDecimal(quantity);
+    putDecimal(price);
+    putString(detail);
+  }
+
+  private void startRecord(JournalRecord.Type type) {
+    recordBuffer.clear();
+    recordBuffer.position(RECORD_HEADER_BYTES);
+    recordBuffer.put(type.getCode());
+    recordBuffer.putLong(nextSequence);
+    recordBuffer.putLong(System.currentTimeMillis());
+  }
+
+  private void appendRecord() {
+    final int recordLength = recordBuffer.position();
+    final int payloadLength = recordLength - RECORD_HEADER_BYTES;
+    crc.reset();
+    crc.update(recordBuffer.array(), RECORD_HEADER_BYTES, payloadLength);
+    recordBuffer.putInt(0, payloadLength);
+    recordBuffer.putInt(4, (int) crc.getValue());
+
+    if (segment == null || segment.remaining() < recordLength) {
+      if (recordLength > segmentSize - SEGMENT_HEADER_BYTES) {
+        throw new IllegalArgumentException(
+            "Record of " + recordLength + " bytes is bigger than the trade journal segments");
+      }
+      startSegment();
+    }
+    segment.put(recordBuffer.array(), 0, recordLength);
+    nextSequence++;
+    isDirty = true;
+  }
+
+  private void dropRecord(JournalRecord.Type type, RuntimeException e) {
+    if (e instanceof BufferOverflowException) {
+      LOG.error("Dropped {} trade journal record: bigger than {}", type, MAX_RECORD_BYTES);
+    } else {
+      LOG.error("Dropped {} trade journal record", type, e);
+    }
+  }
+
+  private void putString(String value) {
+    if (value == null) {
+      recordBuffer.putInt(NULL_LENGTH);
+    } else {
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      recordBuffer.putInt(bytes.length);
+      recordBuffer.put(bytes);
+    }
+  }
+
+  private void putDecimal(BigDecimal value) {
+    if (value == null) {
+      recordBuffer.putInt(NULL_LENGTH);
+    } else {
+      final byte[] unscaledValue = value.unscaledValue().toByteArray();
+      recordBuffer.putInt(unscaledValue.length);
+      recordBuffer.put(unscaledValue);
+      recordBuffer.putInt(value.scale());
+    }
+  }
+
+  private void putBalances(Map<String, BigDecimal> balances) {
+    if (balances == null) {
+      recordBuffer.putInt(0);
+    } else {
+      recordBuffer.putInt(balances.size());
+      for (final Map.Entry<String, BigDecimal> balance : balances.entrySet()) {
+        putString(balance.getKey());
+        putDecimal(balance.getValue());
+      }
+    }
+  }
+
+  private void startSegment() {
+    if (segment != null) {
+      closeSegment();
+    }
+    final Path file = directory.resolve(toSegmentName(nextSequence));
+    try {
+      Files.createDirectories(directory);
+      // A segment with this name has no valid records in it, or nextSequence would be past it.
+      final FileChannel channel =
+          FileChannel.open(
+              file,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+      try {
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+      } catch (IOException e) {
+        channel.close();
+        throw e;
+      }
+      segmentChannel = channel;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to start trade journal segment: " + file, e);
+    }
+    segmentFile = file;
+    segment.putInt(SEGMENT_MAGIC);
+    segment.putInt(SEGMENT_VERSION);
+    segment.putLong(nextSequence);
+    isDirty = true;
+    segmentHasCheckpoint = false;
+    LOG.info("Started trade journal segment: {}", file);
+    deleteOldSegments();
+  }
+
+  /*
+   * Deletes the oldest segments while there are more than the max. A segment is only deleted if
+   * every record in it is before the last checkpoint, so recovery never needs a deleted record.
+   */
+  private void deleteOldSegments() {
+    if (maxSegments == 0) {
+      return;
+    }
+    try {
+      final List<Path> segments = listSegments();
+      int segmentCount = segments.size();
+      for (int i = 0; segmentCount > maxSegments && i + 1 < segments.size(); i++) {
+        if (toFirstSequence(segments.get(i + 1)) > lastCheckpointSequence) {
+          break;
+        }
+        Files.delete(segments.get(i));
+        segmentCount--;
+        LOG.info("Deleted old trade journal segment: {}", segments.get(i));
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to delete old trade journal segments in: {}", directory, e);
+    }
+  }
+
+  private void closeSegment() {
+    flush();
+    try {
+      // The unused end of the segment is cut off; nothing reads the mapping past it again.
+      segmentChannel.truncate(segment.position());
+      segmentChannel.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close trade journal segment: {}", segmentFile, e);
+    }
+    segment = null;
+    segmentChannel = null;
+    segmentFile = null;
+  }
+
+  private void read(long fromSequence, Predicate<JournalRecord> visitor) {
+    final List<Path> segments;
+    final Path activeSegmentFile;
+    final long activeSegmentLength;
+    synchronized (this) {
+      try {
+        segments = listSegments();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to list trade journal in: " + directory, e);
+      }
+      activeSegmentFile = segmentFile;
+      activeSegmentLength = segment == null ? 0 : segment.position();
+    }
+
+    for (int i = 0; i < segments.size(); i++) {
+      final Path segmentToRead = segments.get(i);
+      if (i + 1 < segments.size() && toFirstSequence(segments.get(i + 1)) <= fromSequence) {
+        continue; // every record in this segment is before the one wanted
+      }
+      final long length =
+          segmentToRead.equals(activeSegmentFile) ? activeSegmentLength : Long.MAX_VALUE;
+      try {
+        if (readSegment(segmentToRead, length, fromSequence, visitor) < 0) {
+          return;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read trade journal segment: " + segmentToRead, e);
+      }
+    }
+  }
+
+  /*
+   * Reads the segments newest first, returning the last checkpoint in the first segment that has
+   * one.
+   */
+  private static JournalRecord findLastCheckpoint(
+      List<Path> segments, Path activeSegmentFile, long activeSegmentLength) throws IOException {
+    for (int i = segments.size() - 1; i >= 0; i--) {
+      final Path segmentToRead = segments.get(i);
+      final long length =
+          segmentToRead.equals(activeSegmentFile) ? activeSegmentLength : Long.MAX_VALUE;
+      final JournalRecord[] lastCheckpoint = {null};
+      readSegment(
+          segmentToRead,
+          length,
+          0,
+          record -> {
+            if (record.getType() == JournalRecord.Type.CHECKPOINT) {
+              lastCheckpoint[0] = record;
+            }
+            return true;
+          });
+      if (lastCheckpoint[0] != null) {
+        return lastCheckpoint[0];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads the valid records in a segment, passing those from a sequence number onwards to a
+   * visitor. Returns the sequence number of the last valid record, or -1 if the visitor stopped
+   * the read.
+   */
+  private static long readSegment(
+      Path file, long length, long fromSequence, Predicate<JournalRecord> visitor)
+      throws IOException {
+
+    final CRC32 recordCrc = new CRC32();
+    long lastSequence = toFirstSequence(file) - 1;
+    final DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    try {
+      if (length < SEGMENT_HEADER_BYTES || in.readInt() != SEGMENT_MAGIC) {
+        LOG.warn("Ignoring trade journal segment with no valid header: {}", file);
+        return lastSequence;
+      }
+      in.readInt(); // version
+      in.readLong(); // first sequence, also in the file name
+      long position = SEGMENT_HEADER_BYTES;
+      while (position + RECORD_HEADER_BYTES <= length) {
+        final int payloadLength = in.readInt();
+        final int payloadCrc = in.readInt();
+        if (payloadLength <= 0
+            || payloadLength > MAX_RECORD_BYTES
+            || position + RECORD_HEADER_BYTES + payloadLength > length) {
+          break;
+        }
+        final byte[] payload = new byte[payloadLength];
+        in.readFully(payload);
+        recordCrc.reset();
+        recordCrc.update(payload);
+        if ((int) recordCrc.getValue() != payloadCrc) {
+          break;
+        }
+        position += RECORD_HEADER_BYTES + payloadLength;
+        final ByteBuffer record = ByteBuffer.wrap(payload);
+        lastSequence = record.getLong(SEQUENCE_OFFSET);
+        if (visitor != null && lastSequence >= fromSequence && !visitor.test(decode(record))) {
+          return -1;
+        }
+      }
+    } catch (EOFException e) {
+      // The segment was cut short by a crash before it could be truncated - fine.
+    } finally {
+      in.close();
+    }
+    return lastSequence;
+  }
+
+  private static JournalRecord decode(ByteBuffer record) throws IOException {
+    final JournalRecord.Type type;
+    try {
+      type = JournalRecord.Type.fromCode(record.get());
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    final long sequence = record.getLong();
+    final long timestamp = record.getLong();
+    switch (type) {
+      case BALANCE_SNAPSHOT:
+        final Map<String, BigDecimal> balancesAvailable = getBalances(record);
+        final Map<String, BigDecimal> balancesOnHold = getBalances(record);
+        return new JournalRecord(
+            type,
+            sequence,
+            timestamp,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            balancesAvailable,
+            balancesOnHold,
+            0,
+            0,
+            null);
+      case CYCLE_SUMMARY:
+        final long cycle = record.getLong();
+        final long durationMillis = record.getLong();
+        return new JournalRecord(
+            type,
+            sequence,
+            timestamp,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            cycle,
+            durationMillis,
+            null);
+      case CHECKPOINT:
+        final byte[] state = new byte[record.getInt()];
+        record.get(state);
+        return new JournalRecord(
+            type,
+            sequence,
+            timestamp,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            0,
+            0,
+            state);
+      default:
+        final String marketId = getString(record);
+        final String orderId = getString(record);
+        final OrderType orderType = toOrderType(record.get());
+        final BigDecimal quantity = getDecimal(record);
+        final BigDecimal price = getDecimal(record);
+        final String detail = getString(record);
+        final BigDecimal fee =
+            type == JournalRecord.Type.FILL && record.hasRemaining() ? getDecimal(record) : null;
+        return new JournalRecord(
+            type,
+            sequence,
+            timestamp,
+            marketId,
+            orderId,
+            orderType,
+            price,
+            quantity,
+            detail,
+            fee,
+            Collections.emptyMap(),
+            Collections.emptyMap(),
+            0,
+            0,
+            null);
+    }
+  }
+
+  private static String getString(ByteBuffer record) {
+    final int length = record.getInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    final String value =
+        new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+    record.position(record.position() + length);
+    return value;
+  }
+
+  private static BigDecimal getDecimal(ByteBuffer record) {
+    final int length = record.getInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    final byte[] unscaledValue = new byte[length];
+    record.get(unscaledValue);
+    return new BigDecimal(new BigInteger(unscaledValue), record.getInt());
+  }
+
+  private static Map<String, BigDecimal> getBalances(ByteBuffer record) {
+    final int count = record.getInt();
+    final Map<String, BigDecimal> balances = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      balances.put(getString(record), getDecimal(record));
+    }
+    return balances;
+  }
+
+  private static byte toCode(OrderType orderType) {
+    if (orderType == null) {
+      return NO_ORDER_TYPE;
+    }
+    return orderType == OrderType.BUY ? BUY_ORDER_TYPE : SELL_ORDER_TYPE;
+  }
+
+  private static OrderType toOrderType(byte code) {
+    switch (code) {
+      case BUY_ORDER_TYPE:
+        return OrderType.BUY;
+      case SELL_ORDER_TYPE:
+        return OrderType.SELL;
+      default:
+        return null;
+    }
+  }
+
+  private List<Path> listSegments() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return Collections.emptyList();
+    }
+    final Stream<Path> files = Files.list(directory);
+    try {
+      return files
+          .filter(file -> file.getFileName().toString().matches("\\d{20}\\" + SEGMENT_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    } finally {
+      files.close();
+    }
+  }
+
+  private static String toSegmentName(long firstSequence) {
+    return String.format("%020d", firstSequence) + SEGMENT_SUFFIX;
+  }
+
+  private static long toFirstSequence(Path segmentFile) {
+    final String name = segmentFile.getFileName().toString();
+    return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+  }
+}
@@ -48,38 +48,12 @@ public final class EmailAlertMessageBuilder {
     final StringBuilder msgContent =
         new StringBuilder("A CRITICAL error event has occurred on BX-bot.");
     msgContent.append(NEWLINE).append(NEWLINE);
-
-    msgContent.append(HORIZONTAL_RULE);
-    msgContent.append("Bot Id / Name:");
-    msgContent.append(NEWLINE).append(NEWLINE);
-    msgContent.append(botId);
-    msgContent.append(" / ");
-    msgContent.append(botName);
-    msgContent.append(NEWLINE).append(NEWLINE);
-
-    msgContent.append(HORIZONTAL_RULE);
-    msgContent.append("Exchange Adapter:");
-    msgContent.append(NEWLINE).append(NEWLINE);
-    msgContent.append(adapterName);
-    msgContent.append(NEWLINE).append(NEWLINE);
-
-    msgContent.append(HORIZONTAL_RULE);
-    msgContent.append("Event Time:");
-    msgContent.append(NEWLINE).append(NEWLINE);
-    msgContent.append(new Date());
-    msgContent.append(NEWLINE).append(NEWLINE);
-
-    msgContent.append(HORIZONTAL_RULE);
-    msgContent.append("Event Details:");
-    msgContent.append(NEWLINE).append(NEWLINE);
-    msgContent.append(errorDetails);
-    msgContent.append(NEWLINE).append(NEWLINE);
-
-    msgContent.append(HORIZONTAL_RULE);
-    msgContent.append("Action Taken:");
-    msgContent.append(NEWLINE).append(NEWLINE);
-    msgContent.append("The bot will shut down NOW! Check the bot logs for more information.");
-    msgContent.append(NEWLINE).append(NEWLINE);
+    appendBotDetails(msgContent, botId, botName, adapterName);
+    appendSection(msgContent, "Event Details:", errorDetails);
+    appendSection(
+        msgContent,
+        "Action Taken:",
+        "The bot will shut down NOW! Check the bot logs for more information.");
 
     if (exception != null) {
       msgContent.append(HORIZONTAL_RULE);
@@ -93,4 +67,31 @@ public final class EmailAlertMessageBuilder {
 
     return msgContent.toString();
   }
+
+  /** Builds warning message content, for events the bot recovers from by itself. */
+  public static String buildWarningMsgContent(
+      String eventDetails, String actionTaken, String botId, String botName, String adapterName) {
+
+    final StringBuilder msgContent = new StringBuilder("A WARNING event has occurred on BX-bot.");
+    msgContent.append(NEWLINE).append(NEWLINE);
+    appendBotDetails(msgContent, botId, botName, adapterName);
+    appendSection(msgContent, "Event Details:", eventDetails);
+    appendSection(msgContent, "Action Taken:", actionTaken);
+    return msgContent.toString();
+  }
+
+  private static void appendBotDetails(
+      StringBuilder msgContent, String botId, String botName, String adapterName) {
+    appendSection(msgContent, "Bot Id / Name:", botId + " / " + botName);
+    appendSection(msgContent, "Exchange Adapter:", adapterName);
+    appendSection(msgContent, "Event Time:", new Date());
+  }
+
+  private static void appendSection(StringBuilder msgContent, String title, Object content) {
+    msgContent.append(HORIZONTAL_RULE);
+    msgContent.append(title);
+    msgContent.append(NEWLINE).append(NEWLINE);
+    msgContent.append(content);
+    msgContent.append(NEWLINE).append(NEWLINE);
+  }
 }
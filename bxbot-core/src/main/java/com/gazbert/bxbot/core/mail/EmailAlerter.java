@@ -26,24 +26,39 @@ package com.gazbert.bxbot.core.mail;
 import com.gazbert.bxbot.domain.emailalerts.EmailAlertsConfig;
 import com.gazbert.bxbot.domain.emailalerts.SmtpConfig;
 import com.gazbert.bxbot.services.config.EmailAlertsConfigService;
-import java.util.Properties;
-import javax.mail.Authenticator;
-import javax.mail.Message;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
 import javax.mail.MessagingException;
-import javax.mail.PasswordAuthentication;
-import javax.mail.Session;
-import javax.mail.Transport;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Component;
 
 /**
  * A simple mail sender using SMTP and TLS. It sends plain/text email only.
  *
+ * <p>Sending an alert never blocks the caller: {@link #sendMessage(String, String)} adds it to a
+ * bounded queue and returns. A single sender thread takes alerts off the queue and sends them over
+ * an SMTP connection that is kept open between messages. If the queue is full, the alert is
+ * dropped and the number dropped is reported in the next email.
+ *
+ * <p>Alerts raised within the coalesce window of the first one are sent together in one email.
+ * Identical alerts are sent once, with the number of times they were raised. A failed send is
+ * retried, doubling the wait between attempts each time, up to a maximum number of attempts.
+ *
+ * <p>Properties are loaded from the config/application.properties file.
+ *
  * @author gazbert
  */
 @Component
@@ -52,53 +67,212 @@ public class EmailAlerter {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private static final String NEWLINE = System.getProperty("line.separator");
+  private static final String HORIZONTAL_RULE =
+      "==================================================" + NEWLINE;
+  private static final String DIGEST_SUBJECT = "BX-bot Email Alert digest: ";
+  private static final String SENDER_THREAD_NAME = "bxbot-email-alerter";
+  private static final long MAX_RETRY_BACKOFF_MILLIS = 60 * 1000L;
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 10 * 1000L;
+
+  private final long coalesceWindowNanos;
+  private final int maxSendAttempts;
+  private final long retryBackoffMillis;
+  private final BlockingQueue<Alert> alertQueue;
+  private final AtomicLong droppedAlertCount = new AtomicLong();
+
   private SmtpConfig smtpConfig;
-  private Properties smtpProps;
   private boolean sendEmailAlertsEnabled;
+  private MailSender mailSender;
+  private Thread senderThread;
 
   private final EmailAlertsConfigService emailAlertsConfigService;
 
+  /**
+   * Creates the Email Alerter.
+   *
+   * @param emailAlertsConfigService the Email Alerts config service.
+   * @param queueCapacity the max number of alerts waiting to be sent.
+   * @param coalesceWindowMillis how long to wait for more alerts to send in the same email.
+   * @param maxSendAttempts the max number of times to try sending an email.
+   * @param retryBackoffMillis how long to wait before the first retry.
+   */
   @Autowired
-  public EmailAlerter(EmailAlertsConfigService emailAlertsConfigService) {
+  public EmailAlerter(
+      EmailAlertsConfigService emailAlertsConfigService,
+      @Value("${bxbot.emailAlerts.queueCapacity:100}") int queueCapacity,
+      @Value("${bxbot.emailAlerts.coalesceWindowMillis:5000}") long coalesceWindowMillis,
+      @Value("${bxbot.emailAlerts.maxSendAttempts:5}") int maxSendAttempts,
+      @Value("${bxbot.emailAlerts.retryBackoffMillis:1000}") long retryBackoffMillis) {
+    this(
+        emailAlertsConfigService,
+        SmtpMailSender::new,
+        queueCapacity,
+        coalesceWindowMillis,
+        maxSendAttempts,
+        retryBackoffMillis);
+  }
+
+  EmailAlerter(
+      EmailAlertsConfigService emailAlertsConfigService,
+      Function<SmtpConfig, MailSender> mailSenderFactory,
+      int queueCapacity,
+      long coalesceWindowMillis,
+      int maxSendAttempts,
+      long retryBackoffMillis) {
+
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("Alert queue capacity must be positive: " + queueCapacity);
+    }
+    if (coalesceWindowMillis < 0) {
+      throw new IllegalArgumentException(
+          "Alert coalesce window must not be negative: " + coalesceWindowMillis);
+    }
+    if (maxSendAttempts < 1) {
+      throw new IllegalArgumentException(
+          "Max alert send attempts must be positive: " + maxSendAttempts);
+    }
+    if (retryBackoffMillis < 0) {
+      throw new IllegalArgumentException(
+          "Alert retry backoff must not be negative: " + retryBackoffMillis);
+    }
     this.emailAlertsConfigService = emailAlertsConfigService;
+    coalesceWindowNanos = TimeUnit.MILLISECONDS.toNanos(coalesceWindowMillis);
+    this.maxSendAttempts = maxSendAttempts;
+    this.retryBackoffMillis = retryBackoffMillis;
+    alertQueue = new ArrayBlockingQueue<>(queueCapacity);
     initialise();
+
+    if (sendEmailAlertsEnabled) {
+      mailSender = mailSenderFactory.apply(smtpConfig);
+      senderThread = new Thread(this::runSender, SENDER_THREAD_NAME);
+      senderThread.setDaemon(true);
+      senderThread.start();
+    }
   }
 
-  /** Sends an email message. */
+  /**
+   * Sends an email message. The message is queued and sent by the sender thread.
+   *
+   * @param subject the message subject.
+   * @param msgContent the message content.
+   */
   public void sendMessage(String subject, String msgContent) {
     if (sendEmailAlertsEnabled) {
-      final Session session =
-          Session.getInstance(
-              smtpProps,
-              new Authenticator() {
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                  return new PasswordAuthentication(
-                      smtpConfig.getAccountUsername(), smtpConfig.getAccountPassword());
-                }
-              });
+      if (alertQueue.offer(new Alert(subject, msgContent))) {
+        LOG.info("Queued following Email Alert with message content: {}", msgContent);
+      } else {
+        droppedAlertCount.incrementAndGet();
+        LOG.error(
+            "Email Alert queue is full. Dropping the following message: Subject: {} Content: {}",
+            subject,
+            msgContent);
+      }
+    } else {
+      LOG.warn(
+          "Email Alerts are disabled. Not sending the following message: Subject: {} Content: {}",
+          subject,
+          msgContent);
+    }
+  }
+
+  /**
+   * Returns the number of alerts waiting to be sent.
+   *
+   * @return the number of queued alerts.
+   */
+  public int getQueuedAlertCount() {
+    return alertQueue.size();
+  }
 
+  /**
+   * Stops the sender thread. Alerts still queued are sent first, without waiting for the coalesce
+   * window.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (senderThread != null) {
+      LOG.info("Stopping Email Alerter. Alerts waiting to be sent: {}", alertQueue.size());
+      senderThread.interrupt();
       try {
-        final Message message = new MimeMessage(session);
-        message.setFrom(new InternetAddress(smtpConfig.getFromAddress()));
-        message.setRecipients(
-            Message.RecipientType.TO, InternetAddress.parse(smtpConfig.getToAddress()));
-        message.setSubject(subject);
-        message.setText(msgContent);
+        senderThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+      } catch (InterruptedException e) {
+        LOG.warn("Interrupted waiting for Email Alerter to stop");
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
 
-        LOG.info(() -> "About to send following Email Alert with message content: " + msgContent);
-        Transport.send(message);
+  // ------------------------------------------------------------------------
+  // Sender thread
+  // ------------------------------------------------------------------------
+
+  private void runSender() {
+    final List<Alert> alerts = new ArrayList<>();
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        alerts.add(alertQueue.take());
+        final long windowEnd = System.nanoTime() + coalesceWindowNanos;
+        long wait = windowEnd - System.nanoTime();
+        while (wait > 0) {
+          final Alert alert = alertQueue.poll(wait, TimeUnit.NANOSECONDS);
+          if (alert == null) {
+            break;
+          }
+          alerts.add(alert);
+          wait = windowEnd - System.nanoTime();
+        }
+      } catch (InterruptedException e) {
+        // Shutting down - send whatever is left.
+        Thread.currentThread().interrupt();
+      }
+      sendAlerts(alerts);
+    }
+    sendAlerts(alerts);
+    mailSender.close();
+    LOG.info("Email Alerter stopped");
+  }
+
+  private void sendAlerts(List<Alert> alerts) {
+    alertQueue.drainTo(alerts);
+    final long dropped = droppedAlertCount.getAndSet(0);
+    if (!alerts.isEmpty() || dropped > 0) {
+      sendWithRetries(buildSubject(alerts, dropped), buildMsgContent(alerts, dropped));
+      alerts.clear();
+    }
+  }
+
+  private void sendWithRetries(String subject, String msgContent) {
+    long backoffMillis = retryBackoffMillis;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        LOG.info("About to send following Email Alert with message content: {}", msgContent);
+        mailSender.send(subject, msgContent);
+        return;
 
       } catch (MessagingException e) {
-        LOG.error(() -> "Failed to send Email Alert. Details: " + e.getMessage(), e);
+        if (attempt >= maxSendAttempts || Thread.currentThread().isInterrupted()) {
+          final int attempts = attempt;
+          LOG.error(
+              "Failed to send Email Alert after {} attempt(s). Details: {}",
+              attempts,
+              e.getMessage(),
+              e);
+          return;
+        }
+        final long waitMillis = backoffMillis;
+        LOG.warn(
+            "Failed to send Email Alert. Retrying in {}ms. Details: {}",
+            waitMillis,
+            e.getMessage());
+        try {
+          Thread.sleep(waitMillis);
+        } catch (InterruptedException e1) {
+          // Shutting down - one last attempt.
+          Thread.currentThread().interrupt();
+        }
+        backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
       }
-    } else {
-      LOG.warn(
-          () ->
-              "Email Alerts are disabled. Not sending the following message: Subject: "
-                  + subject
-                  + " Content: "
-                  + msgContent);
     }
   }
 
@@ -106,13 +280,63 @@ public class EmailAlerter {
   // Private utils
   // ------------------------------------------------------------------------
 
+  private static Map<Alert, Integer> countAlerts(List<Alert> alerts) {
+    final Map<Alert, Integer> alertCounts = new LinkedHashMap<>();
+    for (final Alert alert : alerts) {
+      alertCounts.merge(alert, 1, Integer::sum);
+    }
+    return alertCounts;
+  }
+
+  private static String buildSubject(List<Alert> alerts, long dropped) {
+    final Map<Alert, Integer> alertCounts = countAlerts(alerts);
+    if (alertCounts.size() == 1 && dropped == 0) {
+      return alerts.get(0).subject;
+    }
+    return DIGEST_SUBJECT + (alerts.size() + dropped) + " alerts";
+  }
+
+  private static String buildMsgContent(List<Alert> alerts, long dropped) {
+    final Map<Alert, Integer> alertCounts = countAlerts(alerts);
+    final StringBuilder msgContent = new StringBuilder();
+    if (alertCounts.size() == 1 && dropped == 0) {
+      final int count = alertCounts.values().iterator().next();
+      msgContent.append(alerts.get(0).msgContent);
+      if (count > 1) {
+        msgContent.append(NEWLINE).append(NEWLINE);
+        msgContent.append("This alert was raised ").append(count).append(" times.");
+      }
+      return msgContent.toString();
+    }
+
+    int alertNumber = 0;
+    for (final Map.Entry<Alert, Integer> alertCount : alertCounts.entrySet()) {
+      msgContent.append(HORIZONTAL_RULE);
+      msgContent.append("Alert ").append(++alertNumber).append(" of ").append(alertCounts.size());
+      if (alertCount.getValue() > 1) {
+        msgContent.append(" - raised ").append(alertCount.getValue()).append(" times");
+      }
+      msgContent.append(": ").append(alertCount.getKey().subject);
+      msgContent.append(NEWLINE).append(NEWLINE);
+      msgContent.append(alertCount.getKey().msgContent);
+      msgContent.append(NEWLINE).append(NEWLINE);
+    }
+    if (dropped > 0) {
+      msgContent.append(HORIZONTAL_RULE);
+      msgContent.append(dropped).append(" more alert(s) were dropped because the queue was full.");
+      msgContent.append(" Check the bot logs for details.");
+      msgContent.append(NEWLINE);
+    }
+    return msgContent.toString();
+  }
+
   private void initialise() {
     final EmailAlertsConfig emailAlertsConfig = emailAlertsConfigService.getEmailAlertsConfig();
     if (emailAlertsConfig != null) {
       sendEmailAlertsEnabled = emailAlertsConfig.isEnabled();
 
       if (sendEmailAlertsEnabled) {
-        LOG.info(() -> "Email Alert for emergency bot shutdown is enabled. Loading SMTP config...");
+        LOG.info("Email Alert for emergency bot shutdown is enabled. Loading SMTP config...");
         smtpConfig = emailAlertsConfig.getSmtpConfig();
 
         if (smtpConfig == null) {
@@ -122,22 +346,45 @@ public class EmailAlerter {
           throw new IllegalStateException(errorMsg);
         }
 
-        LOG.info(() -> "SMTP host: " + smtpConfig.getHost());
-        LOG.info(() -> "SMTP TLS Port: " + smtpConfig.getTlsPort());
-        LOG.info(() -> "Account username: " + smtpConfig.getAccountUsername());
+        LOG.info("SMTP host: {}", smtpConfig.getHost());
+        LOG.info("SMTP TLS Port: {}", smtpConfig.getTlsPort());
+        LOG.info("Account username: {}", smtpConfig.getAccountUsername());
         // Account password not logged intentionally
-        LOG.info(() -> "From address: " + smtpConfig.getFromAddress());
-        LOG.info(() -> "To address: " + smtpConfig.getToAddress());
-
-        smtpProps = new Properties();
-        smtpProps.put("mail.smtp.auth", "true");
-        smtpProps.put("mail.smtp.starttls.enable", "true");
-        smtpProps.put("mail.smtp.host", smtpConfig.getHost());
-        smtpProps.put("mail.smtp.port", smtpConfig.getTlsPort());
+        LOG.info("From address: {}", smtpConfig.getFromAddress());
+        LOG.info("To address: {}", smtpConfig.getToAddress());
 
       } else {
-        LOG.warn(() -> "Email Alerts are disabled. Are you sure you want to configure this?");
+        LOG.warn("Email Alerts are disabled. Are you sure you want to configure this?");
       }
     }
   }
+
+  /** An alert waiting to be sent. Alerts with the same subject and content are equal. */
+  private static final class Alert {
+
+    private final String subject;
+    private final String msgContent;
+
+    Alert(String subject, String msgContent) {
+      this.subject = subject;
+      this.msgContent = msgContent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Alert alert = (Alert) o;
+      return Objects.equals(subject, alert.subject) && Objects.equals(msgContent, alert.msgContent);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(subject, msgContent);
+    }
+  }
 }
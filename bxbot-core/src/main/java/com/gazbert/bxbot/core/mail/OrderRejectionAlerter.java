@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.mail;
+
+import com.gazbert.bxbot.core.order.OrderListener;
+import com.gazbert.bxbot.core.order.TrackedOrder;
+import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends an Email Alert when an order is rejected before it reaches the exchange, e.g. by the risk
+ * checks.
+ *
+ * <p>A Trading Strategy that keeps placing the same order would raise an alert every trade cycle,
+ * so at most one alert is sent per market per alert interval. The rejections in between are
+ * counted, and the count is sent with the next alert.
+ *
+ * @author gazbert
+ */
+public class OrderRejectionAlerter implements OrderListener {
+
+  static final String WARNING_EMAIL_ALERT_SUBJECT = "WARNING Alert message from BX-bot";
+  static final long DEFAULT_ALERT_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  private static final String NEWLINE = System.getProperty("line.separator");
+  private static final String ACTION_TAKEN =
+      "The order was not placed. The bot will carry on trading.";
+
+  private final EmailAlerter emailAlerter;
+  private final String botId;
+  private final String botName;
+  private final String adapterName;
+  private final long alertIntervalMillis;
+  private final LongSupplier clock;
+  private final Map<String, Long> lastAlertTimes = new HashMap<>();
+  private final Map<String, Integer> suppressedAlertCounts = new HashMap<>();
+
+  /**
+   * Creates the Order Rejection Alerter.
+   *
+   * @param emailAlerter the Email Alerter to send the alerts with.
+   * @param engineConfig the Trading Engine config, for the bot's id and name.
+   * @param adapterName the name of the Exchange Adapter.
+   */
+  public OrderRejectionAlerter(
+      EmailAlerter emailAlerter, EngineConfig engineConfig, String adapterName) {
+    this(
+        emailAlerter,
+        engineConfig,
+        adapterName,
+        DEFAULT_ALERT_INTERVAL_MILLIS,
+        System::currentTimeMillis);
+  }
+
+  OrderRejectionAlerter(
+      EmailAlerter emailAlerter,
+      EngineConfig engineConfig,
+      String adapterName,
+      long alertIntervalMillis,
+      LongSupplier clock) {
+    this.emailAlerter = emailAlerter;
+    this.botId = engineConfig.getBotId();
+    this.botName = engineConfig.getBotName();
+    this.adapterName = adapterName;
+    this.alertIntervalMillis = alertIntervalMillis;
+    this.clock = clock;
+  }
+
+  @Override
+  public void orderOpened(TrackedOrder order) {
+    // Only rejected orders are alerted on.
+  }
+
+  @Override
+  public void orderClosed(TrackedOrder order) {
+    // Only rejected orders are alerted on.
+  }
+
+  @Override
+  public synchronized void orderRejected(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price, String reason) {
+    final long now = clock.getAsLong();
+    final Long lastAlertTime = lastAlertTimes.get(marketId);
+    if (lastAlertTime != null && now - lastAlertTime < alertIntervalMillis) {
+      suppressedAlertCounts.merge(marketId, 1, Integer::sum);
+      return;
+    }
+    lastAlertTimes.put(marketId, now);
+
+    final StringBuilder eventDetails = new StringBuilder(reason);
+    final Integer suppressedAlertCount = suppressedAlertCounts.remove(marketId);
+    if (suppressedAlertCount != null) {
+      eventDetails
+          .append(NEWLINE)
+          .append(NEWLINE)
+          .append(suppressedAlertCount)
+          .append(" more orders on market ")
+          .append(marketId)
+          .append(" were rejected since the last alert.");
+    }
+    emailAlerter.sendMessage(
+        WARNING_EMAIL_ALERT_SUBJECT,
+        EmailAlertMessageBuilder.buildWarningMsgContent(
+            eventDetails.toString(), ACTION_TAKEN, botId, botName, adapterName));
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.mail;
+
+import com.gazbert.bxbot.domain.emailalerts.SmtpConfig;
+import java.util.Properties;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Sends email using SMTP and TLS over a connection that is kept open between messages.
+ *
+ * <p>The connection is opened on the first send. Before each send it is checked with an SMTP
+ * NOOP and reopened if the server has dropped it. It is closed if a send fails, so the next
+ * attempt starts with a new connection. Connecting, reading and writing all time out, so a hung
+ * server cannot stall the sender thread for good.
+ *
+ * @author gazbert
+ */
+class SmtpMailSender implements MailSender {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String SMTP_PROTOCOL = "smtp";
+  private static final String SMTP_TIMEOUT_MILLIS = "30000";
+
+  private final SmtpConfig smtpConfig;
+  private final Session session;
+  private Transport transport;
+
+  SmtpMailSender(SmtpConfig smtpConfig) {
+    this.smtpConfig = smtpConfig;
+
+    final Properties smtpProps = new Properties();
+    smtpProps.put("mail.smtp.auth", "true");
+    smtpProps.put("mail.smtp.starttls.enable", "true");
+    smtpProps.put("mail.smtp.host", smtpConfig.getHost());
+    smtpProps.put("mail.smtp.port", smtpConfig.getTlsPort());
+    smtpProps.put("mail.smtp.connectiontimeout", SMTP_TIMEOUT_MILLIS);
+    smtpProps.put("mail.smtp.timeout", SMTP_TIMEOUT_MILLIS);
+    smtpProps.put("mail.smtp.writetimeout", SMTP_TIMEOUT_MILLIS);
+    session = Session.getInstance(smtpProps);
+  }
+
+  @Override
+  public void send(String subject, String msgContent) throws MessagingException {
+    final Message message = new MimeMessage(session);
+    message.setFrom(new InternetAddress(smtpConfig.getFromAddress()));
+    message.setRecipients(
+        Message.RecipientType.TO, InternetAddress.parse(smtpConfig.getToAddress()));
+    message.setSubject(subject);
+    message.setText(msgContent);
+    message.saveChanges();
+
+    try {
+      getConnectedTransport().sendMessage(message, message.getAllRecipients());
+    } catch (MessagingException e) {
+      close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() {
+    if (transport != null) {
+      try {
+        transport.close();
+      } catch (MessagingException e) {
+        LOG.warn("Failed to close SMTP connection. Details: {}", e.getMessage());
+      }
+      transport = null;
+    }
+  }
+
+  private Transport getConnectedTransport() throws MessagingException {
+    if (transport == null) {
+      transport = session.getTransport(SMTP_PROTOCOL);
+    }
+    if (!transport.isConnected()) {
+      LOG.info("Opening SMTP connection to: {}", smtpConfig.getHost());
+      transport.connect(
+          smtpConfig.getHost(),
+          smtpConfig.getTlsPort(),
+          smtpConfig.getAccountUsername(),
+          smtpConfig.getAccountPassword());
+    }
+    return transport;
+  }
+}
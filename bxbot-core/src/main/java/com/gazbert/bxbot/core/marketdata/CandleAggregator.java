@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import com.gazbert.bxbot.trading.api.Candle;
+import com.gazbert.bxbot.trading.api.CandleTimeframe;
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds OHLCV candles for every {@link CandleTimeframe} from a stream of market prices.
+ *
+ * <p>Each market keeps a bounded history per timeframe, so memory use is fixed however long the
+ * bot runs.
+ *
+ * @author gazbert
+ */
+public class CandleAggregator {
+
+  /** Default number of candles kept per market and timeframe. */
+  public static final int DEFAULT_HISTORY_SIZE = 500;
+
+  private final int historySize;
+  private final Map<String, Map<CandleTimeframe, CandleSeries>> seriesByMarket =
+      new ConcurrentHashMap<>();
+
+  /** Creates the Candle Aggregator with the default history size. */
+  public CandleAggregator() {
+    this(DEFAULT_HISTORY_SIZE);
+  }
+
+  /**
+   * Creates the Candle Aggregator.
+   *
+   * @param historySize the number of candles to keep per market and timeframe.
+   */
+  public CandleAggregator(int historySize) {
+    if (historySize < 1) {
+      throw new IllegalArgumentException("History size must be at least 1 but was: " + historySize);
+    }
+    this.historySize = historySize;
+  }
+
+  /**
+   * Adds a price update for a market to the candles for all timeframes.
+   *
+   * @param marketId the id of the market.
+   * @param timestamp the time of the update in millis since the epoch.
+   * @param price the price.
+   * @param volume the volume traded since the previous update, or zero if not known.
+   */
+  public void update(String marketId, long timestamp, BigDecimal price, BigDecimal volume) {
+    final double priceValue = price.doubleValue();
+    final double volumeValue = volume == null ? 0.0 : volume.doubleValue();
+    final Map<CandleTimeframe, CandleSeries> seriesByTimeframe = seriesFor(marketId);
+    synchronized (seriesByTimeframe) {
+      for (final CandleSeries series : seriesByTimeframe.values()) {
+        series.update(timestamp, priceValue, volumeValue);
+      }
+    }
+  }
+
+  /**
+   * Returns the most recent candles for a market, oldest first.
+   *
+   * @param marketId the id of the market.
+   * @param timeframe the timeframe of each candle.
+   * @param count the maximum number of candles to return.
+   * @return the candles - fewer than count if there is not enough history.
+   */
+  public List<Candle> getCandles(String marketId, CandleTimeframe timeframe, int count) {
+    final Map<CandleTimeframe, CandleSeries> seriesByTimeframe = seriesFor(marketId);
+    synchronized (seriesByTimeframe) {
+      return seriesByTimeframe.get(timeframe).getCandles(count);
+    }
+  }
+
+  private Map<CandleTimeframe, CandleSeries> seriesFor(String marketId) {
+    return seriesByMarket.computeIfAbsent(
+        marketId,
+        key -> {
+          final Map<CandleTimeframe, CandleSeries> seriesByTimeframe =
+              new EnumMap<>(CandleTimeframe.class);
+          for (final CandleTimeframe timeframe : CandleTimeframe.values()) {
+            seriesByTimeframe.put(
+                timeframe, new CandleSeries(timeframe.getDurationMillis(), historySize));
+          }
+          return seriesByTimeframe;
+        });
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import com.gazbert.bxbot.trading.api.Candle;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * A snapshot of a candle taken from a {@link CandleSeries}.
+ *
+ * @author gazbert
+ */
+final class CandleImpl implements Candle {
+
+  private final long openTime;
+  private final BigDecimal open;
+  private final BigDecimal high;
+  private final BigDecimal low;
+  private final BigDecimal close;
+  private final BigDecimal volume;
+
+  CandleImpl(
+      long openTime,
+      BigDecimal open,
+      BigDecimal high,
+      BigDecimal low,
+      BigDecimal close,
+      BigDecimal volume) {
+
+    this.openTime = openTime;
+    this.open = open;
+    this.high = high;
+    this.low = low;
+    this.close = close;
+    this.volume = volume;
+  }
+
+  @Override
+  public Date getOpenTime() {
+    return new Date(openTime);
+  }
+
+  @Override
+  public BigDecimal getOpen() {
+    return open;
+  }
+
+  @Override
+  public BigDecimal getHigh() {
+    return high;
+  }
+
+  @Override
+  public BigDecimal getLow() {
+    return low;
+  }
+
+  @Override
+  public BigDecimal getClose() {
+    return close;
+  }
+
+  @Override
+  public BigDecimal getVolume() {
+    return volume;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("openTime", new Date(openTime))
+        .add("open", open)
+        .add("high", high)
+        .add("low", low)
+        .add("close", close)
+        .add("volume", volume)
+        .toString();
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import com.gazbert.bxbot.trading.api.Candle;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A bounded history of candles for one market and timeframe.
+ *
+ * <p>Candles are held in parallel primitive ring buffers, so updating the series does not
+ * allocate. Periods with no price updates are filled with flat, zero volume candles at the
+ * previous close. Updates older than the current candle are ignored.
+ *
+ * <p>Not thread safe - the {@link CandleAggregator} synchronizes access.
+ *
+ * @author gazbert
+ */
+final class CandleSeries {
+
+  private final long timeframeMillis;
+  private final long[] openTimes;
+  private final double[] opens;
+  private final double[] highs;
+  private final double[] lows;
+  private final double[] closes;
+  private final double[] volumes;
+
+  /** Index of the current (newest) candle. */
+  private int current = -1;
+
+  private int size;
+
+  CandleSeries(long timeframeMillis, int capacity) {
+    this.timeframeMillis = timeframeMillis;
+    openTimes = new long[capacity];
+    opens = new double[capacity];
+    highs = new double[capacity];
+    lows = new double[capacity];
+    closes = new double[capacity];
+    volumes = new double[capacity];
+  }
+
+  void update(long timestamp, double price, double volume) {
+    final long openTime = timestamp - Math.floorMod(timestamp, timeframeMillis);
+
+    if (size == 0) {
+      startCandle(openTime, price, volume);
+      return;
+    }
+
+    final long currentOpenTime = openTimes[current];
+    if (openTime == currentOpenTime) {
+      highs[current] = Math.max(highs[current], price);
+      lows[current] = Math.min(lows[current], price);
+      closes[current] = price;
+      volumes[current] += volume;
+
+    } else if (openTime > currentOpenTime) {
+      final long missedCandles = (openTime - currentOpenTime) / timeframeMillis - 1;
+      if (missedCandles >= openTimes.length) {
+        // Gap is longer than the whole history - nothing worth keeping.
+        size = 0;
+      } else {
+        final double previousClose = closes[current];
+        for (long i = 1; i <= missedCandles; i++) {
+          startCandle(currentOpenTime + i * timeframeMillis, previousClose, 0.0);
+        }
+      }
+      startCandle(openTime, price, volume);
+    }
+  }
+
+  List<Candle> getCandles(int count) {
+    final int candleCount = Math.min(count, size);
+    if (candleCount <= 0) {
+      return Collections.emptyList();
+    }
+    final List<Candle> candles = new ArrayList<>(candleCount);
+    for (int i = candleCount - 1; i >= 0; i--) {
+      final int index = Math.floorMod(current - i, openTimes.length);
+      candles.add(
+          new CandleImpl(
+              openTimes[index],
+              BigDecimal.valueOf(opens[index]),
+              BigDecimal.valueOf(highs[index]),
+              BigDecimal.valueOf(lows[index]),
+              BigDecimal.valueOf(closes[index]),
+              BigDecimal.valueOf(volumes[index])));
+    }
+    return candles;
+  }
+
+  private void startCandle(long openTime, double price, double volume) {
+    current = current + 1 == openTimes.length ? 0 : current + 1;
+    openTimes[current] = openTime;
+    opens[current] = price;
+    highs[current] = price;
+    lows[current] = price;
+    closes[current] = price;
+    volumes[current] = volume;
+    if (size < openTimes.length) {
+      size++;
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An in-process, single writer / multi reader market data event bus, in the style of the LMAX
+ * Disruptor.
+ *
+ * <p>Events are published into a fixed size ring buffer of pre-allocated {@link MarketDataEvent}s,
+ * so there is no allocation per event in steady state. Every consumer subscribes with its own
+ * {@link MarketDataEventProcessor}, which tracks how far through the ring it has read and hands
+ * events to its handler in batches. Consumers never block each other or the writer, and there are
+ * no locks: the writer's cursor and each consumer's sequence are the only shared state.
+ *
+ * <p>Back-pressure: the writer will not overwrite an event until every consumer has read it. If
+ * the slowest consumer falls a whole ring behind, the writer waits a bounded time for it to catch
+ * up. If it still has not, the writer drops events, without waiting, until there is room again.
+ * Every consumer misses the dropped events, but a stalled consumer can't stall the Trading
+ * Engine. Consumers that run on their own thread park while there is nothing to read, and are
+ * unparked by the writer when it publishes.
+ *
+ * <p>There must only be one writer. In BX-bot, that is the Trading Engine thread - events are
+ * published by the Market Data Exchange Adapter and the Order Manager as the strategies run.
+ *
+ * @author gazbert
+ */
+public class MarketDataBus {
+
+  /** Default ring buffer size. */
+  public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+  /** Default max time the writer waits for a stalled consumer before it drops events. */
+  public static final long DEFAULT_MAX_WRITER_WAIT_MILLIS = 1000L;
+
+  static final long INITIAL_SEQUENCE = -1L;
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final long WRITER_WAIT_NANOS = 100_000L;
+  private static final long NO_SLOT = -1L;
+
+  private final MarketDataEvent[] entries;
+  private final int bufferSize;
+  private final int indexMask;
+  private final long maxWriterWaitNanos;
+
+  // Sequence of the last published event - written by the writer, read by consumers.
+  private final AtomicLong cursor = new AtomicLong(INITIAL_SEQUENCE);
+  private volatile MarketDataEventProcessor[] processors = new MarketDataEventProcessor[0];
+
+  // Only touched by the writer.
+  private long nextSequence = INITIAL_SEQUENCE;
+  private long cachedGatingSequence = INITIAL_SEQUENCE;
+  private boolean dropping;
+
+  // Written by the writer, read by anything that wants to know how many events were dropped.
+  private final AtomicLong droppedEventCount = new AtomicLong();
+
+  /**
+   * Creates the bus.
+   *
+   * @param bufferSize the ring buffer size. Must be a power of 2.
+   */
+  public MarketDataBus(int bufferSize) {
+    this(bufferSize, DEFAULT_MAX_WRITER_WAIT_MILLIS);
+  }
+
+  /**
+   * Creates the bus.
+   *
+   * @param bufferSize the ring buffer size. Must be a power of 2.
+   * @param maxWriterWaitMillis max time the writer waits for a stalled consumer before it drops
+   *     events.
+   */
+  public MarketDataBus(int bufferSize, long maxWriterWaitMillis) {
+    if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+      throw new IllegalArgumentException("Buffer size must be a power of 2: " + bufferSize);
+    }
+    this.bufferSize = bufferSize;
+    this.indexMask = bufferSize - 1;
+    this.maxWriterWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWriterWaitMillis);
+    entries = new MarketDataEvent[bufferSize];
+    for (int i = 0; i < bufferSize; i++) {
+      entries[i] = new MarketDataEvent();
+    }
+  }
+
+  /**
+   * Subscribes a handler to the bus. The handler sees every event published from now on.
+   *
+   * <p>The returned processor must either be run on its own thread, or be polled regularly - an
+   * idle subscriber will eventually hold up the writer. Halt it to unsubscribe.
+   *
+   * @param handler the handler.
+   * @return the processor that feeds events to the handler.
+   */
+  public synchronized MarketDataEventProcessor subscribe(MarketDataEventHandler handler) {
+    final MarketDataEventProcessor processor =
+        new MarketDataEventProcessor(this, handler, cursor.get());
+    final MarketDataEventProcessor[] updated = Arrays.copyOf(processors, processors.length + 1);
+    updated[processors.length] = processor;
+    processors = updated;
+    return processor;
+  }
+
+  /**
+   * Publishes a ticker, or latest market price, event.
+   *
+   * @param marketId the id of the market.
+   * @param timestamp when the data was fetched, in millis since epoch.
+   * @param last the last trade price.
+   * @param bid the best bid, or null if not known.
+   * @param ask the best ask, or null if not known.
+   * @param volume the 24 hour volume, or null if not known.
+   */
+  public void publishTicker(
+      String marketId,
+      long timestamp,
+      BigDecimal last,
+      BigDecimal bid,
+      BigDecimal ask,
+      BigDecimal volume) {
+    final long sequence = claim();
+    if (sequence == NO_SLOT) {
+      return;
+    }
+    get(sequence)
+        .set(MarketDataEvent.Type.TICKER, marketId, timestamp, last, volume, bid, ask, null);
+    publish(sequence);
+  }
+
+  /**
+   * Publishes an order book event.
+   *
+   * @param marketId the id of the market.
+   * @param timestamp when the data was fetched, in millis since epoch.
+   * @param bestBid the top buy order price, or null if there are no buy orders.
+   * @param bestAsk the top sell order price, or null if there are no sell orders.
+   */
+  public void publishOrderBook(
+      String marketId, long timestamp, BigDecimal bestBid, BigDecimal bestAsk) {
+    final long sequence = claim();
+    if (sequence == NO_SLOT) {
+      return;
+    }
+    get(sequence)
+        .set(
+            MarketDataEvent.Type.ORDER_BOOK,
+            marketId,
+            timestamp,
+            null,
+            null,
+            bestBid,
+            bestAsk,
+            null);
+    publish(sequence);
+  }
+
+  /**
+   * Publishes a fill event for one of the bot's orders.
+   *
+   * @param marketId the id of the market.
+   * @param timestamp when the fill was seen, in millis since epoch.
+   * @param orderType the type of the order that filled.
+   * @param price the order price.
+   * @param quantity the quantity filled.
+   */
+  public void publishFill(
+      String marketId, long timestamp, OrderType orderType, BigDecimal price, BigDecimal quantity) {
+    final long sequence = claim();
+    if (sequence == NO_SLOT) {
+      return;
+    }
+    get(sequence)
+        .set(MarketDataEvent.Type.FILL, marketId, timestamp, price, quantity, null, null, orderType);
+    publish(sequence);
+  }
+
+  /**
+   * Returns the sequence of the last published event.
+   *
+   * @return the sequence of the last published event, or -1 if nothing has been published.
+   */
+  public long getCursor() {
+    return cursor.get();
+  }
+
+  /**
+   * Returns the number of events dropped because a consumer had stalled.
+   *
+   * @return the number of dropped events.
+   */
+  public long getDroppedEventCount() {
+    return droppedEventCount.get();
+  }
+
+  /**
+   * Returns the ring buffer size.
+   *
+   * @return the ring buffer size.
+   */
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  MarketDataEvent get(long sequence) {
+    return entries[(int) (sequence & indexMask)];
+  }
+
+  synchronized void unsubscribe(MarketDataEventProcessor processor) {
+    final MarketDataEventProcessor[] current = processors;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == processor) {
+        final MarketDataEventProcessor[] updated = new MarketDataEventProcessor[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, i);
+        System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+        processors = updated;
+        return;
+      }
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  /*
+   * Claims the next slot in the ring, waiting for the slowest consumer if the writer has lapped
+   * it. The gating sequence is cached so the consumers are only checked when the writer gets
+   * close to a full lap ahead. Returns NO_SLOT if the consumer did not catch up in time, or if
+   * the writer is already dropping events and there is still no room.
+   */
+  private long claim() {
+    final long next = nextSequence + 1;
+    final long wrapPoint = next - bufferSize;
+    if (wrapPoint > cachedGatingSequence) {
+      final long waitUntil = System.nanoTime() + (dropping ? 0 : maxWriterWaitNanos);
+      long minSequence;
+      while (wrapPoint > (minSequence = minimumConsumerSequence(nextSequence))) {
+        if (System.nanoTime() - waitUntil >= 0) {
+          if (!dropping) {
+            dropping = true;
+            LOG.warn(
+                "Market data bus is full - a subscriber has stalled. Dropping events until it "
+                    + "catches up.");
+          }
+          droppedEventCount.incrementAndGet();
+          return NO_SLOT;
+        }
+        LockSupport.parkNanos(WRITER_WAIT_NANOS);
+      }
+      if (dropping) {
+        dropping = false;
+        LOG.warn(
+            "Market data bus subscriber has caught up. Total events dropped: {}",
+            droppedEventCount.get());
+      }
+      cachedGatingSequence = minSequence;
+    }
+    nextSequence = next;
+    return next;
+  }
+
+  /*
+   * Makes the event visible to the consumers, then wakes any that are parked. The cursor is a
+   * full volatile write so a consumer that has just said it is waiting is seen here.
+   */
+  private void publish(long sequence) {
+    cursor.set(sequence);
+    for (final MarketDataEventProcessor processor : processors) {
+      processor.signal();
+    }
+  }
+
+  private long minimumConsumerSequence(long minimum) {
+    long min = minimum;
+    for (final MarketDataEventProcessor processor : processors) {
+      min = Math.min(min, processor.getSequence());
+    }
+    return min;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+
+/**
+ * A market data event on the {@link MarketDataBus}.
+ *
+ * <p>Events are allocated once, when the bus is created, and reused as the ring buffer wraps. An
+ * event is only valid for the duration of {@link MarketDataEventHandler#onEvent}; handlers must
+ * copy out anything they want to keep rather than hold on to the event.
+ *
+ * <p>Which fields are set depends on the event type:
+ *
+ * <ul>
+ *   <li>{@link Type#TICKER} - price is the last trade price, quantity is the 24 hour volume. Best
+ *       bid and ask are set if the exchange provides them.
+ *   <li>{@link Type#ORDER_BOOK} - best bid and best ask (top of the book).
+ *   <li>{@link Type#FILL} - one of the bot's orders filled: order type, price and quantity.
+ * </ul>
+ *
+ * @author gazbert
+ */
+public final class MarketDataEvent {
+
+  /** The types of market data event. */
+  public enum Type {
+    /** Ticker or latest market price update. */
+    TICKER,
+    /** Order book (top of book) update. */
+    ORDER_BOOK,
+    /** One of the bot's orders has filled. */
+    FILL
+  }
+
+  private Type type;
+  private String marketId;
+  private long timestamp;
+  private BigDecimal price;
+  private BigDecimal quantity;
+  private BigDecimal bestBid;
+  private BigDecimal bestAsk;
+  private OrderType orderType;
+
+  MarketDataEvent() {
+    // Only created by the bus.
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  public BigDecimal getBestBid() {
+    return bestBid;
+  }
+
+  public BigDecimal getBestAsk() {
+    return bestAsk;
+  }
+
+  public OrderType getOrderType() {
+    return orderType;
+  }
+
+  void set(
+      Type type,
+      String marketId,
+      long timestamp,
+      BigDecimal price,
+      BigDecimal quantity,
+      BigDecimal bestBid,
+      BigDecimal bestAsk,
+      OrderType orderType) {
+
+    this.type = type;
+    this.marketId = marketId;
+    this.timestamp = timestamp;
+    this.price = price;
+    this.quantity = quantity;
+    this.bestBid = bestBid;
+    this.bestAsk = bestAsk;
+    this.orderType = orderType;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("type", type)
+        .add("marketId", marketId)
+        .add("timestamp", timestamp)
+        .add("price", price)
+        .add("quantity", quantity)
+        .add("bestBid", bestBid)
+        .add("bestAsk", bestAsk)
+        .add("orderType", orderType)
+        .toString();
+  }
+}
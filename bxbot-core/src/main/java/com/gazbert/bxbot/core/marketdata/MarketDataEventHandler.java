@@ -0,0 +1,45 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+/**
+ * Consumes events from the {@link MarketDataBus}.
+ *
+ * @author gazbert
+ */
+public interface MarketDataEventHandler {
+
+  /**
+   * Called for each event published to the bus, in sequence order.
+   *
+   * <p>Events arrive in batches - everything published since the handler was last called.
+   * Handlers that do expensive work per batch, e.g. recalculating something, can wait for
+   * endOfBatch to be true.
+   *
+   * @param event the event. Only valid for the duration of the call.
+   * @param sequence the event's sequence number on the bus.
+   * @param endOfBatch true if this is the last event in the current batch.
+   */
+  void onEvent(MarketDataEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads events off the {@link MarketDataBus} for one {@link MarketDataEventHandler}.
+ *
+ * <p>It can be run on its own thread, where it parks until the bus signals new events and hands
+ * them to the handler in batches until halted. Or it can be polled by a thread that already has a
+ * loop, e.g. once per trade cycle. It must not be both run and polled. Halting it before it is run
+ * means it never handles anything.
+ *
+ * @author gazbert
+ */
+public class MarketDataEventProcessor implements Runnable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final MarketDataBus bus;
+  private final MarketDataEventHandler handler;
+
+  // Sequence of the last event handed to the handler - read by the writer for back-pressure.
+  private final AtomicLong sequence;
+  private volatile boolean running = true;
+
+  // The thread running the processor, and whether it is parked waiting for events.
+  private volatile Thread runThread;
+  private volatile boolean waiting;
+
+  MarketDataEventProcessor(MarketDataBus bus, MarketDataEventHandler handler, long sequence) {
+    this.bus = bus;
+    this.handler = handler;
+    this.sequence = new AtomicLong(sequence);
+  }
+
+  /**
+   * Hands every event published since the last poll to the handler, as one batch.
+   *
+   * @return the number of events handled.
+   */
+  public int poll() {
+    final long nextSequence = sequence.get() + 1;
+    final long availableSequence = bus.getCursor();
+    if (availableSequence < nextSequence) {
+      return 0;
+    }
+    for (long current = nextSequence; current <= availableSequence; current++) {
+      try {
+        handler.onEvent(bus.get(current), current, current == availableSequence);
+      } catch (RuntimeException e) {
+        // A bad handler must not stop the bus.
+        final long failedSequence = current;
+        LOG.error("Market data handler failed on event {}", failedSequence, e);
+      }
+    }
+    // Release the slots back to the writer.
+    sequence.lazySet(availableSequence);
+    return (int) (availableSequence - nextSequence + 1);
+  }
+
+  /** Handles events until halted. */
+  @Override
+  public void run() {
+    runThread = Thread.currentThread();
+    while (running) {
+      if (poll() == 0) {
+        // Say we are waiting before the last look at the cursor, so a publish in between still
+        // wakes us. The writer sets the cursor before it checks the waiting flag.
+        waiting = true;
+        if (running && bus.getCursor() <= sequence.get()) {
+          LockSupport.park(this);
+        }
+        waiting = false;
+      }
+    }
+  }
+
+  /** Stops the processor and unsubscribes it from the bus. */
+  public void halt() {
+    running = false;
+    bus.unsubscribe(this);
+    final Thread thread = runThread;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /** Wakes the processor's thread if it is parked waiting for events. Called by the writer. */
+  void signal() {
+    if (waiting) {
+      LockSupport.unpark(runThread);
+    }
+  }
+
+  long getSequence() {
+    return sequence.get();
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import com.gazbert.bxbot.core.util.ForwardingExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.Candle;
+import com.gazbert.bxbot.trading.api.CandleTimeframe;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrder;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Decorates an Exchange Adapter and builds candles from the market data that passes through it.
+ *
+ * <p>Every ticker and latest price fetched through this adapter - by the Trading Engine or by a
+ * Trading Strategy - is fed into a shared {@link CandleAggregator}, and {@link #getCandles(String,
+ * CandleTimeframe, int)} is served from it.
+ *
+ * <p>A market is subscribed the first time its candles are requested. From then on, the Trading
+ * Engine calls {@link #pollSubscribedMarkets()} once per trade cycle, which fetches the ticker for
+ * each subscribed market once, however many Trading Strategies are reading its candles. Markets no
+ * one asks candles for cost nothing.
+ *
+ * <p>Candle volume is the increase in the ticker's rolling 24 hour volume between updates, so it
+ * is only as good as the exchange's ticker. It is zero for adapters that do not provide volume.
+ *
+ * <p>For markets with more than one Trading Strategy attached, the order book, ticker, and latest
+ * price are fetched once per trade cycle and the same snapshot is handed to every strategy. Markets
+ * with a single strategy are passed straight through, so a strategy that polls the order book
+ * within a cycle still sees it change.
+ *
+ * <p>If a {@link MarketDataBus} is set, every ticker, latest price, and order book fetched from the
+ * exchange is also published to it.
+ *
+ * @author gazbert
+ */
+public class MarketDataExchangeAdapter extends ForwardingExchangeAdapter {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final CandleAggregator candleAggregator;
+  private final Set<String> subscribedMarkets = ConcurrentHashMap.newKeySet();
+  private final Map<String, BigDecimal> lastTickerVolumes = new ConcurrentHashMap<>();
+  private final Map<String, BigDecimal> lastKnownPrices = new ConcurrentHashMap<>();
+
+  private final Set<String> sharedMarkets = ConcurrentHashMap.newKeySet();
+  private final Map<String, MarketOrderBook> cycleOrderBooks = new ConcurrentHashMap<>();
+  private final Map<String, Ticker> cycleTickers = new ConcurrentHashMap<>();
+  private final Map<String, BigDecimal> cycleLatestPrices = new ConcurrentHashMap<>();
+
+  private MarketDataBus marketDataBus;
+
+  /**
+   * Creates the market data Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   * @param candleAggregator the aggregator to build candles with.
+   */
+  public MarketDataExchangeAdapter(ExchangeAdapter delegate, CandleAggregator candleAggregator) {
+    super(delegate);
+    this.candleAggregator = candleAggregator;
+  }
+
+  /**
+   * Sets the bus to publish the market data fetched from the exchange to.
+   *
+   * @param marketDataBus the bus.
+   */
+  public void setMarketDataBus(MarketDataBus marketDataBus) {
+    this.marketDataBus = marketDataBus;
+  }
+
+  /**
+   * Sets the markets that have more than one Trading Strategy attached. Market data for these is
+   * fetched once per trade cycle and shared.
+   *
+   * @param marketIds the ids of the shared markets.
+   */
+  public void setSharedMarkets(Collection<String> marketIds) {
+    sharedMarkets.clear();
+    sharedMarkets.addAll(marketIds);
+  }
+
+  /**
+   * Returns the last price seen for a market, from either its ticker or its latest market price.
+   * No exchange call is made.
+   *
+   * @param marketId the id of the market.
+   * @return the last price seen, or null if the market's price has not been fetched yet.
+   */
+  public BigDecimal getLastKnownPrice(String marketId) {
+    return lastKnownPrices.get(marketId);
+  }
+
+  /**
+   * Called by the Trading Engine at the start of every trade cycle. Drops the previous cycle's
+   * shared market data and fetches the latest for every market that candles have been requested
+   * for.
+   */
+  public void startTradeCycle() {
+    cycleOrderBooks.clear();
+    cycleTickers.clear();
+    cycleLatestPrices.clear();
+    pollSubscribedMarkets();
+  }
+
+  /**
+   * Fetches the latest market data for every market that candles have been requested for. Errors
+   * are logged and the market is skipped until the next trade cycle - a missed update just means
+   * one less price in the current candle.
+   */
+  public void pollSubscribedMarkets() {
+    for (final String marketId : subscribedMarkets) {
+      try {
+        pollMarket(marketId);
+      } catch (ExchangeNetworkException | TradingApiException e) {
+        LOG.warn("Failed to fetch market data for candles on market: {}", marketId, e);
+      }
+    }
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    if (!sharedMarkets.contains(marketId)) {
+      return fetchMarketOrders(marketId);
+    }
+    MarketOrderBook orderBook = cycleOrderBooks.get(marketId);
+    if (orderBook == null) {
+      orderBook = fetchMarketOrders(marketId);
+      cycleOrderBooks.put(marketId, orderBook);
+    }
+    return orderBook;
+  }
+
+  @Override
+  public BigDecimal getLatestMarketPrice(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    final boolean isSharedMarket = sharedMarkets.contains(marketId);
+    if (isSharedMarket && cycleLatestPrices.containsKey(marketId)) {
+      return cycleLatestPrices.get(marketId);
+    }
+    final BigDecimal latestPrice = delegate.getLatestMarketPrice(marketId);
+    if (latestPrice != null) {
+      lastKnownPrices.put(marketId, latestPrice);
+      if (marketDataBus != null) {
+        marketDataBus.publishTicker(
+            marketId, System.currentTimeMillis(), latestPrice, null, null, null);
+      }
+      candleAggregator.update(marketId, System.currentTimeMillis(), latestPrice, BigDecimal.ZERO);
+      if (isSharedMarket) {
+        cycleLatestPrices.put(marketId, latestPrice);
+      }
+    }
+    return latestPrice;
+  }
+
+  @Override
+  public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+    final boolean isSharedMarket = sharedMarkets.contains(marketId);
+    if (isSharedMarket && cycleTickers.containsKey(marketId)) {
+      return cycleTickers.get(marketId);
+    }
+    final Ticker ticker = delegate.getTicker(marketId);
+    if (ticker != null && isSharedMarket) {
+      cycleTickers.put(marketId, ticker);
+    }
+    if (ticker != null && ticker.getLast() != null) {
+      lastKnownPrices.put(marketId, ticker.getLast());
+      if (marketDataBus != null) {
+        marketDataBus.publishTicker(
+            marketId,
+            System.currentTimeMillis(),
+            ticker.getLast(),
+            ticker.getBid(),
+            ticker.getAsk(),
+            ticker.getVolume());
+      }
+      candleAggregator.update(
+          marketId,
+          System.currentTimeMillis(),
+          ticker.getLast(),
+          volumeSinceLastTicker(marketId, ticker.getVolume()));
+    }
+    return ticker;
+  }
+
+  @Override
+  public List<Candle> getCandles(String marketId, CandleTimeframe timeframe, int count)
+      throws TradingApiException, ExchangeNetworkException {
+    if (subscribedMarkets.add(marketId)) {
+      LOG.info("Building candles for market: {}", marketId);
+      pollMarket(marketId);
+    }
+    return candleAggregator.getCandles(marketId, timeframe, count);
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private MarketOrderBook fetchMarketOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    final MarketOrderBook orderBook = delegate.getMarketOrders(marketId);
+    if (orderBook != null && marketDataBus != null) {
+      marketDataBus.publishOrderBook(
+          marketId,
+          System.currentTimeMillis(),
+          topOfBookPrice(orderBook.getBuyOrders()),
+          topOfBookPrice(orderBook.getSellOrders()));
+    }
+    return orderBook;
+  }
+
+  private static BigDecimal topOfBookPrice(List<MarketOrder> orders) {
+    return orders == null || orders.isEmpty() ? null : orders.get(0).getPrice();
+  }
+
+  private void pollMarket(String marketId) throws ExchangeNetworkException, TradingApiException {
+    final Ticker ticker = getTicker(marketId);
+    if (ticker == null || ticker.getLast() == null) {
+      // Adapter doesn't provide a ticker - fall back to the latest price.
+      getLatestMarketPrice(marketId);
+    }
+  }
+
+  private BigDecimal volumeSinceLastTicker(String marketId, BigDecimal tickerVolume) {
+    if (tickerVolume == null) {
+      return BigDecimal.ZERO;
+    }
+    final BigDecimal lastTickerVolume = lastTickerVolumes.put(marketId, tickerVolume);
+    if (lastTickerVolume == null) {
+      return BigDecimal.ZERO;
+    }
+    // 24 hour volume drops as old trades roll out of the window - treat that as no new volume.
+    return tickerVolume.subtract(lastTickerVolume).max(BigDecimal.ZERO);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import com.gazbert.bxbot.core.order.OrderFill;
+import com.gazbert.bxbot.core.order.OrderListener;
+import com.gazbert.bxbot.core.order.TrackedOrder;
+
+/**
+ * Publishes a {@link MarketDataEvent.Type#FILL} event to the {@link MarketDataBus} when the Order
+ * Manager sees one of the bot's orders fill on the exchange.
+ *
+ * <p>The fill quantity is what was filled since the order was last seen, so partial fills are
+ * published as they are seen. Orders that go from the exchange are not published as fills.
+ *
+ * @author gazbert
+ */
+public class OrderFillPublisher implements OrderListener {
+
+  private final MarketDataBus marketDataBus;
+
+  /**
+   * Creates the publisher.
+   *
+   * @param marketDataBus the bus to publish fills to.
+   */
+  public OrderFillPublisher(MarketDataBus marketDataBus) {
+    this.marketDataBus = marketDataBus;
+  }
+
+  @Override
+  public void orderOpened(TrackedOrder order) {
+    // Nothing to publish until it fills.
+  }
+
+  @Override
+  public void orderFilled(TrackedOrder order, OrderFill fill) {
+    marketDataBus.publishFill(
+        fill.getMarketId(),
+        System.currentTimeMillis(),
+        fill.getOrderType(),
+        fill.getPrice(),
+        fill.getQuantity());
+  }
+
+  @Override
+  public void orderClosed(TrackedOrder order) {
+    // Closing is not a fill - the fills have already been published.
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.order.OrderFill;
+import com.gazbert.bxbot.core.order.OrderListener;
+import com.gazbert.bxbot.core.order.TrackedOrder;
+import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.trading.api.OrderType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the Trading Engine's metrics.
+ *
+ * <ul>
+ *   <li>How long each trade cycle took, by outcome, and how many took longer than the trade cycle
+ *       interval.
+ *   <li>How long each Trading Strategy took to execute, by strategy and market.
+ *   <li>The exceptions thrown out of a trade cycle, by exception type.
+ *   <li>The orders placed, filled, cancelled, gone and rejected, by market.
+ *   <li>How far the Emergency Stop Currency balance is above the Emergency Stop balance.
+ *   <li>The number of Email Alerts waiting to be sent.
+ * </ul>
+ *
+ * <p>The gauges are removed when the engine shuts down, so a restarted engine can register its
+ * own.
+ *
+ * @author gazbert
+ */
+public class EngineMetrics implements OrderListener {
+
+  static final String CYCLE_METRIC_NAME = "bxbot.engine.cycles";
+  static final String CYCLE_OVERRUNS_METRIC_NAME = "bxbot.engine.cycle.overruns";
+  static final String STRATEGY_EXECUTE_METRIC_NAME = "bxbot.strategy.execute";
+  static final String EXCEPTIONS_METRIC_NAME = "bxbot.engine.exceptions";
+  static final String ORDERS_METRIC_NAME = "bxbot.engine.orders";
+  static final String EMERGENCY_STOP_HEADROOM_METRIC_NAME = "bxbot.engine.emergency.stop.headroom";
+  static final String ALERT_QUEUE_SIZE_METRIC_NAME = "bxbot.email.alerts.queued";
+
+  static final String OUTCOME_TAG = "outcome";
+  static final String STRATEGY_TAG = "strategy";
+  static final String MARKET_TAG = "market";
+  static final String EXCEPTION_TAG = "exception";
+  static final String ORDER_EVENT_TAG = "event";
+  static final String CURRENCY_TAG = "currency";
+
+  static final String ORDER_PLACED = "PLACED";
+  static final String ORDER_CANCELLED = "CANCELLED";
+  static final String ORDER_FILLED = "FILLED";
+  static final String ORDER_GONE = "GONE";
+  static final String ORDER_REJECTED = "REJECTED";
+
+  private final MeterRegistry meterRegistry;
+  private final long tradeCycleIntervalMillis;
+  private final BigDecimal emergencyStopBalance;
+  private final Counter cycleOverruns;
+  private final List<Meter> gauges = new ArrayList<>();
+  private volatile double emergencyStopHeadroom = Double.NaN;
+
+  /**
+   * Creates the engine metrics.
+   *
+   * @param meterRegistry the registry to record the metrics in.
+   * @param engineConfig the Trading Engine config.
+   * @param emailAlerter the Email Alerter whose queue to measure.
+   */
+  public EngineMetrics(
+      MeterRegistry meterRegistry, EngineConfig engineConfig, EmailAlerter emailAlerter) {
+    this.meterRegistry = meterRegistry;
+    tradeCycleIntervalMillis = TimeUnit.SECONDS.toMillis(engineConfig.getTradeCycleInterval());
+    emergencyStopBalance = engineConfig.getEmergencyStopBalance();
+    cycleOverruns =
+        Counter.builder(CYCLE_OVERRUNS_METRIC_NAME)
+            .description("Trade cycles that took longer than the trade cycle interval")
+            .register(meterRegistry);
+    gauges.add(
+        Gauge.builder(EMERGENCY_STOP_HEADROOM_METRIC_NAME, this, m -> m.emergencyStopHeadroom)
+            .description("Emergency Stop Currency balance above the Emergency Stop balance")
+            .tag(CURRENCY_TAG, String.valueOf(engineConfig.getEmergencyStopCurrency()))
+            .register(meterRegistry));
+    gauges.add(
+        Gauge.builder(ALERT_QUEUE_SIZE_METRIC_NAME, emailAlerter, EmailAlerter::getQueuedAlertCount)
+            .description("Email Alerts waiting to be sent")
+            .register(meterRegistry));
+  }
+
+  /**
+   * Records a trade cycle.
+   *
+   * @param durationMillis how long the cycle took, not including the sleep until the next one.
+   * @param outcome how the cycle ended, e.g. COMPLETED.
+   */
+  public void cycleCompleted(long durationMillis, String outcome) {
+    Timer.builder(CYCLE_METRIC_NAME)
+        .description("Trade cycle duration")
+        .tag(OUTCOME_TAG, outcome)
+        .register(meterRegistry)
+        .record(durationMillis, TimeUnit.MILLISECONDS);
+    if (durationMillis > tradeCycleIntervalMillis) {
+      cycleOverruns.increment();
+    }
+  }
+
+  /**
+   * Returns the timer for a Trading Strategy's execute calls.
+   *
+   * @param strategyId the id of the strategy.
+   * @param marketId the id of the market the strategy trades on.
+   * @return the timer.
+   */
+  public Timer strategyExecuteTimer(String strategyId, String marketId) {
+    return Timer.builder(STRATEGY_EXECUTE_METRIC_NAME)
+        .description("Trading Strategy execute duration")
+        .tag(STRATEGY_TAG, strategyId)
+        .tag(MARKET_TAG, marketId)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Records an exception thrown out of a trade cycle.
+   *
+   * @param exception the exception.
+   */
+  public void exceptionThrown(Exception exception) {
+    meterRegistry
+        .counter(EXCEPTIONS_METRIC_NAME, EXCEPTION_TAG, exception.getClass().getSimpleName())
+        .increment();
+  }
+
+  /**
+   * Records the Emergency Stop Currency balance seen by the Emergency Stop check.
+   *
+   * @param balance the balance available on the exchange.
+   */
+  public void emergencyStopBalanceChecked(BigDecimal balance) {
+    emergencyStopHeadroom = balance.subtract(emergencyStopBalance).doubleValue();
+  }
+
+  @Override
+  public void orderOpened(TrackedOrder order) {
+    countOrder(order.getMarketId(), ORDER_PLACED);
+  }
+
+  @Override
+  public void orderFilled(TrackedOrder order, OrderFill fill) {
+    countOrder(fill.getMarketId(), ORDER_FILLED);
+  }
+
+  @Override
+  public void orderClosed(TrackedOrder order) {
+    if (order.getStatus() == TrackedOrder.Status.CANCELLED) {
+      countOrder(order.getMarketId(), ORDER_CANCELLED);
+    } else if (order.getStatus() == TrackedOrder.Status.GONE) {
+      countOrder(order.getMarketId(), ORDER_GONE);
+    }
+    // Filled orders have already been counted as they filled.
+  }
+
+  @Override
+  public void orderRejected(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price, String reason) {
+    countOrder(marketId, ORDER_REJECTED);
+  }
+
+  /** Removes the gauges from the registry. */
+  public void close() {
+    for (final Meter gauge : gauges) {
+      meterRegistry.remove(gauge);
+    }
+    gauges.clear();
+  }
+
+  private void countOrder(String marketId, String event) {
+    meterRegistry
+        .counter(ORDERS_METRIC_NAME, MARKET_TAG, marketId, ORDER_EVENT_TAG, event)
+        .increment();
+  }
+}
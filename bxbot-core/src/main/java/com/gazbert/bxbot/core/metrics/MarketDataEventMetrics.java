@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import com.gazbert.bxbot.core.marketdata.MarketDataEvent;
+import com.gazbert.bxbot.core.marketdata.MarketDataEventHandler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts the events flowing through the {@link com.gazbert.bxbot.core.marketdata.MarketDataBus},
+ * by event type.
+ *
+ * @author gazbert
+ */
+public class MarketDataEventMetrics implements MarketDataEventHandler {
+
+  static final String MARKET_DATA_EVENTS_METRIC_NAME = "bxbot.marketdata.events";
+  static final String EVENT_TYPE_TAG = "type";
+
+  private final Map<MarketDataEvent.Type, Counter> eventCounters =
+      new EnumMap<>(MarketDataEvent.Type.class);
+
+  /**
+   * Creates the market data event metrics.
+   *
+   * @param meterRegistry the registry to record the metrics in.
+   */
+  public MarketDataEventMetrics(MeterRegistry meterRegistry) {
+    for (final MarketDataEvent.Type type : MarketDataEvent.Type.values()) {
+      eventCounters.put(
+          type,
+          Counter.builder(MARKET_DATA_EVENTS_METRIC_NAME)
+              .description("Market data events published to the market data bus")
+              .tag(EVENT_TYPE_TAG, type.name())
+              .register(meterRegistry));
+    }
+  }
+
+  @Override
+  public void onEvent(MarketDataEvent event, long sequence, boolean endOfBatch) {
+    eventCounters.get(event.getType()).increment();
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import com.gazbert.bxbot.core.util.ForwardingExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.Candle;
+import com.gazbert.bxbot.trading.api.CandleTimeframe;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Position;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorates an Exchange Adapter and records the latency and outcome of every Trading API call made
+ * through it.
+ *
+ * <p>The Trading Engine hands this to the Trading Strategies so that calls are measured at the
+ * Trading API boundary - this includes any time the adapter spends building requests and parsing
+ * responses, not just the network time.
+ *
+ * @author gazbert
+ */
+public class MeteredExchangeAdapter extends ForwardingExchangeAdapter {
+
+  static final String TRADING_API_CALLS_METRIC_NAME = "bxbot.trading.api.calls";
+
+  static final String ADAPTER_TAG = "adapter";
+  static final String API_METHOD_TAG = "method";
+  static final String OUTCOME_TAG = "outcome";
+
+  static final String OUTCOME_SUCCESS = "SUCCESS";
+  static final String OUTCOME_NETWORK_ERROR = "NETWORK_ERROR";
+  static final String OUTCOME_API_ERROR = "API_ERROR";
+  static final String OUTCOME_UNEXPECTED_ERROR = "UNEXPECTED_ERROR";
+
+  private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+  private final MeterRegistry meterRegistry;
+  private final String adapterName;
+  private final Map<String, Timer> callTimers = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the metered Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   * @param meterRegistry the registry to record the metrics in.
+   */
+  public MeteredExchangeAdapter(ExchangeAdapter delegate, MeterRegistry meterRegistry) {
+    super(delegate);
+    this.meterRegistry = meterRegistry;
+    this.adapterName = delegate.getClass().getSimpleName();
+  }
+
+  /**
+   * Returns the decorated Exchange Adapter.
+   *
+   * @return the decorated Exchange Adapter.
+   */
+  public ExchangeAdapter getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordCall("getMarketOrders", () -> delegate.getMarketOrders(marketId));
+  }
+
+  @Override
+  public List<OpenOrder> getYourOpenOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordCall("getYourOpenOrders", () -> delegate.getYourOpenOrders(marketId));
+  }
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordCall(
+        "createOrder", () -> delegate.createOrder(marketId, orderType, quantity, price));
+  }
+
+  @Override
+  public boolean cancelOrder(String orderId, String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordCall("cancelOrder", () -> delegate.cancelOrder(orderId, marketId));
+  }
+
+  @Override
+  public BigDecimal getLatestMarketPrice(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return recordCall("getLatestMarketPrice", () -> delegate.getLatestMarketPrice(marketId));
+  }
+
+  @Override
+  public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+    return recordCall("getBalanceInfo", delegate::getBalanceInfo);
+  }
+
+  @Override
+  public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return recordCall(
+        "getPercentageOfBuyOrderTakenForExchangeFee",
+        () -> delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId));
+  }
+
+  @Override
+  public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return recordCall(
+        "getPercentageOfSellOrderTakenForExchangeFee",
+        () -> delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId));
+  }
+
+  @Override
+  public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+    return recordCall("getTicker", () -> delegate.getTicker(marketId));
+  }
+
+  @Override
+  public MyTradeHistory getMyTrades(String marketId, String sinceCursor)
+      throws TradingApiException, ExchangeNetworkException {
+    return recordCall("getMyTrades", () -> delegate.getMyTrades(marketId, sinceCursor));
+  }
+
+  @Override
+  public MarketMetadata getMarketMetadata(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return recordCall("getMarketMetadata", () -> delegate.getMarketMetadata(marketId));
+  }
+
+  @Override
+  public List<Candle> getCandles(String marketId, CandleTimeframe timeframe, int count)
+      throws TradingApiException, ExchangeNetworkException {
+    return recordCall("getCandles", () -> delegate.getCandles(marketId, timeframe, count));
+  }
+
+  @Override
+  public Position getPosition(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return recordCall("getPosition", () -> delegate.getPosition(marketId));
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  /** A Trading API call to be measured. */
+  @FunctionalInterface
+  private interface TradingApiCall<T> {
+    T call() throws ExchangeNetworkException, TradingApiException;
+  }
+
+  private <T> T recordCall(String apiMethod, TradingApiCall<T> tradingApiCall)
+      throws ExchangeNetworkException, TradingApiException {
+
+    final long startTime = System.nanoTime();
+    String outcome = OUTCOME_UNEXPECTED_ERROR;
+    try {
+      final T result = tradingApiCall.call();
+      outcome = OUTCOME_SUCCESS;
+      return result;
+
+    } catch (ExchangeNetworkException e) {
+      outcome = OUTCOME_NETWORK_ERROR;
+      throw e;
+
+    } catch (TradingApiException e) {
+      outcome = OUTCOME_API_ERROR;
+      throw e;
+
+    } finally {
+      final long elapsedNanos = System.nanoTime() - startTime;
+      final String outcomeTag = outcome;
+      callTimers
+          .computeIfAbsent(apiMethod + ' ' + outcomeTag, key -> createTimer(apiMethod, outcomeTag))
+          .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Timer createTimer(String apiMethod, String outcome) {
+    return Timer.builder(TRADING_API_CALLS_METRIC_NAME)
+        .description("Latency of Trading API calls made to the Exchange Adapter")
+        .tag(ADAPTER_TAG, adapterName)
+        .tag(API_METHOD_TAG, apiMethod)
+        .tag(OUTCOME_TAG, outcome)
+        .publishPercentiles(PERCENTILES)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.order;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+
+/**
+ * Some, or all, of an order that has been filled on the exchange.
+ *
+ * <p>The quantity is only what was filled since the order was last seen, never the whole order, so
+ * listeners can add fills up as they come. Fills taken from the exchange's trade history carry the
+ * fee the exchange charged, and the last fill of each batch carries the trade history cursor to
+ * fetch the next batch from.
+ *
+ * @author gazbert
+ */
+public final class OrderFill {
+
+  private final String orderId;
+  private final String marketId;
+  private final OrderType orderType;
+  private final BigDecimal quantity;
+  private final BigDecimal price;
+  private final BigDecimal fee;
+  private final String tradeCursor;
+
+  /**
+   * Creates a fill worked out from an order's remaining quantity, with no fee or cursor.
+   *
+   * @param orderId the id of the order that filled.
+   * @param marketId the id of the market.
+   * @param orderType the type of order that filled.
+   * @param quantity the amount of base currency filled.
+   * @param price the fill price.
+   */
+  public OrderFill(
+      String orderId, String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+    this(orderId, marketId, orderType, quantity, price, null, null);
+  }
+
+  /**
+   * Creates a fill.
+   *
+   * @param orderId the id of the order that filled.
+   * @param marketId the id of the market.
+   * @param orderType the type of order that filled.
+   * @param quantity the amount of base currency filled.
+   * @param price the fill price.
+   * @param fee the fee charged by the exchange, or null if it is not known.
+   * @param tradeCursor the trade history cursor to fetch the fills after this one from, or null.
+   */
+  public OrderFill(
+      String orderId,
+      String marketId,
+      OrderType orderType,
+      BigDecimal quantity,
+      BigDecimal price,
+      BigDecimal fee,
+      String tradeCursor) {
+    this.orderId = orderId;
+    this.marketId = marketId;
+    this.orderType = orderType;
+    this.quantity = quantity;
+    this.price = price;
+    this.fee = fee;
+    this.tradeCursor = tradeCursor;
+  }
+
+  public String getOrderId() {
+    return orderId;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public OrderType getOrderType() {
+    return orderType;
+  }
+
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public BigDecimal getFee() {
+    return fee;
+  }
+
+  public String getTradeCursor() {
+    return tradeCursor;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("orderId", orderId)
+        .add("marketId", marketId)
+        .add("orderType", orderType)
+        .add("quantity", quantity)
+        .add("price", price)
+        .add("fee", fee)
+        .add("tradeCursor", tradeCursor)
+        .toString();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.order;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+
+/**
+ * Notified by the {@link OrderManager} as tracked orders open, fill and close, and when orders are
+ * rejected before they reach the exchange.
+ *
+ * <p>Listeners are called with the Order Manager's lock held, so they must be quick and must not
+ * call back into the Order Manager.
+ *
+ * @author gazbert
+ */
+public interface OrderListener {
+
+  /**
+   * Called when an order is placed by the bot, or an unknown open order is adopted from the
+   * exchange.
+   *
+   * @param order the order.
+   */
+  void orderOpened(TrackedOrder order);
+
+  /**
+   * Called when some, or all, of an order is seen to have filled. Only the quantity filled since
+   * the order was last seen is passed, so a partially filled order is reported once for each fill
+   * that is seen.
+   *
+   * @param order the order, or null if the Order Manager is not tracking it - a fill from the
+   *     exchange's trade history for an order placed before the bot was restarted, or outside of it.
+   * @param fill what was filled.
+   */
+  default void orderFilled(TrackedOrder order, OrderFill fill) {
+    // Most listeners only care about the order's lifecycle.
+  }
+
+  /**
+   * Called when an order is no longer open. The order's status says whether it was cancelled by the
+   * bot, filled, or has gone from the exchange for a reason the bot cannot see, and its quantity is
+   * what was still unfilled when it was last seen. An order closing is not a fill - its fills have
+   * already been reported.
+   *
+   * @param order the order.
+   */
+  void orderClosed(TrackedOrder order);
+
+  /**
+   * Called when an order is rejected before it is sent to the exchange, e.g. by the risk checks.
+   * No order was placed, so it is not tracked.
+   *
+   * @param marketId the id of the market.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the price per unit.
+   * @param reason why the order was rejected.
+   */
+  default void orderRejected(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price, String reason) {
+    // Most listeners only care about tracked orders.
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.order;
+
+import com.gazbert.bxbot.core.util.ForwardingExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderRejectedException;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Decorates an Exchange Adapter and routes order calls through the {@link OrderManager}.
+ *
+ * <p>Orders created and cancelled by the Trading Strategies are recorded by the Order Manager, and
+ * {@link #getYourOpenOrders(String)} is served from its reconciled view. This means Trading
+ * Strategies can keep calling getYourOpenOrders to check on their orders without each call hitting
+ * the exchange. Orders rejected before they reach the exchange are reported to the Order Manager
+ * too, so its listeners can log and alert on them.
+ *
+ * @author gazbert
+ */
+public class OrderManagedExchangeAdapter extends ForwardingExchangeAdapter {
+
+  private final OrderManager orderManager;
+
+  /**
+   * Creates the order managed Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   * @param orderManager the Order Manager to record orders in.
+   */
+  public OrderManagedExchangeAdapter(ExchangeAdapter delegate, OrderManager orderManager) {
+    super(delegate);
+    this.orderManager = orderManager;
+  }
+
+  /**
+   * Returns the Order Manager.
+   *
+   * @return the Order Manager.
+   */
+  public OrderManager getOrderManager() {
+    return orderManager;
+  }
+
+  @Override
+  public List<OpenOrder> getYourOpenOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return orderManager.getOpenOrders(marketId);
+  }
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws ExchangeNetworkException, TradingApiException {
+    final String orderId;
+    try {
+      orderId = delegate.createOrder(marketId, orderType, quantity, price);
+    } catch (OrderRejectedException e) {
+      orderManager.orderRejected(marketId, orderType, quantity, price, e.getMessage());
+      throw e;
+    }
+    orderManager.orderCreated(orderId, marketId, orderType, quantity, price);
+    return orderId;
+  }
+
+  @Override
+  public boolean cancelOrder(String orderId, String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    final boolean cancelled = delegate.cancelOrder(orderId, marketId);
+    orderManager.orderCancelled(orderId, marketId, cancelled);
+    return cancelled;
+  }
+}
@@ -0,0 +1,430 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.order;
+
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Tracks the lifecycle of the orders placed by the Trading Strategies and keeps a local, per market
+ * view of the open orders.
+ *
+ * <p>Every order created or cancelled through the {@link OrderManagedExchangeAdapter} is recorded
+ * here. The local view is reconciled with the exchange lazily: the first time a market's orders
+ * are queried in a trade cycle, a single {@link TradingApi#getYourOpenOrders(String)} call is made
+ * and the differences are applied - fills are passed to the listeners, orders that have gone are
+ * closed, and orders placed outside of the bot are adopted. Every other query in the same cycle,
+ * including "is order X still open", is answered from memory.
+ *
+ * <p>Fills come from the exchange's trade history where the Exchange Adapter supports {@link
+ * TradingApi#getMyTrades(String, String)}: each reconcile also fetches the trades since the
+ * market's cursor, so every fill is seen once, with its real price and fee, and a gone order whose
+ * trades add up to its quantity is {@link TrackedOrder.Status#FILLED}. Otherwise fills are worked
+ * out from the drop in an order's remaining quantity between reconciles, and a gone order is {@link
+ * TrackedOrder.Status#GONE} - it may have filled, or been cancelled outside of the bot, and is never
+ * taken as a fill.
+ *
+ * <p>Markets that are never queried are never reconciled, so the cost is at most two exchange
+ * calls per queried market per trade cycle, however many Trading Strategies share that market.
+ *
+ * <p>The Trading Engine is single threaded, but the view can be read from other threads, so access
+ * is synchronized.
+ *
+ * @author gazbert
+ */
+public class OrderManager {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** Closed orders are kept (for lookups) up to this many, oldest evicted first. */
+  static final int MAX_CLOSED_ORDERS = 1000;
+
+  private final TradingApi tradingApi;
+  private final Map<String, TrackedOrder> ordersById = new HashMap<>();
+  private final Map<String, Map<String, TrackedOrder>> openOrdersByMarket = new HashMap<>();
+  private final Set<String> reconciledMarkets = new HashSet<>();
+  private final Map<String, String> tradeCursors = new HashMap<>();
+  private final Set<String> marketsAwaitingTradeCursor = new HashSet<>();
+  private final Deque<String> closedOrderIds = new ArrayDeque<>();
+  private final List<OrderListener> orderListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Creates the Order Manager.
+   *
+   * @param tradingApi the Trading API to reconcile the open orders with.
+   */
+  public OrderManager(TradingApi tradingApi) {
+    this.tradingApi = tradingApi;
+  }
+
+  /**
+   * Adds a listener to be told when tracked orders open, fill and close.
+   *
+   * @param orderListener the listener.
+   */
+  public void addOrderListener(OrderListener orderListener) {
+    orderListeners.add(orderListener);
+  }
+
+  /**
+   * Called by the Trading Engine when it starts, to take a market's fills from the exchange's
+   * trade history.
+   *
+   * <p>With no cursor - the first time the bot trades on the market - the exchange is asked for its
+   * latest cursor now, and no trades from before it are taken as fills. If the Exchange Adapter
+   * does not support trade history, the market's fills are worked out from its open orders instead.
+   *
+   * @param marketId the id of the market.
+   * @param tradeCursor the cursor of the last fill taken from the trade history, or null.
+   */
+  public synchronized void startTradeHistory(String marketId, String tradeCursor) {
+    tradeCursors.put(marketId, tradeCursor);
+    if (tradeCursor != null) {
+      LOG.info("Taking fills for market {} from trade history cursor {}", marketId, tradeCursor);
+      return;
+    }
+    try {
+      final MyTradeHistory tradeHistory = tradingApi.getMyTrades(marketId, null);
+      tradeCursors.put(marketId, tradeHistory.getCursor());
+      LOG.info("Taking fills for market {} from the trade history", marketId);
+    } catch (ExchangeNetworkException e) {
+      // Trades made before the cursor is fetched are missed - there is nothing earlier to go on.
+      marketsAwaitingTradeCursor.add(marketId);
+      LOG.warn("Failed to fetch trade history cursor for market {} - will retry", marketId, e);
+    } catch (TradingApiException e) {
+      tradeCursors.remove(marketId);
+      LOG.info(
+          "No trade history for market {} - fills will be worked out from its open orders: {}",
+          marketId,
+          e.getMessage());
+    }
+  }
+
+  /**
+   * Called by the Trading Engine at the start of every trade cycle. Marks every market as stale so
+   * it is reconciled with the exchange the next time its orders are queried.
+   */
+  public synchronized void startTradeCycle() {
+    reconciledMarkets.clear();
+  }
+
+  /**
+   * Records an order that has been successfully placed on the exchange.
+   *
+   * @param orderId the id of the order returned by the exchange.
+   * @param marketId the id of the market the order was placed on.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the price per unit.
+   */
+  public synchronized void orderCreated(
+      String orderId, String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+
+    final TrackedOrder order =
+        new TrackedOrder(orderId, marketId, orderType, price, quantity, quantity, new Date());
+    ordersById.put(orderId, order);
+    openOrdersFor(marketId).put(orderId, order);
+    LOG.debug("Tracking new order: {}", order);
+    notifyOpened(order);
+  }
+
+  /**
+   * Records an order that was rejected before it was sent to the exchange. The order is not
+   * tracked, but the listeners are told about it.
+   *
+   * @param marketId the id of the market the order was for.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the price per unit.
+   * @param reason why the order was rejected.
+   */
+  public synchronized void orderRejected(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price, String reason) {
+    LOG.warn("Order was not sent to the exchange. {}", reason);
+    for (final OrderListener orderListener : orderListeners) {
+      orderListener.orderRejected(marketId, orderType, quantity, price, reason);
+    }
+  }
+
+  /**
+   * Records the outcome of a cancel order request.
+   *
+   * @param orderId the id of the order.
+   * @param marketId the id of the market the order was placed on.
+   * @param cancelled true if the exchange cancelled the order, false otherwise.
+   */
+  public synchronized void orderCancelled(String orderId, String marketId, boolean cancelled) {
+    final TrackedOrder order = ordersById.get(orderId);
+    if (cancelled) {
+      if (order != null && order.isOpen()) {
+        close(order, TrackedOrder.Status.CANCELLED);
+      }
+    } else {
+      // Order may have filled before we could cancel it - check with the exchange next time.
+      reconciledMarkets.remove(marketId);
+    }
+  }
+
+  /**
+   * Returns the open orders for a market. The market is reconciled with the exchange first if
+   * this is the first query for it in the current trade cycle.
+   *
+   * @param marketId the id of the market.
+   * @return the open orders for the market.
+   * @throws ExchangeNetworkException if a network error occurred reconciling with the exchange.
+   * @throws TradingApiException if the exchange returned an error reconciling the orders.
+   */
+  public synchronized List<OpenOrder> getOpenOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    reconcileIfStale(marketId);
+    final Map<String, TrackedOrder> openOrders = openOrdersByMarket.get(marketId);
+    return openOrders == null ? Collections.emptyList() : new ArrayList<>(openOrders.values());
+  }
+
+  /**
+   * Returns true if the order is still open on the exchange. The order's market is reconciled with
+   * the exchange first if this is the first query for it in the current trade cycle.
+   *
+   * @param orderId the id of the order.
+   * @return true if the order is open, false if it is closed or is not known to the Order Manager.
+   * @throws ExchangeNetworkException if a network error occurred reconciling with the exchange.
+   * @throws TradingApiException if the exchange returned an error reconciling the orders.
+   */
+  public synchronized boolean isOrderOpen(String orderId)
+      throws ExchangeNetworkException, TradingApiException {
+    final TrackedOrder order = ordersById.get(orderId);
+    if (order == null || !order.isOpen()) {
+      return false;
+    }
+    reconcileIfStale(order.getMarketId());
+    return order.isOpen();
+  }
+
+  /**
+   * Returns a tracked order from memory. No exchange call is made.
+   *
+   * @param orderId the id of the order.
+   * @return the order, or null if it is not known to the Order Manager.
+   */
+  public synchronized TrackedOrder getOrder(String orderId) {
+    return ordersById.get(orderId);
+  }
+
+  /**
+   * Reconciles the local view of a market's open orders with the exchange.
+   *
+   * @param marketId the id of the market.
+   * @throws ExchangeNetworkException if a network error occurred calling the exchange.
+   * @throws TradingApiException if the exchange returned an error.
+   */
+  public synchronized void reconcile(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+
+    final List<OpenOrder> exchangeOrders = tradingApi.getYourOpenOrders(marketId);
+    // Fetched after the open orders, so the trades of any order that has gone are in it.
+    final MyTradeHistory tradeHistory = fetchTradeHistory(marketId);
+    final boolean isFilledFromTradeHistory = tradeHistory != null;
+    if (isFilledFromTradeHistory) {
+      applyTrades(marketId, tradeHistory);
+    }
+
+    final Map<String, OpenOrder> exchangeOrdersById = new HashMap<>();
+    for (final OpenOrder exchangeOrder : exchangeOrders) {
+      exchangeOrdersById.put(exchangeOrder.getId(), exchangeOrder);
+    }
+
+    final Map<String, TrackedOrder> openOrders = openOrdersFor(marketId);
+    final Iterator<TrackedOrder> trackedOrders = openOrders.values().iterator();
+    while (trackedOrders.hasNext()) {
+      final TrackedOrder trackedOrder = trackedOrders.next();
+      final OpenOrder exchangeOrder = exchangeOrdersById.remove(trackedOrder.getId());
+      if (exchangeOrder == null) {
+        trackedOrders.remove();
+        if (trackedOrder.isFullyFilled()) {
+          trackedOrder.setStatus(TrackedOrder.Status.FILLED);
+          LOG.info("Order filled: {}", trackedOrder);
+        } else {
+          // Filled, or cancelled outside of the bot - we can't tell which.
+          trackedOrder.setStatus(TrackedOrder.Status.GONE);
+          LOG.info("Order no longer open on exchange, outcome unknown: {}", trackedOrder);
+        }
+        rememberClosed(trackedOrder.getId());
+        notifyClosed(trackedOrder);
+      } else if (exchangeOrder.getQuantity() != null) {
+        updateRemainingQuantity(
+            trackedOrder, exchangeOrder.getQuantity(), !isFilledFromTradeHistory);
+      }
+    }
+
+    // Anything left was placed outside of the bot, or before it was restarted.
+    for (final OpenOrder exchangeOrder : exchangeOrdersById.values()) {
+      final TrackedOrder adoptedOrder =
+          new TrackedOrder(
+              exchangeOrder.getId(),
+              marketId,
+              exchangeOrder.getType(),
+              exchangeOrder.getPrice(),
+              exchangeOrder.getOriginalQuantity(),
+              exchangeOrder.getQuantity(),
+              exchangeOrder.getCreationDate());
+      ordersById.put(adoptedOrder.getId(), adoptedOrder);
+      openOrders.put(adoptedOrder.getId(), adoptedOrder);
+      LOG.info("Adopted open order found on exchange: {}", adoptedOrder);
+      notifyOpened(adoptedOrder);
+    }
+
+    reconciledMarkets.add(marketId);
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void reconcileIfStale(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    if (!reconciledMarkets.contains(marketId)) {
+      reconcile(marketId);
+    }
+  }
+
+  private Map<String, TrackedOrder> openOrdersFor(String marketId) {
+    return openOrdersByMarket.computeIfAbsent(marketId, key -> new LinkedHashMap<>());
+  }
+
+  /**
+   * Fetches the market's trades since its cursor. Returns null if the market's fills are worked
+   * out from its open orders.
+   */
+  private MyTradeHistory fetchTradeHistory(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    if (!tradeCursors.containsKey(marketId)) {
+      return null;
+    }
+    if (marketsAwaitingTradeCursor.contains(marketId)) {
+      tradeCursors.put(marketId, tradingApi.getMyTrades(marketId, null).getCursor());
+      marketsAwaitingTradeCursor.remove(marketId);
+    }
+    return tradingApi.getMyTrades(marketId, tradeCursors.get(marketId));
+  }
+
+  private void applyTrades(String marketId, MyTradeHistory tradeHistory) {
+    final List<MyTrade> trades = tradeHistory.getTrades();
+    for (int i = 0; i < trades.size(); i++) {
+      final MyTrade trade = trades.get(i);
+      final TrackedOrder order = ordersById.get(trade.getOrderId());
+      if (order != null) {
+        order.addFilledQuantity(trade.getQuantity());
+      }
+      // The cursor goes on the last fill, so a restart carries on after the whole batch.
+      final OrderFill fill =
+          new OrderFill(
+              trade.getOrderId(),
+              marketId,
+              trade.getType(),
+              trade.getQuantity(),
+              trade.getPrice(),
+              trade.getFee(),
+              i == trades.size() - 1 ? tradeHistory.getCursor() : null);
+      LOG.info("Order filled on exchange: {}", fill);
+      notifyFilled(order, fill);
+    }
+    tradeCursors.put(marketId, tradeHistory.getCursor());
+  }
+
+  private void updateRemainingQuantity(
+      TrackedOrder order, BigDecimal remainingQuantity, boolean isFillFromQuantity) {
+    final BigDecimal previousQuantity = order.getQuantity();
+    order.setQuantity(remainingQuantity);
+    if (isFillFromQuantity
+        && previousQuantity != null
+        && remainingQuantity.compareTo(previousQuantity) < 0) {
+      final OrderFill fill =
+          new OrderFill(
+              order.getId(),
+              order.getMarketId(),
+              order.getType(),
+              previousQuantity.subtract(remainingQuantity),
+              order.getPrice());
+      order.addFilledQuantity(fill.getQuantity());
+      LOG.info("Order partially filled: {}", fill);
+      notifyFilled(order, fill);
+    }
+  }
+
+  private void close(TrackedOrder order, TrackedOrder.Status status) {
+    order.setStatus(status);
+    final Map<String, TrackedOrder> openOrders = openOrdersByMarket.get(order.getMarketId());
+    if (openOrders != null) {
+      openOrders.remove(order.getId());
+    }
+    rememberClosed(order.getId());
+    notifyClosed(order);
+  }
+
+  private void rememberClosed(String orderId) {
+    closedOrderIds.addLast(orderId);
+    while (closedOrderIds.size() > MAX_CLOSED_ORDERS) {
+      ordersById.remove(closedOrderIds.removeFirst());
+    }
+  }
+
+  private void notifyOpened(TrackedOrder order) {
+    for (final OrderListener orderListener : orderListeners) {
+      orderListener.orderOpened(order);
+    }
+  }
+
+  private void notifyFilled(TrackedOrder order, OrderFill fill) {
+    for (final OrderListener orderListener : orderListeners) {
+      orderListener.orderFilled(order, fill);
+    }
+  }
+
+  private void notifyClosed(TrackedOrder order) {
+    for (final OrderListener orderListener : orderListeners) {
+      orderListener.orderClosed(order);
+    }
+  }
+}
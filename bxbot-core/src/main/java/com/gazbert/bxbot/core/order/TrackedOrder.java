@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.order;
+
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * An order tracked by the {@link OrderManager}.
+ *
+ * <p>It implements {@link OpenOrder} so it can be handed straight back to Trading Strategies from
+ * {@link OrderManagedExchangeAdapter#getYourOpenOrders(String)}. The remaining quantity and status
+ * are updated by the Order Manager as the order is reconciled with the exchange.
+ *
+ * @author gazbert
+ */
+public final class TrackedOrder implements OpenOrder {
+
+  /** The lifecycle states of a tracked order. */
+  public enum Status {
+    /** Order is on the exchange and nothing has been filled yet (as far as we know). */
+    OPEN,
+    /** Order is on the exchange and some of it has been filled. */
+    PARTIALLY_FILLED,
+    /** Order was cancelled by the bot. */
+    CANCELLED,
+    /** Order is no longer on the exchange and the exchange's trade history shows it all filled. */
+    FILLED,
+    /**
+     * Order is no longer on the exchange, but the bot did not cancel it. It may have filled, or been
+     * cancelled outside of the bot - the outcome is unknown, so it must not be taken as a fill.
+     */
+    GONE
+  }
+
+  private final String id;
+  private final String marketId;
+  private final OrderType type;
+  private final BigDecimal price;
+  private final BigDecimal originalQuantity;
+  private final Date creationDate;
+  private volatile BigDecimal quantity;
+  private volatile BigDecimal filledQuantity;
+  private volatile Status status;
+
+  TrackedOrder(
+      String id,
+      String marketId,
+      OrderType type,
+      BigDecimal price,
+      BigDecimal originalQuantity,
+      BigDecimal quantity,
+      Date creationDate) {
+
+    this.id = id;
+    this.marketId = marketId;
+    this.type = type;
+    this.price = price;
+    this.originalQuantity = originalQuantity;
+    this.quantity = quantity;
+    this.filledQuantity =
+        originalQuantity == null || quantity == null
+            ? BigDecimal.ZERO
+            : originalQuantity.subtract(quantity).max(BigDecimal.ZERO);
+    this.creationDate = creationDate == null ? null : new Date(creationDate.getTime());
+    this.status = Status.OPEN;
+    updateStatusFromQuantity();
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public Date getCreationDate() {
+    return creationDate == null ? null : new Date(creationDate.getTime());
+  }
+
+  @Override
+  public String getMarketId() {
+    return marketId;
+  }
+
+  @Override
+  public OrderType getType() {
+    return type;
+  }
+
+  @Override
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  @Override
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  @Override
+  public BigDecimal getOriginalQuantity() {
+    return originalQuantity;
+  }
+
+  @Override
+  public BigDecimal getTotal() {
+    return price == null || quantity == null ? null : price.multiply(quantity);
+  }
+
+  /**
+   * Returns how much of the order the Order Manager has seen fill, including anything already
+   * filled when the order was adopted.
+   *
+   * @return the filled quantity.
+   */
+  public BigDecimal getFilledQuantity() {
+    return filledQuantity;
+  }
+
+  /**
+   * Returns true if the whole of the original quantity has been seen to fill.
+   *
+   * @return true if the order is fully filled, false otherwise.
+   */
+  public boolean isFullyFilled() {
+    return originalQuantity != null && filledQuantity.compareTo(originalQuantity) >= 0;
+  }
+
+  /**
+   * Returns the lifecycle status of the order.
+   *
+   * @return the status.
+   */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Returns true if the order is still on the exchange.
+   *
+   * @return true if the order is open or partially filled, false otherwise.
+   */
+  public boolean isOpen() {
+    return status == Status.OPEN || status == Status.PARTIALLY_FILLED;
+  }
+
+  void setQuantity(BigDecimal quantity) {
+    this.quantity = quantity;
+    updateStatusFromQuantity();
+  }
+
+  void addFilledQuantity(BigDecimal fillQuantity) {
+    filledQuantity = filledQuantity.add(fillQuantity);
+  }
+
+  void setStatus(Status status) {
+    this.status = status;
+  }
+
+  private void updateStatusFromQuantity() {
+    if (isOpen()
+        && quantity != null
+        && originalQuantity != null
+        && quantity.compareTo(originalQuantity) < 0) {
+      status = Status.PARTIALLY_FILLED;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("id", id)
+        .add("marketId", marketId)
+        .add("type", type)
+        .add("price", price)
+        .add("quantity", quantity)
+        .add("originalQuantity", originalQuantity)
+        .add("filledQuantity", filledQuantity)
+        .add("creationDate", creationDate)
+        .add("status", status)
+        .toString();
+  }
+}
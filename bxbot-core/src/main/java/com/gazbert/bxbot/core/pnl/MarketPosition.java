@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.pnl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * The position and profit and loss on a single market.
+ *
+ * <p>Quantities are signed: positive for buys, negative for sells. The open lots are kept in the
+ * order they were opened; a fill on the other side of the position closes them, oldest first for
+ * FIFO, or at the position's average price for average cost. Each lot is opened once and closed
+ * once, so a fill costs O(1) amortized, and the open cost is kept as a running total so marking
+ * the position to market is O(1) too.
+ *
+ * <p>Not thread safe; the {@link PnlAccountant} synchronizes access.
+ *
+ * @author gazbert
+ */
+class MarketPosition {
+
+  private final String marketId;
+  private final CostBasisMethod costBasisMethod;
+  private final Deque<Lot> openLots = new ArrayDeque<>();
+
+  private String currency;
+  private BigDecimal quantity = BigDecimal.ZERO;
+  private BigDecimal openCost = BigDecimal.ZERO;
+  private BigDecimal realizedPnl = BigDecimal.ZERO;
+  private BigDecimal feesPaid = BigDecimal.ZERO;
+
+  MarketPosition(String marketId, CostBasisMethod costBasisMethod) {
+    this.marketId = marketId;
+    this.costBasisMethod = costBasisMethod;
+  }
+
+  /**
+   * Applies a fill to the position.
+   *
+   * @param fillQuantity the quantity filled: positive for a buy, negative for a sell.
+   * @param price the fill price.
+   * @param fee the exchange fee paid for the fill.
+   */
+  void applyFill(BigDecimal fillQuantity, BigDecimal price, BigDecimal fee) {
+    feesPaid = feesPaid.add(fee);
+    realizedPnl = realizedPnl.subtract(fee);
+
+    BigDecimal remaining = fillQuantity;
+    if (costBasisMethod == CostBasisMethod.FIFO) {
+      while (remaining.signum() != 0
+          && !openLots.isEmpty()
+          && openLots.peekFirst().quantity.signum() != remaining.signum()) {
+        final Lot lot = openLots.peekFirst();
+        final BigDecimal closed = close(remaining, lot.quantity, lot.price, price);
+        openCost = openCost.subtract(closed.multiply(lot.price));
+        lot.quantity = lot.quantity.subtract(closed);
+        if (lot.quantity.signum() == 0) {
+          openLots.removeFirst();
+        }
+        remaining = remaining.add(closed);
+      }
+      if (remaining.signum() != 0) {
+        openLots.addLast(new Lot(remaining, price));
+      }
+
+    } else if (quantity.signum() != 0 && quantity.signum() != remaining.signum()) {
+      final BigDecimal closed =
+          close(remaining, quantity, openCost.divide(quantity, MathContext.DECIMAL64), price);
+      if (closed.compareTo(quantity) == 0) {
+        openCost = BigDecimal.ZERO;
+      } else {
+        final BigDecimal closedCost =
+            openCost.multiply(closed).divide(quantity, MathContext.DECIMAL64);
+        openCost = openCost.subtract(closedCost);
+      }
+      remaining = remaining.add(closed);
+    }
+
+    openCost = openCost.add(remaining.multiply(price));
+    quantity = quantity.add(fillQuantity);
+    if (quantity.signum() == 0) {
+      openCost = BigDecimal.ZERO; // no rounding left over when the position is flat
+    }
+  }
+
+  String getMarketId() {
+    return marketId;
+  }
+
+  String getCurrency() {
+    return currency;
+  }
+
+  void setCurrency(String currency) {
+    this.currency = currency;
+  }
+
+  BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  BigDecimal getAverageEntryPrice() {
+    return quantity.signum() == 0 ? null : openCost.divide(quantity, MathContext.DECIMAL64);
+  }
+
+  BigDecimal getRealizedPnl() {
+    return realizedPnl;
+  }
+
+  BigDecimal getUnrealizedPnl(BigDecimal markPrice) {
+    return markPrice == null ? BigDecimal.ZERO : quantity.multiply(markPrice).subtract(openCost);
+  }
+
+  BigDecimal getFeesPaid() {
+    return feesPaid;
+  }
+
+  /**
+   * Writes the position to a checkpoint.
+   *
+   * @param out where to write the position.
+   * @throws IOException if the position could not be written.
+   */
+  void writeTo(DataOutput out) throws IOException {
+    out.writeUTF(marketId);
+    out.writeBoolean(currency != null);
+    if (currency != null) {
+      out.writeUTF(currency);
+    }
+    out.writeUTF(quantity.toString());
+    out.writeUTF(openCost.toString());
+    out.writeUTF(realizedPnl.toString());
+    out.writeUTF(feesPaid.toString());
+    out.writeInt(openLots.size());
+    for (final Lot lot : openLots) {
+      out.writeUTF(lot.quantity.toString());
+      out.writeUTF(lot.price.toString());
+    }
+  }
+
+  /**
+   * Reads a position written by {@link #writeTo(DataOutput)}.
+   *
+   * @param in where to read the position from.
+   * @param costBasisMethod the cost basis method the position was written with.
+   * @return the position.
+   * @throws IOException if the position could not be read.
+   */
+  static MarketPosition readFrom(DataInput in, CostBasisMethod costBasisMethod)
+      throws IOException {
+    final MarketPosition position = new MarketPosition(in.readUTF(), costBasisMethod);
+    if (in.readBoolean()) {
+      position.currency = in.readUTF();
+    }
+    try {
+      position.quantity = new BigDecimal(in.readUTF());
+      position.openCost = new BigDecimal(in.readUTF());
+      position.realizedPnl = new BigDecimal(in.readUTF());
+      position.feesPaid = new BigDecimal(in.readUTF());
+      final int lotCount = in.readInt();
+      for (int i = 0; i < lotCount; i++) {
+        position.openLots.addLast(
+            new Lot(new BigDecimal(in.readUTF()), new BigDecimal(in.readUTF())));
+      }
+    } catch (NumberFormatException e) {
+      throw new IOException("Bad number in position checkpoint for " + position.marketId, e);
+    }
+    return position;
+  }
+
+  /**
+   * Closes as much of an open quantity as the fill covers, adding the profit or loss to the
+   * realized PnL. Returns the signed quantity closed, which has the same sign as the open quantity.
+   */
+  private BigDecimal close(
+      BigDecimal fillQuantity, BigDecimal openQuantity, BigDecimal openPrice, BigDecimal price) {
+    final BigDecimal closed =
+        fillQuantity.abs().compareTo(openQuantity.abs()) < 0 ? fillQuantity.negate() : openQuantity;
+    realizedPnl = realizedPnl.add(closed.multiply(price.subtract(openPrice)));
+    return closed;
+  }
+
+  /** A quantity opened at a single price. */
+  private static class Lot {
+
+    private BigDecimal quantity;
+    private final BigDecimal price;
+
+    Lot(BigDecimal quantity, BigDecimal price) {
+      this.quantity = quantity;
+      this.price = price;
+    }
+  }
+}
@@ -0,0 +1,448 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.pnl;
+
+import com.gazbert.bxbot.core.journal.JournalRecord;
+import com.gazbert.bxbot.core.journal.TradeJournal;
+import com.gazbert.bxbot.core.order.OrderFill;
+import com.gazbert.bxbot.core.order.OrderListener;
+import com.gazbert.bxbot.core.order.TrackedOrder;
+import com.gazbert.bxbot.domain.pnl.MarketPnl;
+import com.gazbert.bxbot.services.runtime.BotPnlService;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Position;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the bot's position and profit and loss on each market, from the fills of its orders.
+ *
+ * <p>Fills come from the {@link com.gazbert.bxbot.core.order.OrderManager} as it sees orders fill
+ * on the exchange - from the exchange's trade history where the Exchange Adapter supports it - and
+ * from the {@link TradeJournal} when the Trading Engine starts, so the profit and loss carries on
+ * across restarts. Each fill is only the quantity filled since the order was last seen; an order
+ * going from the exchange is never taken as a fill. The accountant also keeps the trade history
+ * cursor of the last fill booked on each market, so the Order Manager can carry on from it.
+ *
+ * <p>The positions and trade history cursors are checkpointed into the trade journal at the end of
+ * a trade cycle that booked fills, and once per journal segment. On startup they are restored from
+ * the last checkpoint, and only the fills journaled after it are replayed.
+ *
+ * <p>Fills from the trade history are charged the fee the exchange charged. Other fills are
+ * charged the exchange fee for their side of the market. Fee rates are fetched once per market and
+ * side, the first time they are needed; if the exchange call fails, the fill is charged no fee and
+ * the rate is fetched again next time. Positions are marked to market at the
+ * last price the Trading Engine fetched, so reading them makes no exchange calls.
+ *
+ * <p>Properties are loaded from the config/application.properties file.
+ *
+ * @author gazbert
+ */
+@Component
+public class PnlAccountant implements OrderListener, BotPnlService {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int CHECKPOINT_VERSION = 1;
+
+  private final CostBasisMethod costBasisMethod;
+  private final BigDecimal emergencyStopLoss;
+
+  private final Map<String, MarketPosition> positions = new LinkedHashMap<>();
+  private final Map<String, String> marketCurrencies = new HashMap<>();
+  private final Map<String, String> tradeCursors = new HashMap<>();
+  private final Map<String, BigDecimal> buyFeeRates = new ConcurrentHashMap<>();
+  private final Map<String, BigDecimal> sellFeeRates = new ConcurrentHashMap<>();
+  private long fillsSinceCheckpoint;
+
+  private volatile TradingApi tradingApi;
+  private volatile Function<String, BigDecimal> lastKnownPrices = marketId -> null;
+
+  /**
+   * Creates the PnL Accountant.
+   *
+   * @param costBasisMethod how the cost of the quantity closed by a fill is worked out.
+   * @param emergencyStopLoss the loss, in the Emergency Stop Currency, at which the Trading Engine
+   *     stops the bot. Zero switches the check off.
+   */
+  @Autowired
+  public PnlAccountant(
+      @Value("${bxbot.pnl.costBasisMethod:FIFO}") CostBasisMethod costBasisMethod,
+      @Value("${bxbot.pnl.emergencyStopLoss:0}") BigDecimal emergencyStopLoss) {
+    this.costBasisMethod = costBasisMethod;
+    this.emergencyStopLoss = emergencyStopLoss;
+  }
+
+  /**
+   * Called by the Trading Engine when it starts. Forgets any positions from the last run.
+   *
+   * @param tradingApi the Trading API to fetch the exchange fees from.
+   * @param lastKnownPrices looks up the last known price of a market, without an exchange call.
+   */
+  public synchronized void start(
+      TradingApi tradingApi, Function<String, BigDecimal> lastKnownPrices) {
+    this.tradingApi = tradingApi;
+    this.lastKnownPrices = lastKnownPrices;
+    positions.clear();
+    marketCurrencies.clear();
+    tradeCursors.clear();
+    buyFeeRates.clear();
+    sellFeeRates.clear();
+    fillsSinceCheckpoint = 0;
+  }
+
+  /**
+   * Registers the counter currency of a market, the currency its profit and loss is in.
+   *
+   * @param marketId the id of the market.
+   * @param counterCurrency the market's counter currency.
+   */
+  public synchronized void addMarket(String marketId, String counterCurrency) {
+    if (counterCurrency != null) {
+      marketCurrencies.put(marketId, counterCurrency.toUpperCase(Locale.ROOT));
+      final MarketPosition position = positions.get(marketId);
+      if (position != null) {
+        position.setCurrency(marketCurrencies.get(marketId));
+      }
+    }
+  }
+
+  /**
+   * Restores the positions from the last checkpoint in a trade journal, then applies the fills
+   * recorded after it. If there is no checkpoint, or it cannot be used, every fill in the journal
+   * is applied.
+   *
+   * @param tradeJournal the journal.
+   */
+  public void recover(TradeJournal tradeJournal) {
+    long fromSequence = 1;
+    final JournalRecord checkpoint = tradeJournal.findLastCheckpoint();
+    if (checkpoint != null && restore(checkpoint.getCheckpointState())) {
+      fromSequence = checkpoint.getSequence() + 1;
+      LOG.info("Restored positions from trade journal checkpoint: {}", checkpoint.getSequence());
+    }
+
+    final int[] fillCount = {0};
+    tradeJournal.replay(
+        fromSequence,
+        record -> {
+          if (record.getType() == JournalRecord.Type.FILL) {
+            applyFill(
+                record.getMarketId(),
+                record.getOrderType(),
+                record.getQuantity(),
+                record.getPrice(),
+                record.getFee());
+            updateTradeCursor(record.getMarketId(), record.getDetail());
+            fillCount[0]++;
+          }
+        });
+    LOG.info("Recovered {} fills from the trade journal", fillCount[0]);
+  }
+
+  /**
+   * Writes a checkpoint of the positions and trade history cursors to a trade journal, if fills
+   * have been booked since the last one or the journal is due a checkpoint. Called by the Trading
+   * Engine at the end of each trade cycle.
+   *
+   * @param tradeJournal the journal.
+   */
+  public void checkpoint(TradeJournal tradeJournal) {
+    final boolean isCheckpointDue = tradeJournal.isCheckpointDue();
+    final byte[] state;
+    synchronized (this) {
+      if (fillsSinceCheckpoint == 0 && !isCheckpointDue) {
+        return;
+      }
+      try {
+        state = encodeState();
+      } catch (IOException e) {
+        LOG.error("Failed to encode PnL checkpoint", e);
+        return;
+      }
+      fillsSinceCheckpoint = 0;
+    }
+    tradeJournal.checkpoint(state);
+  }
+
+  /**
+   * Returns the trade history cursor of the last fill booked on a market.
+   *
+   * @param marketId the id of the market.
+   * @return the cursor, or null if no fill from the trade history has been booked.
+   */
+  public synchronized String getTradeCursor(String marketId) {
+    return tradeCursors.get(marketId);
+  }
+
+  /**
+   * Applies a fill to the market's position, charging it the exchange fee for its side of the
+   * market.
+   *
+   * @param marketId the id of the market.
+   * @param orderType the type of order that filled.
+   * @param quantity the amount of base currency filled.
+   * @param price the fill price.
+   */
+  public void applyFill(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price) {
+    applyFill(marketId, orderType, quantity, price, null);
+  }
+
+  /**
+   * Applies a fill to the market's position.
+   *
+   * @param marketId the id of the market.
+   * @param orderType the type of order that filled.
+   * @param quantity the amount of base currency filled.
+   * @param price the fill price.
+   * @param fee the fee the exchange charged, or null to charge the exchange fee rate.
+   */
+  public void applyFill(
+      String marketId,
+      OrderType orderType,
+      BigDecimal quantity,
+      BigDecimal price,
+      BigDecimal fee) {
+    if (orderType == null || quantity == null || price == null) {
+      return;
+    }
+    // Fetched outside the lock - the first lookup for a market is an exchange call.
+    final BigDecimal chargedFee =
+        fee != null ? fee : quantity.multiply(price).multiply(getFeeRate(marketId, orderType));
+    synchronized (this) {
+      final MarketPosition position =
+          positions.computeIfAbsent(
+              marketId,
+              id -> {
+                final MarketPosition newPosition = new MarketPosition(id, costBasisMethod);
+                newPosition.setCurrency(marketCurrencies.get(id));
+                return newPosition;
+              });
+      position.applyFill(
+          orderType == OrderType.BUY ? quantity : quantity.negate(), price, chargedFee);
+      fillsSinceCheckpoint++;
+    }
+  }
+
+  @Override
+  public void orderOpened(TrackedOrder order) {
+    // Nothing to account for until it fills.
+  }
+
+  @Override
+  public void orderFilled(TrackedOrder order, OrderFill fill) {
+    applyFill(
+        fill.getMarketId(),
+        fill.getOrderType(),
+        fill.getQuantity(),
+        fill.getPrice(),
+        fill.getFee());
+    updateTradeCursor(fill.getMarketId(), fill.getTradeCursor());
+  }
+
+  @Override
+  public void orderClosed(TrackedOrder order) {
+    // Closing is not a fill - the fills have already been applied.
+  }
+
+  /**
+   * Returns the position on a market, marked at the market's last known price.
+   *
+   * @param marketId the id of the market.
+   * @return the position; flat if the bot has not traded on the market.
+   */
+  public synchronized Position getPosition(String marketId) {
+    final MarketPosition position =
+        positions.getOrDefault(marketId, new MarketPosition(marketId, costBasisMethod));
+    return new PositionImpl(position, lastKnownPrices.apply(marketId));
+  }
+
+  /**
+   * Returns the realized plus unrealized profit and loss of the markets whose counter currency is
+   * the given currency.
+   *
+   * @param currency the currency.
+   * @return the total profit and loss in the currency.
+   */
+  public synchronized BigDecimal getTotalPnl(String currency) {
+    BigDecimal totalPnl = BigDecimal.ZERO;
+    for (final MarketPosition position : positions.values()) {
+      if (currency.equalsIgnoreCase(position.getCurrency())) {
+        final BigDecimal markPrice = lastKnownPrices.apply(position.getMarketId());
+        totalPnl = totalPnl.add(position.getRealizedPnl());
+        totalPnl = totalPnl.add(position.getUnrealizedPnl(markPrice));
+      }
+    }
+    return totalPnl;
+  }
+
+  /**
+   * Returns the loss at which the Trading Engine stops the bot.
+   *
+   * @return the emergency stop loss, in the Emergency Stop Currency; zero if the check is off.
+   */
+  public BigDecimal getEmergencyStopLoss() {
+    return emergencyStopLoss;
+  }
+
+  @Override
+  public synchronized List<MarketPnl> getAllMarketPnl() {
+    final List<MarketPnl> allMarketPnl = new ArrayList<>();
+    for (final MarketPosition position : positions.values()) {
+      final Position marked =
+          new PositionImpl(position, lastKnownPrices.apply(position.getMarketId()));
+      allMarketPnl.add(
+          new MarketPnl(
+              marked.getMarketId(),
+              position.getCurrency(),
+              marked.getQuantity(),
+              marked.getAverageEntryPrice(),
+              marked.getMarkPrice(),
+              marked.getRealizedPnl(),
+              marked.getUnrealizedPnl(),
+              marked.getFeesPaid()));
+    }
+    return allMarketPnl;
+  }
+
+  private byte[] encodeState() throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(CHECKPOINT_VERSION);
+    out.writeUTF(costBasisMethod.name());
+    out.writeInt(positions.size());
+    for (final MarketPosition position : positions.values()) {
+      position.writeTo(out);
+    }
+    out.writeInt(tradeCursors.size());
+    for (final Map.Entry<String, String> tradeCursor : tradeCursors.entrySet()) {
+      out.writeUTF(tradeCursor.getKey());
+      out.writeUTF(tradeCursor.getValue());
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /*
+   * Replaces the positions and trade cursors with the checkpointed ones. Returns false, leaving
+   * them as they were, if the checkpoint cannot be used.
+   */
+  private boolean restore(byte[] state) {
+    final Map<String, MarketPosition> restoredPositions = new LinkedHashMap<>();
+    final Map<String, String> restoredTradeCursors = new HashMap<>();
+    try {
+      final DataInputStream in = new DataInputStream(new ByteArrayInputStream(state));
+      final int version = in.readInt();
+      final String checkpointCostBasisMethod = in.readUTF();
+      if (version != CHECKPOINT_VERSION
+          || !costBasisMethod.name().equals(checkpointCostBasisMethod)) {
+        LOG.warn(
+            "Ignoring PnL checkpoint written with version {} and cost basis method {}",
+            version,
+            checkpointCostBasisMethod);
+        return false;
+      }
+      final int positionCount = in.readInt();
+      for (int i = 0; i < positionCount; i++) {
+        final MarketPosition position = MarketPosition.readFrom(in, costBasisMethod);
+        restoredPositions.put(position.getMarketId(), position);
+      }
+      final int tradeCursorCount = in.readInt();
+      for (int i = 0; i < tradeCursorCount; i++) {
+        restoredTradeCursors.put(in.readUTF(), in.readUTF());
+      }
+    } catch (IOException e) {
+      LOG.warn("Ignoring PnL checkpoint that could not be read", e);
+      return false;
+    }
+
+    synchronized (this) {
+      positions.clear();
+      positions.putAll(restoredPositions);
+      for (final MarketPosition position : positions.values()) {
+        final String currency = marketCurrencies.get(position.getMarketId());
+        if (currency != null) {
+          position.setCurrency(currency);
+        }
+      }
+      tradeCursors.clear();
+      tradeCursors.putAll(restoredTradeCursors);
+    }
+    return true;
+  }
+
+  private synchronized void updateTradeCursor(String marketId, String tradeCursor) {
+    if (tradeCursor != null) {
+      tradeCursors.put(marketId, tradeCursor);
+    }
+  }
+
+  private BigDecimal getFeeRate(String marketId, OrderType orderType) {
+    final Map<String, BigDecimal> feeRates =
+        orderType == OrderType.BUY ? buyFeeRates : sellFeeRates;
+    final BigDecimal cachedFeeRate = feeRates.get(marketId);
+    if (cachedFeeRate != null) {
+      return cachedFeeRate;
+    }
+    final TradingApi feeSource = tradingApi;
+    if (feeSource == null) {
+      return BigDecimal.ZERO;
+    }
+    try {
+      final BigDecimal feeRate =
+          orderType == OrderType.BUY
+              ? feeSource.getPercentageOfBuyOrderTakenForExchangeFee(marketId)
+              : feeSource.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+      if (feeRate == null) {
+        return BigDecimal.ZERO;
+      }
+      feeRates.put(marketId, feeRate);
+      return feeRate;
+    } catch (ExchangeNetworkException | TradingApiException e) {
+      LOG.warn("Failed to get {} fee for market {} - not charged", orderType, marketId, e);
+      return BigDecimal.ZERO;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.pnl;
+
+import com.gazbert.bxbot.core.util.ForwardingExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.Position;
+
+/**
+ * Decorates an Exchange Adapter and answers {@link #getPosition(String)} from the {@link
+ * PnlAccountant}, so Trading Strategies can see their position and profit and loss without an
+ * exchange call.
+ *
+ * @author gazbert
+ */
+public class PnlExchangeAdapter extends ForwardingExchangeAdapter {
+
+  private final PnlAccountant pnlAccountant;
+
+  /**
+   * Creates the PnL Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   * @param pnlAccountant the accountant keeping the positions.
+   */
+  public PnlExchangeAdapter(ExchangeAdapter delegate, PnlAccountant pnlAccountant) {
+    super(delegate);
+    this.pnlAccountant = pnlAccountant;
+  }
+
+  @Override
+  public Position getPosition(String marketId) {
+    return pnlAccountant.getPosition(marketId);
+  }
+}
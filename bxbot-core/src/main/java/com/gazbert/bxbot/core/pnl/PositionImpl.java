@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.pnl;
+
+import com.gazbert.bxbot.trading.api.Position;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+
+/**
+ * A snapshot of a {@link MarketPosition}, marked at a price.
+ *
+ * @author gazbert
+ */
+final class PositionImpl implements Position {
+
+  private final String marketId;
+  private final BigDecimal quantity;
+  private final BigDecimal averageEntryPrice;
+  private final BigDecimal markPrice;
+  private final BigDecimal realizedPnl;
+  private final BigDecimal unrealizedPnl;
+  private final BigDecimal feesPaid;
+
+  PositionImpl(MarketPosition position, BigDecimal markPrice) {
+    this.marketId = position.getMarketId();
+    this.quantity = position.getQuantity();
+    this.averageEntryPrice = position.getAverageEntryPrice();
+    this.markPrice = markPrice;
+    this.realizedPnl = position.getRealizedPnl();
+    this.unrealizedPnl = position.getUnrealizedPnl(markPrice);
+    this.feesPaid = position.getFeesPaid();
+  }
+
+  @Override
+  public String getMarketId() {
+    return marketId;
+  }
+
+  @Override
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  @Override
+  public BigDecimal getAverageEntryPrice() {
+    return averageEntryPrice;
+  }
+
+  @Override
+  public BigDecimal getMarkPrice() {
+    return markPrice;
+  }
+
+  @Override
+  public BigDecimal getRealizedPnl() {
+    return realizedPnl;
+  }
+
+  @Override
+  public BigDecimal getUnrealizedPnl() {
+    return unrealizedPnl;
+  }
+
+  @Override
+  public BigDecimal getFeesPaid() {
+    return feesPaid;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("quantity", quantity)
+        .add("averageEntryPrice", averageEntryPrice)
+        .add("markPrice", markPrice)
+        .add("realizedPnl", realizedPnl)
+        .add("unrealizedPnl", unrealizedPnl)
+        .add("feesPaid", feesPaid)
+        .toString();
+  }
+}
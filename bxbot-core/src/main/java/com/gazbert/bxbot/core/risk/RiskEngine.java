@@ -0,0 +1,313 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.risk;
+
+import com.gazbert.bxbot.core.order.OrderListener;
+import com.gazbert.bxbot.core.order.TrackedOrder;
+import com.gazbert.bxbot.core.risk.RiskLimits.Limit;
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Pre-trade risk checks, run before an order is sent to the exchange.
+ *
+ * <p>Every order is checked against the {@link RiskLimits}:
+ *
+ * <ul>
+ *   <li>Notional - price x quantity must not exceed the max order notional for the market's
+ *       counter currency.
+ *   <li>Position - the bot's position in the market's base and counter currencies, including what
+ *       its open orders would do if they filled, must stay within the max position for each.
+ *   <li>Open orders - the market must have fewer open orders than the max.
+ *   <li>Price band - the order price must be within the max deviation of the market's last known
+ *       price. The check is skipped until the market's price has been fetched.
+ *   <li>Order rate - no more than the max orders per minute can be sent.
+ * </ul>
+ *
+ * <p>No exchange calls are made. The position and open order counters are kept up to date as the
+ * {@link com.gazbert.bxbot.core.order.OrderManager} reports orders opening and closing: an order's
+ * full quantity is added to the position when it opens, and what is still unfilled is taken off
+ * again if it is cancelled. Orders that go from the exchange without the bot cancelling them may
+ * have filled, so they are left in the position. Positions are relative to when the bot started.
+ *
+ * <p>An order that breaches a limit is rejected with a {@link RiskLimitBreachedException} and the
+ * bot carries on trading. If the limit is a kill switch limit, the kill switch is also tripped:
+ * every order after that is rejected, and the Trading Engine shuts the bot down when it next checks
+ * {@link #getKillSwitchReason()}.
+ *
+ * @author gazbert
+ */
+public class RiskEngine implements OrderListener {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final long ONE_MINUTE_MILLIS = 60 * 1000L;
+  private static final BigDecimal ONE_HUNDRED = new BigDecimal("100");
+
+  private final RiskLimits riskLimits;
+  private final Function<String, BigDecimal> lastKnownPrices;
+  private final LongSupplier clock;
+
+  private final Map<String, String[]> marketCurrencies = new HashMap<>();
+  private final Map<String, BigDecimal> positions = new HashMap<>();
+  private final Map<String, Integer> openOrderCounts = new HashMap<>();
+
+  // Send times of the most recent orders, oldest first from orderTimesIndex.
+  private final long[] orderTimes;
+  private int orderTimesIndex;
+
+  // Written when the kill switch trips, and read without the lock.
+  private volatile String killSwitchReason;
+
+  /**
+   * Creates the Risk Engine.
+   *
+   * @param riskLimits the limits to enforce.
+   * @param lastKnownPrices looks up the last known price of a market, without an exchange call.
+   */
+  public RiskEngine(RiskLimits riskLimits, Function<String, BigDecimal> lastKnownPrices) {
+    this(riskLimits, lastKnownPrices, System::currentTimeMillis);
+  }
+
+  RiskEngine(
+      RiskLimits riskLimits, Function<String, BigDecimal> lastKnownPrices, LongSupplier clock) {
+    this.riskLimits = riskLimits;
+    this.lastKnownPrices = lastKnownPrices;
+    this.clock = clock;
+    orderTimes = new long[riskLimits.getMaxOrdersPerMinute()];
+    Arrays.fill(orderTimes, Long.MIN_VALUE);
+  }
+
+  /**
+   * Registers the currencies of a market so orders on it count towards the position limits.
+   *
+   * @param marketId the id of the market.
+   * @param baseCurrency the market's base currency.
+   * @param counterCurrency the market's counter currency.
+   */
+  public synchronized void addMarket(String marketId, String baseCurrency, String counterCurrency) {
+    if (baseCurrency == null || counterCurrency == null) {
+      return;
+    }
+    marketCurrencies.put(
+        marketId,
+        new String[] {
+          baseCurrency.toUpperCase(Locale.ROOT), counterCurrency.toUpperCase(Locale.ROOT)
+        });
+  }
+
+  /**
+   * Checks an order against the risk limits. If it passes, it is counted towards the order rate.
+   *
+   * @param marketId the id of the market.
+   * @param orderType the type of order.
+   * @param quantity the amount of base currency to buy or sell.
+   * @param price the price per unit.
+   * @throws RiskLimitBreachedException if the order breaches a risk limit.
+   */
+  public synchronized void checkOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws RiskLimitBreachedException {
+
+    if (killSwitchReason != null) {
+      final String errorMsg =
+          "Order on market " + marketId + " rejected, risk kill switch tripped: " + killSwitchReason;
+      throw new RiskLimitBreachedException(errorMsg);
+    }
+
+    final String[] currencies = marketCurrencies.get(marketId);
+    final BigDecimal notional = price.multiply(quantity);
+
+    final BigDecimal maxOrderNotional =
+        currencies == null ? null : riskLimits.getMaxOrderNotionals().get(currencies[1]);
+    if (maxOrderNotional != null
+        && maxOrderNotional.signum() > 0
+        && notional.compareTo(maxOrderNotional) > 0) {
+      reject(
+          marketId,
+          Limit.MAX_ORDER_NOTIONAL,
+          "order notional "
+              + notional
+              + " "
+              + currencies[1]
+              + " exceeds max of "
+              + maxOrderNotional
+              + " "
+              + currencies[1]);
+    }
+
+    final int maxOpenOrders = riskLimits.getMaxOpenOrdersPerMarket();
+    if (maxOpenOrders > 0) {
+      final int openOrders = openOrderCounts.getOrDefault(marketId, 0);
+      if (openOrders >= maxOpenOrders) {
+        reject(
+            marketId,
+            Limit.MAX_OPEN_ORDERS_PER_MARKET,
+            openOrders + " orders already open, max is " + maxOpenOrders);
+      }
+    }
+
+    final BigDecimal maxDeviation = riskLimits.getMaxPriceDeviationPercentage();
+    if (maxDeviation.signum() > 0) {
+      final BigDecimal lastPrice = lastKnownPrices.apply(marketId);
+      if (lastPrice != null && lastPrice.signum() > 0) {
+        final BigDecimal deviation =
+            price
+                .subtract(lastPrice)
+                .abs()
+                .multiply(ONE_HUNDRED)
+                .divide(lastPrice, MathContext.DECIMAL64);
+        if (deviation.compareTo(maxDeviation) > 0) {
+          reject(
+              marketId,
+              Limit.MAX_PRICE_DEVIATION_PERCENTAGE,
+              "price "
+                  + price
+                  + " is "
+                  + deviation
+                  + "% away from last price "
+                  + lastPrice
+                  + ", max is "
+                  + maxDeviation
+                  + "%");
+        }
+      }
+    }
+
+    if (currencies != null) {
+      final BigDecimal baseChange = orderType == OrderType.BUY ? quantity : quantity.negate();
+      checkPosition(marketId, currencies[0], baseChange);
+      checkPosition(marketId, currencies[1], baseChange.multiply(price).negate());
+    }
+
+    final long now = clock.getAsLong();
+    if (orderTimes.length > 0) {
+      final long oldestOrderTime = orderTimes[orderTimesIndex];
+      if (oldestOrderTime != Long.MIN_VALUE && now - oldestOrderTime < ONE_MINUTE_MILLIS) {
+        reject(
+            marketId,
+            Limit.MAX_ORDERS_PER_MINUTE,
+            orderTimes.length + " orders sent in the last minute, which is the max");
+      }
+      orderTimes[orderTimesIndex] = now;
+      orderTimesIndex = (orderTimesIndex + 1) % orderTimes.length;
+    }
+  }
+
+  /**
+   * Returns the bot's position in a currency, including its open orders.
+   *
+   * @param currency the currency.
+   * @return the position, relative to when the bot started.
+   */
+  public synchronized BigDecimal getPosition(String currency) {
+    return positions.getOrDefault(currency.toUpperCase(Locale.ROOT), BigDecimal.ZERO);
+  }
+
+  /**
+   * Returns why the kill switch was tripped.
+   *
+   * @return the breach that tripped the kill switch, or null if it has not been tripped.
+   */
+  public String getKillSwitchReason() {
+    return killSwitchReason;
+  }
+
+  /**
+   * Returns the number of open orders on a market, as last reported by the Order Manager.
+   *
+   * @param marketId the id of the market.
+   * @return the number of open orders.
+   */
+  public synchronized int getOpenOrderCount(String marketId) {
+    return openOrderCounts.getOrDefault(marketId, 0);
+  }
+
+  @Override
+  public synchronized void orderOpened(TrackedOrder order) {
+    openOrderCounts.merge(order.getMarketId(), 1, Integer::sum);
+    updatePositions(order, order.getQuantity());
+  }
+
+  @Override
+  public synchronized void orderClosed(TrackedOrder order) {
+    openOrderCounts.computeIfPresent(
+        order.getMarketId(), (marketId, count) -> count > 1 ? count - 1 : null);
+    if (order.getStatus() == TrackedOrder.Status.CANCELLED) {
+      // The unfilled part never happened.
+      updatePositions(order, order.getQuantity().negate());
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void checkPosition(String marketId, String currency, BigDecimal change)
+      throws RiskLimitBreachedException {
+    final BigDecimal maxPosition = riskLimits.getMaxPositions().get(currency);
+    if (maxPosition == null) {
+      return;
+    }
+    final BigDecimal newPosition = getPosition(currency).add(change);
+    // Only reject orders that make things worse - an order that reduces the position is fine.
+    if (newPosition.abs().compareTo(maxPosition) > 0
+        && newPosition.abs().compareTo(getPosition(currency).abs()) > 0) {
+      reject(
+          marketId,
+          Limit.MAX_POSITIONS,
+          currency + " position would be " + newPosition + ", max is +/-" + maxPosition);
+    }
+  }
+
+  private void updatePositions(TrackedOrder order, BigDecimal quantity) {
+    final String[] currencies = marketCurrencies.get(order.getMarketId());
+    if (currencies == null || quantity == null || order.getPrice() == null) {
+      return;
+    }
+    final BigDecimal baseChange = order.getType() == OrderType.BUY ? quantity : quantity.negate();
+    positions.merge(currencies[0], baseChange, BigDecimal::add);
+    positions.merge(currencies[1], baseChange.multiply(order.getPrice()).negate(), BigDecimal::add);
+  }
+
+  private void reject(String marketId, Limit limit, String reason)
+      throws RiskLimitBreachedException {
+    final String errorMsg = "Order on market " + marketId + " rejected by risk check: " + reason;
+    // The rejection itself is logged by the Order Manager, along with orders rejected elsewhere.
+    if (riskLimits.isKillSwitch(limit)) {
+      killSwitchReason = errorMsg;
+      LOG.error("Risk kill switch tripped by {} limit. {}", limit.getPropertyName(), errorMsg);
+    }
+    throw new RiskLimitBreachedException(errorMsg);
+  }
+}
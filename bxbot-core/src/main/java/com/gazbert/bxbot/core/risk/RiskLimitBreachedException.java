@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.risk;
+
+import com.gazbert.bxbot.trading.api.OrderRejectedException;
+
+/**
+ * Thrown when the {@link RiskEngine} rejects an order before it is sent to the exchange.
+ *
+ * <p>It is an {@link OrderRejectedException}, so the Trading Strategy sees the rejection and the
+ * bot carries on trading. Breaching a kill switch limit shuts the bot down at the start of the next
+ * trade cycle - see {@link RiskEngine#getKillSwitchReason()}.
+ *
+ * @author gazbert
+ */
+public class RiskLimitBreachedException extends OrderRejectedException {
+
+  private static final long serialVersionUID = 3106287463207938841L;
+
+  /**
+   * Constructor builds exception with error message.
+   *
+   * @param msg the error message.
+   */
+  public RiskLimitBreachedException(String msg) {
+    super(msg);
+  }
+}
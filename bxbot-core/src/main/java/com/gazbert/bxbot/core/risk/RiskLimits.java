@@ -0,0 +1,202 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.risk;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The limits enforced by the {@link RiskEngine} before an order is sent to the exchange.
+ *
+ * <p>Properties are loaded from the config/application.properties file. A limit of zero, or an
+ * empty currency list, switches that check off.
+ *
+ * <p>An order that breaches a limit is rejected, and the bot carries on trading. Limits listed as
+ * kill switch limits also trip the Risk Engine's kill switch, which shuts the bot down.
+ *
+ * @author gazbert
+ */
+@Component
+public class RiskLimits {
+
+  /** The risk limits, named after their properties. */
+  public enum Limit {
+    MAX_ORDER_NOTIONAL("maxOrderNotional"),
+    MAX_POSITIONS("maxPositions"),
+    MAX_OPEN_ORDERS_PER_MARKET("maxOpenOrdersPerMarket"),
+    MAX_PRICE_DEVIATION_PERCENTAGE("maxPriceDeviationPercentage"),
+    MAX_ORDERS_PER_MINUTE("maxOrdersPerMinute");
+
+    private final String propertyName;
+
+    Limit(String propertyName) {
+      this.propertyName = propertyName;
+    }
+
+    public String getPropertyName() {
+      return propertyName;
+    }
+  }
+
+  private final Map<String, BigDecimal> maxOrderNotionals;
+  private final Map<String, BigDecimal> maxPositions;
+  private final int maxOpenOrdersPerMarket;
+  private final BigDecimal maxPriceDeviationPercentage;
+  private final int maxOrdersPerMinute;
+  private final Set<Limit> killSwitchLimits;
+
+  /**
+   * Creates the risk limits.
+   *
+   * @param maxOrderNotionals the max value (price x quantity) of a single order, keyed by the
+   *     market's counter currency, as a comma-separated list of currency:amount pairs, e.g.
+   *     "USD:10000,EUR:9000".
+   * @param maxPositions the max position per currency, as a comma-separated list of
+   *     currency:amount pairs, e.g. "BTC:2,USD:20000".
+   * @param maxOpenOrdersPerMarket the max number of open orders on a market.
+   * @param maxPriceDeviationPercentage the max percentage an order's price can be away from the
+   *     market's last known price.
+   * @param maxOrdersPerMinute the max number of orders sent to the exchange in any 60 seconds.
+   * @param killSwitchLimits the limits that shut the bot down when breached, as a comma-separated
+   *     list of their property names, e.g. "maxPositions,maxOrdersPerMinute".
+   */
+  @Autowired
+  public RiskLimits(
+      @Value("${bxbot.risk.maxOrderNotional:}") String maxOrderNotionals,
+      @Value("${bxbot.risk.maxPositions:}") String maxPositions,
+      @Value("${bxbot.risk.maxOpenOrdersPerMarket:0}") int maxOpenOrdersPerMarket,
+      @Value("${bxbot.risk.maxPriceDeviationPercentage:0}") BigDecimal maxPriceDeviationPercentage,
+      @Value("${bxbot.risk.maxOrdersPerMinute:0}") int maxOrdersPerMinute,
+      @Value("${bxbot.risk.killSwitchLimits:}") String killSwitchLimits) {
+
+    this.maxOrderNotionals = parseCurrencyAmounts(Limit.MAX_ORDER_NOTIONAL, maxOrderNotionals);
+    this.maxPositions = parseCurrencyAmounts(Limit.MAX_POSITIONS, maxPositions);
+    this.maxOpenOrdersPerMarket = maxOpenOrdersPerMarket;
+    this.maxPriceDeviationPercentage = maxPriceDeviationPercentage;
+    this.maxOrdersPerMinute = maxOrdersPerMinute;
+    this.killSwitchLimits = parseKillSwitchLimits(killSwitchLimits);
+  }
+
+  /**
+   * Returns limits with every check switched off.
+   *
+   * @return limits with every check switched off.
+   */
+  public static RiskLimits none() {
+    return new RiskLimits("", "", 0, BigDecimal.ZERO, 0, "");
+  }
+
+  public Map<String, BigDecimal> getMaxOrderNotionals() {
+    return maxOrderNotionals;
+  }
+
+  public Map<String, BigDecimal> getMaxPositions() {
+    return maxPositions;
+  }
+
+  public int getMaxOpenOrdersPerMarket() {
+    return maxOpenOrdersPerMarket;
+  }
+
+  public BigDecimal getMaxPriceDeviationPercentage() {
+    return maxPriceDeviationPercentage;
+  }
+
+  public int getMaxOrdersPerMinute() {
+    return maxOrdersPerMinute;
+  }
+
+  /**
+   * Returns true if breaching the limit should shut the bot down.
+   *
+   * @param limit the limit.
+   * @return true if the limit is a kill switch limit.
+   */
+  public boolean isKillSwitch(Limit limit) {
+    return killSwitchLimits.contains(limit);
+  }
+
+  private static Map<String, BigDecimal> parseCurrencyAmounts(Limit limit, String amounts) {
+    if (amounts == null || amounts.trim().isEmpty()) {
+      return Collections.emptyMap();
+    }
+    if (amounts.indexOf(':') < 0) {
+      // A bare 0 is how the limit was switched off before it was keyed by currency.
+      if (new BigDecimal(amounts.trim()).signum() == 0) {
+        return Collections.emptyMap();
+      }
+      throw new IllegalArgumentException(
+          "Invalid bxbot.risk."
+              + limit.getPropertyName()
+              + ": '"
+              + amounts
+              + "' - amounts must be given per currency, e.g. USD:10000");
+    }
+    final Map<String, BigDecimal> currencyAmounts = new HashMap<>();
+    for (final String entry : amounts.split(",")) {
+      final String[] currencyAndAmount = entry.split(":");
+      if (currencyAndAmount.length != 2) {
+        throw new IllegalArgumentException(
+            "Invalid bxbot.risk."
+                + limit.getPropertyName()
+                + " entry: '"
+                + entry
+                + "' - expected currency:amount");
+      }
+      currencyAmounts.put(
+          currencyAndAmount[0].trim().toUpperCase(Locale.ROOT),
+          new BigDecimal(currencyAndAmount[1].trim()));
+    }
+    return Collections.unmodifiableMap(currencyAmounts);
+  }
+
+  private static Set<Limit> parseKillSwitchLimits(String killSwitchLimits) {
+    final Set<Limit> limits = EnumSet.noneOf(Limit.class);
+    if (killSwitchLimits == null || killSwitchLimits.trim().isEmpty()) {
+      return limits;
+    }
+    for (final String propertyName : killSwitchLimits.split(",")) {
+      limits.add(findLimit(propertyName.trim()));
+    }
+    return limits;
+  }
+
+  private static Limit findLimit(String propertyName) {
+    for (final Limit limit : Limit.values()) {
+      if (limit.getPropertyName().equals(propertyName)) {
+        return limit;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Invalid bxbot.risk.killSwitchLimits entry: '" + propertyName + "' - expected a limit name");
+  }
+}
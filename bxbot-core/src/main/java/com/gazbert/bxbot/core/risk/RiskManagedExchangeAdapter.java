@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.risk;
+
+import com.gazbert.bxbot.core.util.ForwardingExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+
+/**
+ * Decorates an Exchange Adapter and runs the {@link RiskEngine} checks before every order is
+ * created. Orders that breach a risk limit are rejected with a {@link RiskLimitBreachedException}
+ * and never reach the exchange. All other calls are passed straight through.
+ *
+ * @author gazbert
+ */
+public class RiskManagedExchangeAdapter extends ForwardingExchangeAdapter {
+
+  private final RiskEngine riskEngine;
+
+  /**
+   * Creates the risk managed Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   * @param riskEngine the Risk Engine to check orders with.
+   */
+  public RiskManagedExchangeAdapter(ExchangeAdapter delegate, RiskEngine riskEngine) {
+    super(delegate);
+    this.riskEngine = riskEngine;
+  }
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws ExchangeNetworkException, TradingApiException {
+    riskEngine.checkOrder(marketId, orderType, quantity, price);
+    return delegate.createOrder(marketId, orderType, quantity, price);
+  }
+}
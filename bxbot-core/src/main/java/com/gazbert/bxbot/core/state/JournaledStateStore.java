@@ -0,0 +1,351 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.state;
+
+import com.gazbert.bxbot.strategy.api.StrategyStateStore;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A {@link StrategyStateStore} backed by an append-only journal and periodic snapshots.
+ *
+ * <p>The state is held in memory. Each update is encoded as a journal record - length, CRC32, and
+ * payload - and buffered until {@link #flush()}, which appends the buffered records to the journal
+ * and syncs it with a single write and fsync. Once the journal grows past {@link
+ * #MAX_JOURNAL_BYTES}, the whole state is written to a new snapshot file, which is synced and
+ * atomically renamed over the old one, and the journal is truncated.
+ *
+ * <p>On startup the snapshot is loaded and the journal replayed over it. A record with a bad
+ * length or CRC means the bot crashed mid-write; it and anything after it is discarded. Replaying
+ * a journal over a snapshot that already includes it (a crash between the rename and the truncate)
+ * gives the same state, so that case needs no special handling.
+ *
+ * <p>Nothing is written to disk until there is something to flush.
+ *
+ * @author gazbert
+ */
+public class JournaledStateStore implements StrategyStateStore {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final String SNAPSHOT_FILENAME = "state.snapshot";
+  static final String JOURNAL_FILENAME = "state.journal";
+  static final long MAX_JOURNAL_BYTES = 1024L * 1024L;
+
+  private static final String SNAPSHOT_TEMP_FILENAME = SNAPSHOT_FILENAME + ".tmp";
+  private static final int SNAPSHOT_MAGIC = 0x42585353; // BXSS
+  private static final int RECORD_HEADER_BYTES = 8;
+  private static final byte PUT_RECORD = 1;
+  private static final byte REMOVE_RECORD = 2;
+
+  private final Path directory;
+  private final Map<String, String> state = new HashMap<>();
+
+  private final ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream();
+  private final DataOutputStream payloadOut = new DataOutputStream(payloadBuffer);
+  private final ByteArrayOutputStream pendingRecords = new ByteArrayOutputStream();
+  private final DataOutputStream pendingRecordsOut = new DataOutputStream(pendingRecords);
+  private final CRC32 crc = new CRC32();
+
+  private FileChannel journal;
+  private long journalSize;
+
+  /**
+   * Creates the store and recovers any state saved in the directory.
+   *
+   * @param directory the directory holding the snapshot and journal files. It is created on the
+   *     first flush if it does not exist.
+   * @throws UncheckedIOException if the saved state could not be read.
+   */
+  public JournaledStateStore(Path directory) {
+    this.directory = directory;
+    try {
+      loadSnapshot();
+      journalSize = replayJournal();
+    } catch (IOException e) {
+      final String errorMsg = "Failed to recover strategy state from: " + directory;
+      LOG.error(errorMsg, e);
+      throw new UncheckedIOException(errorMsg, e);
+    }
+  }
+
+  @Override
+  public synchronized String get(String key) {
+    return state.get(key);
+  }
+
+  @Override
+  public synchronized void put(String key, String value) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+    if (value.equals(state.put(key, value))) {
+      return;
+    }
+    appendRecord(PUT_RECORD, key, value);
+  }
+
+  @Override
+  public synchronized void remove(String key) {
+    if (state.remove(key) != null) {
+      appendRecord(REMOVE_RECORD, key, null);
+    }
+  }
+
+  @Override
+  public synchronized Set<String> getKeys() {
+    return Collections.unmodifiableSet(new HashSet<>(state.keySet()));
+  }
+
+  @Override
+  public synchronized void flush() {
+    if (pendingRecords.size() == 0) {
+      return;
+    }
+    try {
+      openJournal();
+      final ByteBuffer records = ByteBuffer.wrap(pendingRecords.toByteArray());
+      while (records.hasRemaining()) {
+        journal.write(records);
+      }
+      journal.force(false);
+      journalSize += pendingRecords.size();
+      pendingRecords.reset();
+
+      if (journalSize > MAX_JOURNAL_BYTES) {
+        writeSnapshot();
+      }
+    } catch (IOException e) {
+      final String errorMsg = "Failed to save strategy state to: " + directory;
+      LOG.error(errorMsg, e);
+      throw new UncheckedIOException(errorMsg, e);
+    }
+  }
+
+  /**
+   * Flushes any pending updates and closes the journal.
+   *
+   * @throws UncheckedIOException if the updates could not be written.
+   */
+  public synchronized void close() {
+    flush();
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close strategy state journal in: {}", directory, e);
+      }
+      journal = null;
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void appendRecord(byte recordType, String key, String value) {
+    try {
+      payloadBuffer.reset();
+      payloadOut.writeByte(recordType);
+      payloadOut.writeUTF(key);
+      if (value != null) {
+        payloadOut.writeUTF(value);
+      }
+      crc.reset();
+      crc.update(payloadBuffer.toByteArray());
+      pendingRecordsOut.writeInt(payloadBuffer.size());
+      pendingRecordsOut.writeInt((int) crc.getValue());
+      payloadBuffer.writeTo(pendingRecordsOut);
+    } catch (IOException e) {
+      // Only thrown by writeUTF for strings too long to encode - nothing touches the disk here.
+      throw new IllegalArgumentException("Strategy state key or value is too long: " + key, e);
+    }
+  }
+
+  private void loadSnapshot() throws IOException {
+    final Path snapshotFile = directory.resolve(SNAPSHOT_FILENAME);
+    if (!Files.exists(snapshotFile)) {
+      return;
+    }
+    final CRC32 snapshotCrc = new CRC32();
+    final DataInputStream in =
+        new DataInputStream(
+            new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotFile)), snapshotCrc));
+    try {
+      if (in.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("Not a strategy state snapshot: " + snapshotFile);
+      }
+      final int entryCount = in.readInt();
+      for (int i = 0; i < entryCount; i++) {
+        state.put(in.readUTF(), in.readUTF());
+      }
+      // Taken before the stored CRC is read through the same checked stream.
+      final long expectedCrc = snapshotCrc.getValue();
+      if (in.readLong() != expectedCrc) {
+        throw new IOException("Strategy state snapshot is corrupt: " + snapshotFile);
+      }
+    } finally {
+      in.close();
+    }
+    LOG.info("Loaded {} strategy state entries from: {}", state.size(), snapshotFile);
+  }
+
+  /*
+   * Replays the journal into the state, cutting off any incomplete record at its end.
+   * Returns the length of the journal replayed.
+   */
+  private long replayJournal() throws IOException {
+    final Path journalFile = directory.resolve(JOURNAL_FILENAME);
+    if (!Files.exists(journalFile)) {
+      return 0;
+    }
+    final byte[] journalBytes = Files.readAllBytes(journalFile);
+    final ByteBuffer records = ByteBuffer.wrap(journalBytes);
+    int recordCount = 0;
+    while (records.remaining() >= RECORD_HEADER_BYTES) {
+      final int recordStart = records.position();
+      final int payloadLength = records.getInt();
+      final int payloadCrc = records.getInt();
+      if (payloadLength <= 0 || payloadLength > records.remaining()) {
+        records.position(recordStart);
+        break;
+      }
+      crc.reset();
+      crc.update(journalBytes, records.position(), payloadLength);
+      if ((int) crc.getValue() != payloadCrc) {
+        records.position(recordStart);
+        break;
+      }
+      applyRecord(journalBytes, records.position(), payloadLength);
+      records.position(records.position() + payloadLength);
+      recordCount++;
+    }
+
+    final int replayedLength = records.position();
+    if (replayedLength < journalBytes.length) {
+      LOG.warn(
+          "Discarding {} bytes of incomplete strategy state journal in: {}",
+          journalBytes.length - replayedLength,
+          journalFile);
+      final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE);
+      try {
+        channel.truncate(replayedLength);
+        channel.force(false);
+      } finally {
+        channel.close();
+      }
+    }
+    final int replayedRecords = recordCount;
+    LOG.info("Replayed {} strategy state updates from: {}", replayedRecords, journalFile);
+    return replayedLength;
+  }
+
+  private void applyRecord(byte[] journalBytes, int offset, int length) throws IOException {
+    final DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(journalBytes, offset, length));
+    final byte recordType = in.readByte();
+    final String key = in.readUTF();
+    if (recordType == PUT_RECORD) {
+      state.put(key, in.readUTF());
+    } else if (recordType == REMOVE_RECORD) {
+      state.remove(key);
+    } else {
+      throw new IOException("Unknown strategy state record type: " + recordType);
+    }
+  }
+
+  private void openJournal() throws IOException {
+    if (journal == null) {
+      Files.createDirectories(directory);
+      journal =
+          FileChannel.open(
+              directory.resolve(JOURNAL_FILENAME),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE);
+      journal.position(journalSize);
+    }
+  }
+
+  private void writeSnapshot() throws IOException {
+    final Path tempFile = directory.resolve(SNAPSHOT_TEMP_FILENAME);
+    final FileChannel channel =
+        FileChannel.open(
+            tempFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    final CRC32 snapshotCrc = new CRC32();
+    // Closing the stream closes the channel too.
+    final DataOutputStream out =
+        new DataOutputStream(
+            new CheckedOutputStream(Channels.newOutputStream(channel), snapshotCrc));
+    try {
+      out.writeInt(SNAPSHOT_MAGIC);
+      out.writeInt(state.size());
+      for (final Map.Entry<String, String> entry : state.entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeUTF(entry.getValue());
+      }
+      out.writeLong(snapshotCrc.getValue());
+      out.flush();
+      channel.force(true);
+    } finally {
+      out.close();
+    }
+    Files.move(
+        tempFile,
+        directory.resolve(SNAPSHOT_FILENAME),
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+
+    journal.truncate(0);
+    journal.position(0);
+    journal.force(false);
+    journalSize = 0;
+    LOG.info("Wrote strategy state snapshot to: {}", directory);
+  }
+}
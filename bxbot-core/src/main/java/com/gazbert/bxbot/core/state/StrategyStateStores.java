@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.state;
+
+import com.gazbert.bxbot.strategy.api.StrategyStateStore;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Owns the {@link StrategyStateStore} for each Trading Strategy and Market pair.
+ *
+ * <p>Each pair gets its own directory under the base directory, so strategies cannot trample on
+ * each other's state. The Trading Engine flushes all the stores at the end of each trade cycle, so
+ * the cost of syncing to disk is paid once per strategy per cycle.
+ *
+ * @author gazbert
+ */
+public class StrategyStateStores {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  /** Default location of the strategy state stores. */
+  public static final String DEFAULT_STATE_DIRECTORY = "./data/strategy-state";
+
+  private final Path baseDirectory;
+  private final Map<String, JournaledStateStore> stores = new LinkedHashMap<>();
+
+  /**
+   * Creates the state stores.
+   *
+   * @param baseDirectory the directory to keep the stores in.
+   */
+  public StrategyStateStores(String baseDirectory) {
+    this.baseDirectory = Paths.get(baseDirectory);
+  }
+
+  /**
+   * Returns the state store for a Trading Strategy on a Market, recovering any saved state the
+   * first time it is opened.
+   *
+   * @param strategyId the id of the Trading Strategy.
+   * @param marketId the id of the Market.
+   * @return the state store.
+   */
+  public synchronized StrategyStateStore open(String strategyId, String marketId) {
+    final String storeName = toFilename(strategyId) + "_" + toFilename(marketId);
+    return stores.computeIfAbsent(
+        storeName, name -> new JournaledStateStore(baseDirectory.resolve(name)));
+  }
+
+  /** Flushes every open state store. */
+  public synchronized void flushAll() {
+    for (final JournaledStateStore store : stores.values()) {
+      store.flush();
+    }
+  }
+
+  /** Flushes and closes every open state store. Errors are logged so all stores get closed. */
+  public synchronized void closeAll() {
+    for (final JournaledStateStore store : stores.values()) {
+      try {
+        store.close();
+      } catch (RuntimeException e) {
+        LOG.error("Failed to close strategy state store", e);
+      }
+    }
+    stores.clear();
+  }
+
+  private static String toFilename(String id) {
+    return id.replaceAll("[^A-Za-z0-9._-]", "_");
+  }
+}
@@ -46,7 +46,7 @@ public abstract class ConfigurableComponentFactory {
     try {
       final Class componentClass = Class.forName(componentClassName);
       final Object rawComponentObject = componentClass.getDeclaredConstructor().newInstance();
-      LOG.info(() -> "Successfully created the Component class for: " + componentClassName);
+      LOG.info("Successfully created the Component class for: {}", componentClassName);
       return (T) rawComponentObject;
 
     } catch (ClassNotFoundException
@@ -25,6 +25,8 @@ package com.gazbert.bxbot.core.util;
 
 import com.gazbert.bxbot.core.mail.EmailAlertMessageBuilder;
 import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.metrics.EngineMetrics;
+import com.gazbert.bxbot.core.pnl.PnlAccountant;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
@@ -48,6 +50,10 @@ public class EmergencyStopChecker {
   private static final String CRITICAL_EMAIL_ALERT_SUBJECT = "CRITICAL Alert message from BX-bot";
   private static final String DECIMAL_FORMAT_PATTERN = "#.########";
 
+  // DecimalFormat is not thread-safe, but it is expensive to create for every log line.
+  private static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT =
+      ThreadLocal.withInitial(() -> new DecimalFormat(DECIMAL_FORMAT_PATTERN));
+
   private EmergencyStopChecker() {
   }
 
@@ -70,17 +76,21 @@ public class EmergencyStopChecker {
    * @param exchangeAdapter the adapter used to connect to the exchange.
    * @param engineConfig the Trading Engine config.
    * @param emailAlerter the Email Alerter.
+   * @param engineMetrics the engine metrics to record the balance in.
    * @return true if the emergency stop limit has been breached, false otherwise.
    * @throws TradingApiException if a serious error has occurred connecting to exchange.
    * @throws ExchangeNetworkException if a temporary network exception has occurred.
    */
   public static boolean isEmergencyStopLimitBreached(
-      ExchangeAdapter exchangeAdapter, EngineConfig engineConfig, EmailAlerter emailAlerter)
+      ExchangeAdapter exchangeAdapter,
+      EngineConfig engineConfig,
+      EmailAlerter emailAlerter,
+      EngineMetrics engineMetrics)
       throws TradingApiException, ExchangeNetworkException {
 
     boolean isEmergencyStopLimitBreached = true;
 
-    LOG.info(() -> "Performing Emergency Stop check...");
+    LOG.info("Performing Emergency Stop check...");
 
     BalanceInfo balanceInfo;
     try {
@@ -89,7 +99,7 @@ public class EmergencyStopChecker {
       final String errorMsg =
           "Failed to get Balance info from exchange to perform Emergency Stop check - letting"
               + " Trade Engine error policy decide what to do next...";
-      LOG.error(() -> errorMsg, e);
+      LOG.error(errorMsg, e);
       // re-throw to main loop - might only be connection issue and it will retry...
       throw e;
     }
@@ -104,24 +114,23 @@ public class EmergencyStopChecker {
               + "' key into Balances map "
               + "returned null. Balances returned: "
               + balancesAvailable;
-      LOG.error(() -> errorMsg);
+      LOG.error(errorMsg);
       throw new IllegalStateException(errorMsg);
     } else {
-
-      LOG.info(
-          () ->
-              "Emergency Stop Currency balance available on exchange is ["
-                  + new DecimalFormat(DECIMAL_FORMAT_PATTERN).format(currentBalance)
-                  + "] "
-                  + engineConfig.getEmergencyStopCurrency());
-
-      LOG.info(
-          () ->
-              "Balance that will stop ALL trading across ALL markets is ["
-                  + new DecimalFormat(DECIMAL_FORMAT_PATTERN)
-                      .format(engineConfig.getEmergencyStopBalance())
-                  + "] "
-                  + engineConfig.getEmergencyStopCurrency());
+      engineMetrics.emergencyStopBalanceChecked(currentBalance);
+
+      // Guarded so the balances are only formatted if they will be logged.
+      if (LOG.isInfoEnabled()) {
+        LOG.info(
+            "Emergency Stop Currency balance available on exchange is [{}] {}",
+            formatDecimal(currentBalance),
+            engineConfig.getEmergencyStopCurrency());
+
+        LOG.info(
+            "Balance that will stop ALL trading across ALL markets is [{}] {}",
+            formatDecimal(engineConfig.getEmergencyStopBalance()),
+            engineConfig.getEmergencyStopCurrency());
+      }
 
       if (currentBalance.compareTo(engineConfig.getEmergencyStopBalance()) < 0) {
         final String balanceBlownErrorMsg =
@@ -129,15 +138,14 @@ public class EmergencyStopChecker {
                 + engineConfig.getEmergencyStopCurrency()
                 + "] wallet "
                 + "balance ["
-                + new DecimalFormat(DECIMAL_FORMAT_PATTERN).format(currentBalance)
+                + formatDecimal(currentBalance)
                 + "] on exchange "
                 + "is lower than configured Emergency Stop balance ["
-                + new DecimalFormat(DECIMAL_FORMAT_PATTERN)
-                    .format(engineConfig.getEmergencyStopBalance())
+                + formatDecimal(engineConfig.getEmergencyStopBalance())
                 + "] "
                 + engineConfig.getEmergencyStopCurrency();
 
-        LOG.fatal(() -> balanceBlownErrorMsg);
+        LOG.fatal(balanceBlownErrorMsg);
 
         emailAlerter.sendMessage(
             CRITICAL_EMAIL_ALERT_SUBJECT,
@@ -150,9 +158,73 @@ public class EmergencyStopChecker {
       } else {
 
         isEmergencyStopLimitBreached = false;
-        LOG.info(() -> "Emergency Stop check PASSED!");
+        LOG.info("Emergency Stop check PASSED!");
       }
     }
     return isEmergencyStopLimitBreached;
   }
+
+  /**
+   * Checks if the bot's profit and loss in the Emergency Stop Currency has dropped below the
+   * negative of the configured emergency stop loss.
+   *
+   * <p>The profit and loss is the realized plus unrealized PnL of every market whose counter
+   * currency is the Emergency Stop Currency. No exchange calls are made. If the limit has been
+   * breached, we send an Email Alert and notify the main control loop to immediately shutdown the
+   * bot.
+   *
+   * @param pnlAccountant the PnL Accountant.
+   * @param exchangeAdapter the adapter used to connect to the exchange.
+   * @param engineConfig the Trading Engine config.
+   * @param emailAlerter the Email Alerter.
+   * @return true if the emergency stop loss has been breached, false otherwise, or if the check is
+   *     switched off.
+   */
+  public static boolean isEmergencyStopLossBreached(
+      PnlAccountant pnlAccountant,
+      ExchangeAdapter exchangeAdapter,
+      EngineConfig engineConfig,
+      EmailAlerter emailAlerter) {
+
+    final BigDecimal emergencyStopLoss = pnlAccountant.getEmergencyStopLoss();
+    if (emergencyStopLoss.signum() <= 0) {
+      return false;
+    }
+
+    final String currency = engineConfig.getEmergencyStopCurrency();
+    final BigDecimal totalPnl = pnlAccountant.getTotalPnl(currency);
+    if (LOG.isInfoEnabled()) {
+      LOG.info("Emergency Stop Currency PnL is [{}] {}", formatDecimal(totalPnl), currency);
+    }
+
+    if (totalPnl.compareTo(emergencyStopLoss.negate()) >= 0) {
+      return false;
+    }
+
+    final String lossBlownErrorMsg =
+        "EMERGENCY STOP triggered! - Emergency Stop Currency ["
+            + currency
+            + "] PnL ["
+            + formatDecimal(totalPnl)
+            + "] is a bigger loss than the configured Emergency Stop loss ["
+            + formatDecimal(emergencyStopLoss)
+            + "] "
+            + currency;
+
+    LOG.fatal(lossBlownErrorMsg);
+
+    emailAlerter.sendMessage(
+        CRITICAL_EMAIL_ALERT_SUBJECT,
+        EmailAlertMessageBuilder.buildCriticalMsgContent(
+            lossBlownErrorMsg,
+            null,
+            engineConfig.getBotId(),
+            engineConfig.getBotName(),
+            exchangeAdapter.getClass().getName()));
+    return true;
+  }
+
+  private static String formatDecimal(BigDecimal value) {
+    return DECIMAL_FORMAT.get().format(value);
+  }
 }
@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.util;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.exchange.api.ExchangeConfig;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.Candle;
+import com.gazbert.bxbot.trading.api.CandleTimeframe;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Position;
+import com.gazbert.bxbot.trading.api.Ticker;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Base class for the engine's Exchange Adapter decorators.
+ *
+ * <p>Every call is passed straight on to the decorated Exchange Adapter. Subclasses override only
+ * the calls they intercept, so a method added to the Trading API needs adding here once rather than
+ * in every decorator.
+ *
+ * @author gazbert
+ */
+public abstract class ForwardingExchangeAdapter implements ExchangeAdapter {
+
+  /** The Exchange Adapter being decorated. */
+  protected final ExchangeAdapter delegate;
+
+  /**
+   * Creates the forwarding Exchange Adapter.
+   *
+   * @param delegate the Exchange Adapter to decorate.
+   */
+  protected ForwardingExchangeAdapter(ExchangeAdapter delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void init(ExchangeConfig config) {
+    delegate.init(config);
+  }
+
+  @Override
+  public String getVersion() {
+    return delegate.getVersion();
+  }
+
+  @Override
+  public String getImplName() {
+    return delegate.getImplName();
+  }
+
+  @Override
+  public MarketOrderBook getMarketOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return delegate.getMarketOrders(marketId);
+  }
+
+  @Override
+  public List<OpenOrder> getYourOpenOrders(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return delegate.getYourOpenOrders(marketId);
+  }
+
+  @Override
+  public String createOrder(
+      String marketId, OrderType orderType, BigDecimal quantity, BigDecimal price)
+      throws ExchangeNetworkException, TradingApiException {
+    return delegate.createOrder(marketId, orderType, quantity, price);
+  }
+
+  @Override
+  public boolean cancelOrder(String orderId, String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return delegate.cancelOrder(orderId, marketId);
+  }
+
+  @Override
+  public BigDecimal getLatestMarketPrice(String marketId)
+      throws ExchangeNetworkException, TradingApiException {
+    return delegate.getLatestMarketPrice(marketId);
+  }
+
+  @Override
+  public BalanceInfo getBalanceInfo() throws ExchangeNetworkException, TradingApiException {
+    return delegate.getBalanceInfo();
+  }
+
+  @Override
+  public BigDecimal getPercentageOfBuyOrderTakenForExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return delegate.getPercentageOfBuyOrderTakenForExchangeFee(marketId);
+  }
+
+  @Override
+  public BigDecimal getPercentageOfSellOrderTakenForExchangeFee(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return delegate.getPercentageOfSellOrderTakenForExchangeFee(marketId);
+  }
+
+  @Override
+  public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
+    return delegate.getTicker(marketId);
+  }
+
+  @Override
+  public MyTradeHistory getMyTrades(String marketId, String sinceCursor)
+      throws TradingApiException, ExchangeNetworkException {
+    return delegate.getMyTrades(marketId, sinceCursor);
+  }
+
+  @Override
+  public MarketMetadata getMarketMetadata(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return delegate.getMarketMetadata(marketId);
+  }
+
+  @Override
+  public List<Candle> getCandles(String marketId, CandleTimeframe timeframe, int count)
+      throws TradingApiException, ExchangeNetworkException {
+    return delegate.getCandles(marketId, timeframe, count);
+  }
+
+  @Override
+  public Position getPosition(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return delegate.getPosition(marketId);
+  }
+}
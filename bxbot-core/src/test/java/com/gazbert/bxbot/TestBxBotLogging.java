@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.async.AsyncLoggerConfig;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tests the log4j2 config chosen by the launch scripts is the one in use once Spring Boot has
+ * started. Spring Boot reconfigures log4j2 from logging.config when it starts up.
+ *
+ * @author gazbert
+ */
+public class TestBxBotLogging {
+
+  private static final Path CONFIG_DIRECTORY = Paths.get("..", "config");
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private URI testConfigLocation;
+
+  @Before
+  public void setupBeforeEachTest() {
+    testConfigLocation = getLoggerContext().getConfigLocation();
+  }
+
+  @After
+  public void tearDown() {
+    getLoggerContext().setConfigLocation(testConfigLocation);
+  }
+
+  @Test
+  public void whenAsyncProfileIsSelectedThenLoggersAreAsyncAfterSpringStarts() throws Exception {
+    startSpring(copyLoggingConfig("log4j2-async.xml"));
+
+    final LoggerConfig rootLoggerConfig = getLoggerContext().getConfiguration().getRootLogger();
+    assertTrue(rootLoggerConfig instanceof AsyncLoggerConfig);
+    assertTrue(
+        getLoggerContext().getConfiguration().getLoggerConfig("com.gazbert.bxbot.exchanges")
+            instanceof AsyncLoggerConfig);
+  }
+
+  @Test
+  public void whenDefaultProfileIsSelectedThenLoggersAreNotAsyncAfterSpringStarts()
+      throws Exception {
+    startSpring(copyLoggingConfig("log4j2.xml"));
+
+    final LoggerConfig rootLoggerConfig = getLoggerContext().getConfiguration().getRootLogger();
+    assertFalse(rootLoggerConfig instanceof AsyncLoggerConfig);
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  /*
+   * Starts Spring Boot with the bot's application.properties, and logging.config passed on the
+   * command line the way the launch scripts pass it.
+   */
+  private void startSpring(File loggingConfig) {
+    final String applicationProperties =
+        CONFIG_DIRECTORY.resolve("application.properties").toUri().toString();
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(EmptyConfig.class)
+            .web(WebApplicationType.NONE)
+            .properties("spring.config.location=" + applicationProperties)
+            .run("--logging.config=" + loggingConfig.getPath())) {
+      assertTrue(context.isActive());
+    }
+  }
+
+  /*
+   * Copies a logging config from the config directory, with its log files moved to a temp folder.
+   */
+  private File copyLoggingConfig(String filename) throws Exception {
+    final String logDirectory = temporaryFolder.newFolder("logs").getPath();
+    final String loggingConfig =
+        new String(
+                Files.readAllBytes(CONFIG_DIRECTORY.resolve(filename)), StandardCharsets.UTF_8)
+            .replace("\"./logs/", "\"" + logDirectory + "/")
+            .replace("\"logs/", "\"" + logDirectory + "/");
+    final File copy = temporaryFolder.newFile(filename);
+    Files.write(copy.toPath(), loggingConfig.getBytes(StandardCharsets.UTF_8));
+    return copy;
+  }
+
+  private static LoggerContext getLoggerContext() {
+    return (LoggerContext) LogManager.getContext(false);
+  }
+
+  @Configuration
+  static class EmptyConfig {}
+}
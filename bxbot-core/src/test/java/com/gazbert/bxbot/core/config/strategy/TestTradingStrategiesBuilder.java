@@ -30,6 +30,7 @@ import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -111,6 +112,74 @@ public class TestTradingStrategiesBuilder {
         someStrategiesConfig(), someMarketsConfigWithDuplicateMarket(), exchangeAdapter);
   }
 
+  @Test
+  public void testBuildingMultipleStrategiesForOneMarketSuccessfully() {
+    final ExchangeAdapter exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    final TradingStrategyFactory tradingStrategyFactory = new TradingStrategyFactory();
+    final TradingStrategiesBuilder tradingStrategiesBuilder = new TradingStrategiesBuilder();
+    tradingStrategiesBuilder.setTradingStrategyFactory(tradingStrategyFactory);
+    final List<MarketTradingStrategy> strategies =
+        tradingStrategiesBuilder.buildMarketStrategies(
+            someStrategiesConfig(),
+            someMarketsConfigWithStrategies(Arrays.asList(STRATEGY_1_ID, STRATEGY_2_ID)),
+            exchangeAdapter,
+            null);
+    assertThat(strategies.size()).isEqualTo(2);
+    assertThat(strategies.get(0).getStrategyId()).isEqualTo(STRATEGY_1_ID);
+    assertThat(strategies.get(0).getMarketId()).isEqualTo(MARKET_1_ID);
+    assertThat(strategies.get(0).getTradingStrategy()).isNotNull();
+    assertThat(strategies.get(1).getStrategyId()).isEqualTo(STRATEGY_2_ID);
+    assertThat(strategies.get(1).getMarketId()).isEqualTo(MARKET_1_ID);
+    assertThat(strategies.get(1).getTradingStrategy())
+        .isNotSameAs(strategies.get(0).getTradingStrategy());
+  }
+
+  @Test
+  public void testBuildingStrategiesPairsEachStrategyWithItsMarket() {
+    final ExchangeAdapter exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    final TradingStrategyFactory tradingStrategyFactory = new TradingStrategyFactory();
+    final TradingStrategiesBuilder tradingStrategiesBuilder = new TradingStrategiesBuilder();
+    tradingStrategiesBuilder.setTradingStrategyFactory(tradingStrategyFactory);
+    final List<MarketTradingStrategy> strategies =
+        tradingStrategiesBuilder.buildMarketStrategies(
+            someStrategiesConfig(), someMarketsConfig(), exchangeAdapter, null);
+    assertThat(strategies.size()).isEqualTo(2);
+    assertThat(strategies.get(0).getStrategyId()).isEqualTo(STRATEGY_1_ID);
+    assertThat(strategies.get(0).getMarketId()).isEqualTo(MARKET_1_ID);
+    assertThat(strategies.get(1).getStrategyId()).isEqualTo(STRATEGY_2_ID);
+    assertThat(strategies.get(1).getMarketId()).isEqualTo(MARKET_2_ID);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBuildingStrategiesFailsForDuplicateStrategyOnMarket() {
+    final ExchangeAdapter exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    final TradingStrategyFactory tradingStrategyFactory = new TradingStrategyFactory();
+    final TradingStrategiesBuilder tradingStrategiesBuilder = new TradingStrategiesBuilder();
+    tradingStrategiesBuilder.setTradingStrategyFactory(tradingStrategyFactory);
+    tradingStrategiesBuilder.buildStrategies(
+        someStrategiesConfig(),
+        someMarketsConfigWithStrategies(Arrays.asList(STRATEGY_1_ID, STRATEGY_1_ID)),
+        exchangeAdapter);
+  }
+
+  @Test
+  public void testParsingTradingStrategyIds() {
+    assertThat(TradingStrategiesBuilder.parseTradingStrategyIds(" a , b,,c "))
+        .containsExactly("a", "b", "c");
+    assertThat(TradingStrategiesBuilder.parseTradingStrategyIds(null)).isEmpty();
+  }
+
+  @Test
+  public void testTradingStrategyIdsAreUsedBeforeTradingStrategyId() {
+    final MarketConfig market = someMarketsConfig().get(0);
+    assertThat(TradingStrategiesBuilder.getTradingStrategyIds(market))
+        .containsExactly(STRATEGY_1_ID);
+
+    market.setTradingStrategyIds(Arrays.asList(STRATEGY_2_ID, " " + STRATEGY_1_ID + " "));
+    assertThat(TradingStrategiesBuilder.getTradingStrategyIds(market))
+        .containsExactly(STRATEGY_2_ID, STRATEGY_1_ID);
+  }
+
   private static List<StrategyConfig> someStrategiesConfig() {
     final Map<String, String> configItems = new HashMap<>();
     configItems.put(STRATEGY_1_CONFIG_ITEM_NAME, STRATEGY_1_CONFIG_ITEM_VALUE);
@@ -174,6 +243,22 @@ public class TestTradingStrategiesBuilder {
     return allMarkets;
   }
 
+  private static List<MarketConfig> someMarketsConfigWithStrategies(List<String> strategyIds) {
+    final MarketConfig marketConfig1 =
+        new MarketConfig(
+            MARKET_1_ID,
+            MARKET_1_NAME,
+            MARKET_1_BASE_CURRENCY,
+            MARKET_1_COUNTER_CURRENCY,
+            MARKET_1_IS_ENABLED,
+            null);
+    marketConfig1.setTradingStrategyIds(strategyIds);
+
+    final List<MarketConfig> allMarkets = new ArrayList<>();
+    allMarkets.add(marketConfig1);
+    return allMarkets;
+  }
+
   private static List<MarketConfig> someMarketsConfigUsingUnknownStrategyId() {
     final MarketConfig marketConfig1 =
         new MarketConfig(
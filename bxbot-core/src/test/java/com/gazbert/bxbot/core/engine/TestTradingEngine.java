@@ -30,12 +30,20 @@ import static org.easymock.EasyMock.contains;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 import com.gazbert.bxbot.core.config.strategy.TradingStrategiesBuilder;
 import com.gazbert.bxbot.core.config.strategy.TradingStrategyFactory;
+import com.gazbert.bxbot.core.events.BotEventPublisher;
+import com.gazbert.bxbot.core.journal.TradeJournal;
 import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.pnl.CostBasisMethod;
+import com.gazbert.bxbot.core.pnl.PnlAccountant;
+import com.gazbert.bxbot.core.pnl.PnlExchangeAdapter;
+import com.gazbert.bxbot.core.risk.RiskLimits;
 import com.gazbert.bxbot.core.util.ConfigurableComponentFactory;
+import com.gazbert.bxbot.domain.bot.BotEvent;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
 import com.gazbert.bxbot.domain.exchange.NetworkConfig;
 import com.gazbert.bxbot.domain.market.MarketConfig;
@@ -47,23 +55,31 @@ import com.gazbert.bxbot.services.config.ExchangeConfigService;
 import com.gazbert.bxbot.services.config.MarketConfigService;
 import com.gazbert.bxbot.services.config.StrategyConfigService;
 import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.StrategyStateStore;
 import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
 import com.gazbert.bxbot.trading.api.TradingApiException;
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.powermock.api.easymock.PowerMock;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
@@ -147,6 +163,11 @@ public class TestTradingEngine {
   private MarketConfigService marketConfigService;
 
   private TradingStrategiesBuilder tradingStrategiesBuilder;
+  private TradeJournal tradeJournal;
+  private PnlAccountant pnlAccountant;
+  private BotEventPublisher botEventPublisher;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
   /**
    * Mock out Config subsystem; we're not testing it here - has its own unit tests.
@@ -170,6 +191,17 @@ public class TestTradingEngine {
     tradingStrategiesBuilder.setTradingStrategyFactory(tradingStrategyFactory);
 
     PowerMock.mockStatic(ConfigurableComponentFactory.class);
+
+    tradeJournal = new TradeJournal(temporaryFolder.getRoot().getPath(), 1024 * 1024);
+    pnlAccountant = new PnlAccountant(CostBasisMethod.FIFO, BigDecimal.ZERO);
+    botEventPublisher = new BotEventPublisher(16);
+  }
+
+  /** Closes the trade journal so its segment can be deleted. */
+  @After
+  public void tearDownAfterEachTest() {
+    tradeJournal.close();
+    botEventPublisher.close();
   }
 
   @Test
@@ -183,7 +215,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
     assertFalse(tradingEngine.isRunning());
 
     PowerMock.verifyAll();
@@ -222,7 +258,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
     tradingEngine.start();
 
     await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
@@ -237,8 +277,15 @@ public class TestTradingEngine {
     setupConfigLoadingExpectationsForNoEmergencyStopCheck();
 
     // expect Trading Strategy to be invoked at least once
+    final CountDownLatch strategyExecuted = new CountDownLatch(1);
     tradingStrategy.execute();
-    expectLastCall().atLeastOnce();
+    expectLastCall()
+        .andAnswer(
+            () -> {
+              strategyExecuted.countDown();
+              return null;
+            })
+        .atLeastOnce();
 
     PowerMock.replayAll();
 
@@ -249,7 +296,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
 
     final Executor executor = Executors.newSingleThreadExecutor();
     executor.execute(tradingEngine::start);
@@ -257,6 +308,9 @@ public class TestTradingEngine {
     await().until(engineStateChanged(tradingEngine, EngineState.RUNNING));
     assertTrue(tradingEngine.isRunning());
 
+    // The engine reports it is running before its first trade cycle - wait for the cycle.
+    await().until(() -> strategyExecuted.getCount() == 0);
+
     tradingEngine.shutdown();
 
     await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
@@ -265,6 +319,52 @@ public class TestTradingEngine {
     PowerMock.verifyAll();
   }
 
+  @Test
+  public void testEngineShutsDownWhenEmergencyStopLossIsBreached() throws Exception {
+    setupConfigLoadingExpectationsForNoEmergencyStopCheck();
+
+    final BigDecimal emergencyStopLoss = new BigDecimal("0.1");
+    final BigDecimal btcPnl = new BigDecimal("-0.10000001");
+    final PnlAccountant lossMakingPnlAccountant =
+        new PnlAccountant(CostBasisMethod.FIFO, emergencyStopLoss) {
+          @Override
+          public synchronized BigDecimal getTotalPnl(String currency) {
+            return ENGINE_EMERGENCY_STOP_CURRENCY.equals(currency) ? btcPnl : BigDecimal.ZERO;
+          }
+        };
+
+    // expect Email Alert to be sent - and no Trading Strategy to be invoked
+    emailAlerter.sendMessage(
+        eq(CRITICAL_EMAIL_ALERT_SUBJECT),
+        contains(
+            "EMERGENCY STOP triggered! - Emergency Stop Currency [BTC] PnL ["
+                + new DecimalFormat("#.########").format(btcPnl)
+                + "] is a bigger loss than the configured Emergency Stop loss ["
+                + new DecimalFormat("#.########").format(emergencyStopLoss)
+                + "] BTC"));
+
+    PowerMock.replayAll();
+
+    final TradingEngine tradingEngine =
+        new TradingEngine(
+            exchangeConfigService,
+            engineConfigService,
+            strategyConfigService,
+            marketConfigService,
+            emailAlerter,
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            lossMakingPnlAccountant,
+            botEventPublisher);
+    tradingEngine.start();
+
+    await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
+    assertFalse(tradingEngine.isRunning());
+
+    PowerMock.verifyAll();
+  }
+
   /*
    * Tests the engine starts up and executes trade cycles successfully.
    * Scenario is at least one successful trade cycle and then we shut it down.
@@ -295,7 +395,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
 
     final Executor executor = Executors.newSingleThreadExecutor();
     executor.execute(tradingEngine::start);
@@ -350,12 +454,22 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
+    final List<Object> cycleStatuses = new CopyOnWriteArrayList<>();
+    botEventPublisher.subscribe(
+        EnumSet.of(BotEvent.Type.CYCLE), event -> cycleStatuses.add(event.getData().get("status")));
 
     tradingEngine.start();
 
     await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
     assertFalse(tradingEngine.isRunning());
+    // Failed cycles are streamed to subscribers too, not just the ones that complete.
+    await().until(() -> cycleStatuses.size() == 2);
+    assertEquals(Arrays.asList("COMPLETED", "STRATEGY_ERROR"), cycleStatuses);
 
     PowerMock.verifyAll();
   }
@@ -403,7 +517,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
 
     tradingEngine.start();
 
@@ -456,7 +574,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
 
     tradingEngine.start();
 
@@ -506,7 +628,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
 
     tradingEngine.start();
 
@@ -559,7 +685,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
 
     final Executor executor = Executors.newSingleThreadExecutor();
     executor.execute(tradingEngine::start);
@@ -610,7 +740,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
     final Executor executor = Executors.newSingleThreadExecutor();
     executor.execute(tradingEngine::start);
 
@@ -653,7 +787,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
     tradingEngine.start();
 
     await().until(engineStateChanged(tradingEngine, EngineState.SHUTDOWN));
@@ -690,7 +828,11 @@ public class TestTradingEngine {
             strategyConfigService,
             marketConfigService,
             emailAlerter,
-            tradingStrategiesBuilder);
+            tradingStrategiesBuilder,
+            RiskLimits.none(),
+            tradeJournal,
+            pnlAccountant,
+            botEventPublisher);
 
     final Executor executor = Executors.newSingleThreadExecutor();
     executor.execute(tradingEngine::start);
@@ -737,24 +879,29 @@ public class TestTradingEngine {
         .andReturn(someEngineConfigForNoEmergencyStopCheck());
   }
 
-  private void setupStrategyAndMarketConfigExpectations() {
+  private void setupStrategyAndMarketConfigExpectations() throws Exception {
     expect(strategyConfigService.getAllStrategyConfig()).andReturn(allTheStrategiesConfig());
     expect(marketConfigService.getAllMarketConfig()).andReturn(allTheMarketsConfig());
+    expect(exchangeAdapter.getMarketMetadata(MARKET_ID))
+        .andReturn(PowerMock.createMock(MarketMetadata.class));
+    expect(exchangeAdapter.getMyTrades(MARKET_ID, null))
+        .andThrow(new TradingApiException("Trade history not supported"));
     expect(ConfigurableComponentFactory.createComponent(STRATEGY_IMPL_CLASS))
         .andReturn(tradingStrategy);
     tradingStrategy.init(
-        eq(exchangeAdapter),
+        anyObject(PnlExchangeAdapter.class),
         anyObject(Market.class),
-        anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class));
+        anyObject(com.gazbert.bxbot.strategy.api.StrategyConfig.class),
+        anyObject(StrategyStateStore.class));
   }
 
-  private void setupConfigLoadingExpectations() {
+  private void setupConfigLoadingExpectations() throws Exception {
     setupExchangeAdapterConfigExpectations();
     setupEngineConfigExpectations();
     setupStrategyAndMarketConfigExpectations();
   }
 
-  private void setupConfigLoadingExpectationsForNoEmergencyStopCheck() {
+  private void setupConfigLoadingExpectationsForNoEmergencyStopCheck() throws Exception {
     setupExchangeAdapterConfigExpectations();
     setupEngineConfigForNoEmergencyStopCheckExpectations();
     setupStrategyAndMarketConfigExpectations();
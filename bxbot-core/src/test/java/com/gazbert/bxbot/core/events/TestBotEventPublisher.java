@@ -0,0 +1,271 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.events;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.core.marketdata.MarketDataBus;
+import com.gazbert.bxbot.core.marketdata.MarketDataEventProcessor;
+import com.gazbert.bxbot.core.order.OrderManager;
+import com.gazbert.bxbot.domain.bot.BotEvent;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.services.runtime.BotEventService;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Bot Event Publisher streams events to its subscribers as expected.
+ *
+ * @author gazbert
+ */
+public class TestBotEventPublisher {
+
+  private static final String MARKET_ID = "btc_usd";
+  private static final String ORDER_ID = "order-1";
+  private static final int CLIENT_BUFFER_SIZE = 4;
+
+  private BotEventPublisher botEventPublisher;
+  private BlockingQueue<BotEvent> received;
+
+  @Before
+  public void setupBeforeEachTest() {
+    botEventPublisher = new BotEventPublisher(CLIENT_BUFFER_SIZE);
+    received = new LinkedBlockingQueue<>();
+  }
+
+  @After
+  public void tearDownAfterEachTest() {
+    botEventPublisher.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testClientBufferSizeMustBePositive() {
+    new BotEventPublisher(0);
+  }
+
+  @Test
+  public void testCycleAndOrderEventsAreStreamedInOrder() throws Exception {
+    final TradingApi tradingApi = EasyMock.createMock(TradingApi.class);
+    expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+    EasyMock.replay(tradingApi);
+
+    botEventPublisher.subscribe(Collections.emptySet(), received::add);
+    final OrderManager orderManager = new OrderManager(tradingApi);
+    orderManager.addOrderListener(botEventPublisher);
+    orderManager.orderCreated(ORDER_ID, MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN);
+    orderManager.reconcile(MARKET_ID);
+    botEventPublisher.cycleCompleted(1, 25, "COMPLETED");
+
+    final BotEvent opened = nextEvent();
+    assertEquals(BotEvent.Type.ORDER, opened.getType());
+    assertEquals(MARKET_ID, opened.getMarketId());
+    assertEquals(ORDER_ID, opened.getData().get("orderId"));
+    assertEquals(OrderType.BUY, opened.getData().get("orderType"));
+    assertEquals("OPEN", opened.getData().get("status"));
+
+    final BotEvent closed = nextEvent();
+    assertEquals(opened.getSequence() + 1, closed.getSequence());
+    assertEquals("GONE", closed.getData().get("status"));
+
+    final BotEvent cycle = nextEvent();
+    assertEquals(BotEvent.Type.CYCLE, cycle.getType());
+    assertEquals(1L, cycle.getData().get("cycle"));
+    assertEquals(25L, cycle.getData().get("durationMillis"));
+    assertEquals("COMPLETED", cycle.getData().get("status"));
+    EasyMock.verify(tradingApi);
+  }
+
+  @Test
+  public void testOnlySubscribedEventTypesAreStreamed() throws Exception {
+    botEventPublisher.subscribe(EnumSet.of(BotEvent.Type.BALANCE), received::add);
+    botEventPublisher.cycleCompleted(1, 25, "COMPLETED");
+    botEventPublisher.balancesUpdated(Collections.singletonMap("BTC", BigDecimal.ONE), null);
+
+    final BotEvent balances = nextEvent();
+    assertEquals(BotEvent.Type.BALANCE, balances.getType());
+    assertEquals(
+        Collections.singletonMap("BTC", BigDecimal.ONE), balances.getData().get("available"));
+    assertEquals(Collections.emptyMap(), balances.getData().get("onHold"));
+    assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testTopOfBookIsPublishedWhenItChangesAndSentToNewSubscribers() throws Exception {
+    final MarketDataBus marketDataBus = new MarketDataBus(8);
+    final MarketDataEventProcessor processor = marketDataBus.subscribe(botEventPublisher);
+    marketDataBus.publishOrderBook(MARKET_ID, 1L, new BigDecimal("99"), new BigDecimal("101"));
+    // Same top of book from the ticker - not published again.
+    marketDataBus.publishTicker(
+        MARKET_ID, 2L, new BigDecimal("100"), new BigDecimal("99"), new BigDecimal("101"), null);
+    // No top of book in the ticker - ignored.
+    marketDataBus.publishTicker(MARKET_ID, 3L, new BigDecimal("100"), null, null, null);
+    marketDataBus.publishFill(MARKET_ID, 4L, OrderType.BUY, BigDecimal.TEN, BigDecimal.ONE);
+    marketDataBus.publishOrderBook(MARKET_ID, 5L, new BigDecimal("98"), new BigDecimal("101"));
+    assertEquals(5, processor.poll());
+    botEventPublisher.balancesUpdated(Collections.emptyMap(), Collections.emptyMap());
+
+    botEventPublisher.subscribe(Collections.emptySet(), received::add);
+    assertEquals(BotEvent.Type.BALANCE, nextEvent().getType());
+    final BotEvent topOfBook = nextEvent();
+    assertEquals(BotEvent.Type.TOP_OF_BOOK, topOfBook.getType());
+    assertEquals(MARKET_ID, topOfBook.getMarketId());
+    assertEquals(5L, topOfBook.getTimestamp());
+    assertEquals(2L, topOfBook.getSequence());
+    assertEquals(new BigDecimal("98"), topOfBook.getData().get("bestBid"));
+    assertEquals(new BigDecimal("101"), topOfBook.getData().get("bestAsk"));
+    assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testSlowSubscriberDropsOldestEventsWithoutHoldingUpOthers() throws Exception {
+    final CountDownLatch firstSendStarted = new CountDownLatch(1);
+    final CountDownLatch releaseSlowSubscriber = new CountDownLatch(1);
+    final BlockingQueue<BotEvent> slowReceived = new LinkedBlockingQueue<>();
+    final BotEventService.Subscription slowSubscription =
+        botEventPublisher.subscribe(
+            Collections.emptySet(),
+            event -> {
+              firstSendStarted.countDown();
+              try {
+                releaseSlowSubscriber.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              slowReceived.add(event);
+            });
+    botEventPublisher.subscribe(Collections.emptySet(), received::add);
+
+    botEventPublisher.cycleCompleted(1, 1, "COMPLETED");
+    assertTrue(firstSendStarted.await(5, TimeUnit.SECONDS));
+    for (int cycle = 2; cycle <= 10; cycle++) {
+      botEventPublisher.cycleCompleted(cycle, 1, "COMPLETED");
+    }
+
+    // The other subscriber gets to the last event while the slow one is stuck.
+    BotEvent event = nextEvent();
+    while (!Long.valueOf(10).equals(event.getData().get("cycle"))) {
+      event = nextEvent();
+    }
+
+    releaseSlowSubscriber.countDown();
+    assertEquals(1L, nextEvent(slowReceived).getData().get("cycle"));
+    // Cycles 2 to 6 were dropped to make room for 7 to 10.
+    final BotEvent dropped = nextEvent(slowReceived);
+    assertEquals(BotEvent.Type.DROPPED, dropped.getType());
+    assertEquals(6L, dropped.getSequence());
+    assertEquals(5L, dropped.getData().get("count"));
+    for (long cycle = 7; cycle <= 10; cycle++) {
+      assertEquals(cycle, nextEvent(slowReceived).getData().get("cycle"));
+    }
+    assertEquals(5L, slowSubscription.getDroppedCount());
+  }
+
+  @Test
+  public void testSubscriberIsClosedWhenSendFails() throws Exception {
+    final CountDownLatch sendFailed = new CountDownLatch(1);
+    botEventPublisher.subscribe(
+        Collections.emptySet(),
+        event -> {
+          sendFailed.countDown();
+          throw new IOException("Broken pipe");
+        });
+    final BotEventService.Subscription subscription =
+        botEventPublisher.subscribe(Collections.emptySet(), received::add);
+    assertEquals(2, botEventPublisher.getSubscriberCount());
+
+    botEventPublisher.cycleCompleted(1, 1, "COMPLETED");
+    assertTrue(sendFailed.await(5, TimeUnit.SECONDS));
+    nextEvent();
+    awaitSubscriberCount(1);
+
+    subscription.close();
+    subscription.close();
+    assertEquals(0, botEventPublisher.getSubscriberCount());
+    botEventPublisher.cycleCompleted(2, 1, "COMPLETED");
+    assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testBalancesFetchedByStrategiesArePublished() throws Exception {
+    final ExchangeAdapter exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    final BalanceInfo balanceInfo = EasyMock.createMock(BalanceInfo.class);
+    final Map<String, BigDecimal> balancesOnHold = Collections.singletonMap("USD", BigDecimal.TEN);
+    expect(balanceInfo.getBalancesAvailable()).andReturn(Collections.emptyMap());
+    expect(balanceInfo.getBalancesOnHold()).andReturn(balancesOnHold);
+    expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
+    expect(exchangeAdapter.getBalanceInfo()).andReturn(null);
+    EasyMock.replay(exchangeAdapter, balanceInfo);
+
+    botEventPublisher.subscribe(Collections.emptySet(), received::add);
+    final EventPublishingExchangeAdapter eventPublishingExchangeAdapter =
+        new EventPublishingExchangeAdapter(exchangeAdapter, botEventPublisher);
+    assertSame(balanceInfo, eventPublishingExchangeAdapter.getBalanceInfo());
+    assertNull(eventPublishingExchangeAdapter.getBalanceInfo());
+
+    assertEquals(balancesOnHold, nextEvent().getData().get("onHold"));
+    assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    EasyMock.verify(exchangeAdapter, balanceInfo);
+  }
+
+  private BotEvent nextEvent() throws InterruptedException {
+    return nextEvent(received);
+  }
+
+  private static BotEvent nextEvent(BlockingQueue<BotEvent> events) throws InterruptedException {
+    final BotEvent event = events.poll(5, TimeUnit.SECONDS);
+    if (event == null) {
+      fail("Timed out waiting for event");
+    }
+    return event;
+  }
+
+  private void awaitSubscriberCount(int expected) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 5000;
+    while (botEventPublisher.getSubscriberCount() != expected) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Timed out waiting for " + expected + " subscribers");
+      }
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.jfr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the Trading Engine's Java Flight Recorder events are recorded as expected.
+ *
+ * @author gazbert
+ */
+public class TestJfrEvents {
+
+  private static final String TRADE_CYCLE_EVENT = "com.gazbert.bxbot.TradeCycle";
+  private static final String STRATEGY_EXECUTION_EVENT = "com.gazbert.bxbot.StrategyExecution";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testEventsAreRecordedWithTheirFieldsWhenEnabled() throws Exception {
+    final List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(TRADE_CYCLE_EVENT);
+      recording.enable(STRATEGY_EXECUTION_EVENT);
+      recording.start();
+
+      final TradeCycleEvent tradeCycleEvent = new TradeCycleEvent();
+      tradeCycleEvent.begin();
+      final StrategyExecutionEvent strategyExecutionEvent = new StrategyExecutionEvent();
+      strategyExecutionEvent.begin();
+      strategyExecutionEvent.complete("scalper", "btc_usd", "com.my.Scalper", false);
+      tradeCycleEvent.complete("my-bot", 42, "STRATEGY_ERROR");
+
+      recording.stop();
+      events = readEvents(recording);
+    }
+
+    final RecordedEvent strategyExecution = findEvent(events, STRATEGY_EXECUTION_EVENT);
+    assertEquals("scalper", strategyExecution.getString("strategy"));
+    assertEquals("btc_usd", strategyExecution.getString("market"));
+    assertEquals("com.my.Scalper", strategyExecution.getString("strategyClass"));
+    assertFalse(strategyExecution.getBoolean("succeeded"));
+
+    final RecordedEvent tradeCycle = findEvent(events, TRADE_CYCLE_EVENT);
+    assertEquals("my-bot", tradeCycle.getString("botId"));
+    assertEquals(42, tradeCycle.getLong("tradeCycle"));
+    assertEquals("STRATEGY_ERROR", tradeCycle.getString("outcome"));
+    // The strategy ran inside the cycle.
+    assertFalse(strategyExecution.getStartTime().isBefore(tradeCycle.getStartTime()));
+    assertFalse(strategyExecution.getEndTime().isAfter(tradeCycle.getEndTime()));
+  }
+
+  @Test
+  public void testEventsAreNotRecordedWhenDisabled() throws Exception {
+    final List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.disable(TRADE_CYCLE_EVENT);
+      recording.disable(STRATEGY_EXECUTION_EVENT);
+      recording.start();
+
+      final TradeCycleEvent tradeCycleEvent = new TradeCycleEvent();
+      tradeCycleEvent.begin();
+      tradeCycleEvent.complete("my-bot", 1, "COMPLETED");
+
+      recording.stop();
+      events = readEvents(recording);
+    }
+
+    assertTrue(
+        events.stream()
+            .noneMatch(event -> event.getEventType().getName().startsWith("com.gazbert.bxbot")));
+  }
+
+  private List<RecordedEvent> readEvents(Recording recording) throws Exception {
+    final Path recordingFile = temporaryFolder.newFile("test.jfr").toPath();
+    recording.dump(recordingFile);
+    return RecordingFile.readAllEvents(recordingFile);
+  }
+
+  private static RecordedEvent findEvent(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(event -> event.getEventType().getName().equals(name))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("No " + name + " event recorded"));
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.journal;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.core.order.OrderManager;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.BalanceInfo;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the Journaling Exchange Adapter and Order Fill Journaler record what the bot did.
+ *
+ * @author gazbert
+ */
+public class TestJournalingExchangeAdapter {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final String ORDER_ID = "order-1";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ExchangeAdapter exchangeAdapter;
+  private TradeJournal tradeJournal;
+  private JournalingExchangeAdapter journalingExchangeAdapter;
+
+  @Before
+  public void setup() {
+    exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    tradeJournal = new TradeJournal(temporaryFolder.getRoot().getPath(), 64 * 1024);
+    journalingExchangeAdapter = new JournalingExchangeAdapter(exchangeAdapter, tradeJournal);
+  }
+
+  @Test
+  public void testOrderRequestAndAckAreJournaled() throws Exception {
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN))
+        .andReturn(ORDER_ID);
+    EasyMock.replay(exchangeAdapter);
+
+    assertEquals(
+        ORDER_ID,
+        journalingExchangeAdapter.createOrder(
+            MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN));
+    assertEquals(
+        List.of(JournalRecord.Type.ORDER_REQUEST, JournalRecord.Type.ORDER_ACK), journalTypes());
+    assertEquals(ORDER_ID, tradeJournal.query(2, record -> true, 1).get(0).getOrderId());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testFailedOrderIsJournaledAndRethrown() throws Exception {
+    final TradingApiException exception = new TradingApiException("order rejected");
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, BigDecimal.ONE, BigDecimal.TEN))
+        .andThrow(exception);
+    EasyMock.replay(exchangeAdapter);
+
+    try {
+      journalingExchangeAdapter.createOrder(
+          MARKET_ID, OrderType.SELL, BigDecimal.ONE, BigDecimal.TEN);
+      fail("Expected TradingApiException to be rethrown");
+    } catch (TradingApiException e) {
+      assertSame(exception, e);
+    }
+    assertEquals(
+        List.of(JournalRecord.Type.ORDER_REQUEST, JournalRecord.Type.ORDER_FAILED),
+        journalTypes());
+    assertEquals("order rejected", tradeJournal.query(2, record -> true, 1).get(0).getDetail());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testCancelOutcomesAreJournaled() throws Exception {
+    expect(exchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID)).andReturn(true);
+    expect(exchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID)).andReturn(false);
+    expect(exchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID))
+        .andThrow(new TradingApiException("unknown order"));
+    EasyMock.replay(exchangeAdapter);
+
+    journalingExchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID);
+    assertFalse(journalingExchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID));
+    try {
+      journalingExchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID);
+      fail("Expected TradingApiException to be rethrown");
+    } catch (TradingApiException e) {
+      assertEquals("unknown order", e.getMessage());
+    }
+    assertEquals(
+        List.of(
+            JournalRecord.Type.CANCEL_REQUEST,
+            JournalRecord.Type.CANCEL_ACK,
+            JournalRecord.Type.CANCEL_REQUEST,
+            JournalRecord.Type.CANCEL_FAILED,
+            JournalRecord.Type.CANCEL_REQUEST,
+            JournalRecord.Type.CANCEL_FAILED),
+        journalTypes());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testBalanceLookupIsJournaled() throws Exception {
+    final BalanceInfo balanceInfo = EasyMock.createMock(BalanceInfo.class);
+    expect(balanceInfo.getBalancesAvailable())
+        .andReturn(Collections.singletonMap("BTC", BigDecimal.ONE));
+    expect(balanceInfo.getBalancesOnHold()).andReturn(Collections.emptyMap());
+    expect(exchangeAdapter.getBalanceInfo()).andReturn(balanceInfo);
+    EasyMock.replay(exchangeAdapter, balanceInfo);
+
+    assertSame(balanceInfo, journalingExchangeAdapter.getBalanceInfo());
+    final JournalRecord record = tradeJournal.query(1, r -> true, 1).get(0);
+    assertEquals(JournalRecord.Type.BALANCE_SNAPSHOT, record.getType());
+    assertEquals(BigDecimal.ONE, record.getBalancesAvailable().get("BTC"));
+    EasyMock.verify(exchangeAdapter, balanceInfo);
+  }
+
+  @Test
+  public void testOnlyFilledQuantitiesAreJournaledAsFills() throws Exception {
+    final OpenOrder partiallyFilledOrder = EasyMock.createMock(OpenOrder.class);
+    expect(partiallyFilledOrder.getId()).andStubReturn(ORDER_ID);
+    expect(partiallyFilledOrder.getQuantity()).andStubReturn(new BigDecimal("0.4"));
+    final TradingApi tradingApi = EasyMock.createMock(TradingApi.class);
+    expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(List.of(partiallyFilledOrder));
+    expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+    EasyMock.replay(tradingApi, partiallyFilledOrder);
+
+    final OrderManager orderManager = new OrderManager(tradingApi);
+    orderManager.addOrderListener(new OrderFillJournaler(tradeJournal));
+    orderManager.orderCreated("order-0", MARKET_ID, OrderType.SELL, BigDecimal.ONE, BigDecimal.TEN);
+    orderManager.orderCancelled("order-0", MARKET_ID, true);
+    orderManager.orderCreated(ORDER_ID, MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN);
+    orderManager.reconcile(MARKET_ID);
+    orderManager.reconcile(MARKET_ID); // the rest of the order has gone - not a fill
+
+    assertEquals(List.of(JournalRecord.Type.FILL), journalTypes());
+    final JournalRecord fill = tradeJournal.query(1, record -> true, 1).get(0);
+    assertEquals(ORDER_ID, fill.getOrderId());
+    assertEquals(OrderType.BUY, fill.getOrderType());
+    assertEquals(0, new BigDecimal("0.6").compareTo(fill.getQuantity()));
+    EasyMock.verify(tradingApi, partiallyFilledOrder);
+  }
+
+  private List<JournalRecord.Type> journalTypes() {
+    return tradeJournal.query(1, record -> true, Integer.MAX_VALUE).stream()
+        .map(JournalRecord::getType)
+        .collect(Collectors.toList());
+  }
+}
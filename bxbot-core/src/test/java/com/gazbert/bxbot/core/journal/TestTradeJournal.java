@@ -0,0 +1,279 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.journal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the Trade Journal writes, recovers and replays records as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradeJournal {
+
+  private static final String MARKET_ID = "btc_usd";
+  private static final String ORDER_ID = "12345";
+  private static final BigDecimal QUANTITY = new BigDecimal("0.01");
+  private static final BigDecimal PRICE = new BigDecimal("10000.12345678");
+  private static final int SEGMENT_SIZE = 1024;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testRecordsAreReplayedInOrder() {
+    final Path directory = temporaryFolder.getRoot().toPath().resolve("journal");
+    final TradeJournal journal = new TradeJournal(directory.toString(), SEGMENT_SIZE);
+    assertEquals(0, journal.getLastSequence());
+    assertFalse("Nothing should be written until there is a record", Files.exists(directory));
+
+    journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    journal.orderAcknowledged(ORDER_ID, MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    journal.orderFailed(MARKET_ID, OrderType.SELL, QUANTITY, PRICE, "Insufficient funds");
+    journal.cancelRequested(ORDER_ID, MARKET_ID);
+    journal.cancelAcknowledged(ORDER_ID, MARKET_ID);
+    journal.cancelFailed(ORDER_ID, MARKET_ID, "Order not found");
+    journal.orderFilled(
+        ORDER_ID, MARKET_ID, OrderType.BUY, QUANTITY, PRICE, new BigDecimal("0.25"), "cursor-1");
+    journal.balanceSnapshot(Collections.singletonMap("BTC", new BigDecimal("1.5")), null);
+    journal.cycleCompleted(1, 250);
+    journal.flush();
+    assertEquals(9, journal.getLastSequence());
+
+    final List<JournalRecord> records = new ArrayList<>();
+    journal.replay(1, records::add);
+    assertEquals(9, records.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertEquals(i + 1, records.get(i).getSequence());
+      assertTrue(records.get(i).getTimestamp() > 0);
+    }
+
+    final JournalRecord request = records.get(0);
+    assertEquals(JournalRecord.Type.ORDER_REQUEST, request.getType());
+    assertEquals(MARKET_ID, request.getMarketId());
+    assertNull(request.getOrderId());
+    assertEquals(OrderType.BUY, request.getOrderType());
+    assertEquals(QUANTITY, request.getQuantity());
+    assertEquals(PRICE, request.getPrice());
+
+    assertEquals(JournalRecord.Type.ORDER_ACK, records.get(1).getType());
+    assertEquals(ORDER_ID, records.get(1).getOrderId());
+    assertEquals(JournalRecord.Type.ORDER_FAILED, records.get(2).getType());
+    assertEquals(OrderType.SELL, records.get(2).getOrderType());
+    assertEquals("Insufficient funds", records.get(2).getDetail());
+    assertEquals(JournalRecord.Type.CANCEL_REQUEST, records.get(3).getType());
+    assertNull(records.get(3).getOrderType());
+    assertEquals(JournalRecord.Type.CANCEL_ACK, records.get(4).getType());
+    assertEquals(JournalRecord.Type.CANCEL_FAILED, records.get(5).getType());
+    assertEquals("Order not found", records.get(5).getDetail());
+    assertEquals(JournalRecord.Type.FILL, records.get(6).getType());
+    assertEquals(QUANTITY, records.get(6).getQuantity());
+    assertEquals(new BigDecimal("0.25"), records.get(6).getFee());
+    assertEquals("cursor-1", records.get(6).getDetail());
+    assertNull(records.get(0).getFee());
+
+    final JournalRecord balances = records.get(7);
+    assertEquals(JournalRecord.Type.BALANCE_SNAPSHOT, balances.getType());
+    assertEquals(new BigDecimal("1.5"), balances.getBalancesAvailable().get("BTC"));
+    assertTrue(balances.getBalancesOnHold().isEmpty());
+
+    final JournalRecord cycleSummary = records.get(8);
+    assertEquals(JournalRecord.Type.CYCLE_SUMMARY, cycleSummary.getType());
+    assertEquals(1, cycleSummary.getCycle());
+    assertEquals(250, cycleSummary.getDurationMillis());
+    assertTrue(cycleSummary.toString().contains("CYCLE_SUMMARY"));
+    journal.close();
+  }
+
+  @Test
+  public void testJournalRollsSegmentsAndCarriesOnAfterRestart() throws Exception {
+    final Path directory = temporaryFolder.getRoot().toPath();
+    final TradeJournal journal = new TradeJournal(directory.toString(), SEGMENT_SIZE);
+    for (int i = 0; i < 50; i++) {
+      journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    }
+    journal.close();
+    assertTrue("Records should span segments", listSegments(directory).size() > 1);
+
+    final TradeJournal reopenedJournal = new TradeJournal(directory.toString(), SEGMENT_SIZE);
+    assertEquals(50, reopenedJournal.getLastSequence());
+    reopenedJournal.cycleCompleted(1, 10);
+    assertEquals(51, reopenedJournal.getLastSequence());
+
+    final List<JournalRecord> records = new ArrayList<>();
+    reopenedJournal.replay(45, records::add);
+    assertEquals(7, records.size());
+    assertEquals(45, records.get(0).getSequence());
+    assertEquals(JournalRecord.Type.CYCLE_SUMMARY, records.get(6).getType());
+    reopenedJournal.close();
+  }
+
+  @Test
+  public void testTornRecordIsIgnored() throws Exception {
+    final Path directory = temporaryFolder.getRoot().toPath();
+    final TradeJournal journal = new TradeJournal(directory.toString(), SEGMENT_SIZE);
+    journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    journal.orderRequested(MARKET_ID, OrderType.SELL, QUANTITY, PRICE);
+    journal.close();
+
+    // Corrupt the last byte of the second record, as a crash mid-write would.
+    final Path segment = listSegments(directory).get(0);
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+      final long lastByte = file.length() - 1;
+      file.seek(lastByte);
+      final int value = file.read();
+      file.seek(lastByte);
+      file.write(value ^ 0xff);
+    }
+
+    final TradeJournal reopenedJournal = new TradeJournal(directory.toString(), SEGMENT_SIZE);
+    assertEquals(1, reopenedJournal.getLastSequence());
+    reopenedJournal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+
+    final List<JournalRecord> records = new ArrayList<>();
+    reopenedJournal.replay(0, records::add);
+    assertEquals(2, records.size());
+    assertEquals(OrderType.BUY, records.get(0).getOrderType());
+    assertEquals(2, records.get(1).getSequence());
+    reopenedJournal.close();
+  }
+
+  @Test
+  public void testQueryReturnsMatchingRecordsUpToMax() {
+    final TradeJournal journal =
+        new TradeJournal(temporaryFolder.getRoot().getPath(), SEGMENT_SIZE);
+    for (int i = 0; i < 10; i++) {
+      journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+      journal.orderRequested("ltc_usd", OrderType.SELL, QUANTITY, PRICE);
+    }
+
+    final List<JournalRecord> records =
+        journal.query(5, record -> "ltc_usd".equals(record.getMarketId()), 3);
+    assertEquals(3, records.size());
+    assertEquals(6, records.get(0).getSequence());
+    assertEquals(10, records.get(2).getSequence());
+    assertTrue(journal.query(1, record -> true, 0).isEmpty());
+    journal.close();
+  }
+
+  @Test
+  public void testRecordTooBigForSegmentIsDropped() {
+    final TradeJournal journal =
+        new TradeJournal(temporaryFolder.getRoot().getPath(), SEGMENT_SIZE);
+    final Map<String, BigDecimal> balances = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      balances.put("CURRENCY" + i, BigDecimal.ONE);
+    }
+    journal.balanceSnapshot(balances, balances);
+    journal.orderFailed(MARKET_ID, OrderType.BUY, QUANTITY, PRICE, new String(new char[70000]));
+    assertEquals(0, journal.getLastSequence());
+
+    journal.cycleCompleted(1, 10);
+    assertEquals(1, journal.getLastSequence());
+    journal.close();
+  }
+
+  @Test
+  public void testLastCheckpointIsFoundAfterRestart() {
+    final Path directory = temporaryFolder.getRoot().toPath();
+    final TradeJournal journal = new TradeJournal(directory.toString(), SEGMENT_SIZE);
+    assertNull(journal.findLastCheckpoint());
+    assertTrue(journal.isCheckpointDue());
+
+    journal.checkpoint(new byte[] {1, 2});
+    journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    journal.checkpoint(new byte[] {3});
+    assertFalse(journal.isCheckpointDue());
+    journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    journal.close();
+
+    final TradeJournal reopenedJournal = new TradeJournal(directory.toString(), SEGMENT_SIZE);
+    final JournalRecord checkpoint = reopenedJournal.findLastCheckpoint();
+    assertEquals(JournalRecord.Type.CHECKPOINT, checkpoint.getType());
+    assertEquals(3, checkpoint.getSequence());
+    assertArrayEquals(new byte[] {3}, checkpoint.getCheckpointState());
+    // A new segment is started on reopening, and it has no checkpoint yet.
+    assertTrue(reopenedJournal.isCheckpointDue());
+    reopenedJournal.close();
+  }
+
+  @Test
+  public void testOldSegmentsAreDeletedUpToTheLastCheckpoint() throws Exception {
+    final Path directory = temporaryFolder.getRoot().toPath();
+    final TradeJournal journal = new TradeJournal(directory.toString(), SEGMENT_SIZE, 2);
+    for (int i = 0; i < 50; i++) {
+      journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    }
+    // Nothing is deleted without a checkpoint to recover from.
+    final int segmentCount = listSegments(directory).size();
+    assertTrue("Records should span segments", segmentCount > 2);
+
+    journal.checkpoint(new byte[] {1});
+    final long checkpointSequence = journal.getLastSequence();
+    for (int i = 0; i < 50; i++) {
+      journal.orderRequested(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    }
+    journal.close();
+
+    final List<JournalRecord> records = new ArrayList<>();
+    journal.replay(0, records::add);
+    // The segments before the one holding the checkpoint are gone; the ones after it are kept.
+    assertTrue(records.get(0).getSequence() > 1);
+    assertTrue(records.get(0).getSequence() <= checkpointSequence);
+    assertEquals(checkpointSequence, journal.findLastCheckpoint().getSequence());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSegmentSizeMustHoldARecord() {
+    new TradeJournal(temporaryFolder.getRoot().getPath(), 16);
+  }
+
+  private static List<Path> listSegments(Path directory) throws Exception {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.toString().endsWith(TradeJournal.SEGMENT_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+}
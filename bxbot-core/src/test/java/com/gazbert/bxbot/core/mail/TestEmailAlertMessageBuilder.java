@@ -104,4 +104,32 @@ public class TestEmailAlertMessageBuilder {
     assertTrue(msgContent.startsWith(expectedStartOfMsg));
     assertTrue(msgContent.contains(expectedMiddleOfMsg));
   }
+
+  @Test
+  public void testBuildingWarningMsgContent() {
+    final String msgContent =
+        EmailAlertMessageBuilder.buildWarningMsgContent(
+            "Order rejected", "The order was not placed.", "seti-alpha-3", "The Pioneer", "Bitstamp");
+
+    assertTrue(
+        msgContent.startsWith(
+            "A WARNING event has occurred on BX-bot."
+                + NEWLINE
+                + NEWLINE
+                + "--------------------------------------------------"
+                + NEWLINE
+                + "Bot Id / Name:"
+                + NEWLINE
+                + NEWLINE
+                + "seti-alpha-3 / The Pioneer"
+                + NEWLINE));
+    assertTrue(
+        msgContent.endsWith(
+            "Action Taken:"
+                + NEWLINE
+                + NEWLINE
+                + "The order was not placed."
+                + NEWLINE
+                + NEWLINE));
+  }
 }
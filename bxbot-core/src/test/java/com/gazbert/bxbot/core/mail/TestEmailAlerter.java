@@ -25,19 +25,25 @@ package com.gazbert.bxbot.core.mail;
 
 import static junit.framework.TestCase.assertNotNull;
 import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import com.gazbert.bxbot.domain.emailalerts.EmailAlertsConfig;
 import com.gazbert.bxbot.domain.emailalerts.SmtpConfig;
 import com.gazbert.bxbot.services.config.EmailAlertsConfigService;
-import javax.mail.Message;
-import javax.mail.Transport;
-import org.easymock.EasyMock;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.MessagingException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.api.easymock.PowerMock;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
-import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 /**
@@ -46,7 +52,6 @@ import org.powermock.modules.junit4.PowerMockRunner;
  * @author gazbert
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({Transport.class})
 @PowerMockIgnore({
     "javax.crypto.*",
     "javax.management.*",
@@ -59,6 +64,8 @@ public class TestEmailAlerter {
 
   private static final String EMAIL_SUBJECT = "CRITICAL Alert message from BX-bot";
   private static final String EMAIL_MSG = "The exchange has blown up!";
+  private static final String OTHER_EMAIL_SUBJECT = "WARNING Alert message from BX-bot";
+  private static final String OTHER_EMAIL_MSG = "The exchange is on fire!";
 
   private static final String SMTP_HOST = "smtp.gmail.com";
   private static final int SMTP_TLS_PORT = 587;
@@ -67,11 +74,21 @@ public class TestEmailAlerter {
   private static final String FROM_ADDRESS = "bxbot.alerts@gmail.com";
   private static final String TO_ADDRESS = "some-destination@gmail.com";
 
+  private static final int QUEUE_CAPACITY = 100;
+  private static final long NO_COALESCE_WINDOW = 0;
+  private static final long LONG_COALESCE_WINDOW = 60 * 1000L;
+  private static final int MAX_SEND_ATTEMPTS = 3;
+  private static final long RETRY_BACKOFF_MILLIS = 1;
+  private static final long TEST_TIMEOUT_SECS = 5;
+
   private EmailAlertsConfigService emailAlertsConfigService;
+  private RecordingMailSender mailSender;
 
+  /** Creates the mocked config service and a mail sender that records what it is sent. */
   @Before
   public void setup() {
     emailAlertsConfigService = PowerMock.createMock(EmailAlertsConfigService.class);
+    mailSender = new RecordingMailSender();
   }
 
   @Test
@@ -80,8 +97,9 @@ public class TestEmailAlerter {
         .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
     PowerMock.replayAll();
 
-    final EmailAlerter emailAlerter = new EmailAlerter(emailAlertsConfigService);
+    final EmailAlerter emailAlerter = createEmailAlerter();
     assertNotNull(emailAlerter);
+    emailAlerter.shutdown();
 
     PowerMock.verifyAll();
   }
@@ -92,7 +110,7 @@ public class TestEmailAlerter {
         .andReturn(someEmailAlertsConfigWithAlertsDisabledAndNoSmtpConfig());
     PowerMock.replayAll();
 
-    final EmailAlerter emailAlerter = new EmailAlerter(emailAlertsConfigService);
+    final EmailAlerter emailAlerter = createEmailAlerter();
     assertNotNull(emailAlerter);
 
     PowerMock.verifyAll();
@@ -104,7 +122,7 @@ public class TestEmailAlerter {
         .andReturn(someEmailAlertsConfigWithAlertsDisabledAndSmtpConfig());
     PowerMock.replayAll();
 
-    final EmailAlerter emailAlerter = new EmailAlerter(emailAlertsConfigService);
+    final EmailAlerter emailAlerter = createEmailAlerter();
     assertNotNull(emailAlerter);
 
     PowerMock.verifyAll();
@@ -116,29 +134,193 @@ public class TestEmailAlerter {
         .andReturn(someEmailAlertsConfigWithAlertsEnabledAndNoSmtpConfig());
     PowerMock.replayAll();
 
-    final EmailAlerter emailAlerter = new EmailAlerter(emailAlertsConfigService);
+    final EmailAlerter emailAlerter = createEmailAlerter();
     assertNotNull(emailAlerter);
 
     PowerMock.verifyAll();
   }
 
-  /*
-   * Can safely run this test without 'real' credentials.
-   * Crude use of mocks to test behaviour.
-   * It does not send anything down the wire.
-   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmailAlerterInitialisationFailsWhenQueueCapacityNotPositive() {
+    new EmailAlerter(
+        emailAlertsConfigService, 0, NO_COALESCE_WINDOW, MAX_SEND_ATTEMPTS, RETRY_BACKOFF_MILLIS);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmailAlerterInitialisationFailsWhenMaxSendAttemptsNotPositive() {
+    new EmailAlerter(
+        emailAlertsConfigService, QUEUE_CAPACITY, NO_COALESCE_WINDOW, 0, RETRY_BACKOFF_MILLIS);
+  }
+
   @Test
-  public void testEmailAlerterSendsMailSuccessfullyUsingMockTransport() throws Exception {
+  public void testEmailAlerterDoesNotSendMailWhenAlertsDisabled() {
+    expect(emailAlertsConfigService.getEmailAlertsConfig())
+        .andReturn(someEmailAlertsConfigWithAlertsDisabledAndSmtpConfig());
+    PowerMock.replayAll();
+
+    final EmailAlerter emailAlerter =
+        new EmailAlerter(
+            emailAlertsConfigService,
+            smtpConfig -> {
+              throw new AssertionError("Mail sender should not be created");
+            },
+            QUEUE_CAPACITY,
+            NO_COALESCE_WINDOW,
+            MAX_SEND_ATTEMPTS,
+            RETRY_BACKOFF_MILLIS);
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.shutdown();
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testEmailAlerterSendsMailWithoutWaitingForMailServer() throws Exception {
     expect(emailAlertsConfigService.getEmailAlertsConfig())
         .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
+    PowerMock.replayAll();
+
+    final EmailAlerter emailAlerter = createEmailAlerter(NO_COALESCE_WINDOW, QUEUE_CAPACITY);
+    mailSender.blockSending();
+
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    assertTrue(mailSender.awaitSending());
+
+    mailSender.unblockSending();
+    final SentMail sentMail = mailSender.takeSentMail();
+    assertEquals(EMAIL_SUBJECT, sentMail.subject);
+    assertEquals(EMAIL_MSG, sentMail.msgContent);
+
+    emailAlerter.shutdown();
+    assertTrue(mailSender.isClosed());
 
-    PowerMock.mockStatic(Transport.class);
-    Transport.send(EasyMock.anyObject(Message.class));
+    PowerMock.verifyAll();
+  }
 
+  @Test
+  public void testEmailAlerterSendsRepeatedAlertsOnceWithCount() throws Exception {
+    expect(emailAlertsConfigService.getEmailAlertsConfig())
+        .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
+    PowerMock.replayAll();
+
+    final EmailAlerter emailAlerter = createEmailAlerter(LONG_COALESCE_WINDOW, QUEUE_CAPACITY);
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.shutdown(); // ends the coalesce window now
+
+    final SentMail sentMail = mailSender.takeSentMail();
+    assertEquals(EMAIL_SUBJECT, sentMail.subject);
+    assertTrue(sentMail.msgContent.startsWith(EMAIL_MSG));
+    assertTrue(sentMail.msgContent.endsWith("This alert was raised 3 times."));
+    assertNull(mailSender.pollSentMail());
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testEmailAlerterSendsDifferentAlertsInOneDigest() throws Exception {
+    expect(emailAlertsConfigService.getEmailAlertsConfig())
+        .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
     PowerMock.replayAll();
 
-    final EmailAlerter emailAlerter = new EmailAlerter(emailAlertsConfigService);
+    final EmailAlerter emailAlerter = createEmailAlerter(LONG_COALESCE_WINDOW, QUEUE_CAPACITY);
     emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.sendMessage(OTHER_EMAIL_SUBJECT, OTHER_EMAIL_MSG);
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.shutdown(); // ends the coalesce window now
+
+    final SentMail sentMail = mailSender.takeSentMail();
+    assertEquals("BX-bot Email Alert digest: 3 alerts", sentMail.subject);
+    assertTrue(
+        sentMail.msgContent.contains("Alert 1 of 2 - raised 2 times: " + EMAIL_SUBJECT));
+    assertTrue(sentMail.msgContent.contains(EMAIL_MSG));
+    assertTrue(sentMail.msgContent.contains("Alert 2 of 2: " + OTHER_EMAIL_SUBJECT));
+    assertTrue(sentMail.msgContent.contains(OTHER_EMAIL_MSG));
+    assertNull(mailSender.pollSentMail());
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testEmailAlerterReportsAlertsDroppedWhenQueueFull() throws Exception {
+    expect(emailAlertsConfigService.getEmailAlertsConfig())
+        .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
+    PowerMock.replayAll();
+
+    final EmailAlerter emailAlerter = createEmailAlerter(NO_COALESCE_WINDOW, 1);
+    mailSender.blockSending();
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    assertTrue(mailSender.awaitSending());
+
+    emailAlerter.sendMessage(OTHER_EMAIL_SUBJECT, OTHER_EMAIL_MSG); // queued
+    emailAlerter.sendMessage(OTHER_EMAIL_SUBJECT, OTHER_EMAIL_MSG); // dropped
+    emailAlerter.sendMessage(OTHER_EMAIL_SUBJECT, OTHER_EMAIL_MSG); // dropped
+    mailSender.unblockSending();
+
+    assertEquals(EMAIL_SUBJECT, mailSender.takeSentMail().subject);
+    final SentMail sentMail = mailSender.takeSentMail();
+    assertEquals("BX-bot Email Alert digest: 3 alerts", sentMail.subject);
+    assertTrue(sentMail.msgContent.contains("Alert 1 of 1: " + OTHER_EMAIL_SUBJECT));
+    assertTrue(sentMail.msgContent.contains("2 more alert(s) were dropped"));
+
+    emailAlerter.shutdown();
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testEmailAlerterRetriesFailedSend() throws Exception {
+    expect(emailAlertsConfigService.getEmailAlertsConfig())
+        .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
+    PowerMock.replayAll();
+
+    final EmailAlerter emailAlerter = createEmailAlerter(NO_COALESCE_WINDOW, QUEUE_CAPACITY);
+    mailSender.failNextSends(MAX_SEND_ATTEMPTS - 1);
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+
+    assertEquals(EMAIL_SUBJECT, mailSender.takeSentMail().subject);
+    assertEquals(MAX_SEND_ATTEMPTS, mailSender.getSendAttempts());
+
+    emailAlerter.shutdown();
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testEmailAlerterGivesUpAfterMaxSendAttempts() throws Exception {
+    expect(emailAlertsConfigService.getEmailAlertsConfig())
+        .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
+    PowerMock.replayAll();
+
+    final EmailAlerter emailAlerter = createEmailAlerter(NO_COALESCE_WINDOW, QUEUE_CAPACITY);
+    mailSender.failNextSends(MAX_SEND_ATTEMPTS);
+    mailSender.blockSending();
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    assertTrue(mailSender.awaitSending());
+    emailAlerter.sendMessage(OTHER_EMAIL_SUBJECT, OTHER_EMAIL_MSG);
+    mailSender.unblockSending();
+
+    // The first alert is given up on and the next one still gets sent.
+    final SentMail sentMail = mailSender.takeSentMail();
+    assertFalse(sentMail.msgContent.contains(EMAIL_MSG));
+    assertTrue(sentMail.msgContent.contains(OTHER_EMAIL_MSG));
+    assertEquals(MAX_SEND_ATTEMPTS + 1, mailSender.getSendAttempts());
+
+    emailAlerter.shutdown();
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testEmailAlerterSendsQueuedAlertsOnShutdown() throws Exception {
+    expect(emailAlertsConfigService.getEmailAlertsConfig())
+        .andReturn(someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig());
+    PowerMock.replayAll();
+
+    final EmailAlerter emailAlerter = createEmailAlerter(LONG_COALESCE_WINDOW, QUEUE_CAPACITY);
+    emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.shutdown();
+
+    assertEquals(EMAIL_MSG, mailSender.pollSentMail().msgContent);
+    assertTrue(mailSender.isClosed());
 
     PowerMock.verifyAll();
   }
@@ -150,16 +332,23 @@ public class TestEmailAlerter {
    * <ol>
    *   <li>Uncomment @Test.
    *   <li>Change the [project-root]/config/email-alerts.yaml to use your account SMTP settings.
-   *   <li>Comment out @RunWith(PowerMockRunner.class) and @PrepareForTest(Transport.class) at top
-   *       of class - they mess with the SSLContext and the test will fail - no time to debug why
-   *       but related to: https://code.google.com/p/powermock/issues/detail?id=288
+   *   <li>Comment out @RunWith(PowerMockRunner.class) at top of class - it messes with the
+   *       SSLContext and the test will fail - no time to debug why but related to:
+   *       https://code.google.com/p/powermock/issues/detail?id=288
    *   <li>Run this test on its own.
    * </ol>
    */
   // @Test
   public void testEmailAlerterReallySendsMailSuccessfully() {
-    final EmailAlerter emailAlerter = new EmailAlerter(emailAlertsConfigService);
+    final EmailAlerter emailAlerter =
+        new EmailAlerter(
+            emailAlertsConfigService,
+            QUEUE_CAPACITY,
+            NO_COALESCE_WINDOW,
+            MAX_SEND_ATTEMPTS,
+            RETRY_BACKOFF_MILLIS);
     emailAlerter.sendMessage(EMAIL_SUBJECT, EMAIL_MSG);
+    emailAlerter.shutdown(); // waits for the alert to be sent
 
     // expect to send message - check your inbox!
   }
@@ -168,6 +357,20 @@ public class TestEmailAlerter {
   // Private utils
   // ------------------------------------------------------------------------
 
+  private EmailAlerter createEmailAlerter() {
+    return createEmailAlerter(NO_COALESCE_WINDOW, QUEUE_CAPACITY);
+  }
+
+  private EmailAlerter createEmailAlerter(long coalesceWindowMillis, int queueCapacity) {
+    return new EmailAlerter(
+        emailAlertsConfigService,
+        smtpConfig -> mailSender,
+        queueCapacity,
+        coalesceWindowMillis,
+        MAX_SEND_ATTEMPTS,
+        RETRY_BACKOFF_MILLIS);
+  }
+
   private static EmailAlertsConfig someEmailAlertsConfigWithAlertsEnabledAndSmtpConfig() {
     final SmtpConfig smtpConfig =
         new SmtpConfig(
@@ -201,4 +404,80 @@ public class TestEmailAlerter {
     emailAlertsConfig.setSmtpConfig(smtpConfig);
     return emailAlertsConfig;
   }
+
+  private static final class SentMail {
+
+    private final String subject;
+    private final String msgContent;
+
+    SentMail(String subject, String msgContent) {
+      this.subject = subject;
+      this.msgContent = msgContent;
+    }
+  }
+
+  /** Records the mail it is sent. Sends can be made to fail, or to wait until unblocked. */
+  private static final class RecordingMailSender implements MailSender {
+
+    private final BlockingQueue<SentMail> sentMails = new LinkedBlockingQueue<>();
+    private final AtomicInteger sendAttempts = new AtomicInteger();
+    private final AtomicInteger sendsToFail = new AtomicInteger();
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private volatile CountDownLatch sendAllowed = new CountDownLatch(0);
+    private volatile boolean closed;
+
+    @Override
+    public void send(String subject, String msgContent) throws MessagingException {
+      sendAttempts.incrementAndGet();
+      sending.countDown();
+      try {
+        sendAllowed.await(TEST_TIMEOUT_SECS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (sendsToFail.getAndDecrement() > 0) {
+        throw new MessagingException("Connection refused");
+      }
+      sentMails.add(new SentMail(subject, msgContent));
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    void blockSending() {
+      sendAllowed = new CountDownLatch(1);
+    }
+
+    void unblockSending() {
+      sendAllowed.countDown();
+    }
+
+    boolean awaitSending() throws InterruptedException {
+      return sending.await(TEST_TIMEOUT_SECS, TimeUnit.SECONDS);
+    }
+
+    void failNextSends(int count) {
+      sendsToFail.set(count);
+    }
+
+    int getSendAttempts() {
+      return sendAttempts.get();
+    }
+
+    SentMail takeSentMail() throws InterruptedException {
+      final SentMail sentMail = sentMails.poll(TEST_TIMEOUT_SECS, TimeUnit.SECONDS);
+      assertNotNull(sentMail);
+      return sentMail;
+    }
+
+    SentMail pollSentMail() {
+      return sentMails.poll();
+    }
+
+    boolean isClosed() {
+      return closed;
+    }
+  }
 }
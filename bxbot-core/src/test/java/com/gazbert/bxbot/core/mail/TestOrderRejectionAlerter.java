@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.mail;
+
+import static org.easymock.EasyMock.contains;
+import static org.easymock.EasyMock.eq;
+
+import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Order Rejection Alerter sends its Email Alerts as expected.
+ *
+ * @author gazbert
+ */
+public class TestOrderRejectionAlerter {
+
+  private static final String MARKET_ID = "btc_usd";
+  private static final String OTHER_MARKET_ID = "eth_usd";
+  private static final long ALERT_INTERVAL_MILLIS = 60 * 1000L;
+
+  private EmailAlerter emailAlerter;
+  private OrderRejectionAlerter orderRejectionAlerter;
+  private long now;
+
+  /** Creates the alerter with a mock Email Alerter for each test. */
+  @Before
+  public void setup() {
+    now = 1_000_000L;
+    emailAlerter = EasyMock.createMock(EmailAlerter.class);
+    final EngineConfig engineConfig = new EngineConfig();
+    engineConfig.setBotId("seti-alpha-3");
+    engineConfig.setBotName("The Pioneer");
+    orderRejectionAlerter =
+        new OrderRejectionAlerter(
+            emailAlerter, engineConfig, "Bitstamp", ALERT_INTERVAL_MILLIS, () -> now);
+  }
+
+  @Test
+  public void testOneAlertIsSentPerMarketPerInterval() {
+    emailAlerter.sendMessage(
+        eq(OrderRejectionAlerter.WARNING_EMAIL_ALERT_SUBJECT), contains("Rejected 1"));
+    emailAlerter.sendMessage(
+        eq(OrderRejectionAlerter.WARNING_EMAIL_ALERT_SUBJECT), contains("Rejected 2"));
+    emailAlerter.sendMessage(
+        eq(OrderRejectionAlerter.WARNING_EMAIL_ALERT_SUBJECT),
+        contains("2 more orders on market " + MARKET_ID + " were rejected since the last alert"));
+    EasyMock.replay(emailAlerter);
+
+    reject(MARKET_ID, "Rejected 1");
+    reject(OTHER_MARKET_ID, "Rejected 2");
+    now += ALERT_INTERVAL_MILLIS - 1;
+    reject(MARKET_ID, "Rejected 3");
+    reject(MARKET_ID, "Rejected 4");
+    now += 1;
+    reject(MARKET_ID, "Rejected 5");
+
+    EasyMock.verify(emailAlerter);
+  }
+
+  private void reject(String marketId, String reason) {
+    orderRejectionAlerter.orderRejected(
+        marketId, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN, reason);
+  }
+}
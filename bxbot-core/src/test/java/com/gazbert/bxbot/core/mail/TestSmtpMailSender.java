@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.mail;
+
+import com.gazbert.bxbot.domain.emailalerts.SmtpConfig;
+import javax.mail.MessagingException;
+import org.junit.Test;
+
+/**
+ * Tests the SMTP Mail Sender behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestSmtpMailSender {
+
+  private static final String SMTP_HOST = "localhost";
+  private static final int CLOSED_SMTP_PORT = 1;
+  private static final String ACCOUNT_USERNAME = "your.account.username@gmail.com";
+  private static final String ACCOUNT_PASSWORD = "le-password";
+  private static final String FROM_ADDRESS = "bxbot.alerts@gmail.com";
+  private static final String TO_ADDRESS = "some-destination@gmail.com";
+
+  @Test(expected = MessagingException.class)
+  public void testSendFailsWhenMailServerCannotBeReached() throws Exception {
+    final SmtpMailSender mailSender =
+        new SmtpMailSender(
+            new SmtpConfig(
+                SMTP_HOST,
+                CLOSED_SMTP_PORT,
+                ACCOUNT_USERNAME,
+                ACCOUNT_PASSWORD,
+                FROM_ADDRESS,
+                TO_ADDRESS));
+    try {
+      mailSender.send("Subject", "Content");
+    } finally {
+      mailSender.close();
+    }
+  }
+
+  @Test
+  public void testCloseWhenNeverConnected() {
+    final SmtpMailSender mailSender =
+        new SmtpMailSender(
+            new SmtpConfig(
+                SMTP_HOST,
+                CLOSED_SMTP_PORT,
+                ACCOUNT_USERNAME,
+                ACCOUNT_PASSWORD,
+                FROM_ADDRESS,
+                TO_ADDRESS));
+    mailSender.close();
+    mailSender.close();
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.trading.api.Candle;
+import com.gazbert.bxbot.trading.api.CandleTimeframe;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests the Candle Aggregator builds candles as expected.
+ *
+ * @author gazbert
+ */
+public class TestCandleAggregator {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final long ONE_MINUTE = TimeUnit.MINUTES.toMillis(1);
+  private static final long START_TIME = TimeUnit.DAYS.toMillis(18000);
+
+  @Test
+  public void testUpdatesInSameTimeframeBuildOneCandle() {
+    final CandleAggregator aggregator = new CandleAggregator();
+    aggregator.update(MARKET_ID, START_TIME + 1000, new BigDecimal("100"), new BigDecimal("1"));
+    aggregator.update(MARKET_ID, START_TIME + 2000, new BigDecimal("105"), new BigDecimal("2"));
+    aggregator.update(MARKET_ID, START_TIME + 3000, new BigDecimal("95"), BigDecimal.ZERO);
+    aggregator.update(MARKET_ID, START_TIME + 4000, new BigDecimal("101"), null);
+
+    final List<Candle> candles = aggregator.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 10);
+    assertEquals(1, candles.size());
+    final Candle candle = candles.get(0);
+    assertEquals(START_TIME, candle.getOpenTime().getTime());
+    assertEquals(0, new BigDecimal("100").compareTo(candle.getOpen()));
+    assertEquals(0, new BigDecimal("105").compareTo(candle.getHigh()));
+    assertEquals(0, new BigDecimal("95").compareTo(candle.getLow()));
+    assertEquals(0, new BigDecimal("101").compareTo(candle.getClose()));
+    assertEquals(0, new BigDecimal("3").compareTo(candle.getVolume()));
+  }
+
+  @Test
+  public void testCandlesAreBuiltForEveryTimeframe() {
+    final CandleAggregator aggregator = new CandleAggregator();
+    for (int minute = 0; minute < 10; minute++) {
+      aggregator.update(
+          MARKET_ID, START_TIME + minute * ONE_MINUTE, BigDecimal.valueOf(minute), BigDecimal.ONE);
+    }
+
+    assertEquals(10, aggregator.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 100).size());
+    final List<Candle> fiveMinuteCandles =
+        aggregator.getCandles(MARKET_ID, CandleTimeframe.FIVE_MINUTES, 100);
+    assertEquals(2, fiveMinuteCandles.size());
+    assertEquals(0, BigDecimal.valueOf(5).compareTo(fiveMinuteCandles.get(1).getOpen()));
+    assertEquals(0, BigDecimal.valueOf(9).compareTo(fiveMinuteCandles.get(1).getClose()));
+    assertEquals(0, BigDecimal.valueOf(5).compareTo(fiveMinuteCandles.get(1).getVolume()));
+    assertEquals(1, aggregator.getCandles(MARKET_ID, CandleTimeframe.ONE_HOUR, 100).size());
+  }
+
+  @Test
+  public void testGapsAreFilledWithFlatCandles() {
+    final CandleAggregator aggregator = new CandleAggregator();
+    aggregator.update(MARKET_ID, START_TIME, new BigDecimal("100"), BigDecimal.ONE);
+    aggregator.update(MARKET_ID, START_TIME + 3 * ONE_MINUTE, new BigDecimal("110"), BigDecimal.ONE);
+
+    final List<Candle> candles = aggregator.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 10);
+    assertEquals(4, candles.size());
+    assertEquals(START_TIME + ONE_MINUTE, candles.get(1).getOpenTime().getTime());
+    assertEquals(0, new BigDecimal("100").compareTo(candles.get(1).getClose()));
+    assertEquals(0, BigDecimal.ZERO.compareTo(candles.get(2).getVolume()));
+    assertEquals(0, new BigDecimal("110").compareTo(candles.get(3).getOpen()));
+  }
+
+  @Test
+  public void testHistoryIsBoundedAndNewestCandlesReturned() {
+    final CandleAggregator aggregator = new CandleAggregator(3);
+    for (int minute = 0; minute < 5; minute++) {
+      aggregator.update(
+          MARKET_ID, START_TIME + minute * ONE_MINUTE, BigDecimal.valueOf(minute), BigDecimal.ONE);
+    }
+    // Late update for an old candle is ignored.
+    aggregator.update(MARKET_ID, START_TIME, BigDecimal.TEN, BigDecimal.ONE);
+
+    final List<Candle> candles = aggregator.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 10);
+    assertEquals(3, candles.size());
+    assertEquals(0, BigDecimal.valueOf(2).compareTo(candles.get(0).getOpen()));
+    assertEquals(0, BigDecimal.valueOf(4).compareTo(candles.get(2).getOpen()));
+
+    final List<Candle> lastTwo = aggregator.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 2);
+    assertEquals(0, BigDecimal.valueOf(3).compareTo(lastTwo.get(0).getOpen()));
+  }
+
+  @Test
+  public void testUnknownMarketHasNoCandles() {
+    final CandleAggregator aggregator = new CandleAggregator();
+    assertTrue(aggregator.getCandles("unknown", CandleTimeframe.ONE_DAY, 10).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidHistorySizeIsRejected() {
+    new CandleAggregator(0);
+  }
+}
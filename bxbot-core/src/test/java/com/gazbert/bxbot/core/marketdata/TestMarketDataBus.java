@@ -0,0 +1,224 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Tests the Market Data Bus delivers events as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketDataBus {
+
+  private static final String MARKET_ID = "btcusd";
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBufferSizeMustBePowerOfTwo() {
+    new MarketDataBus(1000);
+  }
+
+  @Test
+  public void testEventsAreDeliveredInBatches() {
+    final MarketDataBus bus = new MarketDataBus(8);
+    final List<String> received = new ArrayList<>();
+    final MarketDataEventProcessor processor =
+        bus.subscribe(
+            (event, sequence, endOfBatch) ->
+                received.add(event.getType() + ":" + sequence + ":" + endOfBatch));
+
+    assertEquals(0, processor.poll());
+
+    bus.publishTicker(MARKET_ID, 1L, BigDecimal.TEN, BigDecimal.ONE, BigDecimal.TEN, null);
+    bus.publishOrderBook(MARKET_ID, 2L, BigDecimal.ONE, BigDecimal.TEN);
+    bus.publishFill(MARKET_ID, 3L, OrderType.BUY, BigDecimal.TEN, BigDecimal.ONE);
+
+    assertEquals(3, processor.poll());
+    assertEquals(0, processor.poll());
+    assertEquals(
+        Arrays.asList("TICKER:0:false", "ORDER_BOOK:1:false", "FILL:2:true"), received);
+  }
+
+  @Test
+  public void testEventFieldsAreResetWhenSlotIsReused() {
+    final MarketDataBus bus = new MarketDataBus(1);
+    final List<MarketDataEvent> events = new ArrayList<>();
+    final MarketDataEventProcessor processor =
+        bus.subscribe(
+            (event, sequence, endOfBatch) -> {
+              events.add(event);
+              if (event.getType() == MarketDataEvent.Type.ORDER_BOOK) {
+                assertNull(event.getPrice());
+                assertEquals(BigDecimal.ONE, event.getBestBid());
+              } else {
+                assertEquals(BigDecimal.TEN, event.getPrice());
+                assertEquals(OrderType.SELL, event.getOrderType());
+                assertNull(event.getBestBid());
+              }
+            });
+
+    bus.publishOrderBook(MARKET_ID, 1L, BigDecimal.ONE, BigDecimal.TEN);
+    assertEquals(1, processor.poll());
+    bus.publishFill(MARKET_ID, 2L, OrderType.SELL, BigDecimal.TEN, BigDecimal.ONE);
+    assertEquals(1, processor.poll());
+
+    // Same pre-allocated event both times.
+    assertSame(events.get(0), events.get(1));
+  }
+
+  @Test
+  public void testSubscriberOnlySeesEventsPublishedAfterSubscribing() {
+    final MarketDataBus bus = new MarketDataBus(8);
+    bus.publishTicker(MARKET_ID, 1L, BigDecimal.ONE, null, null, null);
+
+    final AtomicLong lastSequence = new AtomicLong(-1);
+    final MarketDataEventProcessor processor =
+        bus.subscribe((event, sequence, endOfBatch) -> lastSequence.set(sequence));
+    assertEquals(0, processor.poll());
+
+    bus.publishTicker(MARKET_ID, 2L, BigDecimal.ONE, null, null, null);
+    assertEquals(1, processor.poll());
+    assertEquals(1, lastSequence.get());
+  }
+
+  @Test
+  public void testHandlerErrorsDoNotStopTheBus() {
+    final MarketDataBus bus = new MarketDataBus(8);
+    final MarketDataEventProcessor processor =
+        bus.subscribe(
+            (event, sequence, endOfBatch) -> {
+              throw new IllegalStateException("bad handler");
+            });
+    bus.publishTicker(MARKET_ID, 1L, BigDecimal.ONE, null, null, null);
+    bus.publishTicker(MARKET_ID, 2L, BigDecimal.ONE, null, null, null);
+    assertEquals(2, processor.poll());
+  }
+
+  @Test(timeout = 10000)
+  public void testWriterWaitsForSlowestConsumer() throws Exception {
+    final MarketDataBus bus = new MarketDataBus(4);
+    final MarketDataEventProcessor fastProcessor =
+        bus.subscribe((event, sequence, endOfBatch) -> {});
+    final MarketDataEventProcessor slowProcessor =
+        bus.subscribe((event, sequence, endOfBatch) -> {});
+    final Thread fastThread = new Thread(fastProcessor);
+    fastThread.start();
+
+    final CountDownLatch published = new CountDownLatch(1);
+    final Thread writer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < 6; i++) {
+                bus.publishTicker(MARKET_ID, i, BigDecimal.ONE, null, null, null);
+              }
+              published.countDown();
+            });
+    writer.start();
+
+    // Writer is a full ring ahead of the slow consumer, so it has to wait.
+    assertFalse(published.await(200, TimeUnit.MILLISECONDS));
+    assertEquals(3, bus.getCursor());
+
+    assertEquals(4, slowProcessor.poll());
+    assertTrue(published.await(5, TimeUnit.SECONDS));
+    assertEquals(2, slowProcessor.poll());
+
+    fastProcessor.halt();
+    fastThread.join();
+  }
+
+  @Test(timeout = 10000)
+  public void testHaltedConsumerNoLongerHoldsUpWriter() {
+    final MarketDataBus bus = new MarketDataBus(2);
+    final MarketDataEventProcessor processor =
+        bus.subscribe((event, sequence, endOfBatch) -> {});
+    processor.halt();
+    for (int i = 0; i < 10; i++) {
+      bus.publishTicker(MARKET_ID, i, BigDecimal.ONE, null, null, null);
+    }
+    assertEquals(9, bus.getCursor());
+  }
+
+  @Test(timeout = 10000)
+  public void testWriterDropsEventsWhenConsumerHasStalled() {
+    final MarketDataBus bus = new MarketDataBus(2, 50L);
+    final MarketDataEventProcessor stalledProcessor =
+        bus.subscribe((event, sequence, endOfBatch) -> {});
+
+    for (int i = 0; i < 5; i++) {
+      bus.publishTicker(MARKET_ID, i, BigDecimal.ONE, null, null, null);
+    }
+    assertEquals(1, bus.getCursor());
+    assertEquals(3, bus.getDroppedEventCount());
+
+    // Once the consumer catches up, events are published again.
+    assertEquals(2, stalledProcessor.poll());
+    bus.publishTicker(MARKET_ID, 5L, BigDecimal.ONE, null, null, null);
+    assertEquals(2, bus.getCursor());
+    assertEquals(3, bus.getDroppedEventCount());
+  }
+
+  @Test(timeout = 10000)
+  public void testProcessorHaltedBeforeItIsRunDoesNotRun() {
+    final MarketDataBus bus = new MarketDataBus(8);
+    final MarketDataEventProcessor processor =
+        bus.subscribe((event, sequence, endOfBatch) -> {});
+    processor.halt();
+
+    // Returns straight away rather than waiting for events forever.
+    processor.run();
+  }
+
+  @Test(timeout = 10000)
+  public void testParkedProcessorIsWokenByPublish() throws Exception {
+    final MarketDataBus bus = new MarketDataBus(8);
+    final CountDownLatch received = new CountDownLatch(1);
+    final MarketDataEventProcessor processor =
+        bus.subscribe((event, sequence, endOfBatch) -> received.countDown());
+    final Thread processorThread = new Thread(processor);
+    processorThread.start();
+
+    // Give the processor time to park.
+    Thread.sleep(100);
+    bus.publishTicker(MARKET_ID, 1L, BigDecimal.ONE, null, null, null);
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+
+    processor.halt();
+    processorThread.join();
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.marketdata;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.Candle;
+import com.gazbert.bxbot.trading.api.CandleTimeframe;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.Ticker;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Market Data Exchange Adapter feeds the Candle Aggregator as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketDataExchangeAdapter {
+
+  private static final String MARKET_ID = "btcusd";
+
+  private ExchangeAdapter exchangeAdapter;
+  private MarketDataExchangeAdapter marketDataExchangeAdapter;
+
+  @Before
+  public void setup() {
+    exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    marketDataExchangeAdapter =
+        new MarketDataExchangeAdapter(exchangeAdapter, new CandleAggregator());
+  }
+
+  @Test
+  public void testMarketIsOnlyPolledOnceCandlesAreRequested() throws Exception {
+    expect(exchangeAdapter.getTicker(MARKET_ID))
+        .andReturn(ticker(new BigDecimal("100"), new BigDecimal("1000")));
+    expect(exchangeAdapter.getTicker(MARKET_ID))
+        .andReturn(ticker(new BigDecimal("102"), new BigDecimal("1005")));
+    EasyMock.replay(exchangeAdapter);
+
+    // Nothing subscribed yet, so no exchange calls.
+    marketDataExchangeAdapter.pollSubscribedMarkets();
+
+    List<Candle> candles =
+        marketDataExchangeAdapter.getCandles(MARKET_ID, CandleTimeframe.ONE_DAY, 5);
+    assertEquals(1, candles.size());
+    assertEquals(0, new BigDecimal("100").compareTo(candles.get(0).getClose()));
+
+    marketDataExchangeAdapter.pollSubscribedMarkets();
+    candles = marketDataExchangeAdapter.getCandles(MARKET_ID, CandleTimeframe.ONE_DAY, 5);
+    assertEquals(0, new BigDecimal("102").compareTo(candles.get(0).getClose()));
+    assertEquals(0, new BigDecimal("5").compareTo(candles.get(0).getVolume()));
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testLatestPriceIsUsedWhenAdapterHasNoTicker() throws Exception {
+    expect(exchangeAdapter.getTicker(MARKET_ID)).andReturn(ticker(null, null));
+    expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(new BigDecimal("99"));
+    EasyMock.replay(exchangeAdapter);
+
+    final List<Candle> candles =
+        marketDataExchangeAdapter.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 5);
+    assertEquals(1, candles.size());
+    assertEquals(0, new BigDecimal("99").compareTo(candles.get(0).getClose()));
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testPollErrorsAreNotPropagated() throws Exception {
+    expect(exchangeAdapter.getTicker(MARKET_ID))
+        .andReturn(ticker(new BigDecimal("100"), null));
+    expect(exchangeAdapter.getTicker(MARKET_ID))
+        .andThrow(new ExchangeNetworkException("timeout"));
+    EasyMock.replay(exchangeAdapter);
+
+    marketDataExchangeAdapter.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 5);
+    marketDataExchangeAdapter.pollSubscribedMarkets();
+    assertTrue(
+        marketDataExchangeAdapter.getCandles(MARKET_ID, CandleTimeframe.ONE_MINUTE, 5).size() > 0);
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testSharedMarketOrderBookIsFetchedOncePerTradeCycle() throws Exception {
+    final MarketOrderBook firstOrderBook = EasyMock.createMock(MarketOrderBook.class);
+    final MarketOrderBook secondOrderBook = EasyMock.createMock(MarketOrderBook.class);
+    expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(firstOrderBook);
+    expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(secondOrderBook);
+    EasyMock.replay(exchangeAdapter);
+
+    marketDataExchangeAdapter.setSharedMarkets(Collections.singletonList(MARKET_ID));
+    marketDataExchangeAdapter.startTradeCycle();
+    assertSame(firstOrderBook, marketDataExchangeAdapter.getMarketOrders(MARKET_ID));
+    assertSame(firstOrderBook, marketDataExchangeAdapter.getMarketOrders(MARKET_ID));
+
+    marketDataExchangeAdapter.startTradeCycle();
+    assertSame(secondOrderBook, marketDataExchangeAdapter.getMarketOrders(MARKET_ID));
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testUnsharedMarketOrderBookIsNotCached() throws Exception {
+    final MarketOrderBook orderBook = EasyMock.createMock(MarketOrderBook.class);
+    expect(exchangeAdapter.getMarketOrders(MARKET_ID)).andReturn(orderBook).times(2);
+    EasyMock.replay(exchangeAdapter);
+
+    marketDataExchangeAdapter.startTradeCycle();
+    marketDataExchangeAdapter.getMarketOrders(MARKET_ID);
+    marketDataExchangeAdapter.getMarketOrders(MARKET_ID);
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testSharedMarketTickerIsFetchedOncePerTradeCycle() throws Exception {
+    final Ticker ticker = ticker(new BigDecimal("100"), new BigDecimal("1000"));
+    expect(exchangeAdapter.getTicker(MARKET_ID)).andReturn(ticker);
+    EasyMock.replay(exchangeAdapter);
+
+    marketDataExchangeAdapter.setSharedMarkets(Collections.singletonList(MARKET_ID));
+    marketDataExchangeAdapter.startTradeCycle();
+    assertSame(ticker, marketDataExchangeAdapter.getTicker(MARKET_ID));
+    assertSame(ticker, marketDataExchangeAdapter.getTicker(MARKET_ID));
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  private static Ticker ticker(BigDecimal last, BigDecimal volume) {
+    final Ticker ticker = EasyMock.createMock(Ticker.class);
+    expect(ticker.getLast()).andReturn(last).anyTimes();
+    expect(ticker.getVolume()).andReturn(volume).anyTimes();
+    EasyMock.replay(ticker);
+    return ticker;
+  }
+}
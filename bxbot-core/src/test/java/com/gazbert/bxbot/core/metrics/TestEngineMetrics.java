@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.core.order.OrderManager;
+import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Engine Metrics are recorded as expected.
+ *
+ * @author gazbert
+ */
+public class TestEngineMetrics {
+
+  private static final String MARKET_ID = "btc_usd";
+  private static final String STRATEGY_ID = "scalper";
+  private static final String EMERGENCY_STOP_CURRENCY = "BTC";
+  private static final BigDecimal EMERGENCY_STOP_BALANCE = new BigDecimal("1.5");
+  private static final int TRADE_CYCLE_INTERVAL_SECS = 60;
+  private static final int QUEUED_ALERT_COUNT = 3;
+
+  private SimpleMeterRegistry meterRegistry;
+  private EmailAlerter emailAlerter;
+  private EngineMetrics engineMetrics;
+
+  /** Creates the metrics with a fresh registry for each test. */
+  @Before
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    emailAlerter = EasyMock.createMock(EmailAlerter.class);
+    expect(emailAlerter.getQueuedAlertCount()).andStubReturn(QUEUED_ALERT_COUNT);
+    EasyMock.replay(emailAlerter);
+
+    final EngineConfig engineConfig = new EngineConfig();
+    engineConfig.setEmergencyStopCurrency(EMERGENCY_STOP_CURRENCY);
+    engineConfig.setEmergencyStopBalance(EMERGENCY_STOP_BALANCE);
+    engineConfig.setTradeCycleInterval(TRADE_CYCLE_INTERVAL_SECS);
+    engineMetrics = new EngineMetrics(meterRegistry, engineConfig, emailAlerter);
+  }
+
+  @Test
+  public void testCycleDurationsAndOverrunsAreRecorded() {
+    engineMetrics.cycleCompleted(1000, "COMPLETED");
+    engineMetrics.cycleCompleted(2000, "COMPLETED");
+    engineMetrics.cycleCompleted(
+        TimeUnit.SECONDS.toMillis(TRADE_CYCLE_INTERVAL_SECS + 1), "COMPLETED");
+    engineMetrics.cycleCompleted(500, "NETWORK_ERROR");
+
+    final Timer completedCycles =
+        meterRegistry
+            .get(EngineMetrics.CYCLE_METRIC_NAME)
+            .tag(EngineMetrics.OUTCOME_TAG, "COMPLETED")
+            .timer();
+    assertEquals(3, completedCycles.count());
+    assertEquals(64, completedCycles.totalTime(TimeUnit.SECONDS), 0.001);
+    assertEquals(
+        1,
+        meterRegistry
+            .get(EngineMetrics.CYCLE_METRIC_NAME)
+            .tag(EngineMetrics.OUTCOME_TAG, "NETWORK_ERROR")
+            .timer()
+            .count());
+    assertEquals(
+        1, meterRegistry.get(EngineMetrics.CYCLE_OVERRUNS_METRIC_NAME).counter().count(), 0);
+  }
+
+  @Test
+  public void testStrategyExecuteTimerIsTaggedWithStrategyAndMarket() {
+    final Timer timer = engineMetrics.strategyExecuteTimer(STRATEGY_ID, MARKET_ID);
+    timer.record(5, TimeUnit.MILLISECONDS);
+
+    assertEquals(
+        1,
+        meterRegistry
+            .get(EngineMetrics.STRATEGY_EXECUTE_METRIC_NAME)
+            .tag(EngineMetrics.STRATEGY_TAG, STRATEGY_ID)
+            .tag(EngineMetrics.MARKET_TAG, MARKET_ID)
+            .timer()
+            .count());
+  }
+
+  @Test
+  public void testExceptionsAreCountedByType() {
+    engineMetrics.exceptionThrown(new TradingApiException("Exchange blew up"));
+    engineMetrics.exceptionThrown(new TradingApiException("Exchange blew up again"));
+    engineMetrics.exceptionThrown(new IllegalStateException("Bug"));
+
+    assertEquals(2, exceptionCount("TradingApiException"), 0);
+    assertEquals(1, exceptionCount("IllegalStateException"), 0);
+  }
+
+  @Test
+  public void testOrdersAreCountedByMarketAndEvent() throws Exception {
+    final OpenOrder partiallyFilledOrder = EasyMock.createMock(OpenOrder.class);
+    expect(partiallyFilledOrder.getId()).andStubReturn("3");
+    expect(partiallyFilledOrder.getQuantity()).andStubReturn(BigDecimal.ONE);
+    final TradingApi tradingApi = EasyMock.createMock(TradingApi.class);
+    expect(tradingApi.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(partiallyFilledOrder));
+    EasyMock.replay(tradingApi, partiallyFilledOrder);
+
+    final OrderManager orderManager = new OrderManager(tradingApi);
+    orderManager.addOrderListener(engineMetrics);
+    orderManager.orderCreated("1", MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN);
+    orderManager.orderCreated("2", MARKET_ID, OrderType.SELL, BigDecimal.ONE, BigDecimal.TEN);
+    orderManager.orderCreated("3", MARKET_ID, OrderType.BUY, new BigDecimal("2"), BigDecimal.TEN);
+    orderManager.orderCancelled("1", MARKET_ID, true);
+    orderManager.reconcile(MARKET_ID); // order 2 has gone, order 3 is half filled
+    orderManager.orderRejected(
+        MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN, "Breaches max notional");
+
+    assertEquals(3, orderCount(EngineMetrics.ORDER_PLACED), 0);
+    assertEquals(1, orderCount(EngineMetrics.ORDER_CANCELLED), 0);
+    assertEquals(1, orderCount(EngineMetrics.ORDER_FILLED), 0);
+    assertEquals(1, orderCount(EngineMetrics.ORDER_GONE), 0);
+    assertEquals(1, orderCount(EngineMetrics.ORDER_REJECTED), 0);
+    EasyMock.verify(tradingApi, partiallyFilledOrder);
+  }
+
+  @Test
+  public void testGaugesReportHeadroomAndAlertQueueUntilClosed() {
+    assertTrue(Double.isNaN(headroomGauge()));
+
+    engineMetrics.emergencyStopBalanceChecked(new BigDecimal("2.0"));
+    assertEquals(0.5, headroomGauge(), 0.000001);
+    assertEquals(
+        QUEUED_ALERT_COUNT,
+        meterRegistry.get(EngineMetrics.ALERT_QUEUE_SIZE_METRIC_NAME).gauge().value(),
+        0);
+
+    engineMetrics.close();
+    assertNull(meterRegistry.find(EngineMetrics.EMERGENCY_STOP_HEADROOM_METRIC_NAME).gauge());
+    assertNull(meterRegistry.find(EngineMetrics.ALERT_QUEUE_SIZE_METRIC_NAME).gauge());
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private double exceptionCount(String exceptionType) {
+    return meterRegistry
+        .get(EngineMetrics.EXCEPTIONS_METRIC_NAME)
+        .tag(EngineMetrics.EXCEPTION_TAG, exceptionType)
+        .counter()
+        .count();
+  }
+
+  private double orderCount(String event) {
+    return meterRegistry
+        .get(EngineMetrics.ORDERS_METRIC_NAME)
+        .tag(EngineMetrics.MARKET_TAG, MARKET_ID)
+        .tag(EngineMetrics.ORDER_EVENT_TAG, event)
+        .counter()
+        .count();
+  }
+
+  private double headroomGauge() {
+    return meterRegistry
+        .get(EngineMetrics.EMERGENCY_STOP_HEADROOM_METRIC_NAME)
+        .tag(EngineMetrics.CURRENCY_TAG, EMERGENCY_STOP_CURRENCY)
+        .gauge()
+        .value();
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.metrics;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Metered Exchange Adapter records Trading API calls as expected.
+ *
+ * @author gazbert
+ */
+public class TestMeteredExchangeAdapter {
+
+  private static final String MARKET_ID = "btcusd";
+
+  private ExchangeAdapter exchangeAdapter;
+  private SimpleMeterRegistry meterRegistry;
+
+  @Before
+  public void setup() {
+    exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  public void testSuccessfulCallIsRecorded() throws Exception {
+    expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(new BigDecimal("100.0"));
+    expect(exchangeAdapter.getLatestMarketPrice(MARKET_ID)).andReturn(new BigDecimal("101.0"));
+    EasyMock.replay(exchangeAdapter);
+
+    final MeteredExchangeAdapter meteredExchangeAdapter =
+        new MeteredExchangeAdapter(exchangeAdapter, meterRegistry);
+    assertEquals(new BigDecimal("100.0"), meteredExchangeAdapter.getLatestMarketPrice(MARKET_ID));
+    assertEquals(new BigDecimal("101.0"), meteredExchangeAdapter.getLatestMarketPrice(MARKET_ID));
+
+    final Timer timer = findTimer("getLatestMarketPrice", MeteredExchangeAdapter.OUTCOME_SUCCESS);
+    assertEquals(2, timer.count());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testNetworkErrorIsRecordedAndRethrown() throws Exception {
+    final ExchangeNetworkException exception = new ExchangeNetworkException("timeout");
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN))
+        .andThrow(exception);
+    EasyMock.replay(exchangeAdapter);
+
+    final MeteredExchangeAdapter meteredExchangeAdapter =
+        new MeteredExchangeAdapter(exchangeAdapter, meterRegistry);
+    try {
+      meteredExchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN);
+      fail("Expected ExchangeNetworkException to be rethrown");
+    } catch (ExchangeNetworkException e) {
+      assertSame(exception, e);
+    }
+
+    assertEquals(
+        1, findTimer("createOrder", MeteredExchangeAdapter.OUTCOME_NETWORK_ERROR).count());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testTradingApiErrorIsRecordedAndRethrown() throws Exception {
+    final TradingApiException exception = new TradingApiException("order rejected");
+    expect(exchangeAdapter.cancelOrder("order-1", MARKET_ID)).andThrow(exception);
+    EasyMock.replay(exchangeAdapter);
+
+    final MeteredExchangeAdapter meteredExchangeAdapter =
+        new MeteredExchangeAdapter(exchangeAdapter, meterRegistry);
+    try {
+      meteredExchangeAdapter.cancelOrder("order-1", MARKET_ID);
+      fail("Expected TradingApiException to be rethrown");
+    } catch (TradingApiException e) {
+      assertSame(exception, e);
+    }
+
+    assertEquals(1, findTimer("cancelOrder", MeteredExchangeAdapter.OUTCOME_API_ERROR).count());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testUnexpectedErrorIsRecordedAndRethrown() throws Exception {
+    expect(exchangeAdapter.getBalanceInfo()).andThrow(new IllegalStateException("boom"));
+    EasyMock.replay(exchangeAdapter);
+
+    final MeteredExchangeAdapter meteredExchangeAdapter =
+        new MeteredExchangeAdapter(exchangeAdapter, meterRegistry);
+    try {
+      meteredExchangeAdapter.getBalanceInfo();
+      fail("Expected IllegalStateException to be rethrown");
+    } catch (IllegalStateException e) {
+      assertEquals("boom", e.getMessage());
+    }
+
+    assertEquals(
+        1, findTimer("getBalanceInfo", MeteredExchangeAdapter.OUTCOME_UNEXPECTED_ERROR).count());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testNonTradingCallsAreDelegatedWithoutMetrics() {
+    expect(exchangeAdapter.getImplName()).andReturn("Dummy Exchange");
+    EasyMock.replay(exchangeAdapter);
+
+    final MeteredExchangeAdapter meteredExchangeAdapter =
+        new MeteredExchangeAdapter(exchangeAdapter, meterRegistry);
+    assertEquals("Dummy Exchange", meteredExchangeAdapter.getImplName());
+    assertSame(exchangeAdapter, meteredExchangeAdapter.getDelegate());
+    assertEquals(0, meterRegistry.getMeters().size());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  private Timer findTimer(String apiMethod, String outcome) {
+    final Timer timer =
+        meterRegistry
+            .find(MeteredExchangeAdapter.TRADING_API_CALLS_METRIC_NAME)
+            .tag(MeteredExchangeAdapter.API_METHOD_TAG, apiMethod)
+            .tag(MeteredExchangeAdapter.OUTCOME_TAG, outcome)
+            .timer();
+    assertNotNull(timer);
+    return timer;
+  }
+}
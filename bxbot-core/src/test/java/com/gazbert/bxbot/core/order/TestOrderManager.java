@@ -0,0 +1,343 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.order;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
+import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Order Manager tracks orders and reconciles them with the exchange as expected.
+ *
+ * @author gazbert
+ */
+public class TestOrderManager {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final String ORDER_ID = "order-1";
+  private static final String OTHER_ORDER_ID = "order-2";
+  private static final BigDecimal PRICE = new BigDecimal("100.00");
+  private static final BigDecimal QUANTITY = new BigDecimal("2.0");
+
+  private ExchangeAdapter exchangeAdapter;
+  private OrderManager orderManager;
+  private OrderManagedExchangeAdapter orderManagedExchangeAdapter;
+
+  @Before
+  public void setup() {
+    exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+    orderManager = new OrderManager(exchangeAdapter);
+    orderManagedExchangeAdapter = new OrderManagedExchangeAdapter(exchangeAdapter, orderManager);
+  }
+
+  @Test
+  public void testCreatedOrderIsTrackedAndOpenOrdersFetchedOncePerCycle() throws Exception {
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE))
+        .andReturn(ORDER_ID);
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(exchangeOrder(ORDER_ID, QUANTITY)));
+    EasyMock.replay(exchangeAdapter);
+
+    assertEquals(
+        ORDER_ID, orderManagedExchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE));
+    orderManager.startTradeCycle();
+
+    assertTrue(orderManager.isOrderOpen(ORDER_ID));
+    final List<OpenOrder> openOrders = orderManagedExchangeAdapter.getYourOpenOrders(MARKET_ID);
+    assertEquals(1, openOrders.size());
+    assertEquals(ORDER_ID, openOrders.get(0).getId());
+    assertTrue(orderManager.isOrderOpen(ORDER_ID));
+    assertEquals(TrackedOrder.Status.OPEN, orderManager.getOrder(ORDER_ID).getStatus());
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOrderMissingFromExchangeIsGoneAndNotFilled() throws Exception {
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE))
+        .andReturn(ORDER_ID);
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+    EasyMock.replay(exchangeAdapter);
+
+    final List<OrderFill> fills = new ArrayList<>();
+    orderManager.addOrderListener(fillCollector(fills));
+    orderManagedExchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE);
+    orderManager.startTradeCycle();
+
+    assertFalse(orderManager.isOrderOpen(ORDER_ID));
+    assertTrue(orderManagedExchangeAdapter.getYourOpenOrders(MARKET_ID).isEmpty());
+    assertEquals(TrackedOrder.Status.GONE, orderManager.getOrder(ORDER_ID).getStatus());
+    assertTrue(fills.isEmpty());
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testPartialFillsUpdateRemainingQuantityAndReportFilledDelta() throws Exception {
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE))
+        .andReturn(ORDER_ID);
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(exchangeOrder(ORDER_ID, new BigDecimal("1.5"))));
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(exchangeOrder(ORDER_ID, new BigDecimal("0.5"))));
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(exchangeOrder(ORDER_ID, new BigDecimal("0.5"))));
+    EasyMock.replay(exchangeAdapter);
+
+    final List<OrderFill> fills = new ArrayList<>();
+    orderManager.addOrderListener(fillCollector(fills));
+    orderManagedExchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    for (int cycle = 0; cycle < 3; cycle++) {
+      orderManager.startTradeCycle();
+      assertTrue(orderManager.isOrderOpen(ORDER_ID));
+    }
+
+    final TrackedOrder order = orderManager.getOrder(ORDER_ID);
+    assertEquals(TrackedOrder.Status.PARTIALLY_FILLED, order.getStatus());
+    assertEquals(new BigDecimal("0.5"), order.getQuantity());
+    assertEquals(QUANTITY, order.getOriginalQuantity());
+
+    assertEquals(2, fills.size());
+    assertEquals(0, new BigDecimal("0.5").compareTo(fills.get(0).getQuantity()));
+    assertEquals(0, BigDecimal.ONE.compareTo(fills.get(1).getQuantity()));
+    assertEquals(ORDER_ID, fills.get(1).getOrderId());
+    assertEquals(OrderType.BUY, fills.get(1).getOrderType());
+    assertEquals(PRICE, fills.get(1).getPrice());
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testFillsComeFromTradeHistoryWhenExchangeSupportsIt() throws Exception {
+    expect(exchangeAdapter.getMyTrades(MARKET_ID, null))
+        .andReturn(tradeHistory("10", trade("old-order", "5", "1.0")));
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE))
+        .andReturn(ORDER_ID);
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(exchangeOrder(ORDER_ID, new BigDecimal("1.5"))));
+    expect(exchangeAdapter.getMyTrades(MARKET_ID, "10"))
+        .andReturn(tradeHistory("11", trade(ORDER_ID, "0.5", "0.01")));
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+    expect(exchangeAdapter.getMyTrades(MARKET_ID, "11"))
+        .andReturn(
+            tradeHistory("13", trade(ORDER_ID, "1.0", "0.02"), trade(ORDER_ID, "0.5", "0.01")));
+    EasyMock.replay(exchangeAdapter);
+
+    final List<OrderFill> fills = new ArrayList<>();
+    orderManager.addOrderListener(fillCollector(fills));
+    orderManager.startTradeHistory(MARKET_ID, null);
+    orderManagedExchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    orderManager.startTradeCycle();
+    assertTrue(orderManager.isOrderOpen(ORDER_ID));
+    assertEquals(1, fills.size());
+    orderManager.startTradeCycle();
+    assertFalse(orderManager.isOrderOpen(ORDER_ID));
+
+    // Trades from before the bot started are not fills; the rest are, with their fees.
+    assertEquals(3, fills.size());
+    assertEquals(0, new BigDecimal("0.02").compareTo(fills.get(1).getFee()));
+    assertEquals("11", fills.get(0).getTradeCursor());
+    assertNull(fills.get(1).getTradeCursor());
+    assertEquals("13", fills.get(2).getTradeCursor());
+    assertEquals(TrackedOrder.Status.FILLED, orderManager.getOrder(ORDER_ID).getStatus());
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOpenOrdersAreUsedForFillsWhenExchangeHasNoTradeHistory() throws Exception {
+    expect(exchangeAdapter.getMyTrades(MARKET_ID, null))
+        .andThrow(new TradingApiException("Not supported"));
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE))
+        .andReturn(ORDER_ID);
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(exchangeOrder(ORDER_ID, BigDecimal.ONE)));
+    EasyMock.replay(exchangeAdapter);
+
+    final List<OrderFill> fills = new ArrayList<>();
+    orderManager.addOrderListener(fillCollector(fills));
+    orderManager.startTradeHistory(MARKET_ID, null);
+    orderManagedExchangeAdapter.createOrder(MARKET_ID, OrderType.SELL, QUANTITY, PRICE);
+    orderManager.startTradeCycle();
+
+    assertTrue(orderManager.isOrderOpen(ORDER_ID));
+    assertEquals(1, fills.size());
+    assertEquals(0, BigDecimal.ONE.compareTo(fills.get(0).getQuantity()));
+    assertNull(fills.get(0).getFee());
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testTradeHistoryCarriesOnFromRecoveredCursor() throws Exception {
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+    expect(exchangeAdapter.getMyTrades(MARKET_ID, "42"))
+        .andReturn(tradeHistory("43", trade("order-before-restart", "1.0", "0.01")));
+    EasyMock.replay(exchangeAdapter);
+
+    final List<OrderFill> fills = new ArrayList<>();
+    orderManager.addOrderListener(fillCollector(fills));
+    orderManager.startTradeHistory(MARKET_ID, "42");
+    assertTrue(orderManagedExchangeAdapter.getYourOpenOrders(MARKET_ID).isEmpty());
+
+    // Fills of orders placed before the restart are still booked.
+    assertEquals(1, fills.size());
+    assertEquals("order-before-restart", fills.get(0).getOrderId());
+    assertEquals("43", fills.get(0).getTradeCursor());
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOrderPlacedOutsideOfBotIsAdopted() throws Exception {
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Collections.singletonList(exchangeOrder(OTHER_ORDER_ID, QUANTITY)));
+    EasyMock.replay(exchangeAdapter);
+
+    final List<OpenOrder> openOrders = orderManagedExchangeAdapter.getYourOpenOrders(MARKET_ID);
+    assertEquals(1, openOrders.size());
+    assertEquals(OTHER_ORDER_ID, openOrders.get(0).getId());
+    assertTrue(orderManager.isOrderOpen(OTHER_ORDER_ID));
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testCancelledOrderIsNoLongerOpen() throws Exception {
+    expect(exchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE))
+        .andReturn(ORDER_ID);
+    expect(exchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID)).andReturn(true);
+    EasyMock.replay(exchangeAdapter);
+
+    orderManagedExchangeAdapter.createOrder(MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+    assertTrue(orderManagedExchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID));
+
+    assertFalse(orderManager.isOrderOpen(ORDER_ID));
+    assertEquals(TrackedOrder.Status.CANCELLED, orderManager.getOrder(ORDER_ID).getStatus());
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testFailedCancelForcesReconcile() throws Exception {
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID))
+        .andReturn(Arrays.asList(exchangeOrder(ORDER_ID, QUANTITY)));
+    expect(exchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID)).andReturn(false);
+    expect(exchangeAdapter.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+    EasyMock.replay(exchangeAdapter);
+
+    assertEquals(1, orderManagedExchangeAdapter.getYourOpenOrders(MARKET_ID).size());
+    assertTrue(orderManager.isOrderOpen(ORDER_ID));
+    assertFalse(orderManagedExchangeAdapter.cancelOrder(ORDER_ID, MARKET_ID));
+    assertFalse(orderManager.isOrderOpen(ORDER_ID));
+
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testUnknownOrderIsNotOpen() throws Exception {
+    EasyMock.replay(exchangeAdapter);
+    assertFalse(orderManager.isOrderOpen("unknown"));
+    assertNull(orderManager.getOrder("unknown"));
+    assertSame(orderManager, orderManagedExchangeAdapter.getOrderManager());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testOldClosedOrdersAreEvicted() throws Exception {
+    EasyMock.replay(exchangeAdapter);
+    for (int i = 0; i <= OrderManager.MAX_CLOSED_ORDERS; i++) {
+      final String orderId = "order-" + i;
+      orderManager.orderCreated(orderId, MARKET_ID, OrderType.BUY, QUANTITY, PRICE);
+      orderManager.orderCancelled(orderId, MARKET_ID, true);
+    }
+    assertNull(orderManager.getOrder("order-0"));
+    assertEquals(
+        TrackedOrder.Status.CANCELLED,
+        orderManager.getOrder("order-" + OrderManager.MAX_CLOSED_ORDERS).getStatus());
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  private static OrderListener fillCollector(List<OrderFill> fills) {
+    return new OrderListener() {
+      @Override
+      public void orderOpened(TrackedOrder order) {
+        // Only the fills are collected.
+      }
+
+      @Override
+      public void orderFilled(TrackedOrder order, OrderFill fill) {
+        fills.add(fill);
+      }
+
+      @Override
+      public void orderClosed(TrackedOrder order) {
+        // Only the fills are collected.
+      }
+    };
+  }
+
+  private static MyTradeHistory tradeHistory(String cursor, MyTrade... trades) {
+    final MyTradeHistory tradeHistory = EasyMock.createMock(MyTradeHistory.class);
+    expect(tradeHistory.getTrades()).andStubReturn(Arrays.asList(trades));
+    expect(tradeHistory.getCursor()).andStubReturn(cursor);
+    EasyMock.replay(tradeHistory);
+    return tradeHistory;
+  }
+
+  private static MyTrade trade(String orderId, String quantity, String fee) {
+    final MyTrade trade = EasyMock.createMock(MyTrade.class);
+    expect(trade.getOrderId()).andStubReturn(orderId);
+    expect(trade.getType()).andStubReturn(OrderType.BUY);
+    expect(trade.getQuantity()).andStubReturn(new BigDecimal(quantity));
+    expect(trade.getPrice()).andStubReturn(PRICE);
+    expect(trade.getFee()).andStubReturn(new BigDecimal(fee));
+    EasyMock.replay(trade);
+    return trade;
+  }
+
+  private static OpenOrder exchangeOrder(String orderId, BigDecimal quantity) {
+    return new TrackedOrder(
+        orderId, MARKET_ID, OrderType.BUY, PRICE, QUANTITY, quantity, new Date());
+  }
+}
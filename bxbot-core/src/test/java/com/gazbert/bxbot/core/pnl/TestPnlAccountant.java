@@ -0,0 +1,295 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.pnl;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.core.journal.TradeJournal;
+import com.gazbert.bxbot.domain.pnl.MarketPnl;
+import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.Position;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the PnL Accountant keeps positions and profit and loss as expected.
+ *
+ * @author gazbert
+ */
+public class TestPnlAccountant {
+
+  private static final String MARKET_ID = "btc_usd";
+  private static final String OTHER_MARKET_ID = "btc_eur";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final Map<String, BigDecimal> lastKnownPrices = new HashMap<>();
+  private ExchangeAdapter exchangeAdapter;
+
+  @Before
+  public void setup() {
+    exchangeAdapter = EasyMock.createMock(ExchangeAdapter.class);
+  }
+
+  @Test
+  public void testFifoClosesOldestLotsFirst() {
+    EasyMock.replay(exchangeAdapter);
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("100"));
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("200"));
+    pnlAccountant.applyFill(
+        MARKET_ID, OrderType.SELL, new BigDecimal("1.5"), new BigDecimal("300"));
+
+    final Position position = pnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("0.5", position.getQuantity());
+    assertDecimal("200", position.getAverageEntryPrice());
+    // 1 @ 100 and 0.5 @ 200 closed at 300
+    assertDecimal("250", position.getRealizedPnl());
+    assertDecimal("0", position.getUnrealizedPnl());
+    assertNull(position.getMarkPrice());
+
+    lastKnownPrices.put(MARKET_ID, new BigDecimal("260"));
+    assertDecimal("30", pnlAccountant.getPosition(MARKET_ID).getUnrealizedPnl());
+  }
+
+  @Test
+  public void testAverageCostClosesAtAveragePrice() {
+    EasyMock.replay(exchangeAdapter);
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.AVERAGE_COST);
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("100"));
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("200"));
+    pnlAccountant.applyFill(
+        MARKET_ID, OrderType.SELL, new BigDecimal("1.5"), new BigDecimal("300"));
+
+    final Position position = pnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("0.5", position.getQuantity());
+    assertDecimal("150", position.getAverageEntryPrice());
+    assertDecimal("225", position.getRealizedPnl());
+
+    // Selling through the position opens a short at the fill price.
+    pnlAccountant.applyFill(
+        MARKET_ID, OrderType.SELL, new BigDecimal("1.5"), new BigDecimal("100"));
+    final Position shortPosition = pnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("-1", shortPosition.getQuantity());
+    assertDecimal("100", shortPosition.getAverageEntryPrice());
+    assertDecimal("200", shortPosition.getRealizedPnl());
+
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("90"));
+    final Position flatPosition = pnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("0", flatPosition.getQuantity());
+    assertNull(flatPosition.getAverageEntryPrice());
+    assertDecimal("210", flatPosition.getRealizedPnl());
+  }
+
+  @Test
+  public void testFifoShortIsBoughtBack() {
+    EasyMock.replay(exchangeAdapter);
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    pnlAccountant.applyFill(MARKET_ID, OrderType.SELL, new BigDecimal("2"), new BigDecimal("100"));
+    lastKnownPrices.put(MARKET_ID, new BigDecimal("110"));
+    assertDecimal("-20", pnlAccountant.getPosition(MARKET_ID).getUnrealizedPnl());
+
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("3"), new BigDecimal("90"));
+    final Position position = pnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("1", position.getQuantity());
+    assertDecimal("90", position.getAverageEntryPrice());
+    assertDecimal("20", position.getRealizedPnl());
+    assertDecimal("20", position.getUnrealizedPnl());
+  }
+
+  @Test
+  public void testFeesAreChargedAndRatesFetchedOnce() throws Exception {
+    expect(exchangeAdapter.getPercentageOfBuyOrderTakenForExchangeFee(MARKET_ID))
+        .andReturn(new BigDecimal("0.002"));
+    expect(exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID))
+        .andThrow(new ExchangeNetworkException("timeout"));
+    expect(exchangeAdapter.getPercentageOfSellOrderTakenForExchangeFee(MARKET_ID))
+        .andReturn(new BigDecimal("0.001"));
+    EasyMock.replay(exchangeAdapter);
+
+    final PnlAccountant pnlAccountant = new PnlAccountant(CostBasisMethod.FIFO, BigDecimal.ZERO);
+    pnlAccountant.start(exchangeAdapter, lastKnownPrices::get);
+    pnlAccountant.addMarket(MARKET_ID, "usd");
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("100"));
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("100"));
+    // The sell fee lookup fails the first time, so the first sell is not charged.
+    pnlAccountant.applyFill(MARKET_ID, OrderType.SELL, new BigDecimal("1"), new BigDecimal("100"));
+    pnlAccountant.applyFill(MARKET_ID, OrderType.SELL, new BigDecimal("1"), new BigDecimal("100"));
+
+    final Position position = pnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("0.5", position.getFeesPaid());
+    assertDecimal("-0.5", position.getRealizedPnl());
+    assertDecimal("-0.5", pnlAccountant.getTotalPnl("USD"));
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  @Test
+  public void testTotalPnlOnlyIncludesMarketsInTheCurrency() {
+    EasyMock.replay(exchangeAdapter);
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("100"));
+    pnlAccountant.applyFill(OTHER_MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN);
+    pnlAccountant.addMarket(OTHER_MARKET_ID, "EUR");
+    lastKnownPrices.put(MARKET_ID, new BigDecimal("80"));
+    lastKnownPrices.put(OTHER_MARKET_ID, new BigDecimal("5"));
+
+    assertDecimal("-20", pnlAccountant.getTotalPnl("USD"));
+    assertDecimal("-5", pnlAccountant.getTotalPnl("EUR"));
+    assertDecimal("0", pnlAccountant.getTotalPnl("GBP"));
+
+    final List<MarketPnl> allMarketPnl = pnlAccountant.getAllMarketPnl();
+    assertEquals(2, allMarketPnl.size());
+    assertEquals(MARKET_ID, allMarketPnl.get(0).getMarketId());
+    assertEquals("USD", allMarketPnl.get(0).getCurrency());
+    assertDecimal("80", allMarketPnl.get(0).getMarkPrice());
+    assertDecimal("-20", allMarketPnl.get(0).getUnrealizedPnl());
+    assertEquals("EUR", allMarketPnl.get(1).getCurrency());
+  }
+
+  @Test
+  public void testFillsFeesAndTradeCursorAreRecoveredFromTradeJournal() {
+    EasyMock.replay(exchangeAdapter);
+    final TradeJournal tradeJournal =
+        new TradeJournal(temporaryFolder.getRoot().getPath(), 64 * 1024);
+    tradeJournal.orderRequested(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN);
+    tradeJournal.orderFilled(
+        "1", MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN, null, "41");
+    tradeJournal.orderFilled(
+        "2", MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("20"), null, null);
+    tradeJournal.orderFilled(
+        "3",
+        MARKET_ID,
+        OrderType.SELL,
+        BigDecimal.ONE,
+        new BigDecimal("30"),
+        new BigDecimal("0.1"),
+        "42");
+
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, BigDecimal.TEN, BigDecimal.TEN);
+    // Restarting forgets the last run's positions before the journal is replayed.
+    pnlAccountant.start(null, lastKnownPrices::get);
+    pnlAccountant.recover(tradeJournal);
+    tradeJournal.close();
+
+    final Position position = pnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("1", position.getQuantity());
+    assertDecimal("20", position.getAverageEntryPrice());
+    assertDecimal("19.9", position.getRealizedPnl());
+    assertDecimal("0.1", position.getFeesPaid());
+    assertEquals("42", pnlAccountant.getTradeCursor(MARKET_ID));
+  }
+
+  @Test
+  public void testPositionsAreRecoveredFromLastCheckpointAndFillsAfterIt() {
+    EasyMock.replay(exchangeAdapter);
+    final TradeJournal tradeJournal =
+        new TradeJournal(temporaryFolder.getRoot().getPath(), 64 * 1024);
+    tradeJournal.orderFilled(
+        "1", MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN, null, "41");
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    pnlAccountant.recover(tradeJournal);
+    pnlAccountant.checkpoint(tradeJournal);
+    // Only written again once there are new fills, or a new journal segment.
+    final long checkpointSequence = tradeJournal.getLastSequence();
+    pnlAccountant.checkpoint(tradeJournal);
+    assertEquals(checkpointSequence, tradeJournal.getLastSequence());
+
+    // The fill before the checkpoint is restored from it, not replayed a second time.
+    tradeJournal.orderFilled(
+        "2", MARKET_ID, OrderType.SELL, BigDecimal.ONE, new BigDecimal("30"), null, "42");
+
+    final PnlAccountant restartedPnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    restartedPnlAccountant.recover(tradeJournal);
+    tradeJournal.close();
+
+    final Position position = restartedPnlAccountant.getPosition(MARKET_ID);
+    assertDecimal("0", position.getQuantity());
+    assertDecimal("20", position.getRealizedPnl());
+    assertEquals("42", restartedPnlAccountant.getTradeCursor(MARKET_ID));
+    assertEquals("USD", restartedPnlAccountant.getAllMarketPnl().get(0).getCurrency());
+  }
+
+  @Test
+  public void testCheckpointForOtherCostBasisMethodIsIgnored() {
+    EasyMock.replay(exchangeAdapter);
+    final TradeJournal tradeJournal =
+        new TradeJournal(temporaryFolder.getRoot().getPath(), 64 * 1024);
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, BigDecimal.TEN, BigDecimal.TEN);
+    pnlAccountant.checkpoint(tradeJournal);
+    tradeJournal.orderFilled(
+        "1", MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN, null, null);
+
+    final PnlAccountant averageCostPnlAccountant = createAccountant(CostBasisMethod.AVERAGE_COST);
+    averageCostPnlAccountant.recover(tradeJournal);
+    tradeJournal.close();
+
+    // Every journaled fill is replayed instead.
+    assertDecimal("1", averageCostPnlAccountant.getPosition(MARKET_ID).getQuantity());
+  }
+
+  @Test
+  public void testPositionIsServedToStrategiesWithoutExchangeCall() throws Exception {
+    EasyMock.replay(exchangeAdapter);
+    final PnlAccountant pnlAccountant = createAccountant(CostBasisMethod.FIFO);
+    final PnlExchangeAdapter pnlExchangeAdapter =
+        new PnlExchangeAdapter(exchangeAdapter, pnlAccountant);
+
+    final Position flatPosition = pnlExchangeAdapter.getPosition(MARKET_ID);
+    assertEquals(MARKET_ID, flatPosition.getMarketId());
+    assertDecimal("0", flatPosition.getQuantity());
+    assertDecimal("0", flatPosition.getFeesPaid());
+
+    pnlAccountant.applyFill(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.TEN);
+    final Position position = pnlExchangeAdapter.getPosition(MARKET_ID);
+    assertDecimal("1", position.getQuantity());
+    assertTrue(position.toString().contains(MARKET_ID));
+    EasyMock.verify(exchangeAdapter);
+  }
+
+  private PnlAccountant createAccountant(CostBasisMethod costBasisMethod) {
+    final PnlAccountant pnlAccountant = new PnlAccountant(costBasisMethod, BigDecimal.ZERO);
+    // No fee source, so no fees are charged.
+    pnlAccountant.start(null, lastKnownPrices::get);
+    pnlAccountant.addMarket(MARKET_ID, "USD");
+    return pnlAccountant;
+  }
+
+  private static void assertDecimal(String expected, BigDecimal actual) {
+    assertEquals(0, new BigDecimal(expected).compareTo(actual));
+  }
+}
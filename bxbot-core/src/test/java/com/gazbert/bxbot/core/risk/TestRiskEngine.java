@@ -0,0 +1,253 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.risk;
+
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.core.order.OrderManager;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Risk Engine enforces the risk limits as expected.
+ *
+ * @author gazbert
+ */
+public class TestRiskEngine {
+
+  private static final String MARKET_ID = "btcusd";
+  private static final String EUR_MARKET_ID = "btceur";
+  private static final String GBP_MARKET_ID = "btcgbp";
+
+  private final Map<String, BigDecimal> lastKnownPrices = new HashMap<>();
+  private long now;
+  private TradingApi tradingApi;
+  private OrderManager orderManager;
+
+  @Before
+  public void setup() {
+    now = 1_000_000L;
+    lastKnownPrices.clear();
+    tradingApi = EasyMock.createMock(TradingApi.class);
+    orderManager = new OrderManager(tradingApi);
+  }
+
+  @Test
+  public void testOrdersAreAllowedWhenLimitsAreOff() throws Exception {
+    final RiskEngine riskEngine = riskEngine(RiskLimits.none());
+    for (int i = 0; i < 100; i++) {
+      riskEngine.checkOrder(MARKET_ID, OrderType.BUY, new BigDecimal("1000"), new BigDecimal("1"));
+    }
+  }
+
+  @Test(expected = RiskLimitBreachedException.class)
+  public void testOrderOverMaxNotionalIsRejected() throws Exception {
+    final RiskEngine riskEngine =
+        riskEngine(new RiskLimits("USD:1000", "", 0, BigDecimal.ZERO, 0, ""));
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, new BigDecimal("1"), new BigDecimal("999"));
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, new BigDecimal("2"), new BigDecimal("501"));
+  }
+
+  @Test
+  public void testMaxNotionalIsKeyedByCounterCurrency() throws Exception {
+    final RiskEngine riskEngine =
+        riskEngine(new RiskLimits("usd:1000, EUR:500", "", 0, BigDecimal.ZERO, 0, ""));
+    riskEngine.addMarket(EUR_MARKET_ID, "BTC", "EUR");
+    riskEngine.addMarket(GBP_MARKET_ID, "BTC", "GBP");
+
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("999"));
+    riskEngine.checkOrder(EUR_MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("499"));
+    try {
+      riskEngine.checkOrder(EUR_MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("501"));
+      fail("EUR order should have been rejected");
+    } catch (RiskLimitBreachedException e) {
+      // expected
+    }
+    // No limit for GBP.
+    riskEngine.checkOrder(GBP_MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("5000"));
+  }
+
+  @Test
+  public void testZeroMaxNotionalWithoutCurrencySwitchesCheckOff() throws Exception {
+    final RiskEngine riskEngine = riskEngine(new RiskLimits("0", "", 0, BigDecimal.ZERO, 0, ""));
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("1000000"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxNotionalWithoutCurrencyIsInvalid() {
+    new RiskLimits("1000", "", 0, BigDecimal.ZERO, 0, "");
+  }
+
+  @Test
+  public void testBreachingLimitDoesNotTripKillSwitch() throws Exception {
+    final RiskEngine riskEngine = riskEngine(new RiskLimits("", "", 0, BigDecimal.ZERO, 1, ""));
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.ONE);
+    assertRejected(riskEngine, OrderType.BUY, "1", "1");
+    assertNull(riskEngine.getKillSwitchReason());
+
+    now += 60 * 1000L;
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.ONE);
+  }
+
+  @Test
+  public void testBreachingKillSwitchLimitRejectsEveryOrderAfter() throws Exception {
+    final RiskEngine riskEngine =
+        riskEngine(new RiskLimits("", "", 0, BigDecimal.ZERO, 1, " maxOrdersPerMinute"));
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.ONE);
+    assertRejected(riskEngine, OrderType.BUY, "1", "1");
+    assertTrue(riskEngine.getKillSwitchReason().contains("orders sent in the last minute"));
+
+    now += 60 * 1000L;
+    assertRejected(riskEngine, OrderType.BUY, "1", "1");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownKillSwitchLimitIsInvalid() {
+    new RiskLimits("", "", 0, BigDecimal.ZERO, 0, "maxLeverage");
+  }
+
+  @Test
+  public void testOpenOrderCountFollowsOrderManager() throws Exception {
+    final RiskEngine riskEngine =
+        riskEngine(new RiskLimits("", "", 2, BigDecimal.ZERO, 0, ""));
+
+    placeOrder(riskEngine, "1", OrderType.BUY, "1", "100");
+    placeOrder(riskEngine, "2", OrderType.BUY, "1", "100");
+    assertEquals(2, riskEngine.getOpenOrderCount(MARKET_ID));
+    assertRejected(riskEngine, OrderType.BUY, "1", "100");
+
+    orderManager.orderCancelled("1", MARKET_ID, true);
+    assertEquals(1, riskEngine.getOpenOrderCount(MARKET_ID));
+    placeOrder(riskEngine, "3", OrderType.BUY, "1", "100");
+  }
+
+  @Test
+  public void testOrderOutsidePriceBandIsRejected() throws Exception {
+    final RiskEngine riskEngine =
+        riskEngine(new RiskLimits("", "", 0, new BigDecimal("5"), 0, ""));
+
+    // No price fetched yet, so nothing to check against.
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("200"));
+
+    lastKnownPrices.put(MARKET_ID, new BigDecimal("100"));
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, new BigDecimal("95"));
+    riskEngine.checkOrder(MARKET_ID, OrderType.SELL, BigDecimal.ONE, new BigDecimal("105"));
+    assertRejected(riskEngine, OrderType.BUY, "1", "94.99");
+    assertRejected(riskEngine, OrderType.SELL, "1", "105.01");
+  }
+
+  @Test
+  public void testPositionLimits() throws Exception {
+    final RiskEngine riskEngine =
+        riskEngine(new RiskLimits("", "btc:2, USD:1000", 0, BigDecimal.ZERO, 0, ""));
+
+    placeOrder(riskEngine, "1", OrderType.BUY, "1.5", "100");
+    assertEquals(0, new BigDecimal("1.5").compareTo(riskEngine.getPosition("BTC")));
+    assertEquals(0, new BigDecimal("-150").compareTo(riskEngine.getPosition("USD")));
+
+    // BTC position would be 2.5
+    assertRejected(riskEngine, OrderType.BUY, "1", "100");
+
+    // Cancelling the order frees up the position again.
+    orderManager.orderCancelled("1", MARKET_ID, true);
+    assertEquals(0, BigDecimal.ZERO.compareTo(riskEngine.getPosition("BTC")));
+    placeOrder(riskEngine, "2", OrderType.BUY, "1.9", "100");
+
+    // USD position would be -1230
+    assertRejected(riskEngine, OrderType.BUY, "0.1", "10400");
+
+    // Selling reduces the BTC position so is allowed.
+    placeOrder(riskEngine, "3", OrderType.SELL, "1", "100");
+    assertEquals(0, new BigDecimal("0.9").compareTo(riskEngine.getPosition("BTC")));
+  }
+
+  @Test
+  public void testGoneOrdersStayInPosition() throws Exception {
+    expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(Collections.emptyList());
+    EasyMock.replay(tradingApi);
+
+    final RiskEngine riskEngine = riskEngine(RiskLimits.none());
+    placeOrder(riskEngine, "1", OrderType.BUY, "1", "100");
+
+    // Order has gone from the exchange, so it may have filled.
+    orderManager.reconcile(MARKET_ID);
+    assertEquals(0, riskEngine.getOpenOrderCount(MARKET_ID));
+    assertEquals(0, BigDecimal.ONE.compareTo(riskEngine.getPosition("BTC")));
+
+    EasyMock.verify(tradingApi);
+  }
+
+  @Test
+  public void testOrderRateLimit() throws Exception {
+    final RiskEngine riskEngine =
+        riskEngine(new RiskLimits("", "", 0, BigDecimal.ZERO, 3, ""));
+
+    for (int i = 0; i < 3; i++) {
+      riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.ONE);
+      now += 1000;
+    }
+    assertRejected(riskEngine, OrderType.BUY, "1", "1");
+
+    // First order drops out of the window.
+    now = 1_000_000L + 60 * 1000L;
+    riskEngine.checkOrder(MARKET_ID, OrderType.BUY, BigDecimal.ONE, BigDecimal.ONE);
+    assertRejected(riskEngine, OrderType.BUY, "1", "1");
+  }
+
+  private RiskEngine riskEngine(RiskLimits riskLimits) {
+    final RiskEngine riskEngine = new RiskEngine(riskLimits, lastKnownPrices::get, () -> now);
+    riskEngine.addMarket(MARKET_ID, "BTC", "USD");
+    orderManager.addOrderListener(riskEngine);
+    return riskEngine;
+  }
+
+  private void placeOrder(
+      RiskEngine riskEngine, String orderId, OrderType orderType, String quantity, String price)
+      throws Exception {
+    riskEngine.checkOrder(MARKET_ID, orderType, new BigDecimal(quantity), new BigDecimal(price));
+    orderManager.orderCreated(
+        orderId, MARKET_ID, orderType, new BigDecimal(quantity), new BigDecimal(price));
+  }
+
+  private static void assertRejected(
+      RiskEngine riskEngine, OrderType orderType, String quantity, String price) {
+    try {
+      riskEngine.checkOrder(MARKET_ID, orderType, new BigDecimal(quantity), new BigDecimal(price));
+      fail("Order should have been rejected");
+    } catch (RiskLimitBreachedException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.core.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.strategy.api.StrategyStateStore;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the Journaled State Store saves and recovers strategy state as expected.
+ *
+ * @author gazbert
+ */
+public class TestJournaledStateStore {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testStateIsRecoveredFromJournal() throws Exception {
+    final Path directory = temporaryFolder.getRoot().toPath().resolve("store");
+    final JournaledStateStore store = new JournaledStateStore(directory);
+    store.put("lastOrder.id", "1234");
+    store.put("lastOrder.type", "BUY");
+    store.put("lastOrder.price", "100.5");
+    store.remove("lastOrder.price");
+    assertEquals("BUY", store.get("lastOrder.type"));
+    assertFalse("Nothing should be written until flushed", Files.exists(directory));
+    store.close();
+
+    final JournaledStateStore recoveredStore = new JournaledStateStore(directory);
+    assertEquals("1234", recoveredStore.get("lastOrder.id"));
+    assertEquals("BUY", recoveredStore.get("lastOrder.type"));
+    assertNull(recoveredStore.get("lastOrder.price"));
+    assertEquals(2, recoveredStore.getKeys().size());
+    recoveredStore.close();
+  }
+
+  @Test
+  public void testUnchangedValuesAreNotJournaled() throws Exception {
+    final Path directory = temporaryFolder.getRoot().toPath();
+    final JournaledStateStore store = new JournaledStateStore(directory);
+    store.put("key", "value");
+    store.flush();
+    final long journalSize = journalFile(directory).length();
+
+    store.put("key", "value");
+    store.flush();
+    assertEquals(journalSize, journalFile(directory).length());
+    store.close();
+  }
+
+  @Test
+  public void testIncompleteRecordAtEndOfJournalIsDiscarded() throws Exception {
+    final Path directory = temporaryFolder.getRoot().toPath();
+    final JournaledStateStore store = new JournaledStateStore(directory);
+    store.put("key-1", "value-1");
+    store.close();
+    final long goodJournalSize = journalFile(directory).length();
+
+    // Simulate a crash half way through writing a record.
+    Files.write(
+        journalFile(directory).toPath(),
+        new byte[] {0, 0, 0, 20, 1, 2, 3},
+        StandardOpenOption.APPEND);
+
+    final JournaledStateStore recoveredStore = new JournaledStateStore(directory);
+    assertEquals("value-1", recoveredStore.get("key-1"));
+    assertEquals(goodJournalSize, journalFile(directory).length());
+
+    recoveredStore.put("key-2", "value-2");
+    recoveredStore.close();
+
+    final JournaledStateStore storeAfterCrash = new JournaledStateStore(directory);
+    assertEquals("value-1", storeAfterCrash.get("key-1"));
+    assertEquals("value-2", storeAfterCrash.get("key-2"));
+    storeAfterCrash.close();
+  }
+
+  @Test
+  public void testJournalIsCompactedIntoSnapshot() throws Exception {
+    final Path directory = temporaryFolder.getRoot().toPath();
+    final JournaledStateStore store = new JournaledStateStore(directory);
+    final String bigValue = String.join("", Collections.nCopies(1000, "x"));
+    for (int i = 0; i < 1200; i++) {
+      store.put("key-" + (i % 10), bigValue + i);
+      store.flush();
+    }
+    store.close();
+
+    assertTrue(Files.exists(directory.resolve(JournaledStateStore.SNAPSHOT_FILENAME)));
+    assertTrue(journalFile(directory).length() < JournaledStateStore.MAX_JOURNAL_BYTES);
+
+    final JournaledStateStore recoveredStore = new JournaledStateStore(directory);
+    assertEquals(10, recoveredStore.getKeys().size());
+    assertEquals(bigValue + 1199, recoveredStore.get("key-9"));
+    assertEquals(bigValue + 1190, recoveredStore.get("key-0"));
+    recoveredStore.close();
+  }
+
+  @Test
+  public void testEachStrategyAndMarketGetsItsOwnStore() throws Exception {
+    final StrategyStateStores stores =
+        new StrategyStateStores(temporaryFolder.getRoot().getAbsolutePath());
+    final StrategyStateStore store1 = stores.open("scalper", "btc_usd");
+    final StrategyStateStore store2 = stores.open("scalper", "eth/usd");
+    assertSame(store1, stores.open("scalper", "btc_usd"));
+
+    store1.put("key", "value-1");
+    store2.put("key", "value-2");
+    stores.closeAll();
+
+    final StrategyStateStores reopenedStores =
+        new StrategyStateStores(temporaryFolder.getRoot().getAbsolutePath());
+    assertEquals("value-1", reopenedStores.open("scalper", "btc_usd").get("key"));
+    assertEquals("value-2", reopenedStores.open("scalper", "eth/usd").get("key"));
+    reopenedStores.closeAll();
+  }
+
+  private static File journalFile(Path directory) {
+    return directory.resolve(JournaledStateStore.JOURNAL_FILENAME).toFile();
+  }
+}
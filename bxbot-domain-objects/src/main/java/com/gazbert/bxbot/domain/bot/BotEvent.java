@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.bot;
+
+import com.google.common.base.MoreObjects;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Domain object representing something that happened in the running Bot, e.g. a trade cycle
+ * completing or an order filling. Events are streamed to REST API clients as they happen.
+ *
+ * <p>The event data depends on the event type; see {@link Type}.
+ *
+ * @author gazbert
+ */
+@ApiModel
+public class BotEvent {
+
+  /** The types of Bot event. */
+  public enum Type {
+    /** A trade cycle ran: cycle, durationMillis, status. */
+    CYCLE,
+    /** One of the Bot's orders opened or closed: orderId, orderType, price, quantity, status. */
+    ORDER,
+    /** The exchange balances were fetched: available and onHold, by currency. */
+    BALANCE,
+    /** The top of a Market's order book changed: bestBid, bestAsk. */
+    TOP_OF_BOOK,
+    /** The client fell behind and events were dropped: count. */
+    DROPPED
+  }
+
+  @ApiModelProperty(required = true, position = 1)
+  private long sequence;
+
+  @ApiModelProperty(required = true, position = 2)
+  private Type type;
+
+  private long timestamp;
+  private String marketId;
+  private Map<String, Object> data = new LinkedHashMap<>();
+
+  // Required for Jackson
+  public BotEvent() {
+  }
+
+  /** Creates a new BotEvent. */
+  public BotEvent(
+      long sequence, Type type, long timestamp, String marketId, Map<String, Object> data) {
+    this.sequence = sequence;
+    this.type = type;
+    this.timestamp = timestamp;
+    this.marketId = marketId;
+    setData(data);
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public void setType(Type type) {
+    this.type = type;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public void setMarketId(String marketId) {
+    this.marketId = marketId;
+  }
+
+  public Map<String, Object> getData() {
+    return data;
+  }
+
+  public void setData(Map<String, Object> data) {
+    this.data = data != null ? new LinkedHashMap<>(data) : new LinkedHashMap<>();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("sequence", sequence)
+        .add("type", type)
+        .add("timestamp", timestamp)
+        .add("marketId", marketId)
+        .add("data", data)
+        .toString();
+  }
+}
@@ -39,6 +39,12 @@ public class EmailAlertsConfig {
   public EmailAlertsConfig() {
   }
 
+  /** Creates an EmailAlertsConfig from an existing one. */
+  public EmailAlertsConfig(EmailAlertsConfig other) {
+    this.enabled = other.enabled;
+    this.smtpConfig = other.smtpConfig == null ? null : new SmtpConfig(other.smtpConfig);
+  }
+
   /** Creates a new EmailAlertsConfig. */
   public EmailAlertsConfig(boolean enabled, SmtpConfig smtpConfig) {
     this.enabled = enabled;
@@ -52,6 +52,16 @@ public class SmtpConfig {
   public SmtpConfig() {
   }
 
+  /** Creates a SmtpConfig from an existing one. */
+  public SmtpConfig(SmtpConfig other) {
+    this.host = other.host;
+    this.tlsPort = other.tlsPort;
+    this.accountUsername = other.accountUsername;
+    this.accountPassword = other.accountPassword;
+    this.fromAddress = other.fromAddress;
+    this.toAddress = other.toAddress;
+  }
+
   /** Creates a new SmtpConfig. */
   public SmtpConfig(
       String host,
@@ -55,6 +55,15 @@ public class EngineConfig {
   public EngineConfig() {
   }
 
+  /** Creates an EngineConfig from an existing one. */
+  public EngineConfig(EngineConfig other) {
+    this.botId = other.botId;
+    this.botName = other.botName;
+    this.emergencyStopCurrency = other.emergencyStopCurrency;
+    this.emergencyStopBalance = other.emergencyStopBalance;
+    this.tradeCycleInterval = other.tradeCycleInterval;
+  }
+
   /** Creates an EngineConfig. */
   public EngineConfig(
       String botId,
@@ -24,6 +24,7 @@
 package com.gazbert.bxbot.domain.exchange;
 
 import com.google.common.base.MoreObjects;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -39,6 +40,20 @@ public class ExchangeConfig {
   private NetworkConfig networkConfig;
   private Map<String, String> otherConfig;
 
+  public ExchangeConfig() {
+  }
+
+  /** Creates an ExchangeConfig from an existing one. */
+  public ExchangeConfig(ExchangeConfig other) {
+    this.name = other.name;
+    this.adapter = other.adapter;
+    this.authenticationConfig =
+        other.authenticationConfig == null ? null : new HashMap<>(other.authenticationConfig);
+    this.networkConfig =
+        other.networkConfig == null ? null : new NetworkConfig(other.networkConfig);
+    this.otherConfig = other.otherConfig == null ? null : new HashMap<>(other.otherConfig);
+  }
+
   public String getName() {
     return name;
   }
@@ -46,6 +46,15 @@ public class NetworkConfig {
     nonFatalErrorMessages = new ArrayList<>();
   }
 
+  /** Creates a NetworkConfig from an existing one. */
+  public NetworkConfig(NetworkConfig other) {
+    this.connectionTimeout = other.connectionTimeout;
+    this.nonFatalErrorCodes =
+        other.nonFatalErrorCodes == null ? null : new ArrayList<>(other.nonFatalErrorCodes);
+    this.nonFatalErrorMessages =
+        other.nonFatalErrorMessages == null ? null : new ArrayList<>(other.nonFatalErrorMessages);
+  }
+
   public Integer getConnectionTimeout() {
     return connectionTimeout;
   }
@@ -27,10 +27,15 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Domain object representing a Market config.
  *
+ * <p>The Trading Strategies to run on the Market are given by tradingStrategyIds. The older
+ * single tradingStrategyId is still supported: it is used when tradingStrategyIds is not set.
+ *
  * @author gazbert
  */
 @ApiModel
@@ -44,6 +49,7 @@ public class MarketConfig {
   private String counterCurrency;
   private boolean enabled;
   private String tradingStrategyId;
+  private List<String> tradingStrategyIds;
 
   // Required by ConfigurableComponentFactory
   public MarketConfig() {
@@ -57,6 +63,8 @@ public class MarketConfig {
     this.counterCurrency = other.counterCurrency;
     this.enabled = other.enabled;
     this.tradingStrategyId = other.tradingStrategyId;
+    this.tradingStrategyIds =
+        other.tradingStrategyIds == null ? null : new ArrayList<>(other.tradingStrategyIds);
   }
 
   /** Creates a new MarketConfig. */
@@ -124,6 +132,14 @@ public class MarketConfig {
     this.tradingStrategyId = tradingStrategyId;
   }
 
+  public List<String> getTradingStrategyIds() {
+    return tradingStrategyIds;
+  }
+
+  public void setTradingStrategyIds(List<String> tradingStrategyIds) {
+    this.tradingStrategyIds = tradingStrategyIds;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -150,6 +166,7 @@ public class MarketConfig {
         .add("counterCurrency", counterCurrency)
         .add("enabled", enabled)
         .add("tradingStrategyId", tradingStrategyId)
+        .add("tradingStrategyIds", tradingStrategyIds)
         .toString();
   }
 }
@@ -0,0 +1,154 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.pnl;
+
+import com.google.common.base.MoreObjects;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+
+/**
+ * Domain object representing the Bot's position and profit and loss on a Market.
+ *
+ * <p>Amounts of money are in the Market's counter currency, quantities in its base currency.
+ *
+ * @author gazbert
+ */
+@ApiModel
+public class MarketPnl {
+
+  @ApiModelProperty(required = true, position = 1)
+  private String marketId;
+
+  private String currency;
+  private BigDecimal quantity;
+  private BigDecimal averageEntryPrice;
+  private BigDecimal markPrice;
+  private BigDecimal realizedPnl;
+  private BigDecimal unrealizedPnl;
+  private BigDecimal feesPaid;
+
+  // Required for Jackson
+  public MarketPnl() {
+  }
+
+  /** Creates a new MarketPnl. */
+  public MarketPnl(
+      String marketId,
+      String currency,
+      BigDecimal quantity,
+      BigDecimal averageEntryPrice,
+      BigDecimal markPrice,
+      BigDecimal realizedPnl,
+      BigDecimal unrealizedPnl,
+      BigDecimal feesPaid) {
+
+    this.marketId = marketId;
+    this.currency = currency;
+    this.quantity = quantity;
+    this.averageEntryPrice = averageEntryPrice;
+    this.markPrice = markPrice;
+    this.realizedPnl = realizedPnl;
+    this.unrealizedPnl = unrealizedPnl;
+    this.feesPaid = feesPaid;
+  }
+
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public void setMarketId(String marketId) {
+    this.marketId = marketId;
+  }
+
+  public String getCurrency() {
+    return currency;
+  }
+
+  public void setCurrency(String currency) {
+    this.currency = currency;
+  }
+
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  public void setQuantity(BigDecimal quantity) {
+    this.quantity = quantity;
+  }
+
+  public BigDecimal getAverageEntryPrice() {
+    return averageEntryPrice;
+  }
+
+  public void setAverageEntryPrice(BigDecimal averageEntryPrice) {
+    this.averageEntryPrice = averageEntryPrice;
+  }
+
+  public BigDecimal getMarkPrice() {
+    return markPrice;
+  }
+
+  public void setMarkPrice(BigDecimal markPrice) {
+    this.markPrice = markPrice;
+  }
+
+  public BigDecimal getRealizedPnl() {
+    return realizedPnl;
+  }
+
+  public void setRealizedPnl(BigDecimal realizedPnl) {
+    this.realizedPnl = realizedPnl;
+  }
+
+  public BigDecimal getUnrealizedPnl() {
+    return unrealizedPnl;
+  }
+
+  public void setUnrealizedPnl(BigDecimal unrealizedPnl) {
+    this.unrealizedPnl = unrealizedPnl;
+  }
+
+  public BigDecimal getFeesPaid() {
+    return feesPaid;
+  }
+
+  public void setFeesPaid(BigDecimal feesPaid) {
+    this.feesPaid = feesPaid;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("currency", currency)
+        .add("quantity", quantity)
+        .add("averageEntryPrice", averageEntryPrice)
+        .add("markPrice", markPrice)
+        .add("realizedPnl", realizedPnl)
+        .add("unrealizedPnl", unrealizedPnl)
+        .add("feesPaid", feesPaid)
+        .toString();
+  }
+}
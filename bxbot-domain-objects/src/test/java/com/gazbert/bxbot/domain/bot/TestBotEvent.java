@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.bot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests a BotEvent domain object behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestBotEvent {
+
+  private static final long SEQUENCE = 42L;
+  private static final BotEvent.Type TYPE = BotEvent.Type.TOP_OF_BOOK;
+  private static final long TIMESTAMP = 1_600_000_000_000L;
+  private static final String MARKET_ID = "btc_usd";
+  private static final BigDecimal BEST_BID = new BigDecimal("10000.5");
+
+  @Test
+  public void testInitialisationWorksAsExpected() {
+    final BotEvent botEvent = new BotEvent(SEQUENCE, TYPE, TIMESTAMP, MARKET_ID, someData());
+    assertEquals(SEQUENCE, botEvent.getSequence());
+    assertEquals(TYPE, botEvent.getType());
+    assertEquals(TIMESTAMP, botEvent.getTimestamp());
+    assertEquals(MARKET_ID, botEvent.getMarketId());
+    assertEquals(BEST_BID, botEvent.getData().get("bestBid"));
+  }
+
+  @Test
+  public void testSettersWorkAsExpected() {
+    final BotEvent botEvent = new BotEvent();
+    assertEquals(0L, botEvent.getSequence());
+    assertNull(botEvent.getType());
+    assertEquals(0L, botEvent.getTimestamp());
+    assertNull(botEvent.getMarketId());
+    assertTrue(botEvent.getData().isEmpty());
+
+    botEvent.setSequence(SEQUENCE);
+    assertEquals(SEQUENCE, botEvent.getSequence());
+
+    botEvent.setType(TYPE);
+    assertEquals(TYPE, botEvent.getType());
+
+    botEvent.setTimestamp(TIMESTAMP);
+    assertEquals(TIMESTAMP, botEvent.getTimestamp());
+
+    botEvent.setMarketId(MARKET_ID);
+    assertEquals(MARKET_ID, botEvent.getMarketId());
+
+    botEvent.setData(someData());
+    assertEquals(BEST_BID, botEvent.getData().get("bestBid"));
+
+    botEvent.setData(null);
+    assertTrue(botEvent.getData().isEmpty());
+  }
+
+  @Test
+  public void testToStringWorksAsExpected() {
+    final BotEvent botEvent = new BotEvent(SEQUENCE, TYPE, TIMESTAMP, MARKET_ID, someData());
+    assertTrue(
+        botEvent
+            .toString()
+            .startsWith("BotEvent{sequence=42, type=TOP_OF_BOOK, timestamp=1600000000000, "));
+  }
+
+  private static Map<String, Object> someData() {
+    final Map<String, Object> data = new HashMap<>();
+    data.put("bestBid", BEST_BID);
+    return data;
+  }
+}
@@ -73,6 +73,34 @@ public class TestExchangeConfig {
     assertEquals(OTHER_CONFIG, exchangeConfig.getOtherConfig());
   }
 
+  @Test
+  public void testCloningWorksAsExpected() {
+    final Map<String, String> authenticationConfig = new HashMap<>();
+    authenticationConfig.put("key", "secret");
+    final NetworkConfig networkConfig = new NetworkConfig();
+    networkConfig.setConnectionTimeout(30);
+    networkConfig.getNonFatalErrorCodes().add(502);
+
+    final ExchangeConfig exchangeConfig = new ExchangeConfig();
+    exchangeConfig.setName(EXCHANGE_NAME);
+    exchangeConfig.setAdapter(EXCHANGE_ADAPTER);
+    exchangeConfig.setAuthenticationConfig(authenticationConfig);
+    exchangeConfig.setNetworkConfig(networkConfig);
+
+    final ExchangeConfig clonedExchangeConfig = new ExchangeConfig(exchangeConfig);
+    assertEquals(EXCHANGE_NAME, clonedExchangeConfig.getName());
+    assertEquals(EXCHANGE_ADAPTER, clonedExchangeConfig.getAdapter());
+    assertEquals(authenticationConfig, clonedExchangeConfig.getAuthenticationConfig());
+    assertEquals(30, (int) clonedExchangeConfig.getNetworkConfig().getConnectionTimeout());
+    assertNull(clonedExchangeConfig.getOtherConfig());
+
+    // Changing the clone must not change the original.
+    clonedExchangeConfig.getAuthenticationConfig().clear();
+    clonedExchangeConfig.getNetworkConfig().getNonFatalErrorCodes().clear();
+    assertEquals("secret", exchangeConfig.getAuthenticationConfig().get("key"));
+    assertEquals(1, exchangeConfig.getNetworkConfig().getNonFatalErrorCodes().size());
+  }
+
   @Test
   public void testToStringWorksAsExpected() {
     final ExchangeConfig exchangeConfig = new ExchangeConfig();
@@ -28,6 +28,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
 
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 
 /**
@@ -43,6 +45,8 @@ public class TestMarketConfig {
   private static final String COUNTER_CURRENCY = "USD";
   private static final boolean IS_ENABLED = true;
   private static final String TRADING_STRATEGY = "macd_trend_follower";
+  private static final List<String> TRADING_STRATEGIES =
+      Arrays.asList("macd_trend_follower", "scalper");
 
   @Test
   public void testInitialisationWorksAsExpected() {
@@ -66,6 +70,7 @@ public class TestMarketConfig {
     assertNull(marketConfig.getCounterCurrency());
     assertFalse(marketConfig.isEnabled());
     assertNull(marketConfig.getTradingStrategyId());
+    assertNull(marketConfig.getTradingStrategyIds());
 
     marketConfig.setId(ID);
     assertEquals(ID, marketConfig.getId());
@@ -84,15 +89,20 @@ public class TestMarketConfig {
 
     marketConfig.setTradingStrategyId(TRADING_STRATEGY);
     assertEquals(TRADING_STRATEGY, marketConfig.getTradingStrategyId());
+
+    marketConfig.setTradingStrategyIds(TRADING_STRATEGIES);
+    assertEquals(TRADING_STRATEGIES, marketConfig.getTradingStrategyIds());
   }
 
   @Test
   public void testCloningWorksAsExpected() {
     final MarketConfig marketConfig =
         new MarketConfig(ID, NAME, BASE_CURRENCY, COUNTER_CURRENCY, IS_ENABLED, TRADING_STRATEGY);
+    marketConfig.setTradingStrategyIds(TRADING_STRATEGIES);
     final MarketConfig clonedMarketConfig = new MarketConfig(marketConfig);
 
     assertEquals(clonedMarketConfig, marketConfig);
+    assertEquals(TRADING_STRATEGIES, clonedMarketConfig.getTradingStrategyIds());
   }
 
   @Test
@@ -134,7 +144,8 @@ public class TestMarketConfig {
 
     assertEquals(
         "MarketConfig{id=gemini_usd/btc, name=BTC/USD, baseCurrency=BTC,"
-            + " counterCurrency=USD, enabled=true, tradingStrategyId=macd_trend_follower}",
+            + " counterCurrency=USD, enabled=true, tradingStrategyId=macd_trend_follower,"
+            + " tradingStrategyIds=null}",
         market1.toString());
   }
 }
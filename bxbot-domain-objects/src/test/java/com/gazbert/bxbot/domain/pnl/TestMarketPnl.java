@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.domain.pnl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import org.junit.Test;
+
+/**
+ * Tests a MarketPnl domain object behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketPnl {
+
+  private static final String MARKET_ID = "btc_usd";
+  private static final String CURRENCY = "USD";
+  private static final BigDecimal QUANTITY = new BigDecimal("0.5");
+  private static final BigDecimal AVERAGE_ENTRY_PRICE = new BigDecimal("10000");
+  private static final BigDecimal MARK_PRICE = new BigDecimal("11000");
+  private static final BigDecimal REALIZED_PNL = new BigDecimal("-12.5");
+  private static final BigDecimal UNREALIZED_PNL = new BigDecimal("500");
+  private static final BigDecimal FEES_PAID = new BigDecimal("12.5");
+
+  @Test
+  public void testInitialisationWorksAsExpected() {
+    final MarketPnl marketPnl =
+        new MarketPnl(
+            MARKET_ID,
+            CURRENCY,
+            QUANTITY,
+            AVERAGE_ENTRY_PRICE,
+            MARK_PRICE,
+            REALIZED_PNL,
+            UNREALIZED_PNL,
+            FEES_PAID);
+    assertEquals(MARKET_ID, marketPnl.getMarketId());
+    assertEquals(CURRENCY, marketPnl.getCurrency());
+    assertEquals(QUANTITY, marketPnl.getQuantity());
+    assertEquals(AVERAGE_ENTRY_PRICE, marketPnl.getAverageEntryPrice());
+    assertEquals(MARK_PRICE, marketPnl.getMarkPrice());
+    assertEquals(REALIZED_PNL, marketPnl.getRealizedPnl());
+    assertEquals(UNREALIZED_PNL, marketPnl.getUnrealizedPnl());
+    assertEquals(FEES_PAID, marketPnl.getFeesPaid());
+  }
+
+  @Test
+  public void testSettersWorkAsExpected() {
+    final MarketPnl marketPnl = new MarketPnl();
+    assertNull(marketPnl.getMarketId());
+    assertNull(marketPnl.getCurrency());
+    assertNull(marketPnl.getQuantity());
+    assertNull(marketPnl.getAverageEntryPrice());
+    assertNull(marketPnl.getMarkPrice());
+    assertNull(marketPnl.getRealizedPnl());
+    assertNull(marketPnl.getUnrealizedPnl());
+    assertNull(marketPnl.getFeesPaid());
+
+    marketPnl.setMarketId(MARKET_ID);
+    assertEquals(MARKET_ID, marketPnl.getMarketId());
+
+    marketPnl.setCurrency(CURRENCY);
+    assertEquals(CURRENCY, marketPnl.getCurrency());
+
+    marketPnl.setQuantity(QUANTITY);
+    assertEquals(QUANTITY, marketPnl.getQuantity());
+
+    marketPnl.setAverageEntryPrice(AVERAGE_ENTRY_PRICE);
+    assertEquals(AVERAGE_ENTRY_PRICE, marketPnl.getAverageEntryPrice());
+
+    marketPnl.setMarkPrice(MARK_PRICE);
+    assertEquals(MARK_PRICE, marketPnl.getMarkPrice());
+
+    marketPnl.setRealizedPnl(REALIZED_PNL);
+    assertEquals(REALIZED_PNL, marketPnl.getRealizedPnl());
+
+    marketPnl.setUnrealizedPnl(UNREALIZED_PNL);
+    assertEquals(UNREALIZED_PNL, marketPnl.getUnrealizedPnl());
+
+    marketPnl.setFeesPaid(FEES_PAID);
+    assertEquals(FEES_PAID, marketPnl.getFeesPaid());
+  }
+
+  @Test
+  public void testToStringWorksAsExpected() {
+    final MarketPnl marketPnl =
+        new MarketPnl(
+            MARKET_ID,
+            CURRENCY,
+            QUANTITY,
+            AVERAGE_ENTRY_PRICE,
+            MARK_PRICE,
+            REALIZED_PNL,
+            UNREALIZED_PNL,
+            FEES_PAID);
+    assertTrue(
+        marketPnl
+            .toString()
+            .startsWith("MarketPnl{marketId=btc_usd, currency=USD, quantity=0.5, "));
+  }
+}
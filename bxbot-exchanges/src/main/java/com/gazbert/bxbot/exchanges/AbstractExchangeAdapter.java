@@ -27,9 +27,13 @@ import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.NetworkConfig;
 import com.gazbert.bxbot.exchange.api.OtherConfig;
+import com.gazbert.bxbot.exchanges.HedgedRequestExecutor.CancellableRequest;
+import com.gazbert.bxbot.exchanges.MarketMetadataCache.MarketMetadataLoader;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
 import com.gazbert.bxbot.trading.api.TradingApiException;
 import com.google.common.base.MoreObjects;
+import com.google.common.io.CountingInputStream;
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -53,6 +57,7 @@ import java.util.Map;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
 
 /**
  * Base class for common Exchange Adapter functionality.
@@ -86,11 +91,24 @@ abstract class AbstractExchangeAdapter {
   private static final String NON_FATAL_ERROR_CODES_PROPERTY_NAME = "non-fatal-error-codes";
   private static final String NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME = "non-fatal-error-messages";
 
+  private static final String HEDGE_PUBLIC_REQUESTS_PROPERTY_NAME = "hedge-public-requests";
+  private static final String HEDGE_LATENCY_PERCENTILE_PROPERTY_NAME = "hedge-latency-percentile";
+  private static final String HEDGE_MAX_EXTRA_LOAD_PERCENT_PROPERTY_NAME =
+      "hedge-max-extra-load-percent";
+
+  private static final String STATUS_IO_ERROR = "IO_ERROR";
+  private static final String STATUS_TIMEOUT = "TIMEOUT";
+  private static final String STATUS_UNREACHABLE = "UNREACHABLE";
+  private static final String STATUS_CANCELLED = "CANCELLED";
+
   private final Set<Integer> nonFatalNetworkErrorCodes;
   private final Set<String> nonFatalNetworkErrorMessages;
+  private final ExchangeApiMetrics exchangeApiMetrics;
+  private final MarketMetadataCache marketMetadataCache;
 
   private int connectionTimeout;
   private DecimalFormatSymbols decimalFormatSymbols;
+  private HedgedRequestExecutor hedgedRequestExecutor; // null if hedging is disabled
 
   /**
    * Constructor sets some sensible defaults for the network config and specifies decimal point
@@ -100,6 +118,8 @@ abstract class AbstractExchangeAdapter {
     connectionTimeout = 30;
     nonFatalNetworkErrorCodes = new HashSet<>();
     nonFatalNetworkErrorMessages = new HashSet<>();
+    exchangeApiMetrics = new ExchangeApiMetrics(getClass().getSimpleName());
+    marketMetadataCache = new MarketMetadataCache(getClass().getSimpleName());
 
     // Some locales (e.g. Czech Republic) default to ',' instead of '.' for decimal point. Exchanges
     // always require a '.'
@@ -110,6 +130,10 @@ abstract class AbstractExchangeAdapter {
   /**
    * Makes a request to the Exchange.
    *
+   * <p>The latency, response size, and outcome of every request is recorded in the {@code
+   * bxbot.exchange.http.*} metrics, tagged by adapter, HTTP method, endpoint template and status.
+   * Each request is also a Java Flight Recorder {@link ExchangeRequestEvent}, with the full path.
+   *
    * @param url the URL to invoke.
    * @param postData optional post data to send. This can be null.
    * @param httpMethod the HTTP method to use, e.g. GET, POST, DELETE
@@ -124,14 +148,36 @@ abstract class AbstractExchangeAdapter {
   ExchangeHttpResponse sendNetworkRequest(
       URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
       throws TradingApiException, ExchangeNetworkException {
+    return sendNetworkRequest(url, httpMethod, postData, requestHeaders, null);
+  }
+
+  private ExchangeHttpResponse sendNetworkRequest(
+      URL url,
+      String httpMethod,
+      String postData,
+      Map<String, String> requestHeaders,
+      HedgeableGetRequest hedgeableRequest)
+      throws TradingApiException, ExchangeNetworkException {
 
     HttpURLConnection exchangeConnection = null;
     final StringBuilder exchangeResponse = new StringBuilder();
 
+    final ExchangeRequestEvent exchangeRequestEvent = new ExchangeRequestEvent();
+    exchangeRequestEvent.begin();
+    final long startTime = System.nanoTime();
+    String status = STATUS_IO_ERROR;
+    String outcome = ExchangeApiMetrics.OUTCOME_API_ERROR;
+    long responseBytes = 0;
+
     try {
-      LOG.debug(() -> "Using following URL for API call: " + url);
+      LOG.debug("Using following URL for API call: {}", url);
 
       exchangeConnection = (HttpURLConnection) url.openConnection();
+      if (hedgeableRequest != null && !hedgeableRequest.setConnection(exchangeConnection)) {
+        status = STATUS_CANCELLED;
+        outcome = ExchangeApiMetrics.OUTCOME_CANCELLED;
+        throw new ExchangeNetworkException("Hedged request was cancelled before it was sent.");
+      }
       exchangeConnection.setUseCaches(false);
       exchangeConnection.setDoOutput(true);
       exchangeConnection.setRequestMethod(httpMethod); // GET|POST|DELETE
@@ -144,7 +190,7 @@ abstract class AbstractExchangeAdapter {
       exchangeConnection.setReadTimeout(timeoutInMillis);
 
       if (httpMethod.equalsIgnoreCase("POST") && postData != null) {
-        LOG.debug(() -> "Doing POST with request body: " + postData);
+        LOG.debug("Doing POST with request body: {}", postData);
         try (final OutputStreamWriter outputPostStream =
             new OutputStreamWriter(exchangeConnection.getOutputStream(), StandardCharsets.UTF_8)) {
           outputPostStream.write(postData);
@@ -152,9 +198,10 @@ abstract class AbstractExchangeAdapter {
       }
 
       // Grab the response - we just block here as per Connection API
+      final CountingInputStream countingInputStream =
+          new CountingInputStream(exchangeConnection.getInputStream());
       try (final BufferedReader responseInputStream =
-          new BufferedReader(
-              new InputStreamReader(exchangeConnection.getInputStream(), StandardCharsets.UTF_8))) {
+          new BufferedReader(new InputStreamReader(countingInputStream, StandardCharsets.UTF_8))) {
 
         // Read the JSON response lines into our response buffer
         String responseLine;
@@ -162,10 +209,13 @@ abstract class AbstractExchangeAdapter {
           exchangeResponse.append(responseLine);
         }
 
+        final int responseCode = exchangeConnection.getResponseCode();
+        status = String.valueOf(responseCode);
+        outcome = ExchangeApiMetrics.OUTCOME_SUCCESS;
+        responseBytes = countingInputStream.getCount();
+
         return new ExchangeHttpResponse(
-            exchangeConnection.getResponseCode(),
-            exchangeConnection.getResponseMessage(),
-            exchangeResponse.toString());
+            responseCode, exchangeConnection.getResponseMessage(), exchangeResponse.toString());
       }
 
     } catch (MalformedURLException e) {
@@ -174,6 +224,8 @@ abstract class AbstractExchangeAdapter {
       throw new TradingApiException(errorMsg, e);
 
     } catch (SocketTimeoutException e) {
+      status = STATUS_TIMEOUT;
+      outcome = ExchangeApiMetrics.OUTCOME_NETWORK_ERROR;
       final String errorMsg = IO_SOCKET_TIMEOUT_ERROR_MSG;
       LOG.error(errorMsg, e);
       throw new ExchangeNetworkException(errorMsg, e);
@@ -181,25 +233,41 @@ abstract class AbstractExchangeAdapter {
     } catch (FileNotFoundException | UnknownHostException e) {
       // Huobi started throwing FileNotFoundException as of 8 Nov 2015.
       // EC2 started throwing UnknownHostException for BTC-e, GDAX, as of 14 July 2016 :-/
+      status = STATUS_UNREACHABLE;
+      outcome = ExchangeApiMetrics.OUTCOME_NETWORK_ERROR;
       final String errorMsg = "Failed to connect to Exchange. It's dead Jim!";
       LOG.error(errorMsg, e);
       throw new ExchangeNetworkException(errorMsg, e);
 
     } catch (IOException e) {
+      if (hedgeableRequest != null && hedgeableRequest.isCancelled()) {
+        // We lost the race and our connection was closed - not an error.
+        status = STATUS_CANCELLED;
+        outcome = ExchangeApiMetrics.OUTCOME_CANCELLED;
+        LOG.debug("Hedged request was cancelled: {}", url);
+        throw new ExchangeNetworkException("Hedged request was cancelled.", e);
+      }
       try {
         if (errorMessageIsRecoverableNetworkError(e)) {
+          outcome = ExchangeApiMetrics.OUTCOME_NETWORK_ERROR;
           final String errorMsg =
               "Failed to connect to Exchange. SSL Connection was refused or reset by the server.";
           LOG.error(errorMsg, e);
           throw new ExchangeNetworkException(errorMsg, e);
 
         } else if (errorCodeIsRecoverableNetworkError(exchangeConnection)) {
+          status = String.valueOf(exchangeConnection.getResponseCode());
+          outcome = ExchangeApiMetrics.OUTCOME_NETWORK_ERROR;
           final String errorMsg = IO_5XX_TIMEOUT_ERROR_MSG;
           LOG.error(errorMsg, e);
           throw new ExchangeNetworkException(errorMsg, e);
 
         } else {
           // Game over!
+          if (exchangeConnection != null) {
+            // Response code has already been fetched (and cached) by the recoverable code check.
+            status = String.valueOf(exchangeConnection.getResponseCode());
+          }
           String errorMsg = extractIoErrorMessage(exchangeConnection);
           LOG.error(errorMsg, e);
           throw new TradingApiException(errorMsg, e);
@@ -215,7 +283,43 @@ abstract class AbstractExchangeAdapter {
       if (exchangeConnection != null) {
         exchangeConnection.disconnect();
       }
+      final String method = httpMethod.toUpperCase(Locale.ROOT);
+      final String endpoint = url.getPath();
+      exchangeApiMetrics.recordHttpRequest(
+          method,
+          ExchangeApiMetrics.endpointTemplate(endpoint),
+          status,
+          outcome,
+          System.nanoTime() - startTime,
+          responseBytes);
+      exchangeRequestEvent.complete(
+          getClass(), method, endpoint, status, outcome, postData, responseBytes);
+    }
+  }
+
+  /**
+   * Makes an idempotent GET request to the Exchange, hedging it if hedging has been enabled for the
+   * adapter - see {@link #setHedgedRequestConfig(ExchangeConfig)}.
+   *
+   * <p>Only use this for public API calls. Authenticated calls must use {@link
+   * #sendNetworkRequest(URL, String, String, Map)}: they are not always idempotent, and a
+   * duplicate request would burn a nonce.
+   *
+   * @param url the URL to invoke.
+   * @param requestHeaders optional request headers to set on the {@link URLConnection} used to
+   *     invoke the Exchange.
+   * @return the response from the Exchange.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   *     This exception allows for recovery from temporary network issues.
+   * @throws TradingApiException if the API call failed for any reason other than a network error.
+   *     This means something really bad as happened.
+   */
+  ExchangeHttpResponse sendHedgeableGetRequest(URL url, Map<String, String> requestHeaders)
+      throws TradingApiException, ExchangeNetworkException {
+    if (hedgedRequestExecutor == null) {
+      return sendNetworkRequest(url, "GET", null, requestHeaders, null);
     }
+    return hedgedRequestExecutor.execute(() -> new HedgeableGetRequest(url, requestHeaders));
   }
 
   /**
@@ -240,19 +344,70 @@ abstract class AbstractExchangeAdapter {
       LOG.error(errorMsg);
       throw new IllegalArgumentException(errorMsg);
     }
-    LOG.info(() -> CONNECTION_TIMEOUT_PROPERTY_NAME + ": " + connectionTimeout);
+    LOG.info(CONNECTION_TIMEOUT_PROPERTY_NAME + ": {}", connectionTimeout);
 
     final List<Integer> nonFatalErrorCodesFromConfig = networkConfig.getNonFatalErrorCodes();
     if (nonFatalErrorCodesFromConfig != null) {
       nonFatalNetworkErrorCodes.addAll(nonFatalErrorCodesFromConfig);
     }
-    LOG.info(() -> NON_FATAL_ERROR_CODES_PROPERTY_NAME + ": " + nonFatalNetworkErrorCodes);
+    LOG.info(NON_FATAL_ERROR_CODES_PROPERTY_NAME + ": {}", nonFatalNetworkErrorCodes);
 
     final List<String> nonFatalErrorMessagesFromConfig = networkConfig.getNonFatalErrorMessages();
     if (nonFatalErrorMessagesFromConfig != null) {
       nonFatalNetworkErrorMessages.addAll(nonFatalErrorMessagesFromConfig);
     }
-    LOG.info(() -> NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME + ": " + nonFatalNetworkErrorMessages);
+    LOG.info(NON_FATAL_ERROR_MESSAGES_PROPERTY_NAME + ": {}", nonFatalNetworkErrorMessages);
+  }
+
+  /**
+   * Sets the hedged request config for the exchange adapter. Hedging is optional and disabled by
+   * default; it is enabled by setting the following items in the adapter's otherConfig:
+   *
+   * <ul>
+   *   <li>hedge-public-requests - true to hedge public GET requests.
+   *   <li>hedge-latency-percentile - optional; a second request is sent if the first is slower
+   *       than this percentile of recent calls. Defaults to 95.
+   *   <li>hedge-max-extra-load-percent - optional; caps the extra requests sent to the exchange as
+   *       a percentage of all public requests. Defaults to 5.
+   * </ul>
+   *
+   * @param exchangeConfig the exchange config.
+   * @throws IllegalArgumentException if the hedge config is invalid.
+   */
+  void setHedgedRequestConfig(ExchangeConfig exchangeConfig) {
+    final OtherConfig otherConfig = exchangeConfig.getOtherConfig();
+    if (otherConfig == null
+        || !Boolean.parseBoolean(otherConfig.getItem(HEDGE_PUBLIC_REQUESTS_PROPERTY_NAME))) {
+      LOG.info(HEDGE_PUBLIC_REQUESTS_PROPERTY_NAME + ": false");
+      return;
+    }
+
+    final int latencyPercentile =
+        getOptionalIntConfigItem(
+            otherConfig,
+            HEDGE_LATENCY_PERCENTILE_PROPERTY_NAME,
+            HedgedRequestExecutor.DEFAULT_LATENCY_PERCENTILE);
+    final int maxExtraLoadPercent =
+        getOptionalIntConfigItem(
+            otherConfig,
+            HEDGE_MAX_EXTRA_LOAD_PERCENT_PROPERTY_NAME,
+            HedgedRequestExecutor.DEFAULT_MAX_EXTRA_LOAD_PERCENT);
+
+    if (hedgedRequestExecutor != null) {
+      hedgedRequestExecutor.shutdown();
+    }
+    hedgedRequestExecutor =
+        new HedgedRequestExecutor(
+            getClass().getSimpleName(), latencyPercentile, maxExtraLoadPercent);
+    LOG.info(
+        HEDGE_PUBLIC_REQUESTS_PROPERTY_NAME
+            + ": true - "
+            + HEDGE_LATENCY_PERCENTILE_PROPERTY_NAME
+            + ": {}, "
+            + HEDGE_MAX_EXTRA_LOAD_PERCENT_PROPERTY_NAME
+            + ": {}",
+        latencyPercentile,
+        maxExtraLoadPercent);
   }
 
   /**
@@ -313,7 +468,7 @@ abstract class AbstractExchangeAdapter {
    */
   String getOtherConfigItem(OtherConfig otherConfig, String itemName) {
     final String itemValue = otherConfig.getItem(itemName);
-    LOG.info(() -> itemName + ": " + itemValue);
+    LOG.info("{}: {}", itemName, itemValue);
     return assertItemExists(itemName, itemValue);
   }
 
@@ -350,8 +505,46 @@ abstract class AbstractExchangeAdapter {
     return decimalFormatSymbols;
   }
 
-  /** Wrapper for holding Exchange HTTP response. */
-  static class ExchangeHttpResponse {
+  /**
+   * Returns the trading rules for a market. The rules for all markets are fetched from the exchange
+   * using the given loader the first time this is called, and then cached in memory and on disk.
+   *
+   * @param marketId the market id.
+   * @param loader fetches the rules for all markets from the exchange.
+   * @return the trading rules for the market.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   * @throws TradingApiException if the rules could not be fetched or the market is unknown.
+   */
+  MarketMetadata fetchMarketMetadata(String marketId, MarketMetadataLoader loader)
+      throws TradingApiException, ExchangeNetworkException {
+    return marketMetadataCache.get(marketId, loader);
+  }
+
+  /**
+   * Returns the cached trading rules for a market, without calling the exchange.
+   *
+   * @param marketId the market id.
+   * @return the trading rules for the market, or null if they have not been loaded.
+   */
+  MarketMetadata getCachedMarketMetadata(String marketId) {
+    return marketMetadataCache.getIfCached(marketId);
+  }
+
+  /**
+   * Wrapper for holding Exchange HTTP response.
+   *
+   * <p>When passed as a log message parameter, the response is written straight into log4j's
+   * reusable buffer, and the payload is truncated to {@link #MAX_LOGGED_PAYLOAD_LENGTH} chars -
+   * some exchanges return the entire order book.
+   */
+  static class ExchangeHttpResponse implements StringBuilderFormattable {
+
+    /**
+     * The max payload length to log, set using the {@code bxbot.exchange.log.maxPayloadLength}
+     * system property. Defaults to 4096; set it to 0 to log whole payloads.
+     */
+    static final int MAX_LOGGED_PAYLOAD_LENGTH =
+        Integer.getInteger("bxbot.exchange.log.maxPayloadLength", 4096);
 
     private final int statusCode;
     private final String reasonPhrase;
@@ -383,6 +576,69 @@ abstract class AbstractExchangeAdapter {
           .add("payload", payload)
           .toString();
     }
+
+    @Override
+    public void formatTo(StringBuilder buffer) {
+      buffer
+          .append("ExchangeHttpResponse{statusCode=")
+          .append(statusCode)
+          .append(", reasonPhrase=")
+          .append(reasonPhrase)
+          .append(", payload=");
+      if (payload == null
+          || MAX_LOGGED_PAYLOAD_LENGTH <= 0
+          || payload.length() <= MAX_LOGGED_PAYLOAD_LENGTH) {
+        buffer.append(payload);
+      } else {
+        buffer
+            .append(payload, 0, MAX_LOGGED_PAYLOAD_LENGTH)
+            .append("...[")
+            .append(payload.length() - MAX_LOGGED_PAYLOAD_LENGTH)
+            .append(" more chars]");
+      }
+      buffer.append('}');
+    }
+  }
+
+  /** A public GET request that can be cancelled by closing its connection. */
+  private class HedgeableGetRequest implements CancellableRequest {
+
+    private final URL url;
+    private final Map<String, String> requestHeaders;
+    private HttpURLConnection connection;
+    private boolean cancelled;
+
+    HedgeableGetRequest(URL url, Map<String, String> requestHeaders) {
+      this.url = url;
+      this.requestHeaders = requestHeaders;
+    }
+
+    @Override
+    public ExchangeHttpResponse send() throws TradingApiException, ExchangeNetworkException {
+      return sendNetworkRequest(url, "GET", null, requestHeaders, this);
+    }
+
+    @Override
+    public void cancel() {
+      final HttpURLConnection connectionToClose;
+      synchronized (this) {
+        cancelled = true;
+        connectionToClose = connection;
+      }
+      if (connectionToClose != null) {
+        connectionToClose.disconnect();
+      }
+    }
+
+    synchronized boolean isCancelled() {
+      return cancelled;
+    }
+
+    /* Returns false if the request was cancelled before the connection was opened. */
+    synchronized boolean setConnection(HttpURLConnection connection) {
+      this.connection = connection;
+      return !cancelled;
+    }
   }
 
   // --------------------------------------------------------------------------
@@ -401,7 +657,7 @@ abstract class AbstractExchangeAdapter {
     if (requestHeaders != null) {
       for (final Map.Entry<String, String> requestHeader : requestHeaders.entrySet()) {
         exchangeConnection.setRequestProperty(requestHeader.getKey(), requestHeader.getValue());
-        LOG.debug(() -> "Setting following request header: " + requestHeader);
+        LOG.debug("Setting following request header: {}", requestHeader);
       }
     }
   }
@@ -437,6 +693,22 @@ abstract class AbstractExchangeAdapter {
     return errorMsg;
   }
 
+  private static int getOptionalIntConfigItem(
+      OtherConfig otherConfig, String itemName, int defaultValue) {
+    final String itemValue = otherConfig.getItem(itemName);
+    if (itemValue == null || itemValue.isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(itemValue.trim());
+    } catch (NumberFormatException e) {
+      final String errorMsg =
+          itemName + " must be a whole number: " + itemValue + " in " + EXCHANGE_CONFIG_FILE;
+      LOG.error(errorMsg);
+      throw new IllegalArgumentException(errorMsg, e);
+    }
+  }
+
   private static String assertItemExists(String itemName, String itemValue) {
     if (itemValue == null || itemValue.length() == 0) {
       final String errorMsg =
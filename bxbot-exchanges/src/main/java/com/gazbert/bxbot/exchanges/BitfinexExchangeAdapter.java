@@ -138,7 +138,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
 
   @Override
   public void init(ExchangeConfig config) {
-    LOG.info(() -> "About to initialise Bitfinex ExchangeConfig: " + config);
+    LOG.info("About to initialise Bitfinex ExchangeConfig: {}", config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
 
@@ -157,7 +157,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId);
-      LOG.debug(() -> "Market Orders response: " + response);
+      LOG.debug("Market Orders response: {}", response);
 
       final BitfinexOrderBook orderBook =
           gson.fromJson(response.getPayload(), BitfinexOrderBook.class);
@@ -200,7 +200,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("orders", null);
-      LOG.debug(() -> "Open Orders response: " + response);
+      LOG.debug("Open Orders response: {}", response);
 
       final BitfinexOpenOrders bitfinexOpenOrders =
           gson.fromJson(response.getPayload(), BitfinexOpenOrders.class);
@@ -302,7 +302,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
       // params.put("is_hidden", "false");
 
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/new", params);
-      LOG.debug(() -> "Create Order response: " + response);
+      LOG.debug("Create Order response: {}", response);
 
       final BitfinexNewOrderResponse createOrderResponse =
           gson.fromJson(response.getPayload(), BitfinexNewOrderResponse.class);
@@ -336,7 +336,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
 
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("order/cancel", params);
-      LOG.debug(() -> "Cancel Order response: " + response);
+      LOG.debug("Cancel Order response: {}", response);
 
       // Exchange returns order id and other details if successful, a 400 HTTP Status if the order
       // id was not recognised.
@@ -364,7 +364,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       final BitfinexTicker ticker = gson.fromJson(response.getPayload(), BitfinexTicker.class);
       return ticker.lastPrice;
@@ -382,7 +382,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balances", null);
-      LOG.debug(() -> "Balance Info response: " + response);
+      LOG.debug("Balance Info response: {}", response);
 
       final BitfinexBalances allAccountBalances =
           gson.fromJson(response.getPayload(), BitfinexBalances.class);
@@ -424,7 +424,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     try {
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("account_infos", null);
-      LOG.debug(() -> "Buy Fee response: " + response);
+      LOG.debug("Buy Fee response: {}", response);
 
       // Nightmare to adapt! Just take the top-level taker fees.
       final BitfinexAccountInfos bitfinexAccountInfos =
@@ -449,7 +449,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
     try {
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("account_infos", null);
-      LOG.debug(() -> "Sell Fee response: " + response);
+      LOG.debug("Sell Fee response: {}", response);
 
       // Nightmare to adapt! Just take the top-level taker fees.
       final BitfinexAccountInfos bitfinexAccountInfos =
@@ -477,7 +477,7 @@ public final class BitfinexExchangeAdapter extends AbstractExchangeAdapter
   public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       final BitfinexTicker ticker = gson.fromJson(response.getPayload(), BitfinexTicker.class);
       return new TickerImpl(
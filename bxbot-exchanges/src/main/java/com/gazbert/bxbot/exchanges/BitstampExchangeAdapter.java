@@ -29,12 +29,16 @@ import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchanges.trading.api.impl.BalanceInfoImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderBookImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MyTradeHistoryImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MyTradeImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.OpenOrderImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.MarketOrder;
 import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
 import com.gazbert.bxbot.trading.api.OpenOrder;
 import com.gazbert.bxbot.trading.api.OrderType;
 import com.gazbert.bxbot.trading.api.Ticker;
@@ -63,6 +67,7 @@ import java.text.DecimalFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -100,6 +105,10 @@ import org.apache.logging.log4j.Logger;
  * orders. This adapter truncates any prices with more than 2 decimal places and rounds using {@link
  * java.math.RoundingMode#HALF_EVEN}, E.g. 250.176 would be sent to the exchange as 250.18.
  *
+ * <p>Public API calls (order book, ticker) can optionally be hedged to cut tail latency by setting
+ * {@code hedge-public-requests: true} in the otherConfig section of the exchange.yaml file.
+ * Authenticated calls are never hedged.
+ *
  * @author gazbert
  * @since 1.0
  */
@@ -134,9 +143,10 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
 
   @Override
   public void init(ExchangeConfig config) {
-    LOG.info(() -> "About to initialise Bitstamp ExchangeConfig: " + config);
+    LOG.info("About to initialise Bitstamp ExchangeConfig: {}", config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
+    setHedgedRequestConfig(config);
 
     nonce = System.currentTimeMillis() / 1000;
     initSecureMessageLayer();
@@ -153,7 +163,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("order_book/" + marketId);
-      LOG.debug(() -> "Market Orders response: " + response);
+      LOG.debug("Market Orders response: {}", response);
 
       final BitstampOrderBook bitstampOrderBook =
           gson.fromJson(response.getPayload(), BitstampOrderBook.class);
@@ -199,7 +209,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     try {
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("open_orders/" + marketId, null);
-      LOG.debug(() -> "Open Orders response: " + response);
+      LOG.debug("Open Orders response: {}", response);
 
       final BitstampOrderResponse[] myOpenOrders =
           gson.fromJson(response.getPayload(), BitstampOrderResponse[].class);
@@ -274,7 +284,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
         throw new IllegalArgumentException(errorMsg);
       }
 
-      LOG.debug(() -> "Create Order response: " + response);
+      LOG.debug("Create Order response: {}", response);
 
       final BitstampOrderResponse createOrderResponse =
           gson.fromJson(response.getPayload(), BitstampOrderResponse.class);
@@ -308,7 +318,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
 
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("cancel_order", params);
-      LOG.debug(() -> "Cancel Order response: " + response);
+      LOG.debug("Cancel Order response: {}", response);
 
       final BitstampCancelOrderResponse cancelOrderResponse =
           gson.fromJson(response.getPayload(), BitstampCancelOrderResponse.class);
@@ -334,7 +344,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker/" + marketId);
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       final BitstampTicker bitstampTicker =
           gson.fromJson(response.getPayload(), BitstampTicker.class);
@@ -353,7 +363,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(BALANCE, null);
-      LOG.debug(() -> "Balance Info response: " + response);
+      LOG.debug("Balance Info response: {}", response);
 
       final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
 
@@ -387,7 +397,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(BALANCE, null);
-      LOG.debug(() -> "Buy Fee response: " + response);
+      LOG.debug("Buy Fee response: {}", response);
 
       final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
 
@@ -425,7 +435,7 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
       throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange(BALANCE, null);
-      LOG.debug(() -> "Sell Fee response: " + response);
+      LOG.debug("Sell Fee response: {}", response);
 
       final BitstampBalance balances = gson.fromJson(response.getPayload(), BitstampBalance.class);
 
@@ -463,12 +473,66 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     return "Bitstamp HTTP API v2";
   }
 
+  /**
+   * Fetches your trades using the Bitstamp user_transactions API call. The cursor is the id of the
+   * last transaction seen, and is passed to the exchange as the since_id param.
+   */
+  @Override
+  public MyTradeHistory getMyTrades(String marketId, String sinceCursor)
+      throws TradingApiException, ExchangeNetworkException {
+    try {
+      final Map<String, String> params = createRequestParamMap();
+      if (sinceCursor != null) {
+        params.put("since_id", sinceCursor);
+        params.put("limit", "1000");
+        params.put("sort", "asc");
+      }
+
+      final ExchangeHttpResponse response =
+          sendAuthenticatedRequestToExchange("user_transactions/" + marketId + "/", params);
+      LOG.debug("User Transactions response: {}", response);
+
+      final JsonElement transactionsJson = gson.fromJson(response.getPayload(), JsonElement.class);
+      if (transactionsJson == null || !transactionsJson.isJsonArray()) {
+        final String errorMsg =
+            "Failed to get user transactions from exchange. Details: " + response;
+        LOG.error(errorMsg);
+        throw new TradingApiException(errorMsg);
+      }
+
+      final long lastSeenId = sinceCursor == null ? -1 : Long.parseLong(sinceCursor);
+      long newestId = lastSeenId;
+      final List<MyTrade> trades = new ArrayList<>();
+      for (final JsonElement transactionJson : transactionsJson.getAsJsonArray()) {
+        final BitstampUserTransaction transaction =
+            gson.fromJson(transactionJson, BitstampUserTransaction.class);
+        if (transaction.id <= lastSeenId) {
+          continue; // since_id is inclusive
+        }
+        newestId = Math.max(newestId, transaction.id);
+        if (transaction.type == BitstampUserTransaction.MARKET_TRADE) {
+          trades.add(adaptUserTransaction(marketId, transaction, transactionJson));
+        }
+      }
+
+      // Exchange returns newest first unless we asked for ascending.
+      trades.sort(Comparator.comparingLong(trade -> Long.parseLong(trade.getId())));
+      final String cursor = newestId == -1 ? null : Long.toString(newestId);
+      return new MyTradeHistoryImpl(trades, cursor);
+
+    } catch (RuntimeException e) {
+      // Unexpected payload, e.g. a malformed transaction id or amount.
+      LOG.error(UNEXPECTED_ERROR_MSG, e);
+      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+    }
+  }
+
   @Override
   public Ticker getTicker(String marketId) throws TradingApiException, ExchangeNetworkException {
 
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker/" + marketId);
-      LOG.debug(() -> "Ticker response: " + response);
+      LOG.debug("Ticker response: {}", response);
 
       final BitstampTicker bitstampTicker =
           gson.fromJson(response.getPayload(), BitstampTicker.class);
@@ -492,6 +556,43 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     }
   }
 
+  /*
+   * The amounts in a user transaction are keyed on currency, e.g. for btcusd:
+   * "btc": "-0.50000000", "usd": "4510.00", "btc_usd": 9020.00
+   */
+  private static MyTrade adaptUserTransaction(
+      String marketId, BitstampUserTransaction transaction, JsonElement transactionJson)
+      throws TradingApiException {
+
+    for (final Map.Entry<String, JsonElement> field :
+        transactionJson.getAsJsonObject().entrySet()) {
+      final String key = field.getKey();
+      final int separator = key.indexOf('_');
+      if (separator > 0 && key.replace("_", "").equalsIgnoreCase(marketId)) {
+        final BigDecimal price = field.getValue().getAsBigDecimal();
+        final BigDecimal baseAmount =
+            transactionJson.getAsJsonObject().get(key.substring(0, separator)).getAsBigDecimal();
+        return new MyTradeImpl(
+            Long.toString(transaction.id),
+            transaction.orderId,
+            marketId,
+            baseAmount.signum() >= 0 ? OrderType.BUY : OrderType.SELL,
+            price,
+            baseAmount.abs(),
+            transaction.fee,
+            transaction.datetime);
+      }
+    }
+
+    final String errorMsg =
+        "Unable to map marketId to user transaction returned from the Exchange. MarketId: "
+            + marketId
+            + " Transaction: "
+            + transactionJson;
+    LOG.error(errorMsg);
+    throw new TradingApiException(errorMsg);
+  }
+
   // --------------------------------------------------------------------------
   //  GSON classes for JSON responses.
   //  See https://www.bitstamp.net/api/
@@ -688,6 +789,31 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
     }
   }
 
+  /** GSON class for Bitstamp user transactions response. */
+  private static class BitstampUserTransaction {
+
+    static final int MARKET_TRADE = 2; // 0 - deposit; 1 - withdrawal; 2 - market trade
+
+    long id;
+    Date datetime;
+    int type;
+    BigDecimal fee;
+
+    @SerializedName("order_id")
+    String orderId;
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("id", id)
+          .add("datetime", datetime)
+          .add("type", type)
+          .add("fee", fee)
+          .add("orderId", orderId)
+          .toString();
+    }
+  }
+
   /** GSON class for Bitstamp cancel order response. */
   private static class BitstampCancelOrderResponse {
 
@@ -900,6 +1026,10 @@ public class BitstampExchangeAdapter extends AbstractExchangeAdapter implements
   private ExchangeHttpResponse makeNetworkRequest(
       URL url, String httpMethod, String postData, Map<String, String> requestHeaders)
       throws TradingApiException, ExchangeNetworkException {
+    if (httpMethod.equals("GET")) {
+      // Only public calls use GET - these are idempotent, so can be hedged if enabled.
+      return super.sendHedgeableGetRequest(url, requestHeaders);
+    }
     return super.sendNetworkRequest(url, httpMethod, postData, requestHeaders);
   }
 }
@@ -0,0 +1,226 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency, payload size, and outcome metrics for the HTTP calls an Exchange Adapter makes
+ * to the exchange.
+ *
+ * <p>Meters are registered with the Micrometer global registry; Spring Boot adds its own
+ * auto-configured registry to this, so the meters are available via the actuator metrics endpoint.
+ * Latency percentiles are tracked by Micrometer using HdrHistogram. The percentile histogram
+ * buckets used for aggregating percentiles across bots are not published unless the {@code
+ * bxbot.exchange.metrics.percentileHistogram} system property is set to true.
+ *
+ * <p>The endpoint tag is the URL path with any order or wallet ids replaced by {@code {id}} - see
+ * {@link #endpointTemplate(String)} - so the number of meters stays bounded however many orders the
+ * bot places. Meters are created once per tag combination and cached in nested maps, so recording
+ * a call is a few map lookups and a histogram update, with no garbage.
+ *
+ * @author gazbert
+ */
+final class ExchangeApiMetrics {
+
+  static final String HTTP_REQUESTS_METRIC_NAME = "bxbot.exchange.http.requests";
+  static final String HTTP_RESPONSE_BYTES_METRIC_NAME = "bxbot.exchange.http.response.bytes";
+
+  static final String ADAPTER_TAG = "adapter";
+  static final String HTTP_METHOD_TAG = "method";
+  static final String ENDPOINT_TAG = "endpoint";
+  static final String STATUS_TAG = "status";
+  static final String OUTCOME_TAG = "outcome";
+
+  static final String OUTCOME_SUCCESS = "SUCCESS";
+  static final String OUTCOME_NETWORK_ERROR = "NETWORK_ERROR";
+  static final String OUTCOME_API_ERROR = "API_ERROR";
+  static final String OUTCOME_CANCELLED = "CANCELLED";
+
+  static final String ID_PLACEHOLDER = "{id}";
+
+  private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+  private static final boolean PUBLISH_PERCENTILE_HISTOGRAM =
+      Boolean.getBoolean("bxbot.exchange.metrics.percentileHistogram");
+
+  // Order ids and wallet ids are UUIDs or long numbers; market ids and API versions are short or
+  // have no digits.
+  private static final int MIN_ID_SEGMENT_LENGTH = 8;
+
+  private final String adapterName;
+  private final MeterRegistry meterRegistry;
+
+  // method -> endpoint template -> meters
+  private final Map<String, Map<String, EndpointMeters>> endpointMeters =
+      new ConcurrentHashMap<>();
+
+  ExchangeApiMetrics(String adapterName) {
+    this(adapterName, Metrics.globalRegistry);
+  }
+
+  ExchangeApiMetrics(String adapterName, MeterRegistry meterRegistry) {
+    this.adapterName = adapterName;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Records the outcome of an HTTP call to the exchange.
+   *
+   * @param httpMethod the HTTP method used, e.g. GET, POST.
+   * @param endpoint the endpoint template invoked - see {@link #endpointTemplate(String)}.
+   * @param status the HTTP status code, or the type of IO failure if no status was received.
+   * @param outcome the outcome of the call: SUCCESS, NETWORK_ERROR, API_ERROR, or CANCELLED.
+   * @param elapsedNanos how long the call took in nanos.
+   * @param responseBytes the number of bytes read from the response body.
+   */
+  void recordHttpRequest(
+      String httpMethod,
+      String endpoint,
+      String status,
+      String outcome,
+      long elapsedNanos,
+      long responseBytes) {
+
+    final Map<String, EndpointMeters> methodMeters =
+        endpointMeters.computeIfAbsent(httpMethod, method -> new ConcurrentHashMap<>());
+    // Look up before computeIfAbsent: a capturing lambda would be allocated on every call.
+    EndpointMeters meters = methodMeters.get(endpoint);
+    if (meters == null) {
+      meters =
+          methodMeters.computeIfAbsent(
+              endpoint, template -> new EndpointMeters(httpMethod, template));
+    }
+
+    meters.requestTimer(status, outcome).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    if (responseBytes > 0) {
+      meters.responseSizeSummary().record(responseBytes);
+    }
+  }
+
+  /**
+   * Returns the URL path to use as the endpoint tag. Path segments that look like ids - at least 8
+   * characters long and containing a digit, e.g. the order id in GDAX's {@code /orders/<order-id>}
+   * - are replaced with {@code {id}}. The path is returned as-is if it has no id segments.
+   *
+   * @param path the URL path.
+   * @return the endpoint template.
+   */
+  static String endpointTemplate(String path) {
+    StringBuilder template = null;
+    int segmentStart = 0;
+    for (int i = 0; i <= path.length(); i++) {
+      if (i == path.length() || path.charAt(i) == '/') {
+        if (isIdSegment(path, segmentStart, i)) {
+          if (template == null) {
+            template = new StringBuilder(path.length()).append(path, 0, segmentStart);
+          }
+          template.append(ID_PLACEHOLDER);
+        } else if (template != null) {
+          template.append(path, segmentStart, i);
+        }
+        if (template != null && i < path.length()) {
+          template.append('/');
+        }
+        segmentStart = i + 1;
+      }
+    }
+    return template == null ? path : template.toString();
+  }
+
+  private static boolean isIdSegment(String path, int start, int end) {
+    if (end - start < MIN_ID_SEGMENT_LENGTH) {
+      return false;
+    }
+    for (int i = start; i < end; i++) {
+      if (Character.isDigit(path.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The meters for a given HTTP method and endpoint template. */
+  private final class EndpointMeters {
+
+    private final String httpMethod;
+    private final String endpoint;
+
+    // status -> outcome -> timer
+    private final Map<String, Map<String, Timer>> requestTimers = new ConcurrentHashMap<>();
+
+    // Registered on the first non-empty response; the registry returns the same meter if two
+    // threads race to register it.
+    private volatile DistributionSummary responseSizeSummary;
+
+    EndpointMeters(String httpMethod, String endpoint) {
+      this.httpMethod = httpMethod;
+      this.endpoint = endpoint;
+    }
+
+    DistributionSummary responseSizeSummary() {
+      DistributionSummary summary = responseSizeSummary;
+      if (summary == null) {
+        summary =
+            DistributionSummary.builder(HTTP_RESPONSE_BYTES_METRIC_NAME)
+                .description("Size of HTTP response payloads received from the exchange")
+                .baseUnit("bytes")
+                .tag(ADAPTER_TAG, adapterName)
+                .tag(HTTP_METHOD_TAG, httpMethod)
+                .tag(ENDPOINT_TAG, endpoint)
+                .register(meterRegistry);
+        responseSizeSummary = summary;
+      }
+      return summary;
+    }
+
+    Timer requestTimer(String status, String outcome) {
+      final Map<String, Timer> statusTimers =
+          requestTimers.computeIfAbsent(status, key -> new ConcurrentHashMap<>());
+      final Timer timer = statusTimers.get(outcome);
+      if (timer != null) {
+        return timer;
+      }
+      return statusTimers.computeIfAbsent(outcome, key -> createRequestTimer(status, outcome));
+    }
+
+    private Timer createRequestTimer(String status, String outcome) {
+      return Timer.builder(HTTP_REQUESTS_METRIC_NAME)
+          .description("Latency of HTTP calls made to the exchange")
+          .tag(ADAPTER_TAG, adapterName)
+          .tag(HTTP_METHOD_TAG, httpMethod)
+          .tag(ENDPOINT_TAG, endpoint)
+          .tag(STATUS_TAG, status)
+          .tag(OUTCOME_TAG, outcome)
+          .publishPercentiles(PERCENTILES)
+          .publishPercentileHistogram(PUBLISH_PERCENTILE_HISTOGRAM)
+          .register(meterRegistry);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import java.nio.charset.StandardCharsets;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for an HTTP request an Exchange Adapter made to the exchange.
+ *
+ * <p>The market is not known at the HTTP level: the request happens on the Trading Engine thread
+ * inside the Strategy Execution event for the market, so recording tools show it nested in that
+ * event. When the event is not enabled in the recording, it costs next to nothing.
+ *
+ * @author gazbert
+ */
+@Name("com.gazbert.bxbot.ExchangeRequest")
+@Label("Exchange Request")
+@Category({"BX-bot", "Exchange Adapter"})
+@Description("An HTTP request to the exchange, from sending it to reading the whole response")
+@StackTrace(false)
+class ExchangeRequestEvent extends Event {
+
+  @Label("Adapter")
+  String adapter;
+
+  @Label("Method")
+  String method;
+
+  @Label("Endpoint")
+  @Description("The URL path of the request")
+  String endpoint;
+
+  @Label("Status")
+  @Description("The HTTP status code, or IO_ERROR, TIMEOUT, UNREACHABLE or CANCELLED")
+  String status;
+
+  @Label("Outcome")
+  String outcome;
+
+  @Label("Request Bytes")
+  @DataAmount
+  long requestBytes;
+
+  @Label("Response Bytes")
+  @DataAmount
+  long responseBytes;
+
+  /**
+   * Ends the event and commits it to the recording, if it is enabled and lasted longer than its
+   * threshold.
+   *
+   * @param adapter the Exchange Adapter class.
+   * @param method the HTTP method.
+   * @param endpoint the URL path.
+   * @param status the HTTP status code, or the network error.
+   * @param outcome the outcome recorded in the request metrics.
+   * @param requestBody the request body, or null if there was none.
+   * @param responseBytes the size of the response body.
+   */
+  void complete(
+      Class<?> adapter,
+      String method,
+      String endpoint,
+      String status,
+      String outcome,
+      String requestBody,
+      long responseBytes) {
+    end();
+    if (shouldCommit()) {
+      this.adapter = adapter.getSimpleName();
+      this.method = method;
+      this.endpoint = endpoint;
+      this.status = status;
+      this.outcome = outcome;
+      this.requestBytes =
+          requestBody == null ? 0 : requestBody.getBytes(StandardCharsets.UTF_8).length;
+      this.responseBytes = responseBytes;
+      commit();
+    }
+  }
+}
@@ -28,12 +28,14 @@ import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OtherConfig;
 import com.gazbert.bxbot.exchanges.trading.api.impl.BalanceInfoImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MarketMetadataImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderBookImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.OpenOrderImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
 import com.gazbert.bxbot.trading.api.MarketOrder;
 import com.gazbert.bxbot.trading.api.MarketOrderBook;
 import com.gazbert.bxbot.trading.api.OpenOrder;
@@ -148,7 +150,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
   @Override
   public void init(ExchangeConfig config) {
-    LOG.info(() -> "About to initialise GDAX ExchangeConfig: " + config);
+    LOG.info("About to initialise GDAX ExchangeConfig: {}", config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
     setOtherConfig(config);
@@ -196,16 +198,27 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
       params.put("product_id", marketId);
 
+      // Round and validate locally if we have the product's trading rules - saves a wasted trip.
+      BigDecimal orderPrice = price;
+      BigDecimal orderQuantity = quantity;
+      final MarketMetadata marketMetadata = getCachedMarketMetadata(marketId);
+      if (marketMetadata != null) {
+        orderPrice = marketMetadata.roundPrice(price, orderType);
+        orderQuantity = marketMetadata.roundQuantity(quantity);
+        marketMetadata.validateOrder(orderQuantity, orderPrice);
+      }
+
       // note we need to limit price to 2 decimal places else exchange will barf
-      params.put(PRICE, new DecimalFormat("#.##", getDecimalFormatSymbols()).format(price));
+      params.put(PRICE, new DecimalFormat("#.##", getDecimalFormatSymbols()).format(orderPrice));
 
       // note we need to limit size to 8 decimal places else exchange will barf
       params.put(
-          "size", new DecimalFormat("#.########", getDecimalFormatSymbols()).format(quantity));
+          "size",
+          new DecimalFormat("#.########", getDecimalFormatSymbols()).format(orderQuantity));
 
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("POST", "orders", params);
-      LOG.debug(() -> "Create Order response: " + response);
+      LOG.debug("Create Order response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final GdaxOrder createOrderResponse = gson.fromJson(response.getPayload(), GdaxOrder.class);
@@ -242,7 +255,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("DELETE", "orders/" + orderId, null);
 
-      LOG.debug(() -> "Cancel Order response: " + response);
+      LOG.debug("Cancel Order response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         // 1 Nov 2017 - GDAX API no longer returns cancelled orderId in array payload; it returns
@@ -273,7 +286,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("GET", "orders", null);
 
-      LOG.debug(() -> "Open Orders response: " + response);
+      LOG.debug("Open Orders response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final GdaxOrder[] gdaxOpenOrders = gson.fromJson(response.getPayload(), GdaxOrder[].class);
@@ -340,7 +353,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       final ExchangeHttpResponse response =
           sendPublicRequestToExchange(PRODUCTS + marketId + "/book", params);
 
-      LOG.debug(() -> "Market Orders response: " + response);
+      LOG.debug("Market Orders response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final GdaxBookWrapper orderBook =
@@ -391,7 +404,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("GET", "accounts", null);
 
-      LOG.debug(() -> "Balance Info response: " + response);
+      LOG.debug("Balance Info response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final GdaxAccount[] gdaxAccounts =
@@ -427,7 +440,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       final ExchangeHttpResponse response =
           sendPublicRequestToExchange(PRODUCTS + marketId + "/ticker", null);
 
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final GdaxTicker gdaxTicker = gson.fromJson(response.getPayload(), GdaxTicker.class);
@@ -478,7 +491,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
       final ExchangeHttpResponse tickerResponse =
           sendPublicRequestToExchange(PRODUCTS + marketId + "/ticker", null);
 
-      LOG.debug(() -> "Ticker response: " + tickerResponse);
+      LOG.debug("Ticker response: {}", tickerResponse);
 
       if (tickerResponse.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final GdaxTicker gdaxTicker = gson.fromJson(tickerResponse.getPayload(), GdaxTicker.class);
@@ -499,7 +512,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
         final ExchangeHttpResponse statsResponse =
             sendPublicRequestToExchange(PRODUCTS + marketId + "/stats", null);
 
-        LOG.debug(() -> "Stats response: " + statsResponse);
+        LOG.debug("Stats response: {}", statsResponse);
 
         if (statsResponse.getStatusCode() == HttpURLConnection.HTTP_OK) {
           final GdaxStats gdaxStats = gson.fromJson(statsResponse.getPayload(), GdaxStats.class);
@@ -530,6 +543,16 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     }
   }
 
+  /**
+   * Returns the trading rules for a market. These are fetched for all products using the GDAX
+   * '/products' API call the first time this is called, and then cached.
+   */
+  @Override
+  public MarketMetadata getMarketMetadata(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return fetchMarketMetadata(marketId, this::fetchAllMarketMetadata);
+  }
+
   // --------------------------------------------------------------------------
   //  GSON classes for JSON responses.
   //  See https://docs.gdax.com/#api
@@ -671,6 +694,35 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     }
   }
 
+  /** GSON class for GDAX '/products' API call response. */
+  private static class GdaxProduct {
+
+    String id;
+
+    @SerializedName("base_min_size")
+    BigDecimal baseMinSize;
+
+    @SerializedName("base_increment")
+    BigDecimal baseIncrement;
+
+    @SerializedName("quote_increment")
+    BigDecimal quoteIncrement;
+
+    @SerializedName("min_market_funds")
+    BigDecimal minMarketFunds;
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("id", id)
+          .add("baseMinSize", baseMinSize)
+          .add("baseIncrement", baseIncrement)
+          .add("quoteIncrement", quoteIncrement)
+          .add("minMarketFunds", minMarketFunds)
+          .toString();
+    }
+  }
+
   /** GSON class for GDAX '/accounts' API call response. */
   private static class GdaxAccount {
 
@@ -802,7 +854,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
 
       switch (httpMethod) {
         case "GET":
-          LOG.debug(() -> "Building secure GET request...");
+          LOG.debug("Building secure GET request...");
           // Build (optional) query param string
           final StringBuilder queryParamBuilder = new StringBuilder();
           for (final Map.Entry<String, String> param : params.entrySet()) {
@@ -815,7 +867,7 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
           }
 
           final String queryParams = queryParamBuilder.toString();
-          LOG.debug(() -> "Query param string: " + queryParams);
+          LOG.debug("Query param string: {}", queryParams);
 
           if (params.isEmpty()) {
             invocationUrl = AUTHENTICATED_API_URL + apiMethod;
@@ -825,13 +877,13 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
           break;
 
         case "POST":
-          LOG.debug(() -> "Building secure POST request...");
+          LOG.debug("Building secure POST request...");
           invocationUrl = AUTHENTICATED_API_URL + apiMethod;
           requestBody = gson.toJson(params);
           break;
 
         case "DELETE":
-          LOG.debug(() -> "Building secure DELETE request...");
+          LOG.debug("Building secure DELETE request...");
           invocationUrl = AUTHENTICATED_API_URL + apiMethod;
           break;
 
@@ -910,18 +962,44 @@ public final class GdaxExchangeAdapter extends AbstractExchangeAdapter implement
     final String buyFeeInConfig = getOtherConfigItem(otherConfig, BUY_FEE_PROPERTY_NAME);
     buyFeePercentage =
         new BigDecimal(buyFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Buy fee % in BigDecimal format: " + buyFeePercentage);
+    LOG.info("Buy fee % in BigDecimal format: {}", buyFeePercentage);
 
     final String sellFeeInConfig = getOtherConfigItem(otherConfig, SELL_FEE_PROPERTY_NAME);
     sellFeePercentage =
         new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+    LOG.info("Sell fee % in BigDecimal format: {}", sellFeePercentage);
   }
 
   // --------------------------------------------------------------------------
   //  Util methods
   // --------------------------------------------------------------------------
 
+  private List<MarketMetadataImpl> fetchAllMarketMetadata()
+      throws TradingApiException, ExchangeNetworkException {
+
+    final ExchangeHttpResponse response = sendPublicRequestToExchange("products", null);
+    LOG.debug("Products response: {}", response);
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+      final GdaxProduct[] gdaxProducts = gson.fromJson(response.getPayload(), GdaxProduct[].class);
+      final List<MarketMetadataImpl> marketMetadata = new ArrayList<>();
+      for (final GdaxProduct gdaxProduct : gdaxProducts) {
+        marketMetadata.add(
+            new MarketMetadataImpl(
+                gdaxProduct.id,
+                gdaxProduct.quoteIncrement,
+                gdaxProduct.baseIncrement,
+                gdaxProduct.baseMinSize,
+                gdaxProduct.minMarketFunds));
+      }
+      return marketMetadata;
+    } else {
+      final String errorMsg = "Failed to get products from exchange. Details: " + response;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+  }
+
   private void initGson() {
     final GsonBuilder gsonBuilder = new GsonBuilder();
     gson = gsonBuilder.create();
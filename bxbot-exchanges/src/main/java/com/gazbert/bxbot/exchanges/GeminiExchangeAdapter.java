@@ -164,7 +164,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
 
   @Override
   public void init(ExchangeConfig config) {
-    LOG.info(() -> "About to initialise Gemini ExchangeConfig: " + config);
+    LOG.info("About to initialise Gemini ExchangeConfig: {}", config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
     setOtherConfig(config);
@@ -234,7 +234,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
 
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("order/new", params);
 
-      LOG.debug(() -> "Create Order response: " + response);
+      LOG.debug("Create Order response: {}", response);
 
       final GeminiOpenOrder createOrderResponse =
           gson.fromJson(response.getPayload(), GeminiOpenOrder.class);
@@ -266,7 +266,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("order/cancel", params);
 
-      LOG.debug(() -> "Cancel Order response: " + response);
+      LOG.debug("Cancel Order response: {}", response);
 
       // Exchange returns order id and other details if successful, a 400 HTTP Status if the order
       // id was not recognised.
@@ -295,7 +295,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("orders", null);
 
-      LOG.debug(() -> "Open Orders response: " + response);
+      LOG.debug("Open Orders response: {}", response);
 
       final GeminiOpenOrders geminiOpenOrders =
           gson.fromJson(response.getPayload(), GeminiOpenOrders.class);
@@ -353,7 +353,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("book/" + marketId);
 
-      LOG.debug(() -> "Market Orders response: " + response);
+      LOG.debug("Market Orders response: {}", response);
 
       final GeminiOrderBook orderBook = gson.fromJson(response.getPayload(), GeminiOrderBook.class);
 
@@ -396,7 +396,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     try {
       final ExchangeHttpResponse response = sendPublicRequestToExchange("pubticker/" + marketId);
 
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       final GeminiTicker ticker = gson.fromJson(response.getPayload(), GeminiTicker.class);
       return ticker.last;
@@ -415,7 +415,7 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("balances", null);
 
-      LOG.debug(() -> "Balance Info response: " + response);
+      LOG.debug("Balance Info response: {}", response);
 
       final GeminiBalances allAccountBalances =
           gson.fromJson(response.getPayload(), GeminiBalances.class);
@@ -795,12 +795,12 @@ public final class GeminiExchangeAdapter extends AbstractExchangeAdapter
     final String buyFeeInConfig = getOtherConfigItem(otherConfig, BUY_FEE_PROPERTY_NAME);
     buyFeePercentage =
         new BigDecimal(buyFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Buy fee % in BigDecimal format: " + buyFeePercentage);
+    LOG.info("Buy fee % in BigDecimal format: {}", buyFeePercentage);
 
     final String sellFeeInConfig = getOtherConfigItem(otherConfig, SELL_FEE_PROPERTY_NAME);
     sellFeePercentage =
         new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+    LOG.info("Sell fee % in BigDecimal format: {}", sellFeePercentage);
   }
 
   // --------------------------------------------------------------------------
@@ -0,0 +1,266 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Sends hedged requests to the exchange to cut tail latency.
+ *
+ * <p>The request is sent, and if no response has arrived after the learned latency percentile
+ * (e.g. p95 of recent calls), a second identical request is sent. Whichever response arrives first
+ * is used, and the other request is cancelled.
+ *
+ * <p>The extra load on the exchange is capped: every request earns a fraction of a hedge token
+ * (the max extra load percentage), and each hedge spends a whole token. So with a 5% cap, at most
+ * 1 in 20 requests will be hedged over time.
+ *
+ * <p>Only use this for idempotent public calls, e.g. fetching the order book or ticker. Never use
+ * it for authenticated calls: a hedged create order would place 2 orders!
+ *
+ * @author gazbert
+ */
+final class HedgedRequestExecutor {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final int DEFAULT_LATENCY_PERCENTILE = 95;
+  static final int DEFAULT_MAX_EXTRA_LOAD_PERCENT = 5;
+
+  static final int LATENCY_WINDOW_SIZE = 200;
+  static final int MIN_LATENCY_SAMPLES = 20;
+  private static final int HEDGE_DELAY_RECALCULATION_INTERVAL = 10;
+  private static final double MAX_HEDGE_TOKENS = 10.0;
+
+  /** A request that can be sent to the exchange, and cancelled from another thread. */
+  interface CancellableRequest {
+
+    ExchangeHttpResponse send() throws TradingApiException, ExchangeNetworkException;
+
+    void cancel();
+  }
+
+  /** Creates a new (unsent) request each time it is called. */
+  @FunctionalInterface
+  interface CancellableRequestFactory {
+    CancellableRequest create();
+  }
+
+  private final int latencyPercentile;
+  private final double hedgeTokensPerRequest;
+  private final ExecutorService executorService;
+
+  // Ring buffer of recent latencies. Guarded by this.
+  private final long[] latencyWindowNanos = new long[LATENCY_WINDOW_SIZE];
+  private int latencySampleCount;
+  private int nextLatencySlot;
+  private long hedgeDelayNanos = -1;
+
+  private double hedgeTokens;
+
+  HedgedRequestExecutor(String adapterName, int latencyPercentile, int maxExtraLoadPercent) {
+    this(
+        latencyPercentile,
+        maxExtraLoadPercent,
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                .setNameFormat(adapterName + "-hedged-request-%d")
+                .setDaemon(true)
+                .build()));
+  }
+
+  HedgedRequestExecutor(
+      int latencyPercentile, int maxExtraLoadPercent, ExecutorService executorService) {
+    if (latencyPercentile < 1 || latencyPercentile > 99) {
+      throw new IllegalArgumentException(
+          "Latency percentile must be between 1 and 99: " + latencyPercentile);
+    }
+    if (maxExtraLoadPercent < 0 || maxExtraLoadPercent > 100) {
+      throw new IllegalArgumentException(
+          "Max extra load percent must be between 0 and 100: " + maxExtraLoadPercent);
+    }
+    this.latencyPercentile = latencyPercentile;
+    this.hedgeTokensPerRequest = maxExtraLoadPercent / 100.0;
+    this.executorService = executorService;
+  }
+
+  /**
+   * Sends the request, hedging it if it is slower than usual and the extra load budget allows.
+   *
+   * @param requestFactory creates the primary request, and the hedge request if needed.
+   * @return the first successful response.
+   * @throws ExchangeNetworkException if all requests sent failed with a network error, or the
+   *     calling thread was interrupted waiting for a response.
+   * @throws TradingApiException if all requests sent failed for any other reason.
+   */
+  ExchangeHttpResponse execute(CancellableRequestFactory requestFactory)
+      throws TradingApiException, ExchangeNetworkException {
+
+    final long hedgeDelay = beginRequest();
+    final long startTime = System.nanoTime();
+
+    if (hedgeDelay < 0) {
+      // Not enough samples yet to know what 'slow' looks like - just send it.
+      final ExchangeHttpResponse response = requestFactory.create().send();
+      recordLatency(System.nanoTime() - startTime);
+      return response;
+    }
+
+    final CompletionService<ExchangeHttpResponse> completionService =
+        new ExecutorCompletionService<>(executorService);
+    final List<CancellableRequest> inFlightRequests = new ArrayList<>(2);
+    final List<Future<ExchangeHttpResponse>> inFlightFutures = new ArrayList<>(2);
+
+    final CancellableRequest primaryRequest = requestFactory.create();
+    inFlightRequests.add(primaryRequest);
+    inFlightFutures.add(completionService.submit(primaryRequest::send));
+
+    try {
+      Future<ExchangeHttpResponse> completed =
+          completionService.poll(hedgeDelay, TimeUnit.NANOSECONDS);
+
+      if (completed == null && tryAcquireHedgeToken()) {
+        LOG.debug("Request exceeded hedge delay of {}ns - sending hedge", hedgeDelay);
+        final CancellableRequest hedgeRequest = requestFactory.create();
+        inFlightRequests.add(hedgeRequest);
+        inFlightFutures.add(completionService.submit(hedgeRequest::send));
+      }
+
+      Throwable firstFailure = null;
+      for (int remaining = inFlightFutures.size(); remaining > 0; remaining--) {
+        if (completed == null) {
+          completed = completionService.take();
+        }
+        try {
+          final ExchangeHttpResponse response = completed.get();
+          // If the hedge won, this is a lower bound of the primary's latency; still >= the delay,
+          // so the slow tail stays in the window.
+          recordLatency(System.nanoTime() - startTime);
+          return response;
+        } catch (ExecutionException e) {
+          if (firstFailure == null) {
+            firstFailure = e.getCause();
+          }
+        }
+        completed = null;
+      }
+      throw unwrap(firstFailure);
+
+    } catch (InterruptedException e) {
+      // Most likely the bot is shutting down or restarting - not a reason to stop the engine.
+      Thread.currentThread().interrupt();
+      final String errorMsg = "Interrupted waiting for response from exchange.";
+      LOG.warn(errorMsg, e);
+      throw new ExchangeNetworkException(errorMsg, e);
+
+    } finally {
+      // Cancel the loser(s). A request that has already completed ignores this.
+      for (int i = 0; i < inFlightFutures.size(); i++) {
+        if (!inFlightFutures.get(i).isDone()) {
+          inFlightRequests.get(i).cancel();
+          inFlightFutures.get(i).cancel(true);
+        }
+      }
+    }
+  }
+
+  /** Stops the hedged request threads. */
+  void shutdown() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * Returns the current hedge delay.
+   *
+   * @return the hedge delay in nanos, or -1 if there are not enough latency samples yet.
+   */
+  synchronized long getHedgeDelayNanos() {
+    return hedgeDelayNanos;
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private synchronized long beginRequest() {
+    hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + hedgeTokensPerRequest);
+    return hedgeDelayNanos;
+  }
+
+  private synchronized boolean tryAcquireHedgeToken() {
+    if (hedgeTokens >= 1.0) {
+      hedgeTokens -= 1.0;
+      return true;
+    }
+    return false;
+  }
+
+  private synchronized void recordLatency(long latencyNanos) {
+    latencyWindowNanos[nextLatencySlot] = latencyNanos;
+    nextLatencySlot = (nextLatencySlot + 1) % LATENCY_WINDOW_SIZE;
+    if (latencySampleCount < LATENCY_WINDOW_SIZE) {
+      latencySampleCount++;
+    }
+
+    // Sorting the window on every call is wasteful; the percentile moves slowly anyway.
+    if (latencySampleCount >= MIN_LATENCY_SAMPLES
+        && (hedgeDelayNanos < 0 || nextLatencySlot % HEDGE_DELAY_RECALCULATION_INTERVAL == 0)) {
+      final long[] samples = Arrays.copyOf(latencyWindowNanos, latencySampleCount);
+      Arrays.sort(samples);
+      final int index = (int) Math.ceil(latencyPercentile / 100.0 * samples.length) - 1;
+      hedgeDelayNanos = samples[Math.max(0, index)];
+    }
+  }
+
+  private static TradingApiException unwrap(Throwable failure)
+      throws TradingApiException, ExchangeNetworkException {
+    if (failure instanceof TradingApiException) {
+      throw (TradingApiException) failure;
+    } else if (failure instanceof ExchangeNetworkException) {
+      throw (ExchangeNetworkException) failure;
+    } else if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    final String errorMsg = "Unexpected error sending hedged request to exchange.";
+    LOG.error(errorMsg, failure);
+    return new TradingApiException(errorMsg, failure);
+  }
+}
@@ -167,7 +167,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
   @Override
   public void init(ExchangeConfig config) {
-    LOG.info(() -> "About to initialise itBit ExchangeConfig: " + config);
+    LOG.info("About to initialise itBit ExchangeConfig: {}", config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
     setOtherConfig(config);
@@ -252,7 +252,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
     } catch (Exception e) {
       if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+        LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
       }
 
@@ -300,7 +300,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
       if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
         final String underMaintenanceMsg =
             "Exchange is undergoing maintenance - keep alive is true.";
-        LOG.warn(() -> underMaintenanceMsg);
+        LOG.warn(underMaintenanceMsg);
         throw new ExchangeNetworkException(underMaintenanceMsg);
       }
 
@@ -352,7 +352,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
     } catch (Exception e) {
       if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+        LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
       }
 
@@ -416,7 +416,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     } catch (Exception e) {
 
       if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+        LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
       }
 
@@ -454,7 +454,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
     } catch (Exception e) {
       if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+        LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
       }
 
@@ -497,7 +497,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
     } catch (Exception e) {
       if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+        LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
       }
 
@@ -567,7 +567,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
     } catch (Exception e) {
       if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-        LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+        LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
         throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
       }
 
@@ -825,7 +825,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
 
       switch (httpMethod) {
         case "GET":
-          LOG.debug(() -> "Building secure GET request...");
+          LOG.debug("Building secure GET request...");
 
           // Build (optional) query param string
           final StringBuilder queryParamBuilder = new StringBuilder();
@@ -839,7 +839,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
           }
 
           final String queryParams = queryParamBuilder.toString();
-          LOG.debug(() -> "Query param string: " + queryParams);
+          LOG.debug("Query param string: {}", queryParams);
 
           if (params.isEmpty()) {
             invocationUrl = AUTHENTICATED_API_URL + apiMethod;
@@ -854,7 +854,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
           break;
 
         case "POST":
-          LOG.debug(() -> "Building secure POST request...");
+          LOG.debug("Building secure POST request...");
 
           invocationUrl = AUTHENTICATED_API_URL + apiMethod;
           signatureParamList.add(invocationUrl);
@@ -864,7 +864,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
           break;
 
         case "DELETE":
-          LOG.debug(() -> "Building secure DELETE request...");
+          LOG.debug("Building secure DELETE request...");
 
           invocationUrl = AUTHENTICATED_API_URL + apiMethod;
           signatureParamList.add(invocationUrl);
@@ -891,7 +891,7 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
        * "1405385860202"]'
        */
       final String signatureParamsInJson = gson.toJson(signatureParamList);
-      LOG.debug(() -> "Signature params in JSON: " + signatureParamsInJson);
+      LOG.debug("Signature params in JSON: {}", signatureParamsInJson);
 
       // Prepend the string version of the nonce to the JSON-encoded array string
       final String noncePrependedToJson = nonce + signatureParamsInJson;
@@ -979,20 +979,20 @@ public final class ItBitExchangeAdapter extends AbstractExchangeAdapter implemen
     final String buyFeeInConfig = getOtherConfigItem(otherConfig, BUY_FEE_PROPERTY_NAME);
     buyFeePercentage =
         new BigDecimal(buyFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Buy fee % in BigDecimal format: " + buyFeePercentage);
+    LOG.info("Buy fee % in BigDecimal format: {}", buyFeePercentage);
 
     final String sellFeeInConfig = getOtherConfigItem(otherConfig, SELL_FEE_PROPERTY_NAME);
     sellFeePercentage =
         new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+    LOG.info("Sell fee % in BigDecimal format: {}", sellFeePercentage);
 
     final String keepAliveDuringMaintenanceConfig =
         getOtherConfigItem(otherConfig, KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME);
     if (keepAliveDuringMaintenanceConfig != null && !keepAliveDuringMaintenanceConfig.isEmpty()) {
       keepAliveDuringMaintenance = Boolean.valueOf(keepAliveDuringMaintenanceConfig);
-      LOG.info(() -> "Keep Alive During Maintenance: " + keepAliveDuringMaintenance);
+      LOG.info("Keep Alive During Maintenance: {}", keepAliveDuringMaintenance);
     } else {
-      LOG.info(() -> KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.yaml");
+      LOG.info(KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.yaml");
     }
   }
 
@@ -28,14 +28,20 @@ import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
 import com.gazbert.bxbot.exchange.api.ExchangeConfig;
 import com.gazbert.bxbot.exchange.api.OtherConfig;
 import com.gazbert.bxbot.exchanges.trading.api.impl.BalanceInfoImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MarketMetadataImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderBookImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.MarketOrderImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MyTradeHistoryImpl;
+import com.gazbert.bxbot.exchanges.trading.api.impl.MyTradeImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.OpenOrderImpl;
 import com.gazbert.bxbot.exchanges.trading.api.impl.TickerImpl;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
 import com.gazbert.bxbot.trading.api.MarketOrder;
 import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
 import com.gazbert.bxbot.trading.api.OpenOrder;
 import com.gazbert.bxbot.trading.api.OrderType;
 import com.gazbert.bxbot.trading.api.Ticker;
@@ -65,6 +71,7 @@ import java.security.NoSuchAlgorithmException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -158,6 +165,13 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
   private static final String FAILED_TO_ADD_ORDER = "Failed to Add Order on exchange. Details: ";
   private static final String FAILED_TO_CANCEL_ORDER =
       "Failed to Cancel Order on exchange. Details: ";
+  private static final String FAILED_TO_GET_ASSET_PAIRS =
+      "Failed to get Asset Pairs from exchange. Details: ";
+  private static final String FAILED_TO_GET_TRADES_HISTORY =
+      "Failed to get Trades History from exchange. Details: ";
+
+  // Kraken returns 50 trades per page; caps the number of calls made to catch up on trades.
+  private static final int MAX_TRADES_HISTORY_PAGES = 20;
 
   private static final String PRICE = "price";
 
@@ -184,11 +198,14 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
   private Mac mac;
   private boolean initializedMacAuthentication = false;
 
+  // Kraken trade history uses the full pair name, e.g. XXBTZUSD, not the altname, e.g. XBTUSD.
+  private final Map<String, String> tradeHistoryPairNames = new HashMap<>();
+
   private Gson gson;
 
   @Override
   public void init(ExchangeConfig config) {
-    LOG.info(() -> "About to initialise Kraken ExchangeConfig: " + config);
+    LOG.info("About to initialise Kraken ExchangeConfig: {}", config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
     setOtherConfig(config);
@@ -214,7 +231,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
       params.put("pair", marketId);
 
       response = sendPublicRequestToExchange("Depth", params);
-      LOG.debug(() -> "Market Orders response: " + response);
+      LOG.debug("Market Orders response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final Type resultType =
@@ -227,7 +244,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
         } else {
           if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+            LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
           }
 
@@ -259,7 +276,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
     try {
       response = sendAuthenticatedRequestToExchange("OpenOrders", null);
-      LOG.debug(() -> "Open Orders response: " + response);
+      LOG.debug("Open Orders response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
@@ -272,7 +289,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
         } else {
           if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+            LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
           }
 
@@ -323,13 +340,25 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
         throw new IllegalArgumentException(errorMsg);
       }
 
+      // Round and validate locally if we have the market's trading rules - saves a wasted trip.
+      BigDecimal orderPrice = price;
+      BigDecimal orderQuantity = quantity;
+      final MarketMetadata marketMetadata = getCachedMarketMetadata(marketId);
+      if (marketMetadata != null) {
+        orderPrice = marketMetadata.roundPrice(price, orderType);
+        orderQuantity = marketMetadata.roundQuantity(quantity);
+        marketMetadata.validateOrder(orderQuantity, orderPrice);
+      }
+
       params.put("ordertype", "limit"); // this exchange adapter only supports limit orders
-      params.put(PRICE, new DecimalFormat("#.########", getDecimalFormatSymbols()).format(price));
       params.put(
-          "volume", new DecimalFormat("#.########", getDecimalFormatSymbols()).format(quantity));
+          PRICE, new DecimalFormat("#.########", getDecimalFormatSymbols()).format(orderPrice));
+      params.put(
+          "volume",
+          new DecimalFormat("#.########", getDecimalFormatSymbols()).format(orderQuantity));
 
       response = sendAuthenticatedRequestToExchange("AddOrder", params);
-      LOG.debug(() -> "Create Order response: " + response);
+      LOG.debug("Create Order response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
@@ -348,7 +377,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
         } else {
           if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+            LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
           }
 
@@ -382,7 +411,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
       params.put("txid", orderId);
 
       response = sendAuthenticatedRequestToExchange("CancelOrder", params);
-      LOG.debug(() -> "Cancel Order response: " + response);
+      LOG.debug("Cancel Order response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
@@ -396,7 +425,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
         } else {
           if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+            LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
           }
 
@@ -431,7 +460,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
       params.put("pair", marketId);
 
       response = sendPublicRequestToExchange("Ticker", params);
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
@@ -451,7 +480,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
         } else {
 
           if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+            LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
           }
 
@@ -481,7 +510,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
     try {
       response = sendAuthenticatedRequestToExchange("Balance", null);
-      LOG.debug(() -> "Balance Info response: " + response);
+      LOG.debug("Balance Info response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
         final Type resultType = new TypeToken<KrakenResponse<KrakenBalanceResult>>() {}.getType();
@@ -537,7 +566,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
       params.put("pair", marketId);
 
       response = sendPublicRequestToExchange("Ticker", params);
-      LOG.debug(() -> "Ticker response: " + response);
+      LOG.debug("Ticker response: {}", response);
 
       if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
 
@@ -564,7 +593,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
         } else {
           if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-            LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+            LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
             throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
           }
 
@@ -588,6 +617,115 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  /**
+   * Fetches your trades using the Kraken TradesHistory API call. The cursor is the id of the last
+   * trade seen, and is passed to the exchange as the (exclusive) start param.
+   *
+   * <p>Kraken returns trades for all pairs, newest first, so they are filtered on the market id
+   * here. If there is more than one page of new trades, the rest are fetched with the end param
+   * pinned to the newest trade in the first page: trades made while paging don't shift the offsets.
+   * If there are more pages than we are prepared to fetch in one call, only the oldest pages are
+   * fetched and the cursor is the newest of those, so the next call carries on from there without
+   * skipping any trades.
+   */
+  @Override
+  public MyTradeHistory getMyTrades(String marketId, String sinceCursor)
+      throws TradingApiException, ExchangeNetworkException {
+    try {
+      final String pairName = getTradeHistoryPairName(marketId);
+
+      final Map<String, String> firstPageParams = createRequestParamMap();
+      if (sinceCursor != null) {
+        firstPageParams.put("start", sinceCursor);
+      }
+      final KrakenTradesHistoryResult firstPage = fetchTradesHistory(firstPageParams);
+      if (firstPage.trades == null || firstPage.trades.isEmpty()) {
+        return new MyTradeHistoryImpl(new ArrayList<>(), sinceCursor);
+      }
+
+      final Map<String, KrakenTrade> krakenTrades = new HashMap<>();
+      final int pageSize = firstPage.trades.size();
+      final int totalTrades = firstPage.count;
+
+      // With no cursor we just want the most recent page.
+      if (sinceCursor == null || totalTrades <= pageSize) {
+        krakenTrades.putAll(firstPage.trades);
+
+      } else {
+        final String newestTradeId = getNewestTradeId(firstPage.trades);
+
+        // Offsets count back from the newest trade.
+        final int firstOffset = Math.max(0, totalTrades - MAX_TRADES_HISTORY_PAGES * pageSize);
+        if (firstOffset == 0) {
+          krakenTrades.putAll(firstPage.trades);
+        }
+        for (int offset = Math.max(firstOffset, pageSize);
+            offset < totalTrades;
+            offset += pageSize) {
+          final Map<String, String> params = createRequestParamMap();
+          params.put("start", sinceCursor);
+          params.put("end", newestTradeId);
+          params.put("ofs", Integer.toString(offset));
+
+          final KrakenTradesHistoryResult page = fetchTradesHistory(params);
+          if (page.trades == null || page.trades.isEmpty()) {
+            break;
+          }
+          krakenTrades.putAll(page.trades);
+        }
+        if (firstOffset > 0) {
+          LOG.warn(
+              "{} new trades since {} - fetched the oldest {}; the rest will be fetched on the next"
+                  + " call.",
+              totalTrades,
+              sinceCursor,
+              krakenTrades.size());
+        }
+      }
+
+      // Oldest first; the cursor is the newest trade for any pair, as all pairs are fetched.
+      final List<String> tradeIds = new ArrayList<>(krakenTrades.keySet());
+      tradeIds.sort(Comparator.comparingDouble(tradeId -> krakenTrades.get(tradeId).time));
+      final String cursor =
+          tradeIds.isEmpty() ? sinceCursor : tradeIds.get(tradeIds.size() - 1);
+
+      final List<MyTrade> trades = new ArrayList<>();
+      for (final String tradeId : tradeIds) {
+        final KrakenTrade trade = krakenTrades.get(tradeId);
+        if (pairName.equalsIgnoreCase(trade.pair) || marketId.equalsIgnoreCase(trade.pair)) {
+          trades.add(
+              new MyTradeImpl(
+                  tradeId,
+                  trade.ordertxid,
+                  marketId,
+                  "buy".equals(trade.type) ? OrderType.BUY : OrderType.SELL,
+                  trade.price,
+                  trade.vol,
+                  trade.fee,
+                  new Date((long) (trade.time * 1000))));
+        }
+      }
+      return new MyTradeHistoryImpl(trades, cursor);
+
+    } catch (ExchangeNetworkException | TradingApiException e) {
+      throw e;
+
+    } catch (Exception e) {
+      LOG.error(UNEXPECTED_ERROR_MSG, e);
+      throw new TradingApiException(UNEXPECTED_ERROR_MSG, e);
+    }
+  }
+
+  /**
+   * Returns the trading rules for a market. These are fetched for all markets using the Kraken
+   * AssetPairs API call the first time this is called, and then cached.
+   */
+  @Override
+  public MarketMetadata getMarketMetadata(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    return fetchMarketMetadata(marketId, this::fetchAllMarketMetadata);
+  }
+
   // --------------------------------------------------------------------------
   //  GSON classes for JSON responses.
   //  See https://www.kraken.com/en-gb/help/api
@@ -755,6 +893,83 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     }
   }
 
+  /** GSON class representing an AssetPairs result. */
+  private static class KrakenAssetPairsResult extends HashMap<String, KrakenAssetPair> {
+
+    private static final long serialVersionUID = -2237213456587315237L;
+  }
+
+  /** GSON class representing an Asset Pair's trading rules. */
+  private static class KrakenAssetPair {
+
+    String altname;
+
+    @SerializedName("pair_decimals")
+    int pairDecimals;
+
+    @SerializedName("lot_decimals")
+    int lotDecimals;
+
+    @SerializedName("tick_size")
+    BigDecimal tickSize;
+
+    BigDecimal ordermin;
+    BigDecimal costmin;
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("altname", altname)
+          .add("pairDecimals", pairDecimals)
+          .add("lotDecimals", lotDecimals)
+          .add("tickSize", tickSize)
+          .add("ordermin", ordermin)
+          .add("costmin", costmin)
+          .toString();
+    }
+  }
+
+  /** GSON class representing a TradesHistory result. */
+  private static class KrakenTradesHistoryResult {
+
+    Map<String, KrakenTrade> trades;
+    int count;
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this).add("trades", trades).add("count", count).toString();
+    }
+  }
+
+  /** GSON class representing one of your trades. */
+  private static class KrakenTrade {
+
+    String ordertxid;
+    String pair;
+    double time;
+    String type;
+    String ordertype;
+    BigDecimal price;
+    BigDecimal cost;
+    BigDecimal fee;
+    BigDecimal vol;
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("ordertxid", ordertxid)
+          .add("pair", pair)
+          .add("time", time)
+          .add("type", type)
+          .add("ordertype", ordertype)
+          .add(PRICE, price)
+          .add("cost", cost)
+          .add("fee", fee)
+          .add("vol", vol)
+          .toString();
+    }
+  }
+
   /** GSON class for a Market Order Book. */
   private static class KrakenOrderBook {
 
@@ -854,7 +1069,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
               break;
 
             default:
-              LOG.warn(() -> "Received unexpected Ticker param - ignoring: " + key);
+              LOG.warn("Received unexpected Ticker param - ignoring: {}", key);
           }
         }
       }
@@ -1030,20 +1245,20 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
     final String buyFeeInConfig = getOtherConfigItem(otherConfig, BUY_FEE_PROPERTY_NAME);
     buyFeePercentage =
         new BigDecimal(buyFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Buy fee % in BigDecimal format: " + buyFeePercentage);
+    LOG.info("Buy fee % in BigDecimal format: {}", buyFeePercentage);
 
     final String sellFeeInConfig = getOtherConfigItem(otherConfig, SELL_FEE_PROPERTY_NAME);
     sellFeePercentage =
         new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+    LOG.info("Sell fee % in BigDecimal format: {}", sellFeePercentage);
 
     final String keepAliveDuringMaintenanceConfig =
         getOtherConfigItem(otherConfig, KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME);
     if (!keepAliveDuringMaintenanceConfig.isEmpty()) {
       keepAliveDuringMaintenance = Boolean.valueOf(keepAliveDuringMaintenanceConfig);
-      LOG.info(() -> "Keep Alive During Maintenance: " + keepAliveDuringMaintenance);
+      LOG.info("Keep Alive During Maintenance: {}", keepAliveDuringMaintenance);
     } else {
-      LOG.info(() -> KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.yaml");
+      LOG.info(KEEP_ALIVE_DURING_MAINTENANCE_PROPERTY_NAME + " is not set in exchange.yaml");
     }
   }
 
@@ -1051,6 +1266,128 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
   //  Util methods
   // --------------------------------------------------------------------------
 
+  private static String getNewestTradeId(Map<String, KrakenTrade> trades) {
+    String newestTradeId = null;
+    double newestTime = Double.NEGATIVE_INFINITY;
+    for (final Map.Entry<String, KrakenTrade> trade : trades.entrySet()) {
+      if (trade.getValue().time > newestTime) {
+        newestTime = trade.getValue().time;
+        newestTradeId = trade.getKey();
+      }
+    }
+    return newestTradeId;
+  }
+
+  private KrakenTradesHistoryResult fetchTradesHistory(Map<String, String> params)
+      throws TradingApiException, ExchangeNetworkException {
+
+    final ExchangeHttpResponse response =
+        sendAuthenticatedRequestToExchange("TradesHistory", params);
+    LOG.debug("Trades History response: {}", response);
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+      final Type resultType =
+          new TypeToken<KrakenResponse<KrakenTradesHistoryResult>>() {}.getType();
+      final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+
+      final List errors = krakenResponse.error;
+      if (errors == null || errors.isEmpty()) {
+        return (KrakenTradesHistoryResult) krakenResponse.result;
+      }
+
+      if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
+        LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
+        throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
+      }
+    }
+
+    final String errorMsg = FAILED_TO_GET_TRADES_HISTORY + response;
+    LOG.error(errorMsg);
+    throw new TradingApiException(errorMsg);
+  }
+
+  /*
+   * Looks up the full pair name for a market id once using the AssetPairs API call, e.g. XBTUSD
+   * maps to XXBTZUSD.
+   */
+  private String getTradeHistoryPairName(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+
+    final String cachedPairName = tradeHistoryPairNames.get(marketId);
+    if (cachedPairName != null) {
+      return cachedPairName;
+    }
+
+    final Map<String, String> params = createRequestParamMap();
+    params.put("pair", marketId);
+    final ExchangeHttpResponse response = sendPublicRequestToExchange("AssetPairs", params);
+    LOG.debug("AssetPairs response: {}", response);
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+      final Type resultType = new TypeToken<KrakenResponse<KrakenAssetPairsResult>>() {}.getType();
+      final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+
+      final List errors = krakenResponse.error;
+      if (errors == null || errors.isEmpty()) {
+        final KrakenAssetPairsResult assetPairs = (KrakenAssetPairsResult) krakenResponse.result;
+        if (assetPairs != null && assetPairs.size() == 1) {
+          final String pairName = assetPairs.keySet().iterator().next();
+          tradeHistoryPairNames.put(marketId, pairName);
+          return pairName;
+        }
+      }
+    }
+
+    final String errorMsg = FAILED_TO_GET_ASSET_PAIRS + response;
+    LOG.error(errorMsg);
+    throw new TradingApiException(errorMsg);
+  }
+
+  private List<MarketMetadataImpl> fetchAllMarketMetadata()
+      throws TradingApiException, ExchangeNetworkException {
+
+    final ExchangeHttpResponse response = sendPublicRequestToExchange("AssetPairs", null);
+    LOG.debug("AssetPairs response: {}", response);
+
+    if (response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+      final Type resultType = new TypeToken<KrakenResponse<KrakenAssetPairsResult>>() {}.getType();
+      final KrakenResponse krakenResponse = gson.fromJson(response.getPayload(), resultType);
+
+      final List errors = krakenResponse.error;
+      if (errors == null || errors.isEmpty()) {
+        final KrakenAssetPairsResult assetPairs = (KrakenAssetPairsResult) krakenResponse.result;
+        final List<MarketMetadataImpl> marketMetadata = new ArrayList<>();
+        for (final Map.Entry<String, KrakenAssetPair> assetPair : assetPairs.entrySet()) {
+          final KrakenAssetPair pair = assetPair.getValue();
+          final BigDecimal priceTickSize =
+              pair.tickSize != null
+                  ? pair.tickSize
+                  : BigDecimal.ONE.movePointLeft(pair.pairDecimals);
+          final BigDecimal quantityStepSize = BigDecimal.ONE.movePointLeft(pair.lotDecimals);
+          marketMetadata.add(
+              new MarketMetadataImpl(
+                  assetPair.getKey(),
+                  priceTickSize,
+                  quantityStepSize,
+                  pair.ordermin,
+                  pair.costmin));
+
+          // Kraken accepts either the pair name or its altname as the market id.
+          if (pair.altname != null && !pair.altname.equals(assetPair.getKey())) {
+            marketMetadata.add(
+                new MarketMetadataImpl(
+                    pair.altname, priceTickSize, quantityStepSize, pair.ordermin, pair.costmin));
+          }
+        }
+        return marketMetadata;
+      }
+    }
+
+    final String errorMsg = FAILED_TO_GET_ASSET_PAIRS + response;
+    LOG.error(errorMsg);
+    throw new TradingApiException(errorMsg);
+  }
+
   private List<OpenOrder> adaptKrakenOpenOrders(KrakenResponse krakenResponse, String marketId)
       throws TradingApiException {
     final List<OpenOrder> openOrders = new ArrayList<>();
@@ -1182,7 +1519,7 @@ public final class KrakenExchangeAdapter extends AbstractExchangeAdapter
 
       } else {
         if (isExchangeUndergoingMaintenance(response) && keepAliveDuringMaintenance) {
-          LOG.warn(() -> UNDER_MAINTENANCE_WARNING_MESSAGE);
+          LOG.warn(UNDER_MAINTENANCE_WARNING_MESSAGE);
           throw new ExchangeNetworkException(UNDER_MAINTENANCE_WARNING_MESSAGE);
         }
 
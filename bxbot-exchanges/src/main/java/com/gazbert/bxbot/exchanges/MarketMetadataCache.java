@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import com.gazbert.bxbot.exchanges.trading.api.impl.MarketMetadataImpl;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
+import com.gazbert.bxbot.trading.api.TradingApiException;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Caches the trading rules (tick size, min order size, etc.) for all the markets on an exchange.
+ *
+ * <p>The rules are fetched once from the exchange and written to disk, so the next time the bot
+ * starts they can be loaded without a round trip to the exchange. The cache is refreshed from the
+ * exchange when it is older than the configured max age.
+ *
+ * @author gazbert
+ */
+final class MarketMetadataCache {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final String DEFAULT_CACHE_DIR = "./data/market-metadata";
+  static final Duration DEFAULT_MAX_AGE = Duration.ofHours(24);
+
+  private final Path cacheFile;
+  private final Duration maxAge;
+  private final Gson gson;
+
+  private Map<String, MarketMetadataImpl> marketMetadata = Collections.emptyMap();
+  private long fetchedAtMillis;
+  private boolean diskCacheChecked;
+  private boolean fetchedFromExchange;
+
+  /** Fetches the trading rules for all markets from the exchange. */
+  @FunctionalInterface
+  interface MarketMetadataLoader {
+    List<MarketMetadataImpl> load() throws TradingApiException, ExchangeNetworkException;
+  }
+
+  MarketMetadataCache(String adapterName) {
+    this(Paths.get(DEFAULT_CACHE_DIR, adapterName + ".json"), DEFAULT_MAX_AGE);
+  }
+
+  MarketMetadataCache(Path cacheFile, Duration maxAge) {
+    this.cacheFile = cacheFile;
+    this.maxAge = maxAge;
+    this.gson = new Gson();
+  }
+
+  /**
+   * Returns the trading rules for a market, fetching them from the exchange if they are not cached
+   * or the cache has expired.
+   *
+   * @param marketId the market id.
+   * @param loader used to fetch the rules for all markets from the exchange.
+   * @return the trading rules for the market.
+   * @throws TradingApiException if the exchange does not have rules for the market, or the fetch
+   *     failed.
+   * @throws ExchangeNetworkException if a network error occurred fetching the rules.
+   */
+  synchronized MarketMetadata get(String marketId, MarketMetadataLoader loader)
+      throws TradingApiException, ExchangeNetworkException {
+
+    loadFromDiskIfNotChecked();
+
+    final boolean unknownMarket = !marketMetadata.containsKey(marketId);
+    if (isExpired() || (unknownMarket && !fetchedFromExchange)) {
+      refresh(loader.load());
+    }
+
+    final MarketMetadata metadata = marketMetadata.get(marketId);
+    if (metadata == null) {
+      final String errorMsg = "Exchange has no market metadata for market id: " + marketId;
+      LOG.error(errorMsg);
+      throw new TradingApiException(errorMsg);
+    }
+    return metadata;
+  }
+
+  /**
+   * Returns the cached trading rules for a market without going to the exchange. Expired rules are
+   * still returned: exchanges rarely change them, and they are only used to pre-validate orders.
+   *
+   * @param marketId the market id.
+   * @return the trading rules for the market, or null if they have not been cached.
+   */
+  synchronized MarketMetadata getIfCached(String marketId) {
+    loadFromDiskIfNotChecked();
+    return marketMetadata.get(marketId);
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private boolean isExpired() {
+    return System.currentTimeMillis() - fetchedAtMillis > maxAge.toMillis();
+  }
+
+  private void refresh(List<MarketMetadataImpl> fetchedMarketMetadata) {
+    fetchedAtMillis = System.currentTimeMillis();
+    fetchedFromExchange = true;
+    marketMetadata = index(fetchedMarketMetadata);
+    LOG.info("Fetched market metadata from exchange for markets: {}", marketMetadata.keySet());
+    writeToDisk(new CachedMarketMetadata(fetchedAtMillis, fetchedMarketMetadata));
+  }
+
+  private void loadFromDiskIfNotChecked() {
+    if (diskCacheChecked) {
+      return;
+    }
+    diskCacheChecked = true;
+
+    if (!Files.isRegularFile(cacheFile)) {
+      return;
+    }
+    try (Reader reader = Files.newBufferedReader(cacheFile, StandardCharsets.UTF_8)) {
+      final CachedMarketMetadata cached = gson.fromJson(reader, CachedMarketMetadata.class);
+      if (cached != null && cached.markets != null) {
+        fetchedAtMillis = cached.fetchedAt;
+        marketMetadata = index(cached.markets);
+        LOG.info("Loaded market metadata from disk cache: {}", cacheFile);
+      }
+    } catch (IOException | JsonParseException e) {
+      // Not fatal - we'll just fetch it from the exchange.
+      LOG.warn("Failed to read market metadata cache file: {}", cacheFile, e);
+    }
+  }
+
+  private void writeToDisk(CachedMarketMetadata cachedMarketMetadata) {
+    try {
+      final Path cacheDir = cacheFile.toAbsolutePath().getParent();
+      Files.createDirectories(cacheDir);
+      final Path tempFile = Files.createTempFile(cacheDir, "market-metadata", ".tmp");
+      try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        gson.toJson(cachedMarketMetadata, writer);
+      }
+      Files.move(
+          tempFile,
+          cacheFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // Not fatal - we still have the in-memory copy.
+      LOG.warn("Failed to write market metadata cache file: {}", cacheFile, e);
+    }
+  }
+
+  private static Map<String, MarketMetadataImpl> index(List<MarketMetadataImpl> markets) {
+    final Map<String, MarketMetadataImpl> indexed = new HashMap<>();
+    for (final MarketMetadataImpl market : markets) {
+      indexed.put(market.getMarketId(), market);
+    }
+    return indexed;
+  }
+
+  /** The on-disk cache file format. */
+  private static class CachedMarketMetadata {
+
+    long fetchedAt;
+    List<MarketMetadataImpl> markets;
+
+    CachedMarketMetadata(long fetchedAt, List<MarketMetadataImpl> markets) {
+      this.fetchedAt = fetchedAt;
+      this.markets = markets;
+    }
+  }
+}
@@ -133,7 +133,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
 
   @Override
   public void init(ExchangeConfig config) {
-    LOG.info(() -> "About to initialise OKCoin ExchangeConfig: " + config);
+    LOG.info("About to initialise OKCoin ExchangeConfig: {}", config);
     setAuthenticationConfig(config);
     setNetworkConfig(config);
     setOtherConfig(config);
@@ -179,7 +179,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
           "amount", new DecimalFormat("#.########", getDecimalFormatSymbols()).format(quantity));
 
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("trade.do", params);
-      LOG.debug(() -> "Create Order response: " + response);
+      LOG.debug("Create Order response: {}", response);
 
       final OkCoinTradeResponse createOrderResponse =
           gson.fromJson(response.getPayload(), OkCoinTradeResponse.class);
@@ -210,7 +210,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
 
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("cancel_order.do", params);
-      LOG.debug(() -> "Cancel Order response: " + response);
+      LOG.debug("Cancel Order response: {}", response);
 
       final OkCoinCancelOrderResponse cancelOrderResponse =
           gson.fromJson(response.getPayload(), OkCoinCancelOrderResponse.class);
@@ -240,7 +240,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
 
       final ExchangeHttpResponse response =
           sendAuthenticatedRequestToExchange("order_info.do", params);
-      LOG.debug(() -> "Open Orders response: " + response);
+      LOG.debug("Open Orders response: {}", response);
 
       final OkCoinOrderInfoWrapper orderInfoWrapper =
           gson.fromJson(response.getPayload(), OkCoinOrderInfoWrapper.class);
@@ -302,7 +302,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
       params.put(SYMBOL, marketId);
 
       final ExchangeHttpResponse response = sendPublicRequestToExchange("depth.do", params);
-      LOG.debug(() -> "Market Orders response: " + response);
+      LOG.debug("Market Orders response: {}", response);
 
       final OkCoinDepthWrapper orderBook =
           gson.fromJson(response.getPayload(), OkCoinDepthWrapper.class);
@@ -353,7 +353,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
       params.put(SYMBOL, marketId);
 
       final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker.do", params);
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       final OkCoinTickerWrapper tickerWrapper =
           gson.fromJson(response.getPayload(), OkCoinTickerWrapper.class);
@@ -372,7 +372,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
   public BalanceInfo getBalanceInfo() throws TradingApiException, ExchangeNetworkException {
     try {
       final ExchangeHttpResponse response = sendAuthenticatedRequestToExchange("userinfo.do", null);
-      LOG.debug(() -> "Balance Info response: " + response);
+      LOG.debug("Balance Info response: {}", response);
 
       final OkCoinUserInfoWrapper userInfoWrapper =
           gson.fromJson(response.getPayload(), OkCoinUserInfoWrapper.class);
@@ -439,7 +439,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
       params.put(SYMBOL, marketId);
 
       final ExchangeHttpResponse response = sendPublicRequestToExchange("ticker.do", params);
-      LOG.debug(() -> "Latest Market Price response: " + response);
+      LOG.debug("Latest Market Price response: {}", response);
 
       final OkCoinTickerWrapper tickerWrapper =
           gson.fromJson(response.getPayload(), OkCoinTickerWrapper.class);
@@ -787,7 +787,7 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
         payload.append("=");
         payload.append(URLEncoder.encode(param.getValue(), StandardCharsets.UTF_8));
       }
-      LOG.debug(() -> "Using following URL encoded POST payload for API call: " + payload);
+      LOG.debug("Using following URL encoded POST payload for API call: {}", payload);
 
       final Map<String, String> requestHeaders = createHeaderParamMap();
       requestHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -856,12 +856,12 @@ public final class OkCoinExchangeAdapter extends AbstractExchangeAdapter
     final String buyFeeInConfig = getOtherConfigItem(otherConfig, BUY_FEE_PROPERTY_NAME);
     buyFeePercentage =
         new BigDecimal(buyFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Buy fee % in BigDecimal format: " + buyFeePercentage);
+    LOG.info("Buy fee % in BigDecimal format: {}", buyFeePercentage);
 
     final String sellFeeInConfig = getOtherConfigItem(otherConfig, SELL_FEE_PROPERTY_NAME);
     sellFeePercentage =
         new BigDecimal(sellFeeInConfig).divide(new BigDecimal("100"), 8, RoundingMode.HALF_UP);
-    LOG.info(() -> "Sell fee % in BigDecimal format: " + sellFeePercentage);
+    LOG.info("Sell fee % in BigDecimal format: {}", sellFeePercentage);
   }
 
   // --------------------------------------------------------------------------
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges.trading.api.impl;
+
+import com.gazbert.bxbot.trading.api.MarketMetadata;
+import com.google.common.base.MoreObjects;
+import java.math.BigDecimal;
+
+/**
+ * A MarketMetadata implementation that can be used by Exchange Adapters.
+ *
+ * @author gazbert
+ */
+public final class MarketMetadataImpl implements MarketMetadata {
+
+  private String marketId;
+  private BigDecimal priceTickSize;
+  private BigDecimal quantityStepSize;
+  private BigDecimal minimumOrderQuantity;
+  private BigDecimal minimumOrderValue;
+
+  /** Creates a new Market Metadata. */
+  public MarketMetadataImpl(
+      String marketId,
+      BigDecimal priceTickSize,
+      BigDecimal quantityStepSize,
+      BigDecimal minimumOrderQuantity,
+      BigDecimal minimumOrderValue) {
+    this.marketId = marketId;
+    this.priceTickSize = priceTickSize;
+    this.quantityStepSize = quantityStepSize;
+    this.minimumOrderQuantity = minimumOrderQuantity;
+    this.minimumOrderValue = minimumOrderValue;
+  }
+
+  @Override
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public void setMarketId(String marketId) {
+    this.marketId = marketId;
+  }
+
+  @Override
+  public BigDecimal getPriceTickSize() {
+    return priceTickSize;
+  }
+
+  public void setPriceTickSize(BigDecimal priceTickSize) {
+    this.priceTickSize = priceTickSize;
+  }
+
+  @Override
+  public BigDecimal getQuantityStepSize() {
+    return quantityStepSize;
+  }
+
+  public void setQuantityStepSize(BigDecimal quantityStepSize) {
+    this.quantityStepSize = quantityStepSize;
+  }
+
+  @Override
+  public BigDecimal getMinimumOrderQuantity() {
+    return minimumOrderQuantity;
+  }
+
+  public void setMinimumOrderQuantity(BigDecimal minimumOrderQuantity) {
+    this.minimumOrderQuantity = minimumOrderQuantity;
+  }
+
+  @Override
+  public BigDecimal getMinimumOrderValue() {
+    return minimumOrderValue;
+  }
+
+  public void setMinimumOrderValue(BigDecimal minimumOrderValue) {
+    this.minimumOrderValue = minimumOrderValue;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marketId", marketId)
+        .add("priceTickSize", priceTickSize)
+        .add("quantityStepSize", quantityStepSize)
+        .add("minimumOrderQuantity", minimumOrderQuantity)
+        .add("minimumOrderValue", minimumOrderValue)
+        .toString();
+  }
+}
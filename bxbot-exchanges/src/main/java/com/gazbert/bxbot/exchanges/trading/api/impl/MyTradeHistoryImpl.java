@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges.trading.api.impl;
+
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
+import com.google.common.base.MoreObjects;
+import java.util.List;
+
+/**
+ * A MyTradeHistory implementation that can be used by Exchange Adapters.
+ *
+ * @author gazbert
+ */
+public final class MyTradeHistoryImpl implements MyTradeHistory {
+
+  private List<MyTrade> trades;
+  private String cursor;
+
+  /** Creates a new Trade History. */
+  public MyTradeHistoryImpl(List<MyTrade> trades, String cursor) {
+    this.trades = trades;
+    this.cursor = cursor;
+  }
+
+  @Override
+  public List<MyTrade> getTrades() {
+    return trades;
+  }
+
+  public void setTrades(List<MyTrade> trades) {
+    this.trades = trades;
+  }
+
+  @Override
+  public String getCursor() {
+    return cursor;
+  }
+
+  public void setCursor(String cursor) {
+    this.cursor = cursor;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("trades", trades)
+        .add("cursor", cursor)
+        .toString();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges.trading.api.impl;
+
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.OrderType;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * A MyTrade implementation that can be used by Exchange Adapters.
+ *
+ * @author gazbert
+ */
+public final class MyTradeImpl implements MyTrade {
+
+  private String id;
+  private String orderId;
+  private String marketId;
+  private OrderType type;
+  private BigDecimal price;
+  private BigDecimal quantity;
+  private BigDecimal fee;
+  private Date timestamp;
+
+  /** Creates a new Trade. */
+  public MyTradeImpl(
+      String id,
+      String orderId,
+      String marketId,
+      OrderType type,
+      BigDecimal price,
+      BigDecimal quantity,
+      BigDecimal fee,
+      Date timestamp) {
+
+    this.id = id;
+    this.orderId = orderId;
+    this.marketId = marketId;
+    this.type = type;
+    this.price = price;
+    this.quantity = quantity;
+    this.fee = fee;
+    if (timestamp != null) {
+      this.timestamp = new Date(timestamp.getTime());
+    }
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getOrderId() {
+    return orderId;
+  }
+
+  public void setOrderId(String orderId) {
+    this.orderId = orderId;
+  }
+
+  @Override
+  public String getMarketId() {
+    return marketId;
+  }
+
+  public void setMarketId(String marketId) {
+    this.marketId = marketId;
+  }
+
+  @Override
+  public OrderType getType() {
+    return type;
+  }
+
+  public void setType(OrderType type) {
+    this.type = type;
+  }
+
+  @Override
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public void setPrice(BigDecimal price) {
+    this.price = price;
+  }
+
+  @Override
+  public BigDecimal getQuantity() {
+    return quantity;
+  }
+
+  public void setQuantity(BigDecimal quantity) {
+    this.quantity = quantity;
+  }
+
+  @Override
+  public BigDecimal getFee() {
+    return fee;
+  }
+
+  public void setFee(BigDecimal fee) {
+    this.fee = fee;
+  }
+
+  /** Returns the Trade timestamp. */
+  @Override
+  public Date getTimestamp() {
+    if (timestamp != null) {
+      return new Date(timestamp.getTime());
+    }
+    return null;
+  }
+
+  void setTimestamp(Date timestamp) {
+    if (timestamp != null) {
+      this.timestamp = new Date(timestamp.getTime());
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    MyTradeImpl myTrade = (MyTradeImpl) o;
+    return Objects.equal(id, myTrade.id) && Objects.equal(marketId, myTrade.marketId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(id, marketId);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("id", id)
+        .add("orderId", orderId)
+        .add("marketId", marketId)
+        .add("type", type)
+        .add("price", price)
+        .add("quantity", quantity)
+        .add("fee", fee)
+        .add("timestamp", timestamp)
+        .toString();
+  }
+}
@@ -40,6 +40,8 @@ import com.gazbert.bxbot.exchange.api.NetworkConfig;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
 import com.gazbert.bxbot.trading.api.OpenOrder;
 import com.gazbert.bxbot.trading.api.OrderType;
 import com.gazbert.bxbot.trading.api.Ticker;
@@ -85,6 +87,8 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
       "./src/test/exchange-data/bitstamp/order_book.json";
   private static final String OPEN_ORDERS_JSON_RESPONSE =
       "./src/test/exchange-data/bitstamp/open_orders.json";
+  private static final String USER_TRANSACTIONS_JSON_RESPONSE =
+      "./src/test/exchange-data/bitstamp/user_transactions.json";
   private static final String BALANCE_JSON_RESPONSE =
       "./src/test/exchange-data/bitstamp/balance.json";
   private static final String TICKER_JSON_RESPONSE =
@@ -96,6 +100,7 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
 
   private static final String ORDER_BOOK = "order_book/";
   private static final String OPEN_ORDERS = "open_orders/";
+  private static final String USER_TRANSACTIONS = "user_transactions/";
   private static final String BALANCE = "balance";
   private static final String TICKER = "ticker/";
   private static final String BUY = "buy/";
@@ -152,7 +157,8 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
     exchangeConfig = PowerMock.createMock(ExchangeConfig.class);
     expect(exchangeConfig.getAuthenticationConfig()).andReturn(authenticationConfig);
     expect(exchangeConfig.getNetworkConfig()).andReturn(networkConfig);
-    // optional config not needed for this adapter
+    // optional config not needed for this adapter - hedged requests are disabled
+    expect(exchangeConfig.getOtherConfig()).andReturn(null);
   }
 
   // --------------------------------------------------------------------------
@@ -479,6 +485,112 @@ public class TestBitstampExchangeAdapter extends AbstractExchangeAdapter {
     PowerMock.verifyAll();
   }
 
+  // --------------------------------------------------------------------------
+  //  Get My Trades tests
+  // --------------------------------------------------------------------------
+
+  @Test
+  public void testGettingMyTradesSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(USER_TRANSACTIONS_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(USER_TRANSACTIONS + MARKET_ID + "/"),
+            eq(new HashMap<>()))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MyTradeHistory myTrades = exchangeAdapter.getMyTrades(MARKET_ID, null);
+
+    // deposit is skipped; trades are returned oldest first
+    assertEquals(2, myTrades.getTrades().size());
+    assertEquals("104123458", myTrades.getCursor());
+
+    final MyTrade sell = myTrades.getTrades().get(0);
+    assertEquals("104123456", sell.getId());
+    assertEquals("1204123456", sell.getOrderId());
+    assertEquals(MARKET_ID, sell.getMarketId());
+    assertSame(OrderType.SELL, sell.getType());
+    assertEquals(0, sell.getPrice().compareTo(new BigDecimal("8100.00")));
+    assertEquals(0, sell.getQuantity().compareTo(new BigDecimal("0.01")));
+    assertEquals(0, sell.getFee().compareTo(new BigDecimal("0.41")));
+    assertEquals(
+        bitstampExchangeDateFormat.parse("2020-03-17 22:05:10").getTime(),
+        sell.getTimestamp().getTime());
+
+    final MyTrade buy = myTrades.getTrades().get(1);
+    assertEquals("104123458", buy.getId());
+    assertSame(OrderType.BUY, buy.getType());
+    assertEquals(0, buy.getQuantity().compareTo(new BigDecimal("0.005")));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingMyTradesSinceCursorSkipsTradesAlreadySeen() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(USER_TRANSACTIONS_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final Map<String, String> expectedParams = new HashMap<>();
+    expectedParams.put("since_id", "104123456");
+    expectedParams.put("limit", "1000");
+    expectedParams.put("sort", "asc");
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(USER_TRANSACTIONS + MARKET_ID + "/"),
+            eq(expectedParams))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MyTradeHistory myTrades = exchangeAdapter.getMyTrades(MARKET_ID, "104123456");
+    assertEquals(1, myTrades.getTrades().size());
+    assertEquals("104123458", myTrades.getTrades().get(0).getId());
+    assertEquals("104123458", myTrades.getCursor());
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testGettingMyTradesHandlesErrorResponse() throws Exception {
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", "{\"status\": \"error\", \"reason\": \"Invalid nonce\"}");
+
+    final BitstampExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            BitstampExchangeAdapter.class, MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(USER_TRANSACTIONS + MARKET_ID + "/"),
+            anyObject(Map.class))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    exchangeAdapter.getMyTrades(MARKET_ID, null);
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Get Your Open Orders tests
   // --------------------------------------------------------------------------
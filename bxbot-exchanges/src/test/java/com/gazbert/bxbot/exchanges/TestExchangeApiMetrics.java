@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the Exchange API metrics are recorded as expected.
+ *
+ * @author gazbert
+ */
+public class TestExchangeApiMetrics {
+
+  private static final String ADAPTER_NAME = "KrakenExchangeAdapter";
+  private static final String ENDPOINT = "/0/public/Depth";
+
+  private SimpleMeterRegistry meterRegistry;
+  private ExchangeApiMetrics exchangeApiMetrics;
+
+  @Before
+  public void setup() {
+    meterRegistry = new SimpleMeterRegistry();
+    exchangeApiMetrics = new ExchangeApiMetrics(ADAPTER_NAME, meterRegistry);
+  }
+
+  @Test
+  public void testRequestLatencyAndPayloadAreRecordedPerTagCombination() {
+    exchangeApiMetrics.recordHttpRequest(
+        "GET", ENDPOINT, "200", ExchangeApiMetrics.OUTCOME_SUCCESS, 2_000_000L, 512);
+    exchangeApiMetrics.recordHttpRequest(
+        "GET", ENDPOINT, "200", ExchangeApiMetrics.OUTCOME_SUCCESS, 4_000_000L, 1024);
+    exchangeApiMetrics.recordHttpRequest(
+        "GET", ENDPOINT, "502", ExchangeApiMetrics.OUTCOME_NETWORK_ERROR, 1_000_000L, 0);
+
+    final Timer successTimer = findTimer("200", ExchangeApiMetrics.OUTCOME_SUCCESS);
+    assertEquals(2, successTimer.count());
+    assertEquals(6.0, successTimer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+
+    final Timer errorTimer = findTimer("502", ExchangeApiMetrics.OUTCOME_NETWORK_ERROR);
+    assertEquals(1, errorTimer.count());
+
+    final DistributionSummary responseBytes =
+        meterRegistry
+            .find(ExchangeApiMetrics.HTTP_RESPONSE_BYTES_METRIC_NAME)
+            .tag(ExchangeApiMetrics.ADAPTER_TAG, ADAPTER_NAME)
+            .tag(ExchangeApiMetrics.ENDPOINT_TAG, ENDPOINT)
+            .summary();
+    assertNotNull(responseBytes);
+    assertEquals(2, responseBytes.count());
+    assertEquals(1536.0, responseBytes.totalAmount(), 0.001);
+  }
+
+  @Test
+  public void testEmptyPayloadIsNotRecorded() {
+    exchangeApiMetrics.recordHttpRequest(
+        "POST", ENDPOINT, "TIMEOUT", ExchangeApiMetrics.OUTCOME_NETWORK_ERROR, 1_000L, 0);
+
+    assertEquals(1, findTimer("TIMEOUT", ExchangeApiMetrics.OUTCOME_NETWORK_ERROR).count());
+    assertNull(meterRegistry.find(ExchangeApiMetrics.HTTP_RESPONSE_BYTES_METRIC_NAME).summary());
+  }
+
+  @Test
+  public void testOrderIdsAreReplacedInEndpointTemplate() {
+    assertEquals(ENDPOINT, ExchangeApiMetrics.endpointTemplate(ENDPOINT));
+    assertEquals("/api/v2/balance/", ExchangeApiMetrics.endpointTemplate("/api/v2/balance/"));
+    assertEquals(
+        "/products/BTC-USD/book", ExchangeApiMetrics.endpointTemplate("/products/BTC-USD/book"));
+    assertEquals(
+        "/orders/{id}",
+        ExchangeApiMetrics.endpointTemplate("/orders/a1b2c3d4-5678-90ab-cdef-1234567890ab"));
+    assertEquals(
+        "/v1/wallets/{id}/orders/{id}",
+        ExchangeApiMetrics.endpointTemplate(
+            "/v1/wallets/b440efe5-6a38-4a0e-8b2b-ba7c3a46a3e0/orders/1234567890"));
+  }
+
+  @Test
+  public void testOneTimerIsRegisteredForRequestsToTheSameEndpointTemplate() {
+    exchangeApiMetrics.recordHttpRequest(
+        "DELETE",
+        ExchangeApiMetrics.endpointTemplate("/orders/a1b2c3d4-5678-90ab-cdef-1234567890ab"),
+        "200",
+        ExchangeApiMetrics.OUTCOME_SUCCESS,
+        1_000L,
+        10);
+    exchangeApiMetrics.recordHttpRequest(
+        "DELETE",
+        ExchangeApiMetrics.endpointTemplate("/orders/ffffffff-5678-90ab-cdef-1234567890ab"),
+        "200",
+        ExchangeApiMetrics.OUTCOME_SUCCESS,
+        1_000L,
+        10);
+
+    assertEquals(
+        1, meterRegistry.find(ExchangeApiMetrics.HTTP_REQUESTS_METRIC_NAME).timers().size());
+    assertEquals(
+        2,
+        meterRegistry
+            .find(ExchangeApiMetrics.HTTP_REQUESTS_METRIC_NAME)
+            .tag(ExchangeApiMetrics.ENDPOINT_TAG, "/orders/{id}")
+            .timer()
+            .count());
+  }
+
+  private Timer findTimer(String status, String outcome) {
+    final Timer timer =
+        meterRegistry
+            .find(ExchangeApiMetrics.HTTP_REQUESTS_METRIC_NAME)
+            .tag(ExchangeApiMetrics.ADAPTER_TAG, ADAPTER_NAME)
+            .tag(ExchangeApiMetrics.ENDPOINT_TAG, ENDPOINT)
+            .tag(ExchangeApiMetrics.STATUS_TAG, status)
+            .tag(ExchangeApiMetrics.OUTCOME_TAG, outcome)
+            .timer();
+    assertNotNull(timer);
+    return timer;
+  }
+}
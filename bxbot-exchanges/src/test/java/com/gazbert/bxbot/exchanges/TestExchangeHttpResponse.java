@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.junit.Test;
+
+/**
+ * Tests the Exchange HTTP response is logged as expected.
+ *
+ * @author gazbert
+ */
+public class TestExchangeHttpResponse {
+
+  @Test
+  public void testSmallPayloadIsLoggedInFull() {
+    final ExchangeHttpResponse response = new ExchangeHttpResponse(200, "OK", "{\"result\":[]}");
+
+    assertEquals(
+        "Market Orders response: ExchangeHttpResponse{statusCode=200, reasonPhrase=OK, "
+            + "payload={\"result\":[]}}",
+        new ParameterizedMessage("Market Orders response: {}", response).getFormattedMessage());
+    assertEquals(response.toString(), format(response));
+  }
+
+  @Test
+  public void testLargePayloadIsTruncatedWhenLogged() {
+    final int extraChars = 10;
+    final String payload =
+        "x".repeat(ExchangeHttpResponse.MAX_LOGGED_PAYLOAD_LENGTH) + "y".repeat(extraChars);
+    final ExchangeHttpResponse response = new ExchangeHttpResponse(200, "OK", payload);
+
+    assertEquals(
+        "ExchangeHttpResponse{statusCode=200, reasonPhrase=OK, payload="
+            + "x".repeat(ExchangeHttpResponse.MAX_LOGGED_PAYLOAD_LENGTH)
+            + "...[10 more chars]}",
+        format(response));
+
+    // toString is not truncated - it is used in exception messages.
+    assertEquals(payload, response.getPayload());
+    assertTrue(response.toString().contains(payload));
+  }
+
+  private static String format(ExchangeHttpResponse response) {
+    final StringBuilder buffer = new StringBuilder();
+    response.formatTo(buffer);
+    return buffer.toString();
+  }
+}
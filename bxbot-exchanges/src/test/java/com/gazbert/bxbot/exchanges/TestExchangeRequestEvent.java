@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the Exchange Request Java Flight Recorder event is recorded as expected.
+ *
+ * @author gazbert
+ */
+public class TestExchangeRequestEvent {
+
+  private static final String EXCHANGE_REQUEST_EVENT = "com.gazbert.bxbot.ExchangeRequest";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testEventIsRecordedWithItsFieldsWhenEnabled() throws Exception {
+    final List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(EXCHANGE_REQUEST_EVENT);
+      recording.start();
+
+      final ExchangeRequestEvent postEvent = new ExchangeRequestEvent();
+      postEvent.begin();
+      postEvent.complete(
+          KrakenExchangeAdapter.class,
+          "POST",
+          "/0/private/AddOrder",
+          "200",
+          ExchangeApiMetrics.OUTCOME_SUCCESS,
+          "pair=XXBTZUSD&price=1",
+          512);
+
+      final ExchangeRequestEvent getEvent = new ExchangeRequestEvent();
+      getEvent.begin();
+      getEvent.complete(
+          KrakenExchangeAdapter.class,
+          "GET",
+          "/0/public/Depth",
+          "TIMEOUT",
+          ExchangeApiMetrics.OUTCOME_NETWORK_ERROR,
+          null,
+          0);
+
+      recording.stop();
+      events = readEvents(recording);
+    }
+
+    assertEquals(2, events.size());
+
+    final RecordedEvent post = events.get(0);
+    assertEquals("KrakenExchangeAdapter", post.getString("adapter"));
+    assertEquals("POST", post.getString("method"));
+    assertEquals("/0/private/AddOrder", post.getString("endpoint"));
+    assertEquals("200", post.getString("status"));
+    assertEquals(ExchangeApiMetrics.OUTCOME_SUCCESS, post.getString("outcome"));
+    assertEquals(21, post.getLong("requestBytes"));
+    assertEquals(512, post.getLong("responseBytes"));
+
+    final RecordedEvent get = events.get(1);
+    assertEquals("TIMEOUT", get.getString("status"));
+    assertEquals(0, get.getLong("requestBytes"));
+  }
+
+  @Test
+  public void testEventIsNotRecordedWhenDisabled() throws Exception {
+    final List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.disable(EXCHANGE_REQUEST_EVENT);
+      recording.start();
+
+      final ExchangeRequestEvent event = new ExchangeRequestEvent();
+      event.begin();
+      event.complete(
+          KrakenExchangeAdapter.class,
+          "GET",
+          "/0/public/Depth",
+          "200",
+          ExchangeApiMetrics.OUTCOME_SUCCESS,
+          null,
+          1024);
+
+      recording.stop();
+      events = readEvents(recording);
+    }
+
+    assertEquals(0, events.size());
+  }
+
+  private List<RecordedEvent> readEvents(Recording recording) throws Exception {
+    final Path recordingFile = temporaryFolder.newFile("test.jfr").toPath();
+    recording.dump(recordingFile);
+    return RecordingFile.readAllEvents(recordingFile).stream()
+        .filter(event -> event.getEventType().getName().equals(EXCHANGE_REQUEST_EVENT))
+        .sorted((first, second) -> first.getStartTime().compareTo(second.getStartTime()))
+        .collect(Collectors.toList());
+  }
+}
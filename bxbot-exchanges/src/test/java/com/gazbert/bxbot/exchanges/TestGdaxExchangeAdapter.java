@@ -32,6 +32,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import com.gazbert.bxbot.exchange.api.AuthenticationConfig;
 import com.gazbert.bxbot.exchange.api.ExchangeAdapter;
@@ -40,8 +41,10 @@ import com.gazbert.bxbot.exchange.api.NetworkConfig;
 import com.gazbert.bxbot.exchange.api.OtherConfig;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
 import com.gazbert.bxbot.trading.api.MarketOrderBook;
 import com.gazbert.bxbot.trading.api.OpenOrder;
+import com.gazbert.bxbot.trading.api.OrderRejectedException;
 import com.gazbert.bxbot.trading.api.OrderType;
 import com.gazbert.bxbot.trading.api.Ticker;
 import com.gazbert.bxbot.trading.api.TradingApiException;
@@ -101,6 +104,8 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
   private static final String CANCEL_ORDER_JSON_RESPONSE =
       "./src/test/exchange-data/gdax/cancel.json";
   private static final String STATS_JSON_RESPONSE = "./src/test/exchange-data/gdax/stats.json";
+  private static final String PRODUCTS_JSON_RESPONSE =
+      "./src/test/exchange-data/gdax/products.json";
 
   private static final String MARKET_ID = "BTC-GBP";
   private static final String ORDER_BOOK_DEPTH_LEVEL =
@@ -115,6 +120,7 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
   private static final String ORDERS = "orders";
   private static final String ACCOUNTS = "accounts";
   private static final String TICKER = "products/" + MARKET_ID + "/ticker";
+  private static final String PRODUCTS = "products";
   private static final String NEW_ORDER = "orders";
   private static final String CANCEL_ORDER = "orders/" + ORDER_ID_TO_CANCEL;
   private static final String STATS = "products/" + MARKET_ID + "/stats";
@@ -170,6 +176,76 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
     expect(exchangeConfig.getOtherConfig()).andReturn(otherConfig);
   }
 
+  // --------------------------------------------------------------------------
+  //  Get Market Metadata tests
+  // --------------------------------------------------------------------------
+
+  @Test
+  public void testGettingMarketMetadataSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(PRODUCTS_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final GdaxExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GdaxExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+
+    PowerMock.expectPrivate(
+            exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(PRODUCTS), eq(null))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      final MarketMetadata marketMetadata = exchangeAdapter.getMarketMetadata(MARKET_ID);
+      assertEquals(MARKET_ID, marketMetadata.getMarketId());
+      assertEquals(0, marketMetadata.getPriceTickSize().compareTo(new BigDecimal("0.01")));
+      assertEquals(
+          0, marketMetadata.getQuantityStepSize().compareTo(new BigDecimal("0.00000001")));
+      assertEquals(0, marketMetadata.getMinimumOrderQuantity().compareTo(new BigDecimal("0.001")));
+      assertEquals(0, marketMetadata.getMinimumOrderValue().compareTo(new BigDecimal("10")));
+
+      PowerMock.verifyAll();
+    } finally {
+      deleteMarketMetadataCacheFile(exchangeAdapter);
+    }
+  }
+
+  @Test
+  public void testCreateOrderIsRejectedLocallyWhenBelowCachedMinimumSize() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(PRODUCTS_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    // No authenticated call expected - the order never leaves the bot.
+    final GdaxExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            GdaxExchangeAdapter.class,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+
+    PowerMock.expectPrivate(
+            exchangeAdapter, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD, eq(PRODUCTS), eq(null))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      exchangeAdapter.getMarketMetadata(MARKET_ID);
+      exchangeAdapter.createOrder(
+          MARKET_ID, OrderType.BUY, new BigDecimal("0.0005"), BUY_ORDER_PRICE);
+      fail("Expected OrderRejectedException for order below minimum size");
+    } catch (OrderRejectedException e) {
+      PowerMock.verifyAll();
+    } finally {
+      deleteMarketMetadataCacheFile(exchangeAdapter);
+    }
+  }
+
   // --------------------------------------------------------------------------
   //  Create Orders tests
   // --------------------------------------------------------------------------
@@ -1222,4 +1298,12 @@ public class TestGdaxExchangeAdapter extends AbstractExchangeAdapterTest {
 
     PowerMock.verifyAll();
   }
+
+  private static void deleteMarketMetadataCacheFile(ExchangeAdapter exchangeAdapter)
+      throws Exception {
+    Files.deleteIfExists(
+        Paths.get(
+            MarketMetadataCache.DEFAULT_CACHE_DIR,
+            exchangeAdapter.getClass().getSimpleName() + ".json"));
+  }
 }
@@ -0,0 +1,206 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.exchanges.AbstractExchangeAdapter.ExchangeHttpResponse;
+import com.gazbert.bxbot.exchanges.HedgedRequestExecutor.CancellableRequest;
+import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the hedged request executor behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestHedgedRequestExecutor {
+
+  private static final ExchangeHttpResponse FAST_RESPONSE =
+      new ExchangeHttpResponse(200, "OK", "{\"fast\": true}");
+  private static final ExchangeHttpResponse SLOW_RESPONSE =
+      new ExchangeHttpResponse(200, "OK", "{\"slow\": true}");
+
+  private ExecutorService executorService;
+
+  @Before
+  public void setup() {
+    executorService = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testRequestsAreNotHedgedUntilEnoughLatencySamples() throws Exception {
+    final HedgedRequestExecutor executor = new HedgedRequestExecutor(95, 100, executorService);
+    final List<FakeRequest> requests = new ArrayList<>();
+
+    for (int i = 0; i < HedgedRequestExecutor.MIN_LATENCY_SAMPLES - 1; i++) {
+      assertSame(FAST_RESPONSE, executor.execute(() -> newRequest(requests, FAST_RESPONSE, 0)));
+      assertEquals(-1, executor.getHedgeDelayNanos());
+    }
+    assertSame(FAST_RESPONSE, executor.execute(() -> newRequest(requests, FAST_RESPONSE, 0)));
+
+    assertEquals(HedgedRequestExecutor.MIN_LATENCY_SAMPLES, requests.size());
+    assertTrue(executor.getHedgeDelayNanos() >= 0);
+  }
+
+  @Test
+  public void testSlowRequestIsHedgedAndLoserIsCancelled() throws Exception {
+    final HedgedRequestExecutor executor = new HedgedRequestExecutor(95, 100, executorService);
+    warmUp(executor);
+
+    final List<FakeRequest> requests = new ArrayList<>();
+    final ExchangeHttpResponse response =
+        executor.execute(
+            () ->
+                requests.isEmpty()
+                    ? newRequest(requests, SLOW_RESPONSE, 5000)
+                    : newRequest(requests, FAST_RESPONSE, 0));
+
+    assertSame(FAST_RESPONSE, response);
+    assertEquals(2, requests.size());
+    assertTrue(requests.get(0).cancelled.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testSlowRequestIsNotHedgedWhenExtraLoadBudgetIsSpent() throws Exception {
+    final HedgedRequestExecutor executor = new HedgedRequestExecutor(95, 0, executorService);
+    warmUp(executor);
+
+    final List<FakeRequest> requests = new ArrayList<>();
+    final ExchangeHttpResponse response =
+        executor.execute(() -> newRequest(requests, SLOW_RESPONSE, 200));
+
+    assertSame(SLOW_RESPONSE, response);
+    assertEquals(1, requests.size());
+    assertFalse(requests.get(0).isCancelled());
+  }
+
+  @Test
+  public void testFailureIsRethrownWhenAllRequestsFail() throws Exception {
+    final HedgedRequestExecutor executor = new HedgedRequestExecutor(95, 100, executorService);
+    warmUp(executor);
+
+    final ExchangeNetworkException failure = new ExchangeNetworkException("Connection reset");
+    try {
+      executor.execute(() -> new FakeRequest(null, 0, failure));
+      fail("Expected ExchangeNetworkException to be rethrown");
+    } catch (ExchangeNetworkException e) {
+      assertSame(failure, e);
+    }
+  }
+
+  @Test
+  public void testInterruptWhileWaitingIsNonFatalAndInterruptFlagIsRestored() throws Exception {
+    final HedgedRequestExecutor executor = new HedgedRequestExecutor(95, 100, executorService);
+    warmUp(executor);
+
+    final List<FakeRequest> requests = new ArrayList<>();
+    Thread.currentThread().interrupt();
+    try {
+      executor.execute(() -> newRequest(requests, SLOW_RESPONSE, 5000));
+      fail("Expected ExchangeNetworkException to be thrown");
+    } catch (ExchangeNetworkException e) {
+      assertTrue(Thread.interrupted());
+    }
+    assertTrue(requests.get(0).cancelled.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLatencyPercentileIsRejected() {
+    new HedgedRequestExecutor(100, 5, executorService);
+  }
+
+  // --------------------------------------------------------------------------
+  //  Util methods
+  // --------------------------------------------------------------------------
+
+  private static void warmUp(HedgedRequestExecutor executor) throws Exception {
+    for (int i = 0; i < HedgedRequestExecutor.MIN_LATENCY_SAMPLES; i++) {
+      executor.execute(() -> new FakeRequest(FAST_RESPONSE, 1, null));
+    }
+  }
+
+  private static FakeRequest newRequest(
+      List<FakeRequest> requests, ExchangeHttpResponse response, long delayMillis) {
+    final FakeRequest request = new FakeRequest(response, delayMillis, null);
+    requests.add(request);
+    return request;
+  }
+
+  /** Returns a canned response after a delay, unless cancelled first. */
+  private static class FakeRequest implements CancellableRequest {
+
+    private final ExchangeHttpResponse response;
+    private final long delayMillis;
+    private final ExchangeNetworkException failure;
+    private final CountDownLatch cancelled = new CountDownLatch(1);
+
+    FakeRequest(ExchangeHttpResponse response, long delayMillis, ExchangeNetworkException failure) {
+      this.response = response;
+      this.delayMillis = delayMillis;
+      this.failure = failure;
+    }
+
+    @Override
+    public ExchangeHttpResponse send() throws ExchangeNetworkException {
+      try {
+        if (cancelled.await(delayMillis, TimeUnit.MILLISECONDS)) {
+          throw new ExchangeNetworkException("cancelled");
+        }
+      } catch (InterruptedException e) {
+        throw new ExchangeNetworkException("interrupted", e);
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return response;
+    }
+
+    @Override
+    public void cancel() {
+      cancelled.countDown();
+    }
+
+    boolean isCancelled() {
+      return cancelled.getCount() == 0;
+    }
+  }
+}
@@ -27,7 +27,9 @@ import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.anyString;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.getCurrentArguments;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -40,7 +42,10 @@ import com.gazbert.bxbot.exchange.api.NetworkConfig;
 import com.gazbert.bxbot.exchange.api.OtherConfig;
 import com.gazbert.bxbot.trading.api.BalanceInfo;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
+import com.gazbert.bxbot.trading.api.MarketMetadata;
 import com.gazbert.bxbot.trading.api.MarketOrderBook;
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.MyTradeHistory;
 import com.gazbert.bxbot.trading.api.OpenOrder;
 import com.gazbert.bxbot.trading.api.OrderType;
 import com.gazbert.bxbot.trading.api.Ticker;
@@ -105,6 +110,12 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
       "./src/test/exchange-data/kraken/CancelOrder.json";
   private static final String CANCEL_ORDER_ERROR_JSON_RESPONSE =
       "./src/test/exchange-data/kraken/CancelOrder-error.json";
+  private static final String ASSET_PAIRS_JSON_RESPONSE =
+      "./src/test/exchange-data/kraken/AssetPairs.json";
+  private static final String ASSET_PAIRS_XBTUSD_JSON_RESPONSE =
+      "./src/test/exchange-data/kraken/AssetPairs-XBTUSD.json";
+  private static final String TRADES_HISTORY_JSON_RESPONSE =
+      "./src/test/exchange-data/kraken/TradesHistory.json";
 
   private static final String DEPTH = "Depth";
   private static final String BALANCE = "Balance";
@@ -112,6 +123,8 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
   private static final String OPEN_ORDERS = "OpenOrders";
   private static final String ADD_ORDER = "AddOrder";
   private static final String CANCEL_ORDER = "CancelOrder";
+  private static final String ASSET_PAIRS = "AssetPairs";
+  private static final String TRADES_HISTORY = "TradesHistory";
 
   // Market id must be the same as the Asset Pair id. See:
   // https://www.kraken.com/help/api#get-tradable-pairs
@@ -434,6 +447,258 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
     PowerMock.verifyAll();
   }
 
+  // --------------------------------------------------------------------------
+  //  Get Market Metadata tests
+  // --------------------------------------------------------------------------
+
+  @Test
+  public void testGettingMarketMetadataSuccessfully() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(ASSET_PAIRS_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+
+    // Only fetched once - all markets are cached from the first call.
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            eq(ASSET_PAIRS),
+            eq(null))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      final MarketMetadata btcUsd = exchangeAdapter.getMarketMetadata(MARKET_ID);
+      assertEquals(MARKET_ID, btcUsd.getMarketId());
+      assertEquals(0, btcUsd.getPriceTickSize().compareTo(new BigDecimal("0.1")));
+      assertEquals(0, btcUsd.getQuantityStepSize().compareTo(new BigDecimal("0.00000001")));
+      assertEquals(0, btcUsd.getMinimumOrderQuantity().compareTo(new BigDecimal("0.0001")));
+      assertEquals(0, btcUsd.getMinimumOrderValue().compareTo(new BigDecimal("0.5")));
+
+      // tick size derived from pair_decimals when tick_size not supplied
+      final MarketMetadata ethEur = exchangeAdapter.getMarketMetadata("XETHZEUR");
+      assertEquals(0, ethEur.getPriceTickSize().compareTo(new BigDecimal("0.01")));
+      assertEquals(0, ethEur.getMinimumOrderQuantity().compareTo(new BigDecimal("0.01")));
+      assertNull(ethEur.getMinimumOrderValue());
+
+      PowerMock.verifyAll();
+    } finally {
+      deleteMarketMetadataCacheFile(exchangeAdapter);
+    }
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testGettingMarketMetadataHandlesUnknownMarket() throws Exception {
+    final byte[] encoded = Files.readAllBytes(Paths.get(ASSET_PAIRS_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse exchangeResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(encoded, StandardCharsets.UTF_8));
+
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class, MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD);
+
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            eq(ASSET_PAIRS),
+            eq(null))
+        .andReturn(exchangeResponse);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    try {
+      exchangeAdapter.getMarketMetadata("DOGEGBP");
+    } finally {
+      deleteMarketMetadataCacheFile(exchangeAdapter);
+    }
+  }
+
+  // --------------------------------------------------------------------------
+  //  Get My Trades tests
+  // --------------------------------------------------------------------------
+
+  @Test
+  public void testGettingMyTradesSuccessfully() throws Exception {
+    final byte[] assetPairs = Files.readAllBytes(Paths.get(ASSET_PAIRS_XBTUSD_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse assetPairsResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(assetPairs, StandardCharsets.UTF_8));
+    final byte[] tradesHistory = Files.readAllBytes(Paths.get(TRADES_HISTORY_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse tradesHistoryResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(tradesHistory, StandardCharsets.UTF_8));
+
+    final Map<String, String> assetPairsParams = new HashMap<>();
+    assetPairsParams.put("pair", MARKET_ID);
+
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+
+    // pair name is only looked up once
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            eq(ASSET_PAIRS),
+            eq(assetPairsParams))
+        .andReturn(assetPairsResponse);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(TRADES_HISTORY),
+            eq(new HashMap<>()))
+        .andReturn(tradesHistoryResponse);
+
+    final Map<String, String> sinceCursorParams = new HashMap<>();
+    sinceCursorParams.put("start", "THVRQM-33VKH-UCI7BS");
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(TRADES_HISTORY),
+            eq(sinceCursorParams))
+        .andReturn(
+            new AbstractExchangeAdapter.ExchangeHttpResponse(
+                200, "OK", "{\"error\":[],\"result\":{\"trades\":{},\"count\":0}}"));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MyTradeHistory myTrades = exchangeAdapter.getMyTrades(MARKET_ID, null);
+
+    // XETHZEUR trade is filtered out; trades are returned oldest first
+    assertEquals(2, myTrades.getTrades().size());
+    assertEquals("THVRQM-33VKH-UCI7BS", myTrades.getCursor());
+
+    final MyTrade sell = myTrades.getTrades().get(0);
+    assertEquals("TTEUX3-HDAAA-RC2RUO", sell.getId());
+    assertEquals("OH76VO-UKWAD-PSBDX6", sell.getOrderId());
+    assertEquals(MARKET_ID, sell.getMarketId());
+    assertEquals(OrderType.SELL, sell.getType());
+    assertEquals(0, sell.getPrice().compareTo(new BigDecimal("8100.00000")));
+    assertEquals(0, sell.getQuantity().compareTo(new BigDecimal("0.01")));
+    assertEquals(0, sell.getFee().compareTo(new BigDecimal("0.21060")));
+    assertEquals(1584482710654L, sell.getTimestamp().getTime());
+
+    final MyTrade buy = myTrades.getTrades().get(1);
+    assertEquals("THVRQM-33VKH-UCI7BS", buy.getId());
+    assertEquals(OrderType.BUY, buy.getType());
+
+    // nothing new since the cursor - cursor stays the same
+    final MyTradeHistory noNewTrades = exchangeAdapter.getMyTrades(MARKET_ID, myTrades.getCursor());
+    assertTrue(noNewTrades.getTrades().isEmpty());
+    assertEquals("THVRQM-33VKH-UCI7BS", noNewTrades.getCursor());
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testGettingMyTradesFetchesOldestPagesFirstWhenThereAreTooManyToCatchUp()
+      throws Exception {
+    final byte[] assetPairs = Files.readAllBytes(Paths.get(ASSET_PAIRS_XBTUSD_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse assetPairsResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(assetPairs, StandardCharsets.UTF_8));
+
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            eq(ASSET_PAIRS),
+            anyObject(Map.class))
+        .andReturn(assetPairsResponse);
+
+    // 130 new trades, 5 per page: more than the 20 pages fetched per call.
+    final int totalTrades = 130;
+    final int pageSize = 5;
+    final Map<String, String> firstPageParams = new HashMap<>();
+    firstPageParams.put("start", "TOLDEST");
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(TRADES_HISTORY),
+            eq(firstPageParams))
+        .andReturn(createTradesHistoryPage(0, pageSize, totalTrades));
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(TRADES_HISTORY),
+            anyObject(Map.class))
+        .andAnswer(
+            () -> {
+              @SuppressWarnings("unchecked")
+              final Map<String, String> params = (Map<String, String>) getCurrentArguments()[1];
+              assertEquals("TOLDEST", params.get("start"));
+              assertEquals("T0", params.get("end")); // pinned to the newest trade
+              return createTradesHistoryPage(
+                  Integer.parseInt(params.get("ofs")), pageSize, totalTrades);
+            })
+        .times(20);
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    final MyTradeHistory myTrades = exchangeAdapter.getMyTrades(MARKET_ID, "TOLDEST");
+
+    // The oldest 100 trades are returned, oldest first; the next call carries on from the newest.
+    assertEquals(100, myTrades.getTrades().size());
+    assertEquals("T129", myTrades.getTrades().get(0).getId());
+    assertEquals("T30", myTrades.getTrades().get(99).getId());
+    assertEquals("T30", myTrades.getCursor());
+    assertFalse(myTrades.getTrades().stream().anyMatch(trade -> "T0".equals(trade.getId())));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testGettingMyTradesHandlesErrorResponse() throws Exception {
+    final byte[] assetPairs = Files.readAllBytes(Paths.get(ASSET_PAIRS_XBTUSD_JSON_RESPONSE));
+    final AbstractExchangeAdapter.ExchangeHttpResponse assetPairsResponse =
+        new AbstractExchangeAdapter.ExchangeHttpResponse(
+            200, "OK", new String(assetPairs, StandardCharsets.UTF_8));
+
+    final KrakenExchangeAdapter exchangeAdapter =
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            KrakenExchangeAdapter.class,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD);
+
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_PUBLIC_REQUEST_TO_EXCHANGE_METHOD,
+            eq(ASSET_PAIRS),
+            anyObject(Map.class))
+        .andReturn(assetPairsResponse);
+    PowerMock.expectPrivate(
+            exchangeAdapter,
+            MOCKED_SEND_AUTHENTICATED_REQUEST_TO_EXCHANGE_METHOD,
+            eq(TRADES_HISTORY),
+            anyObject(Map.class))
+        .andReturn(
+            new AbstractExchangeAdapter.ExchangeHttpResponse(
+                200, "OK", "{\"error\":[\"EGeneral:Invalid arguments\"]}"));
+
+    PowerMock.replayAll();
+    exchangeAdapter.init(exchangeConfig);
+
+    exchangeAdapter.getMyTrades(MARKET_ID, null);
+    PowerMock.verifyAll();
+  }
+
   // --------------------------------------------------------------------------
   //  Create Orders tests
   // --------------------------------------------------------------------------
@@ -1430,4 +1695,36 @@ public class TestKrakenExchangeAdapter extends AbstractExchangeAdapterTest {
 
     PowerMock.verifyAll();
   }
+
+  private static void deleteMarketMetadataCacheFile(ExchangeAdapter exchangeAdapter)
+      throws Exception {
+    Files.deleteIfExists(
+        Paths.get(
+            MarketMetadataCache.DEFAULT_CACHE_DIR,
+            exchangeAdapter.getClass().getSimpleName() + ".json"));
+  }
+
+  /** Creates a page of trades, newest first; trade T0 is the newest. */
+  private static AbstractExchangeAdapter.ExchangeHttpResponse createTradesHistoryPage(
+      int offset, int pageSize, int totalTrades) {
+    final StringBuilder trades = new StringBuilder();
+    for (int i = offset; i < Math.min(offset + pageSize, totalTrades); i++) {
+      if (trades.length() > 0) {
+        trades.append(',');
+      }
+      trades
+          .append("\"T").append(i).append("\":{\"ordertxid\":\"O").append(i)
+          .append("\",\"pair\":\"XXBTZUSD\",\"time\":").append(1584526521 - i)
+          .append(",\"type\":\"buy\",\"price\":\"8000.0\",\"fee\":\"0.1\",")
+          .append("\"vol\":\"0.005\"}");
+    }
+    return new AbstractExchangeAdapter.ExchangeHttpResponse(
+        200,
+        "OK",
+        "{\"error\":[],\"result\":{\"trades\":{"
+            + trades
+            + "},\"count\":"
+            + totalTrades
+            + "}}");
+  }
 }
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges.trading.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import org.junit.Test;
+
+/**
+ * Tests the Market Metadata impl behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketMetadataImpl {
+
+  private static final String MARKET_ID = "XXBTZUSD";
+  private static final BigDecimal PRICE_TICK_SIZE = new BigDecimal("0.1");
+  private static final BigDecimal QUANTITY_STEP_SIZE = new BigDecimal("0.00000001");
+  private static final BigDecimal MIN_ORDER_QUANTITY = new BigDecimal("0.0001");
+  private static final BigDecimal MIN_ORDER_VALUE = new BigDecimal("0.5");
+
+  @Test
+  public void testMarketMetadataIsInitialisedAsExpected() {
+    final MarketMetadataImpl marketMetadata =
+        new MarketMetadataImpl(
+            MARKET_ID, PRICE_TICK_SIZE, QUANTITY_STEP_SIZE, MIN_ORDER_QUANTITY, MIN_ORDER_VALUE);
+
+    assertEquals(MARKET_ID, marketMetadata.getMarketId());
+    assertEquals(PRICE_TICK_SIZE, marketMetadata.getPriceTickSize());
+    assertEquals(QUANTITY_STEP_SIZE, marketMetadata.getQuantityStepSize());
+    assertEquals(MIN_ORDER_QUANTITY, marketMetadata.getMinimumOrderQuantity());
+    assertEquals(MIN_ORDER_VALUE, marketMetadata.getMinimumOrderValue());
+  }
+
+  @Test
+  public void testSettersWorkAsExpected() {
+    final MarketMetadataImpl marketMetadata = new MarketMetadataImpl(null, null, null, null, null);
+    assertNull(marketMetadata.getMarketId());
+    assertNull(marketMetadata.getPriceTickSize());
+    assertNull(marketMetadata.getQuantityStepSize());
+    assertNull(marketMetadata.getMinimumOrderQuantity());
+    assertNull(marketMetadata.getMinimumOrderValue());
+
+    marketMetadata.setMarketId(MARKET_ID);
+    assertEquals(MARKET_ID, marketMetadata.getMarketId());
+
+    marketMetadata.setPriceTickSize(PRICE_TICK_SIZE);
+    assertEquals(PRICE_TICK_SIZE, marketMetadata.getPriceTickSize());
+
+    marketMetadata.setQuantityStepSize(QUANTITY_STEP_SIZE);
+    assertEquals(QUANTITY_STEP_SIZE, marketMetadata.getQuantityStepSize());
+
+    marketMetadata.setMinimumOrderQuantity(MIN_ORDER_QUANTITY);
+    assertEquals(MIN_ORDER_QUANTITY, marketMetadata.getMinimumOrderQuantity());
+
+    marketMetadata.setMinimumOrderValue(MIN_ORDER_VALUE);
+    assertEquals(MIN_ORDER_VALUE, marketMetadata.getMinimumOrderValue());
+  }
+}
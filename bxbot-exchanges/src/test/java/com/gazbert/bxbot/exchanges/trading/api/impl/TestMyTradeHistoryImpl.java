@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges.trading.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.trading.api.MyTrade;
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests the My Trade History impl behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMyTradeHistoryImpl {
+
+  private static final String CURSOR = "TLD2Z4-L4C7H-MKH5BW";
+  private static final List<MyTrade> TRADES =
+      Collections.singletonList(
+          new MyTradeImpl(
+              "trade-1",
+              "order-1",
+              "BTC_USD",
+              OrderType.BUY,
+              new BigDecimal("671.91"),
+              new BigDecimal("0.01433434"),
+              new BigDecimal("0.0251"),
+              new Date()));
+
+  @Test
+  public void testMyTradeHistoryIsInitialisedAsExpected() {
+    final MyTradeHistoryImpl tradeHistory = new MyTradeHistoryImpl(TRADES, CURSOR);
+
+    assertEquals(TRADES, tradeHistory.getTrades());
+    assertEquals(CURSOR, tradeHistory.getCursor());
+    assertTrue(tradeHistory.toString().contains(CURSOR));
+  }
+
+  @Test
+  public void testSettersWorkAsExpected() {
+    final MyTradeHistoryImpl tradeHistory = new MyTradeHistoryImpl(null, null);
+    assertNull(tradeHistory.getTrades());
+    assertNull(tradeHistory.getCursor());
+
+    tradeHistory.setTrades(TRADES);
+    assertEquals(TRADES, tradeHistory.getTrades());
+
+    tradeHistory.setCursor(CURSOR);
+    assertEquals(CURSOR, tradeHistory.getCursor());
+  }
+}
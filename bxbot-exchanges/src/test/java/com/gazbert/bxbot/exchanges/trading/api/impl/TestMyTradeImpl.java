@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.exchanges.trading.api.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import com.gazbert.bxbot.trading.api.OrderType;
+import java.math.BigDecimal;
+import java.util.Date;
+import org.junit.Test;
+
+/**
+ * Tests the My Trade impl behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestMyTradeImpl {
+
+  private static final String ID = "TLD2Z4-L4C7H-MKH5BW";
+  private static final String ORDER_ID = "OLD2Z4-L4C7H-MKH5BW";
+  private static final String MARKET_ID = "BTC_USD";
+  private static final BigDecimal PRICE = new BigDecimal("671.91");
+  private static final BigDecimal QUANTITY = new BigDecimal("0.01433434");
+  private static final BigDecimal FEE = new BigDecimal("0.0251");
+  private static final Date TIMESTAMP = new Date();
+
+  @Test
+  public void testMyTradeIsInitialisedAsExpected() {
+    final MyTradeImpl myTrade =
+        new MyTradeImpl(ID, ORDER_ID, MARKET_ID, OrderType.BUY, PRICE, QUANTITY, FEE, TIMESTAMP);
+
+    assertEquals(ID, myTrade.getId());
+    assertEquals(ORDER_ID, myTrade.getOrderId());
+    assertEquals(MARKET_ID, myTrade.getMarketId());
+    assertEquals(OrderType.BUY, myTrade.getType());
+    assertEquals(PRICE, myTrade.getPrice());
+    assertEquals(QUANTITY, myTrade.getQuantity());
+    assertEquals(FEE, myTrade.getFee());
+    assertEquals(TIMESTAMP, myTrade.getTimestamp());
+  }
+
+  @Test
+  public void testSettersWorkAsExpected() {
+    final MyTradeImpl myTrade = new MyTradeImpl(null, null, null, null, null, null, null, null);
+    assertNull(myTrade.getId());
+    assertNull(myTrade.getOrderId());
+    assertNull(myTrade.getMarketId());
+    assertNull(myTrade.getType());
+    assertNull(myTrade.getPrice());
+    assertNull(myTrade.getQuantity());
+    assertNull(myTrade.getFee());
+    assertNull(myTrade.getTimestamp());
+
+    myTrade.setId(ID);
+    assertEquals(ID, myTrade.getId());
+
+    myTrade.setOrderId(ORDER_ID);
+    assertEquals(ORDER_ID, myTrade.getOrderId());
+
+    myTrade.setMarketId(MARKET_ID);
+    assertEquals(MARKET_ID, myTrade.getMarketId());
+
+    myTrade.setType(OrderType.SELL);
+    assertEquals(OrderType.SELL, myTrade.getType());
+
+    myTrade.setPrice(PRICE);
+    assertEquals(PRICE, myTrade.getPrice());
+
+    myTrade.setQuantity(QUANTITY);
+    assertEquals(QUANTITY, myTrade.getQuantity());
+
+    myTrade.setFee(FEE);
+    assertEquals(FEE, myTrade.getFee());
+
+    myTrade.setTimestamp(TIMESTAMP);
+    assertEquals(TIMESTAMP, myTrade.getTimestamp());
+  }
+
+  @Test
+  public void testEqualsWorksAsExpected() {
+    final MyTradeImpl myTrade1 =
+        new MyTradeImpl(ID, ORDER_ID, MARKET_ID, OrderType.BUY, PRICE, QUANTITY, FEE, TIMESTAMP);
+    final MyTradeImpl myTrade2 =
+        new MyTradeImpl(
+            "different-id", ORDER_ID, MARKET_ID, OrderType.BUY, PRICE, QUANTITY, FEE, TIMESTAMP);
+    final MyTradeImpl myTrade3 =
+        new MyTradeImpl(
+            ID, ORDER_ID, "diff-market", OrderType.BUY, PRICE, QUANTITY, FEE, TIMESTAMP);
+
+    assertEquals(myTrade1, myTrade1);
+    assertNotEquals(myTrade1, myTrade2);
+    assertNotEquals(myTrade1, myTrade3);
+  }
+}
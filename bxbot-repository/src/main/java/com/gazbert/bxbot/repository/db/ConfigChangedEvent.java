@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Published to the Spring context when config in the config database has changed.
+ *
+ * <p>Listen for it with an {@code @EventListener} method.
+ *
+ * @author gazbert
+ */
+public class ConfigChangedEvent {
+
+  /** The type of config that changed. */
+  public enum ConfigType {
+    ENGINE,
+    EXCHANGE,
+    EMAIL_ALERTS,
+    MARKET,
+    STRATEGY
+  }
+
+  /** How the config changed. */
+  public enum ChangeType {
+    SAVED,
+    DELETED
+  }
+
+  private final ConfigType configType;
+  private final String id;
+  private final ChangeType changeType;
+
+  /**
+   * Creates the event.
+   *
+   * @param configType the type of config that changed.
+   * @param id the id of the market or strategy that changed; null for the other config types.
+   * @param changeType how the config changed.
+   */
+  public ConfigChangedEvent(ConfigType configType, String id, ChangeType changeType) {
+    this.configType = configType;
+    this.id = id;
+    this.changeType = changeType;
+  }
+
+  public ConfigType getConfigType() {
+    return configType;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public ChangeType getChangeType() {
+    return changeType;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("configType", configType)
+        .add("id", id)
+        .add("changeType", changeType)
+        .toString();
+  }
+}
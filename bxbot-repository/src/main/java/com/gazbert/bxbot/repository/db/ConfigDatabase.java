@@ -0,0 +1,213 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The embedded H2 database that holds the bot's config when the {@value #PROFILE} Spring profile
+ * is active.
+ *
+ * <p>The database has its own connection pool and transaction manager. They are not exposed as
+ * beans, so the REST API's user database and its JPA transactions are not affected.
+ *
+ * <p>The Trading Strategies a market runs are held in a market to strategy join table, indexed on
+ * strategy id so the markets that use a strategy can be found when it is deleted.
+ *
+ * <p>Writes are done in {@link #inTransaction(Supplier)}; nested calls join the outer transaction,
+ * so updates across several entities commit or roll back together. Change events are published
+ * to the Spring context once the transaction has committed.
+ *
+ * @author gazbert
+ */
+@Component
+@Profile(ConfigDatabase.PROFILE)
+public class ConfigDatabase {
+
+  /** The Spring profile that switches the config repositories from YAML files to the database. */
+  public static final String PROFILE = "config-db";
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String[] SCHEMA = {
+    "CREATE TABLE IF NOT EXISTS ENGINE_CONFIG ("
+        + "ID INT PRIMARY KEY, "
+        + "BOT_ID VARCHAR(255), "
+        + "BOT_NAME VARCHAR(255), "
+        + "EMERGENCY_STOP_CURRENCY VARCHAR(50), "
+        + "EMERGENCY_STOP_BALANCE DECIMAL, "
+        + "TRADE_CYCLE_INTERVAL INT)",
+    "CREATE TABLE IF NOT EXISTS EXCHANGE_CONFIG ("
+        + "ID INT PRIMARY KEY, "
+        + "NAME VARCHAR(255), "
+        + "ADAPTER VARCHAR(255), "
+        + "HAS_NETWORK_CONFIG BOOLEAN, "
+        + "CONNECTION_TIMEOUT INT)",
+    "CREATE TABLE IF NOT EXISTS EXCHANGE_CONFIG_ITEM ("
+        + "SECTION VARCHAR(50) NOT NULL, "
+        + "POSITION INT NOT NULL, "
+        + "ITEM_KEY VARCHAR(255), "
+        + "ITEM_VALUE VARCHAR(4096), "
+        + "PRIMARY KEY (SECTION, POSITION))",
+    "CREATE TABLE IF NOT EXISTS EMAIL_ALERTS_CONFIG ("
+        + "ID INT PRIMARY KEY, "
+        + "ENABLED BOOLEAN, "
+        + "HAS_SMTP_CONFIG BOOLEAN, "
+        + "SMTP_HOST VARCHAR(255), "
+        + "SMTP_TLS_PORT INT, "
+        + "ACCOUNT_USERNAME VARCHAR(255), "
+        + "ACCOUNT_PASSWORD VARCHAR(255), "
+        + "FROM_ADDRESS VARCHAR(255), "
+        + "TO_ADDRESS VARCHAR(255))",
+    "CREATE TABLE IF NOT EXISTS MARKET_CONFIG ("
+        + "SEQ BIGINT AUTO_INCREMENT, "
+        + "ID VARCHAR(255) PRIMARY KEY, "
+        + "NAME VARCHAR(255), "
+        + "BASE_CURRENCY VARCHAR(50), "
+        + "COUNTER_CURRENCY VARCHAR(50), "
+        + "ENABLED BOOLEAN)",
+    "CREATE TABLE IF NOT EXISTS MARKET_STRATEGY ("
+        + "MARKET_ID VARCHAR(255) NOT NULL, "
+        + "POSITION INT NOT NULL, "
+        + "STRATEGY_ID VARCHAR(255) NOT NULL, "
+        + "PRIMARY KEY (MARKET_ID, POSITION), "
+        + "FOREIGN KEY (MARKET_ID) REFERENCES MARKET_CONFIG (ID) ON DELETE CASCADE)",
+    "CREATE INDEX IF NOT EXISTS MARKET_STRATEGY_STRATEGY_IDX ON MARKET_STRATEGY (STRATEGY_ID)",
+    "CREATE TABLE IF NOT EXISTS STRATEGY_CONFIG ("
+        + "SEQ BIGINT AUTO_INCREMENT, "
+        + "ID VARCHAR(255) PRIMARY KEY, "
+        + "NAME VARCHAR(255), "
+        + "DESCRIPTION VARCHAR(4096), "
+        + "CLASS_NAME VARCHAR(255), "
+        + "BEAN_NAME VARCHAR(255))",
+    "CREATE TABLE IF NOT EXISTS STRATEGY_CONFIG_ITEM ("
+        + "STRATEGY_ID VARCHAR(255) NOT NULL, "
+        + "ITEM_KEY VARCHAR(255) NOT NULL, "
+        + "ITEM_VALUE VARCHAR(4096), "
+        + "PRIMARY KEY (STRATEGY_ID, ITEM_KEY), "
+        + "FOREIGN KEY (STRATEGY_ID) REFERENCES STRATEGY_CONFIG (ID) ON DELETE CASCADE)"
+  };
+
+  private final JdbcConnectionPool connectionPool;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+
+  /**
+   * Opens the config database, creating the tables if they do not exist yet.
+   *
+   * @param url the H2 JDBC url.
+   * @param username the database username.
+   * @param password the database password.
+   * @param eventPublisher publishes config change events.
+   */
+  @Autowired
+  public ConfigDatabase(
+      @Value("${bxbot.configdb.url:jdbc:h2:./config/bxbot-config}") String url,
+      @Value("${bxbot.configdb.username:sa}") String username,
+      @Value("${bxbot.configdb.password:}") String password,
+      ApplicationEventPublisher eventPublisher) {
+
+    LOG.info(() -> "Opening config database: " + url);
+
+    this.eventPublisher = eventPublisher;
+    connectionPool = JdbcConnectionPool.create(url, username, password);
+    jdbcTemplate = new JdbcTemplate(connectionPool);
+    transactionTemplate =
+        new TransactionTemplate(new DataSourceTransactionManager(connectionPool));
+
+    inTransaction(
+        () -> {
+          for (final String statement : SCHEMA) {
+            jdbcTemplate.execute(statement);
+          }
+          return null;
+        });
+  }
+
+  /**
+   * Runs the work in a transaction, joining the current one if there is one.
+   *
+   * @param work the work to do.
+   * @param <T> the type of result.
+   * @return the result of the work.
+   */
+  public <T> T inTransaction(Supplier<T> work) {
+    return transactionTemplate.execute(status -> work.get());
+  }
+
+  /**
+   * Returns true if no config has been stored yet.
+   *
+   * @return true if the database is empty.
+   */
+  public boolean isEmpty() {
+    final Integer engineRows =
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ENGINE_CONFIG", Integer.class);
+    return engineRows == null || engineRows == 0;
+  }
+
+  JdbcTemplate getJdbcTemplate() {
+    return jdbcTemplate;
+  }
+
+  /*
+   * Publishes the event after the current transaction commits, or straight away if there is no
+   * transaction. Listeners never see changes that were rolled back.
+   */
+  void publishChange(ConfigChangedEvent event) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              eventPublisher.publishEvent(event);
+            }
+          });
+    } else {
+      eventPublisher.publishEvent(event);
+    }
+  }
+
+  /** Closes the database connections. */
+  @PreDestroy
+  public void close() {
+    LOG.info(() -> "Closing config database.");
+    connectionPool.dispose();
+  }
+}
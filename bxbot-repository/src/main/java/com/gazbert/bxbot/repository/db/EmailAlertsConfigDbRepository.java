@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import com.gazbert.bxbot.domain.emailalerts.EmailAlertsConfig;
+import com.gazbert.bxbot.domain.emailalerts.SmtpConfig;
+import com.gazbert.bxbot.repository.EmailAlertsConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ConfigType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * An Email Alerts config repo that uses the embedded config database.
+ *
+ * @author gazbert
+ */
+@Repository("emailAlertsConfigDbRepository")
+@Profile(ConfigDatabase.PROFILE)
+public class EmailAlertsConfigDbRepository implements EmailAlertsConfigRepository {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  // There is only ever one Email Alerts config row.
+  private static final int EMAIL_ALERTS_CONFIG_ID = 1;
+
+  private final ConfigDatabase configDatabase;
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public EmailAlertsConfigDbRepository(ConfigDatabase configDatabase) {
+    this.configDatabase = configDatabase;
+    this.jdbcTemplate = configDatabase.getJdbcTemplate();
+  }
+
+  @Override
+  public EmailAlertsConfig get() {
+    LOG.info(() -> "Fetching EmailAlertsConfig...");
+    final List<EmailAlertsConfig> emailAlertsConfigs =
+        jdbcTemplate.query(
+            "SELECT ENABLED, HAS_SMTP_CONFIG, SMTP_HOST, SMTP_TLS_PORT, ACCOUNT_USERNAME, "
+                + "ACCOUNT_PASSWORD, FROM_ADDRESS, TO_ADDRESS FROM EMAIL_ALERTS_CONFIG "
+                + "WHERE ID = ?",
+            EmailAlertsConfigDbRepository::toEmailAlertsConfig,
+            EMAIL_ALERTS_CONFIG_ID);
+    return emailAlertsConfigs.isEmpty() ? null : emailAlertsConfigs.get(0);
+  }
+
+  @Override
+  public EmailAlertsConfig save(EmailAlertsConfig config) {
+    LOG.info(() -> "About to save EmailAlertsConfig: " + config);
+
+    final SmtpConfig smtpConfig = config.getSmtpConfig();
+    return configDatabase.inTransaction(
+        () -> {
+          jdbcTemplate.update("DELETE FROM EMAIL_ALERTS_CONFIG");
+          jdbcTemplate.update(
+              "INSERT INTO EMAIL_ALERTS_CONFIG (ID, ENABLED, HAS_SMTP_CONFIG, SMTP_HOST, "
+                  + "SMTP_TLS_PORT, ACCOUNT_USERNAME, ACCOUNT_PASSWORD, FROM_ADDRESS, TO_ADDRESS) "
+                  + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+              EMAIL_ALERTS_CONFIG_ID,
+              config.isEnabled(),
+              smtpConfig != null,
+              smtpConfig == null ? null : smtpConfig.getHost(),
+              smtpConfig == null ? null : smtpConfig.getTlsPort(),
+              smtpConfig == null ? null : smtpConfig.getAccountUsername(),
+              smtpConfig == null ? null : smtpConfig.getAccountPassword(),
+              smtpConfig == null ? null : smtpConfig.getFromAddress(),
+              smtpConfig == null ? null : smtpConfig.getToAddress());
+          configDatabase.publishChange(
+              new ConfigChangedEvent(ConfigType.EMAIL_ALERTS, null, ChangeType.SAVED));
+          return get();
+        });
+  }
+
+  private static EmailAlertsConfig toEmailAlertsConfig(ResultSet row, int rowNum)
+      throws SQLException {
+    SmtpConfig smtpConfig = null;
+    if (row.getBoolean("HAS_SMTP_CONFIG")) {
+      smtpConfig =
+          new SmtpConfig(
+              row.getString("SMTP_HOST"),
+              row.getInt("SMTP_TLS_PORT"),
+              row.getString("ACCOUNT_USERNAME"),
+              row.getString("ACCOUNT_PASSWORD"),
+              row.getString("FROM_ADDRESS"),
+              row.getString("TO_ADDRESS"));
+    }
+    return new EmailAlertsConfig(row.getBoolean("ENABLED"), smtpConfig);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import com.gazbert.bxbot.domain.engine.EngineConfig;
+import com.gazbert.bxbot.repository.EngineConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ConfigType;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * An Engine config repo that uses the embedded config database.
+ *
+ * @author gazbert
+ */
+@Repository("engineConfigDbRepository")
+@Profile(ConfigDatabase.PROFILE)
+public class EngineConfigDbRepository implements EngineConfigRepository {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  // There is only ever one Engine config row.
+  private static final int ENGINE_CONFIG_ID = 1;
+
+  private final ConfigDatabase configDatabase;
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public EngineConfigDbRepository(ConfigDatabase configDatabase) {
+    this.configDatabase = configDatabase;
+    this.jdbcTemplate = configDatabase.getJdbcTemplate();
+  }
+
+  @Override
+  public EngineConfig get() {
+    LOG.info(() -> "Fetching EngineConfig...");
+    final List<EngineConfig> engineConfigs =
+        jdbcTemplate.query(
+            "SELECT BOT_ID, BOT_NAME, EMERGENCY_STOP_CURRENCY, EMERGENCY_STOP_BALANCE, "
+                + "TRADE_CYCLE_INTERVAL FROM ENGINE_CONFIG WHERE ID = ?",
+            (row, rowNum) ->
+                new EngineConfig(
+                    row.getString("BOT_ID"),
+                    row.getString("BOT_NAME"),
+                    row.getString("EMERGENCY_STOP_CURRENCY"),
+                    row.getBigDecimal("EMERGENCY_STOP_BALANCE"),
+                    row.getInt("TRADE_CYCLE_INTERVAL")),
+            ENGINE_CONFIG_ID);
+    return engineConfigs.isEmpty() ? null : engineConfigs.get(0);
+  }
+
+  @Override
+  public EngineConfig save(EngineConfig config) {
+    LOG.info(() -> "About to save EngineConfig: " + config);
+
+    return configDatabase.inTransaction(
+        () -> {
+          jdbcTemplate.update("DELETE FROM ENGINE_CONFIG");
+          jdbcTemplate.update(
+              "INSERT INTO ENGINE_CONFIG (ID, BOT_ID, BOT_NAME, EMERGENCY_STOP_CURRENCY, "
+                  + "EMERGENCY_STOP_BALANCE, TRADE_CYCLE_INTERVAL) VALUES (?, ?, ?, ?, ?, ?)",
+              ENGINE_CONFIG_ID,
+              config.getBotId(),
+              config.getBotName(),
+              config.getEmergencyStopCurrency(),
+              config.getEmergencyStopBalance(),
+              config.getTradeCycleInterval());
+          configDatabase.publishChange(
+              new ConfigChangedEvent(ConfigType.ENGINE, null, ChangeType.SAVED));
+          return get();
+        });
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
+import com.gazbert.bxbot.domain.exchange.NetworkConfig;
+import com.gazbert.bxbot.repository.ExchangeConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ConfigType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * An Exchange config repo that uses the embedded config database.
+ *
+ * <p>The authentication config, other config, and network error codes and messages are stored as
+ * rows in the EXCHANGE_CONFIG_ITEM table, keyed by section and position.
+ *
+ * @author gazbert
+ */
+@Repository("exchangeConfigDbRepository")
+@Profile(ConfigDatabase.PROFILE)
+public class ExchangeConfigDbRepository implements ExchangeConfigRepository {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  // There is only ever one Exchange config row.
+  private static final int EXCHANGE_CONFIG_ID = 1;
+
+  private static final String AUTHENTICATION_SECTION = "AUTHENTICATION";
+  private static final String OTHER_SECTION = "OTHER";
+  private static final String NON_FATAL_ERROR_CODE_SECTION = "NON_FATAL_ERROR_CODE";
+  private static final String NON_FATAL_ERROR_MESSAGE_SECTION = "NON_FATAL_ERROR_MESSAGE";
+
+  private static final String INSERT_ITEM =
+      "INSERT INTO EXCHANGE_CONFIG_ITEM (SECTION, POSITION, ITEM_KEY, ITEM_VALUE) "
+          + "VALUES (?, ?, ?, ?)";
+
+  private final ConfigDatabase configDatabase;
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public ExchangeConfigDbRepository(ConfigDatabase configDatabase) {
+    this.configDatabase = configDatabase;
+    this.jdbcTemplate = configDatabase.getJdbcTemplate();
+  }
+
+  @Override
+  public ExchangeConfig get() {
+    LOG.info(() -> "Fetching ExchangeConfig...");
+
+    return configDatabase.inTransaction(
+        () -> {
+          final List<ExchangeConfig> exchangeConfigs =
+              jdbcTemplate.query(
+                  "SELECT NAME, ADAPTER, HAS_NETWORK_CONFIG, CONNECTION_TIMEOUT "
+                      + "FROM EXCHANGE_CONFIG WHERE ID = ?",
+                  (row, rowNum) -> {
+                    final ExchangeConfig exchangeConfig = new ExchangeConfig();
+                    exchangeConfig.setName(row.getString("NAME"));
+                    exchangeConfig.setAdapter(row.getString("ADAPTER"));
+                    if (row.getBoolean("HAS_NETWORK_CONFIG")) {
+                      final NetworkConfig networkConfig = new NetworkConfig();
+                      networkConfig.setConnectionTimeout(
+                          row.getObject("CONNECTION_TIMEOUT", Integer.class));
+                      exchangeConfig.setNetworkConfig(networkConfig);
+                    }
+                    return exchangeConfig;
+                  },
+                  EXCHANGE_CONFIG_ID);
+          if (exchangeConfigs.isEmpty()) {
+            return null;
+          }
+
+          final ExchangeConfig exchangeConfig = exchangeConfigs.get(0);
+          final Map<String, Map<String, String>> sections = new LinkedHashMap<>();
+          jdbcTemplate.query(
+              "SELECT SECTION, ITEM_KEY, ITEM_VALUE FROM EXCHANGE_CONFIG_ITEM "
+                  + "ORDER BY SECTION, POSITION",
+              row -> {
+                sections
+                    .computeIfAbsent(row.getString("SECTION"), section -> new LinkedHashMap<>())
+                    .put(row.getString("ITEM_KEY"), row.getString("ITEM_VALUE"));
+              });
+
+          exchangeConfig.setAuthenticationConfig(sections.get(AUTHENTICATION_SECTION));
+          exchangeConfig.setOtherConfig(sections.get(OTHER_SECTION));
+
+          final NetworkConfig networkConfig = exchangeConfig.getNetworkConfig();
+          if (networkConfig != null) {
+            final List<Integer> errorCodes = new ArrayList<>();
+            sections
+                .getOrDefault(NON_FATAL_ERROR_CODE_SECTION, new LinkedHashMap<>())
+                .values()
+                .forEach(errorCode -> errorCodes.add(Integer.valueOf(errorCode)));
+            networkConfig.setNonFatalErrorCodes(errorCodes);
+            networkConfig.setNonFatalErrorMessages(
+                new ArrayList<>(
+                    sections
+                        .getOrDefault(NON_FATAL_ERROR_MESSAGE_SECTION, new LinkedHashMap<>())
+                        .values()));
+          }
+          return exchangeConfig;
+        });
+  }
+
+  @Override
+  public ExchangeConfig save(ExchangeConfig config) {
+    LOG.info(() -> "About to save ExchangeConfig: " + config);
+
+    final NetworkConfig networkConfig = config.getNetworkConfig();
+    return configDatabase.inTransaction(
+        () -> {
+          jdbcTemplate.update("DELETE FROM EXCHANGE_CONFIG");
+          jdbcTemplate.update("DELETE FROM EXCHANGE_CONFIG_ITEM");
+          jdbcTemplate.update(
+              "INSERT INTO EXCHANGE_CONFIG (ID, NAME, ADAPTER, HAS_NETWORK_CONFIG, "
+                  + "CONNECTION_TIMEOUT) VALUES (?, ?, ?, ?, ?)",
+              EXCHANGE_CONFIG_ID,
+              config.getName(),
+              config.getAdapter(),
+              networkConfig != null,
+              networkConfig == null ? null : networkConfig.getConnectionTimeout());
+
+          final List<Object[]> items = new ArrayList<>();
+          addItems(items, AUTHENTICATION_SECTION, config.getAuthenticationConfig());
+          addItems(items, OTHER_SECTION, config.getOtherConfig());
+          if (networkConfig != null) {
+            addItems(items, NON_FATAL_ERROR_CODE_SECTION, networkConfig.getNonFatalErrorCodes());
+            addItems(
+                items, NON_FATAL_ERROR_MESSAGE_SECTION, networkConfig.getNonFatalErrorMessages());
+          }
+          if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ITEM, items);
+          }
+
+          configDatabase.publishChange(
+              new ConfigChangedEvent(ConfigType.EXCHANGE, null, ChangeType.SAVED));
+          return get();
+        });
+  }
+
+  private static void addItems(List<Object[]> items, String section, Map<String, String> values) {
+    if (values != null) {
+      int position = 0;
+      for (final Map.Entry<String, String> value : values.entrySet()) {
+        items.add(new Object[] {section, position++, value.getKey(), value.getValue()});
+      }
+    }
+  }
+
+  private static void addItems(List<Object[]> items, String section, List<?> values) {
+    if (values != null) {
+      int position = 0;
+      for (final Object value : values) {
+        // List items are keyed by position so they can be read back in order.
+        items.add(
+            new Object[] {section, position, String.valueOf(position), String.valueOf(value)});
+        position++;
+      }
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.repository.MarketConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ConfigType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A Market config repo that uses the embedded config database.
+ *
+ * <p>Markets are looked up by their primary key, so finding one market does not depend on how
+ * many markets are configured. A market's Trading Strategy ids are stored in the MARKET_STRATEGY
+ * join table, in the order they are configured, and are written in the same transaction as the
+ * market.
+ *
+ * <p>Markets read back always have their tradingStrategyIds set. For compatibility, a market that
+ * runs a single strategy also has its tradingStrategyId set.
+ *
+ * @author gazbert
+ */
+@Repository("marketConfigDbRepository")
+@Profile(ConfigDatabase.PROFILE)
+public class MarketConfigDbRepository implements MarketConfigRepository {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String SELECT_MARKETS =
+      "SELECT ID, NAME, BASE_CURRENCY, COUNTER_CURRENCY, ENABLED FROM MARKET_CONFIG";
+  private static final String SELECT_MARKET_STRATEGIES =
+      "SELECT MARKET_ID, STRATEGY_ID FROM MARKET_STRATEGY";
+  private static final String INSERT_MARKET =
+      "INSERT INTO MARKET_CONFIG (ID, NAME, BASE_CURRENCY, COUNTER_CURRENCY, ENABLED) "
+          + "VALUES (?, ?, ?, ?, ?)";
+  private static final String UPDATE_MARKET =
+      "UPDATE MARKET_CONFIG SET NAME = ?, BASE_CURRENCY = ?, COUNTER_CURRENCY = ?, ENABLED = ? "
+          + "WHERE ID = ?";
+  private static final String INSERT_MARKET_STRATEGY =
+      "INSERT INTO MARKET_STRATEGY (MARKET_ID, POSITION, STRATEGY_ID) VALUES (?, ?, ?)";
+
+  private final ConfigDatabase configDatabase;
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public MarketConfigDbRepository(ConfigDatabase configDatabase) {
+    this.configDatabase = configDatabase;
+    this.jdbcTemplate = configDatabase.getJdbcTemplate();
+  }
+
+  @Override
+  public List<MarketConfig> findAll() {
+    LOG.info(() -> "Fetching all Market configs...");
+
+    return configDatabase.inTransaction(
+        () -> {
+          final List<MarketConfig> markets =
+              jdbcTemplate.query(
+                  SELECT_MARKETS + " ORDER BY SEQ", MarketConfigDbRepository::toMarket);
+
+          // Fetch every market's strategy ids in one query rather than one query per market.
+          final Map<String, List<String>> strategyIdsByMarket = new HashMap<>();
+          jdbcTemplate.query(
+              SELECT_MARKET_STRATEGIES + " ORDER BY MARKET_ID, POSITION",
+              row -> {
+                strategyIdsByMarket
+                    .computeIfAbsent(row.getString("MARKET_ID"), id -> new ArrayList<>())
+                    .add(row.getString("STRATEGY_ID"));
+              });
+          for (final MarketConfig market : markets) {
+            setStrategyIds(
+                market, strategyIdsByMarket.getOrDefault(market.getId(), new ArrayList<>()));
+          }
+          return markets;
+        });
+  }
+
+  @Override
+  public MarketConfig findById(String id) {
+    LOG.info(() -> "Fetching Market config for id: " + id);
+
+    return configDatabase.inTransaction(
+        () -> {
+          final List<MarketConfig> markets =
+              jdbcTemplate.query(
+                  SELECT_MARKETS + " WHERE ID = ?", MarketConfigDbRepository::toMarket, id);
+          if (markets.isEmpty()) {
+            return null;
+          }
+
+          final MarketConfig market = markets.get(0);
+          setStrategyIds(
+              market,
+              jdbcTemplate.queryForList(
+                  "SELECT STRATEGY_ID FROM MARKET_STRATEGY WHERE MARKET_ID = ? ORDER BY POSITION",
+                  String.class,
+                  id));
+          return market;
+        });
+  }
+
+  @Override
+  public MarketConfig save(MarketConfig config) {
+    return configDatabase.inTransaction(
+        () -> {
+          if (config.getId() == null || config.getId().isEmpty()) {
+            LOG.info(() -> "About to create MarketConfig: " + config);
+
+            final MarketConfig newMarketConfig = new MarketConfig(config);
+            newMarketConfig.setId(UUID.randomUUID().toString());
+            insert(newMarketConfig);
+            return findById(newMarketConfig.getId());
+
+          } else {
+            LOG.info(() -> "About to update MarketConfig: " + config);
+
+            final int updatedRows =
+                jdbcTemplate.update(
+                    UPDATE_MARKET,
+                    config.getName(),
+                    config.getBaseCurrency(),
+                    config.getCounterCurrency(),
+                    config.isEnabled(),
+                    config.getId());
+            if (updatedRows == 0) {
+              LOG.warn(
+                  () -> "Trying to update MarketConfig but id does not exist MarketConfig: "
+                      + config);
+              return null;
+            }
+            jdbcTemplate.update(
+                "DELETE FROM MARKET_STRATEGY WHERE MARKET_ID = ?", config.getId());
+            insertStrategyIds(config);
+            configDatabase.publishChange(
+                new ConfigChangedEvent(ConfigType.MARKET, config.getId(), ChangeType.SAVED));
+            return findById(config.getId());
+          }
+        });
+  }
+
+  @Override
+  public MarketConfig delete(String id) {
+    LOG.info(() -> "Deleting Market config for id: " + id);
+
+    return configDatabase.inTransaction(
+        () -> {
+          final MarketConfig marketToRemove = findById(id);
+          if (marketToRemove == null) {
+            LOG.warn(
+                () -> "Trying to delete MarketConfig but id does not exist. MarketConfig id: "
+                    + id);
+            return null;
+          }
+          // The market's strategy ids are removed by the ON DELETE CASCADE foreign key.
+          jdbcTemplate.update("DELETE FROM MARKET_CONFIG WHERE ID = ?", id);
+          configDatabase.publishChange(
+              new ConfigChangedEvent(ConfigType.MARKET, id, ChangeType.DELETED));
+          return marketToRemove;
+        });
+  }
+
+  /** Inserts a market with the id it already has. Used by the YAML importer. */
+  void insert(MarketConfig config) {
+    jdbcTemplate.update(
+        INSERT_MARKET,
+        config.getId(),
+        config.getName(),
+        config.getBaseCurrency(),
+        config.getCounterCurrency(),
+        config.isEnabled());
+    insertStrategyIds(config);
+    configDatabase.publishChange(
+        new ConfigChangedEvent(ConfigType.MARKET, config.getId(), ChangeType.SAVED));
+  }
+
+  /*
+   * Writes the market's tradingStrategyIds, or its comma separated tradingStrategyId if the list
+   * is not set.
+   */
+  private void insertStrategyIds(MarketConfig config) {
+    final List<String> strategyIds = new ArrayList<>();
+    if (config.getTradingStrategyIds() != null && !config.getTradingStrategyIds().isEmpty()) {
+      strategyIds.addAll(config.getTradingStrategyIds());
+    } else if (config.getTradingStrategyId() != null) {
+      strategyIds.addAll(Arrays.asList(config.getTradingStrategyId().split(",")));
+    }
+
+    int position = 0;
+    for (final String strategyId : strategyIds) {
+      if (strategyId != null && !strategyId.trim().isEmpty()) {
+        jdbcTemplate.update(INSERT_MARKET_STRATEGY, config.getId(), position++, strategyId.trim());
+      }
+    }
+  }
+
+  private static void setStrategyIds(MarketConfig market, List<String> strategyIds) {
+    market.setTradingStrategyIds(strategyIds);
+    market.setTradingStrategyId(strategyIds.size() == 1 ? strategyIds.get(0) : null);
+  }
+
+  private static MarketConfig toMarket(ResultSet row, int rowNum) throws SQLException {
+    return new MarketConfig(
+        row.getString("ID"),
+        row.getString("NAME"),
+        row.getString("BASE_CURRENCY"),
+        row.getString("COUNTER_CURRENCY"),
+        row.getBoolean("ENABLED"),
+        null);
+  }
+}
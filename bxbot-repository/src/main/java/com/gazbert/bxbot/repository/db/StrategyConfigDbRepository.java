@@ -0,0 +1,239 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import com.gazbert.bxbot.repository.StrategyConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ConfigType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A Strategy config repo that uses the embedded config database.
+ *
+ * <p>A strategy and its config items are always written in the same transaction. Deleting a
+ * strategy also removes it from the markets that run it, in the same transaction.
+ *
+ * @author gazbert
+ */
+@Repository("strategyConfigDbRepository")
+@Profile(ConfigDatabase.PROFILE)
+public class StrategyConfigDbRepository implements StrategyConfigRepository {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String SELECT_STRATEGIES =
+      "SELECT ID, NAME, DESCRIPTION, CLASS_NAME, BEAN_NAME FROM STRATEGY_CONFIG";
+  private static final String SELECT_ITEMS =
+      "SELECT STRATEGY_ID, ITEM_KEY, ITEM_VALUE FROM STRATEGY_CONFIG_ITEM";
+  private static final String INSERT_STRATEGY =
+      "INSERT INTO STRATEGY_CONFIG (ID, NAME, DESCRIPTION, CLASS_NAME, BEAN_NAME) "
+          + "VALUES (?, ?, ?, ?, ?)";
+  private static final String UPDATE_STRATEGY =
+      "UPDATE STRATEGY_CONFIG SET NAME = ?, DESCRIPTION = ?, CLASS_NAME = ?, BEAN_NAME = ? "
+          + "WHERE ID = ?";
+  private static final String INSERT_ITEM =
+      "INSERT INTO STRATEGY_CONFIG_ITEM (STRATEGY_ID, ITEM_KEY, ITEM_VALUE) VALUES (?, ?, ?)";
+
+  private final ConfigDatabase configDatabase;
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public StrategyConfigDbRepository(ConfigDatabase configDatabase) {
+    this.configDatabase = configDatabase;
+    this.jdbcTemplate = configDatabase.getJdbcTemplate();
+  }
+
+  @Override
+  public List<StrategyConfig> findAll() {
+    LOG.info(() -> "Fetching all Strategy configs...");
+
+    return configDatabase.inTransaction(
+        () -> {
+          final List<StrategyConfig> strategies =
+              jdbcTemplate.query(
+                  SELECT_STRATEGIES + " ORDER BY SEQ", StrategyConfigDbRepository::toStrategy);
+
+          // Fetch every strategy's items in one query rather than one query per strategy.
+          final Map<String, Map<String, String>> itemsByStrategy = new HashMap<>();
+          jdbcTemplate.query(
+              SELECT_ITEMS,
+              row -> {
+                itemsByStrategy
+                    .computeIfAbsent(row.getString("STRATEGY_ID"), id -> new HashMap<>())
+                    .put(row.getString("ITEM_KEY"), row.getString("ITEM_VALUE"));
+              });
+          for (final StrategyConfig strategy : strategies) {
+            strategy.setConfigItems(
+                itemsByStrategy.getOrDefault(strategy.getId(), new HashMap<>()));
+          }
+          return strategies;
+        });
+  }
+
+  @Override
+  public StrategyConfig findById(String id) {
+    LOG.info(() -> "Fetching config for Strategy id: " + id);
+
+    return configDatabase.inTransaction(
+        () -> {
+          final List<StrategyConfig> strategies =
+              jdbcTemplate.query(
+                  SELECT_STRATEGIES + " WHERE ID = ?", StrategyConfigDbRepository::toStrategy, id);
+          if (strategies.isEmpty()) {
+            return null;
+          }
+
+          final StrategyConfig strategy = strategies.get(0);
+          jdbcTemplate.query(
+              SELECT_ITEMS + " WHERE STRATEGY_ID = ?",
+              row -> {
+                strategy
+                    .getConfigItems()
+                    .put(row.getString("ITEM_KEY"), row.getString("ITEM_VALUE"));
+              },
+              id);
+          return strategy;
+        });
+  }
+
+  @Override
+  public StrategyConfig save(StrategyConfig config) {
+    return configDatabase.inTransaction(
+        () -> {
+          if (config.getId() == null || config.getId().isEmpty()) {
+            LOG.info(() -> "About to create StrategyConfig: " + config);
+
+            final StrategyConfig newStrategyConfig = new StrategyConfig(config);
+            newStrategyConfig.setId(UUID.randomUUID().toString());
+            insert(newStrategyConfig);
+            return findById(newStrategyConfig.getId());
+
+          } else {
+            LOG.info(() -> "About to update StrategyConfig: " + config);
+
+            final int updatedRows =
+                jdbcTemplate.update(
+                    UPDATE_STRATEGY,
+                    config.getName(),
+                    config.getDescription(),
+                    config.getClassName(),
+                    config.getBeanName(),
+                    config.getId());
+            if (updatedRows == 0) {
+              LOG.warn(
+                  () -> "Trying to update StrategyConfig but id does not exist StrategyConfig: "
+                      + config);
+              return null;
+            }
+            jdbcTemplate.update(
+                "DELETE FROM STRATEGY_CONFIG_ITEM WHERE STRATEGY_ID = ?", config.getId());
+            insertItems(config);
+            configDatabase.publishChange(
+                new ConfigChangedEvent(ConfigType.STRATEGY, config.getId(), ChangeType.SAVED));
+            return findById(config.getId());
+          }
+        });
+  }
+
+  @Override
+  public StrategyConfig delete(String id) {
+    LOG.info(() -> "Deleting Strategy config for id: " + id);
+
+    return configDatabase.inTransaction(
+        () -> {
+          final StrategyConfig strategyToRemove = findById(id);
+          if (strategyToRemove == null) {
+            LOG.warn(
+                () -> "Trying to delete StrategyConfig but id does not exist. StrategyConfig id: "
+                    + id);
+            return null;
+          }
+          // The strategy's items are removed by the ON DELETE CASCADE foreign key.
+          jdbcTemplate.update("DELETE FROM STRATEGY_CONFIG WHERE ID = ?", id);
+          configDatabase.publishChange(
+              new ConfigChangedEvent(ConfigType.STRATEGY, id, ChangeType.DELETED));
+
+          // Markets that ran the strategy no longer do. They are found by the strategy id index.
+          final List<String> marketIds =
+              jdbcTemplate.queryForList(
+                  "SELECT DISTINCT MARKET_ID FROM MARKET_STRATEGY WHERE STRATEGY_ID = ?",
+                  String.class,
+                  id);
+          jdbcTemplate.update("DELETE FROM MARKET_STRATEGY WHERE STRATEGY_ID = ?", id);
+          for (final String marketId : marketIds) {
+            configDatabase.publishChange(
+                new ConfigChangedEvent(ConfigType.MARKET, marketId, ChangeType.SAVED));
+          }
+          return strategyToRemove;
+        });
+  }
+
+  /** Inserts a strategy with the id it already has. Used by the YAML importer. */
+  void insert(StrategyConfig config) {
+    jdbcTemplate.update(
+        INSERT_STRATEGY,
+        config.getId(),
+        config.getName(),
+        config.getDescription(),
+        config.getClassName(),
+        config.getBeanName());
+    insertItems(config);
+    configDatabase.publishChange(
+        new ConfigChangedEvent(ConfigType.STRATEGY, config.getId(), ChangeType.SAVED));
+  }
+
+  private void insertItems(StrategyConfig config) {
+    if (config.getConfigItems() == null || config.getConfigItems().isEmpty()) {
+      return;
+    }
+    final List<Object[]> items =
+        config.getConfigItems().entrySet().stream()
+            .map(item -> new Object[] {config.getId(), item.getKey(), item.getValue()})
+            .collect(Collectors.toList());
+    jdbcTemplate.batchUpdate(INSERT_ITEM, items);
+  }
+
+  private static StrategyConfig toStrategy(ResultSet row, int rowNum) throws SQLException {
+    return new StrategyConfig(
+        row.getString("ID"),
+        row.getString("NAME"),
+        row.getString("DESCRIPTION"),
+        row.getString("CLASS_NAME"),
+        row.getString("BEAN_NAME"),
+        new HashMap<>());
+  }
+}
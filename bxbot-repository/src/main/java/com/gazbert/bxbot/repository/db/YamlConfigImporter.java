@@ -0,0 +1,157 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import static com.gazbert.bxbot.datastore.yaml.FileLocations.EMAIL_ALERTS_CONFIG_YAML_FILENAME;
+import static com.gazbert.bxbot.datastore.yaml.FileLocations.ENGINE_CONFIG_YAML_FILENAME;
+import static com.gazbert.bxbot.datastore.yaml.FileLocations.EXCHANGE_CONFIG_YAML_FILENAME;
+import static com.gazbert.bxbot.datastore.yaml.FileLocations.MARKETS_CONFIG_YAML_FILENAME;
+import static com.gazbert.bxbot.datastore.yaml.FileLocations.STRATEGIES_CONFIG_YAML_FILENAME;
+
+import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
+import com.gazbert.bxbot.datastore.yaml.emailalerts.EmailAlertsType;
+import com.gazbert.bxbot.datastore.yaml.engine.EngineType;
+import com.gazbert.bxbot.datastore.yaml.exchange.ExchangeType;
+import com.gazbert.bxbot.datastore.yaml.market.MarketsType;
+import com.gazbert.bxbot.datastore.yaml.strategy.StrategiesType;
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Imports the YAML config files into the config database the first time the bot is started with
+ * the {@value ConfigDatabase#PROFILE} profile.
+ *
+ * <p>The import only runs if the database is empty, and everything is imported in one
+ * transaction: if any file fails to load, nothing is imported. The YAML files are not changed.
+ *
+ * @author gazbert
+ */
+@Component
+@Profile(ConfigDatabase.PROFILE)
+public class YamlConfigImporter {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final ConfigDatabase configDatabase;
+  private final EngineConfigDbRepository engineConfigRepository;
+  private final ExchangeConfigDbRepository exchangeConfigRepository;
+  private final EmailAlertsConfigDbRepository emailAlertsConfigRepository;
+  private final MarketConfigDbRepository marketConfigRepository;
+  private final StrategyConfigDbRepository strategyConfigRepository;
+  private final boolean importYaml;
+
+  /** Creates the importer. */
+  @Autowired
+  public YamlConfigImporter(
+      ConfigDatabase configDatabase,
+      EngineConfigDbRepository engineConfigRepository,
+      ExchangeConfigDbRepository exchangeConfigRepository,
+      EmailAlertsConfigDbRepository emailAlertsConfigRepository,
+      MarketConfigDbRepository marketConfigRepository,
+      StrategyConfigDbRepository strategyConfigRepository,
+      @Value("${bxbot.configdb.importYaml:true}") boolean importYaml) {
+
+    this.configDatabase = configDatabase;
+    this.engineConfigRepository = engineConfigRepository;
+    this.exchangeConfigRepository = exchangeConfigRepository;
+    this.emailAlertsConfigRepository = emailAlertsConfigRepository;
+    this.marketConfigRepository = marketConfigRepository;
+    this.strategyConfigRepository = strategyConfigRepository;
+    this.importYaml = importYaml;
+  }
+
+  /** Imports the YAML config from the config directory if the database is empty. */
+  @PostConstruct
+  public void importIfEmpty() {
+    if (!importYaml) {
+      LOG.info(() -> "YAML config import is switched off.");
+    } else if (!configDatabase.isEmpty()) {
+      LOG.info(() -> "Config database already has config - skipping YAML config import.");
+    } else {
+      importYamlConfig(Paths.get(ENGINE_CONFIG_YAML_FILENAME).getParent());
+    }
+  }
+
+  /** Imports the YAML config files in the given directory. */
+  void importYamlConfig(Path configDirectory) {
+    LOG.info(() -> "Importing YAML config from " + configDirectory + " into config database...");
+
+    final EngineType engineType =
+        ConfigurationManager.loadConfig(
+            EngineType.class, yamlFile(configDirectory, ENGINE_CONFIG_YAML_FILENAME));
+    final ExchangeType exchangeType =
+        ConfigurationManager.loadConfig(
+            ExchangeType.class, yamlFile(configDirectory, EXCHANGE_CONFIG_YAML_FILENAME));
+    final EmailAlertsType emailAlertsType =
+        ConfigurationManager.loadConfig(
+            EmailAlertsType.class, yamlFile(configDirectory, EMAIL_ALERTS_CONFIG_YAML_FILENAME));
+    final MarketsType marketsType =
+        ConfigurationManager.loadConfig(
+            MarketsType.class, yamlFile(configDirectory, MARKETS_CONFIG_YAML_FILENAME));
+    final StrategiesType strategiesType =
+        ConfigurationManager.loadConfig(
+            StrategiesType.class, yamlFile(configDirectory, STRATEGIES_CONFIG_YAML_FILENAME));
+
+    configDatabase.inTransaction(
+        () -> {
+          engineConfigRepository.save(engineType.getEngine());
+          exchangeConfigRepository.save(exchangeType.getExchange());
+          emailAlertsConfigRepository.save(emailAlertsType.getEmailAlerts());
+
+          // Should only ever be 1 unique id - keep the first, as the YAML repositories do.
+          final Set<String> strategyIds = new HashSet<>();
+          for (final StrategyConfig strategyConfig : strategiesType.getStrategies()) {
+            if (strategyIds.add(strategyConfig.getId())) {
+              strategyConfigRepository.insert(strategyConfig);
+            }
+          }
+          final Set<String> marketIds = new HashSet<>();
+          for (final MarketConfig marketConfig : marketsType.getMarkets()) {
+            if (marketIds.add(marketConfig.getId())) {
+              marketConfigRepository.insert(marketConfig);
+            }
+          }
+          return null;
+        });
+
+    LOG.info(
+        () -> "Imported " + marketsType.getMarkets().size() + " markets and "
+            + strategiesType.getStrategies().size() + " strategies into config database.");
+  }
+
+  private static String yamlFile(Path configDirectory, String yamlConfigFile) {
+    return configDirectory.resolve(Paths.get(yamlConfigFile).getFileName()).toString();
+  }
+}
@@ -25,31 +25,43 @@ package com.gazbert.bxbot.repository.yaml;
 
 import static com.gazbert.bxbot.datastore.yaml.FileLocations.EMAIL_ALERTS_CONFIG_YAML_FILENAME;
 
-import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
+import com.gazbert.bxbot.datastore.yaml.YamlConfigCache;
 import com.gazbert.bxbot.datastore.yaml.emailalerts.EmailAlertsType;
 import com.gazbert.bxbot.domain.emailalerts.EmailAlertsConfig;
 import com.gazbert.bxbot.repository.EmailAlertsConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigDatabase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * An Email Alerts config repo that uses a YAML backed datastore.
  *
+ * <p>The config is held in memory and only re-read from the YAML file when the file changes. Copies
+ * are returned so callers cannot change the cached config.
+ *
  * @author gazbert
  */
 @Repository("emailAlertsConfigYamlRepository")
+@Profile("!" + ConfigDatabase.PROFILE)
 @Transactional
 public class EmailAlertsConfigYamlRepository implements EmailAlertsConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final YamlConfigCache<EmailAlertsType, EmailAlertsConfig> emailAlertsCache =
+      new YamlConfigCache<>(
+          EmailAlertsType.class,
+          EMAIL_ALERTS_CONFIG_YAML_FILENAME,
+          EmailAlertsType::getEmailAlerts);
+
   @Override
   public EmailAlertsConfig get() {
     LOG.info(() -> "Fetching EmailAlertsConfig...");
-    return ConfigurationManager.loadConfig(EmailAlertsType.class, EMAIL_ALERTS_CONFIG_YAML_FILENAME)
-        .getEmailAlerts();
+    final EmailAlertsConfig emailAlertsConfig = emailAlertsCache.get();
+    return emailAlertsConfig == null ? null : new EmailAlertsConfig(emailAlertsConfig);
   }
 
   @Override
@@ -57,11 +69,9 @@ public class EmailAlertsConfigYamlRepository implements EmailAlertsConfigReposit
     LOG.info(() -> "About to save EmailAlertsConfig: " + config);
 
     final EmailAlertsType emailAlertsType = new EmailAlertsType();
-    emailAlertsType.setEmailAlerts(config);
-    ConfigurationManager.saveConfig(
-        EmailAlertsType.class, emailAlertsType, EMAIL_ALERTS_CONFIG_YAML_FILENAME);
+    emailAlertsType.setEmailAlerts(new EmailAlertsConfig(config));
+    emailAlertsCache.save(emailAlertsType);
 
-    return ConfigurationManager.loadConfig(EmailAlertsType.class, EMAIL_ALERTS_CONFIG_YAML_FILENAME)
-        .getEmailAlerts();
+    return get();
   }
 }
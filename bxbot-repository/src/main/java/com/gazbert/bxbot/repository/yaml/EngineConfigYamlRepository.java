@@ -25,31 +25,41 @@ package com.gazbert.bxbot.repository.yaml;
 
 import static com.gazbert.bxbot.datastore.yaml.FileLocations.ENGINE_CONFIG_YAML_FILENAME;
 
-import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
+import com.gazbert.bxbot.datastore.yaml.YamlConfigCache;
 import com.gazbert.bxbot.datastore.yaml.engine.EngineType;
 import com.gazbert.bxbot.domain.engine.EngineConfig;
 import com.gazbert.bxbot.repository.EngineConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigDatabase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * An Engine config repo that uses a YAML backed datastore.
  *
+ * <p>The config is held in memory and only re-read from the YAML file when the file changes. Copies
+ * are returned so callers cannot change the cached config.
+ *
  * @author gazbert
  */
 @Repository("engineConfigYamlRepository")
+@Profile("!" + ConfigDatabase.PROFILE)
 @Transactional
 public class EngineConfigYamlRepository implements EngineConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final YamlConfigCache<EngineType, EngineConfig> engineCache =
+      new YamlConfigCache<>(
+          EngineType.class, ENGINE_CONFIG_YAML_FILENAME, EngineType::getEngine);
+
   @Override
   public EngineConfig get() {
     LOG.info(() -> "Fetching EngineConfig...");
-    return ConfigurationManager.loadConfig(EngineType.class, ENGINE_CONFIG_YAML_FILENAME)
-        .getEngine();
+    final EngineConfig engineConfig = engineCache.get();
+    return engineConfig == null ? null : new EngineConfig(engineConfig);
   }
 
   @Override
@@ -57,10 +67,9 @@ public class EngineConfigYamlRepository implements EngineConfigRepository {
     LOG.info(() -> "About to save EngineConfig: " + config);
 
     final EngineType engineType = new EngineType();
-    engineType.setEngine(config);
-    ConfigurationManager.saveConfig(EngineType.class, engineType, ENGINE_CONFIG_YAML_FILENAME);
+    engineType.setEngine(new EngineConfig(config));
+    engineCache.save(engineType);
 
-    return ConfigurationManager.loadConfig(EngineType.class, ENGINE_CONFIG_YAML_FILENAME)
-        .getEngine();
+    return get();
   }
 }
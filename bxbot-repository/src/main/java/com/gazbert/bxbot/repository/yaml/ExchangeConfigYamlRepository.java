@@ -25,31 +25,41 @@ package com.gazbert.bxbot.repository.yaml;
 
 import static com.gazbert.bxbot.datastore.yaml.FileLocations.EXCHANGE_CONFIG_YAML_FILENAME;
 
-import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
+import com.gazbert.bxbot.datastore.yaml.YamlConfigCache;
 import com.gazbert.bxbot.datastore.yaml.exchange.ExchangeType;
 import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
 import com.gazbert.bxbot.repository.ExchangeConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigDatabase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * An Exchange config repo that uses a YAML backed datastore.
  *
+ * <p>The config is held in memory and only re-read from the YAML file when the file changes. Copies
+ * are returned so callers cannot change the cached config.
+ *
  * @author gazbert
  */
 @Repository("exchangeConfigYamlRepository")
+@Profile("!" + ConfigDatabase.PROFILE)
 @Transactional
 public class ExchangeConfigYamlRepository implements ExchangeConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final YamlConfigCache<ExchangeType, ExchangeConfig> exchangeCache =
+      new YamlConfigCache<>(
+          ExchangeType.class, EXCHANGE_CONFIG_YAML_FILENAME, ExchangeType::getExchange);
+
   @Override
   public ExchangeConfig get() {
     LOG.info(() -> "Fetching ExchangeConfig...");
-    return ConfigurationManager.loadConfig(ExchangeType.class, EXCHANGE_CONFIG_YAML_FILENAME)
-        .getExchange();
+    final ExchangeConfig exchangeConfig = exchangeCache.get();
+    return exchangeConfig == null ? null : new ExchangeConfig(exchangeConfig);
   }
 
   @Override
@@ -57,11 +67,9 @@ public class ExchangeConfigYamlRepository implements ExchangeConfigRepository {
     LOG.info(() -> "About to save ExchangeConfig: " + config);
 
     final ExchangeType exchangeType = new ExchangeType();
-    exchangeType.setExchange(config);
-    ConfigurationManager.saveConfig(
-        ExchangeType.class, exchangeType, EXCHANGE_CONFIG_YAML_FILENAME);
+    exchangeType.setExchange(new ExchangeConfig(config));
+    exchangeCache.save(exchangeType);
 
-    return ConfigurationManager.loadConfig(ExchangeType.class, EXCHANGE_CONFIG_YAML_FILENAME)
-        .getExchange();
+    return get();
   }
 }
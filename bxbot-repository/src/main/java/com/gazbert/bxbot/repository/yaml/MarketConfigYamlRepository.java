@@ -25,145 +25,120 @@ package com.gazbert.bxbot.repository.yaml;
 
 import static com.gazbert.bxbot.datastore.yaml.FileLocations.MARKETS_CONFIG_YAML_FILENAME;
 
-import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
+import com.gazbert.bxbot.datastore.yaml.YamlConfigCache;
 import com.gazbert.bxbot.datastore.yaml.market.MarketsType;
 import com.gazbert.bxbot.domain.market.MarketConfig;
 import com.gazbert.bxbot.repository.MarketConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigDatabase;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * A Market config repo that uses a YAML backed datastore.
  *
+ * <p>The markets are held in memory, indexed by id, and only re-read from the YAML file when the
+ * file changes. Copies are returned so callers cannot change the cached config.
+ *
  * @author gazbert
  */
 @Repository("marketConfigYamlRepository")
+@Profile("!" + ConfigDatabase.PROFILE)
 @Transactional
 public class MarketConfigYamlRepository implements MarketConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
   private static final String EXISTING_MARKET_CONFIG = " Existing MarketConfig: ";
 
+  private final YamlConfigCache<MarketsType, Map<String, MarketConfig>> marketsCache =
+      new YamlConfigCache<>(
+          MarketsType.class, MARKETS_CONFIG_YAML_FILENAME, MarketConfigYamlRepository::indexById);
+
   @Override
   public List<MarketConfig> findAll() {
     LOG.info(() -> "Fetching all Market configs...");
-    return ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME)
-        .getMarkets();
+    return marketsCache.get().values().stream().map(MarketConfig::new).collect(Collectors.toList());
   }
 
   @Override
   public MarketConfig findById(String id) {
     LOG.info(() -> "Fetching Market config for id: " + id);
-
-    final MarketsType marketsType =
-        ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
-
-    return adaptInternalToExternalConfig(
-        marketsType.getMarkets().stream()
-            .filter(item -> item.getId().equals(id))
-            .distinct()
-            .collect(Collectors.toList()));
+    return copyOf(marketsCache.get().get(id));
   }
 
   @Override
-  public MarketConfig save(MarketConfig config) {
-    final MarketsType marketsType =
-        ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
-
-    final List<MarketConfig> marketConfigs =
-        marketsType.getMarkets().stream()
-            .filter(item -> item.getId().equals(config.getId()))
-            .distinct()
-            .collect(Collectors.toList());
+  public synchronized MarketConfig save(MarketConfig config) {
+    final Map<String, MarketConfig> markets = marketsCache.get();
+    final MarketConfig existingMarketConfig = markets.get(config.getId());
 
     if (config.getId() == null || config.getId().isEmpty()) {
       LOG.info(() -> "About to create MarketConfig: " + config);
 
-      if (marketConfigs.isEmpty()) {
+      if (existingMarketConfig == null) {
         final MarketConfig newMarketConfig = new MarketConfig(config);
         newMarketConfig.setId(generateUuid());
 
-        marketsType.getMarkets().add(newMarketConfig);
-        ConfigurationManager.saveConfig(
-            MarketsType.class, marketsType, MARKETS_CONFIG_YAML_FILENAME);
-
-        final MarketsType updatedInternalMarketsConfig =
-            ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
-
-        return adaptInternalToExternalConfig(
-            updatedInternalMarketsConfig.getMarkets().stream()
-                .filter(item -> item.getId().equals(newMarketConfig.getId()))
-                .distinct()
-                .collect(Collectors.toList()));
+        final List<MarketConfig> updatedMarkets = new ArrayList<>(markets.values());
+        updatedMarkets.add(newMarketConfig);
+        saveMarkets(updatedMarkets);
+        return findById(newMarketConfig.getId());
       } else {
         throw new IllegalStateException(
             "Trying to create new MarketConfig but null/empty id already exists. "
                 + "MarketConfig: "
                 + config
                 + EXISTING_MARKET_CONFIG
-                + marketsType.getMarkets());
+                + markets.values());
       }
     } else {
       LOG.info(() -> "About to update MarketConfig: " + config);
 
-      if (!marketConfigs.isEmpty()) {
-
-        marketsType.getMarkets().remove(marketConfigs.get(0)); // will only be 1 unique strat
-        marketsType.getMarkets().add(config);
-        ConfigurationManager.saveConfig(
-            MarketsType.class, marketsType, MARKETS_CONFIG_YAML_FILENAME);
-
-        final MarketsType updatedMarketsType =
-            ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
-
-        return adaptInternalToExternalConfig(
-            updatedMarketsType.getMarkets().stream()
-                .filter(item -> item.getId().equals(config.getId()))
-                .distinct()
-                .collect(Collectors.toList()));
+      if (existingMarketConfig != null) {
+        final List<MarketConfig> updatedMarkets = new ArrayList<>(markets.values());
+        updatedMarkets.remove(existingMarketConfig);
+        updatedMarkets.add(new MarketConfig(config));
+        saveMarkets(updatedMarkets);
+        return findById(config.getId());
       } else {
         LOG.warn(
             () ->
                 "Trying to update MarketConfig but id does not exist MarketConfig: "
                     + config
                     + EXISTING_MARKET_CONFIG
-                    + marketsType.getMarkets());
+                    + markets.values());
         return null;
       }
     }
   }
 
   @Override
-  public MarketConfig delete(String id) {
+  public synchronized MarketConfig delete(String id) {
     LOG.info(() -> "Deleting Market config for id: " + id);
 
-    final MarketsType marketsType =
-        ConfigurationManager.loadConfig(MarketsType.class, MARKETS_CONFIG_YAML_FILENAME);
+    final Map<String, MarketConfig> markets = marketsCache.get();
+    final MarketConfig marketToRemove = markets.get(id);
 
-    final List<MarketConfig> marketConfigs =
-        marketsType.getMarkets().stream()
-            .filter(item -> item.getId().equals(id))
-            .distinct()
-            .collect(Collectors.toList());
-
-    if (!marketConfigs.isEmpty()) {
-      final MarketConfig marketToRemove = marketConfigs.get(0); // will only be 1 unique strat
-      marketsType.getMarkets().remove(marketToRemove);
-      ConfigurationManager.saveConfig(MarketsType.class, marketsType, MARKETS_CONFIG_YAML_FILENAME);
-      return adaptInternalToExternalConfig(Collections.singletonList(marketToRemove));
+    if (marketToRemove != null) {
+      final List<MarketConfig> updatedMarkets = new ArrayList<>(markets.values());
+      updatedMarkets.remove(marketToRemove);
+      saveMarkets(updatedMarkets);
+      return copyOf(marketToRemove);
     } else {
       LOG.warn(
           () ->
               "Trying to delete MarketConfig but id does not exist. MarketConfig id: "
                   + id
                   + EXISTING_MARKET_CONFIG
-                  + marketsType.getMarkets());
+                  + markets.values());
       return null;
     }
   }
@@ -172,19 +147,29 @@ public class MarketConfigYamlRepository implements MarketConfigRepository {
   // Adapter methods
   // --------------------------------------------------------------------------
 
-  private static MarketConfig adaptInternalToExternalConfig(
-      List<MarketConfig> internalMarketConfigItems) {
-    if (!internalMarketConfigItems.isEmpty()) {
-      // Should only ever be 1 unique Market id
-      return internalMarketConfigItems.get(0);
+  private static Map<String, MarketConfig> indexById(MarketsType marketsType) {
+    final Map<String, MarketConfig> marketsById = new LinkedHashMap<>();
+    for (final MarketConfig marketConfig : marketsType.getMarkets()) {
+      // Should only ever be 1 unique Market id - keep the first, as before
+      marketsById.putIfAbsent(marketConfig.getId(), marketConfig);
     }
-    return null;
+    return Collections.unmodifiableMap(marketsById);
+  }
+
+  private static MarketConfig copyOf(MarketConfig marketConfig) {
+    return marketConfig == null ? null : new MarketConfig(marketConfig);
   }
 
   // --------------------------------------------------------------------------
   // Util methods
   // --------------------------------------------------------------------------
 
+  private void saveMarkets(List<MarketConfig> markets) {
+    final MarketsType marketsType = new MarketsType();
+    marketsType.setMarkets(markets);
+    marketsCache.save(marketsType);
+  }
+
   private String generateUuid() {
     return UUID.randomUUID().toString();
   }
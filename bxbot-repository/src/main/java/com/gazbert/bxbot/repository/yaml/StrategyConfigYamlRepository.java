@@ -25,146 +25,124 @@ package com.gazbert.bxbot.repository.yaml;
 
 import static com.gazbert.bxbot.datastore.yaml.FileLocations.STRATEGIES_CONFIG_YAML_FILENAME;
 
-import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
+import com.gazbert.bxbot.datastore.yaml.YamlConfigCache;
 import com.gazbert.bxbot.datastore.yaml.strategy.StrategiesType;
 import com.gazbert.bxbot.domain.strategy.StrategyConfig;
 import com.gazbert.bxbot.repository.StrategyConfigRepository;
+import com.gazbert.bxbot.repository.db.ConfigDatabase;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
  * A Strategy config repo that uses a YAML backed datastore.
  *
+ * <p>The strategies are held in memory, indexed by id, and only re-read from the YAML file when
+ * the file changes. Copies are returned so callers cannot change the cached config.
+ *
  * @author gazbert
  */
 @Repository("strategyConfigYamlRepository")
+@Profile("!" + ConfigDatabase.PROFILE)
 @Transactional
 public class StrategyConfigYamlRepository implements StrategyConfigRepository {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private final YamlConfigCache<StrategiesType, Map<String, StrategyConfig>> strategiesCache =
+      new YamlConfigCache<>(
+          StrategiesType.class,
+          STRATEGIES_CONFIG_YAML_FILENAME,
+          StrategyConfigYamlRepository::indexById);
+
   @Override
   public List<StrategyConfig> findAll() {
     LOG.info(() -> "Fetching all Strategy configs...");
-    return ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME)
-        .getStrategies();
+    return strategiesCache.get().values().stream()
+        .map(StrategyConfigYamlRepository::copyOf)
+        .collect(Collectors.toList());
   }
 
   @Override
   public StrategyConfig findById(String id) {
     LOG.info(() -> "Fetching config for Strategy id: " + id);
-
-    final StrategiesType strategiesType =
-        ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
-
-    return adaptInternalToExternalConfig(
-        strategiesType.getStrategies().stream()
-            .filter(item -> item.getId().equals(id))
-            .distinct()
-            .collect(Collectors.toList()));
+    return copyOf(strategiesCache.get().get(id));
   }
 
   @Override
-  public StrategyConfig save(StrategyConfig config) {
-    final StrategiesType strategiesType =
-        ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
-
-    final List<StrategyConfig> strategyConfigs =
-        strategiesType.getStrategies().stream()
-            .filter(item -> item.getId().equals(config.getId()))
-            .distinct()
-            .collect(Collectors.toList());
+  public synchronized StrategyConfig save(StrategyConfig config) {
+    final Map<String, StrategyConfig> strategies = strategiesCache.get();
+    final StrategyConfig existingStrategyConfig = strategies.get(config.getId());
 
     if (config.getId() == null || config.getId().isEmpty()) {
       LOG.info(() -> "About to create StrategyConfig: " + config);
-      if (strategyConfigs.isEmpty()) {
+      if (existingStrategyConfig == null) {
 
-        final StrategyConfig newStrategyConfig = new StrategyConfig(config);
+        final StrategyConfig newStrategyConfig = copyOf(config);
         newStrategyConfig.setId(generateUuid());
 
-        strategiesType.getStrategies().add(newStrategyConfig);
-        ConfigurationManager.saveConfig(
-            StrategiesType.class, strategiesType, STRATEGIES_CONFIG_YAML_FILENAME);
-
-        final StrategiesType updatedInternalStrategiesConfig =
-            ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
-
-        return adaptInternalToExternalConfig(
-            updatedInternalStrategiesConfig.getStrategies().stream()
-                .filter(item -> item.getId().equals(newStrategyConfig.getId()))
-                .distinct()
-                .collect(Collectors.toList()));
+        final List<StrategyConfig> updatedStrategies = new ArrayList<>(strategies.values());
+        updatedStrategies.add(newStrategyConfig);
+        saveStrategies(updatedStrategies);
+        return findById(newStrategyConfig.getId());
       } else {
         throw new IllegalStateException(
             "Trying to create new StrategyConfig but null/empty id already exists. "
                 + "StrategyConfig: "
                 + config
                 + " Existing StrategyConfigs: "
-                + strategiesType.getStrategies());
+                + strategies.values());
       }
     } else {
       LOG.info(() -> "About to update StrategyConfig: " + config);
 
-      if (!strategyConfigs.isEmpty()) {
-        strategiesType
-            .getStrategies()
-            .remove(strategyConfigs.get(0)); // will only be 1 unique strat
-        strategiesType.getStrategies().add(config);
-        ConfigurationManager.saveConfig(
-            StrategiesType.class, strategiesType, STRATEGIES_CONFIG_YAML_FILENAME);
-
-        final StrategiesType updatedStrategiesType =
-            ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
-
-        return adaptInternalToExternalConfig(
-            updatedStrategiesType.getStrategies().stream()
-                .filter(item -> item.getId().equals(config.getId()))
-                .distinct()
-                .collect(Collectors.toList()));
+      if (existingStrategyConfig != null) {
+        final List<StrategyConfig> updatedStrategies = new ArrayList<>(strategies.values());
+        updatedStrategies.remove(existingStrategyConfig);
+        updatedStrategies.add(copyOf(config));
+        saveStrategies(updatedStrategies);
+        return findById(config.getId());
       } else {
         LOG.warn(
             () ->
             "Trying to update StrategyConfig but id does not exist StrategyConfig: "
                 + config
                 + " Existing StrategyConfig: "
-                + strategiesType.getStrategies());
+                + strategies.values());
         return null;
       }
     }
   }
 
   @Override
-  public StrategyConfig delete(String id) {
+  public synchronized StrategyConfig delete(String id) {
     LOG.info(() -> "Deleting Strategy config for id: " + id);
 
-    final StrategiesType strategiesType =
-        ConfigurationManager.loadConfig(StrategiesType.class, STRATEGIES_CONFIG_YAML_FILENAME);
-
-    final List<StrategyConfig> strategyConfigs =
-        strategiesType.getStrategies().stream()
-            .filter(item -> item.getId().equals(id))
-            .distinct()
-            .collect(Collectors.toList());
-
-    if (!strategyConfigs.isEmpty()) {
-      final StrategyConfig strategyToRemove = strategyConfigs.get(0); // will only be 1 unique strat
-      strategiesType.getStrategies().remove(strategyToRemove);
-      ConfigurationManager.saveConfig(
-          StrategiesType.class, strategiesType, STRATEGIES_CONFIG_YAML_FILENAME);
-      return adaptInternalToExternalConfig(Collections.singletonList(strategyToRemove));
+    final Map<String, StrategyConfig> strategies = strategiesCache.get();
+    final StrategyConfig strategyToRemove = strategies.get(id);
+
+    if (strategyToRemove != null) {
+      final List<StrategyConfig> updatedStrategies = new ArrayList<>(strategies.values());
+      updatedStrategies.remove(strategyToRemove);
+      saveStrategies(updatedStrategies);
+      return copyOf(strategyToRemove);
     } else {
       LOG.warn(
           () ->
           "Trying to delete StrategyConfig but id does not exist. StrategyConfig id: "
               + id
               + " Existing StrategyConfig: "
-              + strategiesType.getStrategies());
+              + strategies.values());
       return null;
     }
   }
@@ -173,19 +151,36 @@ public class StrategyConfigYamlRepository implements StrategyConfigRepository {
   // Adapter methods
   // --------------------------------------------------------------------------
 
-  private static StrategyConfig adaptInternalToExternalConfig(
-      List<StrategyConfig> internalStrategyConfigItems) {
-    if (!internalStrategyConfigItems.isEmpty()) {
-      // Should only ever be 1 unique Strategy id
-      return internalStrategyConfigItems.get(0);
+  private static Map<String, StrategyConfig> indexById(StrategiesType strategiesType) {
+    final Map<String, StrategyConfig> strategiesById = new LinkedHashMap<>();
+    for (final StrategyConfig strategyConfig : strategiesType.getStrategies()) {
+      // Should only ever be 1 unique Strategy id - keep the first, as before
+      strategiesById.putIfAbsent(strategyConfig.getId(), strategyConfig);
     }
-    return null;
+    return Collections.unmodifiableMap(strategiesById);
+  }
+
+  private static StrategyConfig copyOf(StrategyConfig strategyConfig) {
+    if (strategyConfig == null) {
+      return null;
+    }
+    final StrategyConfig copy = new StrategyConfig(strategyConfig);
+    if (strategyConfig.getConfigItems() != null) {
+      copy.setConfigItems(new HashMap<>(strategyConfig.getConfigItems()));
+    }
+    return copy;
   }
 
   // --------------------------------------------------------------------------
   // Util methods
   // --------------------------------------------------------------------------
 
+  private void saveStrategies(List<StrategyConfig> strategies) {
+    final StrategiesType strategiesType = new StrategiesType();
+    strategiesType.setStrategies(strategies);
+    strategiesCache.save(strategiesType);
+  }
+
   private String generateUuid() {
     return UUID.randomUUID().toString();
   }
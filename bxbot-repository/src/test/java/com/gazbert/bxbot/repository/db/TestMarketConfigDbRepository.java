@@ -0,0 +1,240 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import com.gazbert.bxbot.domain.strategy.StrategyConfig;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ChangeType;
+import com.gazbert.bxbot.repository.db.ConfigChangedEvent.ConfigType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the config database backed Market and Strategy repositories behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestMarketConfigDbRepository {
+
+  private static final String MARKET_1_ID = "gemini_usd/btc";
+  private static final String MARKET_2_ID = "gdax_gbp/btc";
+  private static final String STRATEGY_ID = "scalping-strategy";
+  private static final String STRATEGY_2_ID = "macd-strategy";
+
+  private final List<Object> publishedEvents = new ArrayList<>();
+  private ConfigDatabase configDatabase;
+  private MarketConfigDbRepository marketConfigRepository;
+  private StrategyConfigDbRepository strategyConfigRepository;
+
+  /** Opens a fresh in-memory config database for each test. */
+  @Before
+  public void setup() {
+    configDatabase =
+        new ConfigDatabase(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+            "sa",
+            "",
+            publishedEvents::add);
+    marketConfigRepository = new MarketConfigDbRepository(configDatabase);
+    strategyConfigRepository = new StrategyConfigDbRepository(configDatabase);
+
+    marketConfigRepository.insert(someMarket(MARKET_1_ID, "BTC/USD"));
+    marketConfigRepository.insert(someMarket(MARKET_2_ID, "BTC/GBP"));
+    publishedEvents.clear();
+  }
+
+  @After
+  public void tearDown() {
+    configDatabase.close();
+  }
+
+  @Test
+  public void whenFindAllCalledThenMarketsReturnedInInsertOrder() {
+    final List<MarketConfig> markets = marketConfigRepository.findAll();
+
+    assertThat(markets.size()).isEqualTo(2);
+    assertThat(markets.get(0).getId()).isEqualTo(MARKET_1_ID);
+    assertThat(markets.get(1).getId()).isEqualTo(MARKET_2_ID);
+    assertThat(markets.get(1).getName()).isEqualTo("BTC/GBP");
+    assertThat(markets.get(1).getTradingStrategyId()).isEqualTo(STRATEGY_ID);
+  }
+
+  @Test
+  public void whenUpdateCalledForKnownIdThenMarketIsUpdatedInPlace() {
+    final MarketConfig updatedMarket = someMarket(MARKET_1_ID, "BTC/USD renamed");
+    updatedMarket.setEnabled(false);
+
+    final MarketConfig savedMarket = marketConfigRepository.save(updatedMarket);
+
+    assertThat(savedMarket.getName()).isEqualTo("BTC/USD renamed");
+    assertThat(savedMarket.isEnabled()).isFalse();
+    assertThat(marketConfigRepository.findAll().get(0).getId()).isEqualTo(MARKET_1_ID);
+    assertThat(publishedEvents.size()).isEqualTo(1);
+    final ConfigChangedEvent event = (ConfigChangedEvent) publishedEvents.get(0);
+    assertThat(event.getConfigType()).isEqualTo(ConfigType.MARKET);
+    assertThat(event.getId()).isEqualTo(MARKET_1_ID);
+    assertThat(event.getChangeType()).isEqualTo(ChangeType.SAVED);
+    assertThat(event.toString()).contains(MARKET_1_ID);
+  }
+
+  @Test
+  public void whenUpdateCalledForUnknownIdThenReturnNull() {
+    assertThat(marketConfigRepository.save(someMarket("unknown-id", "XRP/USD"))).isNull();
+    assertThat(publishedEvents).isEmpty();
+  }
+
+  @Test
+  public void whenCreateCalledWithEmptyIdThenNewIdIsGenerated() {
+    final MarketConfig newMarket = someMarket("", "ETH/USD");
+
+    final MarketConfig savedMarket = marketConfigRepository.save(newMarket);
+
+    assertThat(savedMarket.getId()).isNotEmpty();
+    assertThat(marketConfigRepository.findById(savedMarket.getId()).getName())
+        .isEqualTo("ETH/USD");
+    assertThat(marketConfigRepository.findAll().size()).isEqualTo(3);
+  }
+
+  @Test
+  public void whenDeleteCalledForKnownIdThenMarketIsRemoved() {
+    final MarketConfig deletedMarket = marketConfigRepository.delete(MARKET_1_ID);
+
+    assertThat(deletedMarket.getId()).isEqualTo(MARKET_1_ID);
+    assertThat(marketConfigRepository.findById(MARKET_1_ID)).isNull();
+    assertThat(((ConfigChangedEvent) publishedEvents.get(0)).getChangeType())
+        .isEqualTo(ChangeType.DELETED);
+  }
+
+  @Test
+  public void whenTransactionFailsThenAllChangesAreRolledBackAndNoEventsPublished() {
+    try {
+      configDatabase.inTransaction(
+          () -> {
+            marketConfigRepository.delete(MARKET_1_ID);
+            marketConfigRepository.insert(someMarket(MARKET_2_ID, "duplicate id"));
+            return null;
+          });
+      fail("Expected duplicate market id to be rejected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+
+    assertThat(marketConfigRepository.findById(MARKET_1_ID)).isNotNull();
+    assertThat(marketConfigRepository.findAll().size()).isEqualTo(2);
+    assertThat(publishedEvents).isEmpty();
+  }
+
+  @Test
+  public void whenMarketSavedWithStrategyIdsThenTheyAreReadBackInOrder() {
+    final MarketConfig updatedMarket = someMarket(MARKET_1_ID, "BTC/USD");
+    updatedMarket.setTradingStrategyIds(Arrays.asList(STRATEGY_2_ID, STRATEGY_ID));
+
+    final MarketConfig savedMarket = marketConfigRepository.save(updatedMarket);
+
+    assertThat(savedMarket.getTradingStrategyIds()).containsExactly(STRATEGY_2_ID, STRATEGY_ID);
+    assertThat(savedMarket.getTradingStrategyId()).isNull();
+    assertThat(marketConfigRepository.findAll().get(0).getTradingStrategyIds())
+        .containsExactly(STRATEGY_2_ID, STRATEGY_ID);
+    assertThat(marketConfigRepository.findAll().get(1).getTradingStrategyIds())
+        .containsExactly(STRATEGY_ID);
+  }
+
+  @Test
+  public void whenStrategyDeletedThenItIsRemovedFromItsMarkets() {
+    strategyConfigRepository.insert(
+        new StrategyConfig(STRATEGY_ID, "Scalper", "desc", "com.x.Scalper", null, new HashMap<>()));
+    final MarketConfig updatedMarket = someMarket(MARKET_1_ID, "BTC/USD");
+    updatedMarket.setTradingStrategyIds(Arrays.asList(STRATEGY_ID, STRATEGY_2_ID));
+    marketConfigRepository.save(updatedMarket);
+    publishedEvents.clear();
+
+    strategyConfigRepository.delete(STRATEGY_ID);
+
+    assertThat(marketConfigRepository.findById(MARKET_1_ID).getTradingStrategyIds())
+        .containsExactly(STRATEGY_2_ID);
+    assertThat(marketConfigRepository.findById(MARKET_2_ID).getTradingStrategyIds()).isEmpty();
+    assertThat(publishedEvents.size()).isEqualTo(3);
+    assertThat(((ConfigChangedEvent) publishedEvents.get(0)).getConfigType())
+        .isEqualTo(ConfigType.STRATEGY);
+    assertThat(((ConfigChangedEvent) publishedEvents.get(1)).getConfigType())
+        .isEqualTo(ConfigType.MARKET);
+    assertThat(((ConfigChangedEvent) publishedEvents.get(2)).getConfigType())
+        .isEqualTo(ConfigType.MARKET);
+  }
+
+  @Test
+  public void whenMarketDeletedThenItsStrategyIdsAreRemoved() {
+    marketConfigRepository.delete(MARKET_1_ID);
+
+    assertThat(
+            configDatabase
+                .getJdbcTemplate()
+                .queryForObject("SELECT COUNT(*) FROM MARKET_STRATEGY", Integer.class))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void whenStrategySavedThenConfigItemsAreReplaced() {
+    final Map<String, String> configItems = new HashMap<>();
+    configItems.put("counter-currency-buy-order-amount", "20");
+    configItems.put("minimum-percentage-gain", "2");
+    strategyConfigRepository.insert(
+        new StrategyConfig(STRATEGY_ID, "Scalper", "desc", "com.x.Scalper", null, configItems));
+
+    final Map<String, String> updatedItems = new HashMap<>();
+    updatedItems.put("minimum-percentage-gain", "3");
+    strategyConfigRepository.save(
+        new StrategyConfig(STRATEGY_ID, "Scalper", "desc", "com.x.Scalper", null, updatedItems));
+
+    final StrategyConfig strategy = strategyConfigRepository.findById(STRATEGY_ID);
+    assertThat(strategy.getConfigItems()).isEqualTo(updatedItems);
+    assertThat(strategyConfigRepository.findAll().get(0).getConfigItems()).isEqualTo(updatedItems);
+
+    strategyConfigRepository.delete(STRATEGY_ID);
+    assertThat(strategyConfigRepository.findAll()).isEmpty();
+    assertThat(
+            configDatabase
+                .getJdbcTemplate()
+                .queryForObject("SELECT COUNT(*) FROM STRATEGY_CONFIG_ITEM", Integer.class))
+        .isEqualTo(0);
+  }
+
+  // --------------------------------------------------------------------------
+  // Util methods
+  // --------------------------------------------------------------------------
+
+  private static MarketConfig someMarket(String id, String name) {
+    return new MarketConfig(id, name, "BTC", "USD", true, STRATEGY_ID);
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.repository.db;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
+import com.gazbert.bxbot.datastore.yaml.exchange.ExchangeType;
+import com.gazbert.bxbot.datastore.yaml.market.MarketsType;
+import com.gazbert.bxbot.datastore.yaml.strategy.StrategiesType;
+import com.gazbert.bxbot.domain.exchange.ExchangeConfig;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the YAML config files are imported into the config database as expected.
+ *
+ * @author gazbert
+ */
+public class TestYamlConfigImporter {
+
+  // The bot's own config files.
+  private static final Path CONFIG_DIRECTORY = Paths.get("..", "config");
+
+  private ConfigDatabase configDatabase;
+  private EngineConfigDbRepository engineConfigRepository;
+  private ExchangeConfigDbRepository exchangeConfigRepository;
+  private EmailAlertsConfigDbRepository emailAlertsConfigRepository;
+  private MarketConfigDbRepository marketConfigRepository;
+  private StrategyConfigDbRepository strategyConfigRepository;
+
+  /** Opens a fresh in-memory config database for each test. */
+  @Before
+  public void setup() {
+    configDatabase =
+        new ConfigDatabase(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "", event -> { });
+    engineConfigRepository = new EngineConfigDbRepository(configDatabase);
+    exchangeConfigRepository = new ExchangeConfigDbRepository(configDatabase);
+    emailAlertsConfigRepository = new EmailAlertsConfigDbRepository(configDatabase);
+    marketConfigRepository = new MarketConfigDbRepository(configDatabase);
+    strategyConfigRepository = new StrategyConfigDbRepository(configDatabase);
+  }
+
+  @After
+  public void tearDown() {
+    configDatabase.close();
+  }
+
+  @Test
+  public void whenDatabaseIsEmptyThenYamlConfigIsImported() {
+    assertThat(configDatabase.isEmpty()).isTrue();
+
+    createImporter(true).importYamlConfig(CONFIG_DIRECTORY);
+
+    assertThat(configDatabase.isEmpty()).isFalse();
+    assertThat(engineConfigRepository.get().getBotId()).isNotEmpty();
+    assertThat(emailAlertsConfigRepository.get()).isNotNull();
+
+    final ExchangeConfig yamlExchange =
+        ConfigurationManager.loadConfig(ExchangeType.class, yamlFile("exchange.yaml"))
+            .getExchange();
+    final ExchangeConfig importedExchange = exchangeConfigRepository.get();
+    assertThat(importedExchange.getAdapter()).isEqualTo(yamlExchange.getAdapter());
+    assertThat(importedExchange.getAuthenticationConfig())
+        .isEqualTo(yamlExchange.getAuthenticationConfig());
+    assertThat(importedExchange.getNetworkConfig().getNonFatalErrorCodes())
+        .isEqualTo(yamlExchange.getNetworkConfig().getNonFatalErrorCodes());
+    assertThat(importedExchange.getNetworkConfig().getNonFatalErrorMessages())
+        .isEqualTo(yamlExchange.getNetworkConfig().getNonFatalErrorMessages());
+
+    final MarketsType yamlMarkets =
+        ConfigurationManager.loadConfig(MarketsType.class, yamlFile("markets.yaml"));
+    assertThat(marketConfigRepository.findAll().size()).isEqualTo(yamlMarkets.getMarkets().size());
+
+    final StrategiesType yamlStrategies =
+        ConfigurationManager.loadConfig(StrategiesType.class, yamlFile("strategies.yaml"));
+    assertThat(strategyConfigRepository.findAll().size())
+        .isEqualTo(yamlStrategies.getStrategies().size());
+    assertThat(strategyConfigRepository.findAll().get(0).getConfigItems())
+        .isEqualTo(yamlStrategies.getStrategies().get(0).getConfigItems());
+  }
+
+  @Test
+  public void whenImportIsSwitchedOffThenNothingIsImported() {
+    createImporter(false).importIfEmpty();
+
+    assertThat(configDatabase.isEmpty()).isTrue();
+  }
+
+  // --------------------------------------------------------------------------
+  // Util methods
+  // --------------------------------------------------------------------------
+
+  private YamlConfigImporter createImporter(boolean importYaml) {
+    return new YamlConfigImporter(
+        configDatabase,
+        engineConfigRepository,
+        exchangeConfigRepository,
+        emailAlertsConfigRepository,
+        marketConfigRepository,
+        strategyConfigRepository,
+        importYaml);
+  }
+
+  private static String yamlFile(String fileName) {
+    return CONFIG_DIRECTORY.resolve(fileName).toString();
+  }
+}
@@ -89,11 +89,6 @@ public class TestEngineConfigYamlRepository {
     ConfigurationManager.saveConfig(eq(EngineType.class), anyObject(EngineType.class),
         eq(ENGINE_CONFIG_YAML_FILENAME));
 
-    expect(ConfigurationManager.loadConfig(
-        eq(EngineType.class),
-        eq(ENGINE_CONFIG_YAML_FILENAME)))
-        .andReturn(someInternalEngineConfig());
-
     PowerMock.replayAll();
 
     final EngineConfigRepository engineConfigRepository = new EngineConfigYamlRepository();
@@ -155,16 +155,31 @@ public class TestMarketConfigYamlRepository {
   }
 
   @Test
-  public void whenSaveCalledWithKnownIdThenReturnUpdatedMarketConfig() {
+  public void whenFindCalledRepeatedlyThenConfigIsOnlyLoadedOnce() {
     expect(ConfigurationManager.loadConfig(eq(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME)))
         .andReturn(allTheInternalMarketsConfig());
 
-    ConfigurationManager.saveConfig(
-        eq(MarketsType.class), anyObject(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME));
+    PowerMock.replayAll();
 
+    final MarketConfigRepository marketConfigRepository = new MarketConfigYamlRepository();
+    assertThat(marketConfigRepository.findAll().size()).isEqualTo(2);
+    assertThat(marketConfigRepository.findById(MARKET_1_ID).getName()).isEqualTo(MARKET_1_NAME);
+
+    // Callers get copies, so changing one does not change the cached config.
+    marketConfigRepository.findById(MARKET_2_ID).setName("changed");
+    assertThat(marketConfigRepository.findById(MARKET_2_ID).getName()).isEqualTo(MARKET_2_NAME);
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void whenSaveCalledWithKnownIdThenReturnUpdatedMarketConfig() {
     expect(ConfigurationManager.loadConfig(eq(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME)))
         .andReturn(allTheInternalMarketsConfig());
 
+    ConfigurationManager.saveConfig(
+        eq(MarketsType.class), anyObject(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME));
+
     PowerMock.replayAll();
 
     final MarketConfigRepository marketConfigRepository = new MarketConfigYamlRepository();
@@ -204,11 +219,9 @@ public class TestMarketConfigYamlRepository {
     ConfigurationManager.saveConfig(
         eq(MarketsType.class), anyObject(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME));
 
-    expect(ConfigurationManager.loadConfig(eq(MarketsType.class), eq(MARKETS_CONFIG_YAML_FILENAME)))
-        .andReturn(allTheInternalMarketsConfigPlusNewOne());
-
     final MarketConfigRepository marketConfigRepository =
-        PowerMock.createPartialMock(MarketConfigYamlRepository.class, MOCKED_GENERATE_UUID_METHOD);
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
+            MarketConfigYamlRepository.class, MOCKED_GENERATE_UUID_METHOD);
     PowerMock.expectPrivate(marketConfigRepository, MOCKED_GENERATE_UUID_METHOD)
         .andReturn(GENERATED_MARKET_ID);
 
@@ -201,11 +201,6 @@ public class TestStrategyConfigYamlRepository {
         anyObject(StrategiesType.class),
         eq(STRATEGIES_CONFIG_YAML_FILENAME));
 
-    expect(
-            ConfigurationManager.loadConfig(
-                eq(StrategiesType.class), eq(STRATEGIES_CONFIG_YAML_FILENAME)))
-        .andReturn(allTheInternalStrategiesConfig());
-
     PowerMock.replayAll();
 
     final StrategyConfigRepository strategyConfigRepository = new StrategyConfigYamlRepository();
@@ -255,13 +250,8 @@ public class TestStrategyConfigYamlRepository {
         anyObject(StrategiesType.class),
         eq(STRATEGIES_CONFIG_YAML_FILENAME));
 
-    expect(
-            ConfigurationManager.loadConfig(
-                eq(StrategiesType.class), eq(STRATEGIES_CONFIG_YAML_FILENAME)))
-        .andReturn(allTheInternalStrategiesConfigPlusNewOne());
-
     final StrategyConfigRepository strategyConfigRepository =
-        PowerMock.createPartialMock(
+        PowerMock.createPartialMockAndInvokeDefaultConstructor(
             StrategyConfigYamlRepository.class, MOCKED_GENERATE_UUID_METHOD);
     PowerMock.expectPrivate(strategyConfigRepository, MOCKED_GENERATE_UUID_METHOD)
         .andReturn(GENERATED_STRAT_ID);
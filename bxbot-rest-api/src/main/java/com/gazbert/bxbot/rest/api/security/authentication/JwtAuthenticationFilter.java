@@ -25,9 +25,12 @@
 package com.gazbert.bxbot.rest.api.security.authentication;
 
 import com.gazbert.bxbot.rest.api.security.jwt.JwtUtils;
+import com.gazbert.bxbot.rest.api.security.jwt.JwtValidationCache;
 import io.jsonwebtoken.Claims;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.Date;
+import java.util.List;
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -35,6 +38,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -45,6 +49,8 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * <p>If no JWT is present, the next filter in the Spring Security filter chain is invoked.
  *
  * <p>The filter is invoked once for every request to validate the JWT - we don't use sessions.
+ * Validated JWTs are held in the {@link JwtValidationCache} until they expire, so each JWT is only
+ * parsed and has its signature verified once.
  *
  * <p>Code originated from the excellent JWT and Spring Boot example by Stephan Zerhusen:
  * https://github.com/szerhusenBC/jwt-spring-security-demo
@@ -59,6 +65,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private static final int BEARER_PREFIX_LENGTH = BEARER_PREFIX.length();
 
   private JwtUtils jwtUtils;
+  private JwtValidationCache jwtValidationCache;
 
   @Override
   protected void doFilterInternal(
@@ -74,16 +81,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
       // Might be null if client does not have a token yet.
       if (authorizationHeader != null) {
-        final Claims claims = jwtUtils.validateTokenAndGetClaims(authorizationHeader);
-        LOG.info(() -> "JWT is valid");
-        final String username = jwtUtils.getUsernameFromTokenClaims(claims);
+        final String username;
+        final List<GrantedAuthority> roles;
+        final JwtValidationCache.ValidatedToken validatedToken =
+            jwtValidationCache.get(authorizationHeader);
+        if (validatedToken != null) {
+          LOG.info(() -> "JWT is valid - already validated");
+          username = validatedToken.getUsername();
+          roles = validatedToken.getRoles();
+        } else {
+          final Claims claims = jwtUtils.validateTokenAndGetClaims(authorizationHeader);
+          username = jwtUtils.getUsernameFromTokenClaims(claims);
+          final Date issuedAt = jwtUtils.getIssuedAtDateFromTokenClaims(claims);
+          if (jwtValidationCache.isIssuedBeforePasswordReset(username, issuedAt)) {
+            throw new JwtAuthenticationException(
+                "Invalid token! Issued before last password reset for user: " + username);
+          }
+          LOG.info(() -> "JWT is valid");
+          roles = jwtUtils.getRolesFromTokenClaims(claims);
+          jwtValidationCache.put(
+              authorizationHeader,
+              username,
+              roles,
+              issuedAt,
+              jwtUtils.getExpirationDateFromTokenClaims(claims));
+        }
         LOG.info(() -> "Username in JWT: " + username);
 
         if (SecurityContextHolder.getContext().getAuthentication() == null) {
           // First time in - store user details in Spring's Security context
           final UsernamePasswordAuthenticationToken authentication =
-              new UsernamePasswordAuthenticationToken(
-                  username, null, jwtUtils.getRolesFromTokenClaims(claims));
+              new UsernamePasswordAuthenticationToken(username, null, roles);
 
           authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
           SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -106,4 +134,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
   public void setJwtUtils(JwtUtils jwtUtils) {
     this.jwtUtils = jwtUtils;
   }
+
+  @Autowired
+  public void setJwtValidationCache(JwtValidationCache jwtValidationCache) {
+    this.jwtValidationCache = jwtValidationCache;
+  }
 }
@@ -27,6 +27,7 @@ package com.gazbert.bxbot.rest.api.security.config;
 import com.gazbert.bxbot.rest.api.security.authentication.JwtAuthenticationEntryPoint;
 import com.gazbert.bxbot.rest.api.security.authentication.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -55,16 +56,29 @@ import org.springframework.web.filter.CorsFilter;
 @EnableGlobalMethodSecurity(prePostEnabled = true)
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
+  private static final String PROMETHEUS_ENDPOINT_PATH = "/actuator/prometheus";
+
   private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
   private final UserDetailsService userDetailsService;
+  private final int managementPort;
 
+  /**
+   * Creates the web security config.
+   *
+   * @param corsFilter the CORS filter.
+   * @param jwtAuthenticationEntryPoint the entry point for unauthenticated requests.
+   * @param userDetailsService the service for loading users.
+   * @param managementPort the Spring Boot management port; -1 if it is disabled.
+   */
   @Autowired
   public WebSecurityConfig(
       CorsFilter corsFilter,
       JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
-      UserDetailsService userDetailsService) {
+      UserDetailsService userDetailsService,
+      @Value("${management.server.port:-1}") int managementPort) {
     this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
     this.userDetailsService = userDetailsService;
+    this.managementPort = managementPort;
   }
 
   /**
@@ -147,6 +161,16 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
             "/favicon.ico")
         .permitAll()
 
+        // Allow Prometheus to scrape the metrics from the management port, bound to localhost.
+        // The endpoint is still locked down if it is reached on the REST API port.
+        .requestMatchers(
+            request ->
+                managementPort > 0
+                    && request.getLocalPort() == managementPort
+                    && HttpMethod.GET.matches(request.getMethod())
+                    && PROMETHEUS_ENDPOINT_PATH.equals(request.getRequestURI()))
+        .permitAll()
+
         // Lock down everything else
         .anyRequest()
         .authenticated();
@@ -225,11 +225,23 @@ public class JwtUtils {
     }
   }
 
-  Date getIssuedAtDateFromTokenClaims(Claims claims) {
+  /**
+   * Extracts the issued at date from the JWT claims.
+   *
+   * @param claims the JWT claims.
+   * @return the issued at date.
+   */
+  public Date getIssuedAtDateFromTokenClaims(Claims claims) {
     return claims.getIssuedAt();
   }
 
-  Date getExpirationDateFromTokenClaims(Claims claims) {
+  /**
+   * Extracts the expiration date from the JWT claims.
+   *
+   * @param claims the JWT claims.
+   * @return the expiration date.
+   */
+  public Date getExpirationDateFromTokenClaims(Claims claims) {
     return claims.getExpiration();
   }
 
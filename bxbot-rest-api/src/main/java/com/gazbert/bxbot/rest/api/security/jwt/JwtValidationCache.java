@@ -0,0 +1,274 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.security.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * A cache of validated JWTs, so a token is only parsed and its signature verified the first time
+ * it is used, not on every request.
+ *
+ * <p>Tokens are keyed by their SHA-256 digest - the tokens themselves are not kept. Each entry
+ * holds the username and roles from the token until the token expires. The cache is bounded; the
+ * least recently used entries are evicted first.
+ *
+ * <p>When a user's password is reset, the user's tokens issued before the reset are evicted, and
+ * are rejected if used again - the same rule as {@link JwtUtils#canTokenBeRefreshed}.
+ *
+ * <p>Cache hits and misses are counted in the bxbot.restapi.jwt.cache metric.
+ *
+ * @author gazbert
+ */
+@Component
+public class JwtValidationCache {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final String CACHE_METRIC_NAME = "bxbot.restapi.jwt.cache";
+  static final String CACHE_SIZE_METRIC_NAME = "bxbot.restapi.jwt.cache.size";
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Map<String, Long> passwordResetTimes = new ConcurrentHashMap<>();
+
+  // Guarded by itself.
+  private final Map<String, ValidatedToken> validatedTokens;
+
+  /**
+   * Creates the JWT validation cache.
+   *
+   * @param meterRegistry the registry for the cache metrics.
+   * @param maxSize the maximum number of tokens to cache.
+   */
+  @Autowired
+  public JwtValidationCache(
+      MeterRegistry meterRegistry,
+      @Value("${bxbot.restapi.jwt.validationCacheSize:1000}") int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+    }
+    validatedTokens = new LeastRecentlyUsedMap<>(maxSize);
+    hits =
+        Counter.builder(CACHE_METRIC_NAME)
+            .description("JWT validation cache lookups")
+            .tag("result", "hit")
+            .register(meterRegistry);
+    misses =
+        Counter.builder(CACHE_METRIC_NAME)
+            .description("JWT validation cache lookups")
+            .tag("result", "miss")
+            .register(meterRegistry);
+    Gauge.builder(CACHE_SIZE_METRIC_NAME, this, JwtValidationCache::size)
+        .description("Number of validated JWTs cached")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Looks up a validated token.
+   *
+   * @param token the JWT in String format.
+   * @return the validated token, or null if it is not cached, or has expired.
+   */
+  public ValidatedToken get(String token) {
+    final String key = digest(token);
+    final long now = System.currentTimeMillis();
+    synchronized (validatedTokens) {
+      final ValidatedToken validatedToken = validatedTokens.get(key);
+      if (validatedToken != null && validatedToken.expirationTime > now) {
+        hits.increment();
+        return validatedToken;
+      }
+      if (validatedToken != null) {
+        validatedTokens.remove(key);
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  /**
+   * Caches a token that has just been validated. Tokens without an expiration date are not
+   * cached.
+   *
+   * @param token the JWT in String format.
+   * @param username the username from the token claims.
+   * @param roles the roles from the token claims.
+   * @param issuedAt when the token was issued.
+   * @param expiration when the token expires.
+   */
+  public void put(
+      String token,
+      String username,
+      Collection<? extends GrantedAuthority> roles,
+      Date issuedAt,
+      Date expiration) {
+    if (issuedAt == null || expiration == null) {
+      return;
+    }
+    final ValidatedToken validatedToken =
+        new ValidatedToken(username, List.copyOf(roles), issuedAt.getTime(), expiration.getTime());
+    final String key = digest(token);
+    synchronized (validatedTokens) {
+      validatedTokens.put(key, validatedToken);
+    }
+  }
+
+  /**
+   * Checks if a token was issued before its user's last known password reset, and so must not be
+   * used.
+   *
+   * @param username the username from the token claims.
+   * @param issuedAt when the token was issued.
+   * @return true if the token was issued before the user's last password reset.
+   */
+  public boolean isIssuedBeforePasswordReset(String username, Date issuedAt) {
+    if (username == null) {
+      return false;
+    }
+    final Long passwordResetTime = passwordResetTimes.get(username);
+    return passwordResetTime != null
+        && (issuedAt == null || isBefore(issuedAt.getTime(), passwordResetTime));
+  }
+
+  /**
+   * Records a user's last password reset date, and evicts the user's tokens issued before it.
+   *
+   * @param username the username.
+   * @param lastPasswordReset the user's last password reset date.
+   */
+  public void passwordReset(String username, Date lastPasswordReset) {
+    if (lastPasswordReset == null) {
+      return;
+    }
+    final long passwordResetTime = lastPasswordReset.getTime();
+    final Long previousResetTime = passwordResetTimes.put(username, passwordResetTime);
+    if (previousResetTime != null && previousResetTime == passwordResetTime) {
+      return;
+    }
+    synchronized (validatedTokens) {
+      validatedTokens
+          .values()
+          .removeIf(
+              validatedToken ->
+                  validatedToken.username.equals(username)
+                      && isBefore(validatedToken.issuedAtTime, passwordResetTime));
+    }
+    LOG.info(() -> "Evicted cached tokens issued before last password reset for user: " + username);
+  }
+
+  /**
+   * Returns the number of tokens cached.
+   *
+   * @return the number of tokens cached.
+   */
+  public int size() {
+    synchronized (validatedTokens) {
+      return validatedTokens.size();
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  /*
+   * JWT dates are in whole seconds, so a token issued in the same second as a password reset is
+   * allowed.
+   */
+  private static boolean isBefore(long issuedAtTime, long passwordResetTime) {
+    return issuedAtTime / 1000 < passwordResetTime / 1000;
+  }
+
+  private static String digest(String token) {
+    try {
+      final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder()
+          .encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform has SHA-256.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** A map that drops its least recently used entry once it holds more than its max size. */
+  private static final class LeastRecentlyUsedMap<K, V> extends LinkedHashMap<K, V> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    private LeastRecentlyUsedMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  /** A validated token: the username and roles from its claims. */
+  public static final class ValidatedToken {
+
+    private final String username;
+    private final List<GrantedAuthority> roles;
+    private final long issuedAtTime;
+    private final long expirationTime;
+
+    private ValidatedToken(
+        String username, List<GrantedAuthority> roles, long issuedAtTime, long expirationTime) {
+      this.username = username;
+      this.roles = roles;
+      this.issuedAtTime = issuedAtTime;
+      this.expirationTime = expirationTime;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public List<GrantedAuthority> getRoles() {
+      return roles;
+    }
+  }
+}
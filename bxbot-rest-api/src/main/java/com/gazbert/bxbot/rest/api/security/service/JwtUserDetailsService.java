@@ -25,6 +25,7 @@
 package com.gazbert.bxbot.rest.api.security.service;
 
 import com.gazbert.bxbot.rest.api.security.jwt.JwtUserFactory;
+import com.gazbert.bxbot.rest.api.security.jwt.JwtValidationCache;
 import com.gazbert.bxbot.rest.api.security.model.User;
 import com.gazbert.bxbot.rest.api.security.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,16 +37,22 @@ import org.springframework.stereotype.Service;
 /**
  * User Details service for loading user details from the repository.
  *
+ * <p>Each time a user is loaded, e.g. to issue or refresh a token, the {@link JwtValidationCache}
+ * is told the user's last password reset date, so tokens issued before it are no longer accepted.
+ *
  * @author gazbert
  */
 @Service
 public class JwtUserDetailsService implements UserDetailsService {
 
   private final UserRepository userRepository;
+  private final JwtValidationCache jwtValidationCache;
 
   @Autowired
-  public JwtUserDetailsService(UserRepository userRepository) {
+  public JwtUserDetailsService(
+      UserRepository userRepository, JwtValidationCache jwtValidationCache) {
     this.userRepository = userRepository;
+    this.jwtValidationCache = jwtValidationCache;
   }
 
   @Override
@@ -55,6 +62,7 @@ public class JwtUserDetailsService implements UserDetailsService {
       throw new UsernameNotFoundException(
           String.format("No user found with username '%s'.", username));
     } else {
+      jwtValidationCache.passwordReset(username, user.getLastPasswordResetDate());
       return JwtUserFactory.create(user);
     }
   }
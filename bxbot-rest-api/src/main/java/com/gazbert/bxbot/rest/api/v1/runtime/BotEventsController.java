@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.v1.runtime;
+
+import static com.gazbert.bxbot.rest.api.v1.EndpointLocations.RUNTIME_ENDPOINT_BASE_URI;
+
+import com.gazbert.bxbot.domain.bot.BotEvent;
+import com.gazbert.bxbot.services.runtime.BotEventService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiParam;
+import java.security.Principal;
+import java.util.Set;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import springfox.documentation.annotations.ApiIgnore;
+
+/**
+ * Controller for streaming Bot events to clients using Server-Sent Events.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+@Api(tags = {"Bot Events"})
+@RestController
+@RequestMapping(RUNTIME_ENDPOINT_BASE_URI)
+public class BotEventsController {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String EVENTS_RESOURCE_PATH = "/events";
+
+  // The stream stays open until the client goes away; dead clients are found on the next send.
+  private static final long NO_TIMEOUT = 0L;
+
+  private final BotEventService botEventService;
+
+  @Autowired
+  public BotEventsController(BotEventService botEventService) {
+    this.botEventService = botEventService;
+  }
+
+  /**
+   * Streams the bot's events as they happen: trade cycles, orders, balances and top of book.
+   *
+   * <p>Each event is sent with its sequence as the SSE id and its type as the SSE event name. A
+   * client that cannot keep up is sent a DROPPED event in place of the events it missed.
+   *
+   * @param principal the authenticated user making the request.
+   * @param types the types of event to stream. All types are streamed if not set.
+   * @return the event stream.
+   */
+  @PreAuthorize("hasRole('USER')")
+  @GetMapping(value = EVENTS_RESOURCE_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(
+      @ApiIgnore Principal principal,
+      @ApiParam(value = "Event types to stream, e.g. CYCLE,ORDER. Defaults to all types.")
+          @RequestParam(required = false)
+          Set<BotEvent.Type> types) {
+
+    LOG.info(
+        () ->
+            "GET "
+                + EVENTS_RESOURCE_PATH
+                + " - streamEvents() - caller: "
+                + principal.getName()
+                + ", types: "
+                + types);
+
+    final SseEmitter emitter = new SseEmitter(NO_TIMEOUT);
+    final BotEventService.Subscription subscription =
+        botEventService.subscribe(
+            types,
+            event ->
+                emitter.send(
+                    SseEmitter.event()
+                        .id(String.valueOf(event.getSequence()))
+                        .name(event.getType().name())
+                        .data(event, MediaType.APPLICATION_JSON)));
+    emitter.onCompletion(subscription::close);
+    emitter.onTimeout(subscription::close);
+    emitter.onError(error -> subscription.close());
+    return emitter;
+  }
+}
@@ -77,6 +77,9 @@ public class BotLogfileController {
    * <p>If the file is larger than {@link RestApiConfig#getLogfileDownloadSize()}, the end of the
    * logfile will be truncated.
    *
+   * <p>The logfile is streamed from disk, and HTTP Range requests are supported, e.g. to resume a
+   * download or to fetch just the end of the logfile.
+   *
    * @param principal the authenticated user making the request.
    * @param request the request.
    * @return the logfile as a download.
@@ -101,10 +104,8 @@ public class BotLogfileController {
     }
 
     String contentType = null;
-    try {
-      contentType = request.getServletContext().getMimeType(logfile.getFile().getAbsolutePath());
-    } catch (IOException ex) {
-      LOG.info(() -> "Could not determine file type.");
+    if (logfile.getFilename() != null) {
+      contentType = request.getServletContext().getMimeType(logfile.getFilename());
     }
     // Fallback to the default content type if type could not be determined
     if (contentType == null) {
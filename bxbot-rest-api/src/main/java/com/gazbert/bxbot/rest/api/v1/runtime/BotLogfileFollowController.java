@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.v1.runtime;
+
+import static com.gazbert.bxbot.rest.api.v1.EndpointLocations.RUNTIME_ENDPOINT_BASE_URI;
+
+import com.gazbert.bxbot.services.runtime.BotLogfileFollowService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiParam;
+import java.security.Principal;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import springfox.documentation.annotations.ApiIgnore;
+
+/**
+ * Controller for following the Bot logfile using Server-Sent Events.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+@Api(tags = {"Bot Logfile"})
+@RestController
+@RequestMapping(RUNTIME_ENDPOINT_BASE_URI)
+public class BotLogfileFollowController {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String LOGFILE_FOLLOW_RESOURCE_PATH = "/logfile/follow";
+  private static final String LOG_LINE_EVENT_NAME = "log";
+
+  // The stream stays open until the client goes away; dead clients are found on the next send.
+  private static final long NO_TIMEOUT = 0L;
+
+  private final BotLogfileFollowService botLogfileFollowService;
+
+  @Autowired
+  public BotLogfileFollowController(BotLogfileFollowService botLogfileFollowService) {
+    this.botLogfileFollowService = botLogfileFollowService;
+  }
+
+  /**
+   * Streams the lines appended to the logfile, like tail -f. Following carries on across log
+   * rollovers.
+   *
+   * <p>Each line is sent as a 'log' event. The filters are applied on the server; continuation
+   * lines, e.g. stack traces, are filtered with the log line they belong to. A client that cannot
+   * keep up is sent a line saying how many lines it missed.
+   *
+   * @param principal the authenticated user making the request.
+   * @param level the lowest log level to stream.
+   * @param logger only stream lines from loggers whose name contains this.
+   * @param regex only stream lines that contain a match for this regular expression.
+   * @return the logfile stream, or 400 if the level or regex is not valid.
+   */
+  @PreAuthorize("hasRole('USER')")
+  @GetMapping(value = LOGFILE_FOLLOW_RESOURCE_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> followLogfile(
+      @ApiIgnore Principal principal,
+      @ApiParam(value = "Lowest log level to stream, e.g. WARN. Defaults to all levels.")
+          @RequestParam(required = false)
+          String level,
+      @ApiParam(value = "Only stream lines from loggers whose name contains this.")
+          @RequestParam(required = false)
+          String logger,
+      @ApiParam(value = "Only stream lines that match this regular expression.")
+          @RequestParam(required = false)
+          String regex) {
+
+    LOG.info(
+        () ->
+            "GET "
+                + LOGFILE_FOLLOW_RESOURCE_PATH
+                + " - followLogfile() - caller: "
+                + principal.getName()
+                + ", level: "
+                + level
+                + ", logger: "
+                + logger
+                + ", regex: "
+                + regex);
+
+    final SseEmitter emitter = new SseEmitter(NO_TIMEOUT);
+    final BotLogfileFollowService.Subscription subscription;
+    try {
+      subscription =
+          botLogfileFollowService.follow(
+              level,
+              logger,
+              regex,
+              line -> emitter.send(SseEmitter.event().name(LOG_LINE_EVENT_NAME).data(line)));
+    } catch (IllegalArgumentException e) {
+      LOG.warn(() -> "Invalid logfile follow filter: " + e.getMessage());
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    } catch (IllegalStateException e) {
+      LOG.error(() -> "Failed to follow logfile: " + e.getMessage());
+      return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    emitter.onCompletion(subscription::close);
+    emitter.onTimeout(subscription::close);
+    emitter.onError(error -> subscription.close());
+    return new ResponseEntity<>(emitter, HttpStatus.OK);
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.v1.runtime;
+
+import static com.gazbert.bxbot.rest.api.v1.EndpointLocations.RUNTIME_ENDPOINT_BASE_URI;
+
+import com.gazbert.bxbot.rest.api.RestApiConfig;
+import com.gazbert.bxbot.services.runtime.BotLogfileSearchService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiParam;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import springfox.documentation.annotations.ApiIgnore;
+
+/**
+ * Controller for searching the Bot logfile and its archives.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+@Api(tags = {"Bot Logfile"})
+@RestController
+@RequestMapping(RUNTIME_ENDPOINT_BASE_URI)
+public class BotLogfileSearchController {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String LOGFILE_SEARCH_RESOURCE_PATH = "/logfile/search";
+
+  private final RestApiConfig restApiConfig;
+  private final BotLogfileSearchService botLogfileSearchService;
+
+  @Autowired
+  public BotLogfileSearchController(
+      RestApiConfig restApiConfig, BotLogfileSearchService botLogfileSearchService) {
+    this.restApiConfig = restApiConfig;
+    this.botLogfileSearchService = botLogfileSearchService;
+  }
+
+  /**
+   * Searches the logfile and its rolled over archives. The matching lines are streamed as they are
+   * found, oldest first.
+   *
+   * <p>If more than {@link RestApiConfig#getMaxLogfileLines()} lines match, only the first ones are
+   * returned.
+   *
+   * @param principal the authenticated user making the request.
+   * @param from the earliest time to search from, in the bot's local time.
+   * @param to the time to search up to, exclusive.
+   * @param level the lowest log level to match.
+   * @param words the words that must all be in a line.
+   * @param limit the maximum number of lines to return.
+   * @return the matching lines, or 400 if the search is not valid.
+   */
+  @PreAuthorize("hasRole('USER')")
+  @GetMapping(value = LOGFILE_SEARCH_RESOURCE_PATH)
+  public ResponseEntity<StreamingResponseBody> searchLogfile(
+      @ApiIgnore Principal principal,
+      @ApiParam(value = "Earliest time to search from.", example = "2019-07-20T00:00:00")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime from,
+      @ApiParam(value = "Time to search up to, exclusive.", example = "2019-07-21T00:00:00")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime to,
+      @ApiParam(value = "Lowest log level to match, e.g. ERROR. Defaults to all levels.")
+          @RequestParam(required = false)
+          String level,
+      @ApiParam(value = "Words that must all be in a line, e.g. btcusd. Case is ignored.")
+          @RequestParam(required = false)
+          String words,
+      @ApiParam(value = "Maximum number of lines to return.", example = "100")
+          @RequestParam(required = false)
+          Integer limit) {
+
+    LOG.info(
+        () ->
+            "GET "
+                + LOGFILE_SEARCH_RESOURCE_PATH
+                + " - searchLogfile() - caller: "
+                + principal.getName()
+                + ", from: "
+                + from
+                + ", to: "
+                + to
+                + ", level: "
+                + level
+                + ", words: "
+                + words
+                + ", limit: "
+                + limit);
+
+    final int maxLogfileLineCount = restApiConfig.getMaxLogfileLines();
+    final int maxLines;
+    if (limit != null && limit > 0 && limit <= maxLogfileLineCount) {
+      maxLines = limit;
+    } else {
+      maxLines = maxLogfileLineCount;
+    }
+
+    final BotLogfileSearchService.SearchResults results;
+    try {
+      results = botLogfileSearchService.search(from, to, level, words, maxLines);
+    } catch (IllegalArgumentException e) {
+      LOG.warn(() -> "Invalid logfile search: " + e.getMessage());
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    final StreamingResponseBody body =
+        outputStream -> {
+          final Writer writer =
+              new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+          results.writeTo(
+              line -> {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+              });
+          writer.flush();
+        };
+    return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(body);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.v1.runtime;
+
+import static com.gazbert.bxbot.rest.api.v1.EndpointLocations.RUNTIME_ENDPOINT_BASE_URI;
+
+import com.gazbert.bxbot.domain.pnl.MarketPnl;
+import com.gazbert.bxbot.services.runtime.BotPnlService;
+import io.swagger.annotations.Api;
+import java.security.Principal;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import springfox.documentation.annotations.ApiIgnore;
+
+/**
+ * Controller for directing Bot profit and loss requests.
+ *
+ * @author gazbert
+ * @since 1.0
+ */
+@Api(tags = {"Bot PnL"})
+@RestController
+@RequestMapping(RUNTIME_ENDPOINT_BASE_URI)
+public class BotPnlController {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final String PNL_RESOURCE_PATH = "/pnl";
+
+  private final BotPnlService botPnlService;
+
+  @Autowired
+  public BotPnlController(BotPnlService botPnlService) {
+    this.botPnlService = botPnlService;
+  }
+
+  /**
+   * Returns the bot's position and profit and loss on each market it has traded on.
+   *
+   * @param principal the authenticated user making the request.
+   * @return the profit and loss for each market.
+   */
+  @PreAuthorize("hasRole('USER')")
+  @GetMapping(value = PNL_RESOURCE_PATH)
+  public List<MarketPnl> getAllMarketPnl(@ApiIgnore Principal principal) {
+
+    LOG.info(
+        () -> "GET " + PNL_RESOURCE_PATH + " - getAllMarketPnl() - caller: " + principal.getName());
+
+    final List<MarketPnl> allMarketPnl = botPnlService.getAllMarketPnl();
+
+    LOG.info(() -> "Response: " + allMarketPnl);
+    return allMarketPnl;
+  }
+}
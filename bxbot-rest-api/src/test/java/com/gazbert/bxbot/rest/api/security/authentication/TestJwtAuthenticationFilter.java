@@ -23,6 +23,7 @@
 
 package com.gazbert.bxbot.rest.api.security.authentication;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -31,7 +32,11 @@ import static org.mockito.Mockito.when;
 import com.gazbert.bxbot.core.engine.TradingEngine;
 import com.gazbert.bxbot.core.mail.EmailAlerter;
 import com.gazbert.bxbot.rest.api.security.jwt.JwtUtils;
+import com.gazbert.bxbot.rest.api.security.jwt.JwtValidationCache;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.Date;
 import javax.servlet.FilterChain;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -43,6 +48,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cloud.context.restart.RestartEndpoint;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -73,11 +80,15 @@ public class TestJwtAuthenticationFilter {
   @MockBean private AuthenticationManager authenticationManager;
 
   private JwtAuthenticationFilter jwtAuthenticationFilter;
+  private JwtValidationCache jwtValidationCache;
 
+  /** Creates the filter with a fresh validation cache for each test. */
   @Before
   public void setup() {
     jwtAuthenticationFilter = new JwtAuthenticationFilter();
     jwtAuthenticationFilter.setJwtUtils(jwtUtils);
+    jwtValidationCache = new JwtValidationCache(new SimpleMeterRegistry(), 10);
+    jwtAuthenticationFilter.setJwtValidationCache(jwtValidationCache);
   }
 
   @Test
@@ -149,4 +160,52 @@ public class TestJwtAuthenticationFilter {
     verify(jwtUtils, times(1)).validateTokenAndGetClaims(any());
     verify(filterChain, times(1)).doFilter(request, response);
   }
+
+  @Test
+  public void whenFilterCalledAgainWithSameTokenThenExpectTokenNotValidatedAgain()
+      throws Exception {
+    final Date issuedAt = new Date();
+    when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(BEARER_PREFIX + "dummy-token");
+    when(jwtUtils.validateTokenAndGetClaims((any()))).thenReturn(claims);
+    when(jwtUtils.getUsernameFromTokenClaims((any()))).thenReturn(USERNAME);
+    when(jwtUtils.getRolesFromTokenClaims((any())))
+        .thenReturn(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+    when(jwtUtils.getIssuedAtDateFromTokenClaims(any())).thenReturn(issuedAt);
+    when(jwtUtils.getExpirationDateFromTokenClaims(any()))
+        .thenReturn(new Date(issuedAt.getTime() + 60000));
+
+    SecurityContextHolder.getContext().setAuthentication(null);
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+    SecurityContextHolder.getContext().setAuthentication(null);
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+    verify(jwtUtils, times(1)).validateTokenAndGetClaims(any());
+    verify(jwtUtils, times(1)).getRolesFromTokenClaims(any());
+    verify(filterChain, times(2)).doFilter(request, response);
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getName())
+        .isEqualTo(USERNAME);
+    assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+        .extracting(GrantedAuthority::getAuthority)
+        .containsExactly("ROLE_USER");
+  }
+
+  @Test
+  public void whenFilterCalledWithTokenIssuedBeforePasswordResetThenExpectUnauthorized()
+      throws Exception {
+    final Date issuedAt = new Date(System.currentTimeMillis() - 60000);
+    when(request.getHeader(AUTHORIZATION_HEADER)).thenReturn(BEARER_PREFIX + "dummy-token");
+    when(jwtUtils.validateTokenAndGetClaims((any()))).thenReturn(claims);
+    when(jwtUtils.getUsernameFromTokenClaims((any()))).thenReturn(USERNAME);
+    when(jwtUtils.getIssuedAtDateFromTokenClaims(any())).thenReturn(issuedAt);
+    when(jwtUtils.getExpirationDateFromTokenClaims(any()))
+        .thenReturn(new Date(issuedAt.getTime() + 120000));
+
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+    jwtValidationCache.passwordReset(USERNAME, new Date());
+    jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+    verify(jwtUtils, times(2)).validateTokenAndGetClaims(any());
+    verify(filterChain, times(1)).doFilter(request, response);
+    verify(response, times(1)).sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
+  }
 }
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.security.jwt;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Tests the JWT validation cache behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestJwtValidationCache {
+
+  private static final String USERNAME = "hansolo";
+  private static final String OTHER_USERNAME = "chewie";
+  private static final List<GrantedAuthority> ROLES =
+      Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+
+  private SimpleMeterRegistry meterRegistry;
+  private JwtValidationCache cache;
+
+  @Before
+  public void setupBeforeEachTest() {
+    meterRegistry = new SimpleMeterRegistry();
+    cache = new JwtValidationCache(meterRegistry, 2);
+  }
+
+  @Test
+  public void whenTokenIsCachedThenHitsAndMissesAreCounted() {
+    final Date now = new Date();
+    assertThat(cache.get("token-1")).isNull();
+    cache.put("token-1", USERNAME, ROLES, now, new Date(now.getTime() + 60000));
+
+    final JwtValidationCache.ValidatedToken validatedToken = cache.get("token-1");
+
+    assertThat(validatedToken.getUsername()).isEqualTo(USERNAME);
+    assertThat(validatedToken.getRoles()).isEqualTo(ROLES);
+    assertThat(cache.get("token-2")).isNull();
+    assertThat(hitCount()).isEqualTo(1.0);
+    assertThat(missCount()).isEqualTo(2.0);
+    assertThat(meterRegistry.get(JwtValidationCache.CACHE_SIZE_METRIC_NAME).gauge().value())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  public void whenTokenHasExpiredThenItIsEvicted() {
+    final Date issuedAt = new Date(System.currentTimeMillis() - 60000);
+    cache.put("token-1", USERNAME, ROLES, issuedAt, new Date(System.currentTimeMillis() - 1));
+
+    assertThat(cache.get("token-1")).isNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void whenTokenHasNoExpirationThenItIsNotCached() {
+    cache.put("token-1", USERNAME, ROLES, new Date(), null);
+    cache.put("token-2", USERNAME, ROLES, null, new Date());
+
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void whenCacheIsFullThenLeastRecentlyUsedTokenIsEvicted() {
+    final Date now = new Date();
+    final Date expiration = new Date(now.getTime() + 60000);
+    cache.put("token-1", USERNAME, ROLES, now, expiration);
+    cache.put("token-2", USERNAME, ROLES, now, expiration);
+    assertThat(cache.get("token-1")).isNotNull();
+
+    cache.put("token-3", USERNAME, ROLES, now, expiration);
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.get("token-1")).isNotNull();
+    assertThat(cache.get("token-2")).isNull();
+    assertThat(cache.get("token-3")).isNotNull();
+  }
+
+  @Test
+  public void whenPasswordIsResetThenUsersOlderTokensAreEvictedAndRejected() {
+    final long now = System.currentTimeMillis();
+    final Date expiration = new Date(now + 60000);
+    final Date beforeReset = new Date(now - 10000);
+    final Date passwordReset = new Date(now - 5000);
+    final Date afterReset = new Date(now);
+    cache.put("old-token", USERNAME, ROLES, beforeReset, expiration);
+    cache.put("other-users-token", OTHER_USERNAME, ROLES, beforeReset, expiration);
+    assertThat(cache.isIssuedBeforePasswordReset(USERNAME, beforeReset)).isFalse();
+
+    cache.passwordReset(USERNAME, passwordReset);
+    cache.put("new-token", USERNAME, ROLES, afterReset, expiration);
+
+    assertThat(cache.get("old-token")).isNull();
+    assertThat(cache.get("other-users-token")).isNotNull();
+    assertThat(cache.get("new-token")).isNotNull();
+    assertThat(cache.isIssuedBeforePasswordReset(USERNAME, beforeReset)).isTrue();
+    assertThat(cache.isIssuedBeforePasswordReset(USERNAME, null)).isTrue();
+    assertThat(cache.isIssuedBeforePasswordReset(USERNAME, afterReset)).isFalse();
+    assertThat(cache.isIssuedBeforePasswordReset(OTHER_USERNAME, beforeReset)).isFalse();
+  }
+
+  @Test
+  public void whenTokenIsIssuedInSameSecondAsPasswordResetThenItIsAllowed() {
+    final Date passwordReset = new Date(1_600_000_000_900L);
+    final Date issuedAt = new Date(1_600_000_000_000L);
+
+    cache.passwordReset(USERNAME, passwordReset);
+    cache.passwordReset(USERNAME, passwordReset);
+    cache.passwordReset(USERNAME, null);
+
+    assertThat(cache.isIssuedBeforePasswordReset(USERNAME, issuedAt)).isFalse();
+    assertThat(cache.isIssuedBeforePasswordReset(USERNAME, new Date(1_599_999_999_999L)))
+        .isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenCreatedWithInvalidSizeThenExceptionIsThrown() {
+    new JwtValidationCache(meterRegistry, 0);
+  }
+
+  private double hitCount() {
+    return meterRegistry
+        .get(JwtValidationCache.CACHE_METRIC_NAME)
+        .tag("result", "hit")
+        .counter()
+        .count();
+  }
+
+  private double missCount() {
+    return meterRegistry
+        .get(JwtValidationCache.CACHE_METRIC_NAME)
+        .tag("result", "miss")
+        .counter()
+        .count();
+  }
+}
@@ -26,16 +26,21 @@ package com.gazbert.bxbot.rest.api.security.service;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import com.gazbert.bxbot.rest.api.security.jwt.JwtUser;
 import com.gazbert.bxbot.rest.api.security.jwt.JwtUserFactory;
+import com.gazbert.bxbot.rest.api.security.jwt.JwtValidationCache;
 import com.gazbert.bxbot.rest.api.security.model.User;
 import com.gazbert.bxbot.rest.api.security.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.powermock.api.easymock.PowerMock;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -46,6 +51,14 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
  * @author gazbert
  */
 @RunWith(PowerMockRunner.class)
+@PowerMockIgnore({
+    "javax.crypto.*",
+    "javax.management.*",
+    "com.sun.org.apache.xerces.*",
+    "javax.xml.parsers.*",
+    "org.xml.sax.*",
+    "org.w3c.dom.*"
+})
 @PrepareForTest({JwtUserFactory.class})
 public class TestJwtUserDetailsService {
 
@@ -53,10 +66,12 @@ public class TestJwtUserDetailsService {
   private static final String UNKNOWN_USERNAME = "unknown-username";
 
   private UserRepository userRepository;
+  private JwtValidationCache jwtValidationCache;
 
   @Before
   public void setup() {
     userRepository = PowerMock.createMock(UserRepository.class);
+    jwtValidationCache = new JwtValidationCache(new SimpleMeterRegistry(), 10);
   }
 
   @Test
@@ -64,14 +79,20 @@ public class TestJwtUserDetailsService {
     PowerMock.mockStatic(JwtUserFactory.class);
     final User user = PowerMock.createMock(User.class);
     final JwtUser jwtUser = EasyMock.createMock(JwtUser.class);
+    final Date lastPasswordResetDate = new Date();
 
     expect(userRepository.findByUsername(KNOWN_USERNAME)).andStubReturn(user);
+    expect(user.getLastPasswordResetDate()).andStubReturn(lastPasswordResetDate);
     expect(JwtUserFactory.create(eq(user))).andStubReturn(jwtUser);
     PowerMock.replayAll();
 
-    final JwtUserDetailsService jwtUserDetailsService = new JwtUserDetailsService(userRepository);
+    final JwtUserDetailsService jwtUserDetailsService =
+        new JwtUserDetailsService(userRepository, jwtValidationCache);
     final JwtUser userDetails = (JwtUser) jwtUserDetailsService.loadUserByUsername(KNOWN_USERNAME);
     assertEquals(jwtUser, userDetails);
+    assertTrue(
+        jwtValidationCache.isIssuedBeforePasswordReset(
+            KNOWN_USERNAME, new Date(lastPasswordResetDate.getTime() - 5000)));
 
     PowerMock.verifyAll();
   }
@@ -81,7 +102,8 @@ public class TestJwtUserDetailsService {
     expect(userRepository.findByUsername(UNKNOWN_USERNAME)).andStubReturn(null);
     PowerMock.replayAll();
 
-    final JwtUserDetailsService jwtUserDetailsService = new JwtUserDetailsService(userRepository);
+    final JwtUserDetailsService jwtUserDetailsService =
+        new JwtUserDetailsService(userRepository, jwtValidationCache);
     jwtUserDetailsService.loadUserByUsername(UNKNOWN_USERNAME);
 
     PowerMock.verifyAll();
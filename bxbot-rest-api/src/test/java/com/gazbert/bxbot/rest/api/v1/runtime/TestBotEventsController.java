@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.v1.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.gazbert.bxbot.core.engine.TradingEngine;
+import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.domain.bot.BotEvent;
+import com.gazbert.bxbot.services.runtime.BotEventService;
+import java.util.Collections;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.context.restart.RestartEndpoint;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Tests the Bot Events controller behaviour.
+ *
+ * @author gazbert
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@WebAppConfiguration
+public class TestBotEventsController extends AbstractRuntimeControllerTest {
+
+  private static final String EVENTS_ENDPOINT_URI = RUNTIME_ENDPOINT_BASE_URI + "/events";
+
+  @MockBean private BotEventService botEventService;
+
+  // Need these even though not used in the test directly because Spring loads it on startup...
+  @MockBean private TradingEngine tradingEngine;
+  @MockBean private EmailAlerter emailAlerter;
+  @MockBean private RestartEndpoint restartEndpoint;
+  @MockBean private LogFileWebEndpoint logFileWebEndpoint;
+  @MockBean private AuthenticationManager authenticationManager;
+
+  @Before
+  public void setupBeforeEachTest() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(ctx).addFilter(springSecurityFilterChain).build();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStreamEventsWithValidToken() throws Exception {
+    final BotEventService.Subscription subscription = mock(BotEventService.Subscription.class);
+    final ArgumentCaptor<Set<BotEvent.Type>> typesCaptor = ArgumentCaptor.forClass(Set.class);
+    final ArgumentCaptor<BotEventService.Sink> sinkCaptor =
+        ArgumentCaptor.forClass(BotEventService.Sink.class);
+    given(botEventService.subscribe(any(), any())).willReturn(subscription);
+
+    final MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(EVENTS_ENDPOINT_URI + "?types=CYCLE,ORDER")
+                    .header(
+                        "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD))
+                    .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    verify(botEventService).subscribe(typesCaptor.capture(), sinkCaptor.capture());
+    assertThat(typesCaptor.getValue()).containsOnly(BotEvent.Type.CYCLE, BotEvent.Type.ORDER);
+
+    sinkCaptor
+        .getValue()
+        .send(
+            new BotEvent(
+                7L,
+                BotEvent.Type.CYCLE,
+                1_600_000_000_000L,
+                null,
+                Collections.singletonMap("status", "COMPLETED")));
+
+    final String stream = mvcResult.getResponse().getContentAsString();
+    assertThat(stream).contains("id:7\n");
+    assertThat(stream).contains("event:CYCLE\n");
+    assertThat(stream).contains("\"data\":{\"status\":\"COMPLETED\"}");
+  }
+
+  @Test
+  public void testStreamEventsWithUnknownEventType() throws Exception {
+    mockMvc
+        .perform(
+            get(EVENTS_ENDPOINT_URI + "?types=CYCLE,JUNK")
+                .header("Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD))
+                .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testStreamEventsWhenUnauthorizedWithInvalidToken() throws Exception {
+    mockMvc
+        .perform(
+            get(EVENTS_ENDPOINT_URI)
+                .header("Authorization", "Bearer junk.web.token")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  public void testStreamEventsWhenUnauthorizedWithMissingToken() throws Exception {
+    mockMvc
+        .perform(get(EVENTS_ENDPOINT_URI).accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isUnauthorized());
+  }
+}
@@ -28,12 +28,15 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.gazbert.bxbot.core.engine.TradingEngine;
 import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.services.runtime.BotLogfileFollowService;
+import com.gazbert.bxbot.services.runtime.BotLogfileSearchService;
 import com.gazbert.bxbot.services.runtime.BotLogfileService;
 import java.io.IOException;
 import java.nio.charset.Charset;
@@ -81,6 +84,8 @@ public class TestBotLogfileController extends AbstractRuntimeControllerTest {
   @MockBean private TradingEngine tradingEngine;
   @MockBean private EmailAlerter emailAlerter;
   @MockBean private RestartEndpoint restartEndpoint;
+  @MockBean private BotLogfileFollowService botLogfileFollowService;
+  @MockBean private BotLogfileSearchService botLogfileSearchService;
   @MockBean private AuthenticationManager authenticationManager;
 
   @Before
@@ -106,6 +111,24 @@ public class TestBotLogfileController extends AbstractRuntimeControllerTest {
     verify(botLogfileService, times(1)).getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE);
   }
 
+  @Test
+  public void testDownloadLogfileRange() throws Exception {
+    final Resource resource = new ByteArrayResource(LOGFILE.getBytes(Charset.forName("UTF-8")));
+    given(botLogfileService.getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE)).willReturn(resource);
+
+    mockMvc
+        .perform(
+            get(LOGFILE_DOWNLOAD_URI)
+                .header("Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD))
+                .header("Range", "bytes=" + (LOGFILE.length() - LOGFILE_LINE_3.length()) + "-"))
+        .andDo(print())
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("Accept-Ranges", "bytes"))
+        .andExpect(content().string(LOGFILE_LINE_3));
+
+    verify(botLogfileService, times(1)).getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE);
+  }
+
   @Test
   public void testDownloadLogfileReturnsInternalServerErrorForIoException() throws Exception {
     given(botLogfileService.getLogfileAsResource(MAX_LOGFILE_DOWNLOAD_SIZE))
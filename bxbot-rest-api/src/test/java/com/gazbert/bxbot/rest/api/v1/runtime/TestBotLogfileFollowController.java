@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.v1.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.gazbert.bxbot.core.engine.TradingEngine;
+import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.services.runtime.BotLogfileFollowService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.context.restart.RestartEndpoint;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Tests the Bot Logfile follow controller behaviour.
+ *
+ * @author gazbert
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@WebAppConfiguration
+public class TestBotLogfileFollowController extends AbstractRuntimeControllerTest {
+
+  private static final String LOGFILE_FOLLOW_ENDPOINT_URI =
+      RUNTIME_ENDPOINT_BASE_URI + "/logfile/follow";
+
+  @MockBean private BotLogfileFollowService botLogfileFollowService;
+
+  // Need these even though not used in the test directly because Spring loads it on startup...
+  @MockBean private TradingEngine tradingEngine;
+  @MockBean private EmailAlerter emailAlerter;
+  @MockBean private RestartEndpoint restartEndpoint;
+  @MockBean private LogFileWebEndpoint logFileWebEndpoint;
+  @MockBean private AuthenticationManager authenticationManager;
+
+  @Before
+  public void setupBeforeEachTest() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(ctx).addFilter(springSecurityFilterChain).build();
+  }
+
+  @Test
+  public void testFollowLogfileWithValidToken() throws Exception {
+    final BotLogfileFollowService.Subscription subscription =
+        mock(BotLogfileFollowService.Subscription.class);
+    final ArgumentCaptor<BotLogfileFollowService.Sink> sinkCaptor =
+        ArgumentCaptor.forClass(BotLogfileFollowService.Sink.class);
+    given(botLogfileFollowService.follow(any(), any(), any(), any())).willReturn(subscription);
+
+    final MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(LOGFILE_FOLLOW_ENDPOINT_URI + "?level=WARN&logger=TradingEngine")
+                    .header(
+                        "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD))
+                    .accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isOk())
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    verify(botLogfileFollowService)
+        .follow(eq("WARN"), eq("TradingEngine"), isNull(), sinkCaptor.capture());
+
+    sinkCaptor.getValue().send("4981 [main] 2019-07-20 17:30:20,429 WARN  TradingEngine - Hmm");
+
+    final String stream = mvcResult.getResponse().getContentAsString();
+    assertThat(stream).contains("event:log\n");
+    assertThat(stream).contains("data:4981 [main] 2019-07-20 17:30:20,429 WARN  TradingEngine");
+  }
+
+  @Test
+  public void testFollowLogfileWithInvalidFilter() throws Exception {
+    given(botLogfileFollowService.follow(any(), any(), any(), any()))
+        .willThrow(new IllegalArgumentException("Unknown log level: LOUD"));
+
+    mockMvc
+        .perform(
+            get(LOGFILE_FOLLOW_ENDPOINT_URI + "?level=LOUD")
+                .header("Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD))
+                .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testFollowLogfileWhenNoLogfile() throws Exception {
+    given(botLogfileFollowService.follow(any(), any(), any(), any()))
+        .willThrow(new IllegalStateException("No logfile to follow"));
+
+    mockMvc
+        .perform(
+            get(LOGFILE_FOLLOW_ENDPOINT_URI)
+                .header("Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD))
+                .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isInternalServerError());
+  }
+
+  @Test
+  public void testFollowLogfileWhenUnauthorizedWithMissingToken() throws Exception {
+    mockMvc
+        .perform(get(LOGFILE_FOLLOW_ENDPOINT_URI).accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(status().isUnauthorized());
+  }
+}
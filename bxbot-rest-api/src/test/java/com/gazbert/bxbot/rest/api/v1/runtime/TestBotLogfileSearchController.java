@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.rest.api.v1.runtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.gazbert.bxbot.core.engine.TradingEngine;
+import com.gazbert.bxbot.core.mail.EmailAlerter;
+import com.gazbert.bxbot.services.runtime.BotLogfileSearchService;
+import java.time.LocalDateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.context.restart.RestartEndpoint;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Tests the Bot Logfile search controller behaviour.
+ *
+ * @author gazbert
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@WebAppConfiguration
+public class TestBotLogfileSearchController extends AbstractRuntimeControllerTest {
+
+  private static final String LOGFILE_SEARCH_ENDPOINT_URI =
+      RUNTIME_ENDPOINT_BASE_URI + "/logfile/search";
+
+  private static final String ERROR_LINE =
+      "4981 [main] 2019-07-20 17:30:20,429 ERROR TradingEngine execute() - btcusd failed";
+
+  // Set in src/test/resources/application.properties
+  private static final int MAX_LOGFILE_LINES = 2;
+
+  @MockBean private BotLogfileSearchService botLogfileSearchService;
+
+  // Need these even though not used in the test directly because Spring loads it on startup...
+  @MockBean private TradingEngine tradingEngine;
+  @MockBean private EmailAlerter emailAlerter;
+  @MockBean private RestartEndpoint restartEndpoint;
+  @MockBean private LogFileWebEndpoint logFileWebEndpoint;
+  @MockBean private AuthenticationManager authenticationManager;
+
+  @Before
+  public void setupBeforeEachTest() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(ctx).addFilter(springSecurityFilterChain).build();
+  }
+
+  @Test
+  public void testSearchLogfileWithValidToken() throws Exception {
+    given(botLogfileSearchService.search(any(), any(), any(), any(), anyInt()))
+        .willReturn(
+            sink -> {
+              sink.write(ERROR_LINE);
+              return 1;
+            });
+
+    final MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(LOGFILE_SEARCH_ENDPOINT_URI
+                        + "?from=2019-07-20T00:00:00&level=ERROR&words=btcusd&limit=1")
+                    .header(
+                        "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().string(ERROR_LINE + System.lineSeparator()));
+
+    verify(botLogfileSearchService)
+        .search(
+            eq(LocalDateTime.of(2019, 7, 20, 0, 0)), isNull(), eq("ERROR"), eq("btcusd"), eq(1));
+  }
+
+  @Test
+  public void testSearchLogfileLimitIsCappedAtMaxLogfileLines() throws Exception {
+    given(botLogfileSearchService.search(any(), any(), any(), any(), anyInt()))
+        .willReturn(sink -> 0);
+
+    final MvcResult mvcResult =
+        mockMvc
+            .perform(
+                get(LOGFILE_SEARCH_ENDPOINT_URI + "?limit=50")
+                    .header(
+                        "Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk());
+    verify(botLogfileSearchService)
+        .search(isNull(), isNull(), isNull(), isNull(), eq(MAX_LOGFILE_LINES));
+    assertThat(mvcResult.getResponse().getContentAsString()).isEmpty();
+  }
+
+  @Test
+  public void testSearchLogfileWithInvalidSearch() throws Exception {
+    given(botLogfileSearchService.search(any(), any(), any(), any(), anyInt()))
+        .willThrow(new IllegalArgumentException("Unknown log level: LOUD"));
+
+    mockMvc
+        .perform(
+            get(LOGFILE_SEARCH_ENDPOINT_URI + "?level=LOUD")
+                .header("Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testSearchLogfileWithInvalidTime() throws Exception {
+    mockMvc
+        .perform(
+            get(LOGFILE_SEARCH_ENDPOINT_URI + "?from=last-tuesday")
+                .header("Authorization", "Bearer " + getJwt(VALID_USER_NAME, VALID_USER_PASSWORD)))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  public void testSearchLogfileWhenUnauthorizedWithMissingToken() throws Exception {
+    mockMvc.perform(get(LOGFILE_SEARCH_ENDPOINT_URI)).andExpect(status().isUnauthorized());
+  }
+}
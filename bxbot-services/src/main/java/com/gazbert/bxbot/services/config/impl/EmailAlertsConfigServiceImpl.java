@@ -29,7 +29,6 @@ import com.gazbert.bxbot.services.config.EmailAlertsConfigService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -48,8 +47,7 @@ public class EmailAlertsConfigServiceImpl implements EmailAlertsConfigService {
   private final EmailAlertsConfigRepository emailAlertsConfigRepository;
 
   @Autowired
-  public EmailAlertsConfigServiceImpl(@Qualifier("emailAlertsConfigYamlRepository")
-      EmailAlertsConfigRepository emailAlertsConfigRepository) {
+  public EmailAlertsConfigServiceImpl(EmailAlertsConfigRepository emailAlertsConfigRepository) {
     this.emailAlertsConfigRepository = emailAlertsConfigRepository;
   }
 
@@ -29,7 +29,6 @@ import com.gazbert.bxbot.services.config.EngineConfigService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -48,8 +47,7 @@ public class EngineConfigServiceImpl implements EngineConfigService {
   private final EngineConfigRepository engineConfigRepository;
 
   @Autowired
-  public EngineConfigServiceImpl(@Qualifier("engineConfigYamlRepository")
-                                       EngineConfigRepository engineConfigRepository) {
+  public EngineConfigServiceImpl(EngineConfigRepository engineConfigRepository) {
     this.engineConfigRepository = engineConfigRepository;
   }
 
@@ -30,7 +30,6 @@ import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -49,8 +48,7 @@ public class MarketConfigServiceImpl implements MarketConfigService {
   private final MarketConfigRepository marketConfigRepository;
 
   @Autowired
-  public MarketConfigServiceImpl(@Qualifier("marketConfigYamlRepository")
-      MarketConfigRepository marketConfigRepository) {
+  public MarketConfigServiceImpl(MarketConfigRepository marketConfigRepository) {
     this.marketConfigRepository = marketConfigRepository;
   }
 
@@ -30,7 +30,6 @@ import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -49,8 +48,7 @@ public class StrategyConfigServiceImpl implements StrategyConfigService {
   private final StrategyConfigRepository strategyConfigRepository;
 
   @Autowired
-  public StrategyConfigServiceImpl(@Qualifier("strategyConfigYamlRepository")
-                                         StrategyConfigRepository strategyConfigRepository) {
+  public StrategyConfigServiceImpl(StrategyConfigRepository strategyConfigRepository) {
     this.strategyConfigRepository = strategyConfigRepository;
   }
 
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime;
+
+import com.gazbert.bxbot.domain.bot.BotEvent;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The Bot event streaming service.
+ *
+ * <p>Each subscriber gets its own bounded buffer of events. If a subscriber cannot keep up, the
+ * oldest events in its buffer are dropped and it is sent a {@link BotEvent.Type#DROPPED} event;
+ * a slow subscriber never holds up the Trading Engine or the other subscribers.
+ *
+ * @author gazbert
+ */
+public interface BotEventService {
+
+  /**
+   * Subscribes to the Bot's events. The subscriber is first sent the latest balances and top of
+   * book for each Market, if it wants those types, then every new event as it happens.
+   *
+   * @param eventTypes the types of event to send. Empty means all types.
+   * @param sink where to send the events.
+   * @return the subscription. Close it to unsubscribe.
+   */
+  Subscription subscribe(Set<BotEvent.Type> eventTypes, Sink sink);
+
+  /** Receives the events for a subscriber. */
+  interface Sink {
+
+    /**
+     * Sends an event to the subscriber. Called on a streaming thread, never the Trading Engine's.
+     *
+     * @param event the event.
+     * @throws IOException if the event could not be sent. The subscription is closed.
+     */
+    void send(BotEvent event) throws IOException;
+  }
+
+  /** A subscription to the Bot's events. */
+  interface Subscription {
+
+    /**
+     * Returns how many events have been dropped because the subscriber could not keep up.
+     *
+     * @return the number of events dropped.
+     */
+    long getDroppedCount();
+
+    /** Unsubscribes. No more events are sent. */
+    void close();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime;
+
+import java.io.IOException;
+
+/**
+ * The Bot logfile follow service - tail -f for the logfile.
+ *
+ * <p>One reader follows the logfile, whatever the number of followers, including across log
+ * rollovers. Each follower gets its own bounded buffer of lines; if a follower cannot keep up, its
+ * oldest lines are dropped and it is sent a line saying how many were dropped.
+ *
+ * @author gazbert
+ */
+public interface BotLogfileFollowService {
+
+  /**
+   * Follows the logfile. Only lines appended after the call are sent.
+   *
+   * <p>Continuation lines, e.g. stack traces, are filtered with the log line they belong to.
+   *
+   * @param level the lowest log level to send, e.g. WARN. All levels are sent if null.
+   * @param logger only send lines from loggers whose name contains this. All loggers if null.
+   * @param regex only send lines that contain a match for this regular expression. All lines if
+   *     null.
+   * @param sink where to send the lines.
+   * @return the subscription. Close it to stop following.
+   * @throws IllegalArgumentException if the level or regex is not valid.
+   */
+  Subscription follow(String level, String logger, String regex, Sink sink);
+
+  /** Receives the logfile lines for a follower. */
+  interface Sink {
+
+    /**
+     * Sends a line to the follower. Called on a streaming thread.
+     *
+     * @param line the line, without its line break.
+     * @throws IOException if the line could not be sent. The subscription is closed.
+     */
+    void send(String line) throws IOException;
+  }
+
+  /** A subscription to the logfile. */
+  interface Subscription {
+
+    /**
+     * Returns how many lines have been dropped because the follower could not keep up.
+     *
+     * @return the number of lines dropped.
+     */
+    long getDroppedCount();
+
+    /** Stops following. No more lines are sent. */
+    void close();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * The Bot logfile search service - searches the logfile and its rolled over archives.
+ *
+ * <p>The archives are indexed in the background, so searches only read the parts of them that can
+ * have matching lines.
+ *
+ * @author gazbert
+ */
+public interface BotLogfileSearchService {
+
+  /**
+   * Searches the logfile and its archives. The criteria are checked straight away, but nothing is
+   * read until the results are written.
+   *
+   * <p>Continuation lines, e.g. stack traces, have the time and level of the log line they belong
+   * to.
+   *
+   * @param from the earliest time to search from, in the bot's local time. No limit if null.
+   * @param to the time to search up to, exclusive. No limit if null.
+   * @param level the lowest log level to match, e.g. WARN. All levels if null.
+   * @param words the words that must all be in a line, e.g. "btcusd failed". Case is ignored. Any
+   *     line matches if null.
+   * @param maxLines the maximum number of lines to return.
+   * @return the search results.
+   * @throws IllegalArgumentException if the criteria are not valid.
+   */
+  SearchResults search(
+      LocalDateTime from, LocalDateTime to, String level, String words, int maxLines);
+
+  /** The results of a search. */
+  interface SearchResults {
+
+    /**
+     * Runs the search, writing the matching lines in the order they were logged.
+     *
+     * @param sink where to write the lines.
+     * @return the number of lines written.
+     * @throws IOException if the logfiles could not be read, or a line could not be written.
+     */
+    long writeTo(Sink sink) throws IOException;
+  }
+
+  /** Receives the lines found by a search. */
+  interface Sink {
+
+    /**
+     * Writes a line.
+     *
+     * @param line the line, without its line break.
+     * @throws IOException if the line could not be written.
+     */
+    void write(String line) throws IOException;
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A subscriber with its own bounded buffer, drained to the subscriber on a streaming executor.
+ *
+ * <p>Offering an item never blocks. If the buffer is full, the oldest item is dropped. Whenever
+ * the buffer has items, a drain task is running on the streaming executor; there is never more
+ * than one, so items are sent in order. After items have been dropped, the subscriber is sent a
+ * notice saying how many, before the items that follow.
+ *
+ * @param <T> the type of item sent to the subscriber.
+ * @author gazbert
+ */
+public abstract class BoundedSubscriber<T> implements Runnable {
+
+  private final int bufferSize;
+  private final Executor streamingExecutor;
+
+  // All guarded by this.
+  private final ArrayDeque<T> buffer;
+  private T lastDropped;
+  private long droppedCount;
+  private long droppedSinceLastSend;
+  private boolean draining;
+  private boolean closed;
+
+  /**
+   * Creates the subscriber.
+   *
+   * @param bufferSize the maximum number of items buffered.
+   * @param streamingExecutor the executor the buffer is drained on.
+   */
+  protected BoundedSubscriber(int bufferSize, Executor streamingExecutor) {
+    this.bufferSize = bufferSize;
+    this.streamingExecutor = streamingExecutor;
+    buffer = new ArrayDeque<>(Math.min(bufferSize, 64));
+  }
+
+  /**
+   * Adds an item to the buffer and makes sure a drain task is running.
+   *
+   * @param item the item.
+   */
+  protected void offerItem(T item) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      if (buffer.size() == bufferSize) {
+        lastDropped = buffer.pollFirst();
+        droppedCount++;
+        droppedSinceLastSend++;
+      }
+      buffer.addLast(item);
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    try {
+      streamingExecutor.execute(this);
+    } catch (RejectedExecutionException e) {
+      streamingStopped();
+      close();
+    }
+  }
+
+  /** Sends the buffered items until the buffer is empty. */
+  @Override
+  public void run() {
+    while (true) {
+      final T item;
+      final boolean isDroppedNotice;
+      synchronized (this) {
+        if (closed || buffer.isEmpty()) {
+          draining = false;
+          return;
+        }
+        isDroppedNotice = droppedSinceLastSend > 0;
+        if (isDroppedNotice) {
+          item = createDroppedNotice(droppedSinceLastSend, lastDropped);
+          droppedSinceLastSend = 0;
+        } else {
+          item = buffer.pollFirst();
+        }
+      }
+      try {
+        if (isDroppedNotice || isWanted(item)) {
+          send(item);
+        }
+      } catch (Exception e) {
+        sendFailed(e);
+        close();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns how many items have been dropped because the subscriber could not keep up.
+   *
+   * @return the number of items dropped.
+   */
+  public synchronized long getDroppedCount() {
+    return droppedCount;
+  }
+
+  /** Closes the subscriber. Buffered items are discarded. Closing more than once is harmless. */
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      buffer.clear();
+      lastDropped = null;
+    }
+    closed();
+  }
+
+  /**
+   * Returns whether the subscriber wants an item. Called on the streaming executor before the item
+   * is sent, so a filter that may be slow only holds up this subscriber. Dropped notices are
+   * always sent.
+   *
+   * @param item the item.
+   * @return true to send the item, false to skip it.
+   */
+  protected boolean isWanted(T item) {
+    return true;
+  }
+
+  /**
+   * Sends an item to the subscriber. Called on the streaming executor, one item at a time.
+   *
+   * @param item the item.
+   * @throws Exception if the item could not be sent. The subscriber is closed.
+   */
+  protected abstract void send(T item) throws Exception;
+
+  /**
+   * Creates the notice sent after items have been dropped.
+   *
+   * @param count the number of items dropped since the last item was sent.
+   * @param lastDropped the last item dropped.
+   * @return the notice.
+   */
+  protected abstract T createDroppedNotice(long count, T lastDropped);
+
+  /**
+   * Called when an item could not be sent, before the subscriber is closed.
+   *
+   * @param e the reason.
+   */
+  protected abstract void sendFailed(Exception e);
+
+  /** Called when the streaming executor no longer takes tasks, before the subscriber is closed. */
+  protected abstract void streamingStopped();
+
+  /** Called once, after the subscriber is closed. */
+  protected abstract void closed();
+}
@@ -0,0 +1,225 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import com.gazbert.bxbot.services.runtime.BotLogfileFollowService;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import javax.annotation.PreDestroy;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the Bot logfile follow service.
+ *
+ * <p>A single reader thread polls the logfile while there are followers, and stops when the last
+ * one leaves. Each line read is parsed once, then offered to every follower whose filter it
+ * passes. The followers' buffers are drained by a pool of streaming threads.
+ *
+ * @author gazbert
+ */
+@Service("botLogfileFollowService")
+public class BotLogfileFollowServiceImpl implements BotLogfileFollowService {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final LogFileWebEndpoint logFileWebEndpoint;
+  private final int clientBufferSize;
+  private final long pollIntervalMillis;
+  private final ScheduledExecutorService readerExecutor;
+  private final ExecutorService streamingExecutor;
+
+  private final List<LogfileFollowSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+  // Guarded by this.
+  private LogfileFollower follower;
+  private ScheduledFuture<?> readerTask;
+
+  /**
+   * Creates the Bot logfile follow service.
+   *
+   * @param logFileWebEndpoint the logfile endpoint, to find the logfile.
+   * @param clientBufferSize the maximum number of lines buffered for each follower.
+   * @param pollIntervalMillis how often to check the logfile for new lines.
+   */
+  @Autowired
+  public BotLogfileFollowServiceImpl(
+      LogFileWebEndpoint logFileWebEndpoint,
+      @Value("${bxbot.logfile.follow.clientBufferSize:1000}") int clientBufferSize,
+      @Value("${bxbot.logfile.follow.pollIntervalMillis:250}") long pollIntervalMillis) {
+    if (clientBufferSize < 1) {
+      throw new IllegalArgumentException(
+          "Client buffer size must be positive: " + clientBufferSize);
+    }
+    if (pollIntervalMillis < 1) {
+      throw new IllegalArgumentException(
+          "Poll interval must be positive: " + pollIntervalMillis);
+    }
+    this.logFileWebEndpoint = logFileWebEndpoint;
+    this.clientBufferSize = clientBufferSize;
+    this.pollIntervalMillis = pollIntervalMillis;
+    readerExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "bxbot-logfile-follower");
+              thread.setDaemon(true);
+              return thread;
+            });
+    final AtomicInteger threadCount = new AtomicInteger();
+    streamingExecutor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "bxbot-logfile-stream-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @Override
+  public synchronized Subscription follow(String level, String logger, String regex, Sink sink) {
+    final Level minLevel = toLevel(level);
+    final Pattern pattern = isBlank(regex) ? null : Pattern.compile(regex);
+    final LogfileFollowSubscriber subscriber =
+        new LogfileFollowSubscriber(
+            minLevel,
+            isBlank(logger) ? null : logger,
+            pattern,
+            sink,
+            clientBufferSize,
+            streamingExecutor,
+            this::unsubscribe);
+    if (readerTask == null) {
+      startReader();
+    }
+    subscribers.add(subscriber);
+    return subscriber;
+  }
+
+  /** Stops following the logfile. */
+  @PreDestroy
+  public void close() {
+    subscribers.forEach(LogfileFollowSubscriber::close);
+    readerExecutor.shutdownNow();
+    streamingExecutor.shutdownNow();
+  }
+
+  int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  synchronized boolean isReaderRunning() {
+    return readerTask != null;
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void startReader() {
+    final Resource logfileResource = logFileWebEndpoint.logFile();
+    final Path logfile;
+    try {
+      if (logfileResource == null) {
+        throw new IOException("Logfile is not configured");
+      }
+      logfile = logfileResource.getFile().toPath();
+    } catch (IOException e) {
+      throw new IllegalStateException("No logfile to follow: " + e.getMessage(), e);
+    }
+    final LogfileFollower newFollower = new LogfileFollower(logfile, this::dispatch);
+    readerExecutor.execute(
+        () -> {
+          try {
+            newFollower.openAtEnd();
+          } catch (IOException e) {
+            LOG.warn(() -> "Failed to open logfile to follow: " + e.getMessage());
+          }
+        });
+    follower = newFollower;
+    readerTask =
+        readerExecutor.scheduleWithFixedDelay(
+            () -> poll(newFollower), pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private synchronized void unsubscribe(LogfileFollowSubscriber subscriber) {
+    subscribers.remove(subscriber);
+    if (subscribers.isEmpty() && readerTask != null) {
+      readerTask.cancel(false);
+      readerTask = null;
+      // Closed on the reader thread, after any poll in progress.
+      final LogfileFollower stoppedFollower = follower;
+      follower = null;
+      if (!readerExecutor.isShutdown()) {
+        readerExecutor.execute(stoppedFollower::close);
+      }
+    }
+  }
+
+  private void poll(LogfileFollower logfileFollower) {
+    try {
+      logfileFollower.poll();
+    } catch (IOException | RuntimeException e) {
+      // Not logged at INFO or above - it would be read back in again.
+      LOG.debug(() -> "Failed to read logfile: " + e.getMessage());
+    }
+  }
+
+  private void dispatch(String line, String level, String logger) {
+    for (final LogfileFollowSubscriber subscriber : subscribers) {
+      subscriber.offer(line, level, logger);
+    }
+  }
+
+  private static Level toLevel(String level) {
+    if (isBlank(level)) {
+      return null;
+    }
+    final Level minLevel = Level.getLevel(level.trim().toUpperCase(Locale.ROOT));
+    if (minLevel == null) {
+      throw new IllegalArgumentException("Unknown log level: " + level);
+    }
+    return minLevel;
+  }
+
+  private static boolean isBlank(String value) {
+    return value == null || value.trim().isEmpty();
+  }
+}
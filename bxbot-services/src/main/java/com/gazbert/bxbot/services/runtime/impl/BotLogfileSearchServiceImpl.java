@@ -0,0 +1,359 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import com.gazbert.bxbot.services.runtime.BotLogfileSearchService;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the Bot logfile search service.
+ *
+ * <p>The log archives are the gzipped files under the logfile's directory that log4j2 rolls the
+ * logfile into, e.g. logs/2019-07/bxbot-07-20-2019-1.log.gz. A background indexer builds a {@link
+ * LogArchiveIndex} for each new archive, and forgets the archives log4j2 deletes.
+ *
+ * <p>A search skips the archives, and the blocks within them, that the index says cannot have
+ * matching lines; only the lines in the other blocks are decoded and matched. A gzip stream cannot
+ * be read from the middle, so the skipped blocks before a matching block still have to be
+ * decompressed. Archives that are not indexed yet, and the current logfile, are read in full.
+ *
+ * @author gazbert
+ */
+@Service("botLogfileSearchService")
+public class BotLogfileSearchServiceImpl implements BotLogfileSearchService {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final String ARCHIVE_SUFFIX = ".log.gz";
+  private static final String INDEX_SUFFIX = ".idx";
+  // logs/yyyy-MM/bxbot-*.log.gz
+  private static final int ARCHIVE_DIRECTORY_DEPTH = 2;
+
+  private final LogFileWebEndpoint logFileWebEndpoint;
+  private final long indexIntervalSeconds;
+  private final Map<Path, LogArchiveIndex> indexes = new ConcurrentHashMap<>();
+  private ScheduledExecutorService indexerExecutor;
+
+  /**
+   * Creates the Bot logfile search service.
+   *
+   * @param logFileWebEndpoint the logfile endpoint, to find the logfile.
+   * @param indexIntervalSeconds how often to look for new log archives to index.
+   */
+  @Autowired
+  public BotLogfileSearchServiceImpl(
+      LogFileWebEndpoint logFileWebEndpoint,
+      @Value("${bxbot.logfile.search.indexIntervalSeconds:300}") long indexIntervalSeconds) {
+    if (indexIntervalSeconds < 1) {
+      throw new IllegalArgumentException(
+          "Index interval must be positive: " + indexIntervalSeconds);
+    }
+    this.logFileWebEndpoint = logFileWebEndpoint;
+    this.indexIntervalSeconds = indexIntervalSeconds;
+  }
+
+  /** Starts indexing the log archives in the background. */
+  @PostConstruct
+  public void start() {
+    indexerExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "bxbot-logfile-indexer");
+              thread.setDaemon(true);
+              thread.setPriority(Thread.MIN_PRIORITY);
+              return thread;
+            });
+    indexerExecutor.scheduleWithFixedDelay(
+        this::indexArchivesInBackground, 0, indexIntervalSeconds, TimeUnit.SECONDS);
+  }
+
+  /** Stops indexing the log archives. */
+  @PreDestroy
+  public void close() {
+    if (indexerExecutor != null) {
+      indexerExecutor.shutdownNow();
+    }
+  }
+
+  @Override
+  public SearchResults search(
+      LocalDateTime from, LocalDateTime to, String level, String words, int maxLines) {
+    if (maxLines < 1) {
+      throw new IllegalArgumentException("Max lines must be positive: " + maxLines);
+    }
+    final LogSearchCriteria criteria = new LogSearchCriteria(from, to, level, words);
+    return sink -> runSearch(new SearchRun(criteria, maxLines, sink));
+  }
+
+  /**
+   * Indexes the log archives that are not indexed yet, and forgets the ones that have gone.
+   *
+   * @throws IOException if the logs directory could not be read.
+   */
+  void indexArchives() throws IOException {
+    final Path logfile = getLogfile();
+    if (logfile == null) {
+      return;
+    }
+    final List<Path> archives = findArchives(logfile);
+    indexes.keySet().retainAll(archives);
+    for (final Path archive : archives) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      final LogArchiveIndex index = indexes.get(archive);
+      try {
+        if (index == null || !index.isFor(archive)) {
+          indexes.put(archive, loadOrBuildIndex(archive));
+        }
+      } catch (NoSuchFileException e) {
+        // Deleted by log4j2 since it was found.
+        indexes.remove(archive);
+      }
+    }
+    deleteOrphanedIndexFiles(logfile);
+  }
+
+  boolean isIndexed(Path archive) {
+    return indexes.containsKey(archive);
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void indexArchivesInBackground() {
+    try {
+      indexArchives();
+    } catch (IOException | RuntimeException e) {
+      LOG.warn(() -> "Failed to index log archives: " + e.getMessage());
+    }
+  }
+
+  private long runSearch(SearchRun run) throws IOException {
+    final Path logfile = getLogfile();
+    if (logfile == null) {
+      throw new IOException("Logfile is not configured");
+    }
+    for (final Path archive : findArchives(logfile)) {
+      try {
+        searchArchive(archive, run);
+      } catch (NoSuchFileException e) {
+        // Deleted by log4j2 since it was found.
+      }
+      if (run.isFinished()) {
+        return run.written;
+      }
+    }
+    try (InputStream in = Files.newInputStream(logfile)) {
+      run.scan(new LogLineReader(in), Long.MAX_VALUE, LogLines.NO_TIME, -1);
+    } catch (NoSuchFileException e) {
+      // Rolled over, and not created again yet.
+    }
+    return run.written;
+  }
+
+  private void searchArchive(Path archive, SearchRun run) throws IOException {
+    final LogArchiveIndex index = indexes.get(archive);
+    if (index == null || !index.isFor(archive)) {
+      try (InputStream in = openArchive(archive)) {
+        run.scan(new LogLineReader(in), Long.MAX_VALUE, LogLines.NO_TIME, -1);
+      }
+      return;
+    }
+
+    final List<LogArchiveIndex.Block> blocks =
+        index.getBlocks().stream().filter(run.criteria::mayMatch).collect(Collectors.toList());
+    if (blocks.isEmpty()) {
+      return;
+    }
+    try (InputStream in = openArchive(archive)) {
+      final LogLineReader reader = new LogLineReader(in);
+      for (final LogArchiveIndex.Block block : blocks) {
+        reader.skip(block.getOffset() - reader.getPosition());
+        if (!run.scan(reader, block.getLength(), block.getFirstTime(), block.getFirstLevel())
+            || run.isFinished()) {
+          return;
+        }
+      }
+    }
+  }
+
+  private LogArchiveIndex loadOrBuildIndex(Path archive) throws IOException {
+    final Path indexFile = archive.resolveSibling(archive.getFileName() + INDEX_SUFFIX);
+    if (Files.exists(indexFile)) {
+      try {
+        final LogArchiveIndex index = LogArchiveIndex.load(indexFile, archive);
+        if (index != null) {
+          return index;
+        }
+      } catch (IOException e) {
+        LOG.warn(() -> "Failed to load log archive index - rebuilding it: " + indexFile);
+      }
+    }
+
+    final long startTime = System.currentTimeMillis();
+    final LogArchiveIndex index = LogArchiveIndex.build(archive);
+    try {
+      index.save(indexFile);
+    } catch (IOException e) {
+      LOG.warn(() -> "Failed to save log archive index: " + indexFile + " - " + e.getMessage());
+    }
+    LOG.info(
+        () ->
+            "Indexed log archive "
+                + archive
+                + " in "
+                + (System.currentTimeMillis() - startTime)
+                + "ms");
+    return index;
+  }
+
+  private void deleteOrphanedIndexFiles(Path logfile) throws IOException {
+    final List<Path> indexFiles;
+    try (Stream<Path> files = Files.walk(logfile.getParent(), ARCHIVE_DIRECTORY_DEPTH)) {
+      indexFiles =
+          files
+              .filter(path -> path.getFileName().toString().endsWith(ARCHIVE_SUFFIX + INDEX_SUFFIX))
+              .collect(Collectors.toList());
+    }
+    for (final Path indexFile : indexFiles) {
+      final String fileName = indexFile.getFileName().toString();
+      final Path archive =
+          indexFile.resolveSibling(
+              fileName.substring(0, fileName.length() - INDEX_SUFFIX.length()));
+      if (!Files.exists(archive)) {
+        Files.deleteIfExists(indexFile);
+      }
+    }
+  }
+
+  private Path getLogfile() throws IOException {
+    final Resource logfile = logFileWebEndpoint.logFile();
+    return logfile == null ? null : logfile.getFile().toPath().toAbsolutePath();
+  }
+
+  /* Returns the archives, oldest first - each is written once, when the logfile rolls over. */
+  private static List<Path> findArchives(Path logfile) throws IOException {
+    final Path logsDirectory = logfile.getParent();
+    if (!Files.isDirectory(logsDirectory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.walk(logsDirectory, ARCHIVE_DIRECTORY_DEPTH)) {
+      return files
+          .filter(path -> path.getFileName().toString().endsWith(ARCHIVE_SUFFIX))
+          .filter(Files::isRegularFile)
+          .sorted(
+              Comparator.comparingLong(BotLogfileSearchServiceImpl::lastModified)
+                  .thenComparing(Comparator.naturalOrder()))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static long lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private static InputStream openArchive(Path archive) throws IOException {
+    return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(archive)));
+  }
+
+  /** The state of a search as it runs. */
+  private static final class SearchRun {
+
+    private final LogSearchCriteria criteria;
+    private final int maxLines;
+    private final Sink sink;
+    private long written;
+
+    SearchRun(LogSearchCriteria criteria, int maxLines, Sink sink) {
+      this.criteria = criteria;
+      this.maxLines = maxLines;
+      this.sink = sink;
+    }
+
+    /*
+     * Matches the lines in part of a logfile. Returns false if the rest of the logfile is after
+     * the end of the search.
+     */
+    boolean scan(LogLineReader reader, long length, long time, int level) throws IOException {
+      final long end = length == Long.MAX_VALUE ? Long.MAX_VALUE : reader.getPosition() + length;
+      long lineTime = time;
+      int lineLevel = level;
+      String line;
+      while (!isFinished() && reader.getPosition() < end && (line = reader.readLine()) != null) {
+        final Matcher matcher = LogLines.LOG_LINE.matcher(line);
+        if (matcher.find()) {
+          final long parsedTime = LogLines.parseTimestamp(matcher.group(LogLines.TIMESTAMP_GROUP));
+          if (parsedTime != LogLines.NO_TIME) {
+            lineTime = parsedTime;
+          }
+          lineLevel = LogLines.LEVELS.indexOf(matcher.group(LogLines.LEVEL_GROUP));
+        }
+        if (criteria.isAfterRange(lineTime)) {
+          return false;
+        }
+        if (criteria.matches(line, lineTime, lineLevel)) {
+          sink.write(line);
+          written++;
+        }
+      }
+      return true;
+    }
+
+    boolean isFinished() {
+      return written >= maxLines;
+    }
+  }
+}
@@ -24,20 +24,25 @@
 package com.gazbert.bxbot.services.runtime.impl;
 
 import com.gazbert.bxbot.services.runtime.BotLogfileService;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
-import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
@@ -51,6 +56,7 @@ public class BotLogfileServiceImpl implements BotLogfileService {
 
   private static final Logger LOG = LogManager.getLogger();
   private static final String NEWLINE = System.getProperty("line.separator");
+  private static final int TAIL_BLOCK_SIZE = 8192;
   private LogFileWebEndpoint logFileWebEndpoint;
 
   @Autowired
@@ -61,22 +67,19 @@ public class BotLogfileServiceImpl implements BotLogfileService {
   @Override
   public Resource getLogfileAsResource(int maxFileSize) throws IOException {
     final Resource logfile = logFileWebEndpoint.logFile();
-    final long logfileLength = logfile.contentLength();
     try {
-      if (logfileLength <= maxFileSize) {
-        return logfile;
-      } else {
+      final File file = logfile.getFile();
+      final long logfileLength = file.length();
+      if (logfileLength > maxFileSize) {
         LOG.warn(
             () ->
                 "Logfile exceeds MaxFileSize. Truncating end of file. MaxFileSize: "
                     + maxFileSize
                     + " LogfileSize: "
                     + logfileLength);
-        final InputStream inputStream = logfile.getInputStream();
-        final byte[] truncatedLogfile = new byte[maxFileSize];
-        inputStream.readNBytes(truncatedLogfile, 0, maxFileSize);
-        return new ByteArrayResource(truncatedLogfile);
       }
+      // Streamed from the file as it is sent - the file is never loaded into memory.
+      return new LogfileResource(file, Math.min(logfileLength, maxFileSize));
     } catch (IOException e) {
       final String errorMsg = "Failed to load logfile. Details: " + e.getMessage();
       LOG.error(() -> errorMsg);
@@ -109,55 +112,64 @@ public class BotLogfileServiceImpl implements BotLogfileService {
     return truncatedFile.toString();
   }
 
+  /*
+   * Reads the file backwards from the end, a block at a time, until it has found the start of the
+   * last lineCount lines. Only those lines are read and decoded, so the cost depends on lineCount,
+   * not the size of the file.
+   */
   private static List<String> tailFile(final Path source, final int lineCount) throws IOException {
-    try (Stream<String> stream = Files.lines(source)) {
-      final FileBuffer fileBuffer = new FileBuffer(lineCount);
-      stream.forEach(fileBuffer::collectTailLine);
-      return fileBuffer.getTailLines();
+    if (lineCount < 1) {
+      return Collections.emptyList();
     }
-  }
-
-  private static List<String> headFile(final Path source, final int lineCount) throws IOException {
-    try (Stream<String> stream = Files.lines(source)) {
-      final FileBuffer fileBuffer = new FileBuffer(lineCount);
-      stream.forEach(fileBuffer::collectHeadLine);
-      return fileBuffer.getHeadLines();
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      final long start = findStartOfTail(channel, size, lineCount);
+      final ByteBuffer tail = ByteBuffer.allocate(Math.toIntExact(size - start));
+      readFully(channel, tail, start);
+      final String content =
+          new String(tail.array(), 0, tail.position(), StandardCharsets.UTF_8);
+      try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
+        return reader.lines().collect(Collectors.toList());
+      }
     }
   }
 
-  /** Util class for reading lines of a logfile. */
-  private static final class FileBuffer {
-    private int offset = 0;
-    private final int maxLines;
-    private final String[] lines;
-
-    FileBuffer(int maxLines) {
-      this.maxLines = maxLines;
-      this.lines = new String[maxLines];
-    }
-
-    void collectTailLine(String line) {
-      lines[offset++ % maxLines] = line;
-    }
-
-    void collectHeadLine(String line) {
-      if (offset + 1 <= maxLines) {
-        lines[offset++] = line;
+  private static long findStartOfTail(FileChannel channel, long size, int lineCount)
+      throws IOException {
+    final ByteBuffer block = ByteBuffer.allocate(TAIL_BLOCK_SIZE);
+    long blockStart = size;
+    int lineBreaks = 0;
+    while (blockStart > 0) {
+      final int blockLength = (int) Math.min(TAIL_BLOCK_SIZE, blockStart);
+      blockStart -= blockLength;
+      block.clear().limit(blockLength);
+      readFully(channel, block, blockStart);
+      for (int i = block.position() - 1; i >= 0; i--) {
+        // A line break at the very end of the file ends the last line; it does not start one.
+        if (block.get(i) == '\n' && blockStart + i != size - 1 && ++lineBreaks == lineCount) {
+          return blockStart + i + 1;
+        }
       }
     }
+    return 0;
+  }
 
-    List<String> getTailLines() {
-      // Truncates the file head if file line count > maxLines
-      return IntStream.range(offset < maxLines ? 0 : offset - maxLines, offset)
-          .mapToObj(idx -> lines[idx % maxLines])
-          .collect(Collectors.toList());
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    long readPosition = position;
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, readPosition);
+      if (read < 0) {
+        return; // the file was truncated, e.g. rolled over, while we were reading it
+      }
+      readPosition += read;
     }
+  }
 
-    List<String> getHeadLines() {
-      // Truncates the file tail if file line count > maxLines
-      return IntStream.range(0, maxLines > offset ? offset : maxLines)
-          .mapToObj(idx -> lines[idx % maxLines])
-          .collect(Collectors.toList());
+  private static List<String> headFile(final Path source, final int lineCount) throws IOException {
+    // Lines are read lazily, so only the head of the file is read.
+    try (Stream<String> stream = Files.lines(source)) {
+      return stream.limit(Math.max(lineCount, 0)).collect(Collectors.toList());
     }
   }
 }
@@ -0,0 +1,317 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A compact index of a gzipped log archive, so searches can skip the parts of it that cannot
+ * match.
+ *
+ * <p>The archive is split into blocks of about {@link #BLOCK_SIZE} uncompressed bytes, always at a
+ * line break. For each block, the index has its byte range, its time range, the log levels in it
+ * and a Bloom filter of the words in it. Only words with a letter in them are indexed - numbers,
+ * e.g. in timestamps, would fill up the filter.
+ *
+ * <p>The index is saved next to the archive, so it is only built once.
+ *
+ * @author gazbert
+ */
+final class LogArchiveIndex {
+
+  /** About how many uncompressed bytes of the archive are in each block. */
+  static final int BLOCK_SIZE = 1 << 20;
+
+  private static final int BLOOM_FILTER_BITS = 16384;
+  private static final int BLOOM_FILTER_HASHES = 3;
+  private static final int BLOOM_FILTER_WORDS = BLOOM_FILTER_BITS / Long.SIZE;
+
+  private static final int FILE_MAGIC = 0x42584958;
+  private static final int FILE_VERSION = 1;
+
+  private final long archiveSize;
+  private final long archiveLastModified;
+  private final List<Block> blocks;
+
+  private LogArchiveIndex(long archiveSize, long archiveLastModified, List<Block> blocks) {
+    this.archiveSize = archiveSize;
+    this.archiveLastModified = archiveLastModified;
+    this.blocks = Collections.unmodifiableList(blocks);
+  }
+
+  /**
+   * Builds the index of an archive.
+   *
+   * @param archive the gzipped log archive.
+   * @return the index.
+   * @throws IOException if the archive could not be read.
+   */
+  static LogArchiveIndex build(Path archive) throws IOException {
+    final BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+    final List<Block> blocks = new ArrayList<>();
+    try (InputStream in =
+        new GZIPInputStream(new BufferedInputStream(Files.newInputStream(archive)))) {
+      final LogLineReader reader = new LogLineReader(in);
+      long time = LogLines.NO_TIME;
+      int level = -1;
+      Block block = null;
+      long lineOffset = reader.getPosition();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (block == null) {
+          block = new Block(lineOffset, time, level);
+        }
+        final Matcher matcher = LogLines.LOG_LINE.matcher(line);
+        if (matcher.find()) {
+          final long lineTime = LogLines.parseTimestamp(matcher.group(LogLines.TIMESTAMP_GROUP));
+          if (lineTime != LogLines.NO_TIME) {
+            time = lineTime;
+          }
+          level = LogLines.LEVELS.indexOf(matcher.group(LogLines.LEVEL_GROUP));
+        }
+        block.add(line, time, level);
+        if (reader.getPosition() - block.offset >= BLOCK_SIZE) {
+          block.length = reader.getPosition() - block.offset;
+          blocks.add(block);
+          block = null;
+        }
+        lineOffset = reader.getPosition();
+      }
+      if (block != null) {
+        block.length = reader.getPosition() - block.offset;
+        blocks.add(block);
+      }
+    }
+    return new LogArchiveIndex(
+        attributes.size(), attributes.lastModifiedTime().toMillis(), blocks);
+  }
+
+  /**
+   * Loads a saved index.
+   *
+   * @param indexFile the saved index.
+   * @param archive the archive the index is for.
+   * @return the index, or null if it is not for the archive as it is now.
+   * @throws IOException if the index could not be read.
+   */
+  static LogArchiveIndex load(Path indexFile, Path archive) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+      if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+        return null;
+      }
+      final long archiveSize = in.readLong();
+      final long archiveLastModified = in.readLong();
+      final int blockCount = in.readInt();
+      final List<Block> blocks = new ArrayList<>(blockCount);
+      for (int i = 0; i < blockCount; i++) {
+        final Block block = new Block(in.readLong(), in.readLong(), in.readInt());
+        block.length = in.readLong();
+        block.lastTime = in.readLong();
+        block.levels = in.readInt();
+        for (int j = 0; j < BLOOM_FILTER_WORDS; j++) {
+          block.bloomFilter[j] = in.readLong();
+        }
+        blocks.add(block);
+      }
+      final LogArchiveIndex index = new LogArchiveIndex(archiveSize, archiveLastModified, blocks);
+      return index.isFor(archive) ? index : null;
+    }
+  }
+
+  /**
+   * Saves the index. The file is replaced in one go, so a half written index is never loaded.
+   *
+   * @param indexFile where to save the index.
+   * @throws IOException if the index could not be written.
+   */
+  void save(Path indexFile) throws IOException {
+    final Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+      out.writeInt(FILE_MAGIC);
+      out.writeInt(FILE_VERSION);
+      out.writeLong(archiveSize);
+      out.writeLong(archiveLastModified);
+      out.writeInt(blocks.size());
+      for (final Block block : blocks) {
+        out.writeLong(block.offset);
+        out.writeLong(block.firstTime);
+        out.writeInt(block.firstLevel);
+        out.writeLong(block.length);
+        out.writeLong(block.lastTime);
+        out.writeInt(block.levels);
+        for (final long bloomFilterWord : block.bloomFilter) {
+          out.writeLong(bloomFilterWord);
+        }
+      }
+    }
+    Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Checks the index is for an archive as it is now, i.e. the archive has not been replaced.
+   *
+   * @param archive the archive.
+   * @return true if the index is for the archive.
+   * @throws IOException if the archive could not be read.
+   */
+  boolean isFor(Path archive) throws IOException {
+    final BasicFileAttributes attributes = Files.readAttributes(archive, BasicFileAttributes.class);
+    return attributes.size() == archiveSize
+        && attributes.lastModifiedTime().toMillis() == archiveLastModified;
+  }
+
+  List<Block> getBlocks() {
+    return blocks;
+  }
+
+  /**
+   * Checks if a word is indexed. Words that are not can never be used to skip blocks.
+   *
+   * @param word the word, in lower case.
+   * @return true if the word is indexed.
+   */
+  static boolean isIndexed(String word) {
+    for (int i = 0; i < word.length(); i++) {
+      if (Character.isLetter(word.charAt(i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** The index of a block of an archive. */
+  static final class Block {
+
+    private final long offset;
+    private final long firstTime;
+    private final int firstLevel;
+    private final long[] bloomFilter = new long[BLOOM_FILTER_WORDS];
+    private long length;
+    private long lastTime;
+    private int levels;
+
+    private Block(long offset, long firstTime, int firstLevel) {
+      this.offset = offset;
+      this.firstTime = firstTime;
+      this.firstLevel = firstLevel;
+      lastTime = firstTime;
+    }
+
+    /** Returns the offset of the block in the uncompressed archive. */
+    long getOffset() {
+      return offset;
+    }
+
+    /** Returns the length of the block in the uncompressed archive. */
+    long getLength() {
+      return length;
+    }
+
+    /**
+     * Returns the time at the start of the block - that of the last log line before it - or {@link
+     * LogLines#NO_TIME} if not known. Lines at the start of the block that are not log lines, e.g.
+     * stack traces, have this time.
+     */
+    long getFirstTime() {
+      return firstTime;
+    }
+
+    /** Returns the level at the start of the block, or -1 if not known. */
+    int getFirstLevel() {
+      return firstLevel;
+    }
+
+    /**
+     * Returns the time of the block's last line, or {@link LogLines#NO_TIME} if not known.
+     */
+    long getLastTime() {
+      return lastTime;
+    }
+
+    /**
+     * Returns the levels in the block, as bits set at their index in {@link LogLines#LEVELS}.
+     */
+    int getLevels() {
+      return levels;
+    }
+
+    /**
+     * Checks if the block may contain a word. False positives are possible, but rare.
+     *
+     * @param word the word, in lower case.
+     * @return false if the block does not contain the word.
+     */
+    boolean mayContainWord(String word) {
+      final int hash1 = word.hashCode();
+      final int hash2 = secondHash(hash1);
+      for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+        final int bit = Math.floorMod(hash1 + i * hash2, BLOOM_FILTER_BITS);
+        if ((bloomFilter[bit / Long.SIZE] & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void add(String line, long time, int level) {
+      if (time != LogLines.NO_TIME) {
+        lastTime = time;
+      }
+      if (level >= 0) {
+        levels |= 1 << level;
+      }
+      for (final String word : LogLines.words(line)) {
+        if (isIndexed(word)) {
+          final int hash1 = word.hashCode();
+          final int hash2 = secondHash(hash1);
+          for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+            final int bit = Math.floorMod(hash1 + i * hash2, BLOOM_FILTER_BITS);
+            bloomFilter[bit / Long.SIZE] |= 1L << bit;
+          }
+        }
+      }
+    }
+
+    private static int secondHash(int hash) {
+      final int mixed = hash * 0x9E3779B9;
+      return (mixed ^ (mixed >>> 16)) | 1;
+    }
+  }
+}
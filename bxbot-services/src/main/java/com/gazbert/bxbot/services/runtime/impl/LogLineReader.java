@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads UTF-8 lines from a stream, keeping count of the bytes read, so the byte offset of each
+ * line is known.
+ *
+ * @author gazbert
+ */
+final class LogLineReader {
+
+  private static final int BUFFER_SIZE = 65536;
+
+  private final InputStream in;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int bufferPosition;
+  private int bufferLimit;
+  private byte[] line = new byte[256];
+  private long position;
+
+  LogLineReader(InputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * Reads the next line.
+   *
+   * @return the line, without its line break, or null at the end of the stream.
+   * @throws IOException if the stream could not be read.
+   */
+  String readLine() throws IOException {
+    int lineLength = 0;
+    while (true) {
+      if (bufferPosition == bufferLimit) {
+        bufferLimit = in.read(buffer);
+        bufferPosition = 0;
+        if (bufferLimit <= 0) {
+          bufferLimit = 0;
+          return lineLength == 0 ? null : toString(lineLength);
+        }
+      }
+      int end = bufferPosition;
+      while (end < bufferLimit && buffer[end] != '\n') {
+        end++;
+      }
+      final int length = end - bufferPosition;
+      if (lineLength + length > line.length) {
+        line = Arrays.copyOf(line, Math.max(lineLength + length, line.length * 2));
+      }
+      System.arraycopy(buffer, bufferPosition, line, lineLength, length);
+      lineLength += length;
+      position += length;
+      bufferPosition = end;
+      if (end < bufferLimit) {
+        // Skip the line break.
+        bufferPosition++;
+        position++;
+        return toString(lineLength);
+      }
+    }
+  }
+
+  /**
+   * Skips bytes, without decoding them.
+   *
+   * @param count the number of bytes to skip.
+   * @throws IOException if the stream could not be read.
+   */
+  void skip(long count) throws IOException {
+    long remaining = count;
+    final int buffered = (int) Math.min(remaining, bufferLimit - bufferPosition);
+    bufferPosition += buffered;
+    remaining -= buffered;
+    while (remaining > 0) {
+      final long skipped = in.skip(remaining);
+      if (skipped <= 0) {
+        if (in.read() < 0) {
+          break;
+        }
+        remaining--;
+        position++;
+      } else {
+        remaining -= skipped;
+        position += skipped;
+      }
+    }
+    position += buffered;
+  }
+
+  /**
+   * Returns the number of bytes read or skipped so far.
+   *
+   * @return the byte offset of the next line.
+   */
+  long getPosition() {
+    return position;
+  }
+
+  private String toString(int lineLength) {
+    int length = lineLength;
+    if (length > 0 && line[length - 1] == '\r') {
+      length--;
+    }
+    return new String(line, 0, length, StandardCharsets.UTF_8);
+  }
+}
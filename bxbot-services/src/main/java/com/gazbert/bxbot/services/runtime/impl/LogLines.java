@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utils for parsing the lines the bot writes to its logfile.
+ *
+ * @author gazbert
+ */
+final class LogLines {
+
+  /**
+   * Matches the start of a log line in the layout in config/log4j2.xml and config/log4j2-async.xml:
+   * %-4r [%t] %d %-5p %c{1} ... Lines that don't match, e.g. stack traces, belong to the log line
+   * before them.
+   */
+  static final Pattern LOG_LINE =
+      Pattern.compile(
+          "^\\d+\\s+\\[[^]]*]\\s+(\\S+\\s+\\S+)\\s+(TRACE|DEBUG|INFO|WARN|ERROR|FATAL)\\s+(\\S+)");
+
+  static final int TIMESTAMP_GROUP = 1;
+  static final int LEVEL_GROUP = 2;
+  static final int LOGGER_GROUP = 3;
+
+  /** The log levels, from least to most severe. */
+  static final List<String> LEVELS =
+      List.of("TRACE", "DEBUG", "INFO", "WARN", "ERROR", "FATAL");
+
+  /** Used for times that are not known. */
+  static final long NO_TIME = Long.MIN_VALUE;
+
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss,SSS");
+
+  private LogLines() {
+  }
+
+  /**
+   * Converts a logfile timestamp to a time. The time zone is ignored - the logfile is written in
+   * the bot's local time, and so are searches.
+   *
+   * @param timestamp the timestamp, e.g. 2019-07-20 17:30:20,429
+   * @return the time in millis, or {@link #NO_TIME} if the timestamp could not be parsed.
+   */
+  static long parseTimestamp(String timestamp) {
+    try {
+      return toMillis(LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT));
+    } catch (DateTimeParseException e) {
+      return NO_TIME;
+    }
+  }
+
+  static long toMillis(LocalDateTime dateTime) {
+    return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  /**
+   * Returns the words in some text: the runs of letters and digits, in lower case.
+   *
+   * @param text the text.
+   * @return the words, in the order they appear.
+   */
+  static List<String> words(String text) {
+    final List<String> words = new ArrayList<>();
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      final boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  /**
+   * Checks if some lower case text contains a word, i.e. not just as part of a longer word.
+   *
+   * @param lowerCaseText the text, in lower case.
+   * @param word the word, in lower case.
+   * @return true if the text contains the word.
+   */
+  static boolean containsWord(String lowerCaseText, String word) {
+    int from = 0;
+    while (true) {
+      final int index = lowerCaseText.indexOf(word, from);
+      if (index < 0) {
+        return false;
+      }
+      final int end = index + word.length();
+      if ((index == 0 || !Character.isLetterOrDigit(lowerCaseText.charAt(index - 1)))
+          && (end == lowerCaseText.length()
+              || !Character.isLetterOrDigit(lowerCaseText.charAt(end)))) {
+        return true;
+      }
+      from = index + 1;
+    }
+  }
+}
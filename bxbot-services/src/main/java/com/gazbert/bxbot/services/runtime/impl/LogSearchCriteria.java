@@ -0,0 +1,136 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * What to search the logfiles for: a time range, a lowest log level and words that must all be in
+ * a line.
+ *
+ * @author gazbert
+ */
+final class LogSearchCriteria {
+
+  private final long fromTime;
+  private final long toTime;
+  private final int minLevel;
+  private final List<String> words;
+  private final List<String> indexedWords;
+
+  /**
+   * Creates the criteria.
+   *
+   * @param from the earliest time to search from, or null for no limit.
+   * @param to the time to search up to, exclusive, or null for no limit.
+   * @param level the lowest log level, or null for all levels.
+   * @param words the words that must all be in a line, or null for any line.
+   * @throws IllegalArgumentException if the level is not known, or the time range is empty.
+   */
+  LogSearchCriteria(LocalDateTime from, LocalDateTime to, String level, String words) {
+    fromTime = from == null ? Long.MIN_VALUE : LogLines.toMillis(from);
+    toTime = to == null ? Long.MAX_VALUE : LogLines.toMillis(to);
+    if (fromTime >= toTime) {
+      throw new IllegalArgumentException("Search must end after it starts: " + from + " - " + to);
+    }
+    if (level == null || level.trim().isEmpty()) {
+      minLevel = -1;
+    } else {
+      minLevel = LogLines.LEVELS.indexOf(level.trim().toUpperCase(Locale.ROOT));
+      if (minLevel < 0) {
+        throw new IllegalArgumentException("Unknown log level: " + level);
+      }
+    }
+    this.words = words == null ? List.of() : LogLines.words(words);
+    indexedWords =
+        this.words.stream().filter(LogArchiveIndex::isIndexed).collect(Collectors.toList());
+  }
+
+  /**
+   * Checks if a line matches.
+   *
+   * @param line the line.
+   * @param time the time of the line, or {@link LogLines#NO_TIME} if not known.
+   * @param level the level of the line, as an index into {@link LogLines#LEVELS}, or -1 if not
+   *     known.
+   * @return true if the line matches.
+   */
+  boolean matches(String line, long time, int level) {
+    if (level < minLevel || !isInTimeRange(time)) {
+      return false;
+    }
+    if (words.isEmpty()) {
+      return true;
+    }
+    final String lowerCaseLine = line.toLowerCase(Locale.ROOT);
+    for (final String word : words) {
+      if (!LogLines.containsWord(lowerCaseLine, word)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if a block of an archive may have lines that match.
+   *
+   * @param block the index of the block.
+   * @return false if no line in the block can match.
+   */
+  boolean mayMatch(LogArchiveIndex.Block block) {
+    if (block.getLastTime() < fromTime
+        || block.getFirstTime() != LogLines.NO_TIME && block.getFirstTime() >= toTime) {
+      return false;
+    }
+    if (minLevel >= 0 && (block.getLevels() >>> minLevel) == 0) {
+      return false;
+    }
+    for (final String word : indexedWords) {
+      if (!block.mayContainWord(word)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if a line's time is past the end of the search.
+   *
+   * @param time the time of the line.
+   * @return true if no later line can match.
+   */
+  boolean isAfterRange(long time) {
+    return time != LogLines.NO_TIME && time >= toTime;
+  }
+
+  private boolean isInTimeRange(long time) {
+    if (time == LogLines.NO_TIME) {
+      return fromTime == Long.MIN_VALUE && toTime == Long.MAX_VALUE;
+    }
+    return time >= fromTime && time < toTime;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import com.gazbert.bxbot.services.runtime.BotLogfileFollowService;
+import com.gazbert.bxbot.services.runtime.BoundedSubscriber;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A follower of the logfile, with its own filter and bounded buffer of lines.
+ *
+ * <p>If the follower cannot keep up, the oldest lines are dropped; it is then sent a line saying
+ * how many, before the lines that follow.
+ *
+ * <p>The level and logger are checked on the reader thread, as each line is offered. The regex is
+ * supplied by the client, so it is matched on the follower's own streaming task instead: a regex
+ * that takes forever only holds up this follower, and is abandoned when the follower is closed.
+ * Lines that do not match the regex still take up room in the buffer until they are matched.
+ *
+ * @author gazbert
+ */
+final class LogfileFollowSubscriber extends BoundedSubscriber<String>
+    implements BotLogfileFollowService.Subscription {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Level minLevel;
+  private final String logger;
+  private final Pattern regex;
+  private final BotLogfileFollowService.Sink sink;
+  private final Consumer<LogfileFollowSubscriber> onClose;
+  private volatile boolean isClosed;
+
+  LogfileFollowSubscriber(
+      Level minLevel,
+      String logger,
+      Pattern regex,
+      BotLogfileFollowService.Sink sink,
+      int bufferSize,
+      Executor streamingExecutor,
+      Consumer<LogfileFollowSubscriber> onClose) {
+    super(bufferSize, streamingExecutor);
+    this.minLevel = minLevel;
+    this.logger = logger;
+    this.regex = regex;
+    this.sink = sink;
+    this.onClose = onClose;
+  }
+
+  /**
+   * Adds a line to the buffer, if it passes the level and logger filter, and makes sure a drain
+   * task is running.
+   *
+   * @param line the line.
+   * @param lineLevel the log level of the line, or null if not known.
+   * @param lineLogger the logger of the line, or null if not known.
+   */
+  void offer(String line, String lineLevel, String lineLogger) {
+    if (matches(lineLevel, lineLogger)) {
+      offerItem(line);
+    }
+  }
+
+  @Override
+  protected boolean isWanted(String line) {
+    return regex == null || regex.matcher(new CancellableLine(line)).find();
+  }
+
+  @Override
+  protected void send(String line) throws Exception {
+    sink.send(line);
+  }
+
+  @Override
+  protected String createDroppedNotice(long count, String lastDropped) {
+    return "... " + count + " lines dropped ...";
+  }
+
+  @Override
+  protected void sendFailed(Exception e) {
+    // Not logged at INFO or above - the line would be sent to the other followers.
+    LOG.debug(() -> "Failed to send logfile line - closing follower: " + e.getMessage());
+  }
+
+  @Override
+  protected void streamingStopped() {
+    LOG.warn(() -> "Logfile streaming has stopped - closing follower");
+  }
+
+  @Override
+  protected void closed() {
+    isClosed = true;
+    onClose.accept(this);
+  }
+
+  private boolean matches(String lineLevel, String lineLogger) {
+    if (minLevel != null
+        && (lineLevel == null || !Level.getLevel(lineLevel).isMoreSpecificThan(minLevel))) {
+      return false;
+    }
+    return logger == null || (lineLogger != null && lineLogger.contains(logger));
+  }
+
+  /*
+   * A line that stops a regex match in progress once the follower has been closed. The matcher
+   * reads the line a char at a time, so even a regex that backtracks forever soon sees it.
+   */
+  private final class CancellableLine implements CharSequence {
+
+    private final CharSequence line;
+
+    private CancellableLine(CharSequence line) {
+      this.line = line;
+    }
+
+    @Override
+    public int length() {
+      return line.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (isClosed) {
+        throw new CancellationException("Logfile follower has been closed");
+      }
+      return line.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new CancellableLine(line.subSequence(start, end));
+    }
+
+    @Override
+    public String toString() {
+      return line.toString();
+    }
+  }
+}
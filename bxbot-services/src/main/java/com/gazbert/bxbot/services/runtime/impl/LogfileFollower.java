@@ -0,0 +1,220 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Matcher;
+
+/**
+ * Follows a logfile, like tail -f, handing each appended line to a {@link LineHandler}.
+ *
+ * <p>Each call to {@link #poll()} reads whatever has been appended since the last call. A
+ * partial last line is held back until its line break has been written. Log rollover is spotted
+ * by the file at the logfile path changing (a new file key) or shrinking; the rest of the old file
+ * is read before the new one is read from the start.
+ *
+ * <p>The level and logger are parsed from lines in the bot's log4j2 layout - see {@link
+ * LogLines}. Lines that are not, e.g. stack traces, are given the level and logger of the log line
+ * before them.
+ *
+ * <p>Not thread safe - it is meant to be polled by a single reader thread.
+ *
+ * @author gazbert
+ */
+final class LogfileFollower {
+
+  /** Handles the lines read from the logfile. */
+  interface LineHandler {
+
+    /**
+     * Handles a line.
+     *
+     * @param line the line, without its line break.
+     * @param level the log level of the line, or null if not known.
+     * @param logger the logger of the line, or null if not known.
+     */
+    void onLine(String line, String level, String logger);
+  }
+
+  private static final int READ_BUFFER_SIZE = 65536;
+  private static final int MAX_LINE_LENGTH = 65536;
+
+  private final Path path;
+  private final LineHandler lineHandler;
+  private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+  private FileChannel channel;
+  private Object fileKey;
+  private long position;
+  private byte[] partialLine = new byte[256];
+  private int partialLineLength;
+  private String level;
+  private String logger;
+
+  LogfileFollower(Path path, LineHandler lineHandler) {
+    this.path = path;
+    this.lineHandler = lineHandler;
+  }
+
+  /**
+   * Opens the logfile at its end, so only lines appended from now on are read. If there is no
+   * logfile yet, it is read from the start once it has been created.
+   *
+   * @throws IOException if the logfile could not be opened.
+   */
+  void openAtEnd() throws IOException {
+    if (open()) {
+      position = channel.size();
+    }
+  }
+
+  /**
+   * Reads the lines appended since the last poll.
+   *
+   * @throws IOException if the logfile could not be read.
+   */
+  void poll() throws IOException {
+    if (channel == null && !open()) {
+      return;
+    }
+    readToEnd();
+    // Checked after reading - lines appended while reading must not look like a truncation.
+    final BasicFileAttributes attributes = readAttributes();
+    if (attributes != null
+        && (!Objects.equals(attributes.fileKey(), fileKey) || attributes.size() < position)) {
+      // Rolled over, or truncated: the rest of the old file has been read, now read the new one.
+      flushPartialLine();
+      close();
+      if (open()) {
+        readToEnd();
+      }
+    }
+  }
+
+  /** Closes the logfile. */
+  void close() {
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Nothing more can be done - we only read from it.
+      }
+      channel = null;
+    }
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private boolean open() throws IOException {
+    final BasicFileAttributes attributes = readAttributes();
+    if (attributes == null) {
+      return false;
+    }
+    try {
+      channel = FileChannel.open(path, StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+    fileKey = attributes.fileKey();
+    position = 0;
+    return true;
+  }
+
+  private BasicFileAttributes readAttributes() throws IOException {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  private void readToEnd() throws IOException {
+    while (true) {
+      readBuffer.clear();
+      final int read = channel.read(readBuffer, position);
+      if (read <= 0) {
+        return;
+      }
+      position += read;
+      final byte[] bytes = readBuffer.array();
+      int lineStart = 0;
+      for (int i = 0; i < read; i++) {
+        if (bytes[i] == '\n') {
+          appendToPartialLine(bytes, lineStart, i - lineStart);
+          flushPartialLine();
+          lineStart = i + 1;
+        }
+      }
+      appendToPartialLine(bytes, lineStart, read - lineStart);
+    }
+  }
+
+  private void appendToPartialLine(byte[] bytes, int offset, int length) {
+    if (partialLineLength + length > partialLine.length) {
+      partialLine =
+          Arrays.copyOf(
+              partialLine, Math.max(partialLineLength + length, partialLine.length * 2));
+    }
+    System.arraycopy(bytes, offset, partialLine, partialLineLength, length);
+    partialLineLength += length;
+    if (partialLineLength >= MAX_LINE_LENGTH) {
+      // Don't let a runaway line use up the heap.
+      flushPartialLine();
+    }
+  }
+
+  private void flushPartialLine() {
+    if (partialLineLength == 0) {
+      return;
+    }
+    int length = partialLineLength;
+    if (partialLine[length - 1] == '\r') {
+      length--;
+    }
+    final String line = new String(partialLine, 0, length, StandardCharsets.UTF_8);
+    partialLineLength = 0;
+    if (partialLine.length > MAX_LINE_LENGTH) {
+      partialLine = new byte[256];
+    }
+
+    final Matcher matcher = LogLines.LOG_LINE.matcher(line);
+    if (matcher.find()) {
+      level = matcher.group(LogLines.LEVEL_GROUP);
+      logger = matcher.group(LogLines.LOGGER_GROUP);
+    }
+    lineHandler.onLine(line, level, logger);
+  }
+}
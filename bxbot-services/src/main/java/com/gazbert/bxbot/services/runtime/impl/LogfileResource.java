@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import com.google.common.io.ByteStreams;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * The first length bytes of a logfile, streamed straight from the file.
+ *
+ * <p>The length is fixed when the resource is created, so a download's Content-Length still
+ * matches what is sent while the bot carries on logging. The input stream skips by seeking, so
+ * HTTP Range requests for the end of a large logfile do not read the start of it.
+ *
+ * @author gazbert
+ */
+class LogfileResource extends AbstractResource {
+
+  private final File file;
+  private final long length;
+
+  LogfileResource(File file, long length) {
+    this.file = file;
+    this.length = length;
+  }
+
+  @Override
+  public InputStream getInputStream() throws IOException {
+    return ByteStreams.limit(new FileInputStream(file), length);
+  }
+
+  @Override
+  public boolean exists() {
+    return file.exists();
+  }
+
+  @Override
+  public long contentLength() {
+    return length;
+  }
+
+  @Override
+  public String getFilename() {
+    return file.getName();
+  }
+
+  @Override
+  public String getDescription() {
+    return "Logfile [" + file.getAbsolutePath() + "], first " + length + " bytes";
+  }
+}
@@ -0,0 +1,414 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.services.runtime.BotLogfileFollowService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Tests Bot logfile follow service behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestBotLogfileFollowService {
+
+  private static final long TIMEOUT_SECONDS = 5;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path logfile;
+  private BotLogfileFollowServiceImpl followService;
+
+  /** Each test follows a logfile in its own temp folder, with one line in it already. */
+  @Before
+  public void setupBeforeEachTest() throws Exception {
+    logfile = temporaryFolder.getRoot().toPath().resolve("bxbot.log");
+    Files.write(logfile, (logLine(1, "INFO", "TradingEngine", "Existing line") + "\n").getBytes());
+    followService = createFollowService(1000);
+  }
+
+  @After
+  public void tearDown() {
+    followService.close();
+  }
+
+  @Test
+  public void whenFollowingThenOnlyAppendedLinesAreSent() throws Exception {
+    final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    followService.follow(null, null, null, lines::add);
+    waitForReaderToOpenLogfile();
+
+    append(logLine(2, "INFO", "TradingEngine", "First") + "\r\n");
+    append(logLine(3, "WARN", "TradingEngine", "Sec"));
+    append("ond\n");
+
+    assertThat(take(lines)).isEqualTo(logLine(2, "INFO", "TradingEngine", "First"));
+    assertThat(take(lines)).isEqualTo(logLine(3, "WARN", "TradingEngine", "Second"));
+    assertThat(lines.poll(100, TimeUnit.MILLISECONDS)).isNull();
+  }
+
+  @Test
+  public void whenFollowingByLevelThenContinuationLinesAreFilteredWithTheirLogLine()
+      throws Exception {
+    final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    followService.follow("warn", null, null, lines::add);
+    waitForReaderToOpenLogfile();
+
+    append(
+        logLine(2, "INFO", "TradingEngine", "Ignored")
+            + "\n"
+            + "java.lang.IllegalStateException: ignored\n"
+            + logLine(3, "ERROR", "TradingEngine", "Failed")
+            + "\n"
+            + "java.lang.IllegalStateException: boom\n"
+            + "\tat com.gazbert.bxbot.core.engine.TradingEngine.run(TradingEngine.java:1)\n"
+            + logLine(4, "DEBUG", "TradingEngine", "Ignored")
+            + "\n"
+            + logLine(5, "WARN", "TradingEngine", "Careful")
+            + "\n");
+
+    assertThat(take(lines)).isEqualTo(logLine(3, "ERROR", "TradingEngine", "Failed"));
+    assertThat(take(lines)).isEqualTo("java.lang.IllegalStateException: boom");
+    assertThat(take(lines))
+        .isEqualTo("\tat com.gazbert.bxbot.core.engine.TradingEngine.run(TradingEngine.java:1)");
+    assertThat(take(lines)).isEqualTo(logLine(5, "WARN", "TradingEngine", "Careful"));
+    assertThat(lines.poll(100, TimeUnit.MILLISECONDS)).isNull();
+  }
+
+  @Test
+  public void whenFollowingByLoggerAndRegexThenOnlyMatchingLinesAreSent() throws Exception {
+    final BlockingQueue<String> loggerLines = new LinkedBlockingQueue<>();
+    final BlockingQueue<String> regexLines = new LinkedBlockingQueue<>();
+    followService.follow(null, "Strategy", null, loggerLines::add);
+    followService.follow(null, null, "order-\\d+", regexLines::add);
+    waitForReaderToOpenLogfile();
+
+    append(
+        logLine(2, "INFO", "TradingEngine", "Placed order-42")
+            + "\n"
+            + logLine(3, "INFO", "ExampleScalpingStrategy", "Thinking")
+            + "\n");
+
+    assertThat(take(loggerLines))
+        .isEqualTo(logLine(3, "INFO", "ExampleScalpingStrategy", "Thinking"));
+    assertThat(take(regexLines))
+        .isEqualTo(logLine(2, "INFO", "TradingEngine", "Placed order-42"));
+    assertThat(loggerLines.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    assertThat(regexLines.poll()).isNull();
+  }
+
+  @Test
+  public void whenRegexIsSlowThenOtherFollowersAreNotHeldUp() throws Exception {
+    final BlockingQueue<String> slowLines = new LinkedBlockingQueue<>();
+    final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    // Backtracks through every way of splitting the line into 20 parts - years for the line below.
+    final BotLogfileFollowService.Subscription slowSubscription =
+        followService.follow(null, null, "(.*a){20}b", slowLines::add);
+    followService.follow(null, null, null, lines::add);
+    waitForReaderToOpenLogfile();
+
+    final String runawayLine = logLine(2, "INFO", "TradingEngine", "a".repeat(48) + "!");
+    append(runawayLine + "\n" + logLine(3, "INFO", "TradingEngine", "Next") + "\n");
+
+    assertThat(take(lines)).isEqualTo(runawayLine);
+    assertThat(take(lines)).isEqualTo(logLine(3, "INFO", "TradingEngine", "Next"));
+    assertThat(slowLines.poll()).isNull();
+
+    // Closing the follower abandons the match in progress.
+    assertThat(isMatchingRegex()).isTrue();
+    slowSubscription.close();
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+    while (isMatchingRegex() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(isMatchingRegex()).isFalse();
+    assertThat(followService.getSubscriberCount()).isEqualTo(1);
+    assertThat(slowLines.poll()).isNull();
+  }
+
+  @Test
+  public void whenLogfileRollsOverThenRestOfOldFileAndNewFileAreSent() throws Exception {
+    final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    followService.follow(null, null, null, lines::add);
+    waitForReaderToOpenLogfile();
+
+    append(logLine(2, "INFO", "TradingEngine", "Before rollover") + "\n");
+    assertThat(take(lines)).isEqualTo(logLine(2, "INFO", "TradingEngine", "Before rollover"));
+
+    // Written to the old file just before it is rolled over, so likely not read until after.
+    final Path rolledLogfile = temporaryFolder.getRoot().toPath().resolve("bxbot-1.log");
+    append(logLine(3, "INFO", "TradingEngine", "Last in old file") + "\n");
+    Files.move(logfile, rolledLogfile);
+    Files.write(logfile, (logLine(4, "INFO", "TradingEngine", "New file") + "\n").getBytes());
+
+    assertThat(take(lines)).isEqualTo(logLine(3, "INFO", "TradingEngine", "Last in old file"));
+    assertThat(take(lines)).isEqualTo(logLine(4, "INFO", "TradingEngine", "New file"));
+
+    append(logLine(5, "INFO", "TradingEngine", "After rollover") + "\n");
+    assertThat(take(lines)).isEqualTo(logLine(5, "INFO", "TradingEngine", "After rollover"));
+  }
+
+  @Test
+  public void whenLogfileIsTruncatedThenItIsReadFromTheStart() throws Exception {
+    final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    followService.follow(null, null, null, lines::add);
+    waitForReaderToOpenLogfile();
+
+    Files.write(logfile, "new\n".getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
+
+    assertThat(take(lines)).isEqualTo("new");
+  }
+
+  @Test
+  public void whenFollowerIsSlowThenOldestLinesAreDroppedAndFollowerIsTold() throws Exception {
+    followService.close();
+    followService = createFollowService(2);
+
+    final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    final CountDownLatch sendStarted = new CountDownLatch(1);
+    final CountDownLatch releaseSender = new CountDownLatch(1);
+    final BotLogfileFollowService.Subscription subscription =
+        followService.follow(
+            null,
+            null,
+            null,
+            line -> {
+              sendStarted.countDown();
+              try {
+                releaseSender.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              lines.add(line);
+            });
+    waitForReaderToOpenLogfile();
+
+    append("line 0\n");
+    assertThat(sendStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)).isTrue();
+    final StringBuilder moreLines = new StringBuilder();
+    for (int i = 1; i < 10; i++) {
+      moreLines.append("line ").append(i).append('\n');
+    }
+    append(moreLines.toString());
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+    while (subscription.getDroppedCount() < 7 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    releaseSender.countDown();
+
+    assertThat(take(lines)).isEqualTo("line 0");
+    assertThat(take(lines)).isEqualTo("... 7 lines dropped ...");
+    assertThat(take(lines)).isEqualTo("line 8");
+    assertThat(take(lines)).isEqualTo("line 9");
+    assertThat(subscription.getDroppedCount()).isEqualTo(7);
+  }
+
+  @Test
+  public void whenLastFollowerLeavesThenReaderStops() throws Exception {
+    final BotLogfileFollowService.Subscription first =
+        followService.follow(null, null, null, l -> {});
+    final BotLogfileFollowService.Subscription second =
+        followService.follow(null, null, null, l -> {});
+    assertThat(followService.getSubscriberCount()).isEqualTo(2);
+    assertThat(followService.isReaderRunning()).isTrue();
+
+    first.close();
+    first.close();
+    assertThat(followService.getSubscriberCount()).isEqualTo(1);
+    assertThat(followService.isReaderRunning()).isTrue();
+
+    second.close();
+    assertThat(followService.getSubscriberCount()).isEqualTo(0);
+    assertThat(followService.isReaderRunning()).isFalse();
+  }
+
+  @Test
+  public void whenSendFailsThenFollowerIsClosed() throws Exception {
+    final BotLogfileFollowService.Subscription subscription =
+        followService.follow(
+            null,
+            null,
+            null,
+            line -> {
+              throw new IOException("Client has gone");
+            });
+    waitForReaderToOpenLogfile();
+
+    append("line\n");
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+    while (followService.getSubscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(followService.getSubscriberCount()).isEqualTo(0);
+    assertThat(followService.isReaderRunning()).isFalse();
+    assertThat(subscription.getDroppedCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void whenLinesAreAppendedWhileReadingThenNoLineIsReadTwice() throws Exception {
+    final List<String> lines = new ArrayList<>();
+    final LogfileFollower follower =
+        new LogfileFollower(
+            logfile,
+            (line, level, logger) -> {
+              if (lines.isEmpty()) {
+                // Appended after the reader started reading, before it checks the file size.
+                try {
+                  append(logLine(3, "INFO", "TradingEngine", "Appended while reading") + "\n");
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              }
+              lines.add(line);
+            });
+    follower.openAtEnd();
+
+    append(logLine(2, "INFO", "TradingEngine", "First") + "\n");
+    follower.poll();
+    follower.poll();
+    follower.close();
+
+    assertThat(lines)
+        .containsExactly(
+            logLine(2, "INFO", "TradingEngine", "First"),
+            logLine(3, "INFO", "TradingEngine", "Appended while reading"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenFollowingWithUnknownLevelThenExceptionIsThrown() {
+    followService.follow("LOUD", null, null, l -> {});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenFollowingWithInvalidRegexThenExceptionIsThrown() {
+    followService.follow(null, null, "order-(", l -> {});
+  }
+
+  @Test
+  public void whenThereIsNoLogfileThenExceptionIsThrown() {
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(null);
+    replay(logFileWebEndpoint);
+    final BotLogfileFollowServiceImpl service =
+        new BotLogfileFollowServiceImpl(logFileWebEndpoint, 10, 10);
+    try {
+      service.follow(null, null, null, l -> {});
+      fail("Expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      assertThat(service.getSubscriberCount()).isEqualTo(0);
+      assertThat(service.isReaderRunning()).isFalse();
+    } finally {
+      service.close();
+    }
+  }
+
+  @Test
+  public void whenLogfileIsCreatedAfterFollowingStartsThenItIsReadFromTheStart()
+      throws Exception {
+    Files.delete(logfile);
+    final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+    followService.follow(null, null, null, lines::add);
+    waitForReaderToOpenLogfile();
+
+    Files.write(logfile, "first\n".getBytes());
+
+    assertThat(take(lines)).isEqualTo("first");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenCreatedWithInvalidBufferSizeThenExceptionIsThrown() {
+    new BotLogfileFollowServiceImpl(EasyMock.createMock(LogFileWebEndpoint.class), 0, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenCreatedWithInvalidPollIntervalThenExceptionIsThrown() {
+    new BotLogfileFollowServiceImpl(EasyMock.createMock(LogFileWebEndpoint.class), 10, 0);
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private BotLogfileFollowServiceImpl createFollowService(int clientBufferSize) {
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(new FileSystemResource(logfile)).anyTimes();
+    replay(logFileWebEndpoint);
+    return new BotLogfileFollowServiceImpl(logFileWebEndpoint, clientBufferSize, 10);
+  }
+
+  private static boolean isMatchingRegex() {
+    for (final StackTraceElement[] stackTrace : Thread.getAllStackTraces().values()) {
+      for (final StackTraceElement element : stackTrace) {
+        if (element.getClassName().startsWith(Pattern.class.getName())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private void waitForReaderToOpenLogfile() throws InterruptedException {
+    // The logfile is opened on the reader thread before its first poll.
+    Thread.sleep(50);
+  }
+
+  private void append(String text) throws IOException {
+    Files.write(logfile, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+  }
+
+  private static String take(BlockingQueue<String> lines) throws InterruptedException {
+    return lines.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private static String logLine(int time, String level, String logger, String message) {
+    return String.format(
+        "%-4d [main] 2019-07-20 17:30:20,429 %-5s %s get() - %s", time, level, logger, message);
+  }
+}
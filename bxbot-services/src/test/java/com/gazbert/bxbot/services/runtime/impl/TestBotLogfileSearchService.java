@@ -0,0 +1,347 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.services.runtime.impl;
+
+import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.fail;
+
+import com.gazbert.bxbot.services.runtime.BotLogfileSearchService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+
+/**
+ * Tests Bot logfile search service behaves as expected.
+ *
+ * @author gazbert
+ */
+public class TestBotLogfileSearchService {
+
+  private static final LocalDateTime DAY_1 = LocalDateTime.of(2019, 7, 20, 0, 0);
+  private static final LocalDateTime DAY_2 = DAY_1.plusDays(1);
+  private static final LocalDateTime DAY_3 = DAY_1.plusDays(2);
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss,SSS");
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path logsDirectory;
+  private Path archive1;
+  private Path archive2;
+  private BotLogfileSearchServiceImpl searchService;
+
+  /** Each test has 2 days of archives and a current logfile, with an error on each day. */
+  @Before
+  public void setupBeforeEachTest() throws Exception {
+    logsDirectory = temporaryFolder.getRoot().toPath().resolve("logs");
+    archive1 = logsDirectory.resolve("2019-07").resolve("bxbot-07-20-2019-1.log.gz");
+    archive2 = logsDirectory.resolve("2019-07").resolve("bxbot-07-21-2019-1.log.gz");
+    writeArchive(
+        archive1,
+        1,
+        logLine(DAY_1.plusHours(9), "INFO", "Placed order on market btcusd"),
+        logLine(DAY_1.plusHours(10), "ERROR", "Failed to place order on market btcusd"),
+        "java.io.IOException: Connection reset",
+        logLine(DAY_1.plusHours(11), "ERROR", "Failed to place order on market ethusd"));
+    writeArchive(
+        archive2,
+        2,
+        logLine(DAY_2.plusHours(10), "ERROR", "Failed to cancel order on market btcusd"),
+        logLine(DAY_2.plusHours(11), "WARN", "Market btcusd is quiet"));
+    Files.write(
+        logsDirectory.resolve("bxbot.log"),
+        (logLine(DAY_3.plusHours(10), "FATAL", "Lost exchange for market btcusd") + "\n")
+            .getBytes(StandardCharsets.UTF_8));
+    searchService = createSearchService(logsDirectory.resolve("bxbot.log"));
+  }
+
+  @After
+  public void tearDown() {
+    searchService.close();
+  }
+
+  @Test
+  public void whenSearchingIndexedArchivesThenMatchingLinesAreReturnedInOrder() throws Exception {
+    searchService.indexArchives();
+    assertThat(searchService.isIndexed(archive1)).isTrue();
+    assertThat(searchService.isIndexed(archive2)).isTrue();
+
+    assertThat(search(null, null, "error", "BTCUSD", 100))
+        .containsExactly(
+            logLine(DAY_1.plusHours(10), "ERROR", "Failed to place order on market btcusd"),
+            logLine(DAY_2.plusHours(10), "ERROR", "Failed to cancel order on market btcusd"),
+            logLine(DAY_3.plusHours(10), "FATAL", "Lost exchange for market btcusd"));
+  }
+
+  @Test
+  public void whenSearchingArchivesNotIndexedYetThenMatchingLinesAreReturned() throws Exception {
+    assertThat(searchService.isIndexed(archive1)).isFalse();
+
+    assertThat(search(null, null, "ERROR", "btcusd", 100))
+        .containsExactly(
+            logLine(DAY_1.plusHours(10), "ERROR", "Failed to place order on market btcusd"),
+            logLine(DAY_2.plusHours(10), "ERROR", "Failed to cancel order on market btcusd"),
+            logLine(DAY_3.plusHours(10), "FATAL", "Lost exchange for market btcusd"));
+  }
+
+  @Test
+  public void whenSearchingByTimeThenContinuationLinesAreIncluded() throws Exception {
+    searchService.indexArchives();
+
+    assertThat(search(DAY_1.plusHours(10), DAY_1.plusHours(11), null, null, 100))
+        .containsExactly(
+            logLine(DAY_1.plusHours(10), "ERROR", "Failed to place order on market btcusd"),
+            "java.io.IOException: Connection reset");
+    assertThat(search(DAY_2, DAY_3, "WARN", null, 100))
+        .containsExactly(
+            logLine(DAY_2.plusHours(10), "ERROR", "Failed to cancel order on market btcusd"),
+            logLine(DAY_2.plusHours(11), "WARN", "Market btcusd is quiet"));
+  }
+
+  @Test
+  public void whenSearchingForWordsThenWholeWordsMustAllMatch() throws Exception {
+    searchService.indexArchives();
+
+    assertThat(search(null, null, null, "btc", 100)).isEmpty();
+    assertThat(search(null, null, null, "connection RESET", 100))
+        .containsExactly("java.io.IOException: Connection reset");
+    assertThat(search(null, null, null, "cancel ethusd", 100)).isEmpty();
+  }
+
+  @Test
+  public void whenMaxLinesIsReachedThenSearchStops() throws Exception {
+    searchService.indexArchives();
+
+    assertThat(search(null, null, null, "market", 2))
+        .containsExactly(
+            logLine(DAY_1.plusHours(9), "INFO", "Placed order on market btcusd"),
+            logLine(DAY_1.plusHours(10), "ERROR", "Failed to place order on market btcusd"));
+  }
+
+  @Test
+  public void whenArchiveIsLargeThenOnlyMatchingBlocksAreSearched() throws Exception {
+    final Path largeArchive = logsDirectory.resolve("2019-06").resolve("bxbot-06-30-2019-1.log.gz");
+    final List<String> lines = new ArrayList<>();
+    final LocalDateTime start = DAY_1.minusDays(5);
+    for (int i = 0; i < 40000; i++) {
+      lines.add(logLine(start.plusSeconds(i), "INFO", "Ticker fetched for market ltcusd " + i));
+    }
+    lines.add(logLine(start.plusSeconds(40000), "ERROR", "Order rejected for market xrpusd"));
+    writeArchive(largeArchive, 0, lines.toArray(new String[0]));
+    searchService.indexArchives();
+
+    final LogArchiveIndex index =
+        LogArchiveIndex.load(
+            largeArchive.resolveSibling(largeArchive.getFileName() + ".idx"), largeArchive);
+    assertThat(index).isNotNull();
+    assertThat(index.getBlocks().size()).isGreaterThan(2);
+    final LogSearchCriteria criteria = new LogSearchCriteria(null, null, null, "xrpusd");
+    assertThat(index.getBlocks().stream().filter(criteria::mayMatch).count()).isEqualTo(1);
+    final LogSearchCriteria lateCriteria =
+        new LogSearchCriteria(start.plusSeconds(39000), null, "ERROR", null);
+    assertThat(index.getBlocks().stream().filter(lateCriteria::mayMatch).count()).isEqualTo(1);
+
+    assertThat(search(null, null, null, "xrpusd", 100))
+        .containsExactly(
+            logLine(start.plusSeconds(40000), "ERROR", "Order rejected for market xrpusd"));
+    assertThat(search(start.plusSeconds(20000), start.plusSeconds(20002), null, "ltcusd", 100))
+        .containsExactly(
+            logLine(start.plusSeconds(20000), "INFO", "Ticker fetched for market ltcusd 20000"),
+            logLine(start.plusSeconds(20001), "INFO", "Ticker fetched for market ltcusd 20001"));
+  }
+
+  @Test
+  public void whenIndexIsSavedThenItIsLoadedNotRebuilt() throws Exception {
+    searchService.indexArchives();
+    final Path indexFile = archive1.resolveSibling(archive1.getFileName() + ".idx");
+    assertThat(Files.exists(indexFile)).isTrue();
+    final FileTime savedTime = FileTime.fromMillis(1000);
+    Files.setLastModifiedTime(indexFile, savedTime);
+
+    final BotLogfileSearchServiceImpl restartedService =
+        createSearchService(logsDirectory.resolve("bxbot.log"));
+    restartedService.indexArchives();
+
+    assertThat(restartedService.isIndexed(archive1)).isTrue();
+    assertThat(Files.getLastModifiedTime(indexFile)).isEqualTo(savedTime);
+  }
+
+  @Test
+  public void whenIndexIsCorruptOrStaleThenItIsRebuilt() throws Exception {
+    final Path indexFile1 = archive1.resolveSibling(archive1.getFileName() + ".idx");
+    final Path indexFile2 = archive2.resolveSibling(archive2.getFileName() + ".idx");
+    Files.write(indexFile1, new byte[] {1, 2, 3});
+    Files.write(indexFile2, new byte[16]);
+
+    searchService.indexArchives();
+
+    assertThat(LogArchiveIndex.load(indexFile1, archive1)).isNotNull();
+    assertThat(LogArchiveIndex.load(indexFile2, archive2)).isNotNull();
+
+    // Replaced since it was indexed.
+    writeArchive(archive1, 5, logLine(DAY_1.plusHours(12), "ERROR", "Replaced"));
+    assertThat(LogArchiveIndex.load(indexFile1, archive1)).isNull();
+    searchService.indexArchives();
+    assertThat(search(null, null, null, "replaced", 100))
+        .containsExactly(logLine(DAY_1.plusHours(12), "ERROR", "Replaced"));
+  }
+
+  @Test
+  public void whenArchiveIsDeletedThenItsIndexIsDeleted() throws Exception {
+    searchService.indexArchives();
+    final Path indexFile = archive1.resolveSibling(archive1.getFileName() + ".idx");
+    Files.delete(archive1);
+
+    searchService.indexArchives();
+
+    assertThat(searchService.isIndexed(archive1)).isFalse();
+    assertThat(Files.exists(indexFile)).isFalse();
+    assertThat(search(null, null, "ERROR", "btcusd", 100)).hasSize(2);
+  }
+
+  @Test
+  public void whenStartedThenArchivesAreIndexedInTheBackground() throws Exception {
+    searchService.start();
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+    while (!searchService.isIndexed(archive2) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(searchService.isIndexed(archive1)).isTrue();
+    assertThat(searchService.isIndexed(archive2)).isTrue();
+  }
+
+  @Test
+  public void whenThereAreNoArchivesThenOnlyLogfileIsSearched() throws Exception {
+    final Path logfile = temporaryFolder.newFolder("empty").toPath().resolve("bxbot.log");
+    Files.write(logfile, "first\r\nsecond\n\nthird".getBytes(StandardCharsets.UTF_8));
+    final BotLogfileSearchServiceImpl service = createSearchService(logfile);
+    service.indexArchives();
+
+    final List<String> lines = new ArrayList<>();
+    assertThat(service.search(null, null, null, null, 10).writeTo(lines::add)).isEqualTo(4);
+    assertThat(lines).containsExactly("first", "second", "", "third");
+  }
+
+  @Test
+  public void whenLogfileIsNotConfiguredThenSearchFails() throws Exception {
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(null).anyTimes();
+    replay(logFileWebEndpoint);
+    final BotLogfileSearchServiceImpl service =
+        new BotLogfileSearchServiceImpl(logFileWebEndpoint, 300);
+    service.indexArchives();
+    service.close();
+
+    try {
+      service.search(null, null, null, null, 10).writeTo(line -> {});
+      fail("Expected IOException");
+    } catch (IOException e) {
+      assertThat(e.getMessage()).isEqualTo("Logfile is not configured");
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenSearchingWithUnknownLevelThenExceptionIsThrown() {
+    searchService.search(null, null, "LOUD", null, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenSearchingWithEmptyTimeRangeThenExceptionIsThrown() {
+    searchService.search(DAY_2, DAY_1, null, null, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenSearchingWithInvalidMaxLinesThenExceptionIsThrown() {
+    searchService.search(null, null, null, null, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void whenCreatedWithInvalidIndexIntervalThenExceptionIsThrown() {
+    new BotLogfileSearchServiceImpl(EasyMock.createMock(LogFileWebEndpoint.class), 0);
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private List<String> search(
+      LocalDateTime from, LocalDateTime to, String level, String words, int maxLines)
+      throws IOException {
+    final List<String> lines = new ArrayList<>();
+    final BotLogfileSearchService.SearchResults results =
+        searchService.search(from, to, level, words, maxLines);
+    assertThat(results.writeTo(lines::add)).isEqualTo(lines.size());
+    return lines;
+  }
+
+  private static BotLogfileSearchServiceImpl createSearchService(Path logfile) {
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(new FileSystemResource(logfile)).anyTimes();
+    replay(logFileWebEndpoint);
+    return new BotLogfileSearchServiceImpl(logFileWebEndpoint, 300);
+  }
+
+  /* Archives are searched oldest first, by when they were written. */
+  private static void writeArchive(Path archive, int age, String... lines) throws IOException {
+    Files.createDirectories(archive.getParent());
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive));
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+      for (final String line : lines) {
+        writer.write(line);
+        writer.write('\n');
+      }
+    }
+    Files.setLastModifiedTime(archive, FileTime.fromMillis(1_000_000_000L + age * 1000L));
+  }
+
+  private static String logLine(LocalDateTime time, String level, String message) {
+    return String.format(
+        "4981 [main] %s %-5s TradingEngine execute() - %s",
+        time.format(TIMESTAMP_FORMAT),
+        level,
+        message);
+  }
+}
@@ -28,11 +28,19 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 
+import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import org.easymock.EasyMock;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.springframework.boot.actuate.logging.LogFileWebEndpoint;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
@@ -44,6 +52,8 @@ import org.springframework.core.io.Resource;
  */
 public class TestBotLogfileService {
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Test
   public void whenGetLogfileCalledThenExpectLogfileContentToBeReturned() throws Exception {
     final String logfilePath = "src/test/logfiles/logfile.log";
@@ -259,4 +269,72 @@ public class TestBotLogfileService {
     assertThat(new String(logfileInBytes, Charset.forName("UTF-8"))).isEqualTo(firstLineOfLogfile);
     verify(logFileWebEndpoint);
   }
+
+  @Test
+  public void whenLogfileTailCalledOnLargeLogfileThenExpectOnlyLastLinesToBeReturned()
+      throws Exception {
+    final Path logfile = temporaryFolder.newFile("bxbot.log").toPath();
+    final List<String> lines = new ArrayList<>();
+    for (int i = 1; i <= 5000; i++) {
+      lines.add(i + " [main] 2019-07-20 17:30:20,429 INFO  TradingEngine - Trade cycle " + i);
+    }
+    Files.write(logfile, lines, StandardCharsets.UTF_8);
+
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(new FileSystemResource(logfile)).times(3);
+    replay(logFileWebEndpoint);
+
+    final BotLogfileServiceImpl botLogfileService = new BotLogfileServiceImpl(logFileWebEndpoint);
+    assertThat(botLogfileService.getLogfileTail(2))
+        .isEqualTo(
+            lines.get(4998) + System.lineSeparator() + lines.get(4999) + System.lineSeparator());
+    // More lines than fit in one block.
+    assertThat(botLogfileService.getLogfileTail(1000))
+        .startsWith(lines.get(4000) + System.lineSeparator())
+        .endsWith(lines.get(4999) + System.lineSeparator());
+    assertThat(botLogfileService.getLogfileTail(0)).isEmpty();
+    verify(logFileWebEndpoint);
+  }
+
+  @Test
+  public void whenLogfileTailCalledOnWindowsLogfileThenExpectLineBreaksToBeStripped()
+      throws Exception {
+    final Path logfile = temporaryFolder.newFile("bxbot.log").toPath();
+    Files.write(logfile, "Line 1\r\nLine 2\r\nLine 3\r\n".getBytes(StandardCharsets.UTF_8));
+
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(new FileSystemResource(logfile));
+    replay(logFileWebEndpoint);
+
+    final BotLogfileServiceImpl botLogfileService = new BotLogfileServiceImpl(logFileWebEndpoint);
+    assertThat(botLogfileService.getLogfileTail(2))
+        .isEqualTo("Line 2" + System.lineSeparator() + "Line 3" + System.lineSeparator());
+    verify(logFileWebEndpoint);
+  }
+
+  @Test
+  public void whenGetLogfileAsResourceCalledThenExpectLengthToBeFixedAndRangesToBeReadable()
+      throws Exception {
+    final Path logfile = temporaryFolder.newFile("bxbot.log").toPath();
+    Files.write(logfile, "0123456789".getBytes(StandardCharsets.UTF_8));
+
+    final LogFileWebEndpoint logFileWebEndpoint = EasyMock.createMock(LogFileWebEndpoint.class);
+    expect(logFileWebEndpoint.logFile()).andReturn(new FileSystemResource(logfile));
+    replay(logFileWebEndpoint);
+
+    final BotLogfileServiceImpl botLogfileService = new BotLogfileServiceImpl(logFileWebEndpoint);
+    final Resource logfileAsResource = botLogfileService.getLogfileAsResource(1024);
+    // The bot carries on logging after the download starts.
+    Files.write(logfile, "ABCDEF".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+    assertThat(logfileAsResource.exists()).isTrue();
+    assertThat(logfileAsResource.contentLength()).isEqualTo(10);
+    assertThat(logfileAsResource.getFilename()).isEqualTo("bxbot.log");
+    assertThat(logfileAsResource.getDescription()).endsWith("first 10 bytes");
+    try (InputStream inputStream = logfileAsResource.getInputStream()) {
+      assertThat(inputStream.skip(7)).isEqualTo(7);
+      assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("789");
+    }
+    verify(logFileWebEndpoint);
+  }
 }
@@ -25,6 +25,7 @@ package com.gazbert.bxbot.strategies;
 
 import com.gazbert.bxbot.strategy.api.StrategyConfig;
 import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.StrategyStateStore;
 import com.gazbert.bxbot.strategy.api.TradingStrategy;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.Market;
@@ -146,6 +147,9 @@ public class ExampleScalpingStrategy implements TradingStrategy {
   /** The state of the order. */
   private OrderState lastOrder;
 
+  /** Where the last order is saved so we can pick up where we left off after a restart. */
+  private StrategyStateStore stateStore;
+
   /**
    * The counter currency amount to use when placing the buy order. This was loaded from the
    * strategy entry in the {project-root}/config/strategies.yaml config file.
@@ -177,6 +181,26 @@ public class ExampleScalpingStrategy implements TradingStrategy {
     LOG.info(() -> "Trading Strategy initialised successfully!");
   }
 
+  /**
+   * Initialises the Trading Strategy with a state store. The Trading Engine calls this one; we use
+   * the store to restore the last order we placed before the bot was restarted.
+   *
+   * @param tradingApi the Trading API. Use this to make trades and stuff.
+   * @param market the market for this strategy.
+   * @param config configuration for the strategy.
+   * @param stateStore the durable state store for this strategy.
+   */
+  @Override
+  public void init(
+      TradingApi tradingApi, Market market, StrategyConfig config, StrategyStateStore stateStore) {
+    init(tradingApi, market, config);
+    this.stateStore = stateStore;
+    lastOrder = OrderState.load(stateStore);
+    if (lastOrder != null) {
+      LOG.info(() -> market.getName() + " Restored Last Order from state store: " + lastOrder);
+    }
+  }
+
   /**
    * This is the main execution method of the Trading Strategy. It is where your algorithm lives.
    *
@@ -252,6 +276,9 @@ public class ExampleScalpingStrategy implements TradingStrategy {
         executeAlgoForWhenLastOrderWasNone(currentBidPrice);
       }
 
+      // Save the order state - the Trading Engine writes it to disk at the end of the trade cycle.
+      saveLastOrder();
+
     } catch (ExchangeNetworkException e) {
       // Your timeout handling code could go here.
       // We are just going to log it and swallow it, and wait for next trade cycle.
@@ -702,15 +729,29 @@ public class ExampleScalpingStrategy implements TradingStrategy {
     LOG.info(() -> "minimumPercentageGain in decimal is: " + minimumPercentageGain);
   }
 
+  /** Saves the last order to the state store. Nothing is saved until an order has been placed. */
+  private void saveLastOrder() {
+    if (stateStore == null || lastOrder.type == null || lastOrder.id == null) {
+      return;
+    }
+    stateStore.put(OrderState.ID_KEY, lastOrder.id);
+    stateStore.put(OrderState.TYPE_KEY, lastOrder.type.name());
+    stateStore.put(OrderState.PRICE_KEY, lastOrder.price.toPlainString());
+    stateStore.put(OrderState.AMOUNT_KEY, lastOrder.amount.toPlainString());
+  }
+
   /**
    * Models the state of an Order placed on the exchange.
    *
-   * <p>Typically, you would maintain order state in a database or use some other persistence method
-   * to recover from restarts and for audit purposes. In this example, we are storing the state in
-   * memory to keep it simple.
+   * <p>The state is saved to the strategy's state store each trade cycle so it survives restarts.
    */
   private static class OrderState {
 
+    private static final String ID_KEY = "lastOrder.id";
+    private static final String TYPE_KEY = "lastOrder.type";
+    private static final String PRICE_KEY = "lastOrder.price";
+    private static final String AMOUNT_KEY = "lastOrder.amount";
+
     /** Id - default to null. */
     private String id = null;
 
@@ -726,6 +767,19 @@ public class ExampleScalpingStrategy implements TradingStrategy {
     /** Number of units to buy/sell - default to zero. */
     private BigDecimal amount = BigDecimal.ZERO;
 
+    /** Loads the saved order state, or returns null if there is none. */
+    static OrderState load(StrategyStateStore stateStore) {
+      if (stateStore == null || stateStore.get(TYPE_KEY) == null) {
+        return null;
+      }
+      final OrderState orderState = new OrderState();
+      orderState.id = stateStore.get(ID_KEY);
+      orderState.type = OrderType.valueOf(stateStore.get(TYPE_KEY));
+      orderState.price = new BigDecimal(stateStore.get(PRICE_KEY));
+      orderState.amount = new BigDecimal(stateStore.get(AMOUNT_KEY));
+      return orderState;
+    }
+
     @Override
     public String toString() {
       return MoreObjects.toStringHelper(this)
@@ -30,6 +30,7 @@ import static org.easymock.EasyMock.verify;
 
 import com.gazbert.bxbot.strategy.api.StrategyConfig;
 import com.gazbert.bxbot.strategy.api.StrategyException;
+import com.gazbert.bxbot.strategy.api.StrategyStateStore;
 import com.gazbert.bxbot.trading.api.ExchangeNetworkException;
 import com.gazbert.bxbot.trading.api.Market;
 import com.gazbert.bxbot.trading.api.MarketOrder;
@@ -724,4 +725,64 @@ public class TestExampleScalpingStrategy {
     verify(
         tradingApi, market, config, marketOrderBook, marketBuyOrder, marketSellOrder, orderState);
   }
+
+  /*
+   * Tests scenario when the bot has been restarted with a buy order saved in the state store.
+   *
+   * - Given the bot has restarted and a buy order was saved before it stopped
+   * - When the strategy is invoked
+   * - Then the saved buy order is restored and the bot holds because it has not filled
+   */
+  @Test
+  public void testStrategyRestoresLastOrderFromStateStore() throws Exception {
+    final BigDecimal bidSpotPrice = new BigDecimal("1453.014");
+    expect(marketBuyOrders.get(0).getPrice()).andReturn(bidSpotPrice);
+    final BigDecimal askSpotPrice = new BigDecimal("1455.016");
+    expect(marketSellOrders.get(0).getPrice()).andReturn(askSpotPrice);
+
+    // expect the last order to be restored from the state store
+    final StrategyStateStore stateStore = createMock(StrategyStateStore.class);
+    expect(stateStore.get("lastOrder.type")).andReturn("BUY").times(2);
+    expect(stateStore.get("lastOrder.id")).andReturn("45345346");
+    expect(stateStore.get("lastOrder.price")).andReturn("1454.018");
+    expect(stateStore.get("lastOrder.amount")).andReturn("35");
+
+    // expect to check if the buy order has filled
+    expect(market.getId()).andReturn(MARKET_ID);
+    final OpenOrder unfilledOrder = createMock(OpenOrder.class);
+    final List<OpenOrder> openOrders = new ArrayList<>();
+    openOrders.add(unfilledOrder);
+    expect(tradingApi.getYourOpenOrders(MARKET_ID)).andReturn(openOrders);
+    expect(unfilledOrder.getId()).andReturn("45345346");
+
+    // expect the order state to be saved again at the end of the trade cycle
+    stateStore.put("lastOrder.id", "45345346");
+    stateStore.put("lastOrder.type", "BUY");
+    stateStore.put("lastOrder.price", "1454.018");
+    stateStore.put("lastOrder.amount", "35");
+
+    replay(
+        tradingApi,
+        market,
+        config,
+        marketOrderBook,
+        marketBuyOrder,
+        marketSellOrder,
+        unfilledOrder,
+        stateStore);
+
+    final ExampleScalpingStrategy strategy = new ExampleScalpingStrategy();
+    strategy.init(tradingApi, market, config, stateStore);
+    strategy.execute();
+
+    verify(
+        tradingApi,
+        market,
+        config,
+        marketOrderBook,
+        marketBuyOrder,
+        marketSellOrder,
+        unfilledOrder,
+        stateStore);
+  }
 }
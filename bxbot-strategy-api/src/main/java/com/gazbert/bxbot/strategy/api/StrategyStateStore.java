@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.api;
+
+import java.util.Set;
+
+/**
+ * A durable key-value store a Trading Strategy can use to save its state, e.g. its last order, so
+ * it can carry on where it left off after the bot is restarted or crashes.
+ *
+ * <p>Updates are held in memory and appended to a journal on disk when the store is flushed. The
+ * Trading Engine flushes every store at the end of each trade cycle, so a strategy can update its
+ * state as often as it likes without waiting on the disk. Call {@link #flush()} directly if an
+ * update must be on disk before carrying on, e.g. straight after placing an order.
+ *
+ * <p>Keys and values must be non null, and no longer than 65535 bytes once UTF-8 encoded.
+ *
+ * @author gazbert
+ * @since 1.1
+ */
+public interface StrategyStateStore {
+
+  /**
+   * Fetches a value for a given key.
+   *
+   * @param key the key of the value to fetch.
+   * @return the value if found, null otherwise.
+   */
+  String get(String key);
+
+  /**
+   * Stores a value for a given key, replacing any existing value.
+   *
+   * @param key the key.
+   * @param value the value.
+   */
+  void put(String key, String value);
+
+  /**
+   * Removes the value for a given key.
+   *
+   * @param key the key of the value to remove.
+   */
+  void remove(String key);
+
+  /**
+   * Returns all of the keys in the store.
+   *
+   * @return all of the keys.
+   */
+  Set<String> getKeys();
+
+  /**
+   * Writes any updates not yet on disk to the journal and syncs it.
+   *
+   * @throws java.io.UncheckedIOException if the updates could not be written.
+   */
+  void flush();
+}
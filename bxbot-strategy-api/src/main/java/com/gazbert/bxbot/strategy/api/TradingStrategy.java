@@ -46,6 +46,24 @@ public interface TradingStrategy {
    */
   void init(TradingApi tradingApi, Market market, StrategyConfig config);
 
+  /**
+   * Called once by the Trading Engine when it starts up, passing in a store the strategy can use
+   * to save its state across restarts.
+   *
+   * <p>The default implementation ignores the store and calls {@link #init(TradingApi, Market,
+   * StrategyConfig)}. Override this if your strategy has state worth keeping.
+   *
+   * @param tradingApi the Trading API.
+   * @param market the market for this strategy.
+   * @param config optional configuration for the strategy.
+   * @param stateStore the durable state store for this strategy on this market.
+   * @since 1.1
+   */
+  default void init(
+      TradingApi tradingApi, Market market, StrategyConfig config, StrategyStateStore stateStore) {
+    init(tradingApi, market, config);
+  }
+
   /**
    * Called by the Trading Engine during each trade cycle.
    *
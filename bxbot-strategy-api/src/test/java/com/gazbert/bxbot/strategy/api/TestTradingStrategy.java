@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.api;
+
+import static org.junit.Assert.assertEquals;
+
+import com.gazbert.bxbot.trading.api.Market;
+import com.gazbert.bxbot.trading.api.TradingApi;
+import org.junit.Test;
+
+/**
+ * Tests the Trading Strategy default methods behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestTradingStrategy {
+
+  @Test
+  public void testInitWithStateStoreCallsInitByDefault() {
+    final int[] initCalls = new int[1];
+    final TradingStrategy tradingStrategy =
+        new TradingStrategy() {
+          @Override
+          public void init(TradingApi tradingApi, Market market, StrategyConfig config) {
+            initCalls[0]++;
+          }
+
+          @Override
+          public void execute() {
+          }
+        };
+
+    tradingStrategy.init(null, null, null, null);
+    assertEquals(1, initCalls[0]);
+  }
+}
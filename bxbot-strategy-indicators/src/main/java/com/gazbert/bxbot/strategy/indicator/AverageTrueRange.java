@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+/**
+ * Average True Range (ATR), using Wilder's smoothing.
+ *
+ * <p>It is updated with the high, low and close of each period - typically a candle - and is
+ * seeded with the mean of the first n true ranges.
+ *
+ * @author gazbert
+ */
+public final class AverageTrueRange implements Indicator {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int period;
+  private boolean hasPreviousClose;
+  private double previousClose;
+  private int count;
+  private double value;
+
+  /**
+   * Creates the ATR.
+   *
+   * @param period the ATR period, typically 14.
+   * @throws IllegalArgumentException if the period is less than 1.
+   */
+  public AverageTrueRange(int period) {
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be at least 1 but was: " + period);
+    }
+    this.period = period;
+  }
+
+  /**
+   * Updates the indicator with the next period's prices.
+   *
+   * @param high the high price.
+   * @param low the low price.
+   * @param close the closing price.
+   */
+  public void update(double high, double low, double close) {
+    double trueRange = high - low;
+    if (hasPreviousClose) {
+      trueRange = Math.max(trueRange, Math.abs(high - previousClose));
+      trueRange = Math.max(trueRange, Math.abs(low - previousClose));
+    }
+    hasPreviousClose = true;
+    previousClose = close;
+
+    if (count < period) {
+      // value holds the running sum during warm up
+      value += trueRange;
+      if (++count == period) {
+        value /= period;
+      }
+    } else {
+      value = (value * (period - 1) + trueRange) / period;
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    return count == period;
+  }
+
+  @Override
+  public double getValue() {
+    return isReady() ? value : Double.NaN;
+  }
+
+  @Override
+  public void reset() {
+    hasPreviousClose = false;
+    previousClose = 0.0;
+    count = 0;
+    value = 0.0;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+/**
+ * Bollinger Bands.
+ *
+ * <p>{@link #getValue()} returns the middle band (the SMA of the last n prices). The upper and
+ * lower bands are the middle band plus and minus k population standard deviations.
+ *
+ * @author gazbert
+ */
+public final class BollingerBands implements PriceIndicator {
+
+  private static final long serialVersionUID = 1L;
+
+  private final double multiplier;
+  private final RollingSum prices;
+  private final RollingSum squaredPrices;
+
+  /**
+   * Creates the Bollinger Bands.
+   *
+   * @param period the number of prices, typically 20.
+   * @param multiplier the number of standard deviations for the bands, typically 2.
+   * @throws IllegalArgumentException if the period is less than 1.
+   */
+  public BollingerBands(int period, double multiplier) {
+    this.multiplier = multiplier;
+    prices = new RollingSum(period);
+    squaredPrices = new RollingSum(period);
+  }
+
+  @Override
+  public void update(double price) {
+    prices.add(price);
+    squaredPrices.add(price * price);
+  }
+
+  @Override
+  public boolean isReady() {
+    return prices.isFull();
+  }
+
+  @Override
+  public double getValue() {
+    return isReady() ? prices.getSum() / prices.size() : Double.NaN;
+  }
+
+  /**
+   * Returns the upper band.
+   *
+   * @return the upper band, or {@link Double#NaN} if the indicator is not ready.
+   */
+  public double getUpperBand() {
+    return getValue() + multiplier * getStandardDeviation();
+  }
+
+  /**
+   * Returns the lower band.
+   *
+   * @return the lower band, or {@link Double#NaN} if the indicator is not ready.
+   */
+  public double getLowerBand() {
+    return getValue() - multiplier * getStandardDeviation();
+  }
+
+  /**
+   * Returns the population standard deviation of the prices.
+   *
+   * @return the standard deviation, or {@link Double#NaN} if the indicator is not ready.
+   */
+  public double getStandardDeviation() {
+    if (!isReady()) {
+      return Double.NaN;
+    }
+    final double mean = prices.getSum() / prices.size();
+    final double variance = squaredPrices.getSum() / squaredPrices.size() - mean * mean;
+    return variance > 0.0 ? Math.sqrt(variance) : 0.0;
+  }
+
+  @Override
+  public void reset() {
+    prices.clear();
+    squaredPrices.clear();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A fixed capacity ring buffer of primitive doubles. Once full, adding a value overwrites the
+ * oldest one.
+ *
+ * @author gazbert
+ */
+public final class DoubleRingBuffer implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final double[] values;
+  private int next;
+  private int size;
+
+  /**
+   * Creates the ring buffer.
+   *
+   * @param capacity the number of values to hold.
+   * @throws IllegalArgumentException if the capacity is less than 1.
+   */
+  public DoubleRingBuffer(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1 but was: " + capacity);
+    }
+    values = new double[capacity];
+  }
+
+  /**
+   * Adds a value, overwriting the oldest one if the buffer is full.
+   *
+   * @param value the value to add.
+   */
+  public void add(double value) {
+    values[next] = value;
+    next = next + 1 == values.length ? 0 : next + 1;
+    if (size < values.length) {
+      size++;
+    }
+  }
+
+  /**
+   * Returns a value from the buffer.
+   *
+   * @param index the index of the value, where 0 is the oldest value held.
+   * @return the value.
+   * @throws IndexOutOfBoundsException if the index is not less than the current size.
+   */
+  public double get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + " Size: " + size);
+    }
+    final int position = next - size + index;
+    return values[position < 0 ? position + values.length : position];
+  }
+
+  /**
+   * Returns the oldest value held.
+   *
+   * @return the oldest value.
+   * @throws IndexOutOfBoundsException if the buffer is empty.
+   */
+  public double getOldest() {
+    return get(0);
+  }
+
+  /**
+   * Returns the most recently added value.
+   *
+   * @return the newest value.
+   * @throws IndexOutOfBoundsException if the buffer is empty.
+   */
+  public double getNewest() {
+    return get(size - 1);
+  }
+
+  /**
+   * Returns the number of values held.
+   *
+   * @return the number of values held.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the capacity of the buffer.
+   *
+   * @return the capacity.
+   */
+  public int capacity() {
+    return values.length;
+  }
+
+  /**
+   * Returns true if the buffer is full.
+   *
+   * @return true if full, false otherwise.
+   */
+  public boolean isFull() {
+    return size == values.length;
+  }
+
+  /** Removes all values. */
+  public void clear() {
+    Arrays.fill(values, 0.0);
+    next = 0;
+    size = 0;
+  }
+}
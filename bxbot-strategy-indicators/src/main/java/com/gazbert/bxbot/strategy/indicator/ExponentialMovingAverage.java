@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+/**
+ * Exponential Moving Average (EMA).
+ *
+ * <p>Uses a smoothing factor of 2 / (period + 1) and is seeded with the SMA of the first period
+ * prices.
+ *
+ * @author gazbert
+ */
+public final class ExponentialMovingAverage implements PriceIndicator {
+
+  private static final long serialVersionUID = 1L;
+
+  private final int period;
+  private final double alpha;
+  private int count;
+  private double value;
+
+  /**
+   * Creates the EMA.
+   *
+   * @param period the EMA period.
+   * @throws IllegalArgumentException if the period is less than 1.
+   */
+  public ExponentialMovingAverage(int period) {
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be at least 1 but was: " + period);
+    }
+    this.period = period;
+    this.alpha = 2.0 / (period + 1);
+  }
+
+  @Override
+  public void update(double price) {
+    if (count < period) {
+      // value holds the running sum during warm up
+      value += price;
+      if (++count == period) {
+        value /= period;
+      }
+    } else {
+      value += alpha * (price - value);
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    return count == period;
+  }
+
+  @Override
+  public double getValue() {
+    return isReady() ? value : Double.NaN;
+  }
+
+  @Override
+  public void reset() {
+    count = 0;
+    value = 0.0;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+import java.io.Serializable;
+
+/**
+ * A streaming technical indicator.
+ *
+ * <p>Indicators need a warm up period before they produce a value. Until then, {@link
+ * #isReady()} returns false and {@link #getValue()} returns {@link Double#NaN}.
+ *
+ * <p>Indicators are not thread safe - they are expected to be updated and read by the Trading
+ * Strategy that owns them.
+ *
+ * @author gazbert
+ */
+public interface Indicator extends Serializable {
+
+  /**
+   * Returns true once the indicator has seen enough updates to produce a value.
+   *
+   * @return true if the indicator is ready, false otherwise.
+   */
+  boolean isReady();
+
+  /**
+   * Returns the current value of the indicator.
+   *
+   * @return the current value, or {@link Double#NaN} if the indicator is not ready.
+   */
+  double getValue();
+
+  /** Clears all history so the indicator starts warming up again. */
+  void reset();
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+/**
+ * Moving Average Convergence Divergence (MACD).
+ *
+ * <p>{@link #getValue()} returns the MACD line (fast EMA - slow EMA). The signal line is an EMA of
+ * the MACD line, and the histogram is the MACD line - the signal line. The indicator is ready once
+ * the signal line is.
+ *
+ * @author gazbert
+ */
+public final class Macd implements PriceIndicator {
+
+  private static final long serialVersionUID = 1L;
+
+  private final ExponentialMovingAverage fastEma;
+  private final ExponentialMovingAverage slowEma;
+  private final ExponentialMovingAverage signalEma;
+  private double macd = Double.NaN;
+
+  /**
+   * Creates the MACD.
+   *
+   * @param fastPeriod the fast EMA period, typically 12.
+   * @param slowPeriod the slow EMA period, typically 26.
+   * @param signalPeriod the signal line EMA period, typically 9.
+   * @throws IllegalArgumentException if a period is less than 1, or the fast period is not less
+   *     than the slow period.
+   */
+  public Macd(int fastPeriod, int slowPeriod, int signalPeriod) {
+    if (fastPeriod >= slowPeriod) {
+      throw new IllegalArgumentException(
+          "Fast period " + fastPeriod + " must be less than slow period " + slowPeriod);
+    }
+    fastEma = new ExponentialMovingAverage(fastPeriod);
+    slowEma = new ExponentialMovingAverage(slowPeriod);
+    signalEma = new ExponentialMovingAverage(signalPeriod);
+  }
+
+  @Override
+  public void update(double price) {
+    fastEma.update(price);
+    slowEma.update(price);
+    if (slowEma.isReady()) {
+      macd = fastEma.getValue() - slowEma.getValue();
+      signalEma.update(macd);
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    return signalEma.isReady();
+  }
+
+  @Override
+  public double getValue() {
+    return isReady() ? macd : Double.NaN;
+  }
+
+  /**
+   * Returns the signal line.
+   *
+   * @return the signal line, or {@link Double#NaN} if the indicator is not ready.
+   */
+  public double getSignal() {
+    return signalEma.getValue();
+  }
+
+  /**
+   * Returns the histogram - the MACD line minus the signal line.
+   *
+   * @return the histogram, or {@link Double#NaN} if the indicator is not ready.
+   */
+  public double getHistogram() {
+    return isReady() ? macd - signalEma.getValue() : Double.NaN;
+  }
+
+  @Override
+  public void reset() {
+    fastEma.reset();
+    slowEma.reset();
+    signalEma.reset();
+    macd = Double.NaN;
+  }
+}
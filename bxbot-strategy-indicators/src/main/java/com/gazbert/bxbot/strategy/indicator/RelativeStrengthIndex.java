@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+/**
+ * Relative Strength Index (RSI), using Wilder's smoothing. The value is between 0 and 100.
+ *
+ * <p>The average gain and loss are seeded with the mean of the first period price changes, so the
+ * RSI is ready after period + 1 prices.
+ *
+ * @author gazbert
+ */
+public final class RelativeStrengthIndex implements PriceIndicator {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final double MAX_RSI = 100.0;
+  private static final double NEUTRAL_RSI = 50.0;
+
+  private final int period;
+  private boolean hasPreviousPrice;
+  private double previousPrice;
+  private int changeCount;
+  private double averageGain;
+  private double averageLoss;
+
+  /**
+   * Creates the RSI.
+   *
+   * @param period the RSI period, typically 14.
+   * @throws IllegalArgumentException if the period is less than 1.
+   */
+  public RelativeStrengthIndex(int period) {
+    if (period < 1) {
+      throw new IllegalArgumentException("Period must be at least 1 but was: " + period);
+    }
+    this.period = period;
+  }
+
+  @Override
+  public void update(double price) {
+    if (!hasPreviousPrice) {
+      hasPreviousPrice = true;
+      previousPrice = price;
+      return;
+    }
+
+    final double change = price - previousPrice;
+    previousPrice = price;
+    final double gain = change > 0 ? change : 0.0;
+    final double loss = change < 0 ? -change : 0.0;
+
+    if (changeCount < period) {
+      // averages hold the running sums during warm up
+      averageGain += gain;
+      averageLoss += loss;
+      if (++changeCount == period) {
+        averageGain /= period;
+        averageLoss /= period;
+      }
+    } else {
+      averageGain = (averageGain * (period - 1) + gain) / period;
+      averageLoss = (averageLoss * (period - 1) + loss) / period;
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    return changeCount == period;
+  }
+
+  @Override
+  public double getValue() {
+    if (!isReady()) {
+      return Double.NaN;
+    }
+    if (averageLoss == 0.0) {
+      return averageGain == 0.0 ? NEUTRAL_RSI : MAX_RSI;
+    }
+    return MAX_RSI - MAX_RSI / (1.0 + averageGain / averageLoss);
+  }
+
+  @Override
+  public void reset() {
+    hasPreviousPrice = false;
+    previousPrice = 0.0;
+    changeCount = 0;
+    averageGain = 0.0;
+    averageLoss = 0.0;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+import java.io.Serializable;
+
+/**
+ * The sum of the last n values, maintained in O(1) per update.
+ *
+ * <p>A running sum picks up floating point error as values are added and taken away, so it is
+ * recalculated from the window once every n updates. This keeps the amortized cost O(1).
+ *
+ * @author gazbert
+ */
+public final class RollingSum implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final DoubleRingBuffer window;
+  private double sum;
+  private int updatesSinceResum;
+
+  /**
+   * Creates the rolling sum.
+   *
+   * @param length the number of values to sum.
+   * @throws IllegalArgumentException if the length is less than 1.
+   */
+  public RollingSum(int length) {
+    window = new DoubleRingBuffer(length);
+  }
+
+  /**
+   * Adds a value, dropping the oldest value from the sum if the window is full.
+   *
+   * @param value the value to add.
+   */
+  public void add(double value) {
+    if (window.isFull()) {
+      sum -= window.getOldest();
+    }
+    window.add(value);
+    sum += value;
+
+    if (++updatesSinceResum == window.capacity()) {
+      updatesSinceResum = 0;
+      double exactSum = 0.0;
+      for (int i = 0; i < window.size(); i++) {
+        exactSum += window.get(i);
+      }
+      sum = exactSum;
+    }
+  }
+
+  /**
+   * Returns the sum of the values in the window.
+   *
+   * @return the sum.
+   */
+  public double getSum() {
+    return sum;
+  }
+
+  /**
+   * Returns the number of values in the window.
+   *
+   * @return the number of values.
+   */
+  public int size() {
+    return window.size();
+  }
+
+  /**
+   * Returns true once the window is full.
+   *
+   * @return true if full, false otherwise.
+   */
+  public boolean isFull() {
+    return window.isFull();
+  }
+
+  /** Removes all values. */
+  public void clear() {
+    window.clear();
+    sum = 0.0;
+    updatesSinceResum = 0;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+/**
+ * Rolling Volume Weighted Average Price (VWAP) over the last n trades or periods.
+ *
+ * @author gazbert
+ */
+public final class RollingVwap implements Indicator {
+
+  private static final long serialVersionUID = 1L;
+
+  private final RollingSum priceVolumes;
+  private final RollingSum volumes;
+
+  /**
+   * Creates the rolling VWAP.
+   *
+   * @param period the number of trades or periods in the window.
+   * @throws IllegalArgumentException if the period is less than 1.
+   */
+  public RollingVwap(int period) {
+    priceVolumes = new RollingSum(period);
+    volumes = new RollingSum(period);
+  }
+
+  /**
+   * Updates the indicator with the next trade or period.
+   *
+   * @param price the trade price, or the typical price of the period.
+   * @param volume the volume traded.
+   */
+  public void update(double price, double volume) {
+    priceVolumes.add(price * volume);
+    volumes.add(volume);
+  }
+
+  @Override
+  public boolean isReady() {
+    return volumes.isFull() && volumes.getSum() > 0.0;
+  }
+
+  @Override
+  public double getValue() {
+    return isReady() ? priceVolumes.getSum() / volumes.getSum() : Double.NaN;
+  }
+
+  @Override
+  public void reset() {
+    priceVolumes.clear();
+    volumes.clear();
+  }
+}
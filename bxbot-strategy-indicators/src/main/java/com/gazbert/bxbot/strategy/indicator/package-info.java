@@ -0,0 +1,17 @@
+/**
+ * Streaming technical indicators for Trading Strategies.
+ *
+ * <p>Each indicator is updated one tick at a time in O(1) and without allocating: history is
+ * kept in fixed size primitive ring buffers and running sums. This makes them cheap enough to call
+ * from every {@code execute()} in a live strategy, and from backtests running millions of updates
+ * per second.
+ *
+ * <p>Indicators are {@link java.io.Serializable} so a strategy can persist them and carry on where
+ * it left off after a restart, rather than having to warm them up again.
+ *
+ * <p>Values are {@code double}. Strategies working in {@link java.math.BigDecimal} should convert
+ * with {@code doubleValue()} going in, and back with {@code BigDecimal.valueOf()} if needed.
+ *
+ * @author gazbert
+ */
+package com.gazbert.bxbot.strategy.indicator;
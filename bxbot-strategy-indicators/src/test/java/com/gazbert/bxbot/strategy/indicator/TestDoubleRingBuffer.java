@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the ring buffer and rolling sum behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestDoubleRingBuffer {
+
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void testValuesAreOverwrittenOldestFirst() {
+    final DoubleRingBuffer buffer = new DoubleRingBuffer(3);
+    buffer.add(1.0);
+    buffer.add(2.0);
+    assertFalse(buffer.isFull());
+    assertEquals(2, buffer.size());
+    assertEquals(1.0, buffer.getOldest(), DELTA);
+    assertEquals(2.0, buffer.getNewest(), DELTA);
+
+    buffer.add(3.0);
+    buffer.add(4.0);
+    assertTrue(buffer.isFull());
+    assertEquals(3, buffer.size());
+    assertEquals(2.0, buffer.get(0), DELTA);
+    assertEquals(3.0, buffer.get(1), DELTA);
+    assertEquals(4.0, buffer.get(2), DELTA);
+
+    buffer.clear();
+    assertEquals(0, buffer.size());
+    assertEquals(3, buffer.capacity());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutsideOfSizeIsRejected() {
+    final DoubleRingBuffer buffer = new DoubleRingBuffer(3);
+    buffer.add(1.0);
+    buffer.get(1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroCapacityIsRejected() {
+    new DoubleRingBuffer(0);
+  }
+
+  @Test
+  public void testRollingSumDropsOldestValue() {
+    final RollingSum rollingSum = new RollingSum(3);
+    for (int i = 1; i <= 10; i++) {
+      rollingSum.add(i);
+    }
+    assertTrue(rollingSum.isFull());
+    assertEquals(27.0, rollingSum.getSum(), DELTA);
+
+    rollingSum.clear();
+    assertEquals(0, rollingSum.size());
+    assertEquals(0.0, rollingSum.getSum(), DELTA);
+  }
+}
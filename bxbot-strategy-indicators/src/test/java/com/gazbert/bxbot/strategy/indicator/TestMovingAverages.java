@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.Test;
+
+/**
+ * Tests the SMA and EMA indicators behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestMovingAverages {
+
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void testSimpleMovingAverage() {
+    final SimpleMovingAverage sma = new SimpleMovingAverage(3);
+    sma.update(1.0);
+    sma.update(2.0);
+    assertFalse(sma.isReady());
+    assertTrue(Double.isNaN(sma.getValue()));
+
+    sma.update(3.0);
+    assertTrue(sma.isReady());
+    assertEquals(2.0, sma.getValue(), DELTA);
+
+    sma.update(7.0);
+    assertEquals(4.0, sma.getValue(), DELTA);
+
+    sma.reset();
+    assertFalse(sma.isReady());
+  }
+
+  @Test
+  public void testExponentialMovingAverageIsSeededWithSma() {
+    final ExponentialMovingAverage ema = new ExponentialMovingAverage(3);
+    ema.update(1.0);
+    ema.update(2.0);
+    assertFalse(ema.isReady());
+    assertTrue(Double.isNaN(ema.getValue()));
+
+    ema.update(3.0);
+    assertTrue(ema.isReady());
+    assertEquals(2.0, ema.getValue(), DELTA);
+
+    ema.update(4.0);
+    assertEquals(3.0, ema.getValue(), DELTA);
+
+    ema.reset();
+    assertFalse(ema.isReady());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPeriodIsRejected() {
+    new ExponentialMovingAverage(0);
+  }
+
+  @Test
+  public void testIndicatorCarriesOnAfterSerialization() throws Exception {
+    final SimpleMovingAverage sma = new SimpleMovingAverage(3);
+    sma.update(1.0);
+    sma.update(2.0);
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(sma);
+    }
+    final SimpleMovingAverage restoredSma;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      restoredSma = (SimpleMovingAverage) in.readObject();
+    }
+
+    restoredSma.update(6.0);
+    assertTrue(restoredSma.isReady());
+    assertEquals(3.0, restoredSma.getValue(), DELTA);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the RSI and MACD indicators behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestOscillators {
+
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void testRelativeStrengthIndex() {
+    final RelativeStrengthIndex rsi = new RelativeStrengthIndex(2);
+    rsi.update(10.0);
+    rsi.update(11.0);
+    assertFalse(rsi.isReady());
+    assertTrue(Double.isNaN(rsi.getValue()));
+
+    // avg gain 0.5, avg loss 0.25
+    rsi.update(10.5);
+    assertTrue(rsi.isReady());
+    assertEquals(100.0 * 2 / 3, rsi.getValue(), DELTA);
+
+    // avg gain (0.5 + 1.5) / 2 = 1.0, avg loss (0.25 + 0) / 2 = 0.125
+    rsi.update(12.0);
+    assertEquals(100.0 - 100.0 / 9.0, rsi.getValue(), DELTA);
+
+    rsi.reset();
+    assertFalse(rsi.isReady());
+  }
+
+  @Test
+  public void testRelativeStrengthIndexWithNoLosses() {
+    final RelativeStrengthIndex rsi = new RelativeStrengthIndex(2);
+    rsi.update(10.0);
+    rsi.update(10.0);
+    rsi.update(10.0);
+    assertEquals(50.0, rsi.getValue(), DELTA);
+    rsi.update(11.0);
+    assertEquals(100.0, rsi.getValue(), DELTA);
+  }
+
+  @Test
+  public void testMacd() {
+    final Macd macd = new Macd(2, 3, 2);
+    for (int i = 0; i < 3; i++) {
+      macd.update(10.0);
+    }
+    assertFalse(macd.isReady());
+    assertTrue(Double.isNaN(macd.getHistogram()));
+
+    macd.update(10.0);
+    assertTrue(macd.isReady());
+    assertEquals(0.0, macd.getValue(), DELTA);
+    assertEquals(0.0, macd.getSignal(), DELTA);
+    assertEquals(0.0, macd.getHistogram(), DELTA);
+
+    // fast EMA reacts more than slow EMA to a rising price
+    macd.update(13.0);
+    assertTrue(macd.getValue() > 0.0);
+    assertTrue(macd.getHistogram() > 0.0);
+
+    macd.reset();
+    assertFalse(macd.isReady());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMacdFastPeriodMustBeLessThanSlowPeriod() {
+    new Macd(26, 12, 9);
+  }
+}
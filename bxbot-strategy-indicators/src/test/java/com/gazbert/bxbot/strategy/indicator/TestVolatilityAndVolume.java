@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.strategy.indicator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the Bollinger Bands, ATR, and rolling VWAP indicators behave as expected.
+ *
+ * @author gazbert
+ */
+public class TestVolatilityAndVolume {
+
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void testBollingerBands() {
+    final BollingerBands bands = new BollingerBands(3, 2.0);
+    bands.update(1.0);
+    bands.update(2.0);
+    assertFalse(bands.isReady());
+    assertTrue(Double.isNaN(bands.getUpperBand()));
+
+    bands.update(3.0);
+    final double standardDeviation = Math.sqrt(2.0 / 3.0);
+    assertTrue(bands.isReady());
+    assertEquals(2.0, bands.getValue(), DELTA);
+    assertEquals(standardDeviation, bands.getStandardDeviation(), DELTA);
+    assertEquals(2.0 + 2.0 * standardDeviation, bands.getUpperBand(), DELTA);
+    assertEquals(2.0 - 2.0 * standardDeviation, bands.getLowerBand(), DELTA);
+
+    bands.reset();
+    assertFalse(bands.isReady());
+  }
+
+  @Test
+  public void testAverageTrueRange() {
+    final AverageTrueRange atr = new AverageTrueRange(2);
+    atr.update(10.0, 8.0, 9.0);
+    assertFalse(atr.isReady());
+    assertTrue(Double.isNaN(atr.getValue()));
+
+    atr.update(11.0, 9.0, 10.0);
+    assertTrue(atr.isReady());
+    assertEquals(2.0, atr.getValue(), DELTA);
+
+    // gap up - true range is high minus previous close
+    atr.update(15.0, 13.0, 14.0);
+    assertEquals(3.5, atr.getValue(), DELTA);
+
+    atr.reset();
+    assertFalse(atr.isReady());
+  }
+
+  @Test
+  public void testRollingVwap() {
+    final RollingVwap vwap = new RollingVwap(2);
+    vwap.update(10.0, 1.0);
+    assertFalse(vwap.isReady());
+    assertTrue(Double.isNaN(vwap.getValue()));
+
+    vwap.update(20.0, 3.0);
+    assertTrue(vwap.isReady());
+    assertEquals(17.5, vwap.getValue(), DELTA);
+
+    vwap.update(30.0, 0.0);
+    assertEquals(20.0, vwap.getValue(), DELTA);
+
+    vwap.reset();
+    assertFalse(vwap.isReady());
+  }
+}
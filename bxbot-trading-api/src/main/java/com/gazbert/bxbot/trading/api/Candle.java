@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * An OHLCV candle for a market, returned by {@link TradingApi#getCandles(String, CandleTimeframe,
+ * int)}.
+ *
+ * @author gazbert
+ * @since 1.3
+ */
+public interface Candle {
+
+  /**
+   * Returns the date/time the candle opened, i.e. the start of its timeframe.
+   *
+   * @return the open date/time.
+   */
+  Date getOpenTime();
+
+  /**
+   * Returns the first price in the candle's timeframe.
+   *
+   * @return the open price.
+   */
+  BigDecimal getOpen();
+
+  /**
+   * Returns the highest price in the candle's timeframe.
+   *
+   * @return the high price.
+   */
+  BigDecimal getHigh();
+
+  /**
+   * Returns the lowest price in the candle's timeframe.
+   *
+   * @return the low price.
+   */
+  BigDecimal getLow();
+
+  /**
+   * Returns the last price in the candle's timeframe. For the current candle, this is the latest
+   * price.
+   *
+   * @return the close price.
+   */
+  BigDecimal getClose();
+
+  /**
+   * Returns the volume traded in the candle's timeframe. How accurate this is depends on the data
+   * the exchange provides - check the relevant Exchange Adapter code/Javadoc.
+   *
+   * @return the volume.
+   */
+  BigDecimal getVolume();
+}
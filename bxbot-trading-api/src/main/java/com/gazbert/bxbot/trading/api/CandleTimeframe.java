@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timeframes candles can be requested for.
+ *
+ * @author gazbert
+ * @since 1.3
+ */
+public enum CandleTimeframe {
+
+  /**
+   * 1 minute candles.
+   */
+  ONE_MINUTE(TimeUnit.MINUTES.toMillis(1)),
+
+  /**
+   * 5 minute candles.
+   */
+  FIVE_MINUTES(TimeUnit.MINUTES.toMillis(5)),
+
+  /**
+   * 15 minute candles.
+   */
+  FIFTEEN_MINUTES(TimeUnit.MINUTES.toMillis(15)),
+
+  /**
+   * 1 hour candles.
+   */
+  ONE_HOUR(TimeUnit.HOURS.toMillis(1)),
+
+  /**
+   * 4 hour candles.
+   */
+  FOUR_HOURS(TimeUnit.HOURS.toMillis(4)),
+
+  /**
+   * 1 day candles.
+   */
+  ONE_DAY(TimeUnit.DAYS.toMillis(1));
+
+  private final long durationMillis;
+
+  CandleTimeframe(long durationMillis) {
+    this.durationMillis = durationMillis;
+  }
+
+  /**
+   * Returns the length of the timeframe.
+   *
+   * @return the length in millis.
+   */
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+}
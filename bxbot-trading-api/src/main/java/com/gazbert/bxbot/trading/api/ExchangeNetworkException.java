@@ -40,7 +40,7 @@ package com.gazbert.bxbot.trading.api;
  * @author gazbert
  * @since 1.0
  */
-public final class ExchangeNetworkException extends Exception {
+public class ExchangeNetworkException extends Exception {
 
   private static final long serialVersionUID = 1090595894948829893L;
 
@@ -0,0 +1,145 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Holds the trading rules for an Exchange market, e.g. price tick size and minimum order size.
+ *
+ * <p>Trading Strategies (and Exchange Adapters) can use this information to round and validate
+ * orders locally before sending them to the exchange, rather than finding out the order is invalid
+ * when the exchange rejects it.
+ *
+ * <p>Not all exchanges provide the information returned in the MarketMetadata methods - you'll need
+ * to check the relevant Exchange Adapter code/Javadoc and online Exchange API documentation.
+ *
+ * <p>If the exchange does not provide the information, a null value is returned, and the
+ * corresponding rounding/validation is skipped.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface MarketMetadata {
+
+  /**
+   * Returns the market id, e.g. btcusd, XXBTZUSD
+   *
+   * @return the market id.
+   */
+  String getMarketId();
+
+  /**
+   * Returns the smallest price increment allowed for orders, e.g. 0.01 for a USD market.
+   *
+   * @return the price tick size if the exchange provides it, null otherwise.
+   */
+  BigDecimal getPriceTickSize();
+
+  /**
+   * Returns the smallest quantity increment allowed for orders, e.g. 0.00000001 for BTC.
+   *
+   * @return the quantity step size if the exchange provides it, null otherwise.
+   */
+  BigDecimal getQuantityStepSize();
+
+  /**
+   * Returns the minimum order quantity allowed, in the base currency.
+   *
+   * @return the minimum order quantity if the exchange provides it, null otherwise.
+   */
+  BigDecimal getMinimumOrderQuantity();
+
+  /**
+   * Returns the minimum order value (price * quantity) allowed, in the counter currency.
+   *
+   * @return the minimum order value if the exchange provides it, null otherwise.
+   */
+  BigDecimal getMinimumOrderValue();
+
+  /**
+   * Rounds a price to the market's tick size. BUY prices are rounded down and SELL prices are
+   * rounded up, so the rounded price is never worse than the one requested.
+   *
+   * @param price the price to round.
+   * @param orderType the type of order the price is for.
+   * @return the rounded price, or the original price if the tick size is not known.
+   */
+  default BigDecimal roundPrice(BigDecimal price, OrderType orderType) {
+    final BigDecimal tickSize = getPriceTickSize();
+    if (tickSize == null || tickSize.signum() <= 0) {
+      return price;
+    }
+    final RoundingMode roundingMode =
+        orderType == OrderType.SELL ? RoundingMode.CEILING : RoundingMode.FLOOR;
+    return price.divide(tickSize, 0, roundingMode).multiply(tickSize).stripTrailingZeros();
+  }
+
+  /**
+   * Rounds a quantity down to the market's quantity step size, so we never try to trade more than
+   * was requested.
+   *
+   * @param quantity the quantity to round.
+   * @return the rounded quantity, or the original quantity if the step size is not known.
+   */
+  default BigDecimal roundQuantity(BigDecimal quantity) {
+    final BigDecimal stepSize = getQuantityStepSize();
+    if (stepSize == null || stepSize.signum() <= 0) {
+      return quantity;
+    }
+    return quantity.divide(stepSize, 0, RoundingMode.FLOOR).multiply(stepSize).stripTrailingZeros();
+  }
+
+  /**
+   * Checks an order against the market's minimum order quantity and minimum order value.
+   *
+   * @param quantity the order quantity.
+   * @param price the order price.
+   * @throws OrderRejectedException if the order would be rejected by the exchange.
+   */
+  default void validateOrder(BigDecimal quantity, BigDecimal price) throws OrderRejectedException {
+    final BigDecimal minimumOrderQuantity = getMinimumOrderQuantity();
+    if (minimumOrderQuantity != null && quantity.compareTo(minimumOrderQuantity) < 0) {
+      throw new OrderRejectedException(
+          "Order quantity ["
+              + quantity.toPlainString()
+              + "] is below the minimum order quantity ["
+              + minimumOrderQuantity.toPlainString()
+              + "] for market "
+              + getMarketId());
+    }
+
+    final BigDecimal minimumOrderValue = getMinimumOrderValue();
+    if (minimumOrderValue != null && quantity.multiply(price).compareTo(minimumOrderValue) < 0) {
+      throw new OrderRejectedException(
+          "Order value ["
+              + quantity.multiply(price).toPlainString()
+              + "] is below the minimum order value ["
+              + minimumOrderValue.toPlainString()
+              + "] for market "
+              + getMarketId());
+    }
+  }
+}
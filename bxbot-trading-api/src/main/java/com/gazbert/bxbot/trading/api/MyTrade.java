@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Represents one of <em>your</em> trades (an execution, or fill) on the exchange.
+ *
+ * <p>An order can be filled by several trades, so there can be many trades with the same order id.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface MyTrade {
+
+  /**
+   * Returns the exchange's ID for this trade.
+   *
+   * @return the ID of the trade.
+   */
+  String getId();
+
+  /**
+   * Returns the ID of the order this trade filled (all or part of).
+   *
+   * @return the ID of the order.
+   */
+  String getOrderId();
+
+  /**
+   * Returns the id of the market this trade took place on.
+   *
+   * @return the id of the market.
+   */
+  String getMarketId();
+
+  /**
+   * Returns the type of trade. Value will be {@link OrderType#BUY} or {@link OrderType#SELL}.
+   *
+   * @return the type of trade.
+   */
+  OrderType getType();
+
+  /**
+   * Returns the price per unit the trade was executed at. This is usually in BTC or USD.
+   *
+   * @return the price per unit.
+   */
+  BigDecimal getPrice();
+
+  /**
+   * Returns the quantity filled by this trade.
+   *
+   * @return the quantity filled.
+   */
+  BigDecimal getQuantity();
+
+  /**
+   * Returns the fee charged by the exchange for this trade. If the Exchange does not provide this
+   * information, the value will be null.
+   *
+   * @return the fee if the Exchange provides this information, null otherwise.
+   */
+  BigDecimal getFee();
+
+  /**
+   * Returns the exchange date/time the trade was executed.
+   *
+   * @return the exchange date/time.
+   */
+  Date getTimestamp();
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import java.util.List;
+
+/**
+ * A page of <em>your</em> trades returned by {@link TradingApi#getMyTrades(String, String)}.
+ *
+ * <p>Pass the cursor back in to the next call to fetch only the trades that have happened since.
+ *
+ * @author gazbert
+ * @since 1.2
+ */
+public interface MyTradeHistory {
+
+  /**
+   * Returns the trades executed since the cursor passed in, oldest first.
+   *
+   * @return the new trades. This will be empty if there are none.
+   */
+  List<MyTrade> getTrades();
+
+  /**
+   * Returns the cursor to pass in to the next call to fetch only newer trades. The cursor is
+   * exchange specific and should be treated as opaque.
+   *
+   * <p>If there are no new trades, this will be the same cursor that was passed in.
+   *
+   * @return the cursor for the next call.
+   */
+  String getCursor();
+}
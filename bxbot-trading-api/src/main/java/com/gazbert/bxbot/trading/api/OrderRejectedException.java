@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+/**
+ * This exception is thrown when an order is rejected before it reaches the exchange, e.g. because
+ * it is below the market's minimum order size, or it breaches one of the bot's risk limits.
+ *
+ * <p>Nothing was sent to the exchange, so no order was placed. The rejection is not fatal: the
+ * order can be resized and placed again, or the Trading Strategy can wait for the next trade cycle.
+ *
+ * <p>It extends {@link ExchangeNetworkException} so that Trading Strategies written before it was
+ * added treat a rejected order like any other recoverable error, rather than shutting down the bot.
+ * Trading Strategies that want to handle rejections differently can catch this exception first.
+ *
+ * @author gazbert
+ * @since 1.3
+ */
+public class OrderRejectedException extends ExchangeNetworkException {
+
+  private static final long serialVersionUID = -2785617301945362078L;
+
+  /**
+   * Constructor builds exception with error message.
+   *
+   * @param msg the error message.
+   */
+  public OrderRejectedException(String msg) {
+    super(msg);
+  }
+}
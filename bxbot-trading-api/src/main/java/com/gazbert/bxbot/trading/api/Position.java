@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import java.math.BigDecimal;
+
+/**
+ * The bot's position and profit and loss on a market, returned by {@link
+ * TradingApi#getPosition(String)}.
+ *
+ * <p>Amounts of money are in the market's counter currency, quantities in its base currency.
+ *
+ * @author gazbert
+ * @since 1.3
+ */
+public interface Position {
+
+  /**
+   * Returns the id of the market.
+   *
+   * @return the market id.
+   */
+  String getMarketId();
+
+  /**
+   * Returns the amount of base currency held. This is negative if the bot has sold more than it
+   * has bought.
+   *
+   * @return the position quantity.
+   */
+  BigDecimal getQuantity();
+
+  /**
+   * Returns the average price paid (or received, if the position is negative) for the quantity
+   * held.
+   *
+   * @return the average entry price, or null if no quantity is held.
+   */
+  BigDecimal getAverageEntryPrice();
+
+  /**
+   * Returns the price the position is marked at. This is the last price the Trading Engine fetched
+   * for the market.
+   *
+   * @return the mark price, or null if the market's price has not been fetched yet.
+   */
+  BigDecimal getMarkPrice();
+
+  /**
+   * Returns the profit or loss made on the quantity bought and sold, after fees.
+   *
+   * @return the realized profit and loss.
+   */
+  BigDecimal getRealizedPnl();
+
+  /**
+   * Returns the profit or loss on the quantity held, if it were closed at the mark price.
+   *
+   * @return the unrealized profit and loss; zero if the mark price is not known.
+   */
+  BigDecimal getUnrealizedPnl();
+
+  /**
+   * Returns the exchange fees paid.
+   *
+   * @return the fees paid.
+   */
+  BigDecimal getFeesPaid();
+}
@@ -51,7 +51,7 @@ public interface TradingApi {
    * @since 1.0
    */
   default String getVersion() {
-    return "1.1";
+    return "1.3";
   }
 
   /**
@@ -284,4 +284,143 @@ public interface TradingApi {
       }
     };
   }
+
+  /**
+   * Returns the trading rules for a given market id, e.g. price tick size and minimum order size.
+   *
+   * <p>Exchange Adapters that support this load the rules once from the exchange and cache them, so
+   * it is cheap to call this every trade cycle.
+   *
+   * <p>Not all exchanges provide the information returned in the MarketMetadata methods - you'll
+   * need to check the relevant Exchange Adapter code/Javadoc and online Exchange API documentation.
+   *
+   * <p>If the exchange does not provide the information, a null value is returned.
+   *
+   * @param marketId the id of the market.
+   * @return the trading rules for the given market.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   *     This is implementation specific for each Exchange Adapter - see the documentation for the
+   *     adapter you are using. You could retry the API call, or exit from your Trading Strategy and
+   *     let the Trading Engine execute your Trading Strategy at the next trade cycle.
+   * @throws TradingApiException if the API call failed for any reason other than a network error.
+   *     This means something bad as happened; you would probably want to wrap this exception in a
+   *     StrategyException and let the Trading Engine shutdown the bot immediately to prevent
+   *     unexpected losses.
+   * @since 1.2
+   */
+  default MarketMetadata getMarketMetadata(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+
+    return new MarketMetadata() {
+      @Override
+      public String getMarketId() {
+        return marketId;
+      }
+
+      @Override
+      public BigDecimal getPriceTickSize() {
+        return null;
+      }
+
+      @Override
+      public BigDecimal getQuantityStepSize() {
+        return null;
+      }
+
+      @Override
+      public BigDecimal getMinimumOrderQuantity() {
+        return null;
+      }
+
+      @Override
+      public BigDecimal getMinimumOrderValue() {
+        return null;
+      }
+    };
+  }
+
+  /**
+   * Fetches <em>your</em> trades (executions) for a given market since the given cursor.
+   *
+   * <p>This lets Trading Strategies detect fills, including partial fills, without downloading all
+   * open orders each trade cycle and checking which ones have gone. Pass null as the cursor on the
+   * first call to fetch the most recent trades, then pass in the {@link MyTradeHistory#getCursor()}
+   * from the previous call to fetch only the trades that have happened since.
+   *
+   * <p>Not all exchanges support this - the default implementation throws a TradingApiException.
+   * Check the relevant Exchange Adapter code/Javadoc.
+   *
+   * @param marketId the id of the market.
+   * @param sinceCursor the cursor returned by the previous call, or null to fetch the most recent
+   *     trades.
+   * @return your trades since the cursor, oldest first, and the cursor for the next call.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   *     This is implementation specific for each Exchange Adapter - see the documentation for the
+   *     adapter you are using. You could retry the API call, or exit from your Trading Strategy and
+   *     let the Trading Engine execute your Trading Strategy at the next trade cycle.
+   * @throws TradingApiException if the API call failed for any reason other than a network error,
+   *     or the Exchange Adapter does not support fetching trades.
+   * @since 1.2
+   */
+  default MyTradeHistory getMyTrades(String marketId, String sinceCursor)
+      throws TradingApiException, ExchangeNetworkException {
+    throw new TradingApiException(
+        "Fetching your trades is not supported by this Exchange Adapter: " + getImplName());
+  }
+
+  /**
+   * Returns the most recent OHLCV candles for a given market, oldest first. The last candle is the
+   * current one, and is still being built.
+   *
+   * <p>Candles are built by the Trading Engine from the market data it fetches from the exchange,
+   * and are shared by all the Trading Strategies trading the market. The Engine starts building
+   * candles for a market the first time they are requested, so the history will be short (or
+   * empty) at first.
+   *
+   * <p>The default implementation, used by Exchange Adapters directly, throws a
+   * TradingApiException.
+   *
+   * @param marketId the id of the market.
+   * @param timeframe the timeframe of each candle.
+   * @param count the maximum number of candles to return.
+   * @return the candles, oldest first. This will have fewer than count candles if there is not
+   *     enough history yet.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   *     This is implementation specific for each Exchange Adapter - see the documentation for the
+   *     adapter you are using. You could retry the API call, or exit from your Trading Strategy and
+   *     let the Trading Engine execute your Trading Strategy at the next trade cycle.
+   * @throws TradingApiException if the API call failed for any reason other than a network error,
+   *     or candles are not supported.
+   * @since 1.3
+   */
+  default List<Candle> getCandles(String marketId, CandleTimeframe timeframe, int count)
+      throws TradingApiException, ExchangeNetworkException {
+    throw new TradingApiException("Candles are not supported by: " + getImplName());
+  }
+
+  /**
+   * Returns the bot's position and profit and loss on a given market.
+   *
+   * <p>Positions are built by the Trading Engine from the fills of the bot's orders, including
+   * those made before the bot was restarted, using the exchange fees returned by {@link
+   * #getPercentageOfBuyOrderTakenForExchangeFee(String)} and {@link
+   * #getPercentageOfSellOrderTakenForExchangeFee(String)}. No exchange call is made.
+   *
+   * <p>The default implementation, used by Exchange Adapters directly, throws a
+   * TradingApiException.
+   *
+   * @param marketId the id of the market.
+   * @return the position. If the bot has not traded on the market, the position is flat.
+   * @throws ExchangeNetworkException if a network error occurred trying to connect to the exchange.
+   *     This is implementation specific for each Exchange Adapter - see the documentation for the
+   *     adapter you are using. You could retry the API call, or exit from your Trading Strategy and
+   *     let the Trading Engine execute your Trading Strategy at the next trade cycle.
+   * @throws TradingApiException if the API call failed for any reason other than a network error,
+   *     or positions are not supported.
+   * @since 1.3
+   */
+  default Position getPosition(String marketId)
+      throws TradingApiException, ExchangeNetworkException {
+    throw new TradingApiException("Positions are not supported by: " + getImplName());
+  }
 }
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.trading.api;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import org.junit.Test;
+
+/**
+ * Tests default impl methods of MarketMetadata interface.
+ *
+ * @author gazbert
+ */
+public class TestMarketMetadata {
+
+  private static final MarketMetadata BTC_USD_METADATA =
+      new MyMarketMetadata(
+          new BigDecimal("0.01"),
+          new BigDecimal("0.0001"),
+          new BigDecimal("0.001"),
+          new BigDecimal("10"));
+
+  @Test
+  public void testBuyPriceIsRoundedDownToTickSize() {
+    final BigDecimal rounded =
+        BTC_USD_METADATA.roundPrice(new BigDecimal("8999.999"), OrderType.BUY);
+    assertEquals(0, new BigDecimal("8999.99").compareTo(rounded));
+  }
+
+  @Test
+  public void testSellPriceIsRoundedUpToTickSize() {
+    final BigDecimal rounded =
+        BTC_USD_METADATA.roundPrice(new BigDecimal("8999.991"), OrderType.SELL);
+    assertEquals(0, new BigDecimal("9000.00").compareTo(rounded));
+  }
+
+  @Test
+  public void testPriceAlreadyOnTickIsUnchanged() {
+    final BigDecimal rounded =
+        BTC_USD_METADATA.roundPrice(new BigDecimal("9000.12"), OrderType.SELL);
+    assertEquals(0, new BigDecimal("9000.12").compareTo(rounded));
+  }
+
+  @Test
+  public void testQuantityIsRoundedDownToStepSize() {
+    final BigDecimal rounded = BTC_USD_METADATA.roundQuantity(new BigDecimal("0.12349999"));
+    assertEquals(0, new BigDecimal("0.1234").compareTo(rounded));
+  }
+
+  @Test
+  public void testValidOrderPassesValidation() throws Exception {
+    BTC_USD_METADATA.validateOrder(new BigDecimal("0.01"), new BigDecimal("9000"));
+  }
+
+  @Test(expected = OrderRejectedException.class)
+  public void testOrderBelowMinimumQuantityFailsValidation() throws Exception {
+    BTC_USD_METADATA.validateOrder(new BigDecimal("0.0009"), new BigDecimal("90000"));
+  }
+
+  @Test(expected = OrderRejectedException.class)
+  public void testOrderBelowMinimumValueFailsValidation() throws Exception {
+    BTC_USD_METADATA.validateOrder(new BigDecimal("0.001"), new BigDecimal("9000"));
+  }
+
+  /** Test class. */
+  private static class MyMarketMetadata implements MarketMetadata {
+
+    private final BigDecimal priceTickSize;
+    private final BigDecimal quantityStepSize;
+    private final BigDecimal minimumOrderQuantity;
+    private final BigDecimal minimumOrderValue;
+
+    MyMarketMetadata(
+        BigDecimal priceTickSize,
+        BigDecimal quantityStepSize,
+        BigDecimal minimumOrderQuantity,
+        BigDecimal minimumOrderValue) {
+      this.priceTickSize = priceTickSize;
+      this.quantityStepSize = quantityStepSize;
+      this.minimumOrderQuantity = minimumOrderQuantity;
+      this.minimumOrderValue = minimumOrderValue;
+    }
+
+    @Override
+    public String getMarketId() {
+      return "btcusd";
+    }
+
+    @Override
+    public BigDecimal getPriceTickSize() {
+      return priceTickSize;
+    }
+
+    @Override
+    public BigDecimal getQuantityStepSize() {
+      return quantityStepSize;
+    }
+
+    @Override
+    public BigDecimal getMinimumOrderQuantity() {
+      return minimumOrderQuantity;
+    }
+
+    @Override
+    public BigDecimal getMinimumOrderValue() {
+      return minimumOrderValue;
+    }
+  }
+}
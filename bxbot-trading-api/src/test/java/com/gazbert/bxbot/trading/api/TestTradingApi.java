@@ -41,7 +41,7 @@ public class TestTradingApi {
   @Test
   public void testGetVersion() {
     final MyApiImpl myApi = new MyApiImpl();
-    assertEquals("1.1", myApi.getVersion());
+    assertEquals("1.3", myApi.getVersion());
   }
 
   @Test
@@ -61,6 +61,43 @@ public class TestTradingApi {
     assertNull(ticker.getTimestamp());
   }
 
+  @Test
+  public void testGetMarketMetadata() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+    final MarketMetadata marketMetadata = myApi.getMarketMetadata("market-123");
+    assertNotNull(marketMetadata);
+
+    assertEquals("market-123", marketMetadata.getMarketId());
+    assertNull(marketMetadata.getPriceTickSize());
+    assertNull(marketMetadata.getQuantityStepSize());
+    assertNull(marketMetadata.getMinimumOrderQuantity());
+    assertNull(marketMetadata.getMinimumOrderValue());
+
+    // No trading rules known, so nothing should be rounded or rejected.
+    final BigDecimal price = new BigDecimal("123.456789");
+    assertEquals(price, marketMetadata.roundPrice(price, OrderType.BUY));
+    assertEquals(price, marketMetadata.roundQuantity(price));
+    marketMetadata.validateOrder(new BigDecimal("0.00000001"), price);
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testGetMyTradesIsNotSupportedByDefault() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+    myApi.getMyTrades("market-123", null);
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testGetCandlesIsNotSupportedByDefault() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+    myApi.getCandles("market-123", CandleTimeframe.ONE_MINUTE, 10);
+  }
+
+  @Test(expected = TradingApiException.class)
+  public void testGetPositionIsNotSupportedByDefault() throws Exception {
+    final MyApiImpl myApi = new MyApiImpl();
+    myApi.getPosition("market-123");
+  }
+
   /** Test class. */
   class MyApiImpl implements TradingApi {
 
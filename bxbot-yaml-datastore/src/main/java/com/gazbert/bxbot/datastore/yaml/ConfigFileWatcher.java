@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.datastore.yaml;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Watches the config files for changes using a {@link WatchService} on their directories.
+ *
+ * <p>Every watched file has a version number that goes up each time the file is created, modified
+ * or deleted. Caches compare the version they loaded with the current one to know when to reload,
+ * which costs a map lookup rather than a disk read.
+ *
+ * <p>There is one watcher per process, with one daemon thread that waits for file system events.
+ * Note that some platforms poll for changes, so it can take a few seconds for an edit to be seen.
+ *
+ * @author gazbert
+ */
+public final class ConfigFileWatcher {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final ConfigFileWatcher INSTANCE = new ConfigFileWatcher();
+
+  private final Map<Path, AtomicLong> fileVersions = new ConcurrentHashMap<>();
+  private final Set<Path> watchedDirectories = ConcurrentHashMap.newKeySet();
+  private WatchService watchService;
+
+  private ConfigFileWatcher() {
+  }
+
+  /**
+   * Returns the config file watcher.
+   *
+   * @return the config file watcher.
+   */
+  public static ConfigFileWatcher getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts watching a file.
+   *
+   * @param file the file to watch.
+   * @return true if the file is being watched, false if its directory does not exist or cannot be
+   *     watched. Callers must then check the file themselves.
+   */
+  public synchronized boolean watch(Path file) {
+    final Path watchedFile = file.toAbsolutePath().normalize();
+    if (fileVersions.containsKey(watchedFile)) {
+      return true;
+    }
+
+    final Path directory = watchedFile.getParent();
+    if (directory == null || !Files.isDirectory(directory)) {
+      return false;
+    }
+
+    try {
+      if (watchService == null) {
+        final WatchService newWatchService = FileSystems.getDefault().newWatchService();
+        watchService = newWatchService;
+        final Thread watcherThread =
+            new Thread(() -> processEvents(newWatchService), "bxbot-config-file-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+      }
+      if (!watchedDirectories.contains(directory)) {
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        watchedDirectories.add(directory);
+        LOG.info(() -> "Watching config directory for changes: " + directory);
+      }
+      fileVersions.put(watchedFile, new AtomicLong());
+      return true;
+
+    } catch (IOException | UnsupportedOperationException e) {
+      LOG.warn(() -> "Cannot watch config file for changes: " + watchedFile, e);
+      return false;
+    }
+  }
+
+  /**
+   * Returns the current version of a watched file.
+   *
+   * @param file the file.
+   * @return the file's version, or -1 if the file is not being watched.
+   */
+  public long getVersion(Path file) {
+    final AtomicLong version = fileVersions.get(file.toAbsolutePath().normalize());
+    return version == null ? -1 : version.get();
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private void processEvents(WatchService watchService) {
+    try {
+      while (true) {
+        final WatchKey watchKey = watchService.take();
+        final Path directory = (Path) watchKey.watchable();
+        for (final WatchEvent<?> event : watchKey.pollEvents()) {
+          // On OVERFLOW events were lost, so every file in the directory is treated as changed.
+          final Path changedFile =
+              event.kind() == OVERFLOW ? null : directory.resolve((Path) event.context());
+          fileVersions.forEach(
+              (file, version) -> {
+                if (changedFile == null
+                    ? directory.equals(file.getParent())
+                    : changedFile.equals(file)) {
+                  version.incrementAndGet();
+                }
+              });
+        }
+        watchKey.reset();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
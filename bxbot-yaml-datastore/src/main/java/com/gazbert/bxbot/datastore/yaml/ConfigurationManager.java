@@ -23,14 +23,26 @@
 
 package com.gazbert.bxbot.datastore.yaml;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.yaml.snakeyaml.DumperOptions;
@@ -46,25 +58,36 @@ import org.yaml.snakeyaml.representer.Representer;
 /**
  * The generic configuration manager loads config from a given YAML config file.
  *
+ * <p>Each config file has its own read/write lock, so loading one file is never blocked by a save
+ * to another. Saves are written to a temp file in the same directory, forced to disk, and then
+ * renamed over the target, so a crash mid-save leaves the previous file intact. If several saves
+ * to the same file queue up behind the write lock, only the most recent one is written.
+ *
  * @author gazbert
  */
 public final class ConfigurationManager {
 
   private static final Logger LOG = LogManager.getLogger();
   private static final String YAML_HEADER = "---" + System.getProperty("line.separator");
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private static final ConcurrentMap<Path, ConfigFile> CONFIG_FILES = new ConcurrentHashMap<>();
 
   private ConfigurationManager() {
   }
 
   /** Loads the config from the YAML file. */
-  public static synchronized <T> T loadConfig(final Class<T> configClass, String yamlConfigFile) {
+  public static <T> T loadConfig(final Class<T> configClass, String yamlConfigFile) {
 
     LOG.info(
         () -> "Loading configuration for [" + configClass + "] from: " + yamlConfigFile + " ...");
 
-    try (final FileInputStream fileInputStream = new FileInputStream(yamlConfigFile)) {
+    final Path yamlConfigPath = toPath(yamlConfigFile);
+    final Lock readLock = getConfigFile(yamlConfigPath).lock.readLock();
+    readLock.lock();
+    try (final InputStream inputStream = Files.newInputStream(yamlConfigPath)) {
       final Yaml yaml = new Yaml(new Constructor(configClass));
-      final T requestedConfig = yaml.load(fileInputStream);
+      final T requestedConfig = yaml.load(inputStream);
 
       LOG.info(() -> "Loaded and set configuration for [" + configClass + "] successfully!");
       return requestedConfig;
@@ -79,19 +102,22 @@ public final class ConfigurationManager {
           "Failed to load [" + yamlConfigFile + "] file. Details: " + e.getMessage();
       LOG.error(errorMsg, e);
       throw new IllegalArgumentException(errorMsg, e);
+
+    } finally {
+      readLock.unlock();
     }
   }
 
-  /** Saves the config to the YAML file. */
-  public static synchronized <T> void saveConfig(
-      Class<T> configClass, T config, String yamlConfigFile) {
+  /**
+   * Saves the config to the YAML file.
+   *
+   * <p>When this method returns, the file holds either this config or one saved after it.
+   */
+  public static <T> void saveConfig(Class<T> configClass, T config, String yamlConfigFile) {
 
     LOG.info(() -> "Saving configuration for [" + configClass + "] to: " + yamlConfigFile + " ...");
 
-    try (final FileOutputStream fileOutputStream = new FileOutputStream(yamlConfigFile);
-        final PrintWriter writer =
-            new PrintWriter(fileOutputStream, true, StandardCharsets.UTF_8)) {
-
+    try {
       // Skip null fields and order the YAML fields
       final Representer representer = new SkipNullFieldRepresenter();
       representer.setPropertyUtils(new ReversedPropertyUtils());
@@ -101,7 +127,24 @@ public final class ConfigurationManager {
       sb.append(yaml.dumpAs(config, Tag.MAP, DumperOptions.FlowStyle.BLOCK));
 
       LOG.debug(() -> "YAML file content:\n" + sb);
-      writer.print(sb);
+
+      final Path yamlConfigPath = toPath(yamlConfigFile);
+      final ConfigFile configFile = getConfigFile(yamlConfigPath);
+      configFile.pendingContent.set(sb.toString());
+
+      final Lock writeLock = configFile.lock.writeLock();
+      writeLock.lock();
+      try {
+        // A save that queued up behind us may already have taken over our content.
+        final String content = configFile.pendingContent.getAndSet(null);
+        if (content != null) {
+          writeAtomically(yamlConfigPath, content);
+        } else {
+          LOG.debug(() -> "Save to " + yamlConfigFile + " was coalesced with a later save.");
+        }
+      } finally {
+        writeLock.unlock();
+      }
 
     } catch (IOException e) {
       final String errorMsg = "Failed to find or read [" + yamlConfigFile + "] config";
@@ -116,6 +159,58 @@ public final class ConfigurationManager {
     }
   }
 
+  /*
+   * Writes the content to a temp file in the target's directory, forces it to disk, then renames it
+   * over the target. Falls back to a non-atomic replace if the file system can't do atomic moves.
+   */
+  private static void writeAtomically(Path target, String content) throws IOException {
+    final Path directory = target.getParent();
+    final Path tempFile =
+        Files.createTempFile(directory, target.getFileName().toString(), TEMP_FILE_SUFFIX);
+    try {
+      copyPermissions(target, tempFile);
+
+      try (final FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+        final ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(true);
+      }
+
+      try {
+        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        LOG.warn(() -> "Atomic move not supported for " + target + " - replacing it instead.");
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /* Temp files are created owner-only, so keep the permissions the config file already had. */
+  private static void copyPermissions(Path source, Path target) throws IOException {
+    if (Files.exists(source)
+        && source.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      Files.setPosixFilePermissions(target, Files.getPosixFilePermissions(source));
+    }
+  }
+
+  private static Path toPath(String yamlConfigFile) {
+    return Paths.get(yamlConfigFile).toAbsolutePath().normalize();
+  }
+
+  private static ConfigFile getConfigFile(Path yamlConfigPath) {
+    return CONFIG_FILES.computeIfAbsent(yamlConfigPath, path -> new ConfigFile());
+  }
+
+  /** The lock and latest unwritten content for a config file. */
+  private static final class ConfigFile {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicReference<String> pendingContent = new AtomicReference<>();
+  }
+
   /** Stops null fields from getting written out to YAML. */
   private static class SkipNullFieldRepresenter extends Representer {
     @Override
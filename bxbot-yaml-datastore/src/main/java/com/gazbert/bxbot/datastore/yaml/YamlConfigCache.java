@@ -0,0 +1,197 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.datastore.yaml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * An in-memory snapshot of a YAML config file.
+ *
+ * <p>The file is parsed once and the snapshot is served from memory until the {@link
+ * ConfigFileWatcher} reports the file has changed. Saves go through the cache, so the snapshot is
+ * updated without reading the file back, and the watcher event caused by the save does not trigger
+ * a reload.
+ *
+ * <p>If the file's directory cannot be watched, the file's modified time and size are checked on
+ * every read instead - still no parsing unless the file has changed.
+ *
+ * <p>Snapshots are shared by all readers. Neither the snapshot nor the config passed to {@link
+ * #save(Object)} should be modified; callers must copy anything they hand out.
+ *
+ * @param <T> the type the YAML file is loaded into.
+ * @param <V> the snapshot built from it, e.g. the config items indexed by id.
+ * @author gazbert
+ */
+public class YamlConfigCache<T, V> {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Class<T> configClass;
+  private final String yamlConfigFile;
+  private final Path yamlConfigPath;
+  private final Function<T, V> snapshotBuilder;
+  private final boolean isWatched;
+
+  private volatile Snapshot<V> snapshot;
+
+  /**
+   * Creates the cache. Nothing is loaded until the first read.
+   *
+   * @param configClass the type the YAML file is loaded into.
+   * @param yamlConfigFile the YAML file.
+   * @param snapshotBuilder builds the snapshot from the loaded config.
+   */
+  public YamlConfigCache(
+      Class<T> configClass, String yamlConfigFile, Function<T, V> snapshotBuilder) {
+    this(
+        configClass,
+        yamlConfigFile,
+        snapshotBuilder,
+        ConfigFileWatcher.getInstance().watch(Paths.get(yamlConfigFile)));
+  }
+
+  YamlConfigCache(
+      Class<T> configClass,
+      String yamlConfigFile,
+      Function<T, V> snapshotBuilder,
+      boolean isWatched) {
+    this.configClass = configClass;
+    this.yamlConfigFile = yamlConfigFile;
+    this.yamlConfigPath = Paths.get(yamlConfigFile);
+    this.snapshotBuilder = snapshotBuilder;
+    this.isWatched = isWatched;
+  }
+
+  /**
+   * Returns the current snapshot, loading the file if it has changed since it was last read.
+   *
+   * @return the snapshot.
+   */
+  public V get() {
+    final Snapshot<V> current = snapshot;
+    if (current != null) {
+      if (isWatched) {
+        if (current.version == currentVersion()) {
+          return current.value;
+        }
+      } else if (FileStamp.same(current.fileStamp, FileStamp.of(yamlConfigPath))) {
+        return current.value;
+      }
+    }
+    return reload();
+  }
+
+  /**
+   * Saves the config to the YAML file and makes it the current snapshot.
+   *
+   * @param config the config to save.
+   */
+  public synchronized void save(T config) {
+    // Read the version before writing, so any other change made at the same time is picked up.
+    final long version = currentVersion();
+    ConfigurationManager.saveConfig(configClass, config, yamlConfigFile);
+    snapshot =
+        new Snapshot<>(snapshotBuilder.apply(config), version, FileStamp.of(yamlConfigPath), true);
+  }
+
+  // ------------------------------------------------------------------------
+  // Private utils
+  // ------------------------------------------------------------------------
+
+  private synchronized V reload() {
+    final long version = currentVersion();
+    final FileStamp fileStamp = FileStamp.of(yamlConfigPath);
+    final Snapshot<V> current = snapshot;
+
+    if (current != null) {
+      if (isWatched && current.version == version) {
+        return current.value; // another thread got here first
+      }
+      if (current.isSaved && FileStamp.same(current.fileStamp, fileStamp)) {
+        // The change was our own save - the snapshot is already up to date.
+        snapshot = new Snapshot<>(current.value, version, fileStamp, true);
+        return current.value;
+      }
+      LOG.info(() -> "Config file has changed, reloading: " + yamlConfigFile);
+    }
+
+    final V value =
+        snapshotBuilder.apply(ConfigurationManager.loadConfig(configClass, yamlConfigFile));
+    snapshot = new Snapshot<>(value, version, fileStamp, false);
+    return value;
+  }
+
+  private long currentVersion() {
+    return isWatched ? ConfigFileWatcher.getInstance().getVersion(yamlConfigPath) : -1;
+  }
+
+  /** A snapshot, the file version and stamp it was built from, and whether it was saved by us. */
+  private static final class Snapshot<V> {
+    private final V value;
+    private final long version;
+    private final FileStamp fileStamp;
+    private final boolean isSaved;
+
+    Snapshot(V value, long version, FileStamp fileStamp, boolean isSaved) {
+      this.value = value;
+      this.version = version;
+      this.fileStamp = fileStamp;
+      this.isSaved = isSaved;
+    }
+  }
+
+  /** A file's last modified time and size. */
+  private static final class FileStamp {
+    private final FileTime lastModified;
+    private final long size;
+
+    private FileStamp(FileTime lastModified, long size) {
+      this.lastModified = lastModified;
+      this.size = size;
+    }
+
+    static FileStamp of(Path file) {
+      try {
+        return new FileStamp(Files.getLastModifiedTime(file), Files.size(file));
+      } catch (IOException e) {
+        return null;
+      }
+    }
+
+    /* A null stamp means the file could not be read. */
+    static boolean same(FileStamp stamp, FileStamp other) {
+      if (stamp == null || other == null) {
+        return stamp == other;
+      }
+      return stamp.size == other.size && stamp.lastModified.equals(other.lastModified);
+    }
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.datastore.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.datastore.yaml.engine.EngineType;
+import com.gazbert.bxbot.domain.engine.EngineConfig;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the configuration manager saves files atomically under concurrent use.
+ *
+ * @author gazbert
+ */
+public class TestConfigurationManager {
+
+  private static final int SAVER_COUNT = 8;
+  private static final int SAVES_PER_SAVER = 25;
+
+  private Path configDirectory;
+  private Path engineFile;
+
+  /** Creates a fresh temp directory for each test. */
+  @Before
+  public void setup() throws Exception {
+    configDirectory = Files.createTempDirectory("bxbot-config-manager");
+    engineFile = configDirectory.resolve("engine.yaml");
+  }
+
+  /** Removes anything left in the temp directory. */
+  @After
+  public void tearDown() throws Exception {
+    try (Stream<Path> files = Files.list(configDirectory)) {
+      for (final Path file : files.collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(configDirectory);
+  }
+
+  @Test
+  public void testSaveReplacesExistingFileWithoutLeavingTempFiles() throws Exception {
+    ConfigurationManager.saveConfig(EngineType.class, someEngine("bot-1"), engineFile.toString());
+    ConfigurationManager.saveConfig(EngineType.class, someEngine("bot-2"), engineFile.toString());
+
+    final EngineType reloaded =
+        ConfigurationManager.loadConfig(EngineType.class, engineFile.toString());
+    assertEquals("bot-2", reloaded.getEngine().getBotId());
+    assertEquals(1, countFilesInConfigDirectory());
+  }
+
+  @Test
+  public void testConcurrentSavesAndLoadsAlwaysSeeACompleteFile() throws Exception {
+    ConfigurationManager.saveConfig(EngineType.class, someEngine("bot-0-0"), engineFile.toString());
+
+    final ExecutorService executor = Executors.newFixedThreadPool(SAVER_COUNT * 2);
+    final CountDownLatch startGate = new CountDownLatch(1);
+    final List<Future<?>> results = new ArrayList<>();
+    try {
+      for (int saver = 0; saver < SAVER_COUNT; saver++) {
+        final int saverId = saver;
+        results.add(
+            executor.submit(
+                () -> {
+                  startGate.await();
+                  for (int i = 0; i < SAVES_PER_SAVER; i++) {
+                    ConfigurationManager.saveConfig(
+                        EngineType.class, someEngine("bot-" + saverId + "-" + i),
+                        engineFile.toString());
+                  }
+                  return null;
+                }));
+        results.add(
+            executor.submit(
+                () -> {
+                  startGate.await();
+                  for (int i = 0; i < SAVES_PER_SAVER; i++) {
+                    final EngineType loaded =
+                        ConfigurationManager.loadConfig(EngineType.class, engineFile.toString());
+                    assertTrue(loaded.getEngine().getBotId().startsWith("bot-"));
+                  }
+                  return null;
+                }));
+      }
+
+      startGate.countDown();
+      for (final Future<?> result : results) {
+        result.get(30, TimeUnit.SECONDS); // rethrows any assertion failure
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    final EngineType reloaded =
+        ConfigurationManager.loadConfig(EngineType.class, engineFile.toString());
+    assertTrue(reloaded.getEngine().getBotId().endsWith("-" + (SAVES_PER_SAVER - 1)));
+    assertEquals(1, countFilesInConfigDirectory());
+  }
+
+  // --------------------------------------------------------------------------
+  // Util methods
+  // --------------------------------------------------------------------------
+
+  private long countFilesInConfigDirectory() throws Exception {
+    try (Stream<Path> files = Files.list(configDirectory)) {
+      return files.count();
+    }
+  }
+
+  private static EngineType someEngine(String botId) {
+    final EngineConfig engineConfig = new EngineConfig();
+    engineConfig.setBotId(botId);
+    engineConfig.setBotName("Test Bot");
+    engineConfig.setEmergencyStopCurrency("BTC");
+    engineConfig.setEmergencyStopBalance(new BigDecimal("0.5"));
+    engineConfig.setTradeCycleInterval(60);
+
+    final EngineType engineType = new EngineType();
+    engineType.setEngine(engineConfig);
+    return engineType;
+  }
+}
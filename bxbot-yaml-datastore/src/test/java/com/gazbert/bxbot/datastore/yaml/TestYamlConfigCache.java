@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 gazbert
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.gazbert.bxbot.datastore.yaml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gazbert.bxbot.datastore.yaml.market.MarketsType;
+import com.gazbert.bxbot.domain.market.MarketConfig;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the YAML config cache only reloads when the file changes.
+ *
+ * @author gazbert
+ */
+public class TestYamlConfigCache {
+
+  private static final long RELOAD_TIMEOUT_MILLIS = 30 * 1000L;
+
+  private Path configDirectory;
+  private Path marketsFile;
+
+  /** Writes a markets file to a fresh temp directory for each test. */
+  @Before
+  public void setup() throws Exception {
+    configDirectory = Files.createTempDirectory("bxbot-config-cache");
+    marketsFile = configDirectory.resolve("markets.yaml");
+    ConfigurationManager.saveConfig(
+        MarketsType.class, someMarkets("BTC/USD"), marketsFile.toString());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(marketsFile);
+    Files.deleteIfExists(configDirectory);
+  }
+
+  @Test
+  public void testSnapshotIsServedFromMemoryUntilFileChanges() throws Exception {
+    final YamlConfigCache<MarketsType, MarketsType> cache =
+        new YamlConfigCache<>(MarketsType.class, marketsFile.toString(), markets -> markets);
+
+    final MarketsType snapshot = cache.get();
+    assertEquals("BTC/USD", snapshot.getMarkets().get(0).getName());
+    assertSame(snapshot, cache.get());
+
+    // Edited outside of the bot.
+    final String edited =
+        new String(Files.readAllBytes(marketsFile), StandardCharsets.UTF_8)
+            .replace("BTC/USD", "BTC/EUR");
+    Files.write(marketsFile, edited.getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("BTC/EUR", waitForMarketName(cache, "BTC/EUR"));
+  }
+
+  @Test
+  public void testSaveUpdatesSnapshotWithoutReload() throws Exception {
+    final YamlConfigCache<MarketsType, MarketsType> cache =
+        new YamlConfigCache<>(MarketsType.class, marketsFile.toString(), markets -> markets);
+    cache.get();
+
+    final MarketsType saved = someMarkets("LTC/USD");
+    cache.save(saved);
+    assertSame(saved, cache.get());
+
+    // The file watcher will see our own save, but that must not cause a reload.
+    Thread.sleep(500);
+    assertSame(saved, cache.get());
+    assertEquals(
+        "LTC/USD",
+        ConfigurationManager.loadConfig(MarketsType.class, marketsFile.toString())
+            .getMarkets()
+            .get(0)
+            .getName());
+  }
+
+  @Test
+  public void testUnwatchedFileIsReloadedWhenItsStampChanges() throws Exception {
+    final YamlConfigCache<MarketsType, MarketsType> cache =
+        new YamlConfigCache<>(
+            MarketsType.class, marketsFile.toString(), markets -> markets, false);
+
+    final MarketsType snapshot = cache.get();
+    assertSame(snapshot, cache.get());
+
+    final String edited =
+        new String(Files.readAllBytes(marketsFile), StandardCharsets.UTF_8)
+            .replace("BTC/USD", "BTC/USDT");
+    Files.write(marketsFile, edited.getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("BTC/USDT", cache.get().getMarkets().get(0).getName());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMissingFileThrowsException() {
+    new YamlConfigCache<>(
+            MarketsType.class, configDirectory.resolve("missing.yaml").toString(), m -> m)
+        .get();
+  }
+
+  @Test
+  public void testFilesInMissingDirectoriesAreNotWatched() {
+    final ConfigFileWatcher watcher = ConfigFileWatcher.getInstance();
+    assertTrue(watcher.watch(marketsFile));
+    assertTrue(watcher.watch(marketsFile));
+
+    final Path missingFile = configDirectory.resolve("missing-dir").resolve("markets.yaml");
+    assertFalse(watcher.watch(missingFile));
+    assertEquals(-1, watcher.getVersion(missingFile));
+  }
+
+  private static String waitForMarketName(
+      YamlConfigCache<MarketsType, MarketsType> cache, String expectedName) throws Exception {
+    final long deadline = System.currentTimeMillis() + RELOAD_TIMEOUT_MILLIS;
+    String name = cache.get().getMarkets().get(0).getName();
+    while (!expectedName.equals(name) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+      name = cache.get().getMarkets().get(0).getName();
+    }
+    return name;
+  }
+
+  private static MarketsType someMarkets(String marketName) {
+    final MarketConfig marketConfig = new MarketConfig();
+    marketConfig.setId("btc_usd");
+    marketConfig.setName(marketName);
+    marketConfig.setBaseCurrency("BTC");
+    marketConfig.setCounterCurrency("USD");
+    marketConfig.setEnabled(true);
+    marketConfig.setTradingStrategyId("scalping-strategy");
+    final MarketsType marketsType = new MarketsType();
+    marketsType.getMarkets().add(marketConfig);
+    return marketsType;
+  }
+}
@@ -26,12 +26,14 @@ package com.gazbert.bxbot.datastore.yaml.market;
 import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.gazbert.bxbot.datastore.yaml.ConfigurationManager;
 import com.gazbert.bxbot.domain.market.MarketConfig;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.util.Arrays;
 import org.junit.Test;
 
 /**
@@ -71,7 +73,7 @@ public class TestMarketConfigurationManagement {
     final MarketsType marketsType =
         ConfigurationManager.loadConfig(MarketsType.class, VALID_YAML_CONFIG_FILENAME);
 
-    assertEquals(2, marketsType.getMarkets().size());
+    assertEquals(3, marketsType.getMarkets().size());
 
     assertEquals("btc_usd", marketsType.getMarkets().get(0).getId());
     assertEquals("BTC/USD", marketsType.getMarkets().get(0).getName());
@@ -86,6 +88,12 @@ public class TestMarketConfigurationManagement {
     assertEquals("BTC", marketsType.getMarkets().get(1).getCounterCurrency());
     assertFalse(marketsType.getMarkets().get(1).isEnabled());
     assertEquals("scalping-strategy", marketsType.getMarkets().get(1).getTradingStrategyId());
+
+    assertEquals("eth_usd", marketsType.getMarkets().get(2).getId());
+    assertNull(marketsType.getMarkets().get(2).getTradingStrategyId());
+    assertEquals(
+        Arrays.asList("scalping-strategy", "macd-strategy"),
+        marketsType.getMarkets().get(2).getTradingStrategyIds());
   }
 
   @Test(expected = IllegalStateException.class)
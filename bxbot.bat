@@ -15,9 +15,16 @@ REM You can start, stop, and query the bot's status: bxbot.bat [start|stop|statu
 REM
 SET lib_dir=.\libs
 
-REM log4j2 config file location
+REM log4j2 config file location. For the async, garbage-free production profile, use .\config\log4j2-async.xml
+REM It is passed to log4j2 and to Spring Boot (as logging.config), so Spring keeps it when it starts up.
 SET log4j2_config=.\config\log4j2.xml
 
+REM log4j2 system properties - see .\config\log4j2-async.xml
+SET log4j2_opts=-Dlog4j2.asyncQueueFullPolicy=Discard -Dlog4j2.discardThreshold=INFO -Dlog4j2.asyncLoggerConfigRingBufferSize=8192 -Dlog4j2.is.webapp=false
+
+REM Java Flight Recorder continuous recording of the last 6 hours (up to 100 MB) - see the README. Set to nothing to turn it off.
+SET jfr_opts=-XX:StartFlightRecording=name=bxbot,settings=default,disk=true,maxage=6h,maxsize=100m,dumponexit=true,filename=.\logs\bxbot.jfr
+
 REM The BX-bot 'fat' jar (Spring Boot app containing all the dependencies)
 SET bxbot_jar=bxbot-app-1.0.1.jar
 
@@ -35,7 +42,7 @@ IF NOT "%1"=="status" GOTO:invalidArgs
 REM TODO: Check if bot is already running before trying to start it!
 SET START_TIME=%time%
 ECHO Starting BX-bot...
-START "BX-bot - %START_TIME%" java -Xmx64m -Xss256k -Dlog4j.configurationFile=%log4j2_config% --illegal-access=deny -jar %lib_dir%\%bxbot_jar%
+START "BX-bot - %START_TIME%" java -Xmx64m -Xss256k -Dlog4j.configurationFile=%log4j2_config% %log4j2_opts% %jfr_opts% --illegal-access=deny -jar %lib_dir%\%bxbot_jar% --logging.config=%log4j2_config%
 FOR /F "tokens=2" %%i in ('TASKLIST /NH /FI "WINDOWTITLE eq BX-bot - %START_TIME%"' ) DO (SET PID=%%i)
 ECHO %PID% > %pid_file%
 ECHO BX-bot started with PID: %PID%
@@ -17,9 +17,16 @@
 #
 lib_dir=./libs
 
-# log4j2 config file location
+# log4j2 config file location. For the async, garbage-free production profile, use ./config/log4j2-async.xml
+# It is passed to log4j2 and to Spring Boot (as logging.config), so Spring keeps it when it starts up.
 log4j2_config=./config/log4j2.xml
 
+# log4j2 system properties - see ./config/log4j2-async.xml
+log4j2_opts="-Dlog4j2.asyncQueueFullPolicy=Discard -Dlog4j2.discardThreshold=INFO -Dlog4j2.asyncLoggerConfigRingBufferSize=8192 -Dlog4j2.is.webapp=false"
+
+# Java Flight Recorder continuous recording of the last 6 hours (up to 100 MB) - see the README. Set to "" to turn it off.
+jfr_opts="-XX:StartFlightRecording=name=bxbot,settings=default,disk=true,maxage=6h,maxsize=100m,dumponexit=true,filename=./logs/bxbot.jfr"
+
 # The BX-bot 'fat' jar (Spring Boot app containing all the dependencies)
 bxbot_jar=bxbot-app-1.0.1.jar
 
@@ -34,7 +41,7 @@ case "$1" in
           echo "BX-bot is already running with PID: $pid"
        else
           echo "Starting BX-bot..."
-          java -Xmx64m -Xss256k -Dlog4j.configurationFile=file:${log4j2_config} --illegal-access=deny -jar ${lib_dir}/${bxbot_jar} 2>&1 >/dev/null &
+          java -Xmx64m -Xss256k -Dlog4j.configurationFile=file:${log4j2_config} ${log4j2_opts} ${jfr_opts} --illegal-access=deny -jar ${lib_dir}/${bxbot_jar} --logging.config=${log4j2_config} 2>&1 >/dev/null &
 
           echo "BX-bot started with PID: $!"
           echo $! > ${pid_file}